@@ -0,0 +1,52 @@
+-- ============================================
+-- 智研平台成果模块数据库补充列与索引
+-- 数据库：PostgreSQL
+-- Schema：zhiyanknowledge
+-- 说明：表结构由 JPA 自动维护，这里只补充 JPA 无法声明的列和索引
+--       索引使用 CREATE INDEX CONCURRENTLY 建立，不阻塞成果的读写；
+--       CONCURRENTLY 不能在事务块中执行，请逐条执行（psql 中不要包在 BEGIN/COMMIT 里）
+-- ============================================
+
+-- 三元组索引依赖 pg_trgm 扩展
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- ============================================
+-- 1. 成果详情表 (achievement_detail)
+-- ============================================
+
+-- 加权全文向量：由应用在保存详情时刷新，存量数据由应用启动后分批回填
+ALTER TABLE zhiyanknowledge.achievement_detail ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+-- 全文检索
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_achievement_detail_search
+    ON zhiyanknowledge.achievement_detail USING gin (search_vector);
+
+-- 详情字段等值过滤（detail_data @> ...）
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_achievement_detail_data
+    ON zhiyanknowledge.achievement_detail USING gin (detail_data jsonb_path_ops);
+
+-- 摘要子串匹配：simple 分词不切分中文，中文关键字走该索引
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_achievement_detail_abstract_trgm
+    ON zhiyanknowledge.achievement_detail USING gin (lower(abstract) gin_trgm_ops);
+
+-- 常用详情字段的包含过滤（lower(detail_data ->> 'xxx') LIKE ...）
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_achievement_detail_authors_trgm
+    ON zhiyanknowledge.achievement_detail USING gin (lower(detail_data ->> 'authors') gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_achievement_detail_journal_trgm
+    ON zhiyanknowledge.achievement_detail USING gin (lower(detail_data ->> 'journal') gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_achievement_detail_doi_trgm
+    ON zhiyanknowledge.achievement_detail USING gin (lower(detail_data ->> 'doi') gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_achievement_detail_inventors_trgm
+    ON zhiyanknowledge.achievement_detail USING gin (lower(detail_data ->> 'inventors') gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_achievement_detail_patentno_trgm
+    ON zhiyanknowledge.achievement_detail USING gin (lower(detail_data ->> 'patentNo') gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_achievement_detail_applicant_trgm
+    ON zhiyanknowledge.achievement_detail USING gin (lower(detail_data ->> 'applicant') gin_trgm_ops);
+
+-- ============================================
+-- 2. 成果表 (achievement)
+-- ============================================
+
+-- 标题子串匹配
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_achievement_title_trgm
+    ON zhiyanknowledge.achievement USING gin (lower(title) gin_trgm_ops);
@@ -0,0 +1,17 @@
+-- ============================================
+-- 智研平台任务模块数据库补充索引
+-- 数据库：PostgreSQL
+-- Schema：zhiyantasks
+-- 说明：表结构由 JPA 自动维护，这里只补充 JPA 无法声明的部分索引
+-- ============================================
+
+-- ============================================
+-- 1. 任务表 (tasks)
+-- ============================================
+
+-- 截止日期部分索引：只索引未删除且未完成的任务
+-- 任务提醒引擎按窗口加载即将截止的任务、逾期定时任务查询最近逾期的任务都走该索引
+CREATE INDEX IF NOT EXISTS idx_tasks_due_date_active
+    ON zhiyantasks.tasks (due_date)
+    WHERE is_deleted = false AND status <> 'DONE';
+
@@ -0,0 +1,45 @@
+-- ============================================
+-- 智研平台 Wiki 差异补丁压缩存储
+-- 数据库：PostgreSQL
+-- Schema：zhiyanwiki
+-- 说明：版本历史的差异补丁改为 WikiPatchCodec 编码后的二进制存储，
+--       新增 content_patch 列和按项目训练的补丁字典表；
+--       旧的 content_diff 文本由 WikiPatchMigrationScheduler 分批转换，转换后置为 NULL。
+--       索引使用 CREATE INDEX CONCURRENTLY 建立，请逐条执行（psql 中不要包在 BEGIN/COMMIT 里）
+-- ============================================
+
+-- ============================================
+-- 1. 版本历史表 (wiki_version_history)
+-- ============================================
+
+-- 压缩编码后的差异补丁
+ALTER TABLE zhiyanwiki.wiki_version_history ADD COLUMN IF NOT EXISTS content_patch bytea;
+
+COMMENT ON COLUMN zhiyanwiki.wiki_version_history.content_diff IS 'Unified Diff 文本补丁（旧数据），转换为 content_patch 后置为 NULL';
+COMMENT ON COLUMN zhiyanwiki.wiki_version_history.content_patch IS 'WikiPatchCodec 编码的差异补丁：魔数 + 格式 + 字典ID + deflate 压缩体';
+
+-- 待转换的文本补丁，转换完成后该索引为空
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_wiki_version_history_text_patch
+    ON zhiyanwiki.wiki_version_history (id)
+    WHERE content_patch IS NULL AND content_diff IS NOT NULL;
+
+-- ============================================
+-- 2. 补丁字典表 (wiki_patch_dictionary)
+-- ============================================
+
+-- 字典一经写入不再修改，重新训练时新增一条记录；补丁头部记录所用字典ID，字典记录不能删除
+CREATE TABLE IF NOT EXISTS zhiyanwiki.wiki_patch_dictionary (
+    id           BIGINT PRIMARY KEY,
+    project_id   BIGINT    NOT NULL,
+    dictionary   bytea     NOT NULL,
+    sample_count INTEGER,
+    created_at   TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 按项目取最新字典
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patch_dictionary_project
+    ON zhiyanwiki.wiki_patch_dictionary (project_id, created_at);
+
+COMMENT ON TABLE zhiyanwiki.wiki_patch_dictionary IS 'Wiki差异补丁压缩字典，按项目从已有补丁训练，作为 deflate 预置字典';
+COMMENT ON COLUMN zhiyanwiki.wiki_patch_dictionary.dictionary IS '字典内容，不超过 16KB';
+COMMENT ON COLUMN zhiyanwiki.wiki_patch_dictionary.sample_count IS '训练使用的补丁数量';
@@ -1,6 +1,7 @@
 package hbnu.project.zhiyanbackend.activelog.controller;
 
 import hbnu.project.zhiyanbackend.activelog.service.OperationLogExportService;
+import hbnu.project.zhiyanbackend.redis.ratelimit.RateLimit;
 import hbnu.project.zhiyanbackend.security.utils.SecurityUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -34,6 +35,7 @@ public class OperationLogExportController {
      * 导出项目操作日志
      */
     @GetMapping("/projects/{projectId}/project-logs")
+    @RateLimit(name = "activelog:export", permits = 5, window = "1m", dimension = RateLimit.Dimension.USER)
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "导出项目操作日志", description = "导出指定项目的操作日志，支持按操作类型、用户名、时间范围筛选，可指定导出条数")
     public void exportProjectLogs(
@@ -52,6 +54,7 @@ public class OperationLogExportController {
      * 导出我的操作日志
      */
     @GetMapping("/my-logs")
+    @RateLimit(name = "activelog:export", permits = 5, window = "1m", dimension = RateLimit.Dimension.USER)
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "导出我的操作日志", description = "导出当前用户的所有操作日志，支持按时间范围筛选，可指定导出条数")
     public void exportMyLogs(
@@ -68,6 +71,7 @@ public class OperationLogExportController {
      * 导出我在指定项目内的操作日志
      */
     @GetMapping("/projects/{projectId}/my-logs")
+    @RateLimit(name = "activelog:export", permits = 5, window = "1m", dimension = RateLimit.Dimension.USER)
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "导出项目内我的操作日志", description = "导出当前用户在指定项目内的所有操作日志，可指定导出条数")
     public void exportMyProjectLogs(
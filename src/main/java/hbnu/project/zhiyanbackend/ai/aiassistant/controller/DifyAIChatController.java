@@ -4,6 +4,7 @@ import hbnu.project.zhiyanbackend.ai.aiassistant.config.DifyProperties;
 import hbnu.project.zhiyanbackend.ai.aiassistant.model.response.DifyFileUploadResponse;
 import hbnu.project.zhiyanbackend.ai.aiassistant.service.DifyFileService;
 import hbnu.project.zhiyanbackend.basic.domain.R;
+import hbnu.project.zhiyanbackend.redis.ratelimit.RateLimit;
 import hbnu.project.zhiyanbackend.security.utils.SecurityUtils;
 import hbnu.project.zhiyanbackend.sse.core.DifyStreamEmitter;
 import hbnu.project.zhiyanbackend.sse.service.DifyStreamService;
@@ -88,6 +89,7 @@ public class DifyAIChatController {
     }
 
     @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RateLimit(name = "ai:chat", permits = 20, window = "1m", dimension = RateLimit.Dimension.USER)
     public SseEmitter chatStream(@RequestParam String query,
                                  @RequestParam(required = false) String conversationId,
                                  @RequestParam(required = false, name = "difyFileIds") List<String> difyFileIds,
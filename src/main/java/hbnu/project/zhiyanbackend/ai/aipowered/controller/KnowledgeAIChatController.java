@@ -3,6 +3,7 @@ package hbnu.project.zhiyanbackend.ai.aipowered.controller;
 import hbnu.project.zhiyanbackend.ai.aipowered.config.KnowledgeDifyProperties;
 import hbnu.project.zhiyanbackend.ai.aipowered.service.KnowledgeDifyFileService;
 import hbnu.project.zhiyanbackend.ai.aiassistant.model.response.DifyFileUploadResponse;
+import hbnu.project.zhiyanbackend.redis.ratelimit.RateLimit;
 import hbnu.project.zhiyanbackend.security.utils.SecurityUtils;
 import hbnu.project.zhiyanbackend.sse.core.DifyStreamEmitter;
 import hbnu.project.zhiyanbackend.sse.service.DifyStreamService;
@@ -123,6 +124,7 @@ public class KnowledgeAIChatController {
      * @return SseEmitter 服务器发送事件发射器，用于流式响应
      */
     @PostMapping(value = "/chat/stream-with-files", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RateLimit(name = "ai:knowledge-chat", permits = 20, window = "1m", dimension = RateLimit.Dimension.USER)
     public SseEmitter chatStreamWithFiles(@RequestParam String query,
                                           @RequestParam(required = false) String conversationId,
                                           @RequestParam(required = false, name = "localFiles") List<MultipartFile> localFiles,
@@ -6,6 +6,7 @@ import hbnu.project.zhiyanbackend.auth.service.AuthService;
 import hbnu.project.zhiyanbackend.basic.domain.R;
 import hbnu.project.zhiyanbackend.basic.exception.ControllerException;
 
+import hbnu.project.zhiyanbackend.redis.ratelimit.RateLimit;
 import hbnu.project.zhiyanbackend.security.utils.SecurityUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -42,6 +43,7 @@ public class AuthController {
      * 发送验证码
      */
     @PostMapping("/send-verfcode")
+    @RateLimit(name = "auth:send-verfcode", permits = 5, window = "1m", message = "验证码发送过于频繁，请稍后再试")
     @Operation(summary = "发送验证码", description = "向指定邮箱发送验证码，支持注册、重置密码等场景")
     public R<Void> sendVerificationCode(
             @Valid @RequestBody VerificationCodeDTO verificationCodeDTO) {
@@ -81,6 +83,7 @@ public class AuthController {
      * 用户登录
      */
     @PostMapping("/login")
+    @RateLimit(name = "auth:login", permits = 20, window = "1m", message = "登录尝试过于频繁，请稍后再试")
     @Operation(summary = "用户登录", description = "用户登录获取访问令牌")
     public R<UserLoginResponseDTO> login(
             @Valid @RequestBody LoginDTO loginDTO,
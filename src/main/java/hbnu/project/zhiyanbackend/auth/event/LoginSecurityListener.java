@@ -0,0 +1,145 @@
+package hbnu.project.zhiyanbackend.auth.event;
+
+import cn.hutool.core.util.StrUtil;
+import hbnu.project.zhiyanbackend.basic.utils.ip.AddressUtils;
+import hbnu.project.zhiyanbackend.basic.utils.ip.IpLocationUtils;
+import hbnu.project.zhiyanbackend.basic.utils.ip.RegionUtils;
+import hbnu.project.zhiyanbackend.message.service.MessageSendService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 登录安全检查
+ * 归属地解析、异地登录判断和安全通知放在独立的有界线程池中执行，登录接口生成令牌后直接返回。
+ * 线程池不注册为 Spring 的 TaskExecutor，不影响未指定线程池的 {@code @Async} 方法。
+ * 登录IP未变化时无需检查，在登录线程上直接过滤，不入队，大量同IP登录不会占满队列；
+ * 队列满时检查在登录线程上执行并计数（{@value #METRIC_CALLER_RUNS}），IP变化的账号不会漏发安全通知。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+public class LoginSecurityListener implements InitializingBean, DisposableBean {
+
+    private static final int POOL_SIZE = 2;
+
+    private static final int QUEUE_CAPACITY = 1000;
+
+    private static final String METRIC_CALLER_RUNS = "zhiyan.login.security.caller.runs";
+
+    private final MessageSendService messageSendService;
+
+    private final Counter callerRuns;
+
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public LoginSecurityListener(MessageSendService messageSendService, MeterRegistry meterRegistry) {
+        this(messageSendService, meterRegistry, QUEUE_CAPACITY);
+    }
+
+    LoginSecurityListener(MessageSendService messageSendService, MeterRegistry meterRegistry, int queueCapacity) {
+        this.messageSendService = messageSendService;
+        this.callerRuns = meterRegistry.counter(METRIC_CALLER_RUNS);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-security-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // 入队的都是IP变化的登录，队列满时由登录线程执行，不丢弃；应用关闭中时放弃
+                (runnable, pool) -> {
+                    if (pool.isShutdown()) {
+                        return;
+                    }
+                    callerRuns.increment();
+                    if ((long) callerRuns.count() % 1000 == 1) {
+                        log.warn("登录安全检查队列已满，在登录线程上执行: callerRuns={}", (long) callerRuns.count());
+                    }
+                    runnable.run();
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 启动时加载IP地址库，避免第一次登录时才读取文件
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (!RegionUtils.isAvailable()) {
+            log.warn("IP地址库不可用，异地登录判断只比较IP");
+        }
+    }
+
+    /**
+     * 登录事务提交后提交检查任务；没有事务时立即提交
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoginSucceeded(LoginSucceededEvent event) {
+        if (!ipChanged(event)) {
+            return;
+        }
+        executor.execute(() -> check(event));
+    }
+
+    private static boolean ipChanged(LoginSucceededEvent event) {
+        return StrUtil.isNotBlank(event.lastLoginIp())
+                && IpLocationUtils.isDifferentIp(event.currentIp(), event.lastLoginIp());
+    }
+
+    private void check(LoginSucceededEvent event) {
+        String currentIp = event.currentIp();
+        String lastLoginIp = event.lastLoginIp();
+
+        String currentLocation = AddressUtils.getRealAddressByIP(currentIp);
+        String lastLocation = AddressUtils.getRealAddressByIP(lastLoginIp);
+        // IP 变化但归属地相同（如运营商重新分配地址）不视为异地登录；
+        // 归属地未知或为内网IP（不同内网地址的归属地都是"内网IP"，无法区分）时按IP变化处理
+        if (isKnownLocation(currentLocation) && currentLocation.equals(lastLocation)) {
+            log.debug("登录IP变化但归属地相同，不发送安全通知: userId={}, location={}", event.userId(), currentLocation);
+            return;
+        }
+
+        try {
+            messageSendService.notifyAccountSecurityAlert(
+                    event.userId(),
+                    currentIp,
+                    currentLocation,
+                    lastLoginIp,
+                    lastLocation
+            );
+            log.info("检测到异地登录，已发送安全通知: userId={}, currentIp={}, lastIp={}",
+                    event.userId(), currentIp, lastLoginIp);
+        } catch (Exception e) {
+            log.error("发送账号安全通知失败: userId={}", event.userId(), e);
+        }
+    }
+
+    private static boolean isKnownLocation(String location) {
+        return StrUtil.isNotBlank(location)
+                && !AddressUtils.UNKNOWN_ADDRESS.equals(location)
+                && !AddressUtils.UNKNOWN_IP.equals(location)
+                && !AddressUtils.LOCAL_ADDRESS.equals(location);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package hbnu.project.zhiyanbackend.auth.event;
+
+/**
+ * 登录成功事件
+ * 登录事务提交后由 {@link LoginSecurityListener} 异步做归属地解析、异地登录判断和安全通知
+ *
+ * @param userId      用户ID
+ * @param currentIp   本次登录IP
+ * @param lastLoginIp 上次登录IP（可能为空）
+ * @author ErgouTree
+ */
+public record LoginSucceededEvent(Long userId, String currentIp, String lastLoginIp) {
+}
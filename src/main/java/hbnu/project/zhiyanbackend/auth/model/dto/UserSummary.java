@@ -0,0 +1,82 @@
+package hbnu.project.zhiyanbackend.auth.model.dto;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hbnu.project.zhiyanbackend.auth.model.enums.UserStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用户摘要信息
+ * 列表、消息等场景展示用户时使用的字段，包含 {@link UserDTO} 对外展示的资料，不加载头像二进制数据
+ *
+ * @param id                用户ID
+ * @param name              用户姓名
+ * @param email             邮箱
+ * @param title             职称
+ * @param avatarUrl         头像信息接口地址，未上传头像时为 null
+ * @param institution       所属机构
+ * @param description       个人简介
+ * @param avatarContentType 头像MIME类型
+ * @param avatarSize        头像大小（字节）
+ * @param status            用户状态
+ * @param isLocked          是否锁定
+ * @param twoFactorEnabled  是否启用双因素认证
+ * @param githubId          GitHub 用户ID
+ * @param githubUsername    GitHub 用户名
+ * @param orcidId           ORCID 标识
+ * @param orcidBound        是否绑定 ORCID
+ * @param profileLinks      个人关联链接（JSON）
+ * @param isDeleted         是否已删除（列表中仍展示已删除用户的资料）
+ * @author ErgouTree
+ */
+public record UserSummary(Long id, String name, String email, String title, String avatarUrl,
+                          String institution, String description, String avatarContentType, Long avatarSize,
+                          UserStatus status, Boolean isLocked, Boolean twoFactorEnabled,
+                          String githubId, String githubUsername, String orcidId, Boolean orcidBound,
+                          String profileLinks, Boolean isDeleted) {
+
+    /**
+     * 头像信息接口前缀
+     */
+    private static final String AVATAR_URL_PREFIX = "/zhiyan/auth/user-avatar/";
+
+    private static final ObjectMapper PROFILE_LINK_MAPPER = new ObjectMapper();
+
+    /**
+     * 查询投影使用的构造方法，由头像大小判断是否存在头像
+     */
+    public UserSummary(Long id, String name, String email, String title,
+                       String institution, String description, String avatarContentType, Long avatarSize,
+                       UserStatus status, Boolean isLocked, Boolean twoFactorEnabled,
+                       String githubId, String githubUsername, String orcidId, Boolean orcidBound,
+                       String profileLinks, Boolean isDeleted) {
+        this(id, name, email, title, avatarSize != null && avatarSize > 0 ? AVATAR_URL_PREFIX + id : null,
+                institution, description, avatarContentType, avatarSize,
+                status, isLocked, twoFactorEnabled,
+                githubId, githubUsername, orcidId, orcidBound,
+                profileLinks, isDeleted);
+    }
+
+    /**
+     * 是否已删除
+     */
+    public boolean deleted() {
+        return Boolean.TRUE.equals(isDeleted);
+    }
+
+    /**
+     * 个人关联链接列表，解析方式与 User#getProfileLinkList 一致
+     */
+    public List<ProfileLinkDTO> profileLinkList() {
+        if (profileLinks == null || profileLinks.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return PROFILE_LINK_MAPPER.readValue(profileLinks, new TypeReference<List<ProfileLinkDTO>>() {});
+        } catch (Exception e) {
+            return new ArrayList<>();
+        }
+    }
+}
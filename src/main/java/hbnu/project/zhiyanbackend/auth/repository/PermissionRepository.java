@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -64,5 +65,16 @@ public interface PermissionRepository extends JpaRepository<Permission, Long> {
            "JOIN r.userRoles ur " +
            "WHERE ur.user.id = :userId")
     List<Permission> findAllByUserId(@Param("userId") Long userId);
+
+    /**
+     * 查询一组角色拥有的权限名称
+     *
+     * @param roleIds 角色ID集合
+     * @return 去重后的权限名称列表
+     */
+    @Query("SELECT DISTINCT p.name FROM Permission p " +
+           "JOIN p.rolePermissions rp " +
+           "WHERE rp.role.id IN :roleIds")
+    List<String> findNamesByRoleIds(@Param("roleIds") Collection<Long> roleIds);
 }
 
@@ -1,5 +1,6 @@
 package hbnu.project.zhiyanbackend.auth.repository;
 
+import hbnu.project.zhiyanbackend.auth.model.dto.UserSummary;
 import hbnu.project.zhiyanbackend.auth.model.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,6 +10,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -117,6 +120,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u.name FROM User u WHERE u.id = :userId AND u.isDeleted = false")
     Optional<String> findNameById(@Param("userId") Long userId);
 
+    /**
+     * 批量查询用户摘要信息（不加载头像数据）
+     *
+     * @param userIds 用户ID集合
+     * @return 用户摘要列表，与 findById 一致包含已删除用户
+     */
+    @Query("SELECT new hbnu.project.zhiyanbackend.auth.model.dto.UserSummary(u.id, u.name, u.email, u.title, " +
+            "u.institution, u.description, u.avatarContentType, u.avatarSize, u.status, u.isLocked, u.twoFactorEnabled, " +
+            "u.githubId, u.githubUsername, u.orcidId, u.orcidBound, u.profileLinks, u.isDeleted) " +
+            "FROM User u WHERE u.id IN :userIds")
+    List<UserSummary> findSummariesByIdIn(@Param("userIds") Collection<Long> userIds);
+
 
     /**
      * 修改用户个人简介
@@ -37,6 +37,15 @@ public interface UserRoleRepository extends JpaRepository<UserRole, Long> {
     @Query("SELECT ur FROM UserRole ur WHERE ur.user.id = :userId")
     List<UserRole> findByUserId(@Param("userId") Long userId);
 
+    /**
+     * 查询用户拥有的角色ID列表
+     *
+     * @param userId 用户ID
+     * @return 角色ID列表（升序）
+     */
+    @Query("SELECT ur.role.id FROM UserRole ur WHERE ur.user.id = :userId ORDER BY ur.role.id")
+    List<Long> findRoleIdsByUserId(@Param("userId") Long userId);
+
     /**
      * 根据角色ID查找用户角色关联列表
      *
@@ -1,6 +1,6 @@
 package hbnu.project.zhiyanbackend.auth.service.impl;
 
-import cn.hutool.core.util.StrUtil;
+import hbnu.project.zhiyanbackend.auth.event.LoginSucceededEvent;
 import hbnu.project.zhiyanbackend.auth.model.converter.UserConverter;
 import hbnu.project.zhiyanbackend.auth.model.dto.*;
 import hbnu.project.zhiyanbackend.auth.model.entity.RememberMeToken;
@@ -17,10 +17,7 @@ import hbnu.project.zhiyanbackend.basic.constants.TokenConstants;
 import hbnu.project.zhiyanbackend.basic.domain.R;
 import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
 import hbnu.project.zhiyanbackend.basic.utils.JwtUtils;
-import hbnu.project.zhiyanbackend.basic.utils.ip.AddressUtils;
-import hbnu.project.zhiyanbackend.basic.utils.ip.IpLocationUtils;
 import hbnu.project.zhiyanbackend.basic.utils.ip.IpUtils;
-import hbnu.project.zhiyanbackend.basic.utils.ip.RegionUtils;
 import hbnu.project.zhiyanbackend.message.service.MessageSendService;
 import hbnu.project.zhiyanbackend.redis.service.RedisService;
 import hbnu.project.zhiyanbackend.security.context.LoginUserBody;
@@ -33,6 +30,7 @@ import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -85,6 +83,7 @@ public class AuthServiceImpl implements AuthService {
     private final AuthUserDetailsServiceImpl authUserDetailsService;
     private final UserConverter userConverter;
     private final MessageSendService messageSendService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // RememberMe token有效期：30天
     private static final int REMEMBER_ME_DAYS = 30;
@@ -282,43 +281,20 @@ public class AuthServiceImpl implements AuthService {
 
             // 获取当前登录IP
             String currentIp = request != null ? IpUtils.getIpAddr(request) : "unknown";
-            String currentLocation = AddressUtils.getRealAddressByIP(currentIp);
 
             // 重新获取用户信息（确保是最新的）
             userOpt = userRepository.findByIdAndIsDeletedFalse(userId);
-            
-            // 获取用户信息，检查是否为异地登录
+
             if (userOpt.isPresent()) {
                 User currentUser = userOpt.get();
                 String lastLoginIp = currentUser.getLastLoginIp();
 
-                // 判断是否为异地登录
-                if (StrUtil.isNotBlank(lastLoginIp) &&
-                        IpLocationUtils.isDifferentIp(currentIp, lastLoginIp)) {
-
-                    // 获取上次登录位置
-                    String lastLocation = RegionUtils.getCityInfo(lastLoginIp);
-
-                    // 发送账号安全通知
-                    try {
-                        messageSendService.notifyAccountSecurityAlert(
-                                userId,
-                                currentIp,
-                                currentLocation,
-                                lastLoginIp,
-                                lastLocation
-                        );
-                        log.info("检测到异地登录，已发送安全通知: userId={}, currentIp={}, lastIp={}",
-                                userId, currentIp, lastLoginIp);
-                    } catch (Exception e) {
-                        log.error("发送账号安全通知失败: userId={}", userId, e);
-                        // 通知发送失败不影响登录流程
-                    }
-                }
-
                 // 更新用户的上次登录IP
                 currentUser.setLastLoginIp(currentIp);
                 userRepository.save(currentUser);
+
+                // 归属地解析和异地登录通知在事务提交后异步处理，不阻塞登录
+                eventPublisher.publishEvent(new LoginSucceededEvent(userId, currentIp, lastLoginIp));
             }
 
             // 生成 JWT Token
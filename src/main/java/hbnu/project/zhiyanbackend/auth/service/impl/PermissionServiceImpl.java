@@ -8,6 +8,7 @@ import hbnu.project.zhiyanbackend.auth.model.enums.SystemPermission;
 import hbnu.project.zhiyanbackend.auth.repository.PermissionRepository;
 import hbnu.project.zhiyanbackend.auth.repository.RolePermissionRepository;
 import hbnu.project.zhiyanbackend.auth.service.PermissionService;
+import hbnu.project.zhiyanbackend.auth.utils.PermissionResolver;
 import hbnu.project.zhiyanbackend.basic.constants.CacheConstants;
 import hbnu.project.zhiyanbackend.basic.domain.R;
 import hbnu.project.zhiyanbackend.redis.service.RedisService;
@@ -50,12 +51,14 @@ public class PermissionServiceImpl implements PermissionService {
 
     private final RedisService redisService;
 
+    private final PermissionResolver permissionResolver;
+
     // 30分钟
     private static final long CACHE_EXPIRE_TIME = 1800L;
 
     /**
      * 检查用户是否拥有指定权限
-     * 优先从Redis缓存获取用户权限，缓存未命中时从数据库查询并缓存
+     * 通过权限解析器获取编译后的权限位图，版本号未变化时直接使用本地缓存
      *
      * @param userId 用户ID
      * @param permission 权限标识
@@ -71,21 +74,7 @@ public class PermissionServiceImpl implements PermissionService {
                 return R.ok(false);
             }
 
-            // 先从缓存获取用户权限
-            Set<String> userPermissions = getUserPermissionsFromCache(userId);
-            
-            if (userPermissions == null) {
-                // 缓存未命中，从数据库查询
-                List<Permission> permissions = permissionRepository.findAllByUserId(userId);
-                userPermissions = permissions.stream()
-                        .map(Permission::getName)
-                        .collect(Collectors.toSet());
-
-                // 缓存用户权限
-                cacheUserPermissions(userId, userPermissions);
-            }
-
-            boolean hasPermission = userPermissions.contains(permission);
+            boolean hasPermission = permissionResolver.resolve(userId).has(permission);
             log.debug("用户[{}]权限[{}]检查结果: {}", userId, permission, hasPermission);
 
             return R.ok(hasPermission);
@@ -105,15 +94,7 @@ public class PermissionServiceImpl implements PermissionService {
                 return R.ok(false);
             }
 
-            R<Set<String>> userPermissionsResult = getUserPermissions(userId);
-            if (!R.isSuccess(userPermissionsResult)) {
-                return R.fail("获取用户权限失败");
-            }
-
-            Set<String> userPermissions = userPermissionsResult.getData();
-
-            boolean hasAny = permissions.stream()
-                    .anyMatch(userPermissions::contains);
+            boolean hasAny = permissionResolver.resolve(userId).hasAny(permissions);
 
             log.debug("用户[{}]是否拥有任一权限: {}", userId, hasAny);
             return R.ok(hasAny);
@@ -133,14 +114,7 @@ public class PermissionServiceImpl implements PermissionService {
                 return R.ok(false);
             }
 
-            R<Set<String>> userPermissionsResult = getUserPermissions(userId);
-            if (!R.isSuccess(userPermissionsResult)) {
-                return R.fail("获取用户权限失败");
-            }
-
-            Set<String> userPermissions = userPermissionsResult.getData();
-
-            boolean hasAll = userPermissions.containsAll(permissions);
+            boolean hasAll = permissionResolver.resolve(userId).hasAll(permissions);
 
             log.debug("用户[{}]是否拥有所有权限: {}", userId, hasAll);
             return R.ok(hasAll);
@@ -152,7 +126,7 @@ public class PermissionServiceImpl implements PermissionService {
 
     /**
      * 获取用户的所有权限
-     * 优先从Redis缓存获取，缓存未命中时从数据库查询并缓存
+     * 由权限解析器编译后的位图还原权限名称
      *
      * @param userId 用户ID
      * @return 用户权限名称集合
@@ -167,19 +141,7 @@ public class PermissionServiceImpl implements PermissionService {
                 return R.fail("用户ID不能为空");
             }
 
-            // 先从缓存获取
-            Set<String> userPermissions = getUserPermissionsFromCache(userId);
-            
-            if (userPermissions == null) {
-                // 缓存未命中，从数据库查询
-                List<Permission> permissions = permissionRepository.findAllByUserId(userId);
-                userPermissions = permissions.stream()
-                        .map(Permission::getName)
-                        .collect(Collectors.toSet());
-
-                // 缓存用户权限
-                cacheUserPermissions(userId, userPermissions);
-            }
+            Set<String> userPermissions = permissionResolver.resolve(userId).names();
 
             log.debug("获取用户权限成功 - userId: {}, 权限数: {}", userId, userPermissions.size());
             return R.ok(userPermissions);
@@ -349,6 +311,7 @@ public class PermissionServiceImpl implements PermissionService {
 
             // 清理缓存
             clearPermissionCache(savedPermission.getId());
+            permissionResolver.bumpGlobalVersion();
 
             PermissionDTO result = permissionConverter.toDTO(savedPermission);
 
@@ -402,7 +365,7 @@ public class PermissionServiceImpl implements PermissionService {
 
             // 清理缓存
             clearPermissionCache(permissionId);
-            clearAllUserPermissionsCache();
+            permissionResolver.bumpGlobalVersion();
 
             PermissionDTO result = permissionConverter.toDTO(updatedPermission);
 
@@ -451,7 +414,7 @@ public class PermissionServiceImpl implements PermissionService {
 
             // 清理缓存
             clearPermissionCache(permissionId);
-            clearAllUserPermissionsCache();
+            permissionResolver.bumpGlobalVersion();
 
             log.info("删除权限成功 - permissionId: {}, name: {}", permissionId, permission.getName());
             return R.ok(null, "权限删除成功");
@@ -502,8 +465,8 @@ public class PermissionServiceImpl implements PermissionService {
                 }
             }
 
-            // 清理所有用户权限缓存
-            clearAllUserPermissionsCache();
+            // 使所有用户的权限编译结果失效
+            permissionResolver.bumpGlobalVersion();
 
             String message = String.format("批量创建权限完成 - 成功: %d, 失败: %d",
                     createdPermissions.size(), failedPermissions.size());
@@ -599,6 +562,12 @@ public class PermissionServiceImpl implements PermissionService {
                 }
             }
 
+            // 建立权限位序号映射，新建了权限时使已有的编译结果失效
+            if (createdCount > 0) {
+                permissionResolver.bumpGlobalVersion();
+            }
+            permissionResolver.rebuildIndex();
+
             String message = String.format("系统权限初始化完成 - 新创建: %d, 已存在: %d",
                     createdCount, existingCount);
 
@@ -631,37 +600,6 @@ public class PermissionServiceImpl implements PermissionService {
 
     // ==================== 私有辅助方法 ====================
 
-    /**
-     * 从缓存中获取用户权限
-     *
-     * @param userId 用户ID
-     * @return 用户权限集合，缓存未命中返回null
-     */
-    private Set<String> getUserPermissionsFromCache(Long userId) {
-        try {
-            String cacheKey = CacheConstants.USER_PERMISSIONS_CACHE_PREFIX + userId;
-            return redisService.getCacheObject(cacheKey);
-        } catch (Exception e) {
-            log.warn("从缓存获取用户权限失败 - userId: {}", userId, e);
-            return null;
-        }
-    }
-
-    /**
-     * 缓存用户权限
-     *
-     * @param userId 用户ID
-     * @param permissions 权限集合
-     */
-    private void cacheUserPermissions(Long userId, Set<String> permissions) {
-        try {
-            String cacheKey = CacheConstants.USER_PERMISSIONS_CACHE_PREFIX + userId;
-            redisService.setCacheObject(cacheKey, permissions, CACHE_EXPIRE_TIME, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            log.warn("缓存用户权限失败 - userId: {}", userId, e);
-        }
-    }
-
     /**
      * 清理权限缓存
      *
@@ -675,19 +613,4 @@ public class PermissionServiceImpl implements PermissionService {
             log.warn("清理权限缓存失败 - permissionId: {}", permissionId, e);
         }
     }
-
-    /**
-     * 清理所有用户权限缓存
-     * 当权限信息变更时，需要清理所有用户的权限缓存
-     */
-    private void clearAllUserPermissionsCache() {
-        try {
-            Collection<String> keys = redisService.keys(CacheConstants.USER_PERMISSIONS_CACHE_PREFIX + "*");
-            if (keys != null && !keys.isEmpty()) {
-                redisService.deleteObject(keys);
-            }
-        } catch (Exception e) {
-            log.warn("清理所有用户权限缓存失败", e);
-        }
-    }
 }
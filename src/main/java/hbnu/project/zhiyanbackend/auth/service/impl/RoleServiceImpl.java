@@ -7,9 +7,11 @@ import hbnu.project.zhiyanbackend.auth.model.enums.SysRole;
 import hbnu.project.zhiyanbackend.auth.model.enums.SystemPermission;
 import hbnu.project.zhiyanbackend.auth.repository.*;
 import hbnu.project.zhiyanbackend.auth.service.RoleService;
+import hbnu.project.zhiyanbackend.auth.utils.PermissionResolver;
 import hbnu.project.zhiyanbackend.basic.domain.R;
 
 import hbnu.project.zhiyanbackend.redis.service.RedisService;
+import hbnu.project.zhiyanbackend.redis.utils.RedisKeySpace;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -19,6 +21,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -50,6 +53,8 @@ public class RoleServiceImpl implements RoleService {
 
     private final RedisService redisService;
 
+    private final PermissionResolver permissionResolver;
+
     /**
      * 获取所有系统角色列表（分页）
      *
@@ -275,7 +280,7 @@ public class RoleServiceImpl implements RoleService {
 
             // 清理缓存
             clearRoleCache(roleId);
-            clearAllUserRolesCache();
+            clearRoleUsersCache(roleId);
 
             RoleDTO result = roleConverter.toDTO(updatedRole);
 
@@ -328,6 +333,7 @@ public class RoleServiceImpl implements RoleService {
             // 清理缓存
             clearRoleCache(roleId);
             clearRolePermissionsCache(roleId);
+            permissionResolver.bumpRoleVersion(roleId);
 
             log.info("删除角色成功 - roleId: {}, name: {}", roleId, role.getName());
             return R.ok(null, "角色删除成功");
@@ -367,8 +373,11 @@ public class RoleServiceImpl implements RoleService {
                     .map(Role::getName)
                     .collect(Collectors.toSet());
 
-            // 缓存用户角色
-            redisService.setCacheObject(cacheKey, roleNames, CacheConstants.CACHE_EXPIRE_TIME, TimeUnit.SECONDS);
+            // 先登记到各角色的索引再写缓存，角色修改时只清理持有该角色的用户；
+            // 反过来写的话，两步之间发生的角色失效会漏掉这条缓存。登记失败时不写缓存
+            if (indexUserRolesCache(cacheKey, roles)) {
+                redisService.setCacheObject(cacheKey, roleNames, CacheConstants.CACHE_EXPIRE_TIME, TimeUnit.SECONDS);
+            }
 
             log.debug("获取用户角色成功 - userId: {}, 角色数: {}", userId, roleNames.size());
             return R.ok(roleNames);
@@ -610,7 +619,7 @@ public class RoleServiceImpl implements RoleService {
 
             // 清理缓存
             clearRolePermissionsCache(roleId);
-            clearAllUserPermissionsCache();
+            permissionResolver.bumpRoleVersion(roleId);
 
             log.info("为角色分配权限成功 - roleId: {}, 新增权限数: {}", roleId, newRolePermissions.size());
             return R.ok(null, "权限分配成功");
@@ -645,7 +654,7 @@ public class RoleServiceImpl implements RoleService {
 
             // 清理缓存
             clearRolePermissionsCache(roleId);
-            clearAllUserPermissionsCache();
+            permissionResolver.bumpRoleVersion(roleId);
 
             log.info("移除角色权限成功 - roleId: {}, 删除数量: {}", roleId, deletedCount);
             return R.ok(null, "权限移除成功");
@@ -912,54 +921,51 @@ public class RoleServiceImpl implements RoleService {
     }
 
     /**
-     * 清理所有用户角色缓存
+     * 把用户角色缓存登记到其持有角色的索引集合
+     *
+     * @return 是否登记成功
      */
-    private void clearAllUserRolesCache() {
+    private boolean indexUserRolesCache(String cacheKey, List<Role> roles) {
         try {
-            Collection<String> keys = redisService.keys(CacheConstants.USER_ROLES_CACHE_PREFIX + "*");
-            if (keys != null && !keys.isEmpty()) {
-                redisService.deleteObject(keys);
-            }
+            List<String> indexKeys = roles.stream()
+                    .map(role -> CacheConstants.ROLE_USERS_INDEX_PREFIX + role.getId())
+                    .toList();
+            RedisKeySpace.index(indexKeys, cacheKey, Duration.ofSeconds(CacheConstants.CACHE_EXPIRE_TIME));
+            return true;
         } catch (Exception e) {
-            log.warn("清理所有用户角色缓存失败", e);
+            log.warn("登记用户角色缓存索引失败 - cacheKey: {}", cacheKey, e);
+            return false;
         }
     }
 
     /**
-     * 清理角色权限缓存
+     * 清理持有该角色的用户的角色缓存
      */
-    private void clearRolePermissionsCache(Long roleId) {
+    private void clearRoleUsersCache(Long roleId) {
         try {
-            String cacheKey = CacheConstants.ROLE_PERMISSIONS_CACHE_PREFIX + roleId;
-            redisService.deleteObject(cacheKey);
+            long cleared = RedisKeySpace.unlinkIndexed(CacheConstants.ROLE_USERS_INDEX_PREFIX + roleId);
+            log.debug("清理角色用户缓存 - roleId: {}, 清理数: {}", roleId, cleared);
         } catch (Exception e) {
-            log.warn("清理角色权限缓存失败 - roleId: {}", roleId, e);
+            log.warn("清理角色用户缓存失败 - roleId: {}", roleId, e);
         }
     }
 
     /**
-     * 清理用户权限缓存
+     * 清理角色权限缓存
      */
-    private void clearUserPermissionsCache(Long userId) {
+    private void clearRolePermissionsCache(Long roleId) {
         try {
-            String cacheKey = CacheConstants.USER_PERMISSIONS_CACHE_PREFIX + userId;
+            String cacheKey = CacheConstants.ROLE_PERMISSIONS_CACHE_PREFIX + roleId;
             redisService.deleteObject(cacheKey);
         } catch (Exception e) {
-            log.warn("清理用户权限缓存失败 - userId: {}", userId, e);
+            log.warn("清理角色权限缓存失败 - roleId: {}", roleId, e);
         }
     }
 
     /**
-     * 清理所有用户权限缓存
+     * 使用户权限编译结果失效
      */
-    private void clearAllUserPermissionsCache() {
-        try {
-            Collection<String> keys = redisService.keys(CacheConstants.USER_PERMISSIONS_CACHE_PATTERN);
-            if (keys != null && !keys.isEmpty()) {
-                redisService.deleteObject(keys);
-            }
-        } catch (Exception e) {
-            log.warn("清理所有用户权限缓存失败", e);
-        }
+    private void clearUserPermissionsCache(Long userId) {
+        permissionResolver.bumpUserVersion(userId);
     }
 }
@@ -11,6 +11,7 @@ import hbnu.project.zhiyanbackend.basic.domain.R;
 
 
 import hbnu.project.zhiyanbackend.redis.service.RedisService;
+import hbnu.project.zhiyanbackend.redis.lock.SchedulerLock;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -240,6 +241,7 @@ public class VerificationCodeServiceImpl implements VerificationCodeService {
      * 每天凌晨2点执行
      */
     @Scheduled(cron = "0 0 2 * * ?")
+    @SchedulerLock(name = "verificationCodeCleanup", lockAtMostFor = "30m", lockAtLeastFor = "5m")
     @ConditionalOnProperty(name = "app.verification-code.enable-cleanup-task", havingValue = "true", matchIfMissing = true)
     public void scheduledCleanupExpiredCodes() {
         log.info("========== 开始执行定时清理过期验证码任务 ==========");
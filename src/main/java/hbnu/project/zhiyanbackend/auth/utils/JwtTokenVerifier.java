@@ -0,0 +1,159 @@
+package hbnu.project.zhiyanbackend.auth.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import hbnu.project.zhiyanbackend.auth.service.AuthService;
+import hbnu.project.zhiyanbackend.basic.constants.TokenConstants;
+import hbnu.project.zhiyanbackend.basic.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * JWT 令牌校验
+ * 每个令牌只解析、验签一次，结果以令牌的 SHA-256 摘要为键缓存到令牌过期为止，
+ * 同一令牌的后续请求不再重复 HMAC 计算。
+ * <p>
+ * 吊销状态以 Redis 黑名单为准，未吊销的令牌每次仍会查询黑名单，保证其他节点上的登出立即生效；
+ * 已确认吊销的令牌记录在本地，之后不再查询 Redis。
+ *
+ * @author ErgouTree
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtTokenVerifier {
+
+    private static final long MAXIMUM_SIZE = 20_000L;
+
+    private final JwtUtils jwtUtils;
+
+    private final AuthService authService;
+
+    private final Cache<String, VerifiedClaims> verified = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfter(new UntilTokenExpiry())
+            .build();
+
+    private final Cache<String, VerifiedClaims> revoked = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfter(new UntilTokenExpiry())
+            .build();
+
+    /**
+     * 校验令牌签名与有效期
+     *
+     * @param token JWT令牌
+     * @return 校验通过的声明；令牌无效或已过期时返回 null
+     */
+    public VerifiedClaims verify(String token) {
+        if (StringUtils.isBlank(token)) {
+            return null;
+        }
+        String digest = digest(token);
+        VerifiedClaims cached = verified.getIfPresent(digest);
+        if (cached != null) {
+            if (cached.isExpired()) {
+                verified.invalidate(digest);
+                return null;
+            }
+            return cached;
+        }
+
+        Claims claims = jwtUtils.getClaims(token);
+        if (claims == null || claims.getExpiration() == null) {
+            return null;
+        }
+        VerifiedClaims result = VerifiedClaims.from(digest, claims);
+        verified.put(digest, result);
+        return result;
+    }
+
+    /**
+     * 令牌是否已吊销（登出、刷新后加入黑名单）
+     *
+     * @param token  JWT令牌
+     * @param claims {@link #verify(String)} 的返回值
+     * @return 是否已吊销
+     */
+    public boolean isRevoked(String token, VerifiedClaims claims) {
+        if (revoked.getIfPresent(claims.tokenDigest()) != null) {
+            return true;
+        }
+        if (authService.isTokenBlacklisted(token)) {
+            revoked.put(claims.tokenDigest(), claims);
+            verified.invalidate(claims.tokenDigest());
+            return true;
+        }
+        return false;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 校验通过的令牌声明（不可变）
+     *
+     * @param tokenDigest 令牌摘要
+     * @param userId      用户ID
+     * @param subject     主体
+     * @param roles       角色（逗号分隔）
+     * @param issuedAt    签发时间
+     * @param expiration  过期时间
+     */
+    public record VerifiedClaims(String tokenDigest, String userId, String subject, String roles,
+                                 Instant issuedAt, Instant expiration) {
+
+        static VerifiedClaims from(String digest, Claims claims) {
+            Object userId = claims.get(TokenConstants.JWT_CLAIM_USER_ID);
+            Object roles = claims.get(TokenConstants.JWT_CLAIM_ROLES);
+            Date issuedAt = claims.getIssuedAt();
+            return new VerifiedClaims(digest,
+                    userId != null ? String.valueOf(userId) : null,
+                    claims.getSubject(),
+                    roles instanceof String value ? value : null,
+                    issuedAt != null ? issuedAt.toInstant() : null,
+                    claims.getExpiration().toInstant());
+        }
+
+        public boolean isExpired() {
+            return !expiration.isAfter(Instant.now());
+        }
+    }
+
+    /**
+     * 缓存条目在令牌过期时失效
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedClaims> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedClaims value, long currentTime) {
+            long millis = value.expiration().toEpochMilli() - System.currentTimeMillis();
+            return Math.max(0L, millis) * 1_000_000L;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedClaims value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedClaims value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -32,6 +32,7 @@ public class PermissionAssignmentUtil {
 
     private final PermissionRepository permissionRepository;
     private final RolePermissionRepository rolePermissionRepository;
+    private final PermissionResolver permissionResolver;
 
     /**
      * 为角色分配权限模块
@@ -75,6 +76,9 @@ public class PermissionAssignmentUtil {
                 .collect(Collectors.toList());
 
         rolePermissionRepository.saveAll(rolePermissions);
+        if (!rolePermissions.isEmpty()) {
+            permissionResolver.bumpRoleVersion(role.getId());
+        }
 
         log.info("成功为角色 {} 分配 {} 个新权限", role.getName(), rolePermissions.size());
         return rolePermissions.size();
@@ -134,6 +138,7 @@ public class PermissionAssignmentUtil {
         // 查找并删除对应的角色权限关联
         List<RolePermission> rolePermissions = rolePermissionRepository.findByRoleAndPermissionNameIn(role, permissionStrings);
         rolePermissionRepository.deleteAll(rolePermissions);
+        permissionResolver.bumpRoleVersion(role.getId());
 
         log.info("成功从角色 {} 移除 {} 个权限", role.getName(), rolePermissions.size());
         return rolePermissions.size();
@@ -154,6 +159,7 @@ public class PermissionAssignmentUtil {
         // 清空角色所有权限
         List<RolePermission> existingPermissions = rolePermissionRepository.findByRole(role);
         rolePermissionRepository.deleteAll(existingPermissions);
+        permissionResolver.bumpRoleVersion(role.getId());
         log.info("清空角色 {} 的 {} 个现有权限", role.getName(), existingPermissions.size());
 
         // 重新分配权限
@@ -264,6 +270,7 @@ public class PermissionAssignmentUtil {
     public void initializeSystemPermissions() {
         log.info("开始初始化系统权限到数据库");
 
+        int createdCount = 0;
         for (SystemPermission systemPermission : SystemPermission.values()) {
             Optional<Permission> existingPermissionOpt = permissionRepository.findByName(systemPermission.getPermission());
             if (existingPermissionOpt.isEmpty()) {
@@ -272,10 +279,16 @@ public class PermissionAssignmentUtil {
                         .description(systemPermission.getDescription())
                         .build();
                 permissionRepository.save(permission);
+                createdCount++;
                 log.info("创建权限: {} - {}", systemPermission.getPermission(), systemPermission.getDescription());
             }
         }
 
+        if (createdCount > 0) {
+            permissionResolver.bumpGlobalVersion();
+        }
+        permissionResolver.rebuildIndex();
+
         log.info("系统权限初始化完成");
     }
 
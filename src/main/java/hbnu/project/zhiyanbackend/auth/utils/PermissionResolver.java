@@ -0,0 +1,377 @@
+package hbnu.project.zhiyanbackend.auth.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hbnu.project.zhiyanbackend.auth.model.entity.Permission;
+import hbnu.project.zhiyanbackend.auth.model.enums.SystemPermission;
+import hbnu.project.zhiyanbackend.auth.repository.PermissionRepository;
+import hbnu.project.zhiyanbackend.auth.repository.UserRoleRepository;
+import hbnu.project.zhiyanbackend.basic.constants.CacheConstants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 用户全局权限解析器
+ * 把用户通过角色获得的权限编译为不可变位图，权限名到位序号的映射在系统权限初始化时建立：
+ * 系统权限按 {@link SystemPermission} 声明顺序占用前面的位，其余权限按ID顺序追加。
+ * <p>
+ * 编译结果保存在本地缓存中，并记录编译时的全局、用户、角色版本号（保存在 Redis）。
+ * 权限或角色变更时只需递增对应版本号，依赖它的缓存条目在下次读取时校验失败并重新编译，无需扫描键空间。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PermissionResolver {
+
+    /**
+     * 版本号键：全局版本在权限增删改时递增，角色版本在角色权限变更时递增，用户版本在用户角色变更时递增
+     */
+    private static final String GLOBAL_VERSION_KEY = "permission:version:global";
+    private static final String ROLE_VERSION_KEY_PREFIX = "permission:version:role:";
+    private static final String USER_VERSION_KEY_PREFIX = "permission:version:user:";
+
+    private static final long MAXIMUM_SIZE = 50_000L;
+
+    /**
+     * 编译期间版本号变化时的最大重试次数
+     */
+    private static final int MAX_COMPILE_ATTEMPTS = 3;
+
+    private final PermissionRepository permissionRepository;
+
+    private final UserRoleRepository userRoleRepository;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final Cache<Long, CompiledPermissions> cache = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterAccess(Duration.ofSeconds(CacheConstants.CACHE_EXPIRE_TIME))
+            .build();
+
+    private volatile BitIndex bitIndex;
+
+    /**
+     * 解析用户的有效权限
+     *
+     * @param userId 用户ID
+     * @return 编译后的权限位图
+     */
+    public CompiledPermissions resolve(Long userId) {
+        CompiledPermissions cached = cache.getIfPresent(userId);
+        if (cached != null && isCurrent(userId, cached)) {
+            return cached;
+        }
+        CompiledPermissions compiled = compile(userId);
+        if (compiled.versions != null) {
+            cache.put(userId, compiled);
+        } else {
+            cache.invalidate(userId);
+        }
+        return compiled;
+    }
+
+    /**
+     * 重建权限位序号映射，在系统权限初始化后调用
+     */
+    public void rebuildIndex() {
+        long globalVersion = readGlobalVersion();
+        bitIndex = buildIndex(globalVersion);
+        log.info("权限位图映射已重建 - 权限数: {}, 全局版本: {}", bitIndex.names.length, globalVersion);
+    }
+
+    /**
+     * 权限新增、修改、删除后调用，使所有用户的编译结果失效
+     */
+    public void bumpGlobalVersion() {
+        bumpAfterCommit(GLOBAL_VERSION_KEY);
+    }
+
+    /**
+     * 角色权限变更或角色删除后调用，使拥有该角色的用户的编译结果失效
+     *
+     * @param roleId 角色ID
+     */
+    public void bumpRoleVersion(Long roleId) {
+        if (roleId != null) {
+            bumpAfterCommit(ROLE_VERSION_KEY_PREFIX + roleId);
+        }
+    }
+
+    /**
+     * 用户角色变更后调用，使该用户的编译结果失效
+     *
+     * @param userId 用户ID
+     */
+    public void bumpUserVersion(Long userId) {
+        if (userId != null) {
+            cache.invalidate(userId);
+            bumpAfterCommit(USER_VERSION_KEY_PREFIX + userId);
+        }
+    }
+
+    // ==================== 编译与校验 ====================
+
+    private CompiledPermissions compile(Long userId) {
+        for (int attempt = 0; attempt < MAX_COMPILE_ATTEMPTS; attempt++) {
+            // 版本号必须先于它所保护的数据读取：版本号在事务提交后才递增，读到新版本时数据库中一定已是新数据。
+            // 全局、用户版本保护角色列表和权限映射，先读；角色版本保护角色权限，在加载角色列表之后、加载权限之前读
+            long[] head = readVersions(userId, List.of());
+            List<Long> roleIds = userRoleRepository.findRoleIdsByUserId(userId);
+            long[] versions = head == null ? null : readVersions(userId, roleIds);
+            if (versions != null && (versions[0] != head[0] || versions[1] != head[1])) {
+                // 两次读取之间发生了变更，已加载的角色列表可能是旧数据，重新编译
+                log.debug("编译期间权限版本号变化，重新编译 - userId: {}, attempt: {}", userId, attempt + 1);
+                continue;
+            }
+            return compile(userId, roleIds, versions);
+        }
+        // 版本号持续变化：编译一次但不缓存，下次请求重新编译
+        List<Long> roleIds = userRoleRepository.findRoleIdsByUserId(userId);
+        return compile(userId, roleIds, null);
+    }
+
+    private CompiledPermissions compile(Long userId, List<Long> roleIds, long[] versions) {
+        BitIndex index = bitIndex;
+        if (index == null || (versions != null && index.globalVersion != versions[0])) {
+            index = rebuildIndexFor(versions != null ? versions[0] : readGlobalVersion());
+        }
+
+        List<String> names = roleIds.isEmpty() ? List.of() : permissionRepository.findNamesByRoleIds(roleIds);
+        long[] words = index.toBits(names);
+        if (words == null) {
+            // 存在映射之外的权限（版本号写入失败等情况），重建映射后再编译一次
+            index = rebuildIndexFor(index.globalVersion);
+            words = index.toBits(names);
+            if (words == null) {
+                throw new IllegalStateException("权限位图映射与数据库不一致");
+            }
+        }
+        log.debug("编译用户权限 - userId: {}, 角色数: {}, 权限数: {}", userId, roleIds.size(), names.size());
+        return new CompiledPermissions(index, words, roleIds, versions);
+    }
+
+    private boolean isCurrent(Long userId, CompiledPermissions compiled) {
+        long[] current = readVersions(userId, compiled.roleIds);
+        return current != null && Arrays.equals(current, compiled.versions);
+    }
+
+    /**
+     * 一次 MGET 读取全局、用户及各角色的版本号，Redis 不可用时返回 null
+     */
+    private long[] readVersions(Long userId, List<Long> roleIds) {
+        List<String> keys = new ArrayList<>(roleIds.size() + 2);
+        keys.add(GLOBAL_VERSION_KEY);
+        keys.add(USER_VERSION_KEY_PREFIX + userId);
+        roleIds.forEach(roleId -> keys.add(ROLE_VERSION_KEY_PREFIX + roleId));
+        try {
+            List<String> values = stringRedisTemplate.opsForValue().multiGet(keys);
+            if (values == null || values.size() != keys.size()) {
+                return null;
+            }
+            long[] versions = new long[values.size()];
+            for (int i = 0; i < versions.length; i++) {
+                String value = values.get(i);
+                versions[i] = value == null ? 0L : Long.parseLong(value);
+            }
+            return versions;
+        } catch (Exception e) {
+            log.warn("读取权限版本号失败，跳过缓存 - userId: {}, error: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    private long readGlobalVersion() {
+        try {
+            String value = stringRedisTemplate.opsForValue().get(GLOBAL_VERSION_KEY);
+            return value == null ? 0L : Long.parseLong(value);
+        } catch (Exception e) {
+            log.warn("读取全局权限版本号失败 - error: {}", e.getMessage());
+            return -1L;
+        }
+    }
+
+    private void bumpAfterCommit(String key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(key);
+                }
+            });
+        } else {
+            bump(key);
+        }
+    }
+
+    private void bump(String key) {
+        try {
+            stringRedisTemplate.opsForValue().increment(key);
+        } catch (Exception e) {
+            // 版本号无法递增时只能清空本地缓存，其他节点依赖过期时间兜底
+            cache.invalidateAll();
+            log.warn("递增权限版本号失败 - key: {}, error: {}", key, e.getMessage());
+        }
+    }
+
+    private synchronized BitIndex rebuildIndexFor(long globalVersion) {
+        BitIndex index = bitIndex;
+        if (index == null || index.globalVersion != globalVersion || globalVersion < 0) {
+            index = buildIndex(globalVersion);
+            bitIndex = index;
+        }
+        return index;
+    }
+
+    private BitIndex buildIndex(long globalVersion) {
+        LinkedHashSet<String> ordered = new LinkedHashSet<>();
+        for (SystemPermission systemPermission : SystemPermission.values()) {
+            ordered.add(systemPermission.getPermission());
+        }
+        permissionRepository.findAll().stream()
+                .sorted(Comparator.comparing(Permission::getId))
+                .map(Permission::getName)
+                .forEach(ordered::add);
+        return new BitIndex(ordered.toArray(new String[0]), globalVersion);
+    }
+
+    // ==================== 位图结构 ====================
+
+    /**
+     * 权限名与位序号的映射
+     */
+    private static final class BitIndex {
+
+        private final String[] names;
+
+        private final Map<String, Integer> positions;
+
+        private final long globalVersion;
+
+        private BitIndex(String[] names, long globalVersion) {
+            this.names = names;
+            this.globalVersion = globalVersion;
+            Map<String, Integer> map = new HashMap<>(names.length * 2);
+            for (int i = 0; i < names.length; i++) {
+                map.put(names[i], i);
+            }
+            this.positions = Collections.unmodifiableMap(map);
+        }
+
+        private int wordCount() {
+            return (names.length + 63) >>> 6;
+        }
+
+        /**
+         * 把权限名集合编译为位图，存在映射之外的权限时返回 null
+         */
+        private long[] toBits(Collection<String> permissionNames) {
+            long[] words = new long[wordCount()];
+            for (String name : permissionNames) {
+                Integer position = positions.get(name);
+                if (position == null) {
+                    return null;
+                }
+                words[position >>> 6] |= 1L << position;
+            }
+            return words;
+        }
+    }
+
+    /**
+     * 编译后的用户权限，不可变
+     */
+    public static final class CompiledPermissions {
+
+        private final BitIndex index;
+
+        private final long[] words;
+
+        private final List<Long> roleIds;
+
+        /**
+         * 编译时的版本号快照：[全局, 用户, 各角色...]，为 null 表示不可缓存
+         */
+        private final long[] versions;
+
+        private CompiledPermissions(BitIndex index, long[] words, List<Long> roleIds, long[] versions) {
+            this.index = index;
+            this.words = words;
+            this.roleIds = List.copyOf(roleIds);
+            this.versions = versions;
+        }
+
+        /**
+         * 是否拥有指定权限
+         */
+        public boolean has(String permission) {
+            Integer position = index.positions.get(permission);
+            return position != null && (words[position >>> 6] & (1L << position)) != 0;
+        }
+
+        /**
+         * 是否拥有任一权限
+         */
+        public boolean hasAny(Collection<String> permissions) {
+            long[] mask = compileMask(permissions, false);
+            for (int i = 0; i < words.length; i++) {
+                if ((words[i] & mask[i]) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 是否拥有全部权限，包含未知权限时返回 false
+         */
+        public boolean hasAll(Collection<String> permissions) {
+            long[] mask = compileMask(permissions, true);
+            if (mask == null) {
+                return false;
+            }
+            for (int i = 0; i < words.length; i++) {
+                if ((words[i] & mask[i]) != mask[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 权限名称集合
+         */
+        public Set<String> names() {
+            Set<String> result = new LinkedHashSet<>();
+            for (int i = 0; i < index.names.length; i++) {
+                if ((words[i >>> 6] & (1L << i)) != 0) {
+                    result.add(index.names[i]);
+                }
+            }
+            return result;
+        }
+
+        private long[] compileMask(Collection<String> permissions, boolean strict) {
+            long[] mask = new long[words.length];
+            for (String permission : permissions) {
+                Integer position = index.positions.get(permission);
+                if (position == null) {
+                    if (strict) {
+                        return null;
+                    }
+                    continue;
+                }
+                mask[position >>> 6] |= 1L << position;
+            }
+            return mask;
+        }
+    }
+}
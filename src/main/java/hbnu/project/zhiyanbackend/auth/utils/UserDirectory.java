@@ -0,0 +1,102 @@
+package hbnu.project.zhiyanbackend.auth.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hbnu.project.zhiyanbackend.auth.model.dto.UserSummary;
+import hbnu.project.zhiyanbackend.auth.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 用户目录
+ * 构建 DTO、发送通知时批量解析用户摘要信息：先收集用户ID，再通过一次 IN 查询取回，
+ * 结果在本地短时缓存，避免逐条 findById / findNameById 造成的 N+1 查询。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserDirectory {
+
+    /**
+     * 用户不存在或已删除时展示的名称
+     */
+    public static final String UNKNOWN_USER_NAME = "未知用户";
+
+    /**
+     * 单次 IN 查询的ID数量上限
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private static final long MAXIMUM_SIZE = 10_000L;
+
+    /**
+     * 姓名、头像修改后最长的展示延迟
+     */
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofSeconds(60);
+
+    private final UserRepository userRepository;
+
+    private final Cache<Long, UserSummary> cache = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(EXPIRE_AFTER_WRITE)
+            .build();
+
+    /**
+     * 批量解析用户摘要
+     *
+     * @param userIds 用户ID集合，允许包含 null 和重复值
+     * @return 用户ID -> 摘要，不存在的用户不包含在结果中；已删除的用户仍然返回，由调用方按 {@link UserSummary#deleted()} 决定是否展示
+     */
+    public Map<Long, UserSummary> resolveAll(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> ids = userIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return cache.getAll(ids, this::load);
+    }
+
+    /**
+     * 解析单个用户摘要
+     *
+     * @param userId 用户ID
+     * @return 用户摘要
+     */
+    public Optional<UserSummary> resolve(Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(resolveAll(List.of(userId)).get(userId));
+    }
+
+    /**
+     * 获取用户姓名，不存在或已删除时返回 {@link #UNKNOWN_USER_NAME}
+     *
+     * @param userId 用户ID
+     * @return 用户姓名
+     */
+    public String nameOf(Long userId) {
+        return resolve(userId).filter(summary -> !summary.deleted()).map(UserSummary::name).orElse(UNKNOWN_USER_NAME);
+    }
+
+    private Map<Long, UserSummary> load(Set<? extends Long> userIds) {
+        List<Long> ids = new ArrayList<>(userIds);
+        Map<Long, UserSummary> loaded = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+            userRepository.findSummariesByIdIn(batch)
+                    .forEach(summary -> loaded.put(summary.id(), summary));
+        }
+        log.debug("批量加载用户摘要: 请求{}个, 命中{}个", ids.size(), loaded.size());
+        return loaded;
+    }
+}
@@ -0,0 +1,124 @@
+package hbnu.project.zhiyanbackend.basic.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 失效可广播的本地缓存
+ * 读写直接委托给 Caffeine；evict / clear 先失效本节点，再由 {@link CacheRegistry} 在事务提交后通知其他节点。
+ *
+ * @author ErgouTree
+ */
+public class BroadcastingCache implements Cache {
+
+    private final CaffeineCache local;
+
+    private final CacheRegistry registry;
+
+    BroadcastingCache(CaffeineCache local, CacheRegistry registry) {
+        this.local = local;
+        this.registry = registry;
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return local.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return local.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return local.get(key, valueLoader);
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return local.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return local.retrieve(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        local.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return local.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.evict(key);
+        registry.broadcastEvict(this, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = local.evictIfPresent(key);
+        registry.broadcastEvict(this, key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        registry.broadcastEvict(this, null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = local.invalidate();
+        registry.broadcastEvict(this, null);
+        return notEmpty;
+    }
+
+    /**
+     * 仅失效本节点
+     *
+     * @param key 缓存键，为 null 时清空整个缓存
+     */
+    void evictLocally(Object key) {
+        if (key == null) {
+            local.clear();
+        } else {
+            local.evict(key);
+        }
+    }
+
+    /**
+     * 处理其他节点广播的失效事件
+     *
+     * @param keyText 键的字符串形式，为 null 时清空整个缓存
+     */
+    void evictByText(String keyText) {
+        if (keyText == null) {
+            local.clear();
+            return;
+        }
+        // 广播中只有键的字符串形式，按字符串比较即可兼容 Long、String、SimpleKey 等各种键
+        getNativeCache().asMap().keySet().removeIf(key -> keyText.equals(String.valueOf(key)));
+    }
+}
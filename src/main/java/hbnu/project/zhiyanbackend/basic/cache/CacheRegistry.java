@@ -0,0 +1,205 @@
+package hbnu.project.zhiyanbackend.basic.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import hbnu.project.zhiyanbackend.basic.config.properties.CacheProperties;
+import hbnu.project.zhiyanbackend.basic.constants.CacheConstants;
+import hbnu.project.zhiyanbackend.redis.utils.RedisUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * 本地缓存注册表
+ * 所有 Caffeine 缓存在此按 zhiyan.cache 中的规格创建，既作为 Spring 的 CacheManager 支撑 @Cacheable，
+ * 也为需要加载函数（refresh-after-write）的业务缓存提供 {@link #loadingCache}。
+ * 任一节点失效缓存后，通过 Redis 广播让其他节点同步失效。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+public class CacheRegistry implements CacheManager, ApplicationRunner {
+
+    /**
+     * 广播消息中缓存名称与键的分隔符，消息中没有分隔符表示清空整个缓存
+     */
+    private static final char KEY_SEPARATOR = '|';
+
+    private final CacheProperties properties;
+
+    private final Map<String, BroadcastingCache> caches = new ConcurrentHashMap<>();
+
+    public CacheRegistry(CacheProperties properties) {
+        this.properties = properties;
+        for (String name : properties.getSpecs().keySet()) {
+            caches.put(name, wrap(name, builder(properties.resolve(name), false).build()));
+        }
+    }
+
+    /**
+     * 启动时订阅其他节点的失效事件
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            RedisUtils.subscribe(CacheConstants.LOCAL_CACHE_INVALIDATE_CHANNEL, String.class,
+                    this::onInvalidateMessage, this::clearAllLocally);
+            log.info("本地缓存失效事件订阅成功: channel={}, caches={}",
+                    CacheConstants.LOCAL_CACHE_INVALIDATE_CHANNEL, caches.keySet());
+        } catch (Exception e) {
+            log.error("本地缓存失效事件订阅失败，其他节点的修改只能等待缓存过期: channel={}",
+                    CacheConstants.LOCAL_CACHE_INVALIDATE_CHANNEL, e);
+        }
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.get(name);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * 创建带加载函数的缓存并登记到注册表
+     * 规格中的 refresh-after-write 只在这里生效：条目过期前由 executor 在后台重新加载，读请求继续拿到旧值
+     *
+     * @param name     缓存名称，需在 zhiyan.cache.specs 中声明
+     * @param loader   加载函数
+     * @param executor 刷新使用的线程池
+     * @return Caffeine LoadingCache，直接 invalidate 只影响本节点，跨节点失效请使用 {@link #evict}
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> LoadingCache<K, V> loadingCache(String name, CacheLoader<K, V> loader, Executor executor) {
+        LoadingCache<K, V> cache = builder(properties.resolve(name), true)
+                .executor(executor)
+                .build(loader);
+        caches.put(name, wrap(name, (com.github.benmanes.caffeine.cache.Cache<Object, Object>) (LoadingCache<?, ?>) cache));
+        return cache;
+    }
+
+    /**
+     * 失效指定缓存中的键，并广播到其他节点
+     */
+    public void evict(String name, Object key) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    /**
+     * 清空指定缓存，并广播到其他节点
+     *
+     * @return 缓存不存在时返回 false
+     */
+    public boolean clear(String name) {
+        Cache cache = caches.get(name);
+        if (cache == null) {
+            return false;
+        }
+        cache.clear();
+        return true;
+    }
+
+    /**
+     * 获取注册表中的所有缓存，用于统计展示
+     */
+    public Map<String, BroadcastingCache> getCaches() {
+        return Collections.unmodifiableMap(caches);
+    }
+
+    /**
+     * 获取缓存的生效规格
+     */
+    public CacheProperties.Spec getSpec(String name) {
+        return properties.resolve(name);
+    }
+
+    /**
+     * 本节点已失效后，通知其他节点
+     * 事务中的修改在提交前仍可能被其他请求读到旧值并回填，因此提交后再失效一次再广播
+     */
+    void broadcastEvict(BroadcastingCache cache, Object key) {
+        String message = key == null ? cache.getName() : cache.getName() + KEY_SEPARATOR + key;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evictLocally(key);
+                    publish(message);
+                }
+            });
+        } else {
+            publish(message);
+        }
+    }
+
+    private void publish(String message) {
+        try {
+            RedisUtils.publish(CacheConstants.LOCAL_CACHE_INVALIDATE_CHANNEL, message);
+        } catch (Exception e) {
+            log.warn("发布本地缓存失效事件失败: message={}, error={}", message, e.getMessage());
+        }
+    }
+
+    private void onInvalidateMessage(String message) {
+        int separator = message.indexOf(KEY_SEPARATOR);
+        String name = separator < 0 ? message : message.substring(0, separator);
+        BroadcastingCache cache = caches.get(name);
+        if (cache == null) {
+            log.debug("忽略未知缓存的失效事件: {}", message);
+            return;
+        }
+        cache.evictByText(separator < 0 ? null : message.substring(separator + 1));
+    }
+
+    /**
+     * 失效事件积压被丢弃时无法知道漏掉了哪些键，清空本节点的全部缓存
+     */
+    private void clearAllLocally() {
+        caches.values().forEach(cache -> cache.evictLocally(null));
+        log.warn("本地缓存失效事件丢失，已清空本节点全部缓存: caches={}", caches.keySet());
+    }
+
+    private BroadcastingCache wrap(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache) {
+        return new BroadcastingCache(new CaffeineCache(name, nativeCache), this);
+    }
+
+    private static Caffeine<Object, Object> builder(CacheProperties.Spec spec, boolean loading) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder();
+        if (spec.getInitialCapacity() != null) {
+            builder.initialCapacity(spec.getInitialCapacity());
+        }
+        if (spec.getMaximumSize() != null) {
+            builder.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        if (loading && spec.getRefreshAfterWrite() != null) {
+            builder.refreshAfterWrite(spec.getRefreshAfterWrite());
+        }
+        if (Boolean.TRUE.equals(spec.getRecordStats())) {
+            builder.recordStats();
+        }
+        return builder;
+    }
+}
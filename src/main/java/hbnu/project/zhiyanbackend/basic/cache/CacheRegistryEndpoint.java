@@ -0,0 +1,89 @@
+package hbnu.project.zhiyanbackend.basic.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import hbnu.project.zhiyanbackend.basic.config.properties.CacheProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 本地缓存运维端点
+ * GET /actuator/cachestats 查看各缓存的规格和命中率，DELETE /actuator/cachestats/{name} 清空指定缓存（同时通知其他节点）。
+ * 默认不通过 HTTP 暴露；在 management.endpoints.web.exposure.include 中加入 cachestats 后，
+ * 只有拥有 system:admin 权限的用户可以访问（见 SecurityConfig）。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "cachestats")
+public class CacheRegistryEndpoint {
+
+    private final CacheRegistry cacheRegistry;
+
+    @ReadOperation
+    public Map<String, CacheStatsDescriptor> caches() {
+        Map<String, CacheStatsDescriptor> result = new TreeMap<>();
+        cacheRegistry.getCaches().forEach((name, cache) -> result.put(name, describe(name, cache)));
+        return result;
+    }
+
+    @ReadOperation
+    public CacheStatsDescriptor cache(@Selector String name) {
+        BroadcastingCache cache = cacheRegistry.getCaches().get(name);
+        return cache == null ? null : describe(name, cache);
+    }
+
+    @DeleteOperation
+    public boolean evict(@Selector String name) {
+        boolean cleared = cacheRegistry.clear(name);
+        if (cleared) {
+            log.info("通过运维端点清空本地缓存: name={}", name);
+        }
+        return cleared;
+    }
+
+    private CacheStatsDescriptor describe(String name, BroadcastingCache cache) {
+        CacheStats stats = cache.getNativeCache().stats();
+        CacheProperties.Spec spec = cacheRegistry.getSpec(name);
+        return new CacheStatsDescriptor(
+                cache.getNativeCache().estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                stats.loadFailureCount(),
+                Duration.ofNanos((long) stats.averageLoadPenalty()).toMillis(),
+                spec.getMaximumSize(),
+                spec.getExpireAfterWrite(),
+                spec.getExpireAfterAccess(),
+                spec.getRefreshAfterWrite(),
+                Boolean.TRUE.equals(spec.getRecordStats()));
+    }
+
+    /**
+     * 单个缓存的统计信息，recordStats 关闭时各计数均为 0
+     */
+    public record CacheStatsDescriptor(long size,
+                                       long hitCount,
+                                       long missCount,
+                                       double hitRate,
+                                       long evictionCount,
+                                       long loadFailureCount,
+                                       long averageLoadPenaltyMillis,
+                                       Long maximumSize,
+                                       Duration expireAfterWrite,
+                                       Duration expireAfterAccess,
+                                       Duration refreshAfterWrite,
+                                       boolean recordStats) {
+    }
+}
@@ -1,5 +1,6 @@
 package hbnu.project.zhiyanbackend.basic.config;
 
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.module.SimpleModule;
@@ -11,6 +12,7 @@ import com.fasterxml.jackson.datatype.jsr310.deser.LocalTimeDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalTimeSerializer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
@@ -52,13 +54,14 @@ public class JacksonConfig {
      * <p>
      * 可通过配置项 zhiyan.jackson.long-to-string-global=false 来禁用
      *
+     * @param modules 容器中的其他 Jackson 模块（如字段加密模块）
      * @return 配置好的ObjectMapper
      */
     @Bean("globalLongToStringObjectMapper")
     @Primary
     @ConditionalOnMissingBean(ObjectMapper.class)
     @ConditionalOnProperty(name = "zhiyan.jackson.long-to-string-global", havingValue = "true", matchIfMissing = true)
-    public ObjectMapper globalLongToStringObjectMapper() {
+    public ObjectMapper globalLongToStringObjectMapper(ObjectProvider<Module> modules) {
         ObjectMapper objectMapper = new ObjectMapper();
 
         // 1. Long转String模块
@@ -93,6 +96,9 @@ public class JacksonConfig {
         // 3. 禁用将日期序列化为时间戳
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
+        // 4. 容器中声明的其他模块
+        modules.orderedStream().forEach(objectMapper::registerModule);
+
         return objectMapper;
     }
 
@@ -102,12 +108,13 @@ public class JacksonConfig {
      * 当禁用全局Long转String时使用，只有标注@LongToString注解的字段才会转换
      * 仍然支持Java 8日期时间类型
      *
+     * @param modules 容器中的其他 Jackson 模块（如字段加密模块）
      * @return 默认的ObjectMapper
      */
     @Bean("defaultObjectMapper")
     @ConditionalOnMissingBean(ObjectMapper.class)
     @ConditionalOnProperty(name = "zhiyan.jackson.long-to-string-global", havingValue = "false")
-    public ObjectMapper defaultObjectMapper() {
+    public ObjectMapper defaultObjectMapper(ObjectProvider<Module> modules) {
         ObjectMapper objectMapper = new ObjectMapper();
 
         // Java 8日期时间模块
@@ -136,6 +143,9 @@ public class JacksonConfig {
         // 禁用将日期序列化为时间戳
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
+        // 容器中声明的其他模块
+        modules.orderedStream().forEach(objectMapper::registerModule);
+
         return objectMapper;
     }
 }
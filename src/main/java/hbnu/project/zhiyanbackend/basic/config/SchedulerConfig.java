@@ -1,16 +1,63 @@
 package hbnu.project.zhiyanbackend.basic.config;
 
+import hbnu.project.zhiyanbackend.basic.config.properties.SchedulerProperties;
+import hbnu.project.zhiyanbackend.redis.lock.InMemoryLockProvider;
+import hbnu.project.zhiyanbackend.redis.lock.LockProvider;
+import hbnu.project.zhiyanbackend.redis.lock.RedisLockProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
  * Spring定时任务配置
- * 启用定时任务功能
+ * 启用定时任务功能，使用独立线程池执行定时任务，避免所有任务挤在默认的单线程调度器上
+ * 多节点部署时配合 @SchedulerLock 保证同一任务只在一个节点执行
  *
  * @author ErgouTree
  */
+@Slf4j
 @Configuration
 @EnableScheduling
+@EnableConfigurationProperties(SchedulerProperties.class)
 public class SchedulerConfig {
-    // 启用 @Scheduled 注解支持
-}
\ No newline at end of file
+
+    /**
+     * 定时任务线程池
+     * Bean 名称为 taskScheduler，@Scheduled 会自动使用该调度器
+     */
+    @Bean(name = "taskScheduler", destroyMethod = "shutdown")
+    public ThreadPoolTaskScheduler taskScheduler(SchedulerProperties schedulerProperties) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(schedulerProperties.getPoolSize());
+        scheduler.setThreadNamePrefix(schedulerProperties.getThreadNamePrefix());
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(schedulerProperties.getAwaitTerminationSeconds());
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setErrorHandler(e -> log.error("定时任务执行异常", e));
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    /**
+     * Redis 租约锁（默认）
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "zhiyan.scheduler.lock", name = "provider", havingValue = "redis", matchIfMissing = true)
+    public LockProvider redisLockProvider(StringRedisTemplate stringRedisTemplate, SchedulerProperties schedulerProperties) {
+        return new RedisLockProvider(stringRedisTemplate, schedulerProperties.getLock().getKeyPrefix());
+    }
+
+    /**
+     * 进程内租约锁，单机或离线环境使用
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "zhiyan.scheduler.lock", name = "provider", havingValue = "memory")
+    public LockProvider inMemoryLockProvider() {
+        return new InMemoryLockProvider();
+    }
+}
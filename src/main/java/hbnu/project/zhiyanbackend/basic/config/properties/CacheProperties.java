@@ -0,0 +1,104 @@
+package hbnu.project.zhiyanbackend.basic.config.properties;
+
+import hbnu.project.zhiyanbackend.basic.constants.CacheConstants;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 本地缓存配置
+ * 每个缓存单独声明容量、过期和刷新策略，未填写的项取 defaults
+ *
+ * @author ErgouTree
+ */
+@Data
+@ConfigurationProperties(prefix = "zhiyan.cache")
+public class CacheProperties {
+
+    /**
+     * 各缓存未单独配置时使用的默认规格
+     */
+    private Spec defaults = Spec.of(1_000L, Duration.ofMinutes(10), Duration.ofMinutes(5), null);
+
+    /**
+     * 缓存名称 -> 规格
+     */
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    public CacheProperties() {
+        specs.put(CacheConstants.ACHIEVEMENT_TASKS_CACHE, new Spec());
+        specs.put(CacheConstants.ACHIEVEMENT_LIST_CACHE, new Spec());
+        specs.put(CacheConstants.TASK_USER_MAP_CACHE, new Spec());
+        specs.put(CacheConstants.ACHIEVEMENT_STATISTICS_CACHE,
+                Spec.of(2_000L, null, Duration.ofMinutes(30), Duration.ofMinutes(1)));
+    }
+
+    /**
+     * 获取缓存规格，逐项回退到默认值
+     *
+     * @param name 缓存名称
+     * @return 合并后的规格
+     */
+    public Spec resolve(String name) {
+        Spec spec = specs.get(name);
+        if (spec == null) {
+            return defaults;
+        }
+        Spec resolved = new Spec();
+        resolved.setInitialCapacity(spec.getInitialCapacity() != null ? spec.getInitialCapacity() : defaults.getInitialCapacity());
+        resolved.setMaximumSize(spec.getMaximumSize() != null ? spec.getMaximumSize() : defaults.getMaximumSize());
+        resolved.setExpireAfterWrite(spec.getExpireAfterWrite() != null ? spec.getExpireAfterWrite() : defaults.getExpireAfterWrite());
+        resolved.setExpireAfterAccess(spec.getExpireAfterAccess() != null ? spec.getExpireAfterAccess() : defaults.getExpireAfterAccess());
+        resolved.setRefreshAfterWrite(spec.getRefreshAfterWrite() != null ? spec.getRefreshAfterWrite() : defaults.getRefreshAfterWrite());
+        resolved.setRecordStats(spec.getRecordStats() != null ? spec.getRecordStats() : defaults.getRecordStats());
+        return resolved;
+    }
+
+    @Data
+    public static class Spec {
+
+        /**
+         * 初始容量
+         */
+        private Integer initialCapacity;
+
+        /**
+         * 最大条目数
+         */
+        private Long maximumSize;
+
+        /**
+         * 写入后过期时间
+         */
+        private Duration expireAfterWrite;
+
+        /**
+         * 访问后过期时间
+         */
+        private Duration expireAfterAccess;
+
+        /**
+         * 写入后超过该时间在下次访问时异步刷新，只对带加载函数的缓存生效
+         */
+        private Duration refreshAfterWrite;
+
+        /**
+         * 是否记录命中率等统计信息
+         */
+        private Boolean recordStats;
+
+        static Spec of(Long maximumSize, Duration expireAfterWrite, Duration expireAfterAccess, Duration refreshAfterWrite) {
+            Spec spec = new Spec();
+            spec.setInitialCapacity(100);
+            spec.setMaximumSize(maximumSize);
+            spec.setExpireAfterWrite(expireAfterWrite);
+            spec.setExpireAfterAccess(expireAfterAccess);
+            spec.setRefreshAfterWrite(refreshAfterWrite);
+            spec.setRecordStats(true);
+            return spec;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package hbnu.project.zhiyanbackend.basic.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Redis 发布订阅配置
+ *
+ * @author ErgouTree
+ */
+@Data
+@ConfigurationProperties(prefix = "zhiyan.redis.pubsub")
+public class PubSubProperties {
+
+    /**
+     * 消息分发线程数，所有频道共用
+     */
+    private int dispatchThreads = 4;
+
+    /**
+     * 每个订阅的待处理消息上限，超出后丢弃新消息，或丢弃积压并重新同步（由订阅决定）
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * 单个订阅每次连续处理的消息数，处理完后让出线程给其他订阅
+     */
+    private int drainBatch = 64;
+}
@@ -0,0 +1,40 @@
+package hbnu.project.zhiyanbackend.basic.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 接口限流配置
+ *
+ * @author ErgouTree
+ */
+@Data
+@ConfigurationProperties(prefix = "zhiyan.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * 是否启用 @RateLimit 限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * Redis 键前缀
+     */
+    private String keyPrefix = "rate_limit:api:";
+
+    /**
+     * 每次向 Redis 租借的配额占窗口配额的比例，租约有效期同样取窗口时长的该比例
+     * 比例越大网络往返越少，但多节点之间的限流精度越低
+     */
+    private double leaseRatio = 0.1;
+
+    /**
+     * 本地保留的限流键数量上限
+     */
+    private long maxLocalKeys = 100_000L;
+
+    /**
+     * Redis 不可用时是否放行（仍受本地令牌桶约束）
+     */
+    private boolean failOpen = true;
+}
@@ -0,0 +1,37 @@
+package hbnu.project.zhiyanbackend.basic.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Redis 值序列化配置
+ *
+ * @author ErgouTree
+ */
+@Data
+@ConfigurationProperties(prefix = "zhiyan.redis.serializer")
+public class RedisSerializerProperties {
+
+    /**
+     * 写入格式，读取时两种格式都支持
+     */
+    private Format format = Format.JSON;
+
+    /**
+     * 二进制格式下超过该字节数的值使用 LZ4 压缩，小于等于 0 表示不压缩
+     */
+    private int compressThreshold = 1024;
+
+    public enum Format {
+
+        /**
+         * 带完整类名的 JSON（原格式）
+         */
+        JSON,
+
+        /**
+         * Smile 二进制 + 类型编号
+         */
+        SMILE
+    }
+}
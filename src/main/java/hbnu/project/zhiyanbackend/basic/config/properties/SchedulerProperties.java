@@ -0,0 +1,68 @@
+package hbnu.project.zhiyanbackend.basic.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * 定时任务配置
+ *
+ * @author ErgouTree
+ */
+@Data
+@ConfigurationProperties(prefix = "zhiyan.scheduler")
+public class SchedulerProperties {
+
+    /**
+     * 定时任务线程池大小
+     */
+    private int poolSize = 4;
+
+    /**
+     * 线程名前缀
+     */
+    private String threadNamePrefix = "scheduler-";
+
+    /**
+     * 关闭时等待任务完成的秒数
+     */
+    private int awaitTerminationSeconds = 30;
+
+    /**
+     * 分布式锁配置
+     */
+    private Lock lock = new Lock();
+
+    @Data
+    public static class Lock {
+
+        /**
+         * 是否启用定时任务分布式锁
+         */
+        private boolean enabled = true;
+
+        /**
+         * 锁实现：redis 多节点部署，memory 单机/离线环境
+         */
+        private String provider = "redis";
+
+        /**
+         * Redis 锁键前缀
+         */
+        private String keyPrefix = "scheduler:lock:";
+
+        /**
+         * 注解未指定 lockAtMostFor 时的默认租约时长
+         */
+        private Duration defaultLockAtMostFor = Duration.ofMinutes(10);
+
+        /**
+         * 当前节点标识，默认 pid@hostname 加随机后缀
+         */
+        private String nodeId = ManagementFactory.getRuntimeMXBean().getName()
+                + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
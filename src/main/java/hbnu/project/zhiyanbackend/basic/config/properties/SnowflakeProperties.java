@@ -0,0 +1,46 @@
+package hbnu.project.zhiyanbackend.basic.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 雪花ID节点租约配置
+ *
+ * @author ErgouTree
+ */
+@Data
+@ConfigurationProperties(prefix = "zhiyan.snowflake")
+public class SnowflakeProperties {
+
+    /**
+     * 是否从 Redis 租借节点ID，关闭时沿用按本机IP推算的节点ID
+     */
+    private boolean leaseEnabled = true;
+
+    /**
+     * 租约键前缀
+     */
+    private String keyPrefix = "snowflake:node:";
+
+    /**
+     * 租约有效期
+     */
+    private Duration leaseTtl = Duration.ofSeconds(60);
+
+    /**
+     * 续约间隔，应明显小于租约有效期
+     */
+    private long heartbeatIntervalMillis = 20_000L;
+
+    /**
+     * 本地租约文件，Redis 不可用时沿用文件中的节点ID
+     */
+    private String leaseFile = "data/snowflake-node.lease";
+
+    /**
+     * 时钟回拨时最多等待的毫秒数，超过后借用上次时间戳继续发号
+     */
+    private long maxClockBackwardsWaitMillis = 5L;
+}
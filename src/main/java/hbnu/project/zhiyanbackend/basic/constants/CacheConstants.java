@@ -23,6 +23,11 @@ public class CacheConstants {
 
     // 角色缓存相关常量
     public static final String USER_ROLES_CACHE_PREFIX = "user:roles:";
+    /**
+     * 角色 -> 持有该角色的用户角色缓存键（Set），角色修改时按索引清理
+     * 格式：role:users:{roleId}
+     */
+    public static final String ROLE_USERS_INDEX_PREFIX = "role:users:";
     public static final String ROLE_CACHE_PREFIX = "role:";
     public static final String ROLE_PERMISSIONS_CACHE_PREFIX = "role:permissions:";
     public static final String USER_PERMISSIONS_CACHE_PREFIX = "user:permissions:";
@@ -37,5 +42,17 @@ public class CacheConstants {
     public static final String VERIFICATION_CODE_PREFIX = "verification_code:";
     public static final String RATE_LIMIT_PREFIX = "rate_limit:verification_code:";
     public static final String USED_CODE_PREFIX = "used_verification_code:";
+
+
+    // 本地缓存（Caffeine）名称，容量和过期时间见 zhiyan.cache 配置
+    public static final String ACHIEVEMENT_TASKS_CACHE = "achievementTasks";
+    public static final String ACHIEVEMENT_LIST_CACHE = "achievementList";
+    public static final String TASK_USER_MAP_CACHE = "taskUserMap";
+    public static final String ACHIEVEMENT_STATISTICS_CACHE = "achievementStatistics";
+
+    /**
+     * 本地缓存失效广播频道
+     */
+    public static final String LOCAL_CACHE_INVALIDATE_CHANNEL = "cache:local:invalidate";
 }
 
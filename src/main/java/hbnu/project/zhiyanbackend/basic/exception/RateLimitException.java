@@ -0,0 +1,23 @@
+package hbnu.project.zhiyanbackend.basic.exception;
+
+import hbnu.project.zhiyanbackend.basic.constants.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+/**
+ * 限流异常
+ * 由限流切面抛出，响应状态码为 429
+ *
+ * @author ErgouTree
+ */
+@ResponseStatus(org.springframework.http.HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitException extends ServiceException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public RateLimitException(String message) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS);
+    }
+}
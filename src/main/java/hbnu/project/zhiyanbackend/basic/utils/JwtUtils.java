@@ -3,6 +3,7 @@ package hbnu.project.zhiyanbackend.basic.utils;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
@@ -31,10 +32,18 @@ public class JwtUtils {
     private String issuer;
 
     /**
-     * 获取签名密钥
+     * 签名密钥与解析器线程安全，配置注入后只构建一次
      */
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     /**
@@ -68,7 +77,7 @@ public class JwtUtils {
                 .issuer(issuer)
                 .issuedAt(now)
                 .expiration(expireDate)
-                .signWith(getSigningKey(), Jwts.SIG.HS512)
+                .signWith(signingKey, Jwts.SIG.HS512)
                 .compact();
     }
 
@@ -84,10 +93,7 @@ public class JwtUtils {
                 return null;
             }
 
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
+            Claims claims = parser.parseSignedClaims(token)
                     .getPayload();
 
             return claims.getSubject();
@@ -129,10 +135,7 @@ public class JwtUtils {
                 return null;
             }
 
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
+            return parser.parseSignedClaims(token)
                     .getPayload();
 
         } catch (Exception e) {
@@ -183,10 +186,7 @@ public class JwtUtils {
                 return false;
             }
 
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
+            parser.parseSignedClaims(token);
             return true;
 
         } catch (ExpiredJwtException e) {
@@ -0,0 +1,176 @@
+package hbnu.project.zhiyanbackend.basic.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * 雪花ID生成器
+ * 位数分配与 Hutool 保持一致：1位符号位 + 41位时间戳 + 10位节点ID（5位数据中心 + 5位工作机器）+ 12位序列号，
+ * 已有ID的解析方式不变。
+ * <p>
+ * 时钟回拨处理：回拨不超过 maxWaitMillis 时等待时钟追上；超过时借用上一次的时间戳继续发号，
+ * 序列号用完后逻辑时间戳向前推进，直到真实时钟追上。同一节点ID只要不被两个进程同时持有，生成的ID就不会重复。
+ * <p>
+ * 节点ID的租约被其他进程占用后调用 {@link #revoke()}，此后发号直接抛出异常，直到换上新的生成器。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+public final class SnowflakeGenerator {
+
+    /**
+     * 起始时间戳（2010-11-04），与 Hutool 默认值一致
+     */
+    public static final long EPOCH = 1288834974657L;
+
+    public static final int NODE_ID_BITS = 10;
+
+    public static final int SEQUENCE_BITS = 12;
+
+    /**
+     * 节点ID上限（不含），即可同时运行的节点数
+     */
+    public static final int MAX_NODES = 1 << NODE_ID_BITS;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int TIMESTAMP_SHIFT = NODE_ID_BITS + SEQUENCE_BITS;
+
+    private final long nodeId;
+
+    private final long maxWaitMillis;
+
+    private final LongSupplier clock;
+
+    private long lastTimestamp;
+
+    private long sequence;
+
+    /**
+     * 本次回拨中已记录过日志，回拨结束前不再重复记录
+     */
+    private boolean borrowing;
+
+    /**
+     * 节点ID已不再由本进程持有，停止发号
+     */
+    private boolean revoked;
+
+    /**
+     * @param nodeId        节点ID（0-1023）
+     * @param lastTimestamp 该节点ID上次发号的时间戳，未知时传 0
+     * @param maxWaitMillis 时钟回拨时最多等待的毫秒数
+     */
+    public SnowflakeGenerator(long nodeId, long lastTimestamp, long maxWaitMillis) {
+        this(nodeId, lastTimestamp, maxWaitMillis, System::currentTimeMillis);
+    }
+
+    SnowflakeGenerator(long nodeId, long lastTimestamp, long maxWaitMillis, LongSupplier clock) {
+        if (nodeId < 0 || nodeId >= MAX_NODES) {
+            throw new IllegalArgumentException("雪花ID节点ID超出范围(0-" + (MAX_NODES - 1) + "): " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.lastTimestamp = Math.max(0, lastTimestamp);
+        this.maxWaitMillis = Math.max(0, maxWaitMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * 生成一个ID
+     */
+    public synchronized long nextId() {
+        long timestamp = tick();
+        return compose(timestamp, sequence);
+    }
+
+    /**
+     * 批量生成ID，整批只加一次锁，适合批量插入
+     *
+     * @param count 数量
+     * @return 递增的ID数组
+     */
+    public synchronized long[] nextIds(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count不能为负数: " + count);
+        }
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            long timestamp = tick();
+            ids[i] = compose(timestamp, sequence);
+        }
+        return ids;
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 作废该生成器，之后的发号请求抛出 {@link IllegalStateException}
+     */
+    public synchronized void revoke() {
+        revoked = true;
+    }
+
+    public synchronized boolean isRevoked() {
+        return revoked;
+    }
+
+    /**
+     * 最近一次发号使用的时间戳，用于持久化后交给下一个持有该节点ID的进程
+     */
+    public synchronized long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * 推进到下一个 (时间戳, 序列号)，调用方持有锁
+     */
+    private long tick() {
+        if (revoked) {
+            throw new IllegalStateException("雪花ID节点租约已失效，暂停发号: nodeId=" + nodeId);
+        }
+        long now = clock.getAsLong();
+        if (now < lastTimestamp) {
+            long backwards = lastTimestamp - now;
+            if (backwards <= maxWaitMillis) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backwards));
+                now = clock.getAsLong();
+            }
+            if (now < lastTimestamp) {
+                if (!borrowing) {
+                    borrowing = true;
+                    log.warn("检测到时钟回拨{}ms，借用上次时间戳继续生成雪花ID: nodeId={}", lastTimestamp - now, nodeId);
+                }
+                now = lastTimestamp;
+            }
+        } else if (borrowing && now > lastTimestamp) {
+            borrowing = false;
+            log.info("时钟已追上，雪花ID恢复使用当前时间: nodeId={}", nodeId);
+        }
+
+        if (now == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                now = lastTimestamp + 1;
+                // 正常情况下等到下一毫秒；借用时间戳期间直接推进逻辑时间
+                if (!borrowing) {
+                    while (clock.getAsLong() < now) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = now;
+        return now;
+    }
+
+    private long compose(long timestamp, long sequence) {
+        return ((timestamp - EPOCH) << TIMESTAMP_SHIFT) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
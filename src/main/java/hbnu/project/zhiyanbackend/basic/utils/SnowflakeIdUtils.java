@@ -7,7 +7,7 @@ import cn.hutool.system.SystemUtil;
 
 /**
  * 雪花ID工具类
- * 基于Hutool的Snowflake算法实现
+ * 默认生成器的节点ID在启动时从 Redis 租借（见 SnowflakeNodeAllocator），租到之前使用按本机IP推算的节点ID
  * 提供分布式环境下的唯一ID生成
  *
  * @author ErgouTree
@@ -18,7 +18,12 @@ public class SnowflakeIdUtils {
     /**
      * 默认的雪花ID生成器
      */
-    private static volatile Snowflake defaultSnowflake;
+    private static volatile SnowflakeGenerator defaultGenerator;
+
+    /**
+     * 时钟回拨时最多等待的毫秒数，超过后借用上次时间戳
+     */
+    private static final long DEFAULT_MAX_WAIT_MILLIS = 5L;
 
     /**
      * 数据中心ID (5位，0-31)
@@ -33,7 +38,7 @@ public class SnowflakeIdUtils {
 
     static {
         // 初始化默认雪花ID生成器
-        defaultSnowflake = createSnowflake(DEFAULT_DATACENTER_ID, DEFAULT_WORKER_ID);
+        defaultGenerator = new SnowflakeGenerator(nodeId(DEFAULT_DATACENTER_ID, DEFAULT_WORKER_ID), 0L, DEFAULT_MAX_WAIT_MILLIS);
     }
 
     /**
@@ -42,7 +47,17 @@ public class SnowflakeIdUtils {
      * @return 雪花ID
      */
     public static long nextId() {
-        return defaultSnowflake.nextId();
+        return defaultGenerator.nextId();
+    }
+
+    /**
+     * 批量获取默认的雪花ID，适合批量插入
+     *
+     * @param count 数量
+     * @return 递增的雪花ID数组
+     */
+    public static long[] nextIds(int count) {
+        return defaultGenerator.nextIds(count);
     }
 
 
@@ -52,7 +67,7 @@ public class SnowflakeIdUtils {
      * @return 雪花ID字符串
      */
     public static String nextIdStr() {
-        return String.valueOf(defaultSnowflake.nextId());
+        return String.valueOf(defaultGenerator.nextId());
     }
 
 
@@ -147,10 +162,36 @@ public class SnowflakeIdUtils {
      */
     public static void resetDefaultSnowflake(long datacenterId, long workerId) {
         synchronized (SnowflakeIdUtils.class) {
-            defaultSnowflake = createSnowflake(datacenterId, workerId);
+            defaultGenerator = new SnowflakeGenerator(nodeId(datacenterId, workerId),
+                    defaultGenerator.getLastTimestamp(), DEFAULT_MAX_WAIT_MILLIS);
         }
     }
 
+    /**
+     * 替换默认雪花ID生成器
+     *
+     * @param generator 新的生成器
+     */
+    public static void resetDefaultGenerator(SnowflakeGenerator generator) {
+        synchronized (SnowflakeIdUtils.class) {
+            defaultGenerator = generator;
+        }
+    }
+
+    /**
+     * 获取默认雪花ID生成器
+     */
+    public static SnowflakeGenerator getDefaultGenerator() {
+        return defaultGenerator;
+    }
+
+    /**
+     * 数据中心ID + 工作机器ID 组合为 10 位节点ID
+     */
+    private static long nodeId(long datacenterId, long workerId) {
+        return ((datacenterId & 0x1F) << 5) | (workerId & 0x1F);
+    }
+
     /**
      * 雪花ID信息类
      */
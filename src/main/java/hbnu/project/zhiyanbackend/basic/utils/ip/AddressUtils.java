@@ -54,7 +54,7 @@ public class AddressUtils {
         if (NetUtils.isInnerIP(ip)) {
             return LOCAL_ADDRESS;
         }
-        return RegionUtils.getCityInfo(ip);
+        return IpLocationCache.get("region", ip, RegionUtils::getCityInfo);
     }
 
     /**
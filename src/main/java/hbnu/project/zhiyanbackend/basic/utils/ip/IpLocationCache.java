@@ -0,0 +1,59 @@
+package hbnu.project.zhiyanbackend.basic.utils.ip;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.Duration;
+import java.util.function.UnaryOperator;
+
+/**
+ * IP归属地缓存
+ * 离线库和在线接口共用，IPv4 按 /24 网段缓存（同一网段的归属地基本一致），其他地址按完整地址缓存。
+ * 解析失败的结果（未知、原样返回的IP）不缓存。
+ *
+ * @author ErgouTree
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class IpLocationCache {
+
+    private static final long MAXIMUM_SIZE = 20_000L;
+
+    private static final Cache<String, String> CACHE = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(Duration.ofHours(12))
+            .build();
+
+    /**
+     * 获取IP归属地，未命中时调用解析方法
+     *
+     * @param source   数据来源，不同来源的结果格式不同，分开缓存
+     * @param ip       IP地址
+     * @param resolver 解析方法
+     * @return 归属地
+     */
+    public static String get(String source, String ip, UnaryOperator<String> resolver) {
+        String key = source + ":" + prefixOf(ip);
+        String location = CACHE.getIfPresent(key);
+        if (location != null) {
+            return location;
+        }
+        location = resolver.apply(ip);
+        if (StringUtils.isNotBlank(location)
+                && !location.equals(ip)
+                && !AddressUtils.UNKNOWN_ADDRESS.equals(location)) {
+            CACHE.put(key, location);
+        }
+        return location;
+    }
+
+    /**
+     * IPv4 取前三段，其余原样返回
+     */
+    static String prefixOf(String ip) {
+        int lastDot = ip.lastIndexOf('.');
+        return lastDot > 0 && ip.indexOf(':') < 0 ? ip.substring(0, lastDot) : ip;
+    }
+}
@@ -1,7 +1,8 @@
 package hbnu.project.zhiyanbackend.basic.utils.ip;
 
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.http.HttpUtil;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import lombok.extern.slf4j.Slf4j;
@@ -21,8 +22,19 @@ public class IpLocationUtils {
      */
     private static final String IP_API_URL = "http://ip-api.com/json/";
 
+    /**
+     * 连接超时（毫秒），接口不可达时尽快放弃
+     */
+    private static final int CONNECT_TIMEOUT = 1000;
+
+    /**
+     * 读取超时（毫秒）
+     */
+    private static final int READ_TIMEOUT = 2000;
+
     /**
      * 根据IP地址获取地理位置信息
+     * 结果按网段缓存，同一网段只请求一次接口
      *
      * @param ip IP地址
      * @return 地理位置信息字符串，格式：国家 省份 城市，如果获取失败返回IP地址
@@ -31,10 +43,22 @@ public class IpLocationUtils {
         if (StrUtil.isBlank(ip) || "unknown".equals(ip) || "127.0.0.1".equals(ip)) {
             return "本地";
         }
+        return IpLocationCache.get("ip-api", ip, IpLocationUtils::requestLocation);
+    }
 
+    /**
+     * 调用IP定位API
+     */
+    private static String requestLocation(String ip) {
         try {
             // 调用IP定位API
-            String response = HttpUtil.get(IP_API_URL + ip + "?lang=zh-CN", 3000);
+            String response;
+            try (HttpResponse httpResponse = HttpRequest.get(IP_API_URL + ip + "?lang=zh-CN")
+                    .setConnectionTimeout(CONNECT_TIMEOUT)
+                    .setReadTimeout(READ_TIMEOUT)
+                    .execute()) {
+                response = httpResponse.body();
+            }
             
             if (StrUtil.isBlank(response)) {
                 log.warn("IP定位API返回为空: ip={}", ip);
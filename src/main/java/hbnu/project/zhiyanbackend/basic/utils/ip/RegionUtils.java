@@ -2,7 +2,6 @@ package hbnu.project.zhiyanbackend.basic.utils.ip;
 
 import cn.hutool.core.io.resource.NoResourceException;
 import cn.hutool.core.io.resource.ResourceUtil;
-import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.lionsoul.ip2region.xdb.Searcher;
@@ -22,32 +21,48 @@ public class RegionUtils {
     // IP地址库文件名称
     public static final String IP_XDB_FILENAME = "ip2region.xdb";
 
-    private static final Searcher SEARCHER;
+    /**
+     * 整个 xdb 文件加载到内存后创建的查询对象，基于内存的查询线程安全，全局共用一个
+     */
+    private static final Searcher SEARCHER = loadSearcher();
 
-    static {
+    private static Searcher loadSearcher() {
         try {
             // 1、将 ip2region 数据库文件 xdb 从 ClassPath 加载到内存。
             // 2、基于加载到内存的 xdb 数据创建一个 Searcher 查询对象。
-            SEARCHER = Searcher.newWithBuffer(ResourceUtil.readBytes(IP_XDB_FILENAME));
+            Searcher searcher = Searcher.newWithBuffer(ResourceUtil.readBytes(IP_XDB_FILENAME));
             log.info("RegionUtils初始化成功，加载IP地址库数据成功！");
+            return searcher;
         } catch (NoResourceException e) {
-            throw new ServiceException("RegionUtils初始化失败，原因：IP地址库数据不存在！");
+            // 缺少地址库时不影响登录等业务，归属地统一显示为未知
+            log.error("RegionUtils初始化失败，原因：IP地址库数据不存在，IP归属地将显示为未知！");
         } catch (Exception e) {
-            throw new ServiceException("RegionUtils初始化失败，原因：" + e.getMessage());
+            log.error("RegionUtils初始化失败，原因：{}", e.getMessage());
         }
+        return null;
+    }
+
+    /**
+     * 地址库是否可用，启动时调用以提前加载地址库
+     */
+    public static boolean isAvailable() {
+        return SEARCHER != null;
     }
 
     /**
      * 根据IP地址离线获取城市
      */
     public static String getCityInfo(String ip) {
+        if (SEARCHER == null) {
+            return AddressUtils.UNKNOWN_ADDRESS;
+        }
         try {
             // 3、执行查询
             String region = SEARCHER.search(StringUtils.trim(ip));
             return region.replace("0|", "").replace("|0", "");
         } catch (Exception e) {
             log.error("IP地址离线获取城市异常 {}", ip);
-            return "未知";
+            return AddressUtils.UNKNOWN_ADDRESS;
         }
     }
 
@@ -16,6 +16,7 @@ import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
 import hbnu.project.zhiyanbackend.knowledge.service.AchievementDetailsService;
 import hbnu.project.zhiyanbackend.knowledge.service.AchievementFileService;
 import hbnu.project.zhiyanbackend.knowledge.service.AchievementService;
+import hbnu.project.zhiyanbackend.knowledge.service.AchievementStatisticsService;
 import hbnu.project.zhiyanbackend.knowledge.service.AchievementTaskService;
 import hbnu.project.zhiyanbackend.message.service.MessageSendService;
 import hbnu.project.zhiyanbackend.projects.utils.ProjectSecurityUtils;
@@ -59,6 +60,8 @@ public class AchievementManageController {
 
     private final MessageSendService messageSendService;
 
+    private final AchievementStatisticsService achievementStatisticsService;
+
     /**
      * 创建成果
      * 创建一个新的成果，包含基本信息和详情数据
@@ -210,6 +213,7 @@ public class AchievementManageController {
         // 删除成果的数据库记录
         log.info("开始删除成果主表记录: achievementId={}", achievementId);
         achievementRepository.deleteById(achievementId);
+        achievementStatisticsService.evict(projectId);
         log.info("成果主表记录删除完成: achievementId={}", achievementId);
 
         // 操作成功后记录日志并且发送消息
@@ -7,9 +7,14 @@ import hbnu.project.zhiyanbackend.basic.utils.ValidationUtils;
 import hbnu.project.zhiyanbackend.knowledge.model.converter.AchievementConverter;
 import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementDTO;
 import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementQueryDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementSearchDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementSearchResultDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementStatisticsDTO;
 import hbnu.project.zhiyanbackend.knowledge.model.entity.Achievement;
 import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
 import hbnu.project.zhiyanbackend.knowledge.service.AchievementSearchService;
+import hbnu.project.zhiyanbackend.knowledge.service.AchievementStatisticsService;
+import hbnu.project.zhiyanbackend.projects.utils.ProjectSecurityUtils;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -47,6 +52,10 @@ public class AchievementSearchController {
 
     private final AchievementConverter achievementConverter;
 
+    private final AchievementStatisticsService achievementStatisticsService;
+
+    private final ProjectSecurityUtils projectSecurityUtils;
+
     /**
      * 分页查询成果列表
      * 支持多条件组合查询
@@ -165,6 +174,33 @@ public class AchievementSearchController {
         return R.ok(result, "搜索成功");
     }
 
+    /**
+     * 项目成果统计看板
+     * 按类型、状态、创建月份统计成果数量（需要项目成员身份）
+     */
+    @GetMapping("/project/{projectId}/statistics")
+    @Operation(summary = "项目成果统计", description = "按类型、状态、月份统计项目成果数量及文件总数")
+    public R<AchievementStatisticsDTO> getProjectStatistics(
+            @Parameter(description = "项目ID") @PathVariable Long projectId) {
+        projectSecurityUtils.requireMember(projectId);
+
+        return R.ok(achievementStatisticsService.getStatistics(projectId), "查询成功");
+    }
+
+    /**
+     * 高级搜索
+     * 支持全文关键字、详情字段过滤（如 DOI、期刊、作者、年份区间），使用游标分页
+     */
+    @PostMapping("/advanced")
+    @Operation(summary = "高级搜索", description = "全文关键字 + 详情字段过滤，返回下一页游标")
+    public R<AchievementSearchResultDTO> advancedSearch(@Valid @RequestBody AchievementSearchDTO searchDTO) {
+        log.info("高级搜索成果: searchDTO={}", searchDTO);
+
+        AchievementSearchResultDTO result = achievementSearchService.advancedSearch(searchDTO);
+
+        return R.ok(result, "搜索成功");
+    }
+
     /**
      * 构建分页参数
      * @param page 页码
@@ -0,0 +1,72 @@
+package hbnu.project.zhiyanbackend.knowledge.model.dto;
+
+import hbnu.project.zhiyanbackend.security.xss.Xss;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 成果详情字段过滤条件DTO
+ * 示例：{"field": "publishYear", "op": "BETWEEN", "value": "2020", "value2": "2024"}
+ *
+ * @author ErgouTree
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AchievementFieldFilterDTO {
+
+    /**
+     * 详情字段键，如 doi、journal、authors、publishYear
+     */
+    @NotBlank(message = "过滤字段不能为空")
+    private String field;
+
+    /**
+     * 比较方式
+     */
+    @NotNull(message = "过滤方式不能为空")
+    private Operator op;
+
+    /**
+     * 比较值（BETWEEN 时为下界）
+     */
+    @Xss(message = "过滤值包含非法字符")
+    private String value;
+
+    /**
+     * BETWEEN 的上界
+     */
+    @Xss(message = "过滤值包含非法字符")
+    private String value2;
+
+    /**
+     * 过滤方式
+     */
+    public enum Operator {
+        /**
+         * 等于（数组字段为包含该元素）
+         */
+        EQ,
+        /**
+         * 包含子串，不区分大小写
+         */
+        CONTAINS,
+        /**
+         * 大于等于
+         */
+        GTE,
+        /**
+         * 小于等于
+         */
+        LTE,
+        /**
+         * 闭区间
+         */
+        BETWEEN
+    }
+}
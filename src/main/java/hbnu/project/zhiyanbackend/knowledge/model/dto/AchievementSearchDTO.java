@@ -0,0 +1,67 @@
+package hbnu.project.zhiyanbackend.knowledge.model.dto;
+
+import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementStatus;
+import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementType;
+import hbnu.project.zhiyanbackend.security.xss.Xss;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 成果高级搜索条件DTO
+ * 支持全文关键字、详情字段的结构化过滤和游标分页
+ *
+ * @author ErgouTree
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AchievementSearchDTO {
+
+    /**
+     * 全文关键字（标题、详情字段、摘要）
+     */
+    @Xss(message = "搜索关键字包含非法字符")
+    private String keyword;
+
+    /**
+     * 项目ID（可选）
+     */
+    private Long projectId;
+
+    /**
+     * 成果类型（可选）
+     */
+    private AchievementType type;
+
+    /**
+     * 成果状态（可选）
+     */
+    private AchievementStatus status;
+
+    /**
+     * 详情字段过滤条件，多个条件之间为 AND 关系
+     */
+    @Valid
+    private List<AchievementFieldFilterDTO> filters;
+
+    /**
+     * 上一页返回的游标，为空时查询第一页
+     */
+    private String cursor;
+
+    /**
+     * 每页数量
+     */
+    @Min(value = 1, message = "每页数量不能小于1")
+    @Max(value = 100, message = "每页数量不能超过100")
+    @Builder.Default
+    private Integer size = 20;
+}
@@ -0,0 +1,35 @@
+package hbnu.project.zhiyanbackend.knowledge.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 成果高级搜索结果DTO（游标分页）
+ *
+ * @author ErgouTree
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AchievementSearchResultDTO {
+
+    /**
+     * 当前页成果
+     */
+    private List<AchievementDTO> items;
+
+    /**
+     * 下一页游标，没有更多数据时为空
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据
+     */
+    private Boolean hasMore;
+}
@@ -0,0 +1,57 @@
+package hbnu.project.zhiyanbackend.knowledge.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 项目成果统计DTO
+ * 用于项目看板展示
+ *
+ * @author ErgouTree
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AchievementStatisticsDTO {
+
+    /**
+     * 项目ID
+     */
+    private String projectId;
+
+    /**
+     * 成果总数
+     */
+    private Long totalCount;
+
+    /**
+     * 按类型统计（键为类型枚举名，未出现的类型为0）
+     */
+    private Map<String, Long> byType;
+
+    /**
+     * 按状态统计（键为状态值，未出现的状态为0）
+     */
+    private Map<String, Long> byStatus;
+
+    /**
+     * 按创建月份统计（键为 yyyy-MM，按月份升序）
+     */
+    private Map<String, Long> byMonth;
+
+    /**
+     * 项目成果文件总数
+     */
+    private Long fileCount;
+
+    /**
+     * 统计时间
+     */
+    private LocalDateTime generatedAt;
+}
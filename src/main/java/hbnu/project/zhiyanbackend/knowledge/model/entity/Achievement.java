@@ -26,7 +26,8 @@ import java.util.List;
 @Table(name = "achievement", schema = "zhiyanknowledge", indexes = {
         @Index(name = "idx_project_status", columnList = "project_id, status"),
         @Index(name = "idx_creator", columnList = "creator_id"),
-        @Index(name = "idx_type", columnList = "type")
+        @Index(name = "idx_type", columnList = "type"),
+        @Index(name = "idx_achievement_created_id", columnList = "created_at DESC, id DESC")
 })
 // 插入时忽略null值
 @DynamicInsert
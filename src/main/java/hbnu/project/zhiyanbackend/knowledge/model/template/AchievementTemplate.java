@@ -21,6 +21,21 @@ import java.util.List;
 @EqualsAndHashCode
 @ToString
 public class AchievementTemplate {
+    /**
+     * 根据成果类型获取预设模板
+     */
+    public static AchievementTemplateDTO of(AchievementType type) {
+        return switch (type) {
+            case PAPER -> getPaperTemplate();
+            case PATENT -> getPatentTemplate();
+            case DATASET -> getDatasetTemplate();
+            case MODEL -> getModelTemplate();
+            case REPORT -> getReportTemplate();
+            case CUSTOM -> getCustomTemplate();
+            case TASK_RESULT -> getTaskResultTemplate();
+        };
+    }
+
     /**
      * 论文模板
      */
@@ -0,0 +1,298 @@
+package hbnu.project.zhiyanbackend.knowledge.model.template;
+
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementTemplateDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.CustomAchievementFieldDTO;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 编译后的成果模板校验器（不可变）
+ * 由模板定义一次性编译得到：必填字段集合、各字段的类型校验、选项集合和正则表达式都预先计算好，
+ * 校验时只遍历字段规则，不再重建模板或访问数据库。
+ *
+ * @author ErgouTree
+ */
+public final class TemplateValidator {
+
+    @Getter
+    private final String templateId;
+
+    /**
+     * 模板指纹，字段定义变化时随之变化
+     */
+    @Getter
+    private final String fingerprint;
+
+    private final List<FieldRule> rules;
+
+    @Getter
+    private final Set<String> requiredKeys;
+
+    /**
+     * 初始化详情数据时使用的默认值（无默认值的字段为 null）
+     */
+    private final Map<String, Object> defaults;
+
+    private TemplateValidator(String templateId, String fingerprint, List<FieldRule> rules) {
+        this.templateId = templateId;
+        this.fingerprint = fingerprint;
+        this.rules = rules;
+
+        Set<String> required = new LinkedHashSet<>();
+        Map<String, Object> initial = new LinkedHashMap<>();
+        for (FieldRule rule : rules) {
+            if (rule.required()) {
+                required.add(rule.key());
+            }
+            initial.put(rule.key(), rule.defaultValue());
+        }
+        this.requiredKeys = Collections.unmodifiableSet(required);
+        this.defaults = Collections.unmodifiableMap(initial);
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param templateId 模板ID，系统模板为类型code
+     * @param template   模板定义
+     * @return 校验器
+     * @throws IllegalArgumentException 字段类型不支持或验证规则不是合法的正则表达式
+     */
+    public static TemplateValidator compile(String templateId, AchievementTemplateDTO template) {
+        List<FieldRule> rules = new ArrayList<>();
+        if (template.getFields() != null) {
+            for (CustomAchievementFieldDTO field : template.getFields()) {
+                rules.add(FieldRule.of(field));
+            }
+        }
+        return new TemplateValidator(templateId, fingerprint(template), List.copyOf(rules));
+    }
+
+    /**
+     * 计算模板指纹（字段定义的 SHA-256 十六进制摘要），用作自定义模板的版本号
+     */
+    public static String fingerprint(AchievementTemplateDTO template) {
+        StringBuilder builder = new StringBuilder();
+        if (template.getFields() != null) {
+            for (CustomAchievementFieldDTO field : template.getFields()) {
+                builder.append(field.getFieldKey()).append('\u0001')
+                        .append(field.getFieldType()).append('\u0001')
+                        .append(Boolean.TRUE.equals(field.getRequired())).append('\u0001')
+                        .append(field.getDefaultValue()).append('\u0001')
+                        .append(Arrays.toString(field.getOptions())).append('\u0001')
+                        .append(field.getValidationRule()).append('\u0002');
+            }
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(builder.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 缺失的必填字段（值为 null 或空字符串）
+     *
+     * @param data 详情数据
+     * @return 缺失字段的键，全部填写时为空列表
+     */
+    public List<String> missingRequired(Map<String, Object> data) {
+        List<String> missing = new ArrayList<>(0);
+        for (String key : requiredKeys) {
+            if (isEmpty(data.get(key))) {
+                missing.add(key);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * 完整校验：必填、类型、选项和正则
+     *
+     * @param data 详情数据
+     * @return 校验失败项，通过时为空列表
+     */
+    public List<Violation> validate(Map<String, Object> data) {
+        List<Violation> violations = new ArrayList<>(0);
+        for (FieldRule rule : rules) {
+            Object value = data.get(rule.key());
+            if (isEmpty(value)) {
+                if (rule.required()) {
+                    violations.add(new Violation(rule.key(), rule.label(), Violation.Reason.MISSING));
+                }
+                continue;
+            }
+            if (!rule.type().accepts(value)) {
+                violations.add(new Violation(rule.key(), rule.label(), Violation.Reason.TYPE));
+            } else if (!rule.options().isEmpty() && !rule.optionsAccept(value)) {
+                violations.add(new Violation(rule.key(), rule.label(), Violation.Reason.OPTION));
+            } else if (rule.pattern() != null && !rule.pattern().matcher(String.valueOf(value)).matches()) {
+                violations.add(new Violation(rule.key(), rule.label(), Violation.Reason.PATTERN));
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * 按模板生成一份新的初始详情数据
+     */
+    public Map<String, Object> newDetailData() {
+        return new HashMap<>(defaults);
+    }
+
+    private static boolean isEmpty(Object value) {
+        return value == null || (value instanceof String text && text.isEmpty());
+    }
+
+    /**
+     * 字段类型及其取值校验
+     */
+    public enum FieldType {
+        TEXT("text", value -> true),
+        TEXTAREA("textarea", value -> true),
+        NUMBER("number", FieldType::isNumber),
+        DATE("date", FieldType::isDate),
+        SELECT("select", value -> !(value instanceof Collection<?>) && !(value instanceof Map<?, ?>)),
+        MULTISELECT("multiselect", value -> value instanceof Collection<?> || value instanceof String);
+
+        /**
+         * 日期：yyyy、yyyy-MM、yyyy-MM-dd，允许 / 和 . 分隔，允许带时间部分
+         */
+        private static final Pattern DATE_PATTERN =
+                Pattern.compile("^\\d{4}([-/.]\\d{1,2}([-/.]\\d{1,2})?)?([ T].*)?$");
+
+        private static final Map<String, FieldType> BY_CODE = new HashMap<>();
+
+        static {
+            for (FieldType type : values()) {
+                BY_CODE.put(type.code, type);
+            }
+        }
+
+        @Getter
+        private final String code;
+
+        private final Predicate<Object> acceptor;
+
+        FieldType(String code, Predicate<Object> acceptor) {
+            this.code = code;
+            this.acceptor = acceptor;
+        }
+
+        /**
+         * 根据字段类型code获取枚举，不支持时返回 null
+         */
+        public static FieldType of(String code) {
+            return code == null ? null : BY_CODE.get(code);
+        }
+
+        boolean accepts(Object value) {
+            return acceptor.test(value);
+        }
+
+        private static boolean isDate(Object value) {
+            return value instanceof String text && DATE_PATTERN.matcher(text).matches();
+        }
+
+        private static boolean isNumber(Object value) {
+            if (value instanceof Number) {
+                return true;
+            }
+            if (value instanceof String text) {
+                try {
+                    new BigDecimal(text.trim());
+                    return true;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 单个字段的编译结果
+     */
+    private record FieldRule(String key, String label, FieldType type, boolean required,
+                             Object defaultValue, Set<String> options, Pattern pattern) {
+
+        static FieldRule of(CustomAchievementFieldDTO field) {
+            FieldType type = FieldType.of(field.getFieldType());
+            if (type == null) {
+                throw new IllegalArgumentException("不支持的字段类型: " + field.getFieldType());
+            }
+            Pattern pattern = null;
+            if (field.getValidationRule() != null && !field.getValidationRule().isEmpty()) {
+                try {
+                    pattern = Pattern.compile(field.getValidationRule());
+                } catch (PatternSyntaxException e) {
+                    throw new IllegalArgumentException("字段验证规则不是合法的正则表达式: " + field.getFieldLabel());
+                }
+            }
+            Set<String> options = field.getOptions() == null ? Set.of() : Set.copyOf(Arrays.asList(field.getOptions()));
+            Object defaultValue = field.getDefaultValue() == null || field.getDefaultValue().isEmpty()
+                    ? null : field.getDefaultValue();
+            return new FieldRule(field.getFieldKey(), field.getFieldLabel(), type,
+                    Boolean.TRUE.equals(field.getRequired()), defaultValue, options, pattern);
+        }
+
+        boolean optionsAccept(Object value) {
+            if (value instanceof Collection<?> values) {
+                return values.stream().allMatch(item -> options.contains(String.valueOf(item)));
+            }
+            if (type == FieldType.MULTISELECT && value instanceof String text) {
+                return Arrays.stream(text.split(",")).map(String::trim).allMatch(options::contains);
+            }
+            return options.contains(String.valueOf(value));
+        }
+    }
+
+    /**
+     * 校验失败项
+     *
+     * @param key    字段键
+     * @param label  字段名称
+     * @param reason 失败原因
+     */
+    public record Violation(String key, String label, Reason reason) {
+
+        public enum Reason {
+            /**
+             * 必填字段缺失
+             */
+            MISSING,
+            /**
+             * 类型不匹配
+             */
+            TYPE,
+            /**
+             * 不在可选项中
+             */
+            OPTION,
+            /**
+             * 不符合验证规则
+             */
+            PATTERN
+        }
+
+        @Override
+        public String toString() {
+            return switch (reason) {
+                case MISSING -> label + "不能为空";
+                case TYPE -> label + "格式不正确";
+                case OPTION -> label + "不是有效的选项";
+                case PATTERN -> label + "不符合验证规则";
+            };
+        }
+    }
+}
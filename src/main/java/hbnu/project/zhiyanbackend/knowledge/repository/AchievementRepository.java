@@ -16,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 成果数据访问层
@@ -52,6 +53,15 @@ public interface AchievementRepository extends JpaRepository<Achievement, Long>,
      */
     List<Achievement> findByProjectId(Long projectId);
 
+    /**
+     * 只查询成果类型，用于详情校验时选择模板
+     *
+     * @param id 成果ID
+     * @return 成果类型
+     */
+    @Query("SELECT a.type FROM Achievement a WHERE a.id = :id")
+    Optional<AchievementType> findTypeById(@Param("id") Long id);
+
     /**
      * 根据项目ID和成果类型查询成果列表（分页）
      *
@@ -130,6 +140,23 @@ public interface AchievementRepository extends JpaRepository<Achievement, Long>,
      */
     long countByProjectIdAndType(Long projectId, AchievementType type);
 
+    /**
+     * 一次查询统计项目成果：按类型、按状态、按创建月份及总数（GROUPING SETS），并附带项目文件总数
+     * 每行依次为：grouping_id、type、status、month(YYYY-MM)、count、file_count，
+     * grouping_id 为 GROUPING(type, status, month) 的位图：3=按类型，5=按状态，6=按月份，7=总数
+     *
+     * @param projectId 项目ID
+     * @return 统计行
+     */
+    @Query(value = "SELECT GROUPING(a.type, a.status, date_trunc('month', a.created_at)) AS grouping_id, " +
+            "a.type, a.status, to_char(date_trunc('month', a.created_at), 'YYYY-MM') AS month, count(*) AS cnt, " +
+            "(SELECT count(*) FROM zhiyanknowledge.achievement_file f " +
+            " JOIN zhiyanknowledge.achievement x ON x.id = f.achievement_id WHERE x.project_id = :projectId) AS file_count " +
+            "FROM zhiyanknowledge.achievement a WHERE a.project_id = :projectId " +
+            "GROUP BY GROUPING SETS ((a.type), (a.status), (date_trunc('month', a.created_at)), ())",
+            nativeQuery = true)
+    List<Object[]> aggregateStatistics(@Param("projectId") Long projectId);
+
     /**
      * 查询项目下指定时间范围内创建的成果（分页）
      *
@@ -3,6 +3,8 @@ package hbnu.project.zhiyanbackend.knowledge.service;
 import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementQueryDTO;
 import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementDTO;
 import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementFileDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementSearchDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementSearchResultDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -67,4 +69,12 @@ public interface AchievementSearchService {
      * @return 成果分页列表
      */
     Page<AchievementDTO> combinationSearch(String keyword, Pageable pageable);
+
+    /**
+     * 高级搜索：全文关键字 + 详情字段过滤，游标分页
+     *
+     * @param searchDTO 搜索条件
+     * @return 当前页结果和下一页游标
+     */
+    AchievementSearchResultDTO advancedSearch(AchievementSearchDTO searchDTO);
 }
@@ -0,0 +1,26 @@
+package hbnu.project.zhiyanbackend.knowledge.service;
+
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementStatisticsDTO;
+
+/**
+ * 项目成果统计服务接口
+ *
+ * @author ErgouTree
+ */
+public interface AchievementStatisticsService {
+
+    /**
+     * 获取项目成果统计（带缓存）
+     *
+     * @param projectId 项目ID
+     * @return 统计结果
+     */
+    AchievementStatisticsDTO getStatistics(Long projectId);
+
+    /**
+     * 项目成果或成果文件增删改后调用，使本节点和其他节点的统计缓存失效
+     *
+     * @param projectId 项目ID
+     */
+    void evict(Long projectId);
+}
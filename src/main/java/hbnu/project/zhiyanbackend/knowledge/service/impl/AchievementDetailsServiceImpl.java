@@ -10,10 +10,12 @@ import hbnu.project.zhiyanbackend.knowledge.model.entity.AchievementDetail;
 import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementStatus;
 import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementType;
 import hbnu.project.zhiyanbackend.knowledge.model.template.AchievementTemplate;
+import hbnu.project.zhiyanbackend.knowledge.model.template.TemplateValidator;
 import hbnu.project.zhiyanbackend.knowledge.repository.AchievementDetailRepository;
 import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
 import hbnu.project.zhiyanbackend.knowledge.service.AchievementDetailsService;
 import hbnu.project.zhiyanbackend.knowledge.service.AchievementFileService;
+import hbnu.project.zhiyanbackend.knowledge.service.AchievementStatisticsService;
 import hbnu.project.zhiyanbackend.message.service.MessageSendService;
 import jakarta.annotation.Resource;
 import lombok.RequiredArgsConstructor;
@@ -50,6 +52,15 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
     @Resource
     private JsonUtils jsonUtils;
 
+    @Resource
+    private AchievementSearchEngine achievementSearchEngine;
+
+    @Resource
+    private AchievementStatisticsService achievementStatisticsService;
+
+    @Resource
+    private AchievementTemplateCompiler achievementTemplateCompiler;
+
     /**
      * 创建成果及其详情
      * 一次性创建成果主记录和详情记录
@@ -76,6 +87,7 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
 
         // 2. 持久化成果主记录
         achievement = achievementRepository.save(achievement);
+        achievementStatisticsService.evict(achievement.getProjectId());
         log.info("成果主记录创建成功: achievementId={}", achievement.getId());
 
         // 3. 创建成果详情记录
@@ -89,6 +101,7 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
                 .build();
 
         achievementDetailRepository.save(detail);
+        achievementSearchEngine.refresh(achievement.getId());
         log.info("成果详情记录创建成功: achievementId={}", achievement.getId());
 
         // 4.发送成果的创建通知
@@ -180,7 +193,7 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
             }
 
             // 验证字段类型是否合法
-            if (!isValidFieldType(field.getFieldType())) {
+            if (TemplateValidator.FieldType.of(field.getFieldType()) == null) {
                 throw new ServiceException("不支持的字段类型: " + field.getFieldType());
             }
 
@@ -199,6 +212,9 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
         Long templateId = SnowflakeIdUtils.nextId();
         templateDTO.setTemplateId(String.valueOf(templateId));
 
+        // 6. 编译模板（同时校验验证规则是否为合法正则），供后续校验复用
+        achievementTemplateCompiler.compileCustom(templateDTO);
+
         // 注意：新架构中没有单独的模板表，模板信息不持久化到数据库
         log.info("自定义模板创建成功: templateId={}", templateDTO.getTemplateId());
         return templateDTO;
@@ -257,6 +273,7 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
 
         // 6. 保存
         achievementDetailRepository.save(detail);
+        achievementSearchEngine.refresh(updateDTO.getAchievementId());
 
         log.info("成果详情更新成功: achievementId={}, fieldsUpdated={}",
                 updateDTO.getAchievementId(),
@@ -299,6 +316,7 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
 
         // 5. 保存
         achievementDetailRepository.save(detail);
+        achievementSearchEngine.refresh(achievementId);
 
         log.info("字段更新成功: achievementId={}, updatedFields={}",
                 achievementId, String.join(", ", fieldUpdates.keySet()));
@@ -329,24 +347,21 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
             throw new ServiceException("成果详情已存在，无需重新初始化");
         }
 
-        // 3. 获取模板
-        AchievementTemplateDTO template = getTemplateByType(type);
-
-        // 4. 初始化数据
-        Map<String, Object> detailData = initializeDetailDataFromTemplate(template);
+        // 3. 按模板初始化数据
+        Map<String, Object> detailData = achievementTemplateCompiler.forType(type).newDetailData();
 
-        // 5. 合并用户提供的初始数据
+        // 4. 合并用户提供的初始数据
         if (initialData != null && !initialData.isEmpty()) {
             detailData.putAll(initialData);
         }
 
-        // 6. 转换为JSON
+        // 5. 转换为JSON
         String detailDataJson = JsonUtils.toJsonString(detailData);
         if (StringUtils.isEmpty(detailDataJson)) {
             throw new ServiceException("详情数据序列化失败");
         }
 
-        // 7. 创建详情记录
+        // 6. 创建详情记录
         AchievementDetail detail = AchievementDetail.builder()
                 .id(SnowflakeIdUtils.nextId())
                 .achievementId(achievementId)
@@ -354,12 +369,13 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
                 .abstractText("")
                 .build();
 
-        // 8. 持久化
+        // 7. 持久化
         achievementDetailRepository.save(detail);
+        achievementSearchEngine.refresh(achievementId);
 
         log.info("详情数据初始化成功: achievementId={}", achievementId);
 
-        // 9. 返回完整详情
+        // 8. 返回完整详情
         return getAchievementDetail(achievementId);
     }
 
@@ -373,24 +389,10 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
      */
     @Override
     public boolean validateDetailData(Long achievementId, Map<String, Object> detailData) {
-        // 1. 查询成果类型
-        Achievement achievement = achievementRepository.findById(achievementId)
-                .orElseThrow(() -> new ServiceException("成果不存在"));
-
-        // 2. 获取对应模板
-        AchievementTemplateDTO template = getTemplateByType(achievement.getType());
-
-        // 3. 验证必填字段
-        if (template.getFields() != null) {
-            for (CustomAchievementFieldDTO field : template.getFields()) {
-                if (field.getRequired() != null && field.getRequired()) {
-                    Object value = detailData.get(field.getFieldKey());
-                    if (value == null || (value instanceof String && StringUtils.isEmpty((String) value))) {
-                        log.warn("字段验证失败: 缺少必填字段 {}", field.getFieldKey());
-                        return false;
-                    }
-                }
-            }
+        List<String> missing = validatorOf(achievementId).missingRequired(detailData);
+        if (!missing.isEmpty()) {
+            log.warn("字段验证失败: 缺少必填字段 {}", missing);
+            return false;
         }
         return true;
     }
@@ -406,15 +408,7 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
     public AchievementTemplateDTO getTemplateByType(AchievementType type) {
         log.info("获取成果类型模板: type={}", type);
 
-        return switch (type) {
-            case PAPER -> AchievementTemplate.getPaperTemplate();
-            case PATENT -> AchievementTemplate.getPatentTemplate();
-            case DATASET -> AchievementTemplate.getDatasetTemplate();
-            case MODEL -> AchievementTemplate.getModelTemplate();
-            case REPORT -> AchievementTemplate.getReportTemplate();
-            case CUSTOM -> AchievementTemplate.getCustomTemplate();
-            case TASK_RESULT -> AchievementTemplate.getTaskResultTemplate();
-        };
+        return AchievementTemplate.of(type);
     }
 
     /**
@@ -433,6 +427,7 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
 
         detail.setAbstractText(abstractText);
         achievementDetailRepository.save(detail);
+        achievementSearchEngine.refresh(achievementId);
 
         log.info("更新摘要成功: achievementId={}", achievementId);
     }
@@ -469,31 +464,6 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
                 .build();
     }
 
-    /**
-     * 根据模板初始化空的详情数据
-     * 为字段设置默认值
-     *
-     * @param template 成果模板
-     * @return 初始化的数据Map
-     */
-    private Map<String, Object> initializeDetailDataFromTemplate(AchievementTemplateDTO template) {
-        Map<String, Object> initialData = new HashMap<>();
-
-        if (template.getFields() != null) {
-            for (CustomAchievementFieldDTO field : template.getFields()) {
-                // 如果字段有默认值，则设置默认值
-                if (StringUtils.isNotEmpty(field.getDefaultValue())) {
-                    initialData.put(field.getFieldKey(), field.getDefaultValue());
-                } else {
-                    // 否则设置为null
-                    initialData.put(field.getFieldKey(), null);
-                }
-            }
-        }
-
-        return initialData;
-    }
-
     /**
      * 解析详情数据JSON
      * 将JSON字符串转换为Map对象
@@ -522,17 +492,14 @@ public class AchievementDetailsServiceImpl implements AchievementDetailsService
     }
 
     /**
-     * 验证字段类型是否合法
+     * 获取成果类型对应的模板校验器
      *
-     * @param fieldType 字段类型
-     * @return 是否合法
+     * @param achievementId 成果ID
+     * @return 校验器
      */
-    private boolean isValidFieldType(String fieldType) {
-        return "text".equals(fieldType)
-                || "number".equals(fieldType)
-                || "date".equals(fieldType)
-                || "textarea".equals(fieldType)
-                || "select".equals(fieldType)
-                || "multiselect".equals(fieldType);
+    private TemplateValidator validatorOf(Long achievementId) {
+        AchievementType type = achievementRepository.findTypeById(achievementId)
+                .orElseThrow(() -> new ServiceException("成果不存在"));
+        return achievementTemplateCompiler.forType(type);
     }
 }
@@ -15,6 +15,7 @@ import hbnu.project.zhiyanbackend.knowledge.model.entity.AchievementFile;
 import hbnu.project.zhiyanbackend.knowledge.repository.AchievementFileRepository;
 import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
 import hbnu.project.zhiyanbackend.knowledge.service.AchievementFileService;
+import hbnu.project.zhiyanbackend.knowledge.service.AchievementStatisticsService;
 import hbnu.project.zhiyanbackend.message.service.impl.MessageSendServiceImpl;
 import hbnu.project.zhiyanbackend.oss.config.COSProperties;
 import hbnu.project.zhiyanbackend.oss.dto.UploadFileResponseDTO;
@@ -50,6 +51,7 @@ public class AchievementFileServiceImpl implements AchievementFileService {
     private final AchievementFileConverter achievementFileConverter;
     private final MessageSendServiceImpl knowledgeMessageService;
     private final UserRepository userRepository;
+    private final AchievementStatisticsService achievementStatisticsService;
 
     /**
      * 默认预签名URL过期时间（3天）
@@ -137,6 +139,7 @@ public class AchievementFileServiceImpl implements AchievementFileService {
                 .build();
 
         achievementFile = achievementFileRepository.save(achievementFile);
+        achievementStatisticsService.evict(achievement.getProjectId());
 
         log.info("文件上传成功: fileId={}, objectKey={}", achievementFile.getId(), uploadResult.getObjectKey());
 
@@ -259,6 +262,7 @@ public class AchievementFileServiceImpl implements AchievementFileService {
         }
 
         log.info("批量上传成果文件完成: achievementId={}, 成功上传 {} 个文件", achievementId, savedFiles.size());
+        achievementStatisticsService.evict(achievement.getProjectId());
 
         // 5. 发送批量上传通知给项目成员（除了上传者自己）
         knowledgeMessageService.notifyAchievementFilesBatchUpload(achievement, savedFiles, uploadBy);
@@ -370,6 +374,7 @@ public class AchievementFileServiceImpl implements AchievementFileService {
 
             // 5. 删除数据库记录
             achievementFileRepository.deleteById(fileId);
+            achievementStatisticsService.evict(achievement.getProjectId());
             log.info("文件删除成功: fileId={}", fileId);
 
             // 6. 发送成果文件删除的通知
@@ -474,6 +479,10 @@ public class AchievementFileServiceImpl implements AchievementFileService {
 
             // 4. 删除数据库记录
             achievementFileRepository.deleteAllById(validFileIds);
+            achievementMap.values().stream()
+                    .map(Achievement::getProjectId)
+                    .distinct()
+                    .forEach(achievementStatisticsService::evict);
             log.info("数据库文件记录删除成功: 删除了 {} 个文件记录", validFileIds.size());
 
             // 5. 发送批量删除通知
@@ -542,6 +551,7 @@ public class AchievementFileServiceImpl implements AchievementFileService {
 
             // 6. 删除数据库记录
             achievementFileRepository.deleteAllById(fileIds);
+            achievementStatisticsService.evict(achievement.getProjectId());
             log.info("数据库文件记录删除成功: 删除了 {} 个文件记录", fileIds.size());
 
             // 7. 发送成果文件全部删除通知
@@ -0,0 +1,551 @@
+package hbnu.project.zhiyanbackend.knowledge.service.impl;
+
+import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
+import hbnu.project.zhiyanbackend.basic.utils.JsonUtils;
+import hbnu.project.zhiyanbackend.knowledge.model.converter.AchievementConverter;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementFieldFilterDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementSearchDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementSearchResultDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.CustomAchievementFieldDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.entity.Achievement;
+import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementType;
+import hbnu.project.zhiyanbackend.knowledge.model.template.AchievementTemplate;
+import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
+import hbnu.project.zhiyanbackend.projects.repository.ProjectMemberRepository;
+import hbnu.project.zhiyanbackend.security.utils.SecurityUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 成果搜索引擎
+ * <p>
+ * 依赖 sql/新PostgreSQL设计/zhiyanknowledge.sql 中的索引与列（由部署时执行，启动时不做 DDL）：
+ * <ul>
+ *     <li>detail_data 上的 jsonb_path_ops GIN 索引，支撑 {@code @>} 等值过滤</li>
+ *     <li>标题、摘要及常用详情字段（作者、期刊、DOI 等）上的 pg_trgm 表达式索引，支撑不区分大小写的子串匹配</li>
+ *     <li>achievement_detail.search_vector 加权全文向量及其 GIN 索引</li>
+ * </ul>
+ * 全文向量按模板字段元数据分配权重：名称类字段和成果标题为 A，必填字段为 B，长文本和摘要为 C，其余为 D；
+ * 详情保存时在同一事务内刷新，历史数据由后台线程分批回填。search_vector 列不存在时关键字搜索退化为子串匹配。
+ * <p>
+ * 分词使用 simple 配置，不依赖中文分词扩展，连续的中文不会被切分；中文关键字靠标题和摘要的三元组子串匹配兜底。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AchievementSearchEngine implements ApplicationRunner {
+
+    private static final String TS_CONFIG = "simple";
+
+    /**
+     * 详情字段键只允许字母、数字和下划线，校验后直接拼入 SQL 和 jsonpath
+     */
+    private static final Pattern FIELD_PATTERN = Pattern.compile("^[A-Za-z][A-Za-z0-9_]{0,63}$");
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private static final String CURSOR_BY_TIME = "t";
+
+    private static final String CURSOR_BY_RANK = "r";
+
+    /**
+     * 页码分页接口可排序的成果属性 -> 列
+     */
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.ofEntries(
+            Map.entry("id", "a.id"),
+            Map.entry("projectId", "a.project_id"),
+            Map.entry("type", "a.type"),
+            Map.entry("title", "a.title"),
+            Map.entry("isPublic", "a.is_public"),
+            Map.entry("creatorId", "a.creator_id"),
+            Map.entry("status", "a.status"),
+            Map.entry("createdAt", "a.created_at"),
+            Map.entry("updatedAt", "a.updated_at"),
+            Map.entry("createdBy", "a.created_by"),
+            Map.entry("updatedBy", "a.updated_by"),
+            Map.entry("version", "a.version"));
+
+    private static final String FROM_CLAUSE = " FROM zhiyanknowledge.achievement a"
+            + " LEFT JOIN zhiyanknowledge.achievement_detail d ON d.achievement_id = a.id";
+
+    /**
+     * 详情字段键 -> 全文权重，同名字段出现在多个模板中时取最高权重
+     */
+    private static final Map<String, Character> FIELD_WEIGHTS = buildFieldWeights();
+
+    private static final String VECTOR_EXPRESSION = buildVectorExpression();
+
+    private static final String REFRESH_SQL = "UPDATE zhiyanknowledge.achievement_detail d SET search_vector = "
+            + VECTOR_EXPRESSION
+            + " FROM zhiyanknowledge.achievement a WHERE a.id = d.achievement_id AND d.achievement_id = :achievementId";
+
+    private static final String BACKFILL_SQL = "UPDATE zhiyanknowledge.achievement_detail d SET search_vector = "
+            + VECTOR_EXPRESSION
+            + " FROM zhiyanknowledge.achievement a WHERE a.id = d.achievement_id AND d.id IN ("
+            + "SELECT x.id FROM zhiyanknowledge.achievement_detail x"
+            + " JOIN zhiyanknowledge.achievement y ON y.id = x.achievement_id"
+            + " WHERE x.search_vector IS NULL LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AchievementRepository achievementRepository;
+
+    private final ProjectMemberRepository projectMemberRepository;
+
+    private final AchievementConverter achievementConverter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * search_vector 列是否可用，不可用时关键字搜索退化为标题和摘要的子串匹配
+     */
+    private volatile boolean vectorReady;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        vectorReady = searchVectorExists();
+        if (!vectorReady) {
+            log.warn("achievement_detail.search_vector 列不存在，成果关键字搜索退化为子串匹配，"
+                    + "请执行 sql/新PostgreSQL设计/zhiyanknowledge.sql");
+            return;
+        }
+        Thread.ofVirtual().name("achievement-search-backfill").start(this::backfill);
+    }
+
+    /**
+     * 重新计算成果的全文向量，需在保存详情的事务内调用
+     *
+     * @param achievementId 成果ID
+     */
+    public void refresh(Long achievementId) {
+        if (!vectorReady || achievementId == null) {
+            return;
+        }
+        // 先把未提交的详情修改写入，原生 UPDATE 才能读到最新内容
+        entityManager.flush();
+        entityManager.createNativeQuery(REFRESH_SQL)
+                .setParameter("achievementId", achievementId)
+                .executeUpdate();
+    }
+
+    /**
+     * 高级搜索（游标分页）
+     * 有关键字时按相关度排序，否则按创建时间倒序
+     *
+     * @param criteria 搜索条件
+     * @return 当前页结果和下一页游标
+     */
+    public AchievementSearchResultDTO search(AchievementSearchDTO criteria) {
+        long start = System.currentTimeMillis();
+        int size = criteria.getSize() == null ? 20 : Math.clamp(criteria.getSize(), 1, 100);
+        CompiledQuery compiled = compile(criteria.getKeyword(), criteria);
+
+        StringBuilder sql = new StringBuilder("SELECT a.id, a.created_at, ")
+                .append(compiled.rankOrNull()).append(FROM_CLAUSE).append(compiled.where());
+        Map<String, Object> params = new HashMap<>(compiled.params());
+        if (StringUtils.isNotBlank(criteria.getCursor())) {
+            sql.append(compiled.ranked()
+                    ? " AND (" + compiled.rank() + ", a.id) < (CAST(:cursorRank AS real), :cursorId)"
+                    : " AND (a.created_at, a.id) < (:cursorTime, :cursorId)");
+            decodeCursor(criteria.getCursor(), compiled.ranked(), params);
+        }
+        sql.append(compiled.orderBy()).append(" LIMIT ").append(size + 1);
+
+        List<Object[]> rows = bind(entityManager.createNativeQuery(sql.toString()), params).getResultList();
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Object[] last = rows.getLast();
+            nextCursor = encodeCursor(compiled.ranked(), last);
+        }
+        List<AchievementDTO> items = load(rows.stream().map(row -> ((Number) row[0]).longValue()).toList());
+
+        log.debug("成果高级搜索完成: keyword={}, filters={}, results={}, elapsed={}ms",
+                criteria.getKeyword(), criteria.getFilters() == null ? 0 : criteria.getFilters().size(),
+                items.size(), System.currentTimeMillis() - start);
+        return AchievementSearchResultDTO.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * 关键字搜索（页码分页），兼容原有的组合搜索接口
+     *
+     * @param keyword  搜索关键字
+     * @param pageable 分页参数
+     * @return 成果分页列表
+     */
+    public Page<AchievementDTO> search(String keyword, Pageable pageable) {
+        CompiledQuery compiled = compile(keyword, new AchievementSearchDTO());
+
+        Number total = (Number) bind(entityManager.createNativeQuery(
+                "SELECT count(*)" + FROM_CLAUSE + compiled.where()), compiled.params()).getSingleResult();
+        if (total.longValue() == 0) {
+            return Page.empty(pageable);
+        }
+
+        String sql = "SELECT a.id" + FROM_CLAUSE + compiled.where() + orderBy(pageable.getSort(), compiled)
+                + " LIMIT " + pageable.getPageSize() + " OFFSET " + pageable.getOffset();
+        List<?> ids = bind(entityManager.createNativeQuery(sql), compiled.params()).getResultList();
+        List<AchievementDTO> content = load(ids.stream().map(id -> ((Number) id).longValue()).toList());
+        return new PageImpl<>(content, pageable, total.longValue());
+    }
+
+    // ==================== 查询编译 ====================
+
+    private CompiledQuery compile(String keyword, AchievementSearchDTO criteria) {
+        StringBuilder where = new StringBuilder(" WHERE ");
+        Map<String, Object> params = new HashMap<>();
+
+        // 可见性：公开成果，或当前用户所在项目的成果
+        Long userId = SecurityUtils.getUserId();
+        List<Long> memberProjectIds = userId == null ? List.of() : projectMemberRepository.findProjectIdsByUserId(userId);
+        if (memberProjectIds.isEmpty()) {
+            where.append("a.is_public = true");
+        } else {
+            where.append("(a.is_public = true OR a.project_id IN (:memberProjectIds))");
+            params.put("memberProjectIds", memberProjectIds);
+        }
+
+        if (criteria.getProjectId() != null) {
+            where.append(" AND a.project_id = :projectId");
+            params.put("projectId", criteria.getProjectId());
+        }
+        if (criteria.getType() != null) {
+            where.append(" AND a.type = :type");
+            params.put("type", criteria.getType().getCode());
+        }
+        if (criteria.getStatus() != null) {
+            where.append(" AND a.status = :status");
+            params.put("status", criteria.getStatus().name());
+        }
+
+        List<AchievementFieldFilterDTO> filters = criteria.getFilters() == null ? List.of() : criteria.getFilters();
+        for (int i = 0; i < filters.size(); i++) {
+            where.append(" AND ").append(compileFilter(filters.get(i), "f" + i, params));
+        }
+
+        String rank = null;
+        if (StringUtils.isNotBlank(keyword)) {
+            String trimmed = keyword.trim();
+            params.put("keywordLike", "%" + escapeLike(trimmed.toLowerCase(Locale.ROOT)) + "%");
+            if (vectorReady) {
+                params.put("keyword", trimmed);
+                String query = "websearch_to_tsquery('" + TS_CONFIG + "', :keyword)";
+                // simple 配置不切分中文，摘要的子串匹配仍需保留，否则摘要中的中文关键字搜不到
+                where.append(" AND (d.search_vector @@ ").append(query)
+                        .append(" OR lower(a.title) LIKE :keywordLike")
+                        .append(" OR lower(d.abstract) LIKE :keywordLike)");
+                // 标题子串命中加权，保证中文关键字的标题匹配排在前面
+                rank = "CAST(coalesce(ts_rank(d.search_vector, " + query + "), 0)"
+                        + " + CASE WHEN lower(a.title) LIKE :keywordLike THEN 1 ELSE 0 END AS real)";
+            } else {
+                where.append(" AND (lower(a.title) LIKE :keywordLike OR lower(d.abstract) LIKE :keywordLike)");
+            }
+        }
+        return new CompiledQuery(where.toString(), params, rank);
+    }
+
+    /**
+     * 将单个字段过滤条件编译为 SQL 谓词
+     * EQ 走 {@code @>}（可用 jsonb_path_ops 索引），CONTAINS 走三元组索引，范围比较走 jsonb_path_exists
+     */
+    private String compileFilter(AchievementFieldFilterDTO filter, String name, Map<String, Object> params) {
+        String field = filter.getField();
+        if (field == null || !FIELD_PATTERN.matcher(field).matches()) {
+            throw new ServiceException("不支持的过滤字段: " + field);
+        }
+        if (filter.getOp() == null || StringUtils.isBlank(filter.getValue())) {
+            throw new ServiceException("过滤条件不完整: " + field);
+        }
+        String value = filter.getValue().trim();
+
+        return switch (filter.getOp()) {
+            case EQ -> {
+                // 同时匹配字符串、数字和数组元素三种存储形式
+                List<Object> forms = new ArrayList<>();
+                forms.add(Map.of(field, value));
+                forms.add(Map.of(field, List.of(value)));
+                BigDecimal number = toNumber(value);
+                if (number != null) {
+                    forms.add(Map.of(field, number));
+                    forms.add(Map.of(field, List.of(number)));
+                }
+                List<String> predicates = new ArrayList<>();
+                for (int i = 0; i < forms.size(); i++) {
+                    params.put(name + "_" + i, JsonUtils.toJsonString(forms.get(i)));
+                    predicates.add("d.detail_data @> CAST(:" + name + "_" + i + " AS jsonb)");
+                }
+                yield "(" + String.join(" OR ", predicates) + ")";
+            }
+            case CONTAINS -> {
+                params.put(name, "%" + escapeLike(value.toLowerCase(Locale.ROOT)) + "%");
+                yield "lower(d.detail_data ->> '" + field + "') LIKE :" + name;
+            }
+            case GTE, LTE, BETWEEN -> {
+                String lower = filter.getOp() == AchievementFieldFilterDTO.Operator.LTE ? null : value;
+                String upper = switch (filter.getOp()) {
+                    case LTE -> value;
+                    case BETWEEN -> {
+                        if (StringUtils.isBlank(filter.getValue2())) {
+                            throw new ServiceException("区间过滤缺少上界: " + field);
+                        }
+                        yield filter.getValue2().trim();
+                    }
+                    default -> null;
+                };
+                yield compileRange(field, lower, upper, name, params);
+            }
+        };
+    }
+
+    /**
+     * 范围过滤：两端都是数字时按数值比较（兼容以字符串存储的数字），否则按字符串比较（适用于 ISO 日期）
+     */
+    private String compileRange(String field, String lower, String upper, String name, Map<String, Object> params) {
+        BigDecimal lowerNumber = lower == null ? null : toNumber(lower);
+        BigDecimal upperNumber = upper == null ? null : toNumber(upper);
+        boolean numeric = (lower == null || lowerNumber != null) && (upper == null || upperNumber != null);
+
+        String item = numeric ? "@.double()" : "@";
+        List<String> conditions = new ArrayList<>(2);
+        Map<String, Object> vars = new HashMap<>(2);
+        if (lower != null) {
+            conditions.add(item + " >= $lo");
+            vars.put("lo", numeric ? lowerNumber : lower);
+        }
+        if (upper != null) {
+            conditions.add(item + " <= $hi");
+            vars.put("hi", numeric ? upperNumber : upper);
+        }
+        params.put(name, JsonUtils.toJsonString(vars));
+        // silent = true：字段值无法转换为数字时视为不匹配，而不是报错
+        return "jsonb_path_exists(d.detail_data, '$.\"" + field + "\" ? (" + String.join(" && ", conditions) + ")'"
+                + ", CAST(:" + name + " AS jsonb), true)";
+    }
+
+    /**
+     * 页码分页的排序：指定了排序时按指定属性排序（与原 JPA 分页接口一致），否则按相关度或创建时间
+     */
+    private static String orderBy(Sort sort, CompiledQuery compiled) {
+        if (sort == null || sort.isUnsorted()) {
+            return compiled.orderBy();
+        }
+        StringJoiner orders = new StringJoiner(", ", " ORDER BY ", ", a.id DESC");
+        for (Sort.Order order : sort) {
+            String column = SORTABLE_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new ServiceException("不支持的排序字段: " + order.getProperty());
+            }
+            orders.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return orders.toString();
+    }
+
+    // ==================== 游标 ====================
+
+    private static String encodeCursor(boolean ranked, Object[] row) {
+        String raw = ranked
+                ? CURSOR_BY_RANK + "|" + ((Number) row[2]).floatValue() + "|" + row[0]
+                : CURSOR_BY_TIME + "|" + toLocalDateTime(row[1]) + "|" + row[0];
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void decodeCursor(String cursor, boolean ranked, Map<String, Object> params) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || !parts[0].equals(ranked ? CURSOR_BY_RANK : CURSOR_BY_TIME)) {
+                throw new IllegalArgumentException("cursor mode mismatch");
+            }
+            if (ranked) {
+                params.put("cursorRank", Float.parseFloat(parts[1]));
+            } else {
+                params.put("cursorTime", LocalDateTime.parse(parts[1]));
+            }
+            params.put("cursorId", Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ServiceException("无效的分页游标");
+        }
+    }
+
+    // ==================== 工具方法 ====================
+
+    private List<AchievementDTO> load(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Achievement> achievements = achievementRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Achievement::getId, Function.identity()));
+        return ids.stream()
+                .map(achievements::get)
+                .filter(Objects::nonNull)
+                .map(achievementConverter::toDTO)
+                .toList();
+    }
+
+    private static Query bind(Query query, Map<String, Object> params) {
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    private void backfill() {
+        try {
+            int total = 0;
+            int updated;
+            do {
+                updated = jdbcTemplate.update(BACKFILL_SQL, BACKFILL_BATCH_SIZE);
+                total += updated;
+            } while (updated == BACKFILL_BATCH_SIZE);
+            if (total > 0) {
+                log.info("成果全文向量回填完成: {}条", total);
+            }
+        } catch (Exception e) {
+            log.error("成果全文向量回填失败", e);
+        }
+    }
+
+    private boolean searchVectorExists() {
+        try {
+            Boolean exists = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM information_schema.columns"
+                    + " WHERE table_schema = 'zhiyanknowledge' AND table_name = 'achievement_detail'"
+                    + " AND column_name = 'search_vector')", Boolean.class);
+            return Boolean.TRUE.equals(exists);
+        } catch (Exception e) {
+            log.warn("检查成果全文向量列失败: error={}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static BigDecimal toNumber(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    /**
+     * 名称类字段（title、xxxName）为 A，必填字段为 B，长文本为 C，其余为 D
+     */
+    private static Map<String, Character> buildFieldWeights() {
+        Map<String, Character> weights = new HashMap<>();
+        for (AchievementType type : AchievementType.values()) {
+            List<CustomAchievementFieldDTO> fields = AchievementTemplate.of(type).getFields();
+            if (fields == null) {
+                continue;
+            }
+            for (CustomAchievementFieldDTO field : fields) {
+                String key = field.getFieldKey();
+                char weight;
+                if ("title".equals(key) || key.endsWith("Name")) {
+                    weight = 'A';
+                } else if (Boolean.TRUE.equals(field.getRequired())
+                        && !"number".equals(field.getFieldType()) && !"date".equals(field.getFieldType())) {
+                    weight = 'B';
+                } else if ("textarea".equals(field.getFieldType())) {
+                    weight = 'C';
+                } else {
+                    weight = 'D';
+                }
+                weights.merge(key, weight, (a, b) -> (char) Math.min(a, b));
+            }
+        }
+        return Map.copyOf(weights);
+    }
+
+    /**
+     * 生成加权全文向量的 SQL 表达式，成果标题并入 A，摘要并入 C，模板外的自定义字段并入 D
+     */
+    private static String buildVectorExpression() {
+        Map<Character, List<String>> byWeight = FIELD_WEIGHTS.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue, TreeMap::new,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+        String known = toArray(FIELD_WEIGHTS.keySet().stream()
+                .filter(key -> FIELD_WEIGHTS.get(key) != 'D').sorted().toList());
+
+        return weighted('A', "coalesce(a.title, '') || ' ' || " + fieldText("= ANY (" + toArray(byWeight.get('A')) + ")"))
+                + " || " + weighted('B', fieldText("= ANY (" + toArray(byWeight.get('B')) + ")"))
+                + " || " + weighted('C', "coalesce(d.abstract, '') || ' ' || "
+                + fieldText("= ANY (" + toArray(byWeight.get('C')) + ")"))
+                + " || " + weighted('D', fieldText("<> ALL (" + known + ")"));
+    }
+
+    private static String weighted(char weight, String text) {
+        return "setweight(to_tsvector('" + TS_CONFIG + "', " + text + "), '" + weight + "')";
+    }
+
+    private static String fieldText(String keyCondition) {
+        return "coalesce((SELECT string_agg(e.value, ' ') FROM jsonb_each_text(d.detail_data) e WHERE e.key "
+                + keyCondition + "), '')";
+    }
+
+    private static String toArray(List<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return "CAST(ARRAY[] AS text[])";
+        }
+        return keys.stream().sorted().map(key -> "'" + key + "'")
+                .collect(Collectors.joining(", ", "ARRAY[", "]"));
+    }
+
+    /**
+     * 编译后的查询条件
+     *
+     * @param where  WHERE 子句
+     * @param params 命名参数
+     * @param rank   相关度表达式，无关键字时为空
+     */
+    private record CompiledQuery(String where, Map<String, Object> params, String rank) {
+
+        boolean ranked() {
+            return rank != null;
+        }
+
+        String rankOrNull() {
+            return ranked() ? rank : "NULL";
+        }
+
+        String orderBy() {
+            return ranked() ? " ORDER BY " + rank + " DESC, a.id DESC" : " ORDER BY a.created_at DESC, a.id DESC";
+        }
+    }
+}
@@ -7,6 +7,8 @@ import hbnu.project.zhiyanbackend.knowledge.model.converter.AchievementFileConve
 import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementDTO;
 import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementFileDTO;
 import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementQueryDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementSearchDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementSearchResultDTO;
 import hbnu.project.zhiyanbackend.knowledge.model.entity.Achievement;
 import hbnu.project.zhiyanbackend.knowledge.model.entity.AchievementDetail;
 import hbnu.project.zhiyanbackend.knowledge.model.entity.AchievementFile;
@@ -15,6 +17,7 @@ import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementType;
 import hbnu.project.zhiyanbackend.knowledge.repository.AchievementFileRepository;
 import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
 import hbnu.project.zhiyanbackend.knowledge.service.AchievementSearchService;
+import hbnu.project.zhiyanbackend.knowledge.service.AchievementStatisticsService;
 import hbnu.project.zhiyanbackend.projects.utils.ProjectSecurityUtils;
 import hbnu.project.zhiyanbackend.security.utils.SecurityUtils;
 import jakarta.persistence.criteria.Join;
@@ -57,6 +60,10 @@ public class AchievementSearchServiceImpl implements AchievementSearchService {
 
     private final AchievementFileConverter achievementFileConverter;
 
+    private final AchievementSearchEngine achievementSearchEngine;
+
+    private final AchievementStatisticsService achievementStatisticsService;
+
     /**
      * 分页查询成果列表
      *
@@ -227,18 +234,12 @@ public class AchievementSearchServiceImpl implements AchievementSearchService {
     public Map<String, Long> statisticsByType(Long projectId) {
         log.info("按类型统计成果数量: projectId={}", projectId);
 
-        Map<String, Long> statistics = new HashMap<>();
-
-        for (AchievementType type : AchievementType.values()) {
-            long count = achievementRepository.countByProjectIdAndType(projectId, type);
-            statistics.put(type.name(), count);
-        }
-
-        return statistics;
+        return new HashMap<>(achievementStatisticsService.getStatistics(projectId).getByType());
     }
 
     /**
      * 组合搜索：多关键字搜索
+     * 在标题、详情字段和摘要中全文检索，按相关度排序
      *
      * @param keyword  搜索关键字
      * @param pageable 分页参数
@@ -252,30 +253,21 @@ public class AchievementSearchServiceImpl implements AchievementSearchService {
             throw new ServiceException("搜索关键字不能为空");
         }
 
-        Specification<Achievement> spec = (root, query, criteriaBuilder) -> {
-            // 不区分大小写
-            String lowerKeyword = keyword.toLowerCase();
-
-            // 左连接detail表
-            Join<Achievement, AchievementDetail> detailJoin = root.join("detail", JoinType.LEFT);
-
-            // 在标题、摘要中搜索（OR关系）
-            Predicate titlePredicate = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("title")),
-                    "%" + lowerKeyword + "%"
-            );
-
-            Predicate abstractPredicate = criteriaBuilder.like(
-                    criteriaBuilder.lower(detailJoin.get("abstractText")),
-                    "%" + lowerKeyword + "%"
-            );
+        return achievementSearchEngine.search(keyword, pageable);
+    }
 
-            // 组合条件（OR关系）
-            return criteriaBuilder.or(titlePredicate, abstractPredicate);
-        };
+    /**
+     * 高级搜索：全文关键字 + 详情字段过滤，游标分页
+     *
+     * @param searchDTO 搜索条件
+     * @return 当前页结果和下一页游标
+     */
+    @Override
+    public AchievementSearchResultDTO advancedSearch(AchievementSearchDTO searchDTO) {
+        log.info("高级搜索成果: keyword={}, projectId={}, type={}",
+                searchDTO.getKeyword(), searchDTO.getProjectId(), searchDTO.getType());
 
-        Page<Achievement> achievements = achievementRepository.findAll(spec, pageable);
-        return achievements.map(achievementConverter::toDTO);
+        return achievementSearchEngine.search(searchDTO);
     }
 
     /**
@@ -1,11 +1,12 @@
 package hbnu.project.zhiyanbackend.knowledge.service.impl;
 
 import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementStatisticsDTO;
 import hbnu.project.zhiyanbackend.knowledge.model.entity.Achievement;
 import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementStatus;
 import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
-import hbnu.project.zhiyanbackend.knowledge.service.AchievementFileService;
 import hbnu.project.zhiyanbackend.knowledge.service.AchievementService;
+import hbnu.project.zhiyanbackend.knowledge.service.AchievementStatisticsService;
 import hbnu.project.zhiyanbackend.message.service.MessageSendService;
 
 import jakarta.annotation.Resource;
@@ -14,7 +15,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -31,10 +31,10 @@ public class AchievementServiceImpl implements AchievementService {
     private AchievementRepository achievementRepository;
 
     @Resource
-    private AchievementFileService achievementFileService;
+    private MessageSendService knowledgeMessageService;
 
     @Resource
-    private MessageSendService knowledgeMessageService;
+    private AchievementStatisticsService achievementStatisticsService;
 
     /**
      * 更新成果状态
@@ -56,6 +56,7 @@ public class AchievementServiceImpl implements AchievementService {
 
         achievement.setStatus(status);
         achievementRepository.save(achievement);
+        achievementStatisticsService.evict(achievement.getProjectId());
 
         knowledgeMessageService.notifyAchievementStatusChange(achievement, oldStatus, status, userId);
         log.info("成果状态更新: id={}, newStatus={}", achievementId, status);
@@ -69,23 +70,12 @@ public class AchievementServiceImpl implements AchievementService {
      */
     @Override
     public Map<String, Object> getProjectAchievementStats(Long projectId) {
-        Map<String, Object> stats = new HashMap<>();
-
-        // 总数
-        long totalCount = achievementRepository.countByProjectId(projectId);
-        stats.put("totalCount", totalCount);
-
-        // 按状态统计
-        Map<AchievementStatus, Long> statusStats = countByStatus(projectId);
-        stats.put("byStatus", statusStats);
-
-        // 文件总数
-        List<Achievement> achievements = achievementRepository.findByProjectId(projectId);
-        long fileCount = achievements.stream()
-                .mapToLong(a -> achievementFileService.countFilesByAchievementId(a.getId()))
-                .sum();
-        stats.put("fileCount", fileCount);
+        AchievementStatisticsDTO statistics = achievementStatisticsService.getStatistics(projectId);
 
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalCount", statistics.getTotalCount());
+        stats.put("byStatus", countByStatus(projectId));
+        stats.put("fileCount", statistics.getFileCount());
         return stats;
     }
 
@@ -98,11 +88,8 @@ public class AchievementServiceImpl implements AchievementService {
     @Override
     public Map<AchievementStatus, Long> countByStatus(Long projectId) {
         Map<AchievementStatus, Long> result = new HashMap<>();
-        for (AchievementStatus status : AchievementStatus.values()) {
-            long count = achievementRepository.countByProjectIdAndStatus(projectId, status);
-            result.put(status, count);
-        }
-
+        achievementStatisticsService.getStatistics(projectId).getByStatus()
+                .forEach((status, count) -> result.put(AchievementStatus.getByValue(status), count));
         return result;
     }
 }
@@ -0,0 +1,114 @@
+package hbnu.project.zhiyanbackend.knowledge.service.impl;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import hbnu.project.zhiyanbackend.basic.cache.CacheRegistry;
+import hbnu.project.zhiyanbackend.basic.constants.CacheConstants;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementStatisticsDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementStatus;
+import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementType;
+import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
+import hbnu.project.zhiyanbackend.knowledge.service.AchievementStatisticsService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 项目成果统计服务实现
+ * 按类型、状态、月份的计数由一条 GROUPING SETS 查询得到，结果按项目缓存在注册表的 achievementStatistics 中。
+ * 被持续访问的项目在写入超过 refresh-after-write 后由后台线程异步刷新，读请求始终命中缓存；
+ * 成果或文件增删改时经注册表失效，跨节点同步由注册表负责。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Service
+public class AchievementStatisticsServiceImpl implements AchievementStatisticsService {
+
+    private static final int GROUP_BY_TYPE = 3;
+    private static final int GROUP_BY_STATUS = 5;
+    private static final int GROUP_BY_MONTH = 6;
+    private static final int GROUP_TOTAL = 7;
+
+    private final AchievementRepository achievementRepository;
+
+    private final CacheRegistry cacheRegistry;
+
+    private final ExecutorService refreshExecutor = Executors.newFixedThreadPool(2,
+            Thread.ofPlatform().name("achievement-stats-", 0).daemon(true).factory());
+
+    private final LoadingCache<Long, AchievementStatisticsDTO> cache;
+
+    public AchievementStatisticsServiceImpl(AchievementRepository achievementRepository, CacheRegistry cacheRegistry) {
+        this.achievementRepository = achievementRepository;
+        this.cacheRegistry = cacheRegistry;
+        this.cache = cacheRegistry.loadingCache(CacheConstants.ACHIEVEMENT_STATISTICS_CACHE, this::load, refreshExecutor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Override
+    public AchievementStatisticsDTO getStatistics(Long projectId) {
+        return cache.get(projectId);
+    }
+
+    @Override
+    public void evict(Long projectId) {
+        if (projectId == null) {
+            return;
+        }
+        cacheRegistry.evict(CacheConstants.ACHIEVEMENT_STATISTICS_CACHE, projectId);
+    }
+
+    private AchievementStatisticsDTO load(Long projectId) {
+        Map<String, Long> byType = new LinkedHashMap<>();
+        for (AchievementType type : AchievementType.values()) {
+            byType.put(type.name(), 0L);
+        }
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (AchievementStatus status : AchievementStatus.values()) {
+            byStatus.put(status.getValue(), 0L);
+        }
+        Map<String, Long> byMonth = new TreeMap<>();
+        long total = 0;
+        long fileCount = 0;
+
+        for (Object[] row : achievementRepository.aggregateStatistics(projectId)) {
+            long count = ((Number) row[4]).longValue();
+            fileCount = ((Number) row[5]).longValue();
+            switch (((Number) row[0]).intValue()) {
+                case GROUP_BY_TYPE -> {
+                    AchievementType type = AchievementType.getByCode((String) row[1]);
+                    if (type != null) {
+                        byType.put(type.name(), count);
+                    }
+                }
+                case GROUP_BY_STATUS -> byStatus.put((String) row[2], count);
+                case GROUP_BY_MONTH -> {
+                    if (row[3] != null) {
+                        byMonth.put((String) row[3], count);
+                    }
+                }
+                case GROUP_TOTAL -> total = count;
+                default -> log.warn("未知的成果统计分组: projectId={}, grouping={}", projectId, row[0]);
+            }
+        }
+
+        return AchievementStatisticsDTO.builder()
+                .projectId(String.valueOf(projectId))
+                .totalCount(total)
+                .byType(Collections.unmodifiableMap(byType))
+                .byStatus(Collections.unmodifiableMap(byStatus))
+                .byMonth(Collections.unmodifiableMap(byMonth))
+                .fileCount(fileCount)
+                .generatedAt(LocalDateTime.now())
+                .build();
+    }
+}
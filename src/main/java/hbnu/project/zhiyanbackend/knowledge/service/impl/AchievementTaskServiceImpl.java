@@ -1,6 +1,9 @@
 package hbnu.project.zhiyanbackend.knowledge.service.impl;
 
-import hbnu.project.zhiyanbackend.auth.repository.UserRepository;
+import hbnu.project.zhiyanbackend.auth.model.dto.UserSummary;
+import hbnu.project.zhiyanbackend.auth.utils.UserDirectory;
+import hbnu.project.zhiyanbackend.basic.cache.CacheRegistry;
+import hbnu.project.zhiyanbackend.basic.constants.CacheConstants;
 import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
 import hbnu.project.zhiyanbackend.basic.utils.JsonUtils;
 import hbnu.project.zhiyanbackend.basic.utils.ValidationUtils;
@@ -23,7 +26,9 @@ import hbnu.project.zhiyanbackend.tasks.service.TaskSubmissionService;
 import jakarta.annotation.Resource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -61,7 +66,10 @@ public class AchievementTaskServiceImpl implements AchievementTaskService {
     private ProjectMemberService projectMemberService;
 
     @Resource
-    private UserRepository userRepository;
+    private UserDirectory userDirectory;
+
+    @Resource
+    private CacheRegistry cacheRegistry;
 
     @Resource
     private AchievementConverter achievementConverter;
@@ -77,7 +85,7 @@ public class AchievementTaskServiceImpl implements AchievementTaskService {
      */
     @Override
     @Transactional(rollbackFor = Exception.class)
-    @CacheEvict(value = "achievementTasks", key = "#achievementId")
+    @CacheEvict(value = CacheConstants.ACHIEVEMENT_TASKS_CACHE, key = "#achievementId")
     public void linkTasksToAchievement(Long achievementId, List<Long> taskIds, Long userId) {
         log.info("关联任务到成果: achievementId={}, taskIds={}, userId={}", achievementId, taskIds, userId);
 
@@ -124,7 +132,7 @@ public class AchievementTaskServiceImpl implements AchievementTaskService {
      */
     @Override
     @Transactional(rollbackFor = Exception.class)
-    @CacheEvict(value = "achievementTasks", key = "#achievementId")
+    @CacheEvict(value = CacheConstants.ACHIEVEMENT_TASKS_CACHE, key = "#achievementId")
     public void unlinkTasksFromAchievement(Long achievementId, List<Long> taskIds, Long userId) {
         log.info("取消关联任务: achievementId={}, taskIds={}, userId={}", achievementId, taskIds, userId);
 
@@ -147,12 +155,13 @@ public class AchievementTaskServiceImpl implements AchievementTaskService {
 
     /**
      * 获取成果关联的任务列表（带详细信息）
-     * 通过查询任务服务获取任务详情
+     * 通过查询任务服务获取任务详情，任务、负责人或提交变化时由任务模块失效
      *
      * @param achievementId 成果ID
      * @return 任务列表（包含任务详情）
      */
     @Override
+    @Cacheable(value = CacheConstants.ACHIEVEMENT_TASKS_CACHE, key = "#achievementId")
     public List<TaskResultTaskRefDTO> getLinkedTasks(Long achievementId) {
         log.info("获取成果关联的任务列表: achievementId={}", achievementId);
 
@@ -179,20 +188,27 @@ public class AchievementTaskServiceImpl implements AchievementTaskService {
                 .filter(task -> task.getIsDeleted() == null || !task.getIsDeleted())
                 .toList();
 
-        // 4. 批量获取任务负责人信息（优化：减少查询次数）
-        Map<Long, List<TaskUser>> taskUsersMap = getTaskUsersMapBatch(
-                tasks.stream().map(Task::getId).collect(Collectors.toList())
-        );
+        List<Long> liveTaskIds = tasks.stream().map(Task::getId).collect(Collectors.toList());
+
+        // 4. 批量获取任务负责人ID（优先读 taskUserMap 缓存）
+        Map<Long, List<Long>> assigneeIdsMap = getTaskAssigneeIdsBatch(liveTaskIds);
 
         // 5. 批量获取最新提交信息（优化：减少查询次数）
-        Map<Long, TaskSubmissionDTO> submissionsMap = getLatestSubmissionsMapBatch(
-                tasks.stream().map(Task::getId).collect(Collectors.toList())
-        );
+        Map<Long, TaskSubmissionDTO> submissionsMap = getLatestSubmissionsMapBatch(liveTaskIds);
 
-        // 6. 转换为TaskResultTaskRefDTO
+        // 6. 一次解析创建者和负责人姓名
+        Set<Long> userIds = new HashSet<>();
+        tasks.forEach(task -> userIds.add(task.getCreatorId()));
+        assigneeIdsMap.values().forEach(userIds::addAll);
+        Map<Long, UserSummary> users = userDirectory.resolveAll(userIds);
+
+        // 7. 转换为TaskResultTaskRefDTO
         return tasks.stream()
-                .map(this::convertToTaskRefDTO)
-                .collect(Collectors.toList());
+                .map(task -> convertToTaskRefDTO(task,
+                        assigneeIdsMap.getOrDefault(task.getId(), List.of()),
+                        submissionsMap.get(task.getId()),
+                        users))
+                .toList();
     }
 
     /**
@@ -349,21 +365,39 @@ public class AchievementTaskServiceImpl implements AchievementTaskService {
     }
 
     /**
-     * 批量获取任务的负责人映射
-     * 优化：减少数据库查询次数
+     * 批量获取任务的负责人ID映射
+     * 先读 taskUserMap 缓存，未命中的任务合并为一次 IN 查询后回填
      *
      * @param taskIds 任务ID列表
-     * @return Map<任务ID, 负责人列表>
+     * @return Map<任务ID, 负责人ID列表>
      */
-    private Map<Long, List<TaskUser>> getTaskUsersMapBatch(List<Long> taskIds) {
-        Map<Long, List<TaskUser>> taskUsersMap = new HashMap<>();
+    @SuppressWarnings("unchecked")
+    private Map<Long, List<Long>> getTaskAssigneeIdsBatch(List<Long> taskIds) {
+        Cache cache = cacheRegistry.getCache(CacheConstants.TASK_USER_MAP_CACHE);
+        Map<Long, List<Long>> assigneeIdsMap = new HashMap<>();
+        List<Long> missed = new ArrayList<>();
 
         for (Long taskId : taskIds) {
-            List<TaskUser> taskUsers = taskUserRepository.findActiveExecutorsByTaskId(taskId);
-            taskUsersMap.put(taskId, taskUsers);
+            List<Long> cached = cache.get(taskId, List.class);
+            if (cached != null) {
+                assigneeIdsMap.put(taskId, cached);
+            } else {
+                missed.add(taskId);
+            }
         }
 
-        return taskUsersMap;
+        if (!missed.isEmpty()) {
+            Map<Long, List<Long>> loaded = taskUserRepository.findActiveExecutorsByTaskIds(missed).stream()
+                    .collect(Collectors.groupingBy(TaskUser::getTaskId,
+                            Collectors.mapping(TaskUser::getUserId, Collectors.toList())));
+            for (Long taskId : missed) {
+                List<Long> assigneeIds = List.copyOf(loaded.getOrDefault(taskId, List.of()));
+                cache.put(taskId, assigneeIds);
+                assigneeIdsMap.put(taskId, assigneeIds);
+            }
+        }
+
+        return assigneeIdsMap;
     }
 
     /**
@@ -393,10 +427,14 @@ public class AchievementTaskServiceImpl implements AchievementTaskService {
     /**
      * 将Task转换为TaskResultTaskRefDTO
      *
-     * @param task            任务实体
+     * @param task        任务实体
+     * @param assigneeIds 负责人ID列表
+     * @param submission  最新提交，没有时为 null
+     * @param users       已解析的用户摘要
      * @return 任务引用DTO
      */
-    private TaskResultTaskRefDTO convertToTaskRefDTO(Task task) {
+    private TaskResultTaskRefDTO convertToTaskRefDTO(Task task, List<Long> assigneeIds,
+                                                     TaskSubmissionDTO submission, Map<Long, UserSummary> users) {
         if (task == null) {
             return null;
         }
@@ -405,32 +443,23 @@ public class AchievementTaskServiceImpl implements AchievementTaskService {
         TaskResultTaskRefDTO dto = achievementConverter.toTaskResultTaskRefDTO(task);
 
         // 设置创建者名称
-        dto.setCreatorName(userRepository.findNameById(task.getCreatorId()).orElse("未知用户"));
+        dto.setCreatorName(nameOf(users, task.getCreatorId()));
 
         // 处理负责人信息
-        List<TaskUser> taskUsers = taskUserRepository.findActiveExecutorsByTaskId(task.getId());
-        List<Long> assigneeIds = taskUsers.stream()
-                .map(TaskUser::getUserId)
-                .toList();
         dto.setAssigneeIds(JsonUtils.toJsonString(assigneeIds));
 
         // 设置负责人名称
         List<String> assigneeNames = assigneeIds.stream()
-                .map(userId -> userRepository.findNameById(userId).orElse("未知用户"))
+                .map(userId -> nameOf(users, userId))
                 .toList();
         dto.setAssigneeNames(assigneeNames);
 
         // 处理最新提交信息
-        try {
-            TaskSubmissionDTO submission = taskSubmissionService.getLatestSubmission(task.getId());
-            if (submission != null) {
-                dto.setLatestSubmissionId(parseLongSafely(submission.getId()));
-                dto.setSubmitterId(parseLongSafely(submission.getSubmitterId()));
-                dto.setSubmitterName(submission.getSubmitter() != null ? submission.getSubmitter().getName() : null);
-                dto.setLatestSubmissionTime(submission.getSubmissionTime());
-            }
-        } catch (Exception e) {
-            log.warn("获取任务提交信息失败: taskId={}", task.getId(), e);
+        if (submission != null) {
+            dto.setLatestSubmissionId(parseLongSafely(submission.getId()));
+            dto.setSubmitterId(parseLongSafely(submission.getSubmitterId()));
+            dto.setSubmitterName(submission.getSubmitter() != null ? submission.getSubmitter().getName() : null);
+            dto.setLatestSubmissionTime(submission.getSubmissionTime());
         }
 
         // 设置完成时间
@@ -441,6 +470,12 @@ public class AchievementTaskServiceImpl implements AchievementTaskService {
         return dto;
     }
 
+    private static String nameOf(Map<Long, UserSummary> users, Long userId) {
+        UserSummary user = users.get(userId);
+        // 与原先按 findNameById 查询一致，已删除用户显示为未知用户
+        return user != null && !user.deleted() ? user.name() : UserDirectory.UNKNOWN_USER_NAME;
+    }
+
     /**
      * 安全解析Long类型，避免空指针和格式异常
      */
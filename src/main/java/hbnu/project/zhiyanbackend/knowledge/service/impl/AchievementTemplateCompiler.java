@@ -0,0 +1,55 @@
+package hbnu.project.zhiyanbackend.knowledge.service.impl;
+
+import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementTemplateDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementType;
+import hbnu.project.zhiyanbackend.knowledge.model.template.AchievementTemplate;
+import hbnu.project.zhiyanbackend.knowledge.model.template.TemplateValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 成果模板编译器
+ * 系统模板在启动时编译一次并常驻；自定义模板不落库，只在创建时编译一次用于校验字段定义。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+public class AchievementTemplateCompiler {
+
+    private final Map<AchievementType, TemplateValidator> systemValidators = new EnumMap<>(AchievementType.class);
+
+    public AchievementTemplateCompiler() {
+        for (AchievementType type : AchievementType.values()) {
+            systemValidators.put(type, TemplateValidator.compile(type.getCode(), AchievementTemplate.of(type)));
+        }
+    }
+
+    /**
+     * 获取系统模板的校验器
+     *
+     * @param type 成果类型
+     * @return 校验器
+     */
+    public TemplateValidator forType(AchievementType type) {
+        return systemValidators.get(type);
+    }
+
+    /**
+     * 编译自定义模板，字段类型不支持或验证规则不是合法正则时抛出业务异常
+     *
+     * @param template 模板定义（需已分配模板ID）
+     * @return 校验器
+     */
+    public TemplateValidator compileCustom(AchievementTemplateDTO template) {
+        try {
+            return TemplateValidator.compile(template.getTemplateId(), template);
+        } catch (IllegalArgumentException e) {
+            throw new ServiceException(e.getMessage());
+        }
+    }
+}
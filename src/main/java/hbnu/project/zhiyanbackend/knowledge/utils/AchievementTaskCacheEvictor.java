@@ -0,0 +1,54 @@
+package hbnu.project.zhiyanbackend.knowledge.utils;
+
+import hbnu.project.zhiyanbackend.basic.cache.CacheRegistry;
+import hbnu.project.zhiyanbackend.basic.constants.CacheConstants;
+import hbnu.project.zhiyanbackend.knowledge.model.entity.AchievementTaskRef;
+import hbnu.project.zhiyanbackend.knowledge.repository.AchievementTaskRefRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 成果关联任务缓存的失效
+ * 任务、执行人、提交记录变化时只失效关联了这些任务的成果，未关联任何成果的任务不产生失效
+ *
+ * @author ErgouTree
+ */
+@Component
+@RequiredArgsConstructor
+public class AchievementTaskCacheEvictor {
+
+    private final AchievementTaskRefRepository achievementTaskRefRepository;
+
+    private final CacheRegistry cacheRegistry;
+
+    /**
+     * 失效关联了指定任务的成果的任务列表缓存
+     *
+     * @param taskId 任务ID
+     */
+    public void evictByTaskId(Long taskId) {
+        if (taskId != null) {
+            evictByTaskIds(List.of(taskId));
+        }
+    }
+
+    /**
+     * 失效关联了指定任务的成果的任务列表缓存
+     *
+     * @param taskIds 任务ID集合
+     */
+    public void evictByTaskIds(Collection<Long> taskIds) {
+        List<Long> ids = taskIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        achievementTaskRefRepository.findByTaskIdIn(ids).stream()
+                .map(AchievementTaskRef::getAchievementId)
+                .distinct()
+                .forEach(achievementId -> cacheRegistry.evict(CacheConstants.ACHIEVEMENT_TASKS_CACHE, achievementId));
+    }
+}
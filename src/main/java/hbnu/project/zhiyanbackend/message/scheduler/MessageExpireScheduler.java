@@ -3,6 +3,7 @@ package hbnu.project.zhiyanbackend.message.scheduler;
 import hbnu.project.zhiyanbackend.message.model.entity.MessageRecipient;
 import hbnu.project.zhiyanbackend.message.model.enums.MessageScene;
 import hbnu.project.zhiyanbackend.message.repository.MessageRecipientRepository;
+import hbnu.project.zhiyanbackend.redis.lock.SchedulerLock;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -31,6 +32,7 @@ public class MessageExpireScheduler {
      */
     // 每小时整点执行
     @Scheduled(cron = "0 0 * * * ?")
+    @SchedulerLock(name = "messageExpire", lockAtMostFor = "50m", lockAtLeastFor = "1m")
     @Transactional(rollbackFor = Exception.class)
     public void processExpiredMessages() {
         log.info("开始处理过期消息...");
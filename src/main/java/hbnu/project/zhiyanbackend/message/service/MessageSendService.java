@@ -163,6 +163,26 @@ public interface MessageSendService {
      */
     void notifyTaskOverSubmissionTime(Task task, Long receiverId, long overdueDays);
 
+    /**
+     * 发送合并后的任务提醒通知
+     * 同一接收人同一批次需要提醒的多个任务合并为一条消息
+     *
+     * @param receiverId 接收人
+     * @param tasks 需要提醒的任务
+     * @param hoursBeforeDue 任务ID -> 距离截止的小时数（72、48、24）
+     */
+    void notifyTaskDeadlineReminders(Long receiverId, List<Task> tasks, Map<Long, Long> hoursBeforeDue);
+
+    /**
+     * 发送合并后的任务逾期通知
+     * 同一接收人同一批次逾期的多个任务合并为一条消息
+     *
+     * @param receiverId 接收人
+     * @param tasks 逾期的任务
+     * @param overdueDays 任务ID -> 逾期天数
+     */
+    void notifyTasksOverdue(Long receiverId, List<Task> tasks, Map<Long, Long> overdueDays);
+
     /**
      * 发送待审核任务通知
      * 当任务被提交后，通知任务创建者（审核者）有新的待审核任务
@@ -1,7 +1,8 @@
 package hbnu.project.zhiyanbackend.message.service.impl;
 
 import cn.hutool.core.util.StrUtil;
-import hbnu.project.zhiyanbackend.auth.repository.UserRepository;
+import hbnu.project.zhiyanbackend.auth.model.dto.UserSummary;
+import hbnu.project.zhiyanbackend.auth.utils.UserDirectory;
 import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
 import hbnu.project.zhiyanbackend.basic.utils.FileUtils;
 import hbnu.project.zhiyanbackend.basic.utils.JsonUtils;
@@ -43,7 +44,7 @@ public class MessageSendServiceImpl implements MessageSendService {
 
     private final InboxMessageService inboxMessageService;
     private final ProjectMemberService projectMemberService;
-    private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
     private final ProjectRepository projectRepository;
 
     /**
@@ -690,6 +691,127 @@ public class MessageSendServiceImpl implements MessageSendService {
         }
     }
 
+    /**
+     * 发送合并后的任务提醒通知
+     * 同一接收人同一批次需要提醒的多个任务合并为一条消息
+     *
+     * @param receiverId 接收人
+     * @param tasks 需要提醒的任务
+     * @param hoursBeforeDue 任务ID -> 距离截止的小时数（72、48、24）
+     */
+    @Override
+    public void notifyTaskDeadlineReminders(Long receiverId, List<Task> tasks, Map<Long, Long> hoursBeforeDue) {
+        if (receiverId == null || tasks == null || tasks.isEmpty()) {
+            log.warn("合并任务提醒通知参数不完整: receiverId={}", receiverId);
+            return;
+        }
+
+        try {
+            String receiverName = getOperatorName(receiverId);
+            Map<Long, String> projectNames = resolveProjectNames(tasks);
+
+            // 单个任务保持与单条提醒一致的消息结构，便于前端跳转
+            if (tasks.size() == 1) {
+                Task task = tasks.get(0);
+                String projectName = projectNames.get(task.getProjectId());
+                String timeDesc = hoursBeforeDue.getOrDefault(task.getId(), 24L) + "小时内";
+                String content = String.format("您有任务即将截止，请及时提交\n任务名称：「%s」\n项目：%s\n截止日期：%s\n优先级：%s\n创建者：%s\n距离截止还有%s，请尽快完成并提交",
+                        task.getTitle(),
+                        projectName,
+                        task.getDueDate(),
+                        task.getPriority().name(),
+                        getOperatorName(task.getCreatorId()),
+                        timeDesc);
+                inboxMessageService.sendPersonalMessage(
+                        MessageScene.TASK_DEADLINE_REMIND,
+                        task.getCreatorId(),
+                        receiverId,
+                        "任务提交提醒",
+                        content,
+                        task.getId(),
+                        "TASK",
+                        buildTaskReminderExtendData(task, receiverId, receiverName, projectName, timeDesc)
+                );
+                log.info("任务提醒通知发送成功: taskId={}, receiverId={}", task.getId(), receiverId);
+                return;
+            }
+
+            String taskLines = tasks.stream()
+                    .map(task -> String.format("「%s」（%s，截止日期：%s，剩余%s小时内）",
+                            task.getTitle(),
+                            projectNames.get(task.getProjectId()),
+                            task.getDueDate(),
+                            hoursBeforeDue.getOrDefault(task.getId(), 24L)))
+                    .collect(Collectors.joining("\n"));
+            String content = String.format("您有 %d 个任务即将截止，请及时提交\n%s", tasks.size(), taskLines);
+
+            inboxMessageService.sendPersonalMessage(
+                    MessageScene.TASK_DEADLINE_REMIND,
+                    null,
+                    receiverId,
+                    "任务提交提醒",
+                    content,
+                    null,
+                    "TASK",
+                    buildTaskDigestExtendData(tasks, receiverId, receiverName, projectNames, "hoursBeforeDue", hoursBeforeDue)
+            );
+            log.info("合并任务提醒通知发送成功: receiverId={}, taskCount={}", receiverId, tasks.size());
+        } catch (ServiceException e) {
+            log.error("发送合并任务提醒通知失败: receiverId={}, taskCount={}", receiverId, tasks.size(), e);
+        }
+    }
+
+    /**
+     * 发送合并后的任务逾期通知
+     * 同一接收人同一批次逾期的多个任务合并为一条消息
+     *
+     * @param receiverId 接收人
+     * @param tasks 逾期的任务
+     * @param overdueDays 任务ID -> 逾期天数
+     */
+    @Override
+    public void notifyTasksOverdue(Long receiverId, List<Task> tasks, Map<Long, Long> overdueDays) {
+        if (receiverId == null || tasks == null || tasks.isEmpty()) {
+            log.warn("合并任务逾期通知参数不完整: receiverId={}", receiverId);
+            return;
+        }
+
+        if (tasks.size() == 1) {
+            Task task = tasks.get(0);
+            notifyTaskOverSubmissionTime(task, receiverId, overdueDays.getOrDefault(task.getId(), 1L));
+            return;
+        }
+
+        try {
+            String receiverName = getOperatorName(receiverId);
+            Map<Long, String> projectNames = resolveProjectNames(tasks);
+
+            String taskLines = tasks.stream()
+                    .map(task -> String.format("「%s」（%s，原定截止日期：%s，已逾期%s天）",
+                            task.getTitle(),
+                            projectNames.get(task.getProjectId()),
+                            task.getDueDate(),
+                            overdueDays.getOrDefault(task.getId(), 1L)))
+                    .collect(Collectors.joining("\n"));
+            String content = String.format("您有 %d 个任务已逾期，请尽快处理\n%s\n逾期三天后该消息不会再发送，请尽快完成并提交",
+                    tasks.size(), taskLines);
+
+            inboxMessageService.sendPersonalMessage(
+                    MessageScene.TASK_OVERDUE,
+                    null,
+                    receiverId,
+                    "任务逾期警告",
+                    content,
+                    null,
+                    "TASK",
+                    buildTaskDigestExtendData(tasks, receiverId, receiverName, projectNames, "overdueDays", overdueDays)
+            );
+            log.info("合并任务逾期通知发送成功: receiverId={}, taskCount={}", receiverId, tasks.size());
+        } catch (ServiceException e) {
+            log.error("发送合并任务逾期通知失败: receiverId={}, taskCount={}", receiverId, tasks.size(), e);
+        }
+    }
+
     /**
      * 发送待审核任务通知
      * 当任务被提交后，通知任务创建者（审核者）有新的待审核任务
@@ -922,7 +1044,9 @@ public class MessageSendServiceImpl implements MessageSendService {
 
         try {
             // 获取用户姓名
-            String userName = userRepository.findNameById(userId)
+            String userName = userDirectory.resolve(userId)
+                    .filter(summary -> !summary.deleted())
+                    .map(UserSummary::name)
                     .orElse("用户");
 
             // 构建消息内容
@@ -1210,7 +1334,9 @@ public class MessageSendServiceImpl implements MessageSendService {
 
         try {
             // 获取用户姓名
-            String userName = userRepository.findNameById(userId)
+            String userName = userDirectory.resolve(userId)
+                    .filter(summary -> !summary.deleted())
+                    .map(UserSummary::name)
                     .orElse("用户");
 
             // 构建消息内容
@@ -1268,8 +1394,7 @@ public class MessageSendServiceImpl implements MessageSendService {
             return "未知用户";
         }
         try {
-            return userRepository.findNameById(operatorId)
-                    .orElse("未知用户");
+            return userDirectory.nameOf(operatorId);
         } catch (Exception e) {
             log.warn("获取操作者姓名失败: operatorId={}", operatorId, e);
             return "未知用户";
@@ -1555,6 +1680,46 @@ public class MessageSendServiceImpl implements MessageSendService {
         return JsonUtils.toJsonString(extendData);
     }
 
+    /**
+     * 批量获取任务所属项目名称
+     */
+    private Map<Long, String> resolveProjectNames(List<Task> tasks) {
+        Map<Long, String> projectNames = new HashMap<>();
+        for (Task task : tasks) {
+            projectNames.computeIfAbsent(task.getProjectId(),
+                    projectId -> projectRepository.findProjectNameById(projectId).orElse("未知项目"));
+        }
+        return projectNames;
+    }
+
+    /**
+     * 构建合并任务通知扩展数据JSON
+     */
+    private String buildTaskDigestExtendData(List<Task> tasks, Long receiverId, String receiverName,
+                                             Map<Long, String> projectNames, String valueKey, Map<Long, Long> values) {
+        List<Map<String, Object>> items = tasks.stream()
+                .map(task -> {
+                    Map<String, Object> item = new HashMap<>();
+                    item.put("taskId", task.getId());
+                    item.put("taskTitle", task.getTitle());
+                    item.put("projectId", task.getProjectId());
+                    item.put("projectName", projectNames.get(task.getProjectId()));
+                    item.put("dueDate", task.getDueDate());
+                    item.put("priority", task.getPriority().name());
+                    item.put(valueKey, values.get(task.getId()));
+                    item.put("redirectUrl", "/tasks/" + task.getId());
+                    return item;
+                })
+                .collect(Collectors.toList());
+
+        Map<String, Object> extendData = new HashMap<>();
+        extendData.put("receiverId", receiverId);
+        extendData.put("receiverName", receiverName);
+        extendData.put("taskCount", tasks.size());
+        extendData.put("tasks", items);
+        return JsonUtils.toJsonString(extendData);
+    }
+
     /**
      * 构建任务逾期扩展数据JSON
      */
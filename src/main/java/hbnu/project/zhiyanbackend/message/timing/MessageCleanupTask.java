@@ -1,6 +1,7 @@
 package hbnu.project.zhiyanbackend.message.timing;
 
 import hbnu.project.zhiyanbackend.message.repository.MessageRecipientRepository;
+import hbnu.project.zhiyanbackend.redis.lock.SchedulerLock;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -28,6 +29,7 @@ public class MessageCleanupTask {
      * 清理180天前的消息
      */
     @Scheduled(cron = "0 0 2 * * ?")
+    @SchedulerLock(name = "messageCleanup", lockAtMostFor = "1h", lockAtLeastFor = "5m")
     public void cleanupOldMessages() {
         LocalDateTime cutoffTime = LocalDateTime.now().minusDays(180);
 
@@ -0,0 +1,224 @@
+package hbnu.project.zhiyanbackend.projects.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hbnu.project.zhiyanbackend.projects.model.enums.ProjectMemberRole;
+import hbnu.project.zhiyanbackend.projects.model.enums.ProjectPermission;
+import hbnu.project.zhiyanbackend.projects.repository.ProjectMemberRepository;
+import hbnu.project.zhiyanbackend.redis.utils.RedisUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 项目成员身份两级缓存
+ * 第一级为请求内缓存，同一请求多次检查同一 (projectId, userId) 只查一次；
+ * 第二级为本地 Caffeine 近端缓存，保存角色及其权限集合。
+ * 成员新增、移除、角色变更时本地立即失效，并在事务提交后通过 Redis 发布失效事件通知其他节点。
+ *
+ * @author Tokito
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectMembershipCache implements ApplicationRunner {
+
+    /**
+     * 成员变更失效事件频道
+     */
+    public static final String INVALIDATE_CHANNEL = "project:member:invalidate";
+
+    /**
+     * 请求内缓存的属性名
+     */
+    private static final String REQUEST_ATTRIBUTE = ProjectMembershipCache.class.getName() + ".MEMO";
+
+    /**
+     * 近端缓存容量与兜底过期时间（失效事件丢失时的最长不一致时间）
+     */
+    private static final long MAXIMUM_SIZE = 10_000L;
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(5);
+
+    private final ProjectMemberRepository projectMemberRepository;
+
+    private final Cache<MemberKey, Membership> nearCache = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(EXPIRE_AFTER_WRITE)
+            .build();
+
+    /**
+     * 启动时订阅其他节点的失效事件
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            RedisUtils.subscribe(INVALIDATE_CHANNEL, String.class, this::onInvalidateMessage, this::clearLocal);
+            log.info("项目成员缓存失效事件订阅成功: channel={}", INVALIDATE_CHANNEL);
+        } catch (Exception e) {
+            log.error("项目成员缓存失效事件订阅失败，仅依赖过期时间兜底: channel={}", INVALIDATE_CHANNEL, e);
+        }
+    }
+
+    /**
+     * 获取用户在项目中的成员身份
+     *
+     * @param projectId 项目ID
+     * @param userId    用户ID
+     * @return 成员身份，非成员时返回 {@link Membership#NONE}
+     */
+    public Membership get(Long projectId, Long userId) {
+        if (projectId == null || userId == null) {
+            return Membership.NONE;
+        }
+        MemberKey key = new MemberKey(projectId, userId);
+        Map<MemberKey, Membership> memo = requestMemo();
+        if (memo != null) {
+            Membership cached = memo.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Membership membership = nearCache.get(key, this::load);
+        if (memo != null) {
+            memo.put(key, membership);
+        }
+        return membership;
+    }
+
+    /**
+     * 成员新增、移除或角色变更后调用，使本节点和其他节点的缓存失效
+     *
+     * @param projectId 项目ID
+     * @param userId    用户ID
+     */
+    public void evict(Long projectId, Long userId) {
+        if (projectId == null || userId == null) {
+            return;
+        }
+        MemberKey key = new MemberKey(projectId, userId);
+        evictLocal(key);
+        // 提交前其他请求仍可能读到旧数据并回填缓存，因此提交后再失效一次并广播
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictLocal(key);
+                    publish(key);
+                }
+            });
+        } else {
+            publish(key);
+        }
+    }
+
+    private Membership load(MemberKey key) {
+        return projectMemberRepository.findUserRoleInProject(key.userId(), key.projectId())
+                .map(Membership::of)
+                .orElse(Membership.NONE);
+    }
+
+    private void evictLocal(MemberKey key) {
+        nearCache.invalidate(key);
+        Map<MemberKey, Membership> memo = requestMemo();
+        if (memo != null) {
+            memo.remove(key);
+        }
+    }
+
+    private void publish(MemberKey key) {
+        try {
+            RedisUtils.publish(INVALIDATE_CHANNEL, key.projectId() + ":" + key.userId());
+        } catch (Exception e) {
+            log.warn("发布项目成员缓存失效事件失败: projectId={}, userId={}, error={}",
+                    key.projectId(), key.userId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 失效事件积压被丢弃时无法知道漏掉了哪些成员，清空本节点的近端缓存
+     */
+    private void clearLocal() {
+        nearCache.invalidateAll();
+        log.warn("项目成员缓存失效事件丢失，已清空本节点近端缓存");
+    }
+
+    private void onInvalidateMessage(String message) {
+        int separator = message.indexOf(':');
+        if (separator <= 0) {
+            log.warn("无法识别的项目成员缓存失效事件: {}", message);
+            return;
+        }
+        try {
+            Long projectId = Long.valueOf(message.substring(0, separator));
+            Long userId = Long.valueOf(message.substring(separator + 1));
+            nearCache.invalidate(new MemberKey(projectId, userId));
+        } catch (NumberFormatException e) {
+            log.warn("无法识别的项目成员缓存失效事件: {}", message);
+        }
+    }
+
+    /**
+     * 获取当前请求的成员身份缓存，非 Web 请求线程返回 null
+     */
+    @SuppressWarnings("unchecked")
+    private Map<MemberKey, Membership> requestMemo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object memo = attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new HashMap<MemberKey, Membership>();
+            attributes.setAttribute(REQUEST_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<MemberKey, Membership>) memo;
+    }
+
+    /**
+     * 缓存键
+     */
+    private record MemberKey(Long projectId, Long userId) {
+    }
+
+    /**
+     * 成员身份
+     *
+     * @param role        项目内角色，非成员时为 null
+     * @param permissions 角色对应的权限集合
+     */
+    public record Membership(ProjectMemberRole role, Set<ProjectPermission> permissions) {
+
+        public static final Membership NONE = new Membership(null, Collections.emptySet());
+
+        static Membership of(ProjectMemberRole role) {
+            Set<ProjectPermission> permissions = EnumSet.noneOf(ProjectPermission.class);
+            permissions.addAll(role.getPermissions());
+            return new Membership(role, Collections.unmodifiableSet(permissions));
+        }
+
+        public boolean isMember() {
+            return role != null;
+        }
+
+        public boolean isAdmin() {
+            return role == ProjectMemberRole.OWNER || role == ProjectMemberRole.ADMIN;
+        }
+
+        public boolean hasPermission(ProjectPermission permission) {
+            return permissions.contains(permission);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package hbnu.project.zhiyanbackend.projects.service.impl;
 
 import hbnu.project.zhiyanbackend.auth.repository.UserRepository;
 import hbnu.project.zhiyanbackend.basic.domain.R;
+import hbnu.project.zhiyanbackend.projects.cache.ProjectMembershipCache;
 import hbnu.project.zhiyanbackend.projects.model.dto.ProjectMemberDetailDTO;
 import hbnu.project.zhiyanbackend.projects.model.entity.Project;
 import hbnu.project.zhiyanbackend.projects.model.entity.ProjectMember;
@@ -11,8 +12,8 @@ import hbnu.project.zhiyanbackend.projects.repository.ProjectRepository;
 import hbnu.project.zhiyanbackend.projects.service.ProjectMemberService;
 import hbnu.project.zhiyanbackend.message.service.InboxMessageService;
 import hbnu.project.zhiyanbackend.message.model.enums.MessageScene;
-import hbnu.project.zhiyanbackend.auth.service.UserService;
-import hbnu.project.zhiyanbackend.auth.model.dto.UserDTO;
+import hbnu.project.zhiyanbackend.auth.model.dto.UserSummary;
+import hbnu.project.zhiyanbackend.auth.utils.UserDirectory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -24,7 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -45,8 +46,9 @@ public class ProjectMemberServiceImpl implements ProjectMemberService {
     private final ProjectMemberRepository projectMemberRepository;
     private final ProjectRepository projectRepository;
     private final InboxMessageService inboxMessageService;
-    private final UserService userService;
     private final UserRepository userRepository;
+    private final ProjectMembershipCache projectMembershipCache;
+    private final UserDirectory userDirectory;
 
     /**
      * 内部添加项目成员
@@ -90,6 +92,7 @@ public class ProjectMemberServiceImpl implements ProjectMemberService {
 
         // 保存成员信息
         ProjectMember saved = projectMemberRepository.save(member);
+        projectMembershipCache.evict(projectId, userId);
         log.info("内部添加项目成员成功: projectId={}, userId={}, role={}", projectId, userId, role);
         return saved;
     }
@@ -137,6 +140,7 @@ public class ProjectMemberServiceImpl implements ProjectMemberService {
 
             // 保存成员信息
             projectMemberRepository.save(member);
+            projectMembershipCache.evict(projectId, userId);
 
             log.info("添加项目成员成功: projectId={}, userId={}, role={}", projectId, userId, role);
             return R.ok();
@@ -194,6 +198,7 @@ public class ProjectMemberServiceImpl implements ProjectMemberService {
             
             // 删除成员
             projectMemberRepository.delete(member);
+            projectMembershipCache.evict(projectId, userId);
             
             // 向所有项目成员发送成员移除消息
             try {
@@ -272,6 +277,7 @@ public class ProjectMemberServiceImpl implements ProjectMemberService {
             
             // 删除成员
             projectMemberRepository.delete(member);
+            projectMembershipCache.evict(projectId, userId);
             
             // 向所有项目成员发送成员移除消息
             try {
@@ -326,6 +332,7 @@ public class ProjectMemberServiceImpl implements ProjectMemberService {
             ProjectMemberRole oldRole = member.getProjectRole();
             member.setProjectRole(newRole);
             projectMemberRepository.save(member);
+            projectMembershipCache.evict(projectId, userId);
             
             // 发送项目角色变更消息
             try {
@@ -388,6 +395,7 @@ public class ProjectMemberServiceImpl implements ProjectMemberService {
             ProjectMemberRole oldRole = member.getProjectRole();
             member.setProjectRole(newRole);
             projectMemberRepository.save(member);
+            projectMembershipCache.evict(projectId, userId);
             
             // 发送项目角色变更消息
             try {
@@ -433,29 +441,22 @@ public class ProjectMemberServiceImpl implements ProjectMemberService {
 
     @Override
     public boolean isMember(Long projectId, Long userId) {
-        return projectMemberRepository.existsByProjectIdAndUserId(projectId, userId);
+        return projectMembershipCache.get(projectId, userId).isMember();
     }
 
     @Override
     public boolean isOwner(Long projectId, Long userId) {
-        Optional<ProjectMember> memberOpt = projectMemberRepository.findByProjectIdAndUserId(projectId, userId);
-        return memberOpt.map(m -> m.getProjectRole() == ProjectMemberRole.OWNER).orElse(false);
+        return projectMembershipCache.get(projectId, userId).role() == ProjectMemberRole.OWNER;
     }
 
     @Override
     public boolean isAdmin(Long projectId, Long userId) {
-        Optional<ProjectMember> memberOpt = projectMemberRepository.findByProjectIdAndUserId(projectId, userId);
-        return memberOpt.map(m -> {
-            ProjectMemberRole role = m.getProjectRole();
-            return role == ProjectMemberRole.OWNER || role == ProjectMemberRole.ADMIN;
-        }).orElse(false);
+        return projectMembershipCache.get(projectId, userId).isAdmin();
     }
 
     @Override
     public ProjectMemberRole getUserRole(Long projectId, Long userId) {
-        return projectMemberRepository.findByProjectIdAndUserId(projectId, userId)
-                .map(ProjectMember::getProjectRole)
-                .orElse(null);
+        return projectMembershipCache.get(projectId, userId).role();
     }
 
     @Override
@@ -476,58 +477,48 @@ public class ProjectMemberServiceImpl implements ProjectMemberService {
      */
     public Page<ProjectMemberDetailDTO> getProjectMembersWithDetails(Long projectId, Pageable pageable) {
         Page<ProjectMember> memberPage = projectMemberRepository.findByProjectId(projectId, pageable);
-        List<ProjectMemberDetailDTO> detailList = memberPage.getContent().stream()
-                .map(this::convertToDetailDTO)
-                .collect(Collectors.toList());
+        List<ProjectMember> members = memberPage.getContent();
+        if (members.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, memberPage.getTotalElements());
+        }
+
+        // 同一页成员属于同一项目，项目名称和用户信息各查询一次
+        String projectName = "";
+        try {
+            projectName = projectRepository.findById(projectId).map(Project::getName).orElse("");
+        } catch (Exception e) {
+            log.warn("查询项目名称失败: projectId={}", projectId, e);
+        }
+
+        Map<Long, UserSummary> users = Map.of();
+        try {
+            users = userDirectory.resolveAll(members.stream().map(ProjectMember::getUserId).toList());
+        } catch (Exception e) {
+            log.warn("批量查询成员用户信息失败: projectId={}", projectId, e);
+        }
+
+        List<ProjectMemberDetailDTO> detailList = new ArrayList<>(members.size());
+        for (ProjectMember member : members) {
+            detailList.add(convertToDetailDTO(member, projectName, users.get(member.getUserId())));
+        }
         return new PageImpl<>(detailList, pageable, memberPage.getTotalElements());
     }
     
     /**
      * 将ProjectMember转换为ProjectMemberDetailDTO
      * @param member 项目成员实体
+     * @param projectName 项目名称
+     * @param user 成员用户摘要，用户不存在时为 null
      * @return 成员详细信息DTO
      */
-    private ProjectMemberDetailDTO convertToDetailDTO(ProjectMember member) {
-        if (member == null) {
-            return null;
-        }
-        
-        // 查询用户信息
-        String username = "未知用户";
-        String email = "";
-        if (member.getUserId() != null) {
-            try {
-                R<UserDTO> userResult = userService.getCurrentUser(member.getUserId());
-                if (R.isSuccess(userResult) && userResult.getData() != null) {
-                    UserDTO user = userResult.getData();
-                    username = user.getName();
-                    email = user.getEmail();
-                }
-            } catch (Exception e) {
-                log.warn("查询用户信息失败: userId={}", member.getUserId(), e);
-            }
-        }
-        
-        // 查询项目名称
-        String projectName = "";
-        if (member.getProjectId() != null) {
-            try {
-                Project project = projectRepository.findById(member.getProjectId()).orElse(null);
-                if (project != null) {
-                    projectName = project.getName();
-                }
-            } catch (Exception e) {
-                log.warn("查询项目名称失败: projectId={}", member.getProjectId(), e);
-            }
-        }
-        
+    private ProjectMemberDetailDTO convertToDetailDTO(ProjectMember member, String projectName, UserSummary user) {
         return ProjectMemberDetailDTO.builder()
                 .id(member.getId())
                 .projectId(member.getProjectId())
                 .projectName(projectName)
                 .userId(member.getUserId())
-                .username(username)
-                .email(email)
+                .username(user != null ? user.name() : "未知用户")
+                .email(user != null ? user.email() : "")
                 .projectRole(member.getProjectRole())
                 .roleName(member.getProjectRole() != null ? member.getProjectRole().getDescription() : "")
                 .joinedAt(member.getJoinedAt())
@@ -535,4 +526,3 @@ public class ProjectMemberServiceImpl implements ProjectMemberService {
                 .build();
     }
 }
-
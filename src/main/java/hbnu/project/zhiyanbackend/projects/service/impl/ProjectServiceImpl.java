@@ -7,6 +7,7 @@ import hbnu.project.zhiyanbackend.knowledge.repository.AchievementFileRepository
 import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
 import hbnu.project.zhiyanbackend.knowledge.service.AchievementDetailsService;
 import hbnu.project.zhiyanbackend.knowledge.service.AchievementFileService;
+import hbnu.project.zhiyanbackend.projects.cache.ProjectMembershipCache;
 import hbnu.project.zhiyanbackend.projects.model.dto.ProjectDTO;
 import hbnu.project.zhiyanbackend.projects.model.entity.Project;
 import hbnu.project.zhiyanbackend.projects.model.enums.ProjectMemberRole;
@@ -63,6 +64,10 @@ public class ProjectServiceImpl implements ProjectService {
      * 项目成员数据访问层
      */
     private final ProjectMemberRepository projectMemberRepository;
+    /**
+     * 项目成员身份缓存
+     */
+    private final ProjectMembershipCache projectMembershipCache;
     /**
      * 项目成员服务层
      */
@@ -543,7 +548,7 @@ public class ProjectServiceImpl implements ProjectService {
                 return R.ok(true);
             }
 
-            boolean isMember = projectMemberRepository.existsByProjectIdAndUserId(projectId, userId);
+            boolean isMember = projectMembershipCache.get(projectId, userId).isMember();
             return R.ok(isMember);
         } catch (Exception e) {
             log.error("检查访问权限失败: projectId={}, userId={}", projectId, userId, e);
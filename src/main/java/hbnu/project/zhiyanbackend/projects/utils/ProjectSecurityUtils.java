@@ -3,12 +3,12 @@ package hbnu.project.zhiyanbackend.projects.utils;
 import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
 import hbnu.project.zhiyanbackend.knowledge.model.entity.Achievement;
 import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
+import hbnu.project.zhiyanbackend.projects.cache.ProjectMembershipCache;
+import hbnu.project.zhiyanbackend.projects.cache.ProjectMembershipCache.Membership;
 import hbnu.project.zhiyanbackend.projects.model.entity.Project;
-import hbnu.project.zhiyanbackend.projects.model.entity.ProjectMember;
 import hbnu.project.zhiyanbackend.projects.model.enums.ProjectStatus;
 import hbnu.project.zhiyanbackend.projects.model.enums.ProjectMemberRole;
 import hbnu.project.zhiyanbackend.projects.model.enums.ProjectPermission;
-import hbnu.project.zhiyanbackend.projects.repository.ProjectMemberRepository;
 import hbnu.project.zhiyanbackend.projects.repository.ProjectRepository;
 import hbnu.project.zhiyanbackend.security.utils.SecurityUtils;
 import hbnu.project.zhiyanbackend.wiki.model.entity.WikiPage;
@@ -17,8 +17,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.Optional;
-
 /**
  * 项目级别的安全工具类
  * 用于检查用户在特定项目中的权限和成果的访问控制
@@ -31,7 +29,7 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ProjectSecurityUtils {
 
-    private final ProjectMemberRepository projectMemberRepository;
+    private final ProjectMembershipCache projectMembershipCache;
     private final ProjectRepository projectRepository;
     private final AchievementRepository achievementRepository;
     private final WikiPageRepository wikiPageRepository;
@@ -46,10 +44,10 @@ public class ProjectSecurityUtils {
     }
 
     /**
-     * 获取项目成员信息
+     * 获取项目成员身份（经请求内缓存和近端缓存）
      */
-    private Optional<ProjectMember> getProjectMember(Long projectId, Long userId) {
-        return projectMemberRepository.findByProjectIdAndUserId(projectId, userId);
+    private Membership getMembership(Long projectId, Long userId) {
+        return projectMembershipCache.get(projectId, userId);
     }
 
     // ==================== 项目成员身份检查 ====================
@@ -68,7 +66,7 @@ public class ProjectSecurityUtils {
         if (userId == null) {
             return false;
         }
-        return getProjectMember(projectId, userId).isPresent();
+        return getMembership(projectId, userId).isMember();
     }
 
     /**
@@ -100,13 +98,7 @@ public class ProjectSecurityUtils {
             return false;
         }
 
-        Optional<ProjectMember> member = getProjectMember(projectId, userId);
-        if (member.isEmpty()) {
-            return false;
-        }
-
-        ProjectMemberRole role = member.get().getProjectRole();
-        return role == ProjectMemberRole.OWNER || role == ProjectMemberRole.ADMIN;
+        return getMembership(projectId, userId).isAdmin();
     }
 
     /**
@@ -117,8 +109,7 @@ public class ProjectSecurityUtils {
             return false;
         }
 
-        Optional<ProjectMember> member = getProjectMember(projectId, userId);
-        return member.isPresent() && member.get().getProjectRole() == role;
+        return getMembership(projectId, userId).role() == role;
     }
 
     // ==================== 项目权限检查 ====================
@@ -138,8 +129,7 @@ public class ProjectSecurityUtils {
             return false;
         }
 
-        Optional<ProjectMember> member = getProjectMember(projectId, userId);
-        return member.map(projectMember -> projectMember.getProjectRole().hasPermission(permission)).orElse(false);
+        return getMembership(projectId, userId).hasPermission(permission);
     }
 
     // ==================== 角色获取方法 ====================
@@ -159,8 +149,7 @@ public class ProjectSecurityUtils {
             return null;
         }
 
-        Optional<ProjectMember> member = getProjectMember(projectId, userId);
-        return member.map(ProjectMember::getProjectRole).orElse(null);
+        return getMembership(projectId, userId).role();
     }
 
     // ==================== 权限验证（抛出异常） ====================
@@ -5,10 +5,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import hbnu.project.zhiyanbackend.basic.config.properties.PubSubProperties;
+import hbnu.project.zhiyanbackend.basic.config.properties.RateLimitProperties;
+import hbnu.project.zhiyanbackend.basic.config.properties.RedisSerializerProperties;
+import hbnu.project.zhiyanbackend.basic.config.properties.SnowflakeProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
@@ -18,10 +24,13 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
  * @author ErgouTree
  */
 @Configuration
+@EnableConfigurationProperties({RateLimitProperties.class, PubSubProperties.class, RedisSerializerProperties.class,
+        SnowflakeProperties.class})
 public class RedisConfig {
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                       RedisSerializerProperties serializerProperties) {
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(redisConnectionFactory);
 
@@ -36,9 +45,14 @@ public class RedisConfig {
         redisTemplate.setKeySerializer(stringSerializer);
         redisTemplate.setHashKeySerializer(stringSerializer);
 
-        // 设置Value的序列化方式为JSON
-        redisTemplate.setValueSerializer(jsonSerializer);
-        redisTemplate.setHashValueSerializer(jsonSerializer);
+        // 设置Value的序列化方式，二进制格式可读取原JSON数据
+        RedisSerializer<Object> valueSerializer = switch (serializerProperties.getFormat()) {
+            case JSON -> jsonSerializer;
+            case SMILE -> new SmileRedisSerializer(RedisTypeRegistry.defaults(), jsonSerializer,
+                    serializerProperties.getCompressThreshold());
+        };
+        redisTemplate.setValueSerializer(valueSerializer);
+        redisTemplate.setHashValueSerializer(valueSerializer);
 
         redisTemplate.afterPropertiesSet();
         return redisTemplate;
@@ -47,7 +61,7 @@ public class RedisConfig {
     /**
      * 创建配置好的ObjectMapper
      */
-    private ObjectMapper createObjectMapper() {
+    static ObjectMapper createObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
 
         // 注册JavaTimeModule以支持LocalDateTime、LocalDate等Java 8日期时间类型
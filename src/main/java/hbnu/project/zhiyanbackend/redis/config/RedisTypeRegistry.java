@@ -0,0 +1,120 @@
+package hbnu.project.zhiyanbackend.redis.config;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.impl.TypeIdResolverBase;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import hbnu.project.zhiyanbackend.ai.aiassistant.model.response.TaskResultGenerateResponse;
+import hbnu.project.zhiyanbackend.auth.model.entity.Permission;
+import hbnu.project.zhiyanbackend.auth.model.entity.Role;
+import hbnu.project.zhiyanbackend.sse.dto.SseMessageDto;
+import hbnu.project.zhiyanbackend.wiki.model.dto.WikiCollaborationDTO;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis 缓存值的类型编号表
+ * 二进制格式中已登记的类型只写编号，未登记的类型仍写完整类名，两者可以混用。
+ * 编号会持久化在 Redis 中，只能追加，不能修改或复用已有编号。
+ *
+ * @author ErgouTree
+ */
+public final class RedisTypeRegistry {
+
+    private final Map<String, String> idsByClassName = new HashMap<>();
+
+    private final Map<String, String> classNamesById = new HashMap<>();
+
+    /**
+     * 默认编号表：常用集合类型 0-31，业务类型从 32 开始
+     */
+    public static RedisTypeRegistry defaults() {
+        return new RedisTypeRegistry()
+                .register(1, ArrayList.class)
+                .register(2, LinkedList.class)
+                .register(3, HashSet.class)
+                .register(4, LinkedHashSet.class)
+                .register(5, TreeSet.class)
+                .register(6, HashMap.class)
+                .register(7, LinkedHashMap.class)
+                .register(8, TreeMap.class)
+                .register(9, ConcurrentHashMap.class)
+                .register(10, Date.class)
+                .register(11, BigDecimal.class)
+                .register(12, BigInteger.class)
+                .register(32, Role.class)
+                .register(33, Permission.class)
+                .register(34, SseMessageDto.class)
+                .register(35, TaskResultGenerateResponse.class)
+                .register(36, WikiCollaborationDTO.CrdtBatch.class);
+    }
+
+    /**
+     * 登记类型
+     *
+     * @param id   类型编号
+     * @param type 类型
+     * @return 当前注册表
+     */
+    public RedisTypeRegistry register(int id, Class<?> type) {
+        String key = Integer.toString(id);
+        String previous = classNamesById.putIfAbsent(key, type.getName());
+        if (previous != null) {
+            throw new IllegalStateException("Redis 类型编号重复: " + id + " -> " + previous + ", " + type.getName());
+        }
+        idsByClassName.put(type.getName(), key);
+        return this;
+    }
+
+    /**
+     * 创建基于本注册表的类型标识解析器
+     */
+    TypeIdResolverBase idResolver(TypeFactory typeFactory) {
+        return new RegistryTypeIdResolver(typeFactory);
+    }
+
+    /**
+     * 类型标识解析：类名的生成和解析沿用 Jackson 默认实现，只在两端做编号替换
+     */
+    private final class RegistryTypeIdResolver extends TypeIdResolverBase {
+
+        private final ClassNameIdResolver classNames;
+
+        private RegistryTypeIdResolver(TypeFactory typeFactory) {
+            super(TypeFactory.unknownType(), typeFactory);
+            this.classNames = new ClassNameIdResolver(TypeFactory.unknownType(), typeFactory,
+                    LaissezFaireSubTypeValidator.instance);
+        }
+
+        @Override
+        public String idFromValue(Object value) {
+            return toId(classNames.idFromValue(value));
+        }
+
+        @Override
+        public String idFromValueAndType(Object value, Class<?> suggestedType) {
+            return toId(classNames.idFromValueAndType(value, suggestedType));
+        }
+
+        @Override
+        public JavaType typeFromId(DatabindContext context, String id) throws IOException {
+            return classNames.typeFromId(context, classNamesById.getOrDefault(id, id));
+        }
+
+        @Override
+        public JsonTypeInfo.Id getMechanism() {
+            return JsonTypeInfo.Id.CUSTOM;
+        }
+
+        private String toId(String className) {
+            return className == null ? null : idsByClassName.getOrDefault(className, className);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package hbnu.project.zhiyanbackend.redis.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Redis 二进制序列化
+ * 值编码为 Smile（Jackson 的二进制 JSON），类型信息使用 {@link RedisTypeRegistry} 中的编号代替完整类名，
+ * 超过阈值的值再做 LZ4 压缩。首字节为格式标记，不是标记的数据按原 JSON 格式读取，
+ * 因此切换格式后 Redis 中已有的 JSON 缓存仍可正常读取，随过期逐步替换。
+ * 整数和浮点数仍按 JSON 写成十进制文本，保证 INCR/DECR 和 Lua 脚本中的 tonumber 照常可用。
+ *
+ * @author ErgouTree
+ */
+public class SmileRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 格式标记：Smile
+     */
+    private static final byte FORMAT_SMILE = 0x01;
+
+    /**
+     * 格式标记：LZ4 压缩的 Smile，标记后 4 字节为原始长度
+     */
+    private static final byte FORMAT_SMILE_LZ4 = 0x02;
+
+    private static final int LZ4_HEADER_LENGTH = 5;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+
+    /**
+     * 解压使用纯 Java 的安全实现，损坏的数据不会越界读写
+     */
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.safeInstance().safeDecompressor();
+
+    private final ObjectMapper objectMapper;
+
+    private final RedisSerializer<Object> legacySerializer;
+
+    private final int compressThreshold;
+
+    /**
+     * @param registry          类型编号表
+     * @param legacySerializer  原 JSON 序列化器，用于读取旧数据
+     * @param compressThreshold 压缩阈值（字节），小于等于 0 表示不压缩
+     */
+    public SmileRedisSerializer(RedisTypeRegistry registry, RedisSerializer<Object> legacySerializer, int compressThreshold) {
+        Assert.notNull(registry, "RedisTypeRegistry不能为null");
+        Assert.notNull(legacySerializer, "legacySerializer不能为null");
+        this.objectMapper = createObjectMapper(registry);
+        this.legacySerializer = legacySerializer;
+        this.compressThreshold = compressThreshold;
+    }
+
+    private static ObjectMapper createObjectMapper(RedisTypeRegistry registry) {
+        // 省略每个值 3 字节的 Smile 文件头，格式由首字节标记区分
+        SmileFactory smileFactory = SmileFactory.builder()
+                .disable(SmileGenerator.Feature.WRITE_HEADER)
+                .disable(SmileParser.Feature.REQUIRE_HEADER)
+                .build();
+        ObjectMapper mapper = new ObjectMapper(smileFactory);
+
+        // 日期时间保持默认的时间戳形式，比 ISO 字符串更短
+        mapper.registerModule(new JavaTimeModule());
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.setDefaultPropertyInclusion(JsonInclude.Include.NON_NULL);
+
+        TypeFactory typeFactory = mapper.getTypeFactory();
+        mapper.setDefaultTyping(new ObjectMapper.DefaultTypeResolverBuilder(
+                ObjectMapper.DefaultTyping.NON_FINAL, LaissezFaireSubTypeValidator.instance)
+                .init(JsonTypeInfo.Id.CUSTOM, registry.idResolver(typeFactory))
+                .inclusion(JsonTypeInfo.As.PROPERTY)
+                .typeProperty("@t"));
+        return mapper;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (isPlainNumber(value)) {
+            return legacySerializer.serialize(value);
+        }
+        byte[] smile;
+        try {
+            smile = objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not serialize object to Smile: " + e.getMessage(), e);
+        }
+        if (compressThreshold > 0 && smile.length > compressThreshold) {
+            byte[] compressed = compress(smile);
+            if (compressed.length < smile.length + 1) {
+                return compressed;
+            }
+        }
+        byte[] bytes = new byte[smile.length + 1];
+        bytes[0] = FORMAT_SMILE;
+        System.arraycopy(smile, 0, bytes, 1, smile.length);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return switch (bytes[0]) {
+                case FORMAT_SMILE -> objectMapper.readValue(bytes, 1, bytes.length - 1, Object.class);
+                case FORMAT_SMILE_LZ4 -> objectMapper.readValue(decompress(bytes), Object.class);
+                // 合法的 JSON 不会以上述控制字符开头
+                default -> legacySerializer.deserialize(bytes);
+            };
+        } catch (IOException e) {
+            throw new SerializationException("Could not deserialize Smile bytes: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * JSON 序列化器不为这些类型写入类型信息，输出即十进制文本
+     */
+    private static boolean isPlainNumber(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte || value instanceof Double || value instanceof Float;
+    }
+
+    private static byte[] compress(byte[] source) {
+        byte[] target = new byte[LZ4_HEADER_LENGTH + COMPRESSOR.maxCompressedLength(source.length)];
+        target[0] = FORMAT_SMILE_LZ4;
+        writeInt(target, 1, source.length);
+        int length = COMPRESSOR.compress(source, 0, source.length, target, LZ4_HEADER_LENGTH,
+                target.length - LZ4_HEADER_LENGTH);
+        return Arrays.copyOf(target, LZ4_HEADER_LENGTH + length);
+    }
+
+    private static byte[] decompress(byte[] source) {
+        if (source.length < LZ4_HEADER_LENGTH) {
+            throw new SerializationException("Corrupted LZ4 value: header too short");
+        }
+        int originalLength = readInt(source, 1);
+        if (originalLength < 0) {
+            throw new SerializationException("Corrupted LZ4 value: negative length " + originalLength);
+        }
+        byte[] target = new byte[originalLength];
+        int length = DECOMPRESSOR.decompress(source, LZ4_HEADER_LENGTH, source.length - LZ4_HEADER_LENGTH,
+                target, 0, originalLength);
+        if (length != originalLength) {
+            throw new SerializationException("Corrupted LZ4 value: expected " + originalLength + " bytes, got " + length);
+        }
+        return target;
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24)
+                | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8)
+                | (bytes[offset + 3] & 0xFF);
+    }
+}
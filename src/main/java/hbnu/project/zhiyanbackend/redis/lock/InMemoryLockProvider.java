@@ -0,0 +1,76 @@
+package hbnu.project.zhiyanbackend.redis.lock;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内租约锁实现
+ * 按 {@link RedisLockProvider} 的 Lua 语义模拟 SET NX PX / INCR / 比较后删除，
+ * 用于单机开发环境，以及多个“节点”共享同一实例时离线验证锁竞争行为
+ *
+ * @author ErgouTree
+ */
+public class InMemoryLockProvider implements LockProvider {
+
+    /**
+     * 锁名称 -> 锁记录
+     */
+    private final Map<String, LockEntry> locks = new ConcurrentHashMap<>();
+
+    /**
+     * 锁名称 -> fencing 计数器
+     */
+    private final Map<String, AtomicLong> fences = new ConcurrentHashMap<>();
+
+    private final Clock clock;
+
+    public InMemoryLockProvider() {
+        this(Clock.systemUTC());
+    }
+
+    public InMemoryLockProvider(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public long tryAcquire(String name, String owner, Duration lockAtMostFor) {
+        long now = clock.millis();
+        long[] token = {NOT_ACQUIRED};
+        locks.compute(name, (key, current) -> {
+            if (current != null && current.expireAt() > now) {
+                return current;
+            }
+            token[0] = fences.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+            return new LockEntry(owner + ":" + token[0], now + lockAtMostFor.toMillis());
+        });
+        return token[0];
+    }
+
+    @Override
+    public boolean release(String name, String owner, long token, Duration keepFor) {
+        long now = clock.millis();
+        String value = owner + ":" + token;
+        boolean[] released = {false};
+        locks.computeIfPresent(name, (key, current) -> {
+            if (current.expireAt() <= now || !current.value().equals(value)) {
+                return current.expireAt() <= now ? null : current;
+            }
+            released[0] = true;
+            long keep = keepFor.toMillis();
+            return keep > 0 ? new LockEntry(value, now + keep) : null;
+        });
+        return released[0];
+    }
+
+    /**
+     * 锁记录
+     *
+     * @param value    owner:token
+     * @param expireAt 过期时间戳（毫秒）
+     */
+    private record LockEntry(String value, long expireAt) {
+    }
+}
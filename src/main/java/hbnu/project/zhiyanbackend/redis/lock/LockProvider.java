@@ -0,0 +1,38 @@
+package hbnu.project.zhiyanbackend.redis.lock;
+
+import java.time.Duration;
+
+/**
+ * 租约锁提供者
+ * 获取锁时返回单调递增的 fencing token，释放锁时需携带同一 token，避免误释放他人持有的锁
+ *
+ * @author ErgouTree
+ */
+public interface LockProvider {
+
+    /**
+     * 获取失败时返回的 token
+     */
+    long NOT_ACQUIRED = -1L;
+
+    /**
+     * 尝试获取锁
+     *
+     * @param name          锁名称
+     * @param owner         持有者标识（节点ID）
+     * @param lockAtMostFor 租约时长
+     * @return fencing token，未获取到锁时返回 {@link #NOT_ACQUIRED}
+     */
+    long tryAcquire(String name, String owner, Duration lockAtMostFor);
+
+    /**
+     * 释放锁
+     *
+     * @param name    锁名称
+     * @param owner   持有者标识
+     * @param token   获取锁时返回的 fencing token
+     * @param keepFor 锁继续保留的时长（lockAtLeastFor 剩余部分），为零时直接删除
+     * @return 是否由当前持有者释放成功
+     */
+    boolean release(String name, String owner, long token, Duration keepFor);
+}
@@ -0,0 +1,80 @@
+package hbnu.project.zhiyanbackend.redis.lock;
+
+import hbnu.project.zhiyanbackend.redis.script.RedisScriptRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 基于 Redis(Lettuce) 的租约锁实现
+ * 锁键与 fencing 计数器使用同一个 hash tag，保证在 Redis Cluster 下落在同一个 slot
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+public class RedisLockProvider implements LockProvider {
+
+    /**
+     * 加锁：锁不存在时自增 fencing 计数器，并以 owner:token 作为锁值写入
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = RedisScriptRegistry.define(
+            """
+                    if redis.call('exists', KEYS[1]) == 1 then
+                        return -1
+                    end
+                    local token = redis.call('incr', KEYS[2])
+                    redis.call('set', KEYS[1], ARGV[1] .. ':' .. token, 'PX', ARGV[2])
+                    return token""", Long.class);
+
+    /**
+     * 解锁：只有锁值匹配时才处理，需要保留最短持有时间时改为 pexpire
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScriptRegistry.define(
+            """
+                    if redis.call('get', KEYS[1]) ~= ARGV[1] then
+                        return 0
+                    end
+                    local keep = tonumber(ARGV[2])
+                    if keep > 0 then
+                        redis.call('pexpire', KEYS[1], keep)
+                    else
+                        redis.call('del', KEYS[1])
+                    end
+                    return 1""", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final String keyPrefix;
+
+    public RedisLockProvider(StringRedisTemplate stringRedisTemplate, String keyPrefix) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public long tryAcquire(String name, String owner, Duration lockAtMostFor) {
+        Long token = stringRedisTemplate.execute(ACQUIRE_SCRIPT,
+                List.of(lockKey(name), fenceKey(name)),
+                owner, String.valueOf(lockAtMostFor.toMillis()));
+        return token != null ? token : NOT_ACQUIRED;
+    }
+
+    @Override
+    public boolean release(String name, String owner, long token, Duration keepFor) {
+        Long result = stringRedisTemplate.execute(RELEASE_SCRIPT,
+                List.of(lockKey(name)),
+                owner + ":" + token, String.valueOf(Math.max(0L, keepFor.toMillis())));
+        return result != null && result == 1L;
+    }
+
+    private String lockKey(String name) {
+        return keyPrefix + "{" + name + "}";
+    }
+
+    private String fenceKey(String name) {
+        return keyPrefix + "{" + name + "}:fence";
+    }
+}
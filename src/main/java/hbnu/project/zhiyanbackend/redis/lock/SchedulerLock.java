@@ -0,0 +1,31 @@
+package hbnu.project.zhiyanbackend.redis.lock;
+
+import java.lang.annotation.*;
+
+/**
+ * 定时任务分布式锁注解
+ * 多节点部署时保证同一时刻只有一个节点执行被标注的定时任务
+ * 语义参考 ShedLock：lockAtMostFor 防止节点宕机后锁永不释放，lockAtLeastFor 防止节点间时钟偏差导致重复执行
+ *
+ * @author ErgouTree
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SchedulerLock {
+
+    /**
+     * 锁名称，全局唯一
+     */
+    String name();
+
+    /**
+     * 锁最长持有时间，如 10m、PT30M，为空时使用 zhiyan.scheduler.lock.default-lock-at-most-for
+     */
+    String lockAtMostFor() default "";
+
+    /**
+     * 锁最短持有时间，任务执行完成后锁至少保留到该时长，为空表示执行完立即释放
+     */
+    String lockAtLeastFor() default "";
+}
@@ -0,0 +1,118 @@
+package hbnu.project.zhiyanbackend.redis.lock;
+
+import hbnu.project.zhiyanbackend.basic.config.properties.SchedulerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时任务分布式锁切面
+ * 在事务切面之外加锁，保证锁覆盖整个事务提交过程；同时记录任务执行耗时和跳过次数
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class SchedulerLockAspect {
+
+    private static final String METRIC_DURATION = "zhiyan.scheduler.job.duration";
+    private static final String METRIC_SKIPPED = "zhiyan.scheduler.job.skipped";
+
+    private final LockProvider lockProvider;
+    private final SchedulerProperties schedulerProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Around("@annotation(schedulerLock)")
+    public Object around(ProceedingJoinPoint joinPoint, SchedulerLock schedulerLock) throws Throwable {
+        String name = schedulerLock.name();
+        SchedulerProperties.Lock lockProperties = schedulerProperties.getLock();
+        if (!lockProperties.isEnabled()) {
+            return timed(joinPoint, name);
+        }
+
+        Duration lockAtMostFor = parseDuration(schedulerLock.lockAtMostFor(), lockProperties.getDefaultLockAtMostFor());
+        Duration lockAtLeastFor = parseDuration(schedulerLock.lockAtLeastFor(), Duration.ZERO);
+        String owner = lockProperties.getNodeId();
+
+        long token;
+        try {
+            token = lockProvider.tryAcquire(name, owner, lockAtMostFor);
+        } catch (Exception e) {
+            log.warn("获取定时任务锁失败，本次跳过: job={}, error={}", name, e.getMessage());
+            skipped(name, "lock_error");
+            return null;
+        }
+        if (token == LockProvider.NOT_ACQUIRED) {
+            log.debug("定时任务锁已被其他节点持有，本次跳过: job={}", name);
+            skipped(name, "locked");
+            return null;
+        }
+
+        long startNanos = System.nanoTime();
+        SchedulerLockContext.set(token);
+        try {
+            return timed(joinPoint, name);
+        } finally {
+            SchedulerLockContext.clear();
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+            Duration keepFor = lockAtLeastFor.minus(elapsed);
+            try {
+                if (!lockProvider.release(name, owner, token, keepFor.isNegative() ? Duration.ZERO : keepFor)) {
+                    log.warn("定时任务锁释放时已不属于当前节点（可能执行时间超过 lockAtMostFor）: job={}, token={}, elapsed={}ms",
+                            name, token, elapsed.toMillis());
+                }
+            } catch (Exception e) {
+                log.warn("释放定时任务锁失败，等待租约过期: job={}, error={}", name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 执行任务并记录耗时
+     */
+    private Object timed(ProceedingJoinPoint joinPoint, String name) throws Throwable {
+        long startNanos = System.nanoTime();
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = "failure";
+            throw e;
+        } finally {
+            Timer.builder(METRIC_DURATION)
+                    .description("定时任务执行耗时")
+                    .tag("job", name)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void skipped(String name, String reason) {
+        Counter.builder(METRIC_SKIPPED)
+                .description("定时任务因未获取到锁而跳过的次数")
+                .tag("job", name)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Duration parseDuration(String value, Duration defaultValue) {
+        return StringUtils.hasText(value) ? DurationStyle.detectAndParse(value) : defaultValue;
+    }
+}
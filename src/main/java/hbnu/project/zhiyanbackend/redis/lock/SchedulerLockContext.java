@@ -0,0 +1,32 @@
+package hbnu.project.zhiyanbackend.redis.lock;
+
+/**
+ * 定时任务锁上下文
+ * 任务执行期间可通过该类拿到当前锁的 fencing token，写入外部系统时用于拒绝过期持有者的写操作
+ *
+ * @author ErgouTree
+ */
+public final class SchedulerLockContext {
+
+    private static final ThreadLocal<Long> FENCING_TOKEN = new ThreadLocal<>();
+
+    private SchedulerLockContext() {
+    }
+
+    /**
+     * 获取当前线程持有锁的 fencing token
+     *
+     * @return token，未持有锁时返回 null
+     */
+    public static Long currentFencingToken() {
+        return FENCING_TOKEN.get();
+    }
+
+    static void set(long token) {
+        FENCING_TOKEN.set(token);
+    }
+
+    static void clear() {
+        FENCING_TOKEN.remove();
+    }
+}
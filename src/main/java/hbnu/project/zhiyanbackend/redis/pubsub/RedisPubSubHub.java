@@ -0,0 +1,286 @@
+package hbnu.project.zhiyanbackend.redis.pubsub;
+
+import hbnu.project.zhiyanbackend.basic.config.properties.PubSubProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Redis 发布订阅中心
+ * 全应用共用一个监听容器（一条订阅连接，多频道复用）。连接线程收到消息后只做入队，
+ * 反序列化和业务处理在有界的分发线程池中进行：每个订阅有独立的有界队列，同一订阅内按到达顺序处理，
+ * 每次最多连续处理 drainBatch 条后让出线程，处理慢的订阅不会拖住其他订阅。
+ * <p>
+ * 队列满时的处理方式按订阅决定：默认丢弃新消息并计数，适用于丢几条无关紧要的推送（如 SSE 扇出）；
+ * 订阅时提供了重新同步回调的，丢弃队列中全部积压并在分发线程上执行一次回调（如清空本地缓存、重新加载状态），
+ * 适用于失效事件、协同操作这类丢一条就会长期不一致的消息。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+public class RedisPubSubHub implements DisposableBean {
+
+    private static final String METRIC_IN = "zhiyan.pubsub.messages.in";
+    private static final String METRIC_OUT = "zhiyan.pubsub.messages.out";
+    private static final String METRIC_DROPPED = "zhiyan.pubsub.messages.dropped";
+    private static final String METRIC_LATENCY = "zhiyan.pubsub.dispatch.latency";
+    private static final String METRIC_PENDING = "zhiyan.pubsub.pending";
+
+    private final RedisMessageListenerContainer container;
+
+    private final ThreadPoolExecutor dispatcher;
+
+    private final RedisSerializer<?> valueSerializer;
+
+    private final MeterRegistry meterRegistry;
+
+    private final PubSubProperties properties;
+
+    /**
+     * 订阅ID -> 订阅
+     */
+    private final Map<String, Lane<?>> lanes = new ConcurrentHashMap<>();
+
+    public RedisPubSubHub(RedisTemplate<String, Object> redisTemplate,
+                          MeterRegistry meterRegistry,
+                          PubSubProperties properties) {
+        this.valueSerializer = redisTemplate.getValueSerializer();
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+
+        int threads = Math.max(1, properties.getDispatchThreads());
+        // 每个订阅同一时刻最多只有一个处理任务在排队或执行，线程池队列长度不会超过订阅数
+        this.dispatcher = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("redis-pubsub-", 0).daemon(true).factory());
+        this.dispatcher.allowCoreThreadTimeOut(true);
+
+        this.container = new RedisMessageListenerContainer();
+        this.container.setConnectionFactory(redisTemplate.getConnectionFactory());
+        // 连接线程上只做入队，不另起线程
+        this.container.setTaskExecutor(new SyncTaskExecutor());
+        this.container.afterPropertiesSet();
+        this.container.start();
+    }
+
+    /**
+     * 订阅频道，队列满时丢弃新消息
+     * 同一订阅ID重复订阅时替换原订阅
+     *
+     * @param subscriptionId 订阅ID，用于取消订阅
+     * @param channel        频道
+     * @param type           消息类型
+     * @param consumer       消息处理
+     */
+    public <T> void subscribe(String subscriptionId, String channel, Class<T> type, Consumer<T> consumer) {
+        subscribe(subscriptionId, channel, type, consumer, null);
+    }
+
+    /**
+     * 订阅频道，队列满时丢弃积压并执行重新同步回调
+     * 同一订阅ID重复订阅时替换原订阅
+     *
+     * @param subscriptionId 订阅ID，用于取消订阅
+     * @param channel        频道
+     * @param type           消息类型
+     * @param consumer       消息处理
+     * @param resync         重新同步回调，须能替代被丢弃的所有消息；为 null 时丢弃新消息
+     */
+    public <T> void subscribe(String subscriptionId, String channel, Class<T> type, Consumer<T> consumer,
+                              Runnable resync) {
+        Lane<T> lane = new Lane<>(channel, type, consumer, resync);
+        Lane<?> previous = lanes.put(subscriptionId, lane);
+        if (previous != null) {
+            container.removeMessageListener(previous);
+        }
+        container.addMessageListener(lane, new ChannelTopic(channel));
+        log.debug("Redis 频道订阅成功: channel={}, id={}", channel, subscriptionId);
+    }
+
+    /**
+     * 取消订阅，已入队的消息仍会处理完
+     *
+     * @param subscriptionId 订阅ID
+     */
+    public void unsubscribe(String subscriptionId) {
+        Lane<?> lane = lanes.remove(subscriptionId);
+        if (lane != null) {
+            container.removeMessageListener(lane);
+        }
+    }
+
+    /**
+     * 取消所有订阅
+     */
+    public void unsubscribeAll() {
+        lanes.values().forEach(container::removeMessageListener);
+        lanes.clear();
+    }
+
+    /**
+     * 频道的待处理消息数
+     */
+    private double pending(String channel) {
+        return lanes.values().stream()
+                .filter(lane -> lane.channel.equals(channel))
+                .mapToInt(lane -> lane.queue.size())
+                .sum();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        unsubscribeAll();
+        container.destroy();
+        dispatcher.shutdown();
+        if (!dispatcher.awaitTermination(5, TimeUnit.SECONDS)) {
+            dispatcher.shutdownNow();
+        }
+    }
+
+    /**
+     * 单个订阅：有界队列 + 串行处理
+     */
+    private final class Lane<T> implements MessageListener, Runnable {
+
+        private final String channel;
+        private final Class<T> type;
+        private final Consumer<T> consumer;
+        private final Runnable resync;
+
+        private final BlockingQueue<Envelope> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private final AtomicLong droppedTotal = new AtomicLong();
+
+        private final Counter in;
+        private final Counter out;
+        private final Counter dropped;
+        private final Timer latency;
+
+        private Lane(String channel, Class<T> type, Consumer<T> consumer, Runnable resync) {
+            this.channel = channel;
+            this.type = type;
+            this.consumer = consumer;
+            this.resync = resync;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+            this.in = meterRegistry.counter(METRIC_IN, "channel", channel);
+            this.out = meterRegistry.counter(METRIC_OUT, "channel", channel);
+            this.dropped = meterRegistry.counter(METRIC_DROPPED, "channel", channel);
+            this.latency = meterRegistry.timer(METRIC_LATENCY, "channel", channel);
+            // 同一频道只注册一次，按频道汇总所有订阅的积压量
+            Gauge.builder(METRIC_PENDING, RedisPubSubHub.this, hub -> hub.pending(channel))
+                    .tag("channel", channel)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            in.increment();
+            if (!queue.offer(new Envelope(message.getBody(), System.nanoTime()))) {
+                dropped.increment();
+                if (resync != null) {
+                    // 本条及队列中的积压都由重新同步覆盖，分发线程下次运行时处理
+                    overflowed.set(true);
+                    droppedTotal.incrementAndGet();
+                } else if (droppedTotal.incrementAndGet() % 1000 == 1) {
+                    // 持续积压时每 1000 条记录一次，避免日志刷屏
+                    log.warn("Redis 频道消息积压，丢弃新消息: channel={}, type={}, dropped={}",
+                            channel, type.getSimpleName(), droppedTotal.get());
+                }
+            }
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < properties.getDrainBatch(); i++) {
+                    // 处理过程中发生溢出时，剩余积压同样由重新同步覆盖，不再逐条处理
+                    if (overflowed.getAndSet(false)) {
+                        resync();
+                    }
+                    Envelope envelope = queue.poll();
+                    if (envelope == null) {
+                        break;
+                    }
+                    deliver(envelope);
+                }
+            } finally {
+                scheduled.set(false);
+                if (!queue.isEmpty() || overflowed.get()) {
+                    schedule();
+                }
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // 应用关闭中
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        /**
+         * 丢弃积压的消息并执行重新同步回调，先清空再回调：回调之后到达的消息照常处理
+         */
+        private void resync() {
+            int discarded = queue.size();
+            queue.clear();
+            dropped.increment(discarded);
+            droppedTotal.addAndGet(discarded);
+            log.warn("Redis 频道消息积压，丢弃积压并重新同步: channel={}, type={}, discarded={}, dropped={}",
+                    channel, type.getSimpleName(), discarded, droppedTotal.get());
+            try {
+                resync.run();
+            } catch (Exception e) {
+                log.error("重新同步失败 - channel: {}", channel, e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void deliver(Envelope envelope) {
+            try {
+                T payload = (T) valueSerializer.deserialize(envelope.body());
+                if (payload != null) {
+                    consumer.accept(payload);
+                }
+                out.increment();
+            } catch (Exception e) {
+                log.error("消息处理异常 - channel: {}", channel, e);
+            } finally {
+                latency.record(System.nanoTime() - envelope.receivedNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * 入队的原始消息
+     *
+     * @param body          消息体
+     * @param receivedNanos 收到时间
+     */
+    private record Envelope(byte[] body, long receivedNanos) {
+    }
+}
@@ -0,0 +1,55 @@
+package hbnu.project.zhiyanbackend.redis.ratelimit;
+
+import java.lang.annotation.*;
+
+/**
+ * 接口限流注解
+ * 在时间窗口内按维度（全局、IP、用户）限制调用次数，超出时返回 429
+ *
+ * @author ErgouTree
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimit {
+
+    /**
+     * 限流名称，为空时使用 类名.方法名
+     */
+    String name() default "";
+
+    /**
+     * 时间窗口内允许的请求数
+     */
+    int permits();
+
+    /**
+     * 时间窗口，如 1m、30s、PT1H
+     */
+    String window() default "1m";
+
+    /**
+     * 限流维度
+     */
+    Dimension dimension() default Dimension.IP;
+
+    /**
+     * 超出限制时的提示信息
+     */
+    String message() default "请求过于频繁，请稍后再试";
+
+    enum Dimension {
+        /**
+         * 所有请求共享配额
+         */
+        GLOBAL,
+        /**
+         * 按客户端IP
+         */
+        IP,
+        /**
+         * 按登录用户，未登录时按IP
+         */
+        USER
+    }
+}
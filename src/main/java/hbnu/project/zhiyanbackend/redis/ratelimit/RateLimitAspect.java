@@ -0,0 +1,76 @@
+package hbnu.project.zhiyanbackend.redis.ratelimit;
+
+import hbnu.project.zhiyanbackend.basic.config.properties.RateLimitProperties;
+import hbnu.project.zhiyanbackend.basic.exception.RateLimitException;
+import hbnu.project.zhiyanbackend.basic.utils.ServletUtils;
+import hbnu.project.zhiyanbackend.basic.utils.ip.IpUtils;
+import hbnu.project.zhiyanbackend.security.utils.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 接口限流切面
+ * 在事务和业务逻辑之前判断，被拒绝的请求不会进入方法体
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class RateLimitAspect {
+
+    private final RateLimiterEngine rateLimiterEngine;
+    private final RateLimitProperties rateLimitProperties;
+
+    /**
+     * 注解中的窗口字符串解析结果
+     */
+    private final Map<String, Duration> windows = new ConcurrentHashMap<>();
+
+    @Around("@annotation(rateLimit)")
+    public Object around(ProceedingJoinPoint joinPoint, RateLimit rateLimit) throws Throwable {
+        if (!rateLimitProperties.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        String name = StringUtils.hasText(rateLimit.name())
+                ? rateLimit.name()
+                : joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        String key = name + ":" + dimensionValue(rateLimit.dimension());
+        Duration window = windows.computeIfAbsent(rateLimit.window(), DurationStyle::detectAndParse);
+
+        if (!rateLimiterEngine.tryAcquire(name, key, rateLimit.permits(), window)) {
+            log.debug("请求被限流: key={}", key);
+            throw new RateLimitException(rateLimit.message());
+        }
+        return joinPoint.proceed();
+    }
+
+    private static String dimensionValue(RateLimit.Dimension dimension) {
+        return switch (dimension) {
+            case GLOBAL -> "global";
+            case IP -> "ip:" + clientIp();
+            case USER -> {
+                Long userId = SecurityUtils.getUserId();
+                yield userId != null ? "user:" + userId : "ip:" + clientIp();
+            }
+        };
+    }
+
+    private static String clientIp() {
+        return IpUtils.getIpAddr(ServletUtils.getRequest());
+    }
+}
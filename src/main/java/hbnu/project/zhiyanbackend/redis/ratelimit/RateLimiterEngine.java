@@ -0,0 +1,264 @@
+package hbnu.project.zhiyanbackend.redis.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import hbnu.project.zhiyanbackend.basic.config.properties.RateLimitProperties;
+import hbnu.project.zhiyanbackend.redis.script.RedisScriptRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 两级限流引擎
+ * 第一级是进程内令牌桶：容量等于窗口配额，单节点自身的突发流量直接在本地拒绝，不访问 Redis；
+ * 第二级是 Redis 滑动窗口计数：节点按块租借配额（默认窗口配额的 10%），租到的配额在本地逐个消费，
+ * 用完或租约过期后再访问 Redis。租约过期时未消费的配额在下次租借的同一次脚本调用中退还，低频请求不会因整块租借而被多计；
+ * 本地状态因长时间未访问或数量超限被淘汰时，未消费的配额在移除回调中退还。
+ * 大部分请求因此不需要网络往返，多节点合计仍不超过窗口配额。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+public class RateLimiterEngine {
+
+    private static final String METRIC_REQUESTS = "zhiyan.ratelimit.requests";
+
+    /**
+     * 滑动窗口租借：先把上一租约未消费的配额退还到当时计数的窗口（计数不会减到 0 以下），
+     * 再按上一窗口剩余时间占比折算其计数，加上当前窗口计数作为已用配额，最多授予 requested 个
+     * KEYS[1] 当前窗口计数，KEYS[2] 上一窗口计数，KEYS[3] 上一租约计数的窗口；
+     * ARGV: 当前时间(ms)、窗口(ms)、配额、申请数、退还数
+     */
+    private static final RedisScript<Long> LEASE_SCRIPT = RedisScriptRegistry.define(
+            """
+                    local now = tonumber(ARGV[1])
+                    local window = tonumber(ARGV[2])
+                    local permits = tonumber(ARGV[3])
+                    local requested = tonumber(ARGV[4])
+                    local refund = tonumber(ARGV[5])
+                    if refund > 0 then
+                        local held = tonumber(redis.call('get', KEYS[3]) or '0')
+                        if held > 0 then
+                            redis.call('decrby', KEYS[3], math.min(refund, held))
+                        end
+                    end
+                    local current = tonumber(redis.call('get', KEYS[1]) or '0')
+                    local previous = tonumber(redis.call('get', KEYS[2]) or '0')
+                    local weight = 1 - (now % window) / window
+                    local used = math.floor(previous * weight) + current
+                    local granted = math.min(requested, permits - used)
+                    if granted <= 0 then
+                        return 0
+                    end
+                    redis.call('incrby', KEYS[1], granted)
+                    redis.call('pexpire', KEYS[1], window * 2)
+                    return granted""", Long.class);
+
+    /**
+     * 退还未消费的租借配额（计数不会减到 0 以下）
+     * KEYS[1] 租约计数的窗口；ARGV: 退还数
+     */
+    private static final RedisScript<Long> REFUND_SCRIPT = RedisScriptRegistry.define(
+            """
+                    local held = tonumber(redis.call('get', KEYS[1]) or '0')
+                    local refund = math.min(tonumber(ARGV[1]), held)
+                    if refund > 0 then
+                        redis.call('decrby', KEYS[1], refund)
+                    end
+                    return refund""", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RateLimitProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Cache<String, Bucket> buckets;
+
+    @Autowired
+    public RateLimiterEngine(StringRedisTemplate stringRedisTemplate,
+                             RateLimitProperties properties,
+                             MeterRegistry meterRegistry) {
+        this(stringRedisTemplate, properties, meterRegistry, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor 执行淘汰回调（退还配额）的线程池，测试中使用调用线程
+     */
+    RateLimiterEngine(StringRedisTemplate stringRedisTemplate,
+                      RateLimitProperties properties,
+                      MeterRegistry meterRegistry,
+                      Executor executor) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxLocalKeys())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .executor(executor)
+                .removalListener((String key, Bucket bucket, RemovalCause cause) -> {
+                    if (bucket != null) {
+                        retire(key, bucket);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 尝试获取一个许可
+     *
+     * @param name    限流名称，用于指标
+     * @param key     限流键（名称 + 维度值）
+     * @param permits 窗口内允许的请求数
+     * @param window  时间窗口
+     * @return 是否放行
+     */
+    public boolean tryAcquire(String name, String key, int permits, Duration window) {
+        long windowMillis = Math.max(1, window.toMillis());
+        String result = null;
+        while (result == null) {
+            Bucket bucket = buckets.get(key, k -> new Bucket(permits));
+            synchronized (bucket) {
+                // 取到后被淘汰的本地状态已退还配额，重新获取
+                if (!bucket.retired) {
+                    result = acquire(bucket, key, permits, windowMillis);
+                }
+            }
+        }
+        meterRegistry.counter(METRIC_REQUESTS, "name", name, "result", result).increment();
+        return result.endsWith("allowed");
+    }
+
+    /**
+     * 消费一个许可，调用方持有 bucket 锁
+     *
+     * @return 判定结果，用作指标标签
+     */
+    private String acquire(Bucket bucket, String key, int permits, long windowMillis) {
+        long now = System.currentTimeMillis();
+        bucket.refill(now, permits, windowMillis);
+        if (bucket.tokens < 1) {
+            return "local_rejected";
+        }
+        if (bucket.leased > 0 && now < bucket.leaseExpiresAt) {
+            bucket.leased--;
+            bucket.tokens--;
+            return "local_allowed";
+        }
+        return lease(bucket, key, permits, windowMillis, now);
+    }
+
+    /**
+     * 向 Redis 租借配额，调用方持有 bucket 锁
+     */
+    private String lease(Bucket bucket, String key, int permits, long windowMillis, long now) {
+        int chunk = Math.max(1, (int) (permits * properties.getLeaseRatio()));
+        long windowIndex = now / windowMillis;
+        // 两个计数键使用同一个 hash tag，Redis Cluster 下落在同一个 slot
+        String base = properties.getKeyPrefix() + "{" + key + "}:";
+        String currentKey = base + windowIndex;
+        // 过期租约中未消费的部分随本次调用退还
+        long refund = bucket.leased;
+        String refundKey = bucket.leaseKey != null ? bucket.leaseKey : currentKey;
+        bucket.leased = 0;
+        bucket.leaseKey = null;
+        Long granted;
+        try {
+            granted = stringRedisTemplate.execute(LEASE_SCRIPT,
+                    List.of(currentKey, base + (windowIndex - 1), refundKey),
+                    String.valueOf(now), String.valueOf(windowMillis), String.valueOf(permits),
+                    String.valueOf(chunk), String.valueOf(refund));
+        } catch (Exception e) {
+            log.warn("限流配额租借失败: key={}, error={}", key, e.getMessage());
+            if (properties.isFailOpen()) {
+                bucket.tokens--;
+                return "redis_error_allowed";
+            }
+            return "redis_error_rejected";
+        }
+        if (granted == null || granted <= 0) {
+            return "redis_rejected";
+        }
+        bucket.leased = granted - 1;
+        bucket.leaseKey = currentKey;
+        bucket.leaseExpiresAt = now + Math.max(1, (long) (windowMillis * properties.getLeaseRatio()));
+        bucket.tokens--;
+        return "redis_allowed";
+    }
+
+    /**
+     * 本地状态被淘汰时退还未消费的租借配额
+     */
+    private void retire(String key, Bucket bucket) {
+        long refund;
+        String leaseKey;
+        synchronized (bucket) {
+            bucket.retired = true;
+            refund = bucket.leased;
+            leaseKey = bucket.leaseKey;
+            bucket.leased = 0;
+            bucket.leaseKey = null;
+        }
+        if (refund <= 0 || leaseKey == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(REFUND_SCRIPT, List.of(leaseKey), String.valueOf(refund));
+        } catch (Exception e) {
+            log.warn("限流配额退还失败: key={}, refund={}, error={}", key, refund, e.getMessage());
+        }
+    }
+
+    /**
+     * 单个限流键的本地状态
+     */
+    private static final class Bucket {
+
+        /**
+         * 本地令牌桶剩余令牌
+         */
+        private double tokens;
+
+        private long refilledAt;
+
+        /**
+         * 已从 Redis 租到、尚未消费的配额
+         */
+        private long leased;
+
+        /**
+         * 租约计数所在的窗口键，退还未消费配额时使用
+         */
+        private String leaseKey;
+
+        private long leaseExpiresAt;
+
+        /**
+         * 已被淘汰并退还配额
+         */
+        private boolean retired;
+
+        private Bucket(int permits) {
+            this.tokens = permits;
+            this.refilledAt = System.currentTimeMillis();
+        }
+
+        private void refill(long now, int permits, long windowMillis) {
+            long elapsed = now - refilledAt;
+            if (elapsed > 0) {
+                tokens = Math.min(permits, tokens + (double) elapsed * permits / windowMillis);
+                refilledAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package hbnu.project.zhiyanbackend.redis.script;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Lua 脚本注册表
+ * 脚本统一通过 {@link #define} 声明为常量：SHA1 只在声明时计算一次，启动时批量 SCRIPT LOAD，
+ * 之后 RedisTemplate 执行脚本时直接走 EVALSHA；Redis 重启或切主导致脚本丢失（NOSCRIPT）时由模板自动回退到 EVAL 并重新缓存。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisScriptRegistry implements ApplicationRunner {
+
+    private static final List<RedisScript<?>> SCRIPTS = new CopyOnWriteArrayList<>();
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 声明脚本
+     *
+     * @param script     Lua 脚本
+     * @param resultType 返回值类型
+     * @return 脚本实例，应保存为静态常量复用
+     */
+    public static <T> RedisScript<T> define(String script, Class<T> resultType) {
+        RedisScript<T> redisScript = new DefaultRedisScript<>(script, resultType);
+        SCRIPTS.add(redisScript);
+        return redisScript;
+    }
+
+    /**
+     * 启动时预加载已声明的脚本
+     * 晚于启动才初始化的类中声明的脚本在首次执行时由 EVAL 加载
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            int loaded = preload();
+            log.info("Lua 脚本预加载完成: {}个", loaded);
+        } catch (Exception e) {
+            log.warn("Lua 脚本预加载失败，首次调用时加载: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 把所有已声明的脚本加载到 Redis
+     *
+     * @return 加载的脚本数量
+     */
+    public int preload() {
+        List<RedisScript<?>> scripts = List.copyOf(SCRIPTS);
+        stringRedisTemplate.execute((RedisCallback<Void>) connection -> {
+            load(connection, scripts);
+            return null;
+        });
+        return scripts.size();
+    }
+
+    private static void load(RedisConnection connection, List<RedisScript<?>> scripts) {
+        for (RedisScript<?> script : scripts) {
+            String sha = connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+            if (sha != null && !sha.equals(script.getSha1())) {
+                log.warn("Lua 脚本 SHA1 与 Redis 返回值不一致: local={}, redis={}", script.getSha1(), sha);
+            }
+        }
+    }
+}
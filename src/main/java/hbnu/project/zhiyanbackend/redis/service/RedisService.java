@@ -1,5 +1,6 @@
 package hbnu.project.zhiyanbackend.redis.service;
 
+import hbnu.project.zhiyanbackend.redis.utils.RedisKeySpace;
 import jakarta.annotation.Resource;
 import org.springframework.data.redis.core.BoundSetOperations;
 import org.springframework.data.redis.core.HashOperations;
@@ -232,12 +233,12 @@ public class RedisService {
     }
 
     /**
-     * 获得缓存的基本对象列表
+     * 获得缓存的基本对象列表（基于 SCAN，不会阻塞 Redis）
      *
      * @param pattern 字符串前缀
      * @return 对象列表
      */
     public Collection<String> keys(final String pattern) {
-        return redisTemplate.keys(pattern);
+        return RedisKeySpace.keys(pattern);
     }
 }
@@ -0,0 +1,291 @@
+package hbnu.project.zhiyanbackend.redis.snowflake;
+
+import hbnu.project.zhiyanbackend.basic.config.properties.SnowflakeProperties;
+import hbnu.project.zhiyanbackend.basic.utils.SnowflakeGenerator;
+import hbnu.project.zhiyanbackend.basic.utils.SnowflakeIdUtils;
+import hbnu.project.zhiyanbackend.redis.script.RedisScriptRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 雪花ID节点租约
+ * 启动时从 Redis 的 1024 个节点ID中租借一个（SET NX + 过期时间），定时续约，关闭时归还，
+ * 保证同一时刻每个节点ID只被一个进程持有。每次续约同时记录该节点ID最近的发号时间戳，
+ * 下一个持有者从该时间戳之后开始发号，即使两台机器时钟不一致也不会重复。
+ * Redis 不可用时沿用本地租约文件中的节点ID，Redis 恢复后再补租。
+ * 续约时发现租约已被其他进程占用，立即作废当前生成器，重新租到节点ID之前所有发号请求都会失败，
+ * 而不是继续用别人的节点ID发号。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+public class SnowflakeNodeAllocator implements InitializingBean, DisposableBean {
+
+    /**
+     * 租借：成功时返回该节点ID上次记录的时间戳（没有则为 0），已被占用返回 -1
+     * KEYS[1] 租约，KEYS[2] 最近时间戳；ARGV: 持有者、租期(ms)
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = RedisScriptRegistry.define(
+            """
+                    if not redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+                        return -1
+                    end
+                    return tonumber(redis.call('get', KEYS[2]) or '0')""", Long.class);
+
+    /**
+     * 续约：持有者匹配时延长租期并记录时间戳
+     * ARGV: 持有者、租期(ms)、最近时间戳
+     */
+    private static final RedisScript<Long> RENEW_SCRIPT = RedisScriptRegistry.define(
+            """
+                    if redis.call('get', KEYS[1]) ~= ARGV[1] then
+                        return 0
+                    end
+                    redis.call('pexpire', KEYS[1], ARGV[2])
+                    redis.call('set', KEYS[2], ARGV[3])
+                    return 1""", Long.class);
+
+    /**
+     * 归还：持有者匹配时删除租约并记录时间戳
+     * ARGV: 持有者、最近时间戳
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScriptRegistry.define(
+            """
+                    if redis.call('get', KEYS[1]) ~= ARGV[1] then
+                        return 0
+                    end
+                    redis.call('del', KEYS[1])
+                    redis.call('set', KEYS[2], ARGV[2])
+                    return 1""", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final SnowflakeProperties properties;
+
+    /**
+     * 读取当前生成器
+     */
+    private final Supplier<SnowflakeGenerator> generator;
+
+    /**
+     * 替换当前生成器
+     */
+    private final Consumer<SnowflakeGenerator> installer;
+
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName()
+            + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    /**
+     * 当前节点ID是否持有 Redis 租约；为 false 时使用的是本地租约文件或按IP推算的节点ID
+     */
+    private volatile boolean leased;
+
+    @Autowired
+    public SnowflakeNodeAllocator(StringRedisTemplate stringRedisTemplate, SnowflakeProperties properties) {
+        this(stringRedisTemplate, properties, SnowflakeIdUtils::getDefaultGenerator, SnowflakeIdUtils::resetDefaultGenerator);
+    }
+
+    /**
+     * 生成器由调用方持有，同一进程内可以模拟多个节点
+     */
+    SnowflakeNodeAllocator(StringRedisTemplate stringRedisTemplate, SnowflakeProperties properties,
+                           Supplier<SnowflakeGenerator> generator, Consumer<SnowflakeGenerator> installer) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+        this.generator = generator;
+        this.installer = installer;
+    }
+
+    /**
+     * 在业务 Bean 发号之前完成节点ID分配
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (!properties.isLeaseEnabled()) {
+            return;
+        }
+        LocalLease local = readLeaseFile();
+        try {
+            acquire(local != null ? local.nodeId() : -1, local);
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            if (local != null) {
+                install(local.nodeId(), local.lastTimestamp());
+                log.warn("Redis 不可用，沿用本地租约文件中的雪花ID节点ID: nodeId={}, error={}", local.nodeId(), e.getMessage());
+            } else {
+                log.warn("Redis 不可用且没有本地租约文件，雪花ID暂用按本机IP推算的节点ID: nodeId={}, error={}",
+                        generator.get().getNodeId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 续约，同时把最近时间戳写入本地租约文件
+     */
+    @Scheduled(fixedDelayString = "${zhiyan.snowflake.heartbeat-interval-millis:20000}")
+    public void heartbeat() {
+        if (!properties.isLeaseEnabled()) {
+            return;
+        }
+        SnowflakeGenerator current = generator.get();
+        long lastTimestamp = current.getLastTimestamp();
+        if (!current.isRevoked()) {
+            writeLeaseFile(current.getNodeId(), lastTimestamp);
+        }
+        try {
+            if (!leased) {
+                // 启动时 Redis 不可用，优先补租当前正在使用的节点ID；租约被占用后则换一个节点ID
+                acquire(current.isRevoked() ? -1 : current.getNodeId(), null);
+                return;
+            }
+            Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT,
+                    keys(current.getNodeId()),
+                    owner, String.valueOf(properties.getLeaseTtl().toMillis()), String.valueOf(lastTimestamp));
+            if (renewed == null || renewed != 1L) {
+                log.error("雪花ID节点租约已失效（可能被其他节点占用），暂停发号并重新租借: nodeId={}", current.getNodeId());
+                leased = false;
+                current.revoke();
+                acquire(-1, null);
+            }
+        } catch (Exception e) {
+            if (current.isRevoked()) {
+                log.error("雪花ID节点租约重新租借失败，发号已暂停，等待下次心跳重试: nodeId={}, error={}",
+                        current.getNodeId(), e.getMessage());
+            } else {
+                log.warn("雪花ID节点租约续约失败: nodeId={}, error={}", current.getNodeId(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (!properties.isLeaseEnabled()) {
+            return;
+        }
+        SnowflakeGenerator current = generator.get();
+        writeLeaseFile(current.getNodeId(), current.getLastTimestamp());
+        if (!leased) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, keys(current.getNodeId()),
+                    owner, String.valueOf(current.getLastTimestamp()));
+            leased = false;
+        } catch (Exception e) {
+            log.warn("雪花ID节点租约归还失败，等待自动过期: nodeId={}, error={}", current.getNodeId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 租借节点ID：先尝试 preferred，再从随机位置开始依次尝试全部节点ID
+     */
+    private void acquire(long preferred, LocalLease local) {
+        String ttl = String.valueOf(properties.getLeaseTtl().toMillis());
+        int start = ThreadLocalRandom.current().nextInt(SnowflakeGenerator.MAX_NODES);
+        for (int i = -1; i < SnowflakeGenerator.MAX_NODES; i++) {
+            long nodeId = i < 0 ? preferred : (start + i) % SnowflakeGenerator.MAX_NODES;
+            if (nodeId < 0 || (i >= 0 && nodeId == preferred)) {
+                continue;
+            }
+            Long lastTimestamp = stringRedisTemplate.execute(ACQUIRE_SCRIPT, keys(nodeId), owner, ttl);
+            if (lastTimestamp != null && lastTimestamp >= 0) {
+                long since = local != null && local.nodeId() == nodeId
+                        ? Math.max(lastTimestamp, local.lastTimestamp())
+                        : lastTimestamp;
+                install(nodeId, since);
+                leased = true;
+                log.info("雪花ID节点租约获取成功: nodeId={}, owner={}", nodeId, owner);
+                return;
+            }
+        }
+        throw new IllegalStateException("雪花ID节点ID已全部被占用（" + SnowflakeGenerator.MAX_NODES + "个）");
+    }
+
+    private void install(long nodeId, long lastTimestamp) {
+        SnowflakeGenerator current = generator.get();
+        if (!current.isRevoked() && current.getNodeId() == nodeId && current.getLastTimestamp() >= lastTimestamp) {
+            return;
+        }
+        // 沿用当前生成器的时间戳，保证本进程生成的ID整体递增
+        long since = Math.max(lastTimestamp, current.getLastTimestamp());
+        installer.accept(new SnowflakeGenerator(nodeId, since, properties.getMaxClockBackwardsWaitMillis()));
+        writeLeaseFile(nodeId, since);
+    }
+
+    private List<String> keys(long nodeId) {
+        String base = properties.getKeyPrefix() + "{" + nodeId + "}";
+        return List.of(base, base + ":last");
+    }
+
+    // ==================== 本地租约文件 ====================
+
+    private LocalLease readLeaseFile() {
+        Path path = Paths.get(properties.getLeaseFile());
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        Properties content = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            content.load(reader);
+            long nodeId = Long.parseLong(content.getProperty("nodeId"));
+            if (nodeId < 0 || nodeId >= SnowflakeGenerator.MAX_NODES) {
+                return null;
+            }
+            return new LocalLease(nodeId, Long.parseLong(content.getProperty("lastTimestamp", "0")));
+        } catch (IOException | RuntimeException e) {
+            log.warn("雪花ID本地租约文件无法读取，忽略: path={}, error={}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeLeaseFile(long nodeId, long lastTimestamp) {
+        Path path = Paths.get(properties.getLeaseFile()).toAbsolutePath();
+        Properties content = new Properties();
+        content.setProperty("nodeId", String.valueOf(nodeId));
+        content.setProperty("lastTimestamp", String.valueOf(lastTimestamp));
+        try {
+            Files.createDirectories(path.getParent());
+            // 先写临时文件再替换，进程中途退出不会留下残缺的文件
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                content.store(writer, "snowflake node lease");
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("雪花ID本地租约文件写入失败: path={}, error={}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 本地租约文件内容
+     *
+     * @param nodeId        节点ID
+     * @param lastTimestamp 最近发号时间戳
+     */
+    private record LocalLease(long nodeId, long lastTimestamp) {
+    }
+}
@@ -0,0 +1,270 @@
+package hbnu.project.zhiyanbackend.redis.utils;
+
+import hbnu.project.zhiyanbackend.redis.script.RedisScriptRegistry;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Redis 键空间工具
+ * 按模式查找、删除键时使用游标式 SCAN 分批遍历，删除使用流水线 UNLINK（内存回收在后台线程完成），
+ * 避免 KEYS / 大批量 DEL 长时间阻塞 Redis，影响 SSE 订阅、Token 黑名单等其他客户端。
+ * 需要整族失效的缓存应优先使用索引集合：写缓存时把键登记到索引，失效时只处理索引中的成员。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class RedisKeySpace {
+
+    /**
+     * SCAN 每次建议返回的键数量
+     */
+    public static final int DEFAULT_SCAN_COUNT = 1000;
+
+    /**
+     * 单条 UNLINK 命令携带的键数量
+     */
+    public static final int DEFAULT_UNLINK_BATCH = 500;
+
+    /**
+     * 一次流水线中的 UNLINK 命令数
+     */
+    private static final int PIPELINE_DEPTH = 8;
+
+    /**
+     * 清理中的索引临时键后缀，临时键沿用原索引的过期时间，清理中途失败也会自行过期
+     */
+    private static final String DRAINING_SUFFIX = ":draining:";
+
+    /**
+     * 索引存在时改名，不存在返回 0（RENAME 对不存在的键会报错）
+     */
+    private static final RedisScript<Long> RENAME_IF_EXISTS_SCRIPT = RedisScriptRegistry.define(
+            """
+                    if redis.call('exists', KEYS[1]) == 0 then
+                        return 0
+                    end
+                    redis.call('rename', KEYS[1], KEYS[2])
+                    return 1""", Long.class);
+
+    /**
+     * 遍历匹配的键
+     *
+     * @param pattern  匹配模式，如 user:roles:*
+     * @param count    SCAN COUNT
+     * @param consumer 逐批处理，每批为一次 SCAN 返回的键
+     * @return 遍历到的键数量
+     */
+    public static long scan(String pattern, int count, Consumer<List<String>> consumer) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(count).build();
+        long scanned = 0;
+        List<String> batch = new ArrayList<>(count);
+        try (Cursor<String> cursor = template().scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= count) {
+                    scanned += batch.size();
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(count);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            scanned += batch.size();
+            consumer.accept(batch);
+        }
+        return scanned;
+    }
+
+    /**
+     * 查找匹配的键
+     * 结果全部装入内存，只适合键数量可控的场景，大批量处理请使用 {@link #scan}
+     *
+     * @param pattern 匹配模式
+     * @return 键集合
+     */
+    public static Set<String> keys(String pattern) {
+        Set<String> keys = new LinkedHashSet<>();
+        scan(pattern, DEFAULT_SCAN_COUNT, keys::addAll);
+        return keys;
+    }
+
+    /**
+     * 删除匹配的键
+     *
+     * @param pattern 匹配模式
+     * @return 删除进度（最终结果）
+     */
+    public static Progress unlink(String pattern) {
+        return unlink(pattern, DEFAULT_SCAN_COUNT, DEFAULT_UNLINK_BATCH, null);
+    }
+
+    /**
+     * 删除匹配的键
+     *
+     * @param pattern   匹配模式
+     * @param count     SCAN COUNT
+     * @param batchSize 单条 UNLINK 的键数量
+     * @param listener  进度回调，每提交一次流水线调用一次，可为 null
+     * @return 删除进度（最终结果）
+     */
+    public static Progress unlink(String pattern, int count, int batchSize, Consumer<Progress> listener) {
+        long startNanos = System.nanoTime();
+        // [0] 已遍历，[1] 已删除
+        long[] counters = {0, 0};
+        List<String> pending = new ArrayList<>(batchSize * PIPELINE_DEPTH);
+        scan(pattern, count, keys -> {
+            counters[0] += keys.size();
+            pending.addAll(keys);
+            if (pending.size() >= batchSize * PIPELINE_DEPTH) {
+                counters[1] += unlinkPipelined(pending, batchSize);
+                pending.clear();
+                report(listener, new Progress(pattern, counters[0], counters[1], elapsed(startNanos), false));
+            }
+        });
+        if (!pending.isEmpty()) {
+            counters[1] += unlinkPipelined(pending, batchSize);
+        }
+        Progress result = new Progress(pattern, counters[0], counters[1], elapsed(startNanos), true);
+        report(listener, result);
+        log.debug("按模式删除Redis键完成: {}", result);
+        return result;
+    }
+
+    /**
+     * 删除给定的键
+     *
+     * @param keys      键集合
+     * @param batchSize 单条 UNLINK 的键数量
+     * @return 实际删除的键数量
+     */
+    public static long unlinkAll(Collection<String> keys, int batchSize) {
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+        return unlinkPipelined(new ArrayList<>(keys), batchSize);
+    }
+
+    // ==================== 索引集合 ====================
+
+    /**
+     * 把缓存键登记到一个或多个索引集合
+     * 索引与缓存使用相同的过期时间，每次登记都会续期，因此索引不会比其中的缓存活得更久太多
+     *
+     * @param indexKeys 索引集合的键
+     * @param member    缓存键
+     * @param ttl       索引过期时间
+     */
+    public static void index(Collection<String> indexKeys, String member, Duration ttl) {
+        if (indexKeys == null || indexKeys.isEmpty()) {
+            return;
+        }
+        template().executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (String indexKey : indexKeys) {
+                    ops.opsForSet().add(indexKey, member);
+                    ops.expire(indexKey, ttl);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 删除索引集合中登记的所有键以及索引本身
+     * 先把索引原子地改名为一次性的临时键，再用 SSCAN 分批读取临时键的成员并删除，索引很大时也不会阻塞。
+     * 改名之后新登记的成员进入新的索引，不会被本次清理漏掉或误删；写缓存的一方须先登记索引再写缓存
+     *
+     * @param indexKey 索引集合的键
+     * @return 删除的缓存键数量
+     */
+    public static long unlinkIndexed(String indexKey) {
+        String drainingKey = indexKey + DRAINING_SUFFIX + UUID.randomUUID();
+        Long renamed = template().execute(RENAME_IF_EXISTS_SCRIPT, List.of(indexKey, drainingKey));
+        if (renamed == null || renamed == 0) {
+            return 0;
+        }
+        ScanOptions options = ScanOptions.scanOptions().count(DEFAULT_SCAN_COUNT).build();
+        long unlinked = 0;
+        List<String> members = new ArrayList<>(DEFAULT_UNLINK_BATCH * PIPELINE_DEPTH);
+        try (Cursor<String> cursor = template().opsForSet().scan(drainingKey, options)) {
+            while (cursor.hasNext()) {
+                members.add(cursor.next());
+                if (members.size() >= DEFAULT_UNLINK_BATCH * PIPELINE_DEPTH) {
+                    unlinked += unlinkPipelined(members, DEFAULT_UNLINK_BATCH);
+                    members.clear();
+                }
+            }
+        }
+        unlinked += unlinkPipelined(members, DEFAULT_UNLINK_BATCH);
+        template().unlink(drainingKey);
+        return unlinked;
+    }
+
+    // ==================== 内部方法 ====================
+
+    private static long unlinkPipelined(List<String> keys, int batchSize) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<Object> results = template().executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (int from = 0; from < keys.size(); from += batchSize) {
+                    ops.unlink(keys.subList(from, Math.min(keys.size(), from + batchSize)));
+                }
+                return null;
+            }
+        });
+        long unlinked = 0;
+        for (Object result : results) {
+            if (result instanceof Number number) {
+                unlinked += number.longValue();
+            }
+        }
+        return unlinked;
+    }
+
+    private static void report(Consumer<Progress> listener, Progress progress) {
+        if (listener != null) {
+            listener.accept(progress);
+        }
+    }
+
+    private static Duration elapsed(long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    private static StringRedisTemplate template() {
+        return RedisUtils.getStringRedisTemplate();
+    }
+
+    /**
+     * 批量删除进度
+     *
+     * @param pattern  匹配模式
+     * @param scanned  已遍历的键数量
+     * @param unlinked 已删除的键数量
+     * @param elapsed  已耗时
+     * @param finished 是否已完成
+     */
+    public record Progress(String pattern, long scanned, long unlinked, Duration elapsed, boolean finished) {
+    }
+}
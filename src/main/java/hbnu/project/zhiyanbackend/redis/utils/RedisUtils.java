@@ -1,23 +1,18 @@
 package hbnu.project.zhiyanbackend.redis.utils;
 
+import hbnu.project.zhiyanbackend.redis.pubsub.RedisPubSubHub;
+import hbnu.project.zhiyanbackend.redis.script.RedisScriptRegistry;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.core.*;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
-import org.springframework.data.redis.listener.ChannelTopic;
-import org.springframework.data.redis.listener.RedisMessageListenerContainer;
-import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -33,11 +28,6 @@ import java.util.function.Consumer;
 @SuppressWarnings(value = {"unchecked"})
 public class RedisUtils {
 
-    /**
-     * 用于存储消息监听器容器和订阅关系
-     */
-    private static final Map<String, RedisMessageListenerContainer> LISTENER_CONTAINERS = new ConcurrentHashMap<>();
-
     /**
      * -- GETTER --
      * 获取RedisTemplate实例
@@ -52,6 +42,11 @@ public class RedisUtils {
     @Getter
     private static StringRedisTemplate stringRedisTemplate;
 
+    /**
+     * 共享的发布订阅中心，所有频道复用一条订阅连接
+     */
+    private static RedisPubSubHub pubSubHub;
+
     @Autowired
     public void setRedisTemplate(RedisTemplate<String, Object> redisTemplate) {
         RedisUtils.redisTemplate = redisTemplate;
@@ -62,17 +57,16 @@ public class RedisUtils {
         RedisUtils.stringRedisTemplate = stringRedisTemplate;
     }
 
+    @Autowired
+    public void setPubSubHub(RedisPubSubHub pubSubHub) {
+        RedisUtils.pubSubHub = pubSubHub;
+    }
+
     /**
-     * 限流 - 基于 Redis Lua 脚本实现令牌桶算法
-     *
-     * @param key         限流key
-     * @param maxRequests 最大请求数
-     * @param timeWindow  时间窗口（秒）
-     * @return -1 表示失败，否则返回剩余令牌数
+     * 令牌桶限流脚本
      */
-    public static long rateLimiter(String key, int maxRequests, int timeWindow) {
-        String luaScript =
-                """
+    private static final RedisScript<Long> RATE_LIMITER_SCRIPT = RedisScriptRegistry.define(
+            """
                         local key = KEYS[1]
                         local max_requests = tonumber(ARGV[1])
                         local time_window = tonumber(ARGV[2])
@@ -99,12 +93,22 @@ public class RedisUtils {
                             return tokens
                         else
                             return -1
-                        end""";
+                        end""", Long.class);
 
-        RedisScript<Long> script = new DefaultRedisScript<>(luaScript, Long.class);
-        Long result = redisTemplate.execute(script,
+    /**
+     * 限流 - 基于 Redis Lua 脚本实现令牌桶算法
+     * 脚本参数以纯文本传递，不经过值序列化器（二进制格式下 tonumber 无法解析）
+     *
+     * @param key         限流key
+     * @param maxRequests 最大请求数
+     * @param timeWindow  时间窗口（秒）
+     * @return -1 表示失败，否则返回剩余令牌数
+     */
+    public static long rateLimiter(String key, int maxRequests, int timeWindow) {
+        Long result = stringRedisTemplate.execute(RATE_LIMITER_SCRIPT,
                 Collections.singletonList(key),
-                maxRequests, timeWindow, System.currentTimeMillis() / 1000);
+                String.valueOf(maxRequests), String.valueOf(timeWindow),
+                String.valueOf(System.currentTimeMillis() / 1000));
 
         return result != null ? result : -1L;
     }
@@ -139,28 +143,19 @@ public class RedisUtils {
      * @param consumer   自定义处理
      */
     public static <T> void subscribe(String channelKey, Class<T> clazz, Consumer<T> consumer) {
-// 创建消息监听器适配器
-        MessageListenerAdapter listenerAdapter = new MessageListenerAdapter((MessageListener) (message, pattern) -> {
-            try {
-                // 消息体反序列化
-                T mesg = (T) redisTemplate.getValueSerializer().deserialize(message.getBody());
-                if (mesg != null) {
-                    consumer.accept(mesg);
-                }
-            }catch (Exception e) {
-                log.error("消息处理异常 - channel: {}", channelKey, e);
-            }
-        });
-
-        // 消息监听容器
-        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
-        container.setConnectionFactory(redisTemplate.getConnectionFactory());
-        container.addMessageListener(listenerAdapter, new ChannelTopic(channelKey));
-        container.afterPropertiesSet();
-        container.start();
+        pubSubHub.subscribe(subscriptionId(channelKey, consumer), channelKey, clazz, consumer);
+    }
 
-        // 保存容器引用，以便后续可以取消订阅
-        LISTENER_CONTAINERS.put(channelKey + ":" + consumer.hashCode(), container);
+    /**
+     * 订阅通道接收消息，本节点处理不过来时丢弃积压的消息并执行重新同步
+     *
+     * @param channelKey 通道key
+     * @param clazz      消息类型
+     * @param consumer   自定义处理
+     * @param resync     重新同步处理，须能替代被丢弃的消息（如清空本地缓存）
+     */
+    public static <T> void subscribe(String channelKey, Class<T> clazz, Consumer<T> consumer, Runnable resync) {
+        pubSubHub.subscribe(subscriptionId(channelKey, consumer), channelKey, clazz, consumer, resync);
     }
 
     /**
@@ -169,26 +164,19 @@ public class RedisUtils {
      * @param channelKey 通道key
      * @param consumer   自定义处理
      */
-    @SneakyThrows
     public static void unsubscribe(String channelKey, Consumer<?> consumer) {
-        String key = channelKey + ":" + consumer.hashCode();
-        RedisMessageListenerContainer container = LISTENER_CONTAINERS.remove(key);
-        if (container != null) {
-            container.stop();
-            container.destroy();
-        }
+        pubSubHub.unsubscribe(subscriptionId(channelKey, consumer));
     }
 
     /**
      * 取消所有订阅
      */
-    @SneakyThrows
     public static void unsubscribeAll() {
-        for (RedisMessageListenerContainer container : LISTENER_CONTAINERS.values()) {
-            container.stop();
-            container.destroy();
-        }
-        LISTENER_CONTAINERS.clear();
+        pubSubHub.unsubscribeAll();
+    }
+
+    private static String subscriptionId(String channelKey, Consumer<?> consumer) {
+        return channelKey + ":" + consumer.hashCode();
     }
 
     /**
@@ -395,6 +383,17 @@ public class RedisUtils {
         return result;
     }
 
+    /**
+     * 裁剪缓存的list对象，只保留指定范围内的元素
+     *
+     * @param key  缓存的键值
+     * @param from 起始下标
+     * @param to   截止下标，-1 表示末尾
+     */
+    public static void trimCacheList(final String key, long from, long to) {
+        redisTemplate.opsForList().trim(key, from, to);
+    }
+
     /**
      * 缓存Set
      *
@@ -543,12 +542,13 @@ public class RedisUtils {
 
     /**
      * 设置原子值
+     * 原子值以十进制文本存储，与 INCR/DECR 兼容，不受值序列化格式影响
      *
      * @param key   Redis键
      * @param value 值
      */
     public static void setAtomicValue(String key, long value) {
-        redisTemplate.opsForValue().set(key, value);
+        stringRedisTemplate.opsForValue().set(key, String.valueOf(value));
     }
 
     /**
@@ -558,11 +558,16 @@ public class RedisUtils {
      * @return 当前值
      */
     public static long getAtomicValue(String key) {
-        Object value = redisTemplate.opsForValue().get(key);
-        if (value instanceof Number) {
-            return ((Number) value).longValue();
+        String value = stringRedisTemplate.opsForValue().get(key);
+        if (value == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("原子值格式不正确: key={}", key);
+            return 0L;
         }
-        return 0L;
     }
 
     /**
@@ -572,7 +577,7 @@ public class RedisUtils {
      * @return 当前值
      */
     public static long incrAtomicValue(String key) {
-        Long result = redisTemplate.opsForValue().increment(key);
+        Long result = stringRedisTemplate.opsForValue().increment(key);
         return result != null ? result : 0L;
     }
 
@@ -583,30 +588,27 @@ public class RedisUtils {
      * @return 当前值
      */
     public static long decrAtomicValue(String key) {
-        Long result = redisTemplate.opsForValue().decrement(key);
+        Long result = stringRedisTemplate.opsForValue().decrement(key);
         return result != null ? result : 0L;
     }
 
     /**
-     * 获得缓存的基本对象列表(模式匹配)
+     * 获得缓存的基本对象列表(模式匹配，基于 SCAN)
      *
      * @param pattern 字符串前缀
      * @return 对象列表
      */
     public static Set<String> keys(final String pattern) {
-        return redisTemplate.keys(pattern + "*");
+        return RedisKeySpace.keys(pattern + "*");
     }
 
     /**
-     * 删除缓存的基本对象列表(模式匹配)
+     * 删除缓存的基本对象列表(模式匹配，基于 SCAN + UNLINK)
      *
      * @param pattern 字符串前缀
      */
     public static void deleteKeys(final String pattern) {
-        Set<String> keys = redisTemplate.keys(pattern + "*");
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
-        }
+        RedisKeySpace.unlink(pattern + "*");
     }
 
     /**
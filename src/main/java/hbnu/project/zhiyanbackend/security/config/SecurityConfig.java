@@ -1,5 +1,6 @@
 package hbnu.project.zhiyanbackend.security.config;
 
+import hbnu.project.zhiyanbackend.auth.model.enums.SystemPermission;
 import hbnu.project.zhiyanbackend.security.filter.JwtAuthenticationFilter;
 import hbnu.project.zhiyanbackend.security.interceptor.HeaderInterceptor;
 
@@ -179,6 +180,10 @@ public class SecurityConfig implements WebMvcConfigurer {
                                 "/zhiyan/auth/oauth2/**"
                         ).permitAll()
 
+                        // 缓存运维端点可清空缓存 - 仅系统管理员
+                        .requestMatchers("/actuator/cachestats", "/actuator/cachestats/**")
+                        .hasAuthority(SystemPermission.SYSTEM_ADMIN.getPermission())
+
                         // 系统基础接口 - 无需登录
                         .requestMatchers(
                                 "/error",
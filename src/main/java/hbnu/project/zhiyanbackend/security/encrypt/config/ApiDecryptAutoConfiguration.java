@@ -2,10 +2,14 @@ package hbnu.project.zhiyanbackend.security.encrypt.config;
 
 import hbnu.project.zhiyanbackend.security.encrypt.config.properties.ApiDecryptProperties;
 import hbnu.project.zhiyanbackend.security.encrypt.config.properties.EncryptorProperties;
+import hbnu.project.zhiyanbackend.security.encrypt.core.CryptoSessionManager;
 import hbnu.project.zhiyanbackend.security.encrypt.core.EncryptorManager;
 import hbnu.project.zhiyanbackend.security.encrypt.filter.CryptoFilter;
+import hbnu.project.zhiyanbackend.security.encrypt.jackson.EncryptFieldConverterInstaller;
+import hbnu.project.zhiyanbackend.security.encrypt.jackson.EncryptFieldModule;
 import hbnu.project.zhiyanbackend.security.encrypt.utils.FieldEncryptUtils;
 import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -25,15 +29,32 @@ import org.springframework.context.annotation.Bean;
 @ConditionalOnProperty(value = "api-decrypt.enabled", havingValue = "true")
 public class ApiDecryptAutoConfiguration {
 
+    @Bean
+    public CryptoSessionManager cryptoSessionManager(ApiDecryptProperties properties) {
+        return new CryptoSessionManager(properties);
+    }
+
+    /**
+     * 字段加密由 Jackson 模块完成时，把 MVC 的 JSON 转换器换成只在读写请求体/响应体时附加加解密属性的转换器
+     */
+    @Bean
+    public EncryptFieldConverterInstaller encryptFieldConverterInstaller(ObjectProvider<EncryptFieldModule> encryptFieldModule) {
+        return new EncryptFieldConverterInstaller(() -> encryptFieldModule.getIfAvailable() != null);
+    }
+
     @Bean
     public FilterRegistrationBean<CryptoFilter> cryptoFilterRegistration(
             ApiDecryptProperties properties,
             EncryptorManager encryptorManager,
             EncryptorProperties encryptorProperties,
-            FieldEncryptUtils fieldEncryptUtils) {
+            FieldEncryptUtils fieldEncryptUtils,
+            CryptoSessionManager cryptoSessionManager,
+            EncryptFieldConverterInstaller converterInstaller) {
+        // 转换器在 MVC 初始化时才替换，过滤器按请求读取替换结果，未替换时回退为解析 JSON 加解密字段
         FilterRegistrationBean<CryptoFilter> registration = new FilterRegistrationBean<>();
         registration.setDispatcherTypes(DispatcherType.REQUEST);
-        registration.setFilter(new CryptoFilter(properties, encryptorManager, encryptorProperties, fieldEncryptUtils));
+        registration.setFilter(new CryptoFilter(properties, encryptorManager, encryptorProperties, fieldEncryptUtils, cryptoSessionManager,
+                converterInstaller::isInstalled));
         registration.addUrlPatterns("/*");
         registration.setName("cryptoFilter");
         registration.setOrder(FilterRegistrationBean.HIGHEST_PRECEDENCE);
@@ -3,6 +3,7 @@ package hbnu.project.zhiyanbackend.security.encrypt.config;
 import hbnu.project.zhiyanbackend.security.encrypt.config.properties.EncryptorProperties;
 import hbnu.project.zhiyanbackend.security.encrypt.core.EncryptContext;
 import hbnu.project.zhiyanbackend.security.encrypt.core.EncryptorManager;
+import hbnu.project.zhiyanbackend.security.encrypt.jackson.EncryptFieldModule;
 import hbnu.project.zhiyanbackend.security.encrypt.utils.EncryptUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
@@ -54,4 +55,14 @@ public class EncryptorAutoConfiguration {
         log.info("加密器管理器初始化完成 - 支持字段级别加密");
         return manager;
     }
+
+    /**
+     * 字段加密 Jackson 模块
+     * 注册到全局 ObjectMapper 后，@EncryptField 字段只在 MVC 读写请求体/响应体时加解密
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "zhiyan.encrypt", name = "enabled", havingValue = "true")
+    public EncryptFieldModule encryptFieldModule(EncryptorManager encryptorManager, EncryptorProperties properties) {
+        return new EncryptFieldModule(encryptorManager, properties);
+    }
 }
@@ -3,6 +3,8 @@ package hbnu.project.zhiyanbackend.security.encrypt.config.properties;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 /**
  * api解密属性配置类
  * @author wdhcr
@@ -27,8 +29,28 @@ public class ApiDecryptProperties {
     private String publicKey;
 
     /**
-     * 请求解密私钥
+     * 请求解密私钥，同时用于给加密会话协商结果签名
      */
     private String privateKey;
 
+    /**
+     * 会话密钥模式：携带会话ID的请求头，没有该请求头时按原方式每次响应生成 AES 密钥并用 RSA 加密
+     */
+    private String sessionHeader = "encrypt-session";
+
+    /**
+     * 会话密钥模式：响应 IV 所在的响应头
+     */
+    private String ivHeader = "encrypt-iv";
+
+    /**
+     * 会话密钥有效期，过期后客户端需要重新协商
+     */
+    private Duration sessionTtl = Duration.ofMinutes(30);
+
+    /**
+     * 会话密钥在 Redis 中的键前缀
+     */
+    private String sessionKeyPrefix = "crypto:session:";
+
 }
@@ -0,0 +1,45 @@
+package hbnu.project.zhiyanbackend.security.encrypt.controller;
+
+import hbnu.project.zhiyanbackend.basic.domain.R;
+import hbnu.project.zhiyanbackend.redis.ratelimit.RateLimit;
+import hbnu.project.zhiyanbackend.security.encrypt.core.CryptoSessionManager;
+import hbnu.project.zhiyanbackend.security.encrypt.model.CryptoHandshakeRequest;
+import hbnu.project.zhiyanbackend.security.encrypt.model.CryptoHandshakeResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 加密会话控制器
+ *
+ * @author ErgouTree
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/zhiyan/crypto")
+@ConditionalOnProperty(value = "api-decrypt.enabled", havingValue = "true")
+@SecurityRequirement(name = "Bearer Authentication")
+@Tag(name = "加密会话", description = "协商响应加密使用的会话密钥")
+public class CryptoSessionController {
+
+    private final CryptoSessionManager cryptoSessionManager;
+
+    /**
+     * 协商会话密钥
+     */
+    @PostMapping("/session")
+    @RateLimit(name = "crypto:session", permits = 30, window = "1m", dimension = RateLimit.Dimension.USER)
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "协商加密会话", description = "ECDH(P-256) 协商 AES-256-GCM 会话密钥，结果带服务端 RSA 签名，客户端验签后"
+            + "通过 encrypt-session 请求头携带会话ID；会话绑定当前登录凭证")
+    public R<CryptoHandshakeResponse> handshake(@Valid @RequestBody CryptoHandshakeRequest request,
+                                                HttpServletRequest servletRequest) {
+        return R.ok(cryptoSessionManager.handshake(request.getClientPublicKey(), servletRequest));
+    }
+}
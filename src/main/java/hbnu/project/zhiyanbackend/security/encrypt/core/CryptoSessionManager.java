@@ -0,0 +1,221 @@
+package hbnu.project.zhiyanbackend.security.encrypt.core;
+
+import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
+import hbnu.project.zhiyanbackend.redis.utils.RedisUtils;
+import hbnu.project.zhiyanbackend.security.encrypt.config.properties.ApiDecryptProperties;
+import hbnu.project.zhiyanbackend.security.encrypt.model.CryptoHandshakeResponse;
+import hbnu.project.zhiyanbackend.security.encrypt.utils.RSAUtils;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpStatus;
+
+import javax.crypto.KeyAgreement;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * 响应加密会话密钥管理
+ * 客户端与服务端各生成一次性的 P-256 密钥对做 ECDH 协商，协商结果经 HKDF-SHA256 派生为 AES-256 会话密钥，
+ * 保存在 Redis 中供所有节点使用。会话有效期内的响应只做 AES-GCM 加密，不再有每次响应的 RSA 运算。
+ * <p>
+ * 协商结果用配置的 RSA 私钥签名（签名内容见 {@link #signedContent}），客户端用预置的 RSA 公钥验签后才能使用会话，
+ * 防止中间人替换双方的 EC 公钥；会话同时绑定协商时的登录凭证摘要，换了凭证（其他用户或重新登录）取不到会话密钥。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+public class CryptoSessionManager {
+
+    private static final String CURVE = "secp256r1";
+
+    private static final byte[] HKDF_INFO = "zhiyan-api-response-v1".getBytes(StandardCharsets.UTF_8);
+
+    private static final int KEY_LENGTH = 32;
+
+    private static final String SIGN_VERSION = "zhiyan-crypto-session-v1";
+
+    private final ApiDecryptProperties properties;
+
+    public CryptoSessionManager(ApiDecryptProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 协商会话密钥
+     *
+     * @param clientPublicKey 客户端 EC 公钥（X.509 编码后 Base64）
+     * @param request         协商请求，用于取登录凭证绑定会话
+     * @return 会话ID、服务端公钥与签名
+     */
+    public CryptoHandshakeResponse handshake(String clientPublicKey, HttpServletRequest request) {
+        PublicKey clientKey = parseClientKey(clientPublicKey);
+        String credential = credentialDigest(request);
+        if (credential == null) {
+            throw new ServiceException("缺少登录凭证，无法协商加密会话", HttpStatus.UNAUTHORIZED);
+        }
+        if (StringUtils.isBlank(properties.getPrivateKey())) {
+            throw new ServiceException("未配置签名私钥，无法协商加密会话", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec(CURVE));
+            KeyPair serverKeyPair = generator.generateKeyPair();
+
+            KeyAgreement agreement = KeyAgreement.getInstance("ECDH");
+            agreement.init(serverKeyPair.getPrivate());
+            agreement.doPhase(clientKey, true);
+            byte[] sharedSecret = agreement.generateSecret();
+
+            String sessionId = UUID.randomUUID().toString().replace("-", "");
+            byte[] key = hkdf(sharedSecret, sessionId.getBytes(StandardCharsets.UTF_8));
+            Arrays.fill(sharedSecret, (byte) 0);
+
+            String serverPublicKey = Base64.getEncoder().encodeToString(serverKeyPair.getPublic().getEncoded());
+            long expiresIn = properties.getSessionTtl().toSeconds();
+            String signature = sign(signedContent(sessionId, clientPublicKey, serverPublicKey, expiresIn));
+
+            // 值为 凭证摘要:会话密钥，取密钥时校验凭证
+            RedisUtils.setCacheObject(cacheKey(sessionId),
+                    credential + ":" + Base64.getEncoder().encodeToString(key), properties.getSessionTtl());
+            return CryptoHandshakeResponse.builder()
+                    .sessionId(sessionId)
+                    .serverPublicKey(serverPublicKey)
+                    .expiresIn(expiresIn)
+                    .signature(signature)
+                    .build();
+        } catch (GeneralSecurityException e) {
+            log.error("加密会话协商失败", e);
+            throw new ServiceException("加密会话协商失败", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * 获取会话密钥
+     *
+     * @param sessionId 会话ID
+     * @param request   当前请求，登录凭证须与协商时一致
+     * @return 会话密钥，会话不存在、已过期或凭证不一致时返回 null
+     */
+    public SecretKey getKey(String sessionId, HttpServletRequest request) {
+        if (StringUtils.isBlank(sessionId)) {
+            return null;
+        }
+        String stored = RedisUtils.getCacheObject(cacheKey(sessionId));
+        String credential = credentialDigest(request);
+        if (stored == null || credential == null) {
+            return null;
+        }
+        int separator = stored.indexOf(':');
+        if (separator < 0 || !MessageDigest.isEqual(
+                stored.substring(0, separator).getBytes(StandardCharsets.US_ASCII),
+                credential.getBytes(StandardCharsets.US_ASCII))) {
+            log.warn("加密会话凭证不一致，拒绝使用 - sessionId: {}", sessionId);
+            return null;
+        }
+        return new SecretKeySpec(Base64.getDecoder().decode(stored.substring(separator + 1)), "AES");
+    }
+
+    /**
+     * 协商结果的签名内容，客户端按同样格式拼接后用 RSA 公钥（SHA256withRSA）验签
+     * <pre>
+     * zhiyan-crypto-session-v1\n{sessionId}\n{clientPublicKey}\n{serverPublicKey}\n{expiresIn}
+     * </pre>
+     * 签名覆盖客户端公钥，客户端可确认服务端协商的是自己发出的那把公钥
+     */
+    public static String signedContent(String sessionId, String clientPublicKey, String serverPublicKey, long expiresIn) {
+        return String.join("\n", SIGN_VERSION, sessionId, clientPublicKey, serverPublicKey, String.valueOf(expiresIn));
+    }
+
+    /**
+     * 登录凭证摘要（SHA-256 十六进制），凭证的取法与 JwtAuthenticationFilter 一致：
+     * token 参数、Authorization 头，最后是 RememberMe Cookie
+     *
+     * @return 没有凭证时返回 null
+     */
+    static String credentialDigest(HttpServletRequest request) {
+        if (request == null) {
+            return null;
+        }
+        String credential = request.getParameter("token");
+        if (StringUtils.isBlank(credential)) {
+            String authHeader = request.getHeader("Authorization");
+            if (StringUtils.isNotBlank(authHeader) && authHeader.startsWith("Bearer ")) {
+                credential = authHeader.substring(7);
+            }
+        }
+        if (StringUtils.isBlank(credential) && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if ("remember_me_token".equals(cookie.getName())) {
+                    credential = cookie.getValue();
+                    break;
+                }
+            }
+        }
+        if (StringUtils.isBlank(credential)) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(credential.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private PublicKey parseClientKey(String clientPublicKey) {
+        if (StringUtils.isBlank(clientPublicKey)) {
+            throw new ServiceException("客户端公钥不能为空", HttpStatus.BAD_REQUEST);
+        }
+        try {
+            PublicKey key = KeyFactory.getInstance("EC")
+                    .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(clientPublicKey)));
+            // 只接受 P-256 曲线的公钥
+            if (!(key instanceof ECPublicKey ecKey) || ecKey.getParams().getCurve().getField().getFieldSize() != 256) {
+                throw new ServiceException("客户端公钥必须为 P-256 曲线", HttpStatus.BAD_REQUEST);
+            }
+            return key;
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new ServiceException("客户端公钥格式错误", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private String sign(String content) throws GeneralSecurityException {
+        try {
+            return RSAUtils.sign(content, properties.getPrivateKey());
+        } catch (GeneralSecurityException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GeneralSecurityException("签名私钥格式错误", e);
+        }
+    }
+
+    /**
+     * HKDF-SHA256（RFC 5869），输出 32 字节
+     */
+    static byte[] hkdf(byte[] inputKey, byte[] salt) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(salt, "HmacSHA256"));
+        byte[] pseudoRandomKey = mac.doFinal(inputKey);
+
+        mac.init(new SecretKeySpec(pseudoRandomKey, "HmacSHA256"));
+        mac.update(HKDF_INFO);
+        mac.update((byte) 1);
+        return Arrays.copyOf(mac.doFinal(), KEY_LENGTH);
+    }
+
+    private String cacheKey(String sessionId) {
+        return properties.getSessionKeyPrefix() + sessionId;
+    }
+}
@@ -1,10 +1,12 @@
 package hbnu.project.zhiyanbackend.security.encrypt.core;
 
 
+import hbnu.project.zhiyanbackend.security.encrypt.annotation.EncryptField;
 import hbnu.project.zhiyanbackend.security.encrypt.config.properties.EncryptorProperties;
 import hbnu.project.zhiyanbackend.security.encrypt.enumd.AlgorithmType;
 import hbnu.project.zhiyanbackend.security.encrypt.enumd.EncodeType;
 import lombok.Data;
+import org.apache.commons.lang3.StringUtils;
 
 import java.util.Objects;
 
@@ -77,6 +79,44 @@ public class EncryptContext {
         return context;
     }
 
+    /**
+     * 根据字段注解创建加密上下文，注解未指定的项使用配置文件中的默认值
+     *
+     * @param encryptField 字段加密注解
+     * @param properties   配置属性
+     * @return 加密上下文
+     */
+    public static EncryptContext of(EncryptField encryptField, EncryptorProperties properties) {
+        EncryptContext context = new EncryptContext();
+
+        // 算法
+        AlgorithmType algorithm = encryptField.algorithm() == AlgorithmType.DEFAULT
+                ? properties.getAlgorithm() : encryptField.algorithm();
+        context.setAlgorithm(algorithm);
+
+        // 编码方式
+        EncodeType encode = encryptField.encode() == EncodeType.DEFAULT
+                ? properties.getEncode() : encryptField.encode();
+        context.setEncode(encode);
+
+        // 密钥
+        String password = StringUtils.isBlank(encryptField.password())
+                ? properties.getPassword() : encryptField.password();
+        context.setPassword(password);
+
+        // 公钥
+        String publicKey = StringUtils.isBlank(encryptField.publicKey())
+                ? properties.getPublicKey() : encryptField.publicKey();
+        context.setPublicKey(publicKey);
+
+        // 私钥
+        String privateKey = StringUtils.isBlank(encryptField.privateKey())
+                ? properties.getPrivateKey() : encryptField.privateKey();
+        context.setPrivateKey(privateKey);
+
+        return context;
+    }
+
     /**
      * 设置密钥（通用方法，用于对称加密算法）
      * 根据当前算法类型设置对应的密钥
@@ -0,0 +1,59 @@
+package hbnu.project.zhiyanbackend.security.encrypt.core;
+
+import jakarta.servlet.ServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 字段加密作用域
+ * 由加密过滤器在处理标注了 {@code @ApiEncrypt} 的请求时记录在请求属性上，只有 MVC 读写请求体/响应体的消息转换器会读取，
+ * 再以 Jackson 属性的形式交给本次读写使用的 ObjectReader/ObjectWriter。
+ * 处理器内部直接使用全局 ObjectMapper 的序列化（数据库 JSON、操作日志、外部调用等）看不到该作用域，始终保持明文。
+ *
+ * @author ErgouTree
+ */
+public final class FieldEncryptScope {
+
+    private static final String ATTRIBUTE = FieldEncryptScope.class.getName();
+
+    private FieldEncryptScope() {
+    }
+
+    /**
+     * 开启作用域，随请求结束失效
+     *
+     * @param request         当前请求
+     * @param decryptRequest  是否解密请求字段
+     * @param encryptResponse 是否加密响应字段
+     */
+    public static void open(ServletRequest request, boolean decryptRequest, boolean encryptResponse) {
+        request.setAttribute(ATTRIBUTE, new Scope(decryptRequest, encryptResponse));
+    }
+
+    /**
+     * 当前请求是否需要解密请求体中的字段
+     */
+    public static boolean isDecryptRequest() {
+        Scope scope = current();
+        return scope != null && scope.decryptRequest();
+    }
+
+    /**
+     * 当前请求是否需要加密响应体中的字段
+     */
+    public static boolean isEncryptResponse() {
+        Scope scope = current();
+        return scope != null && scope.encryptResponse();
+    }
+
+    private static Scope current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Scope scope ? scope : null;
+    }
+
+    private record Scope(boolean decryptRequest, boolean encryptResponse) {
+    }
+}
@@ -14,6 +14,7 @@ import java.util.Base64;
 /**
  * AES 对称加密算法实现
  * 使用 Hutool 加密工具和 basic 模块的工具类
+ * Hutool 的 AES 实例内部用锁串行化同一个 Cipher，这里每个线程持有一个实例，高并发下互不等待
  *
  * @author ErgouTree
  * @version 2.0.0
@@ -21,14 +22,15 @@ import java.util.Base64;
 @Slf4j
 public class AesEncryptor extends AbstractEncryptor {
 
-    private final AES aes;
+    private final ThreadLocal<AES> aes;
 
     public AesEncryptor(EncryptContext context) {
         super(context);
         if (isEmpty(context.getAesKey())) {
             throw new IllegalArgumentException("AES 密钥不能为空");
         }
-        this.aes = SecureUtil.aes(context.getAesKey().getBytes(StandardCharsets.UTF_8));
+        byte[] key = context.getAesKey().getBytes(StandardCharsets.UTF_8);
+        this.aes = ThreadLocal.withInitial(() -> SecureUtil.aes(key));
     }
 
     @Override
@@ -43,7 +45,7 @@ public class AesEncryptor extends AbstractEncryptor {
         }
 
         try {
-            byte[] encrypted = aes.encrypt(value);
+            byte[] encrypted = aes.get().encrypt(value);
 
             // 根据编码类型返回
             if (encodeType == EncodeType.HEX) {
@@ -73,7 +75,7 @@ public class AesEncryptor extends AbstractEncryptor {
                 encrypted = HexUtil.decodeHex(value);
             }
 
-            byte[] decrypted = aes.decrypt(encrypted);
+            byte[] decrypted = aes.get().decrypt(encrypted);
             return new String(decrypted, StandardCharsets.UTF_8);
         } catch (Exception e) {
             log.error("AES 解密失败: {}", e.getMessage(), e);
@@ -12,7 +12,7 @@ import java.util.Base64;
 
 /**
  * 国密 SM4 对称加密算法实现
- * 使用 Hutool 加密工具
+ * 使用 Hutool 加密工具，每个线程持有一个 SM4 实例，避免共享 Cipher 上的锁竞争
  *
  * @author ErgouTree
  * @version 2.0.5
@@ -20,14 +20,15 @@ import java.util.Base64;
 @Slf4j
 public class Sm4Encryptor extends AbstractEncryptor {
 
-    private final SM4 sm4;
+    private final ThreadLocal<SM4> sm4;
 
     public Sm4Encryptor(EncryptContext context) {
         super(context);
         if (isEmpty(context.getSm4Key())) {
             throw new IllegalArgumentException("SM4 密钥不能为空");
         }
-        this.sm4 = new SM4(context.getSm4Key().getBytes(StandardCharsets.UTF_8));
+        byte[] key = context.getSm4Key().getBytes(StandardCharsets.UTF_8);
+        this.sm4 = ThreadLocal.withInitial(() -> new SM4(key));
     }
 
     @Override
@@ -42,7 +43,7 @@ public class Sm4Encryptor extends AbstractEncryptor {
         }
 
         try {
-            byte[] encrypted = sm4.encrypt(value);
+            byte[] encrypted = sm4.get().encrypt(value);
 
             // 根据编码类型返回
             if (encodeType == EncodeType.HEX) {
@@ -72,7 +73,7 @@ public class Sm4Encryptor extends AbstractEncryptor {
                 encrypted = HexUtil.decodeHex(value);
             }
 
-            byte[] decrypted = sm4.decrypt(encrypted);
+            byte[] decrypted = sm4.get().decrypt(encrypted);
             return new String(decrypted, StandardCharsets.UTF_8);
         } catch (Exception e) {
             log.error("SM4 解密失败: {}", e.getMessage(), e);
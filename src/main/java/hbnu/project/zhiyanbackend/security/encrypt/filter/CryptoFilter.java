@@ -6,7 +6,9 @@ import hbnu.project.zhiyanbackend.basic.utils.SpringUtils;
 import hbnu.project.zhiyanbackend.security.encrypt.annotation.ApiEncrypt;
 import hbnu.project.zhiyanbackend.security.encrypt.config.properties.ApiDecryptProperties;
 import hbnu.project.zhiyanbackend.security.encrypt.config.properties.EncryptorProperties;
+import hbnu.project.zhiyanbackend.security.encrypt.core.CryptoSessionManager;
 import hbnu.project.zhiyanbackend.security.encrypt.core.EncryptorManager;
+import hbnu.project.zhiyanbackend.security.encrypt.core.FieldEncryptScope;
 import hbnu.project.zhiyanbackend.security.encrypt.utils.FieldEncryptUtils;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,8 +21,11 @@ import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.HandlerExecutionChain;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
+import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.lang.reflect.Parameter;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BooleanSupplier;
 
 
 /**
@@ -36,15 +41,25 @@ public class CryptoFilter implements Filter {
     private final EncryptorManager encryptorManager;
     private final EncryptorProperties encryptorProperties;
     private final FieldEncryptUtils fieldEncryptUtils;
+    private final CryptoSessionManager cryptoSessionManager;
+    /**
+     * 字段加密是否由 Jackson 模块在序列化时完成，为 true 时不再对请求/响应 JSON 做二次解析；
+     * 取决于 MVC 初始化时 JSON 转换器是否替换成功，因此按请求读取
+     */
+    private final BooleanSupplier inlineFieldEncrypt;
 
     public CryptoFilter(ApiDecryptProperties properties, 
                        EncryptorManager encryptorManager,
                        EncryptorProperties encryptorProperties,
-                       FieldEncryptUtils fieldEncryptUtils) {
+                       FieldEncryptUtils fieldEncryptUtils,
+                       CryptoSessionManager cryptoSessionManager,
+                       BooleanSupplier inlineFieldEncrypt) {
         this.properties = properties;
         this.encryptorManager = encryptorManager;
         this.encryptorProperties = encryptorProperties;
         this.fieldEncryptUtils = fieldEncryptUtils;
+        this.cryptoSessionManager = cryptoSessionManager;
+        this.inlineFieldEncrypt = inlineFieldEncrypt;
     }
 
     @Override
@@ -71,6 +86,8 @@ public class CryptoFilter implements Filter {
         ServletRequest requestWrapper = null;
         ServletResponse responseWrapper = null;
         EncryptResponseBodyWrapper responseBodyWrapper = null;
+        boolean inline = mode == ApiEncrypt.EncryptMode.FIELD && inlineFieldEncrypt.getAsBoolean();
+        FieldEncryptUtils reparseUtils = inline ? null : fieldEncryptUtils;
 
         // 处理请求解密
         if (requestFlag && (HttpMethod.PUT.matches(servletRequest.getMethod()) || 
@@ -90,6 +107,13 @@ public class CryptoFilter implements Filter {
                         new ServiceException("没有访问权限，请联系管理员授权", HttpStatus.FORBIDDEN));
                     return;
                 }
+            } else if (inline) {
+                // 字段加密模式（序列化时解密字段）：只需处理整体加密
+                if (StringUtils.isNotBlank(servletRequest.getHeader(properties.getHeaderFlag()))) {
+                    requestWrapper = new DecryptRequestBodyWrapper(
+                        servletRequest, properties.getPrivateKey(), properties.getHeaderFlag(),
+                        null, null);
+                }
             } else {
                 // 字段加密模式
                 Class<?> requestBodyClass = getRequestBodyClass(handlerMethod);
@@ -99,14 +123,32 @@ public class CryptoFilter implements Filter {
             }
         }
 
+        // 携带会话ID时使用协商好的会话密钥加密响应
+        String sessionId = responseFlag ? servletRequest.getHeader(properties.getSessionHeader()) : null;
+        if (StringUtils.isNotBlank(sessionId)) {
+            SecretKey sessionKey = cryptoSessionManager.getKey(sessionId, servletRequest);
+            if (sessionKey == null) {
+                HandlerExceptionResolver exceptionResolver = SpringUtils.getBean("handlerExceptionResolver", HandlerExceptionResolver.class);
+                exceptionResolver.resolveException(
+                    servletRequest, servletResponse, null,
+                    new ServiceException("加密会话不存在或已过期，请重新协商", HttpStatus.PRECONDITION_FAILED));
+                return;
+            }
+            openScope(request, inline, requestFlag, true);
+            doFilterWithSession(ObjectUtil.defaultIfNull(requestWrapper, request), servletResponse, chain,
+                mode, inline, handlerMethod, sessionKey, sessionId);
+            return;
+        }
+
         // 处理响应加密
         if (responseFlag) {
             Class<?> responseBodyClass = getResponseBodyClass(handlerMethod);
             responseBodyWrapper = new EncryptResponseBodyWrapper(
-                servletResponse, mode, fieldEncryptUtils, responseBodyClass);
+                servletResponse, mode, reparseUtils, responseBodyClass);
             responseWrapper = responseBodyWrapper;
         }
 
+        openScope(request, inline, requestFlag, responseFlag);
         chain.doFilter(
             ObjectUtil.defaultIfNull(requestWrapper, request),
             ObjectUtil.defaultIfNull(responseWrapper, response));
@@ -128,6 +170,39 @@ public class CryptoFilter implements Filter {
         }
     }
 
+    /**
+     * 在请求上记录字段加密作用域，仅字段加密由 Jackson 模块完成时需要；
+     * 只有读写请求体/响应体的消息转换器会读取，处理器内部的序列化不受影响
+     */
+    private void openScope(ServletRequest request, boolean inline, boolean requestFlag, boolean responseFlag) {
+        if (inline) {
+            FieldEncryptScope.open(request, requestFlag, responseFlag);
+        }
+    }
+
+    /**
+     * 会话密钥模式
+     * 全量加密时响应边写边加密；字段加密由 Jackson 模块完成时同样边写边加密，
+     * 否则需要完整的 JSON 做字段加密，先缓存再整体加密输出
+     */
+    private void doFilterWithSession(ServletRequest request, HttpServletResponse servletResponse, FilterChain chain,
+                                     ApiEncrypt.EncryptMode mode, boolean inline, HandlerMethod handlerMethod,
+                                     SecretKey sessionKey, String sessionId) throws IOException, ServletException {
+        SessionEncryptResponseWrapper sessionWrapper = new SessionEncryptResponseWrapper(
+            servletResponse, sessionKey, sessionId, properties.getIvHeader());
+        if (mode == ApiEncrypt.EncryptMode.FULL || inline) {
+            chain.doFilter(request, sessionWrapper);
+        } else {
+            EncryptResponseBodyWrapper fieldWrapper = new EncryptResponseBodyWrapper(
+                servletResponse, mode, fieldEncryptUtils, getResponseBodyClass(handlerMethod));
+            chain.doFilter(request, fieldWrapper);
+            // 与原模式一致，丢弃下游按明文设置的响应头
+            sessionWrapper.reset();
+            sessionWrapper.getOutputStream().write(fieldWrapper.getFieldEncryptedBody().getBytes(StandardCharsets.UTF_8));
+        }
+        sessionWrapper.finish();
+    }
+
     /**
      * 获取HandlerMethod信息
      */
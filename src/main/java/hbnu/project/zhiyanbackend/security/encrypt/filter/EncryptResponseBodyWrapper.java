@@ -118,15 +118,8 @@ public class EncryptResponseBodyWrapper extends HttpServletResponseWrapper {
      * @return 加密内容
      */
     public String getFieldEncryptContent(HttpServletResponse servletResponse, String publicKey, String headerFlag) throws IOException {
-        // 获取原始内容
-        String originalBody = this.getContent();
-        
-        // 对字段进行加密
-        String fieldEncryptedBody = originalBody;
-        if (fieldEncryptUtils != null && responseBodyClass != null) {
-            fieldEncryptedBody = fieldEncryptUtils.encryptResponseFields(originalBody, responseBodyClass);
-        }
-        
+        String fieldEncryptedBody = getFieldEncryptedBody();
+
         // 生成秘钥
         String aesPassword = RandomUtil.randomString(32);
         // 秘钥使用 Base64 编码
@@ -142,6 +135,22 @@ public class EncryptResponseBodyWrapper extends HttpServletResponseWrapper {
         return EncryptUtils.encryptByAes(fieldEncryptedBody, aesPassword);
     }
 
+    /**
+     * 获取字段加密后的内容（整体未加密）
+     *
+     * @return 字段加密后的 JSON
+     */
+    public String getFieldEncryptedBody() throws IOException {
+        // 获取原始内容
+        String originalBody = this.getContent();
+
+        // 对字段进行加密
+        if (fieldEncryptUtils != null && responseBodyClass != null) {
+            return fieldEncryptUtils.encryptResponseFields(originalBody, responseBodyClass);
+        }
+        return originalBody;
+    }
+
     @Override
     public ServletOutputStream getOutputStream() throws IOException {
         return new ServletOutputStream() {
@@ -0,0 +1,193 @@
+package hbnu.project.zhiyanbackend.security.encrypt.filter;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.MediaType;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 会话密钥加密响应包装类
+ * 响应体经 AES-256-GCM 边写边加密后直接输出，不缓存完整响应体。
+ * 响应体为原始密文（含 16 字节认证标签），IV 放在响应头中，会话ID作为附加认证数据。
+ *
+ * @author ErgouTree
+ */
+public class SessionEncryptResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int TAG_BITS = 128;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Cipher cipher;
+
+    private final String ivHeader;
+
+    private final String encodedIv;
+
+    private OutputStream cipherStream;
+
+    private ServletOutputStream outputStream;
+
+    private PrintWriter printWriter;
+
+    /**
+     * 构造方法
+     *
+     * @param response  响应对象
+     * @param key       会话密钥
+     * @param sessionId 会话ID
+     * @param ivHeader  IV 响应头
+     */
+    public SessionEncryptResponseWrapper(HttpServletResponse response, SecretKey key,
+                                         String sessionId, String ivHeader) throws IOException {
+        super(response);
+        this.ivHeader = ivHeader;
+        // 同一会话密钥下每个响应使用新的随机 IV
+        byte[] iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+        this.encodedIv = Base64.getEncoder().encodeToString(iv);
+        try {
+            this.cipher = Cipher.getInstance(TRANSFORMATION);
+            this.cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            this.cipher.updateAAD(sessionId.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IOException("初始化响应加密失败", e);
+        }
+        writeHeaders();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (outputStream == null) {
+            OutputStream target = cipherStream();
+            outputStream = new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    throw new UnsupportedOperationException("加密响应不支持异步写出");
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    target.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    target.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    target.flush();
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (printWriter == null) {
+            printWriter = new PrintWriter(new OutputStreamWriter(cipherStream(), StandardCharsets.UTF_8));
+        }
+        return printWriter;
+    }
+
+    /**
+     * 下游写入的是明文长度，密文多出 GCM 认证标签
+     */
+    @Override
+    public void setContentLength(int len) {
+        super.setContentLengthLong(len + TAG_BITS / 8L);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        super.setContentLengthLong(len + TAG_BITS / 8L);
+    }
+
+    /**
+     * 响应体始终为密文，忽略下游设置的内容类型
+     */
+    @Override
+    public void setContentType(String type) {
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (printWriter != null) {
+            printWriter.flush();
+        }
+        if (cipherStream != null) {
+            cipherStream.flush();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void reset() {
+        if (cipherStream != null) {
+            throw new IllegalStateException("加密响应已开始输出，无法重置");
+        }
+        super.reset();
+        writeHeaders();
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (cipherStream != null) {
+            throw new IllegalStateException("加密响应已开始输出，无法重置");
+        }
+        super.resetBuffer();
+    }
+
+    /**
+     * 结束加密并写出认证标签，过滤器在请求处理完成后调用
+     */
+    public void finish() throws IOException {
+        if (printWriter != null) {
+            printWriter.flush();
+        }
+        cipherStream().close();
+    }
+
+    private OutputStream cipherStream() {
+        if (cipherStream == null) {
+            try {
+                cipherStream = new CipherOutputStream(getResponse().getOutputStream(), cipher);
+            } catch (IOException e) {
+                throw new IllegalStateException("获取响应输出流失败", e);
+            }
+        }
+        return cipherStream;
+    }
+
+    private void writeHeaders() {
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        response.setHeader(ivHeader, encodedIv);
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    }
+}
@@ -0,0 +1,75 @@
+package hbnu.project.zhiyanbackend.security.encrypt.jackson;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 把 MVC 的 Jackson 2 JSON 转换器换成 {@link EncryptFieldHttpMessageConverter}，并记录是否真正替换成功
+ * <p>
+ * {@link EncryptFieldModule} 只注册在 Jackson 2 的 ObjectMapper 上；MVC 使用 Jackson 3 转换器
+ * （JacksonJsonHttpMessageConverter）时找不到可替换的转换器，此时 {@link #isInstalled()} 为 false，
+ * 过滤器需要继续按 JSON 二次解析的方式加解密字段，否则字段会以明文输出。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+public class EncryptFieldConverterInstaller implements WebMvcConfigurer {
+
+    /**
+     * 容器中是否注册了 {@link EncryptFieldModule}
+     */
+    private final BooleanSupplier moduleRegistered;
+
+    private volatile boolean installed;
+
+    public EncryptFieldConverterInstaller(BooleanSupplier moduleRegistered) {
+        this.moduleRegistered = moduleRegistered;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        if (!moduleRegistered.getAsBoolean()) {
+            return;
+        }
+        boolean replaced = install(converters);
+        if (!replaced) {
+            log.warn("JSON 转换器不是 Jackson 2 转换器，@EncryptField 字段加解密回退为解析 JSON 处理");
+        }
+        installed = replaced;
+    }
+
+    /**
+     * 替换转换器列表中的 Jackson 2 JSON 转换器
+     *
+     * @param converters 转换器列表
+     * @return 写出 JSON 对象时首先选中的转换器是否为 {@link EncryptFieldHttpMessageConverter}
+     */
+    static boolean install(List<HttpMessageConverter<?>> converters) {
+        HttpMessageConverter<?> selected = null;
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter converter
+                    && !(converter instanceof EncryptFieldHttpMessageConverter)) {
+                converters.set(i, new EncryptFieldHttpMessageConverter(converter.getObjectMapper()));
+            }
+            if (selected == null && converters.get(i).canWrite(HashMap.class, MediaType.APPLICATION_JSON)) {
+                selected = converters.get(i);
+            }
+        }
+        // 排在前面的其他 JSON 转换器（如 Jackson 3）会先被选中，替换了也不生效
+        return selected instanceof EncryptFieldHttpMessageConverter;
+    }
+
+    /**
+     * 字段加解密是否已由消息转换器在序列化时完成
+     */
+    public boolean isInstalled() {
+        return installed;
+    }
+}
@@ -0,0 +1,39 @@
+package hbnu.project.zhiyanbackend.security.encrypt.jackson;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import hbnu.project.zhiyanbackend.security.encrypt.core.FieldEncryptScope;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * 支持字段加密的 JSON 消息转换器
+ * 只在读写请求体/响应体时，按 {@link FieldEncryptScope} 为本次使用的 ObjectReader/ObjectWriter 附加
+ * {@link EncryptFieldModule} 的加解密属性，同一个 ObjectMapper 的其他用法不受影响。
+ *
+ * @author ErgouTree
+ */
+public class EncryptFieldHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public EncryptFieldHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected ObjectReader customizeReader(ObjectReader reader, JavaType javaType) {
+        ObjectReader customized = super.customizeReader(reader, javaType);
+        return FieldEncryptScope.isDecryptRequest()
+                ? customized.withAttribute(EncryptFieldModule.DECRYPT_REQUEST, Boolean.TRUE)
+                : customized;
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType mediaType) {
+        ObjectWriter customized = super.customizeWriter(writer, javaType, mediaType);
+        return FieldEncryptScope.isEncryptResponse()
+                ? customized.withAttribute(EncryptFieldModule.ENCRYPT_RESPONSE, Boolean.TRUE)
+                : customized;
+    }
+}
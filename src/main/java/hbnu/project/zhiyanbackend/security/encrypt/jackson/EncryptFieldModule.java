@@ -0,0 +1,170 @@
+package hbnu.project.zhiyanbackend.security.encrypt.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import hbnu.project.zhiyanbackend.security.encrypt.annotation.EncryptField;
+import hbnu.project.zhiyanbackend.security.encrypt.config.properties.EncryptorProperties;
+import hbnu.project.zhiyanbackend.security.encrypt.core.EncryptContext;
+import hbnu.project.zhiyanbackend.security.encrypt.core.EncryptorManager;
+import hbnu.project.zhiyanbackend.security.encrypt.core.IEncryptor;
+import hbnu.project.zhiyanbackend.security.encrypt.enumd.EncodeType;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * {@code @EncryptField} 字段的 Jackson 模块
+ * 在构建 Bean 序列化器/反序列化器时为标注的 String 属性换上加解密的值处理器，
+ * 响应序列化时直接写出密文、请求反序列化时直接还原明文，不再对整个 JSON 做 readTree 再写回。
+ * 每个属性的加密器在构建时解析一次，随序列化器一起被 ObjectMapper 缓存。
+ * <p>
+ * 只有本次读写的 ObjectReader/ObjectWriter 带有 {@link #DECRYPT_REQUEST}/{@link #ENCRYPT_RESPONSE} 属性时才会加解密，
+ * 该属性只由 {@link EncryptFieldHttpMessageConverter} 在读写请求体/响应体时附加，其余场景按普通字符串处理。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+public class EncryptFieldModule extends SimpleModule {
+
+    /**
+     * Jackson 属性：为 {@link Boolean#TRUE} 时解密请求字段
+     */
+    public static final String DECRYPT_REQUEST = EncryptFieldModule.class.getName() + ".decryptRequest";
+
+    /**
+     * Jackson 属性：为 {@link Boolean#TRUE} 时加密响应字段
+     */
+    public static final String ENCRYPT_RESPONSE = EncryptFieldModule.class.getName() + ".encryptResponse";
+
+    private final transient EncryptorManager encryptorManager;
+
+    private final transient EncryptorProperties encryptorProperties;
+
+    public EncryptFieldModule(EncryptorManager encryptorManager, EncryptorProperties encryptorProperties) {
+        super("EncryptFieldModule");
+        this.encryptorManager = encryptorManager;
+        this.encryptorProperties = encryptorProperties;
+        setSerializerModifier(new EncryptSerializerModifier());
+        setDeserializerModifier(new DecryptDeserializerModifier());
+    }
+
+    private EncryptContext contextOf(EncryptField encryptField) {
+        return EncryptContext.of(encryptField, encryptorProperties);
+    }
+
+    /**
+     * 为需要加密响应的属性指定加密序列化器
+     */
+    private class EncryptSerializerModifier extends BeanSerializerModifier {
+
+        @Override
+        public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                         List<BeanPropertyWriter> beanProperties) {
+            for (BeanPropertyWriter writer : beanProperties) {
+                EncryptField encryptField = writer.getAnnotation(EncryptField.class);
+                if (encryptField == null || !encryptField.encryptResponse()
+                        || !writer.getType().hasRawClass(String.class) || writer.hasSerializer()) {
+                    continue;
+                }
+                EncryptContext context = contextOf(encryptField);
+                writer.assignSerializer(new EncryptSerializer(
+                        encryptorManager.registAndGetEncryptor(context), context.getEncode()));
+                log.debug("字段加密序列化: {}.{}", beanDesc.getBeanClass().getSimpleName(), writer.getName());
+            }
+            return beanProperties;
+        }
+    }
+
+    /**
+     * 为需要解密请求的属性指定解密反序列化器
+     */
+    private class DecryptDeserializerModifier extends BeanDeserializerModifier {
+
+        @Override
+        public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc,
+                                                     BeanDeserializerBuilder builder) {
+            List<SettableBeanProperty> replacements = new ArrayList<>();
+            Iterator<SettableBeanProperty> properties = builder.getProperties();
+            while (properties.hasNext()) {
+                SettableBeanProperty property = properties.next();
+                EncryptField encryptField = property.getAnnotation(EncryptField.class);
+                if (encryptField == null || !encryptField.decryptRequest()
+                        || !property.getType().hasRawClass(String.class) || property.hasValueDeserializer()) {
+                    continue;
+                }
+                IEncryptor encryptor = encryptorManager.registAndGetEncryptor(contextOf(encryptField));
+                replacements.add(property.withValueDeserializer(new DecryptDeserializer(encryptor)));
+            }
+            for (SettableBeanProperty replacement : replacements) {
+                builder.addOrReplaceProperty(replacement, true);
+            }
+            return builder;
+        }
+    }
+
+    /**
+     * 加密序列化器
+     */
+    private static final class EncryptSerializer extends StdSerializer<Object> {
+
+        private final transient IEncryptor encryptor;
+
+        private final EncodeType encode;
+
+        private EncryptSerializer(IEncryptor encryptor, EncodeType encode) {
+            super(String.class, false);
+            this.encryptor = encryptor;
+            this.encode = encode;
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            String text = (String) value;
+            if (Boolean.TRUE.equals(provider.getAttribute(ENCRYPT_RESPONSE)) && StringUtils.isNotBlank(text)) {
+                gen.writeString(encryptor.encrypt(text, encode));
+            } else {
+                gen.writeString(text);
+            }
+        }
+    }
+
+    /**
+     * 解密反序列化器
+     */
+    private static final class DecryptDeserializer extends StdScalarDeserializer<String> {
+
+        private final transient IEncryptor encryptor;
+
+        private DecryptDeserializer(IEncryptor encryptor) {
+            super(String.class);
+            this.encryptor = encryptor;
+        }
+
+        @Override
+        public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            String value = StringDeserializer.instance.deserialize(p, ctxt);
+            if (Boolean.TRUE.equals(ctxt.getAttribute(DECRYPT_REQUEST)) && StringUtils.isNotBlank(value)) {
+                return encryptor.decrypt(value);
+            }
+            return value;
+        }
+    }
+}
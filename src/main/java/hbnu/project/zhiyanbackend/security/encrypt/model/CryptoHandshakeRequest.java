@@ -0,0 +1,25 @@
+package hbnu.project.zhiyanbackend.security.encrypt.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+
+/**
+ * 加密会话协商请求
+ *
+ * @author ErgouTree
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "加密会话协商请求体")
+public class CryptoHandshakeRequest {
+
+    /**
+     * 客户端一次性 P-256 公钥（X.509 编码后 Base64）
+     */
+    @NotBlank(message = "客户端公钥不能为空")
+    @Schema(description = "客户端 P-256 公钥，X.509 编码后 Base64", required = true)
+    private String clientPublicKey;
+}
@@ -0,0 +1,43 @@
+package hbnu.project.zhiyanbackend.security.encrypt.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+/**
+ * 加密会话协商结果
+ *
+ * @author ErgouTree
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "加密会话协商结果")
+public class CryptoHandshakeResponse {
+
+    /**
+     * 会话ID，后续请求通过请求头携带
+     */
+    @Schema(description = "会话ID")
+    private String sessionId;
+
+    /**
+     * 服务端一次性 P-256 公钥（X.509 编码后 Base64）
+     */
+    @Schema(description = "服务端 P-256 公钥，X.509 编码后 Base64")
+    private String serverPublicKey;
+
+    /**
+     * 有效期（秒）
+     */
+    @Schema(description = "有效期（秒）")
+    private Long expiresIn;
+
+    /**
+     * 服务端 RSA 私钥对协商结果的签名（SHA256withRSA，Base64），
+     * 客户端须用预置公钥验签通过后再使用会话，签名内容见 CryptoSessionManager#signedContent
+     */
+    @Schema(description = "协商结果签名，SHA256withRSA 后 Base64，客户端用预置公钥验签")
+    private String signature;
+}
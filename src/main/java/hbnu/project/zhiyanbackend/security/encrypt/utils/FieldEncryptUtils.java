@@ -4,8 +4,6 @@ import hbnu.project.zhiyanbackend.security.encrypt.annotation.EncryptField;
 import hbnu.project.zhiyanbackend.security.encrypt.config.properties.EncryptorProperties;
 import hbnu.project.zhiyanbackend.security.encrypt.core.EncryptContext;
 import hbnu.project.zhiyanbackend.security.encrypt.core.EncryptorManager;
-import hbnu.project.zhiyanbackend.security.encrypt.enumd.AlgorithmType;
-import hbnu.project.zhiyanbackend.security.encrypt.enumd.EncodeType;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -190,7 +188,7 @@ public class FieldEncryptUtils {
             return value;
         }
 
-        EncryptContext encryptContext = buildEncryptContext(encryptField);
+        EncryptContext encryptContext = EncryptContext.of(encryptField, encryptorProperties);
         return encryptorManager.decrypt(value, encryptContext);
     }
 
@@ -202,41 +200,7 @@ public class FieldEncryptUtils {
             return value;
         }
 
-        EncryptContext encryptContext = buildEncryptContext(encryptField);
+        EncryptContext encryptContext = EncryptContext.of(encryptField, encryptorProperties);
         return encryptorManager.encrypt(value, encryptContext);
     }
-
-    /**
-     * 构建加密上下文
-     */
-    private EncryptContext buildEncryptContext(EncryptField encryptField) {
-        EncryptContext context = new EncryptContext();
-
-        // 算法
-        AlgorithmType algorithm = encryptField.algorithm() == AlgorithmType.DEFAULT
-                ? encryptorProperties.getAlgorithm() : encryptField.algorithm();
-        context.setAlgorithm(algorithm);
-
-        // 编码方式
-        EncodeType encode = encryptField.encode() == EncodeType.DEFAULT
-                ? encryptorProperties.getEncode() : encryptField.encode();
-        context.setEncode(encode);
-
-        // 密钥
-        String password = StringUtils.isBlank(encryptField.password())
-                ? encryptorProperties.getPassword() : encryptField.password();
-        context.setPassword(password);
-
-        // 公钥
-        String publicKey = StringUtils.isBlank(encryptField.publicKey())
-                ? encryptorProperties.getPublicKey() : encryptField.publicKey();
-        context.setPublicKey(publicKey);
-
-        // 私钥
-        String privateKey = StringUtils.isBlank(encryptField.privateKey())
-                ? encryptorProperties.getPrivateKey() : encryptField.privateKey();
-        context.setPrivateKey(privateKey);
-
-        return context;
-    }
 }
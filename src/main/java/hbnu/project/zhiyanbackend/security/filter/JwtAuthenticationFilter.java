@@ -2,11 +2,10 @@ package hbnu.project.zhiyanbackend.security.filter;
 
 import hbnu.project.zhiyanbackend.auth.service.AuthService;
 import hbnu.project.zhiyanbackend.auth.service.impl.AuthUserDetailsServiceImpl;
-import hbnu.project.zhiyanbackend.basic.constants.TokenConstants;
-import hbnu.project.zhiyanbackend.basic.utils.JwtUtils;
+import hbnu.project.zhiyanbackend.auth.utils.JwtTokenVerifier;
+import hbnu.project.zhiyanbackend.auth.utils.JwtTokenVerifier.VerifiedClaims;
 import hbnu.project.zhiyanbackend.security.context.LoginUserBody;
 import hbnu.project.zhiyanbackend.security.context.SecurityContextHolder;
-import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -56,7 +55,7 @@ import java.util.Optional;
 // 继承OncePerRequestFilter，确保每个请求只被过滤一次
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtils jwtUtils;
+    private final JwtTokenVerifier jwtTokenVerifier;
     private final AuthService authService;
     private final AuthUserDetailsServiceImpl authUserDetailsService;
 
@@ -118,56 +117,52 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 token = extractTokenFromHeader(request);
             }
 
-            // 1.2 检查JWT token是否存在且有效
-            if (StringUtils.isNotBlank(token) && jwtUtils.validateToken(token)) {
+            // 1.2 校验JWT token签名和有效期（同一token只验签一次，结果缓存到过期）
+            VerifiedClaims claims = StringUtils.isNotBlank(token) ? jwtTokenVerifier.verify(token) : null;
+            if (claims != null) {
                 
                 // 1.3 检查token是否在黑名单中（关键安全检查）
-                if (authService.isTokenBlacklisted(token)) {
+                if (jwtTokenVerifier.isRevoked(token, claims)) {
                     log.debug("Token已在黑名单中，拒绝认证: {}", maskToken(token));
                     clearSecurityContext();
                     filterChain.doFilter(request, response);
                     return;
                 }
 
-                // 1.4 解析token获取用户信息
-                Claims claims = jwtUtils.getClaims(token);
-                if (claims != null) {
-                    // 1.5 从token的载荷(claims)中提取用户信息
-                    String userIdStr = String.valueOf(claims.get(TokenConstants.JWT_CLAIM_USER_ID));
-                    // 从Subject中获取邮箱
-                    String email = claims.getSubject();
-                    String rolesStr = (String) claims.get(TokenConstants.JWT_CLAIM_ROLES);
-                    
-                    // 1.6 验证提取的用户信息是否有效
-                    if (StringUtils.isNotBlank(userIdStr) && StringUtils.isNotBlank(email)) {
-                        try {
-                            Long userId = Long.valueOf(userIdStr);
-                            
-                            // 1.7 从数据库加载完整用户信息（包含角色、权限等）
-                            // 使用AuthUserDetailsService加载完整用户信息，而不是仅从token中获取
-                            UserDetails userDetails = authUserDetailsService.loadUserById(userId);
-                            
-                            if (userDetails instanceof LoginUserBody loginUser) {
+                // 1.4 从已校验的声明中提取用户信息
+                String userIdStr = claims.userId();
+                // 从Subject中获取邮箱
+                String email = claims.subject();
+                
+                // 1.5 验证提取的用户信息是否有效
+                if (StringUtils.isNotBlank(userIdStr) && StringUtils.isNotBlank(email)) {
+                    try {
+                        Long userId = Long.valueOf(userIdStr);
+                        
+                        // 1.6 从数据库加载完整用户信息（包含角色、权限等）
+                        // 使用AuthUserDetailsService加载完整用户信息，而不是仅从token中获取
+                        UserDetails userDetails = authUserDetailsService.loadUserById(userId);
+                        
+                        if (userDetails instanceof LoginUserBody loginUser) {
 
-                                // 1.8 设置到Spring Security上下文和自定义上下文
-                                setAuthenticationContext(loginUser, request);
-                                
-                                authenticated = true;
-                                log.info("JWT认证成功 - 用户ID: {}, 邮箱: {}, 角色数: {}",
-                                        userId, email, loginUser.getRoles() != null ? loginUser.getRoles().size() : 0);
-                            } else {
-                                log.warn("加载的用户详情不是LoginUserBody类型 - userId: {}", userId);
-                            }
-                        } catch (NumberFormatException e) {
-                            log.warn("用户ID格式错误: {}", userIdStr);
-                        } catch (UsernameNotFoundException e) {
-                            log.warn("用户不存在: {}", e.getMessage());
-                        } catch (Exception e) {
-                            log.error("加载用户详情失败 - userId: {}", userIdStr, e);
+                            // 1.7 设置到Spring Security上下文和自定义上下文
+                            setAuthenticationContext(loginUser, request);
+                            
+                            authenticated = true;
+                            log.info("JWT认证成功 - 用户ID: {}, 邮箱: {}, 角色数: {}",
+                                    userId, email, loginUser.getRoles() != null ? loginUser.getRoles().size() : 0);
+                        } else {
+                            log.warn("加载的用户详情不是LoginUserBody类型 - userId: {}", userId);
                         }
-                    } else {
-                        log.debug("Token中缺少必要的用户信息 - userId: {}, email: {}", userIdStr, email);
+                    } catch (NumberFormatException e) {
+                        log.warn("用户ID格式错误: {}", userIdStr);
+                    } catch (UsernameNotFoundException e) {
+                        log.warn("用户不存在: {}", e.getMessage());
+                    } catch (Exception e) {
+                        log.error("加载用户详情失败 - userId: {}", userIdStr, e);
                     }
+                } else {
+                    log.debug("Token中缺少必要的用户信息 - userId: {}, email: {}", userIdStr, email);
                 }
             }
             
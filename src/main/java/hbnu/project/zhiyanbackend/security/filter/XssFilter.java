@@ -2,6 +2,7 @@ package hbnu.project.zhiyanbackend.security.filter;
 
 import hbnu.project.zhiyanbackend.basic.utils.SpringUtils;
 import hbnu.project.zhiyanbackend.security.config.properties.XssProperties;
+import hbnu.project.zhiyanbackend.security.xss.XssExclude;
 
 import cn.hutool.core.text.AntPathMatcher;
 import jakarta.servlet.*;
@@ -10,9 +11,16 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.HttpMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -42,11 +50,37 @@ public class XssFilter implements Filter {
             return;
         }
 
+        // 接口级白名单：未指定字段时整个请求放行
+        XssExclude xssExclude = getXssExclude(req);
+        if (xssExclude != null && xssExclude.fields().length == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Set<String> excludeFields = xssExclude == null
+                ? Collections.emptySet()
+                : new HashSet<>(Arrays.asList(xssExclude.fields()));
+
         // 确保传入的是jakarta.servlet.http.HttpServletRequest类型
-        XssHttpServletRequestWrapper xssRequest = new XssHttpServletRequestWrapper(req);
+        XssHttpServletRequestWrapper xssRequest = new XssHttpServletRequestWrapper(req, excludeFields);
         chain.doFilter(xssRequest, response);
     }
 
+    /**
+     * 获取接口方法上的 {@link XssExclude} 注解
+     */
+    private XssExclude getXssExclude(HttpServletRequest request) {
+        RequestMappingHandlerMapping handlerMapping = SpringUtils.getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+        try {
+            HandlerExecutionChain mappingHandler = handlerMapping.getHandler(request);
+            if (mappingHandler != null && mappingHandler.getHandler() instanceof HandlerMethod handlerMethod) {
+                return handlerMethod.getMethodAnnotation(XssExclude.class);
+            }
+        } catch (Exception e) {
+            // 无法匹配接口时按未标注处理
+        }
+        return null;
+    }
+
 
     private boolean handleExcludeURL(HttpServletRequest request, HttpServletResponse response) {
         // 未启用XSS防护
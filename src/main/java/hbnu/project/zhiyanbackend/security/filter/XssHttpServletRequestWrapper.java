@@ -1,10 +1,8 @@
 package hbnu.project.zhiyanbackend.security.filter;
 
-import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.ArrayUtil;
-import cn.hutool.core.util.StrUtil;
-import cn.hutool.http.HtmlUtil;
+import hbnu.project.zhiyanbackend.security.xss.XssCleaner;
 
 import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletInputStream;
@@ -14,11 +12,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * XSS过滤处理
@@ -27,11 +26,27 @@ import java.util.Map;
  * @modify ErgouTree
  */
 public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
+    /**
+     * 不做清理的 JSON 字段名
+     */
+    private final Set<String> excludeFields;
+
+    private ServletInputStream cleanedInputStream;
+
     /**
      * @param request
      */
     public XssHttpServletRequestWrapper(HttpServletRequest request) {
+        this(request, Collections.emptySet());
+    }
+
+    /**
+     * @param request       请求
+     * @param excludeFields 不做清理的 JSON 字段名
+     */
+    public XssHttpServletRequestWrapper(HttpServletRequest request, Set<String> excludeFields) {
         super(request);
+        this.excludeFields = excludeFields;
     }
 
     @Override
@@ -40,7 +55,7 @@ public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
         if (value == null) {
             return null;
         }
-        return HtmlUtil.cleanHtmlTag(value).trim();
+        return cleanXss(value);
     }
 
     @Override
@@ -74,7 +89,7 @@ public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
         String[] escapseValues = new String[length];
         for (int i = 0; i < length; i++) {
             // 防xss攻击和过滤前后空格
-            escapseValues[i] = HtmlUtil.cleanHtmlTag(values[i]).trim();
+            escapseValues[i] = cleanXss(values[i]);
         }
         return escapseValues;
     }
@@ -85,45 +100,18 @@ public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
         if (!isJsonRequest()) {
             return super.getInputStream();
         }
-
-        // 读取原始请求体（只读取一次）
-        String body = StrUtil.str(IoUtil.readBytes(super.getInputStream(), false), StandardCharsets.UTF_8);
-        if (StrUtil.isBlank(body)) {
-            // 如果请求体为空，返回空的输入流
-            byte[] emptyBytes = new byte[0];
-            ByteArrayInputStream emptyStream = new ByteArrayInputStream(emptyBytes);
-            return new ServletInputStream() {
-                @Override
-                public boolean isFinished() {
-                    return emptyStream.available() == 0;
-                }
-
-                @Override
-                public boolean isReady() {
-                    return true;
-                }
-
-                @Override
-                public void setReadListener(ReadListener readListener) {
-                    // 不需要实现
-                }
-
-                @Override
-                public int read() {
-                    return emptyStream.read();
-                }
-            };
+        if (cleanedInputStream != null) {
+            return cleanedInputStream;
         }
 
-        // xss过滤,清理XSS并返回新的流
-        String cleanedBody = cleanXss(body);
-        byte[] bodyBytes = cleanedBody.getBytes(StandardCharsets.UTF_8);
-        ByteArrayInputStream inputStream = new ByteArrayInputStream(bodyBytes);
+        // xss过滤，读取时边解析边清理字符串，不缓存整个请求体
+        InputStream cleaned = XssCleaner.cleanJson(super.getInputStream(), excludeFields);
+        cleanedInputStream = new ServletInputStream() {
+            private boolean finished;
 
-        return new ServletInputStream() {
             @Override
             public boolean isFinished() {
-                return inputStream.available() == 0;
+                return finished;
             }
 
             @Override
@@ -137,10 +125,25 @@ public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
             }
 
             @Override
-            public int read() {
-                return inputStream.read();
+            public int read() throws IOException {
+                int b = cleaned.read();
+                finished = b < 0;
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int count = cleaned.read(b, off, len);
+                finished = count < 0;
+                return count;
+            }
+
+            @Override
+            public void close() throws IOException {
+                cleaned.close();
             }
         };
+        return cleanedInputStream;
     }
 
     /**
@@ -150,7 +153,7 @@ public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
         if (value == null) {
             return null;
         }
-        return HtmlUtil.cleanHtmlTag(value).trim();
+        return XssCleaner.clean(value).trim();
     }
 
     /**
@@ -0,0 +1,179 @@
+package hbnu.project.zhiyanbackend.security.xss;
+
+import cn.hutool.http.HtmlUtil;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+/**
+ * XSS清理
+ * 清理规则与 Hutool {@link HtmlUtil#cleanHtmlTag(String)} 一致。该规则的每个分支都以 {@code <} 开头，
+ * 不含 {@code <} 的字符串原样返回，不进入正则匹配。
+ * <p>
+ * JSON 请求体通过流式解析逐个 token 重写，只清理字符串值和字段名，不把整个请求体读入内存，
+ * 也不会因为跨越多个字段的 {@code <...>} 误删 JSON 结构。
+ *
+ * @author ErgouTree
+ */
+public final class XssCleaner {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private XssCleaner() {
+    }
+
+    /**
+     * 清理HTML标签
+     *
+     * @param value 原始值
+     * @return 清理后的值
+     */
+    public static String clean(String value) {
+        if (value == null || value.indexOf('<') < 0) {
+            return value;
+        }
+        return HtmlUtil.cleanHtmlTag(value);
+    }
+
+    /**
+     * 包装 JSON 输入流，读取时逐段输出清理后的 JSON
+     *
+     * @param source        原始请求体
+     * @param excludeFields 不清理的字段名
+     * @return 清理后的输入流，格式错误的 JSON 在读取时抛出异常
+     */
+    public static InputStream cleanJson(InputStream source, Set<String> excludeFields) throws IOException {
+        return new JsonCleaningInputStream(JSON_FACTORY.createParser(source), excludeFields);
+    }
+
+    /**
+     * 按需从解析器拉取 token 并写入小块缓冲区，缓冲区读完再继续拉取
+     */
+    private static final class JsonCleaningInputStream extends InputStream {
+
+        /**
+         * 每批重写的 token 数
+         */
+        private static final int BATCH_TOKENS = 256;
+
+        private final JsonParser parser;
+
+        private final JsonGenerator generator;
+
+        private final ChunkBuffer buffer = new ChunkBuffer();
+
+        private final Set<String> excludeFields;
+
+        private int position;
+
+        private boolean finished;
+
+        private JsonCleaningInputStream(JsonParser parser, Set<String> excludeFields) throws IOException {
+            this.parser = parser;
+            this.generator = JSON_FACTORY.createGenerator(buffer);
+            this.excludeFields = excludeFields;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return buffer.bytes()[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.size() - position);
+            System.arraycopy(buffer.bytes(), position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.size() - position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            finished = true;
+            parser.close();
+        }
+
+        private boolean fill() throws IOException {
+            while (position >= buffer.size()) {
+                if (finished) {
+                    return false;
+                }
+                buffer.reset();
+                position = 0;
+                copyBatch();
+            }
+            return true;
+        }
+
+        private void copyBatch() throws IOException {
+            for (int i = 0; i < BATCH_TOKENS; i++) {
+                JsonToken token = parser.nextToken();
+                if (token == null) {
+                    finished = true;
+                    generator.close();
+                    parser.close();
+                    return;
+                }
+                switch (token) {
+                    case FIELD_NAME -> generator.writeFieldName(clean(parser.currentName()));
+                    case VALUE_STRING -> generator.writeString(
+                            isExcluded() ? parser.getText() : clean(parser.getText()));
+                    // 数字按原文输出，不经过 double 转换
+                    case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> generator.writeNumber(parser.getText());
+                    default -> generator.copyCurrentEvent(parser);
+                }
+            }
+            generator.flush();
+        }
+
+        /**
+         * 当前字符串值所属字段（数组元素取外层字段）是否在白名单中
+         */
+        private boolean isExcluded() {
+            if (excludeFields.isEmpty()) {
+                return false;
+            }
+            for (JsonStreamContext context = parser.getParsingContext(); context != null; context = context.getParent()) {
+                if (context.inObject()) {
+                    return excludeFields.contains(context.getCurrentName());
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 可直接访问内部数组的输出缓冲区
+     */
+    private static final class ChunkBuffer extends ByteArrayOutputStream {
+
+        ChunkBuffer() {
+            super(8192);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package hbnu.project.zhiyanbackend.security.xss;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * XSS过滤白名单
+ * 标注在接口方法上，请求体中指定名称的 JSON 字段不做HTML标签清理（如 Wiki 的 Markdown 正文）。
+ * 字段名按任意层级匹配，数组中的元素跟随其所在字段；未指定字段时整个请求都不过滤。
+ * 放行的字段应在展示端自行转义或净化。
+ *
+ * @author ErgouTree
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface XssExclude {
+
+    /**
+     * 不做清理的 JSON 字段名
+     */
+    String[] fields() default {};
+}
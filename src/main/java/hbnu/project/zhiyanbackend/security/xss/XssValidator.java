@@ -36,6 +36,10 @@ public class XssValidator implements ConstraintValidator<Xss, String> {
     }
 
     public static boolean containsHtml(String value) {
+        // 正则的每个分支都以 < 开头
+        if (value.indexOf('<') < 0) {
+            return false;
+        }
         return HTML_PATTERN.matcher(value).find();
     }
 }
\ No newline at end of file
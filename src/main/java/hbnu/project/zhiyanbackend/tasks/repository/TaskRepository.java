@@ -97,14 +97,21 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     """)
     List<Task> findByIdsWithExecutors(@Param("taskIds") Collection<Long> taskIds);
 
+    /**
+     * 查询截止日期落在指定区间内、仍需提醒的任务
+     * 条件与部分索引 idx_tasks_due_date_active (due_date) WHERE is_deleted = false AND status <> 'DONE' 保持一致，
+     * 额外限定 TODO / IN_PROGRESS 两种需要提交的状态
+     */
     @Query("""
-        SELECT t FROM Task t 
-        WHERE t.isDeleted = false 
+        SELECT t FROM Task t
+        WHERE t.isDeleted = false
+        AND t.status <> hbnu.project.zhiyanbackend.tasks.model.enums.TaskStatus.DONE
         AND t.status IN (hbnu.project.zhiyanbackend.tasks.model.enums.TaskStatus.TODO, hbnu.project.zhiyanbackend.tasks.model.enums.TaskStatus.IN_PROGRESS)
-        AND t.dueDate IS NOT NULL 
-        AND t.dueDate > :currentDate
+        AND t.dueDate >= :fromDate
+        AND t.dueDate <= :toDate
+        ORDER BY t.dueDate ASC
         """)
-    Page<Task> findTasksForReminder(@Param("currentDate") LocalDateTime currentDate, Pageable pageable);
+    List<Task> findActiveTasksDueBetween(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
 
     long countByProjectIdAndIsDeletedFalse(Long projectId);
 }
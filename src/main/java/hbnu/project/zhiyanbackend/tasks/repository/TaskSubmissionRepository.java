@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -227,4 +228,15 @@ public interface TaskSubmissionRepository extends JpaRepository<TaskSubmission,
      */
     List<TaskSubmission> findByTaskIdInAndIsDeletedFalseOrderByTaskIdAscVersionDesc(List<Long> taskIds);
 
+    /**
+     * 批量查询存在指定审核状态提交记录的任务ID
+     * @param taskIds 任务ID集合
+     * @param reviewStatus 审核状态
+     * @return 任务ID列表
+     */
+    @Query("SELECT DISTINCT s.taskId FROM TaskSubmission s " +
+            "WHERE s.taskId IN (:taskIds) AND s.reviewStatus = :reviewStatus AND s.isDeleted = false")
+    List<Long> findTaskIdsWithReviewStatus(@Param("taskIds") Collection<Long> taskIds,
+                                           @Param("reviewStatus") ReviewStatus reviewStatus);
+
 }
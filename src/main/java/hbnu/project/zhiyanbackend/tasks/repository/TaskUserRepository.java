@@ -11,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +26,9 @@ public interface TaskUserRepository extends JpaRepository<TaskUser, Long> {
     @Query("SELECT tu FROM TaskUser tu WHERE tu.taskId = :taskId AND tu.isActive = true ORDER BY tu.assignedAt ASC")
     List<TaskUser> findActiveExecutorsByTaskId(@Param("taskId") Long taskId);
 
+    @Query("SELECT tu FROM TaskUser tu WHERE tu.taskId IN (:taskIds) AND tu.isActive = true ORDER BY tu.assignedAt ASC")
+    List<TaskUser> findActiveExecutorsByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
     @Query("SELECT tu FROM TaskUser tu WHERE tu.userId = :userId AND tu.isActive = true ORDER BY tu.assignedAt DESC")
     Page<TaskUser> findActiveTasksByUserId(@Param("userId") Long userId, Pageable pageable);
 
@@ -0,0 +1,231 @@
+package hbnu.project.zhiyanbackend.tasks.scheduler;
+
+import java.util.*;
+
+/**
+ * 分层时间轮
+ * 第 0 层每格 tickMs，第 n 层每格 tickMs * wheelSize^n；到期时间超出当前层范围的条目放入上层，
+ * 随时间推进逐层降级，最终在第 0 层到期。调度、取消均为 O(1)，推进按格数线性进行，
+ * 条目最多晚一个 tickMs 返回，不会提前返回。
+ * 非线程安全的内部状态统一由对象锁保护。
+ *
+ * @param <K> 条目键，同一键重复调度时覆盖之前的到期时间
+ * @author Tokito
+ */
+public class HierarchicalTimingWheel<K> {
+
+    private final long tickMs;
+
+    private final int wheelSize;
+
+    private final List<Level<K>> levels = new ArrayList<>();
+
+    /**
+     * 键 -> 条目
+     */
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+
+    /**
+     * 调度时已经到期、等待下一次推进时返回的条目
+     */
+    private final List<K> pendingDue = new ArrayList<>();
+
+    /**
+     * 第 0 层当前时间（已对齐 tickMs）
+     */
+    private long currentTime;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMs 必须大于0且 wheelSize 必须大于1");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+        this.levels.add(new Level<>(tickMs, wheelSize, currentTime));
+    }
+
+    /**
+     * 调度（或重新调度）条目
+     *
+     * @param key      条目键
+     * @param expireAt 到期时间戳（毫秒）
+     */
+    public synchronized void schedule(K key, long expireAt) {
+        cancel(key);
+        // 到期时间向上对齐到 tickMs，保证条目不会早于到期时间返回
+        long remainder = Math.floorMod(expireAt, tickMs);
+        Entry<K> entry = new Entry<>(key, remainder == 0 ? expireAt : expireAt - remainder + tickMs);
+        entries.put(key, entry);
+        place(entry);
+    }
+
+    /**
+     * 取消条目
+     *
+     * @param key 条目键
+     * @return 条目存在并被取消时返回 true
+     */
+    public synchronized boolean cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.level < 0) {
+            pendingDue.remove(key);
+        } else {
+            levels.get(entry.level).buckets[entry.bucket].remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * 推进时间轮到指定时间，返回期间到期的条目键
+     *
+     * @param nowMs 当前时间戳（毫秒）
+     * @return 到期条目键，按到期先后顺序
+     */
+    public synchronized List<K> advanceTo(long nowMs) {
+        List<K> due = new ArrayList<>(pendingDue);
+        pendingDue.clear();
+        due.forEach(entries::remove);
+
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            // 先对齐各层当前时间，再由高层向低层降级，最后处理第 0 层当前格
+            for (Level<K> level : levels) {
+                if (Math.floorMod(currentTime, level.tickMs) == 0) {
+                    level.currentTime = currentTime;
+                }
+            }
+            for (int i = levels.size() - 1; i >= 1; i--) {
+                Level<K> level = levels.get(i);
+                if (level.currentTime != currentTime) {
+                    continue;
+                }
+                for (Entry<K> entry : level.drain(currentTime)) {
+                    place(entry);
+                }
+            }
+            Level<K> root = levels.get(0);
+            for (Entry<K> entry : root.drain(currentTime)) {
+                entries.remove(entry.key);
+                due.add(entry.key);
+            }
+            for (K key : pendingDue) {
+                entries.remove(key);
+                due.add(key);
+            }
+            pendingDue.clear();
+        }
+        return due;
+    }
+
+    /**
+     * 当前挂在时间轮上的条目数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 清空时间轮
+     */
+    public synchronized void clear() {
+        entries.clear();
+        pendingDue.clear();
+        levels.forEach(Level::clear);
+    }
+
+    private void place(Entry<K> entry) {
+        if (entry.expireAt < currentTime + tickMs) {
+            entry.level = -1;
+            pendingDue.add(entry.key);
+            return;
+        }
+        int index = 0;
+        while (true) {
+            Level<K> level = levelAt(index);
+            if (entry.expireAt < level.currentTime + level.tickMs * wheelSize) {
+                entry.level = index;
+                entry.bucket = level.bucketOf(entry.expireAt);
+                level.buckets[entry.bucket].put(entry.key, entry);
+                return;
+            }
+            index++;
+        }
+    }
+
+    private Level<K> levelAt(int index) {
+        while (levels.size() <= index) {
+            Level<K> lower = levels.get(levels.size() - 1);
+            long levelTick = lower.tickMs * wheelSize;
+            levels.add(new Level<>(levelTick, wheelSize, currentTime - Math.floorMod(currentTime, levelTick)));
+        }
+        return levels.get(index);
+    }
+
+    /**
+     * 时间轮中的一层
+     */
+    private static final class Level<K> {
+
+        private final long tickMs;
+
+        private final Map<K, Entry<K>>[] buckets;
+
+        private long currentTime;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tickMs, int wheelSize, long currentTime) {
+            this.tickMs = tickMs;
+            this.currentTime = currentTime;
+            this.buckets = new Map[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new LinkedHashMap<>();
+            }
+        }
+
+        private int bucketOf(long expireAt) {
+            return (int) Math.floorMod(expireAt / tickMs, (long) buckets.length);
+        }
+
+        private List<Entry<K>> drain(long time) {
+            Map<K, Entry<K>> bucket = buckets[bucketOf(time)];
+            if (bucket.isEmpty()) {
+                return List.of();
+            }
+            List<Entry<K>> drained = new ArrayList<>(bucket.values());
+            bucket.clear();
+            return drained;
+        }
+
+        private void clear() {
+            for (Map<K, Entry<K>> bucket : buckets) {
+                bucket.clear();
+            }
+        }
+    }
+
+    /**
+     * 时间轮条目
+     */
+    private static final class Entry<K> {
+
+        private final K key;
+
+        private final long expireAt;
+
+        /**
+         * 所在层，-1 表示已到期待返回
+         */
+        private int level;
+
+        private int bucket;
+
+        private Entry(K key, long expireAt) {
+            this.key = key;
+            this.expireAt = expireAt;
+        }
+    }
+}
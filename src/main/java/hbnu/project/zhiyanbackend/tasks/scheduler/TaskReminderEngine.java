@@ -0,0 +1,266 @@
+package hbnu.project.zhiyanbackend.tasks.scheduler;
+
+import hbnu.project.zhiyanbackend.message.service.MessageSendService;
+import hbnu.project.zhiyanbackend.redis.utils.RedisUtils;
+import hbnu.project.zhiyanbackend.tasks.model.entity.Task;
+import hbnu.project.zhiyanbackend.tasks.model.entity.TaskUser;
+import hbnu.project.zhiyanbackend.tasks.model.enums.TaskStatus;
+import hbnu.project.zhiyanbackend.tasks.repository.TaskRepository;
+import hbnu.project.zhiyanbackend.tasks.repository.TaskUserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * 任务截止提醒引擎
+ * 只加载截止日期落在提醒窗口内的任务（走 due_date 部分索引），按提醒时间挂到内存分层时间轮上，
+ * 到期后批量校验任务、一次 IN 查询获取执行者，并按接收人合并发送提醒。
+ * <p>
+ * 时间轮在启动时重建，任务创建、修改、删除时同步更新，并每小时按窗口增量刷新；
+ * 多节点各自持有时间轮，通过 Redis 去重键保证同一提醒只发送一次。
+ *
+ * @author Tokito
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TaskReminderEngine implements ApplicationRunner {
+
+    /**
+     * 提醒时间点（小时数）：任务截止前 72、48、24 小时
+     */
+    private static final List<Long> REMINDER_HOURS = List.of(72L, 48L, 24L);
+
+    /**
+     * 加载窗口（天），需覆盖最大提醒提前量并留出一次刷新间隔的余量
+     */
+    private static final int WINDOW_DAYS = 5;
+
+    /**
+     * 时间轮精度与每层格数
+     */
+    private static final long TICK_MS = 1000L;
+    private static final int WHEEL_SIZE = 60;
+
+    /**
+     * 节点重启等原因错过的提醒，在该宽限期内仍然补发
+     */
+    private static final Duration MISSED_GRACE = Duration.ofMinutes(10);
+
+    /**
+     * 单次 IN 查询的任务数量上限
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 提醒发送去重键前缀
+     */
+    private static final String SENT_KEY_PREFIX = "task:reminder:sent:";
+
+    private final TaskRepository taskRepository;
+    private final TaskUserRepository taskUserRepository;
+    private final MessageSendService messageSendService;
+
+    private final ZoneId zoneId = ZoneId.systemDefault();
+
+    /**
+     * 当前时间（毫秒），测试中替换为可推进的时钟
+     */
+    private LongSupplier clock = System::currentTimeMillis;
+
+    private final HierarchicalTimingWheel<ReminderKey> timingWheel =
+            new HierarchicalTimingWheel<>(TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
+
+    /**
+     * 启动时重建时间轮
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            timingWheel.clear();
+            int loaded = loadWindow();
+            log.info("任务提醒时间轮初始化完成: 加载任务{}个, 待触发提醒{}条", loaded, timingWheel.size());
+        } catch (Exception e) {
+            log.error("任务提醒时间轮初始化失败", e);
+        }
+    }
+
+    /**
+     * 每小时按窗口增量刷新，把新进入窗口的任务挂到时间轮上
+     */
+    @Scheduled(cron = "0 30 * * * ?")
+    public void refreshWindow() {
+        try {
+            int loaded = loadWindow();
+            log.debug("任务提醒窗口刷新完成: 加载任务{}个, 待触发提醒{}条", loaded, timingWheel.size());
+        } catch (Exception e) {
+            log.error("任务提醒窗口刷新失败", e);
+        }
+    }
+
+    /**
+     * 推进时间轮并发送到期提醒
+     */
+    @Scheduled(fixedDelay = TICK_MS)
+    public void tick() {
+        List<ReminderKey> due = timingWheel.advanceTo(clock.getAsLong());
+        if (due.isEmpty()) {
+            return;
+        }
+        for (int from = 0; from < due.size(); from += BATCH_SIZE) {
+            try {
+                fire(due.subList(from, Math.min(due.size(), from + BATCH_SIZE)));
+            } catch (Exception e) {
+                log.error("发送任务提醒批次失败: size={}", due.size(), e);
+            }
+        }
+    }
+
+    /**
+     * 任务创建或修改后更新时间轮
+     *
+     * @param task 保存后的任务
+     */
+    public void onTaskSaved(Task task) {
+        if (task == null || task.getId() == null) {
+            return;
+        }
+        onTaskRemoved(task.getId());
+        if (isRemindable(task) && !task.getDueDate().isAfter(today().plusDays(WINDOW_DAYS))) {
+            schedule(task, clock.getAsLong());
+        }
+    }
+
+    /**
+     * 任务删除后从时间轮移除
+     *
+     * @param taskId 任务ID
+     */
+    public void onTaskRemoved(Long taskId) {
+        if (taskId == null) {
+            return;
+        }
+        for (Long hours : REMINDER_HOURS) {
+            timingWheel.cancel(new ReminderKey(taskId, hours));
+        }
+    }
+
+    /**
+     * 加载提醒窗口内的任务
+     *
+     * @return 加载的任务数
+     */
+    private int loadWindow() {
+        LocalDate today = today();
+        List<Task> tasks = taskRepository.findActiveTasksDueBetween(today, today.plusDays(WINDOW_DAYS));
+        long now = clock.getAsLong();
+        for (Task task : tasks) {
+            schedule(task, now);
+        }
+        return tasks.size();
+    }
+
+    private void schedule(Task task, long now) {
+        for (Long hours : REMINDER_HOURS) {
+            long remindAt = remindAt(task.getDueDate(), hours);
+            if (remindAt >= now - MISSED_GRACE.toMillis()) {
+                timingWheel.schedule(new ReminderKey(task.getId(), hours), remindAt);
+            }
+        }
+    }
+
+    /**
+     * 发送一批到期提醒
+     */
+    private void fire(List<ReminderKey> keys) {
+        long now = clock.getAsLong();
+        Map<Long, Long> hoursByTaskId = new HashMap<>();
+        keys.forEach(key -> hoursByTaskId.merge(key.taskId(), key.hoursBeforeDue(), Math::min));
+
+        // 重新读取任务，校验状态和截止日期仍然匹配（其他节点的修改只在这里体现）
+        List<Task> tasks = taskRepository.findAllById(hoursByTaskId.keySet()).stream()
+                .filter(this::isRemindable)
+                .filter(task -> {
+                    long remindAt = remindAt(task.getDueDate(), hoursByTaskId.get(task.getId()));
+                    return remindAt <= now + TICK_MS && remindAt >= now - MISSED_GRACE.toMillis() - TICK_MS;
+                })
+                .filter(task -> markSent(task, hoursByTaskId.get(task.getId())))
+                .toList();
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Task> taskById = tasks.stream().collect(Collectors.toMap(Task::getId, task -> task));
+        Map<Long, List<Task>> tasksByUser = new LinkedHashMap<>();
+        for (TaskUser executor : taskUserRepository.findActiveExecutorsByTaskIds(taskById.keySet())) {
+            Task task = taskById.get(executor.getTaskId());
+            List<Task> userTasks = tasksByUser.computeIfAbsent(executor.getUserId(), id -> new ArrayList<>());
+            if (task != null && !userTasks.contains(task)) {
+                userTasks.add(task);
+            }
+        }
+
+        int sent = 0;
+        for (Map.Entry<Long, List<Task>> entry : tasksByUser.entrySet()) {
+            try {
+                messageSendService.notifyTaskDeadlineReminders(entry.getKey(), entry.getValue(), hoursByTaskId);
+                sent++;
+            } catch (Exception e) {
+                log.error("发送任务提醒通知失败: userId={}, taskCount={}", entry.getKey(), entry.getValue().size(), e);
+            }
+        }
+        log.info("任务提醒批次发送完成: 任务{}个, 接收人{}个, 发送{}条", tasks.size(), tasksByUser.size(), sent);
+    }
+
+    /**
+     * 占用去重键，只有第一个占用成功的节点发送提醒；Redis 不可用时仍然发送
+     */
+    private boolean markSent(Task task, long hours) {
+        String key = SENT_KEY_PREFIX + task.getId() + ":" + hours + ":" + task.getDueDate();
+        try {
+            return RedisUtils.setObjectIfAbsent(key, 1, Duration.ofDays(WINDOW_DAYS));
+        } catch (Exception e) {
+            log.warn("任务提醒去重键写入失败，仍然发送提醒: taskId={}, error={}", task.getId(), e.getMessage());
+            return true;
+        }
+    }
+
+    private boolean isRemindable(Task task) {
+        return task.getDueDate() != null
+                && !Boolean.TRUE.equals(task.getIsDeleted())
+                && (task.getStatus() == TaskStatus.TODO || task.getStatus() == TaskStatus.IN_PROGRESS);
+    }
+
+    private LocalDate today() {
+        return Instant.ofEpochMilli(clock.getAsLong()).atZone(zoneId).toLocalDate();
+    }
+
+    /**
+     * 截止时间取截止日期当天结束（次日零点），与逾期判断保持一致
+     */
+    private long remindAt(LocalDate dueDate, long hoursBeforeDue) {
+        LocalDateTime deadline = dueDate.plusDays(1).atStartOfDay();
+        return deadline.minusHours(hoursBeforeDue).atZone(zoneId).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 时间轮条目键
+     *
+     * @param taskId         任务ID
+     * @param hoursBeforeDue 提前小时数
+     */
+    private record ReminderKey(Long taskId, long hoursBeforeDue) {
+    }
+}
@@ -1,7 +1,10 @@
 package hbnu.project.zhiyanbackend.tasks.service.impl;
 
-import hbnu.project.zhiyanbackend.auth.repository.UserRepository;
+import hbnu.project.zhiyanbackend.auth.model.dto.UserSummary;
+import hbnu.project.zhiyanbackend.auth.utils.UserDirectory;
+import hbnu.project.zhiyanbackend.basic.constants.CacheConstants;
 import hbnu.project.zhiyanbackend.basic.domain.R;
+import hbnu.project.zhiyanbackend.knowledge.utils.AchievementTaskCacheEvictor;
 import hbnu.project.zhiyanbackend.tasks.model.dto.TaskDetailDTO;
 import hbnu.project.zhiyanbackend.tasks.model.dto.UserTaskStatisticsDTO;
 import hbnu.project.zhiyanbackend.tasks.model.entity.Task;
@@ -14,6 +17,7 @@ import hbnu.project.zhiyanbackend.tasks.model.form.CreateTaskRequest;
 import hbnu.project.zhiyanbackend.tasks.model.form.UpdateTaskRequest;
 import hbnu.project.zhiyanbackend.tasks.repository.TaskRepository;
 import hbnu.project.zhiyanbackend.tasks.repository.TaskUserRepository;
+import hbnu.project.zhiyanbackend.tasks.scheduler.TaskReminderEngine;
 import hbnu.project.zhiyanbackend.tasks.service.TaskService;
 import hbnu.project.zhiyanbackend.projects.model.entity.Project;
 import hbnu.project.zhiyanbackend.projects.repository.ProjectRepository;
@@ -24,6 +28,7 @@ import hbnu.project.zhiyanbackend.message.model.enums.MessageScene;
 import hbnu.project.zhiyanbackend.activelog.core.OperationLogHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -53,9 +58,11 @@ public class TaskServiceImpl implements TaskService {
     private final ProjectRepository projectRepository;
     private final ProjectMemberService projectMemberService;
     private final InboxMessageService inboxMessageService;
-    private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
     private final ProjectSecurityUtils projectSecurityUtils;
     private final OperationLogHelper operationLogHelper;
+    private final TaskReminderEngine taskReminderEngine;
+    private final AchievementTaskCacheEvictor achievementTaskCacheEvictor;
 
     @Override
     @Transactional
@@ -101,6 +108,7 @@ public class TaskServiceImpl implements TaskService {
                 .build();
 
         Task saved = taskRepository.save(task);
+        taskReminderEngine.onTaskSaved(saved);
 
         if (assigneeIds != null && !assigneeIds.isEmpty()) {
             Instant now = Instant.now();
@@ -204,6 +212,8 @@ public class TaskServiceImpl implements TaskService {
         }
 
         Task saved = taskRepository.save(task);
+        achievementTaskCacheEvictor.evictByTaskId(taskId);
+        taskReminderEngine.onTaskSaved(saved);
         
         // 如果任务状态发生变更，发送状态变更消息给任务执行者和创建者
         if (request.getStatus() != null && request.getStatus() != oldStatus) {
@@ -249,6 +259,7 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
+    @CacheEvict(value = CacheConstants.TASK_USER_MAP_CACHE, key = "#taskId")
     @Transactional
     public R<Void> deleteTask(Long taskId, Long operatorId) {
         Optional<Task> taskOpt = taskRepository.findById(taskId);
@@ -268,6 +279,8 @@ public class TaskServiceImpl implements TaskService {
 
         task.setIsDeleted(true);
         taskRepository.save(task);
+        achievementTaskCacheEvictor.evictByTaskId(taskId);
+        taskReminderEngine.onTaskRemoved(taskId);
 
         LocalDateTime now = LocalDateTime.now();
         taskUserRepository.deactivateTaskAssignees(taskId, now, operatorId);
@@ -301,6 +314,8 @@ public class TaskServiceImpl implements TaskService {
         TaskStatus oldStatus = task.getStatus();
         task.setStatus(newStatus);
         Task saved = taskRepository.save(task);
+        achievementTaskCacheEvictor.evictByTaskId(taskId);
+        taskReminderEngine.onTaskSaved(saved);
         
         // 发送任务状态变更消息给任务执行者和创建者
         if (newStatus != oldStatus) {
@@ -346,6 +361,7 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
+    @CacheEvict(value = CacheConstants.TASK_USER_MAP_CACHE, key = "#taskId")
     @Transactional
     public R<Task> assignTask(Long taskId, List<Long> assigneeIds, Long operatorId) {
         Optional<Task> taskOpt = taskRepository.findById(taskId);
@@ -467,6 +483,7 @@ public class TaskServiceImpl implements TaskService {
         }
 
         Task saved = taskRepository.save(task);
+        achievementTaskCacheEvictor.evictByTaskId(taskId);
         
         // 记录分配任务操作日志
         try {
@@ -479,6 +496,7 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
+    @CacheEvict(value = CacheConstants.TASK_USER_MAP_CACHE, key = "#taskId")
     @Transactional
     public R<Task> claimTask(Long taskId, Long userId) {
         Optional<Task> taskOpt = taskRepository.findById(taskId);
@@ -535,6 +553,7 @@ public class TaskServiceImpl implements TaskService {
         }
 
         Task saved = taskRepository.save(task);
+        achievementTaskCacheEvictor.evictByTaskId(taskId);
         return R.ok(saved, "任务接取成功");
     }
 
@@ -606,6 +625,7 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
+    @CacheEvict(value = CacheConstants.TASK_USER_MAP_CACHE, key = "#taskId")
     @Transactional
     public R<Task> cancelTaskAssignees(Long taskId, Long operatorId) {
         Optional<Task> taskOpt = taskRepository.findById(taskId);
@@ -635,6 +655,7 @@ public class TaskServiceImpl implements TaskService {
 
         task.setStatus(TaskStatus.TODO);
         Task saved = taskRepository.save(task);
+        achievementTaskCacheEvictor.evictByTaskId(taskId);
         return R.ok(saved, "已取消任务负责人并重置为待办状态");
     }
 
@@ -762,8 +783,25 @@ public class TaskServiceImpl implements TaskService {
     public R<Page<TaskDetailDTO>> getProjectTasksWithAssignees(Long projectId, Pageable pageable) {
         Page<Task> taskPage = taskRepository.findByProjectIdAndIsDeleted(projectId, false, pageable);
         
-        List<TaskDetailDTO> taskDTOs = taskPage.getContent().stream()
-                .map(this::convertToTaskDetailDTO)
+        List<Task> tasks = taskPage.getContent();
+        if (tasks.isEmpty()) {
+            return R.ok(new PageImpl<>(List.of(), pageable, taskPage.getTotalElements()));
+        }
+
+        // 一次查询当前页所有任务的执行者
+        Map<Long, List<TaskUser>> executorsByTask = taskUserRepository.findActiveExecutorsByTaskIds(
+                        tasks.stream().map(Task::getId).toList()).stream()
+                .collect(Collectors.groupingBy(TaskUser::getTaskId));
+
+        // 收集执行者和创建者ID，一次解析用户信息
+        Set<Long> userIds = new HashSet<>();
+        tasks.forEach(task -> userIds.add(task.getCreatorId()));
+        executorsByTask.values().forEach(list -> list.forEach(tu -> userIds.add(tu.getUserId())));
+        Map<Long, UserSummary> users = userDirectory.resolveAll(userIds);
+
+        List<TaskDetailDTO> taskDTOs = tasks.stream()
+                .map(task -> convertToTaskDetailDTO(task,
+                        executorsByTask.getOrDefault(task.getId(), List.of()), users))
                 .collect(Collectors.toList());
         
         Page<TaskDetailDTO> resultPage = new PageImpl<>(taskDTOs, pageable, taskPage.getTotalElements());
@@ -772,28 +810,31 @@ public class TaskServiceImpl implements TaskService {
 
     /**
      * 将 Task 实体转换为 TaskDetailDTO（包含执行者信息）
+     *
+     * @param task      任务
+     * @param taskUsers 任务的活跃执行者
+     * @param users     已解析的用户信息
      */
-    private TaskDetailDTO convertToTaskDetailDTO(Task task) {
-        // 获取任务的所有活跃执行者
-        List<TaskUser> taskUsers = taskUserRepository.findActiveExecutorsByTaskId(task.getId());
-        log.info("[convertToTaskDetailDTO] 任务ID: {}, 标题: {}, 活跃执行者数量: {}", 
+    private TaskDetailDTO convertToTaskDetailDTO(Task task, List<TaskUser> taskUsers, Map<Long, UserSummary> users) {
+        log.debug("[convertToTaskDetailDTO] 任务ID: {}, 标题: {}, 活跃执行者数量: {}",
                 task.getId(), task.getTitle(), taskUsers.size());
-        taskUsers.forEach(tu -> log.info("[convertToTaskDetailDTO] 执行者: userId={}, isActive={}", 
-                tu.getUserId(), tu.getIsActive()));
         
         // 转换执行者信息
         List<TaskDetailDTO.AssigneeDTO> assignees = taskUsers.stream()
                 .map(tu -> {
-                    String userName = userRepository.findNameById(tu.getUserId()).orElse("未知用户");
+                    UserSummary user = users.get(tu.getUserId());
                     return TaskDetailDTO.AssigneeDTO.builder()
                             .userId(tu.getUserId())
-                            .userName(userName)
+                            .userName(user != null ? user.name() : UserDirectory.UNKNOWN_USER_NAME)
+                            .email(user != null ? user.email() : null)
+                            .avatarUrl(user != null ? user.avatarUrl() : null)
                             .build();
                 })
                 .collect(Collectors.toList());
         
         // 获取创建者名称
-        String creatorName = userRepository.findNameById(task.getCreatorId()).orElse("未知用户");
+        UserSummary creator = users.get(task.getCreatorId());
+        String creatorName = creator != null ? creator.name() : UserDirectory.UNKNOWN_USER_NAME;
         
         return TaskDetailDTO.builder()
                 .id(task.getId())
@@ -2,11 +2,10 @@ package hbnu.project.zhiyanbackend.tasks.service.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import hbnu.project.zhiyanbackend.auth.model.converter.UserConverter;
 import hbnu.project.zhiyanbackend.auth.model.dto.UserDTO;
-import hbnu.project.zhiyanbackend.auth.model.entity.User;
-import hbnu.project.zhiyanbackend.auth.repository.UserRepository;
-import hbnu.project.zhiyanbackend.projects.model.entity.Project;
+import hbnu.project.zhiyanbackend.auth.model.dto.UserSummary;
+import hbnu.project.zhiyanbackend.auth.utils.UserDirectory;
+import hbnu.project.zhiyanbackend.knowledge.utils.AchievementTaskCacheEvictor;
 import hbnu.project.zhiyanbackend.projects.repository.ProjectRepository;
 import hbnu.project.zhiyanbackend.projects.service.ProjectMemberService;
 import hbnu.project.zhiyanbackend.message.service.MessageSendService;
@@ -25,6 +24,7 @@ import hbnu.project.zhiyanbackend.tasks.service.TaskSubmissionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,9 +36,12 @@ import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -58,8 +61,8 @@ public class TaskSubmissionServiceImpl implements TaskSubmissionService {
     private final ProjectMemberService projectMemberService;
     private final ObjectMapper objectMapper;
     private final MessageSendService messageSendService;
-    private final UserRepository userRepository;
-    private final UserConverter userConverter;
+    private final UserDirectory userDirectory;
+    private final AchievementTaskCacheEvictor achievementTaskCacheEvictor;
     private final hbnu.project.zhiyanbackend.activelog.core.OperationLogHelper operationLogHelper;
 
     @Override
@@ -121,6 +124,7 @@ public class TaskSubmissionServiceImpl implements TaskSubmissionService {
                 .build();
 
         submission = submissionRepository.save(submission);
+        achievementTaskCacheEvictor.evictByTaskId(taskId);
         log.info("任务提交成功: submissionId={}, version={}",
                 submission.getId(), nextVersion);
 
@@ -197,6 +201,7 @@ public class TaskSubmissionServiceImpl implements TaskSubmissionService {
         submission.setReviewTime(Instant.now());
 
         submission = submissionRepository.save(submission);
+        achievementTaskCacheEvictor.evictByTaskId(submission.getTaskId());
         log.info("提交记录审核完成: submissionId={}, status={}", submissionId, request.getReviewStatus());
 
         // 根据审核结果更新任务状态
@@ -265,6 +270,7 @@ public class TaskSubmissionServiceImpl implements TaskSubmissionService {
 
         submission.setReviewStatus(ReviewStatus.REVOKED);
         submission = submissionRepository.save(submission);
+        achievementTaskCacheEvictor.evictByTaskId(submission.getTaskId());
         log.info("提交记录撤回成功: submissionId={}", submissionId);
 
         Task task = taskRepository.findById(submission.getTaskId())
@@ -309,9 +315,7 @@ public class TaskSubmissionServiceImpl implements TaskSubmissionService {
         Task task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new IllegalArgumentException("任务不存在"));
 
-        return submissions.stream()
-                .map(s -> convertToDTO(s, task))
-                .collect(Collectors.toList());
+        return convertToDTOs(submissions, Map.of(task.getId(), task));
     }
 
     @Override
@@ -334,26 +338,20 @@ public class TaskSubmissionServiceImpl implements TaskSubmissionService {
     @Override
     @Transactional(readOnly = true)
     public Page<TaskSubmissionDTO> getPendingSubmissions(Long userId, Pageable pageable) {
-        return submissionRepository
-                .findPendingSubmissionsForUser(userId, ReviewStatus.PENDING, pageable)
-                .map(this::convertToDTO);
+        return convertToDTOPage(submissionRepository.findPendingSubmissionsForUser(userId, ReviewStatus.PENDING, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<TaskSubmissionDTO> getProjectPendingSubmissions(Long projectId, Pageable pageable) {
-        return submissionRepository
-                .findByProjectIdAndReviewStatusAndIsDeletedFalseOrderBySubmissionTimeDesc(
-                        projectId, ReviewStatus.PENDING, pageable)
-                .map(this::convertToDTO);
+        return convertToDTOPage(submissionRepository.findByProjectIdAndReviewStatusAndIsDeletedFalseOrderBySubmissionTimeDesc(
+                projectId, ReviewStatus.PENDING, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<TaskSubmissionDTO> getUserSubmissions(Long userId, Pageable pageable) {
-        return submissionRepository
-                .findBySubmitterIdAndIsDeletedFalseOrderBySubmissionTimeDesc(userId, pageable)
-                .map(this::convertToDTO);
+        return convertToDTOPage(submissionRepository.findBySubmitterIdAndIsDeletedFalseOrderBySubmissionTimeDesc(userId, pageable));
     }
 
     @Override
@@ -370,9 +368,7 @@ public class TaskSubmissionServiceImpl implements TaskSubmissionService {
     @Override
     @Transactional(readOnly = true)
     public Page<TaskSubmissionDTO> getMyCreatedTasksPendingSubmissions(Long userId, Pageable pageable) {
-        return submissionRepository
-                .findPendingSubmissionsForMyCreatedTasks(userId, ReviewStatus.PENDING, pageable)
-                .map(this::convertToDTO);
+        return convertToDTOPage(submissionRepository.findPendingSubmissionsForMyCreatedTasks(userId, ReviewStatus.PENDING, pageable));
     }
 
     @Override
@@ -383,17 +379,13 @@ public class TaskSubmissionServiceImpl implements TaskSubmissionService {
     @Override
     @Transactional(readOnly = true)
     public Page<TaskSubmissionDTO> getMyPendingSubmissions(Long userId, Pageable pageable) {
-        return submissionRepository
-                .findMyPendingSubmissions(userId, ReviewStatus.PENDING, pageable)
-                .map(this::convertToDTO);
+        return convertToDTOPage(submissionRepository.findMyPendingSubmissions(userId, ReviewStatus.PENDING, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<TaskSubmissionDTO> getPendingSubmissionsForReview(Long userId, Pageable pageable) {
-        return submissionRepository
-                .findPendingSubmissionsForReviewer(userId, ReviewStatus.PENDING, pageable)
-                .map(this::convertToDTO);
+        return convertToDTOPage(submissionRepository.findPendingSubmissionsForReviewer(userId, ReviewStatus.PENDING, pageable));
     }
 
     @Override
@@ -436,49 +428,84 @@ public class TaskSubmissionServiceImpl implements TaskSubmissionService {
     }
 
     private TaskSubmissionDTO convertToDTO(TaskSubmission submission, Task task) {
-        List<String> attachmentUrls = new ArrayList<>();
-        if (submission.getAttachmentUrls() != null) {
-            try {
-                attachmentUrls = objectMapper.readValue(
-                        submission.getAttachmentUrls(),
-                        objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
-            } catch (JsonProcessingException e) {
-                log.warn("附件URL反序列化失败", e);
-            }
+        Map<Long, Task> knownTasks = task != null ? Map.of(task.getId(), task) : Map.of();
+        return convertToDTOs(List.of(submission), knownTasks).get(0);
+    }
+
+    private Page<TaskSubmissionDTO> convertToDTOPage(Page<TaskSubmission> page) {
+        return new PageImpl<>(convertToDTOs(page.getContent(), Map.of()), page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * 批量转换提交记录：任务、项目和用户信息各查询一次
+     *
+     * @param submissions 提交记录
+     * @param knownTasks  调用方已加载的任务，其余任务按需批量加载
+     */
+    private List<TaskSubmissionDTO> convertToDTOs(List<TaskSubmission> submissions, Map<Long, Task> knownTasks) {
+        if (submissions.isEmpty()) {
+            return List.of();
         }
 
-        String projectName = null;
+        Map<Long, Task> tasks = new HashMap<>(knownTasks);
+        Set<Long> missingTaskIds = submissions.stream()
+                .map(TaskSubmission::getTaskId)
+                .filter(id -> id != null && !tasks.containsKey(id))
+                .collect(Collectors.toSet());
+        if (!missingTaskIds.isEmpty()) {
+            taskRepository.findAllById(missingTaskIds).forEach(t -> tasks.put(t.getId(), t));
+        }
+
+        Map<Long, String> projectNames = new HashMap<>();
         try {
-            if (submission.getProjectId() != null) {
-                Optional<Project> projectOpt = projectRepository.findById(submission.getProjectId());
-                projectName = projectOpt.map(Project::getName).orElse(null);
+            Set<Long> projectIds = submissions.stream()
+                    .map(TaskSubmission::getProjectId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            if (!projectIds.isEmpty()) {
+                projectRepository.findAllById(projectIds).forEach(p -> projectNames.put(p.getId(), p.getName()));
             }
         } catch (Exception e) {
-            log.warn("获取项目名称失败，projectId: {}", submission.getProjectId(), e);
+            log.warn("批量获取项目名称失败", e);
         }
 
-        // 查询提交人信息
-        UserDTO submitter = null;
+        // 提交人和审核人一次解析
+        Map<Long, UserSummary> users = Map.of();
         try {
-            if (submission.getSubmitterId() != null) {
-                Optional<User> userOpt = userRepository.findById(submission.getSubmitterId());
-                submitter = userOpt.map(userConverter::toDTO).orElse(null);
-            }
+            Set<Long> userIds = new HashSet<>();
+            submissions.forEach(s -> {
+                userIds.add(s.getSubmitterId());
+                userIds.add(s.getReviewerId());
+            });
+            users = userDirectory.resolveAll(userIds);
         } catch (Exception e) {
-            log.warn("获取提交人信息失败，submitterId: {}", submission.getSubmitterId(), e);
+            log.warn("批量获取提交人、审核人信息失败", e);
         }
 
-        // 查询审核人信息
-        UserDTO reviewer = null;
-        try {
-            if (submission.getReviewerId() != null) {
-                Optional<User> userOpt = userRepository.findById(submission.getReviewerId());
-                reviewer = userOpt.map(userConverter::toDTO).orElse(null);
+        List<TaskSubmissionDTO> result = new ArrayList<>(submissions.size());
+        for (TaskSubmission submission : submissions) {
+            result.add(buildDTO(submission, tasks.get(submission.getTaskId()),
+                    projectNames.get(submission.getProjectId()), users));
+        }
+        return result;
+    }
+
+    private TaskSubmissionDTO buildDTO(TaskSubmission submission, Task task, String projectName,
+                                       Map<Long, UserSummary> users) {
+        List<String> attachmentUrls = new ArrayList<>();
+        if (submission.getAttachmentUrls() != null) {
+            try {
+                attachmentUrls = objectMapper.readValue(
+                        submission.getAttachmentUrls(),
+                        objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
+            } catch (JsonProcessingException e) {
+                log.warn("附件URL反序列化失败", e);
             }
-        } catch (Exception e) {
-            log.warn("获取审核人信息失败，reviewerId: {}", submission.getReviewerId(), e);
         }
 
+        UserDTO submitter = toUserDTO(users.get(submission.getSubmitterId()));
+        UserDTO reviewer = toUserDTO(users.get(submission.getReviewerId()));
+
         return TaskSubmissionDTO.builder()
                 .id(String.valueOf(submission.getId()))
                 .taskId(String.valueOf(submission.getTaskId()))
@@ -503,9 +530,31 @@ public class TaskSubmissionServiceImpl implements TaskSubmissionService {
                 .build();
     }
 
-    private TaskSubmissionDTO convertToDTO(TaskSubmission submission) {
-        Task task = taskRepository.findById(submission.getTaskId()).orElse(null);
-        return convertToDTO(submission, task);
+    /**
+     * 提交记录中展示的用户信息，字段与 UserConverter#toDTO 一致（不含头像数据、角色和权限）
+     */
+    private UserDTO toUserDTO(UserSummary summary) {
+        if (summary == null) {
+            return null;
+        }
+        return UserDTO.builder()
+                .id(summary.id())
+                .name(summary.name())
+                .email(summary.email())
+                .title(summary.title())
+                .institution(summary.institution())
+                .description(summary.description())
+                .avatarContentType(summary.avatarContentType())
+                .avatarSize(summary.avatarSize())
+                .status(summary.status())
+                .isLocked(summary.isLocked())
+                .twoFactorEnabled(summary.twoFactorEnabled())
+                .githubId(summary.githubId())
+                .githubUsername(summary.githubUsername())
+                .orcidId(summary.orcidId())
+                .orcidBound(summary.orcidBound())
+                .profileLinks(summary.profileLinkList())
+                .build();
     }
 
     @Override
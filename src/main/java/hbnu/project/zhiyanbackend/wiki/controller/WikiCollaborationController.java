@@ -2,9 +2,11 @@ package hbnu.project.zhiyanbackend.wiki.controller;
 
 import hbnu.project.zhiyanbackend.auth.model.entity.Permission;
 import hbnu.project.zhiyanbackend.basic.exception.ControllerException;
+import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
 import hbnu.project.zhiyanbackend.projects.model.enums.ProjectPermission;
 import hbnu.project.zhiyanbackend.projects.utils.ProjectSecurityUtils;
 import hbnu.project.zhiyanbackend.security.utils.PermissionUtils;
+import hbnu.project.zhiyanbackend.wiki.crdt.WikiCrdtEngine;
 import hbnu.project.zhiyanbackend.wiki.model.dto.WikiCollaborationDTO;
 import hbnu.project.zhiyanbackend.wiki.repository.WikiPageRepository;
 import hbnu.project.zhiyanbackend.wiki.service.WikiCollaborationService;
@@ -17,12 +19,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 import java.security.Principal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Wiki 协同编辑 WebSocket 消息控制器
@@ -36,6 +40,12 @@ import java.util.List;
 @Tag(name = "Wiki 协同编辑", description = "Wiki协同编辑相关接口")
 public class WikiCollaborationController {
 
+    /**
+     * WebSocket 会话属性中保存内容锁凭证的键前缀，后接页面ID。
+     * 凭证只属于加锁的会话，心跳续期和离开释放都使用它，同一用户的其他会话无法续期或释放
+     */
+    private static final String LOCK_TOKEN_ATTRIBUTE = "wiki.lock.token.";
+
     @Resource
     private SimpMessagingTemplate simpMessagingTemplate;
 
@@ -51,6 +61,9 @@ public class WikiCollaborationController {
     @Resource
     private ProjectSecurityUtils projectSecurityUtils;
 
+    @Resource
+    private WikiCrdtEngine crdtEngine;
+
     /**
      * 用户加入编辑页面
      * 客户端发送消息到: /zhiyan/wiki/{pageId}/join
@@ -123,6 +136,7 @@ public class WikiCollaborationController {
     @MessageMapping("/{pageId}/leave")
     public void leaveEditing(
             @DestinationVariable Long pageId,
+            SimpMessageHeaderAccessor headerAccessor,
             Principal principal) {
         try{
             Long userId = Long.parseLong(principal.getName());
@@ -130,8 +144,11 @@ public class WikiCollaborationController {
             // 用户离开编辑
             collaborationService.leaveEditing(userId);
 
-            // 释放内容锁（如果有）
-            collaborationService.releaseLock(pageId, userId);
+            // 释放本会话持有的内容锁（如果有）
+            Map<String, Object> attributes = headerAccessor.getSessionAttributes();
+            if (attributes != null) {
+                collaborationService.releaseLock(pageId, (String) attributes.remove(LOCK_TOKEN_ATTRIBUTE + pageId));
+            }
 
             // 通知其他用户有人离开
             List<WikiCollaborationDTO.EditorInfo> editors =
@@ -180,7 +197,7 @@ public class WikiCollaborationController {
 
             // 保存用户位置
             cursorPosition.setUserId(userId);
-            collaborationService.updateCursorPosition(userId, cursorPosition);
+            collaborationService.updateCursorPosition(pageId, userId, cursorPosition);
 
             // 广播光标位置给用户
             simpMessagingTemplate.convertAndSend(
@@ -201,6 +218,7 @@ public class WikiCollaborationController {
     public void handleContentChange(
             @DestinationVariable Long pageId,
             @Payload WikiCollaborationDTO.ContentChange change,
+            SimpMessageHeaderAccessor headerAccessor,
             Principal principal) {
         try{
             Long userId = Long.parseLong(principal.getName());
@@ -215,7 +233,8 @@ public class WikiCollaborationController {
 
 
             // 尝试获取编辑锁（防止并发冲突）
-            if(!collaborationService.tryLockContent(pageId, userId)){
+            String lockToken = collaborationService.tryLockContent(userId, pageId);
+            if (lockToken == null) {
                 simpMessagingTemplate.convertAndSendToUser(
                         principal.getName(),
                         "/queue/error",
@@ -223,6 +242,11 @@ public class WikiCollaborationController {
                 );
                 return;
             }
+            // 保存期间由本会话的心跳续期
+            Map<String, Object> attributes = headerAccessor.getSessionAttributes();
+            if (attributes != null) {
+                attributes.put(LOCK_TOKEN_ATTRIBUTE + pageId, lockToken);
+            }
 
             try {
                 // 保存新版本
@@ -248,7 +272,10 @@ public class WikiCollaborationController {
                 log.info("用户[{}]提交页面[{}]内容变更", userId, pageId);
             }finally {
                 // 释放锁
-                collaborationService.releaseLock(pageId, userId);
+                if (attributes != null) {
+                    attributes.remove(LOCK_TOKEN_ATTRIBUTE + pageId, lockToken);
+                }
+                collaborationService.releaseLock(pageId, lockToken);
             }
         } catch (ControllerException e) {
             log.error("处理内容变更失败", e);
@@ -297,6 +324,70 @@ public class WikiCollaborationController {
     }
 
 
+    /**
+     * 获取页面 CRDT 文档状态（加入协同后初始化本地副本）
+     * 客户端发送消息到: /app/wiki/{pageId}/crdt-sync
+     */
+    @MessageMapping("/{pageId}/crdt-sync")
+    public void syncCrdtState(
+            @DestinationVariable Long pageId,
+            Principal principal) {
+        try {
+            Long userId = Long.parseLong(principal.getName());
+
+            // 权限检查,用户需要是该项目的成员
+            Long projectId = wikiPageRepository.findProjectIdById(pageId)
+                    .orElseThrow(() -> new ControllerException("Wiki页面不存在"));
+
+            if (!projectSecurityUtils.isMember(projectId, userId)) {
+                throw new ControllerException("您不是该项目的成员，无权访问");
+            }
+
+            simpMessagingTemplate.convertAndSendToUser(
+                    principal.getName(),
+                    "/queue/crdt-state",
+                    crdtEngine.state(pageId)
+            );
+        } catch (ControllerException | ServiceException e) {
+            log.error("同步CRDT状态失败", e);
+            simpMessagingTemplate.convertAndSendToUser(
+                    principal.getName(),
+                    "/queue/errors",
+                    "同步失败: " + e.getMessage()
+            );
+        }
+    }
+
+
+    /**
+     * 提交 CRDT 操作（字符级合并，服务端按 50ms 窗口批量广播到 /topic/wiki/{pageId}/crdt）
+     * 客户端发送消息到: /app/wiki/{pageId}/crdt-ops
+     */
+    @MessageMapping("/{pageId}/crdt-ops")
+    public void handleCrdtOperations(
+            @DestinationVariable Long pageId,
+            @Payload WikiCollaborationDTO.CrdtBatch batch,
+            Principal principal) {
+        try {
+            Long userId = Long.parseLong(principal.getName());
+
+            // 检查用户是否在编辑（加入编辑时已做过成员校验）
+            if (!collaborationService.isUserEditing(userId, pageId)) {
+                throw new ControllerException("请先加入编辑");
+            }
+
+            crdtEngine.submit(pageId, userId, batch.getOps());
+        } catch (ControllerException | ServiceException e) {
+            log.error("处理CRDT操作失败", e);
+            simpMessagingTemplate.convertAndSendToUser(
+                    principal.getName(),
+                    "/queue/errors",
+                    "同步失败: " + e.getMessage()
+            );
+        }
+    }
+
+
     /**
      * 心跳消息（保持连接活跃）
      * 客户端发送消息到: /app/wiki/{pageId}/heartbeat
@@ -304,11 +395,17 @@ public class WikiCollaborationController {
     @MessageMapping("/{pageId}/heartbeat")
     public void heartbeat(
             @DestinationVariable Long pageId,
+            SimpMessageHeaderAccessor headerAccessor,
             Principal principal) {
         try {
             Long userId = Long.parseLong(principal.getName());
             // 刷新编辑状态，延长过期时间
             collaborationService.refreshEditingStatus(pageId, userId);
+            // 续期本会话持有的内容锁（如果有）
+            Map<String, Object> attributes = headerAccessor.getSessionAttributes();
+            if (attributes != null) {
+                collaborationService.renewLock(pageId, (String) attributes.get(LOCK_TOKEN_ATTRIBUTE + pageId));
+            }
         } catch (Exception e) {
             log.error("处理心跳失败", e);
         }
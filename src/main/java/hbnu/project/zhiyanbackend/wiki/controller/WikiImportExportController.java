@@ -2,6 +2,7 @@ package hbnu.project.zhiyanbackend.wiki.controller;
 
 import hbnu.project.zhiyanbackend.basic.domain.R;
 import hbnu.project.zhiyanbackend.projects.utils.ProjectSecurityUtils;
+import hbnu.project.zhiyanbackend.redis.ratelimit.RateLimit;
 import hbnu.project.zhiyanbackend.security.utils.SecurityUtils;
 import hbnu.project.zhiyanbackend.wiki.model.dto.WikiExportDTO;
 import hbnu.project.zhiyanbackend.wiki.model.dto.WikiImportDTO;
@@ -50,6 +51,7 @@ public class WikiImportExportController {
      * 权限要求：已登录 + 有访问权限
      */
     @GetMapping("/pages/{pageId}/export")
+    @RateLimit(name = "wiki:export", permits = 10, window = "1m", dimension = RateLimit.Dimension.USER)
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "导出Wiki页面", description = "将Wiki页面导出为指定格式（Markdown/PDF/Word）")
     public void exportPage(
@@ -102,6 +104,7 @@ public class WikiImportExportController {
      * 权限要求：已登录 + 项目成员
      */
     @PostMapping("/projects/{projectId}/export/batch")
+    @RateLimit(name = "wiki:export", permits = 10, window = "1m", dimension = RateLimit.Dimension.USER)
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "批量导出Wiki页面", description = "将多个Wiki页面打包导出为ZIP文件")
     public void exportPages(
@@ -152,6 +155,7 @@ public class WikiImportExportController {
      * 权限要求：已登录 + 有访问权限
      */
     @GetMapping("/pages/{pageId}/export/directory")
+    @RateLimit(name = "wiki:export", permits = 10, window = "1m", dimension = RateLimit.Dimension.USER)
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "导出Wiki目录树", description = "导出Wiki目录及其所有子页面（ZIP格式）")
     public void exportDirectory(
@@ -284,6 +288,47 @@ public class WikiImportExportController {
         return R.ok(result, result.getMessage());
     }
 
+    /**
+     * 从ZIP压缩包导入Wiki目录树
+     * 权限要求：已登录 + 项目成员
+     * 导入在后台执行，进度与结果通过SSE推送
+     */
+    @PostMapping("/projects/{projectId}/import/archive")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "导入ZIP压缩包", description = "按压缩包目录结构批量导入Markdown文件及其引用的图片")
+    public R<String> importArchive(
+            @Parameter(description = "项目id") @PathVariable Long projectId,
+            @Parameter(description = "ZIP压缩包") @RequestParam("file") MultipartFile file,
+            @Parameter(description = "父页面ID（可选）") @RequestParam(required = false) Long parentId,
+            @Parameter(description = "是否覆盖同名页面") @RequestParam(defaultValue = "false") Boolean overwrite,
+            @Parameter(description = "是否设为公开") @RequestParam(defaultValue = "false") Boolean isPublic) {
+        Long userId = SecurityUtils.getUserId();
+        if (userId == null) {
+            return R.fail(R.UNAUTHORIZED, "未登录或令牌无效");
+        }
+
+        log.info("用户[{}]导入压缩包到项目[{}]，文件: {}", userId, projectId, file.getOriginalFilename());
+
+        // 权限检查：必须是项目成员
+        if (!projectSecurityUtils.isMember(projectId, userId)) {
+            return R.fail("您不是该项目的成员，无权导入");
+        }
+
+        // 构建导入配置
+        WikiImportDTO importDTO = WikiImportDTO.builder()
+                .projectId(projectId)
+                .parentId(parentId)
+                .format("ZIP")
+                .overwrite(overwrite)
+                .isPublic(isPublic)
+                .importBy(userId)
+                .build();
+
+        String importId = wikiIMEXportService.importFromArchive(file, importDTO);
+
+        return R.ok(importId, "导入任务已提交，进度将实时推送");
+    }
+
     /**
      * 获取Content-Type
      */
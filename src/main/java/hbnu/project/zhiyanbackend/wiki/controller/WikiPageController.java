@@ -8,6 +8,7 @@ import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
 import hbnu.project.zhiyanbackend.basic.utils.ValidationUtils;
 import hbnu.project.zhiyanbackend.projects.utils.ProjectSecurityUtils;
 import hbnu.project.zhiyanbackend.security.utils.SecurityUtils;
+import hbnu.project.zhiyanbackend.security.xss.XssExclude;
 import hbnu.project.zhiyanbackend.wiki.model.dto.*;
 import hbnu.project.zhiyanbackend.wiki.model.entity.WikiPage;
 import hbnu.project.zhiyanbackend.wiki.repository.WikiPageRepository;
@@ -55,6 +56,7 @@ public class WikiPageController {
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "创建Wiki页面", description = "创建新的Wiki页面（目录或文档）")
     @BizOperationLog(module = BizOperationModule.WIKI, type = "CREATE", description = "创建Wiki页面")
+    @XssExclude(fields = "content")
     public R<WikiPage> createPage(@RequestBody @Valid CreateWikiPageDTO dto) {
         Long userId = SecurityUtils.getUserId();
         if (userId == null) {
@@ -86,6 +88,7 @@ public class WikiPageController {
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "更新Wiki页面", description = "更新Wiki页面的标题和内容")
     @BizOperationLog(module = BizOperationModule.WIKI, type = "UPDATE", description = "更新Wiki页面")
+    @XssExclude(fields = "content")
     public R<WikiPage> updatePage(
             @Parameter(description = "页面ID") @PathVariable Long pageId,
             @RequestBody @Valid UpdateWikiPageDTO dto) {
@@ -0,0 +1,344 @@
+package hbnu.project.zhiyanbackend.wiki.crdt;
+
+import hbnu.project.zhiyanbackend.wiki.model.dto.WikiCollaborationDTO;
+
+import java.util.*;
+
+/**
+ * RGA（Replicated Growable Array）字符序列 CRDT
+ * 每个字符由 (clock, site) 唯一标识，clock 为 Lamport 时钟；插入操作记录左侧字符（origin），
+ * 同一 origin 后的并发插入按标识降序排列，删除只打墓碑标记。
+ * 因此同一组操作以任意顺序、重复应用都会收敛到相同的文档。
+ * <p>
+ * 依赖的字符尚未到达的操作先挂起，依赖到达后自动补应用；挂起过多时文档标记为失步，
+ * 由调用方从状态快照与操作日志重新加载。非线程安全，由调用方加锁。
+ *
+ * @author ErgouTree
+ */
+public class RgaDocument {
+
+    /**
+     * 由已持久化内容构建的初始字符使用的站点标识
+     */
+    public static final String BASE_SITE = "base";
+
+    /**
+     * 挂起操作的字符数上限，超出后文档标记为失步
+     */
+    private static final int MAX_PENDING_ELEMENTS = 10_000;
+
+    private final Node head = new Node(new ElementId(0L, ""), '\0');
+
+    private final Map<ElementId, Node> index = new HashMap<>();
+
+    private final Deque<Pending> pending = new ArrayDeque<>();
+
+    private int pendingElements;
+
+    private boolean overflowed;
+
+    private long maxClock;
+
+    private int visibleLength;
+
+    /**
+     * 由文本构建初始文档，字符标识为 (1..n, base)，各节点对同一文本得到完全相同的标识
+     *
+     * @param text 初始文本
+     * @return 文档
+     */
+    public static RgaDocument fromText(String text) {
+        RgaDocument document = new RgaDocument();
+        if (text == null || text.isEmpty()) {
+            return document;
+        }
+        Node tail = document.head;
+        for (int i = 0; i < text.length(); i++) {
+            Node node = new Node(new ElementId(i + 1L, BASE_SITE), text.charAt(i));
+            tail.next = node;
+            tail = node;
+            document.index.put(node.id, node);
+        }
+        document.maxClock = text.length();
+        document.visibleLength = text.length();
+        return document;
+    }
+
+    /**
+     * 由 {@link #runs()} 导出的完整序列重建文档，字符标识与删除状态保持不变
+     *
+     * @param runs 完整序列
+     * @return 文档
+     */
+    public static RgaDocument fromRuns(List<WikiCollaborationDTO.CrdtRun> runs) {
+        RgaDocument document = new RgaDocument();
+        Node tail = document.head;
+        for (WikiCollaborationDTO.CrdtRun run : runs) {
+            boolean deleted = Boolean.TRUE.equals(run.getDeleted());
+            String text = run.getText();
+            for (int i = 0; i < text.length(); i++) {
+                Node node = new Node(new ElementId(run.getClock() + i, run.getSite()), text.charAt(i));
+                node.deleted = deleted;
+                tail.next = node;
+                tail = node;
+                document.index.put(node.id, node);
+                document.maxClock = Math.max(document.maxClock, node.id.clock());
+                if (!deleted) {
+                    document.visibleLength++;
+                }
+            }
+        }
+        return document;
+    }
+
+    /**
+     * 应用一个操作
+     *
+     * @param operation CRDT 操作（调用方已校验格式）
+     * @return 立即应用返回 true，依赖缺失而挂起返回 false
+     */
+    public boolean apply(WikiCollaborationDTO.CrdtOperation operation) {
+        boolean applied = "insert".equals(operation.getType()) ? integrateInsert(operation) : integrateDelete(operation);
+        if (applied) {
+            drainPending();
+        } else {
+            enqueue(operation);
+        }
+        return applied;
+    }
+
+    /**
+     * 当前可见文本
+     */
+    public String text() {
+        StringBuilder builder = new StringBuilder(visibleLength);
+        for (Node node = head.next; node != null; node = node.next) {
+            if (!node.deleted) {
+                builder.append(node.value);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 导出包含墓碑在内的完整序列，相邻的同站点、clock 连续且删除状态相同的字符合并为一段
+     */
+    public List<WikiCollaborationDTO.CrdtRun> runs() {
+        List<WikiCollaborationDTO.CrdtRun> runs = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        Node first = null;
+        Node last = null;
+        for (Node node = head.next; node != null; node = node.next) {
+            boolean continues = last != null
+                    && last.deleted == node.deleted
+                    && last.id.site().equals(node.id.site())
+                    && last.id.clock() + 1 == node.id.clock();
+            if (!continues && first != null) {
+                runs.add(toRun(first, text));
+                text.setLength(0);
+            }
+            if (!continues) {
+                first = node;
+            }
+            text.append(node.value);
+            last = node;
+        }
+        if (first != null) {
+            runs.add(toRun(first, text));
+        }
+        return runs;
+    }
+
+    public long maxClock() {
+        return maxClock;
+    }
+
+    public int visibleLength() {
+        return visibleLength;
+    }
+
+    /**
+     * 包含墓碑在内的字符总数
+     */
+    public int size() {
+        return index.size();
+    }
+
+    public int pendingSize() {
+        return pendingElements;
+    }
+
+    /**
+     * 挂起操作是否曾超出上限：超出的操作没有保留，文档可能缺少部分已提交的修改
+     */
+    public boolean overflowed() {
+        return overflowed;
+    }
+
+    /**
+     * 丢弃全部挂起操作并清除失步标记，用于完整回放后仍无法应用的孤立操作
+     *
+     * @return 丢弃的字符数
+     */
+    public int discardPending() {
+        int discarded = pendingElements;
+        pending.clear();
+        pendingElements = 0;
+        overflowed = false;
+        return discarded;
+    }
+
+    /**
+     * 操作的效果是否已全部包含在文档中：插入的字符均已存在，删除的字符均已是墓碑
+     *
+     * @param operation CRDT 操作
+     * @return 已包含返回 true
+     */
+    public boolean contains(WikiCollaborationDTO.CrdtOperation operation) {
+        boolean insert = "insert".equals(operation.getType());
+        int length = weight(operation);
+        for (int i = 0; i < length; i++) {
+            Node node = index.get(new ElementId(operation.getClock() + i, operation.getSite()));
+            if (node == null || (!insert && !node.deleted)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ==================== 合并 ====================
+
+    private boolean integrateInsert(WikiCollaborationDTO.CrdtOperation operation) {
+        ElementId origin = operation.getOriginClock() == null
+                ? null
+                : new ElementId(operation.getOriginClock(), operation.getOriginSite());
+        Node left = origin == null ? head : index.get(origin);
+        if (left == null) {
+            return false;
+        }
+        String text = operation.getText();
+        for (int i = 0; i < text.length(); i++) {
+            ElementId id = new ElementId(operation.getClock() + i, operation.getSite());
+            Node existing = index.get(id);
+            if (existing != null) {
+                // 重复操作（节点间转发与日志回放会有重叠），保持幂等
+                left = existing;
+                continue;
+            }
+            // 跳过标识更大的并发插入及其后代（后代的 clock 一定大于祖先）
+            Node right = left.next;
+            while (right != null && right.id.compareTo(id) > 0) {
+                left = right;
+                right = right.next;
+            }
+            Node node = new Node(id, text.charAt(i));
+            node.next = right;
+            left.next = node;
+            index.put(id, node);
+            visibleLength++;
+            maxClock = Math.max(maxClock, id.clock());
+            left = node;
+        }
+        return true;
+    }
+
+    private boolean integrateDelete(WikiCollaborationDTO.CrdtOperation operation) {
+        int length = operation.getLength() == null ? 1 : operation.getLength();
+        List<Node> targets = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            Node node = index.get(new ElementId(operation.getClock() + i, operation.getSite()));
+            if (node == null) {
+                return false;
+            }
+            targets.add(node);
+        }
+        for (Node node : targets) {
+            if (!node.deleted) {
+                node.deleted = true;
+                visibleLength--;
+            }
+        }
+        return true;
+    }
+
+    private void enqueue(WikiCollaborationDTO.CrdtOperation operation) {
+        int elements = weight(operation);
+        pending.addLast(new Pending(operation, elements));
+        pendingElements += elements;
+        if (pendingElements > MAX_PENDING_ELEMENTS) {
+            // 不再挑选丢弃哪些操作，整体标记失步，由调用方从操作日志重建
+            pending.clear();
+            pendingElements = 0;
+            overflowed = true;
+        }
+    }
+
+    private void drainPending() {
+        boolean progress = !pending.isEmpty();
+        while (progress) {
+            progress = false;
+            Iterator<Pending> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                Pending candidate = iterator.next();
+                WikiCollaborationDTO.CrdtOperation operation = candidate.operation();
+                boolean applied = "insert".equals(operation.getType())
+                        ? integrateInsert(operation)
+                        : integrateDelete(operation);
+                if (applied) {
+                    iterator.remove();
+                    pendingElements -= candidate.elements();
+                    progress = true;
+                }
+            }
+        }
+    }
+
+    private static int weight(WikiCollaborationDTO.CrdtOperation operation) {
+        if ("insert".equals(operation.getType())) {
+            return operation.getText().length();
+        }
+        return operation.getLength() == null ? 1 : operation.getLength();
+    }
+
+    private static WikiCollaborationDTO.CrdtRun toRun(Node first, CharSequence text) {
+        return WikiCollaborationDTO.CrdtRun.builder()
+                .clock(first.id.clock())
+                .site(first.id.site())
+                .text(text.toString())
+                .deleted(first.deleted)
+                .build();
+    }
+
+    // ==================== 内部结构 ====================
+
+    /**
+     * 字符标识，先比较 clock，clock 相同时比较站点
+     */
+    private record ElementId(long clock, String site) implements Comparable<ElementId> {
+
+        @Override
+        public int compareTo(ElementId other) {
+            int byClock = Long.compare(clock, other.clock);
+            return byClock != 0 ? byClock : site.compareTo(other.site);
+        }
+    }
+
+    private static final class Node {
+
+        private final ElementId id;
+
+        private final char value;
+
+        private boolean deleted;
+
+        private Node next;
+
+        private Node(ElementId id, char value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+    private record Pending(WikiCollaborationDTO.CrdtOperation operation, int elements) {
+    }
+}
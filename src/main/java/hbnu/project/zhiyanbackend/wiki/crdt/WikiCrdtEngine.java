@@ -0,0 +1,653 @@
+package hbnu.project.zhiyanbackend.wiki.crdt;
+
+import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
+import hbnu.project.zhiyanbackend.redis.utils.RedisUtils;
+import hbnu.project.zhiyanbackend.wiki.model.dto.WikiCollaborationDTO;
+import hbnu.project.zhiyanbackend.wiki.model.entity.WikiPage;
+import hbnu.project.zhiyanbackend.wiki.model.enums.PageType;
+import hbnu.project.zhiyanbackend.wiki.repository.WikiPageRepository;
+import hbnu.project.zhiyanbackend.wiki.service.WikiCollaborationService;
+import hbnu.project.zhiyanbackend.wiki.service.WikiContentVersionService;
+import hbnu.project.zhiyanbackend.wiki.service.WikiPageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wiki 协同编辑 CRDT 引擎
+ * 每个正在协同编辑的页面在节点内存中持有一份 {@link RgaDocument}，客户端提交字符级操作后立即在服务端合并，
+ * 并按页面在 50ms 窗口内合并成批次：广播给本节点的 STOMP 订阅者、追加到 Redis 操作日志、通过 Redis 频道转发给其他节点。
+ * <p>
+ * 一轮协同会话称为一个纪元（epoch），纪元记录会话开始时的基线版本；节点首次打开页面时加载基线版本内容并回放操作日志，
+ * 因此各节点对同一字符得到相同的标识。内容按固定间隔通过 {@link WikiPageService#updateWikiPageIfVersion} 保存为快照，
+ * 不再每次按键都走完整的版本与差异计算；页面若已通过编辑锁或 REST 接口保存了新版本，快照不覆盖，本轮纪元结束并通知订阅者重新同步。
+ * 每次保存快照后把包含墓碑的完整状态写入 Redis，并裁剪操作日志中已包含在状态内的批次。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WikiCrdtEngine implements ApplicationRunner {
+
+    /**
+     * 节点间转发频道
+     */
+    public static final String RELAY_CHANNEL = "wiki:crdt:relay";
+
+    /**
+     * 纪元键（值为 "基线版本:随机标识"）与操作日志键
+     */
+    private static final String EPOCH_KEY_PREFIX = "wiki:crdt:epoch:";
+    private static final String LOG_KEY_PREFIX = "wiki:crdt:log:";
+
+    /**
+     * 状态快照键（值为包含墓碑的完整序列）与快照版本键（值为本纪元最近一次保存的页面版本）
+     */
+    private static final String STATE_KEY_PREFIX = "wiki:crdt:state:";
+    private static final String VERSION_KEY_PREFIX = "wiki:crdt:version:";
+
+    /**
+     * 快照互斥键，保证同一时间窗口内只有一个节点保存
+     */
+    private static final String SNAPSHOT_LOCK_PREFIX = "wiki:crdt:snapshot:";
+
+    /**
+     * 纪元与操作日志的过期时间，活跃会话每次刷出批次时续期
+     */
+    private static final Duration SESSION_TTL = Duration.ofDays(1);
+
+    /**
+     * 批次合并窗口（毫秒）
+     */
+    private static final long FLUSH_INTERVAL_MS = 50L;
+
+    /**
+     * 快照间隔与空闲关闭时间
+     */
+    private static final Duration SNAPSHOT_INTERVAL = Duration.ofSeconds(60);
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+    /**
+     * 单批次操作数、单次插入长度与单页面字符总数上限
+     */
+    private static final int MAX_OPS_PER_BATCH = 1_000;
+    private static final int MAX_INSERT_LENGTH = 10_000;
+    private static final int MAX_DOCUMENT_ELEMENTS = 500_000;
+
+    private static final String SNAPSHOT_DESCRIPTION = "协同编辑自动保存";
+
+    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final WikiPageRepository wikiPageRepository;
+    private final WikiPageService wikiPageService;
+    private final WikiContentVersionService contentVersionService;
+    private final WikiCollaborationService collaborationService;
+
+    /**
+     * 本节点标识，用于忽略自己转发出去的批次
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<Long, PageSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * 启动时订阅其他节点转发的操作批次
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            RedisUtils.subscribe(RELAY_CHANNEL, WikiCollaborationDTO.CrdtBatch.class, this::onRelay, this::resyncAll);
+            log.info("Wiki CRDT 转发频道订阅成功: channel={}, nodeId={}", RELAY_CHANNEL, nodeId);
+        } catch (Exception e) {
+            log.error("Wiki CRDT 转发频道订阅失败，多节点协同将无法实时同步: channel={}", RELAY_CHANNEL, e);
+        }
+    }
+
+    /**
+     * 提交客户端操作
+     *
+     * @param pageId 页面ID
+     * @param userId 用户ID
+     * @param ops    操作列表，插入操作的站点标识必须以 "{userId}:" 开头
+     */
+    public void submit(Long pageId, Long userId, List<WikiCollaborationDTO.CrdtOperation> ops) {
+        if (ops == null || ops.isEmpty()) {
+            return;
+        }
+        if (ops.size() > MAX_OPS_PER_BATCH) {
+            throw new ServiceException("单次提交的操作过多");
+        }
+        String sitePrefix = userId + ":";
+        for (WikiCollaborationDTO.CrdtOperation op : ops) {
+            validate(op, sitePrefix);
+        }
+
+        PageSession session = openSession(pageId);
+        synchronized (session) {
+            if (session.closed) {
+                // 会话恰好在空闲关闭或纪元变更时被移除，重新打开后提交
+                submit(pageId, userId, ops);
+                return;
+            }
+            if (session.document.size() > MAX_DOCUMENT_ELEMENTS) {
+                throw new ServiceException("文档过大，无法继续协同编辑");
+            }
+            for (WikiCollaborationDTO.CrdtOperation op : ops) {
+                if (!session.document.apply(op)) {
+                    log.debug("CRDT 操作依赖尚未到达，已挂起: pageId={}, site={}, clock={}",
+                            pageId, op.getSite(), op.getClock());
+                }
+                session.outbound.add(op);
+            }
+            if (session.document.overflowed()) {
+                reload(session, "挂起操作超限");
+            }
+            session.touch(userId);
+        }
+    }
+
+    /**
+     * 获取页面当前的完整 CRDT 状态，供客户端加入时初始化
+     *
+     * @param pageId 页面ID
+     * @return 文档状态
+     */
+    public WikiCollaborationDTO.CrdtState state(Long pageId) {
+        PageSession session = openSession(pageId);
+        synchronized (session) {
+            return WikiCollaborationDTO.CrdtState.builder()
+                    .pageId(pageId)
+                    .epoch(session.epoch)
+                    .maxClock(session.document.maxClock())
+                    .runs(session.document.runs())
+                    .build();
+        }
+    }
+
+    /**
+     * 按页面刷出 50ms 窗口内累积的操作
+     */
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS)
+    public void flush() {
+        for (PageSession session : sessions.values()) {
+            WikiCollaborationDTO.CrdtBatch batch;
+            synchronized (session) {
+                if (session.outbound.isEmpty()) {
+                    continue;
+                }
+                batch = WikiCollaborationDTO.CrdtBatch.builder()
+                        .pageId(session.pageId)
+                        .epoch(session.epoch)
+                        .nodeId(nodeId)
+                        .userId(session.lastEditorId)
+                        .ops(coalesce(session.outbound))
+                        .build();
+                session.outbound.clear();
+            }
+            try {
+                publish(batch);
+            } catch (Exception e) {
+                log.error("Wiki CRDT 批次刷出失败: pageId={}, ops={}", batch.getPageId(), batch.getOps().size(), e);
+            }
+        }
+    }
+
+    /**
+     * 保存到期的快照，关闭空闲会话
+     */
+    @Scheduled(fixedDelay = 10_000L)
+    public void maintain() {
+        long now = System.currentTimeMillis();
+        for (PageSession session : sessions.values()) {
+            try {
+                boolean idle = now - session.lastActivity >= IDLE_TIMEOUT.toMillis();
+                if (session.dirty && (idle || now - session.lastSnapshot >= SNAPSHOT_INTERVAL.toMillis())) {
+                    snapshot(session, now);
+                }
+                if (idle) {
+                    close(session);
+                }
+            } catch (Exception e) {
+                log.error("Wiki CRDT 会话维护失败: pageId={}", session.pageId, e);
+            }
+        }
+    }
+
+    // ==================== 会话 ====================
+
+    private PageSession openSession(Long pageId) {
+        while (true) {
+            // 会话对象先登记再加载：加载期间到达的转发批次一定已写入操作日志，加载时会一并回放
+            PageSession session = sessions.computeIfAbsent(pageId, PageSession::new);
+            synchronized (session) {
+                if (session.closed) {
+                    continue;
+                }
+                if (!session.loaded) {
+                    load(session);
+                }
+            }
+            return session;
+        }
+    }
+
+    private void load(PageSession session) {
+        Long pageId = session.pageId;
+        WikiPage page = wikiPageRepository.findById(pageId).orElse(null);
+        if (page == null || page.getPageType() != PageType.DOCUMENT) {
+            discard(session);
+            throw new ServiceException("Wiki页面不存在或不是文档类型");
+        }
+
+        String epochKey = EPOCH_KEY_PREFIX + pageId;
+        String candidate = page.getCurrentVersion() + ":" + UUID.randomUUID();
+        String epoch = RedisUtils.setObjectIfAbsent(epochKey, candidate, SESSION_TTL) ? candidate : RedisUtils.getCacheObject(epochKey);
+        if (epoch == null) {
+            epoch = candidate;
+            RedisUtils.setCacheObject(epochKey, epoch, SESSION_TTL);
+        }
+
+        // 先读日志再读状态快照：快照总是先于日志裁剪写入，任意时刻读到的快照加日志都是完整的
+        int baseVersion = baseVersion(epoch);
+        List<WikiCollaborationDTO.CrdtBatch> history = RedisUtils.getCacheList(LOG_KEY_PREFIX + pageId);
+        WikiCollaborationDTO.CrdtState state = RedisUtils.getCacheObject(STATE_KEY_PREFIX + pageId);
+        RgaDocument document;
+        if (state != null && epoch.equals(state.getEpoch()) && state.getRuns() != null) {
+            document = RgaDocument.fromRuns(state.getRuns());
+        } else {
+            String baseContent = baseVersion == page.getCurrentVersion()
+                    ? page.getContent()
+                    : contentVersionService.getVersionContent(pageId, baseVersion);
+            if (baseContent != null && baseContent.length() > MAX_DOCUMENT_ELEMENTS) {
+                discard(session);
+                throw new ServiceException("文档过大，无法协同编辑");
+            }
+            document = RgaDocument.fromText(baseContent);
+        }
+        int replayed = 0;
+        for (WikiCollaborationDTO.CrdtBatch batch : history) {
+            if (epoch.equals(batch.getEpoch()) && batch.getOps() != null) {
+                batch.getOps().forEach(document::apply);
+                replayed += batch.getOps().size();
+            }
+        }
+        if (document.overflowed() || document.pendingSize() > 0) {
+            // 日志按因果顺序追加，完整回放后仍无法应用的操作依赖的字符永远不会到达
+            int discarded = document.discardPending();
+            log.warn("Wiki CRDT 回放后存在无法应用的操作，已丢弃: pageId={}, epoch={}, 挂起字符数={}",
+                    pageId, epoch, discarded);
+        }
+
+        session.epoch = epoch;
+        session.document = document;
+        session.dirty = replayed > 0;
+        session.lastSnapshot = System.currentTimeMillis();
+        session.lastActivity = session.lastSnapshot;
+        session.loaded = true;
+        log.info("Wiki CRDT 会话已加载: pageId={}, epoch={}, 基线版本={}, 回放操作{}个",
+                pageId, epoch, baseVersion, replayed);
+    }
+
+    /**
+     * 从状态快照与操作日志重建文档，本节点尚未刷出的操作重新应用，调用方需持有会话锁
+     */
+    private void reload(PageSession session, String reason) {
+        log.warn("Wiki CRDT 重新加载会话: pageId={}, epoch={}, reason={}", session.pageId, session.epoch, reason);
+        boolean dirty = session.dirty;
+        session.loaded = false;
+        load(session);
+        session.outbound.forEach(session.document::apply);
+        session.dirty |= dirty;
+        if (session.document.overflowed()) {
+            // 本节点待刷出的操作中仍有依赖永远不会到达的操作（客户端构造错误），丢弃
+            session.document.discardPending();
+            log.warn("Wiki CRDT 重新加载后仍有无法应用的操作，已丢弃: pageId={}", session.pageId);
+        }
+    }
+
+    private void close(PageSession session) {
+        synchronized (session) {
+            boolean idle = System.currentTimeMillis() - session.lastActivity >= IDLE_TIMEOUT.toMillis();
+            if (session.closed || !session.loaded || !idle || !session.outbound.isEmpty() || session.dirty) {
+                return;
+            }
+            discard(session);
+        }
+        Long editorCount = collaborationService.getEditorCount(session.pageId);
+        if (editorCount == null || editorCount == 0) {
+            // 已无任何节点上的编辑者，结束本轮纪元，下次协同以最新持久化版本为基线
+            deleteEpoch(session.pageId, session.epoch);
+        }
+        log.info("Wiki CRDT 会话已关闭: pageId={}, epoch={}", session.pageId, session.epoch);
+    }
+
+    /**
+     * 移除会话并标记关闭，持有旧引用的线程据此重新打开，调用方需持有会话锁
+     */
+    private void discard(PageSession session) {
+        session.closed = true;
+        sessions.remove(session.pageId, session);
+    }
+
+    /**
+     * 移除本轮纪元在 Redis 中的全部状态
+     */
+    private void deleteEpoch(Long pageId, String epoch) {
+        RedisUtils.deleteObject(List.of(
+                EPOCH_KEY_PREFIX + pageId,
+                LOG_KEY_PREFIX + pageId,
+                STATE_KEY_PREFIX + pageId,
+                VERSION_KEY_PREFIX + pageId + ":" + epoch));
+    }
+
+    private void snapshot(PageSession session, long now) {
+        String content;
+        Long editorId;
+        String epoch;
+        synchronized (session) {
+            content = session.document.text();
+            editorId = session.lastEditorId;
+            epoch = session.epoch;
+            session.dirty = false;
+            session.lastSnapshot = now;
+        }
+        // 各节点状态最终一致，同一窗口内由先占到互斥键的节点保存即可
+        String lockKey = SNAPSHOT_LOCK_PREFIX + session.pageId;
+        if (!RedisUtils.setObjectIfAbsent(lockKey, nodeId, SNAPSHOT_INTERVAL.dividedBy(2))) {
+            return;
+        }
+        // 期望版本为本纪元最近一次快照保存的版本，尚未保存过时为基线版本
+        String versionKey = VERSION_KEY_PREFIX + session.pageId + ":" + epoch;
+        Integer savedVersion = RedisUtils.getCacheObject(versionKey);
+        int expectedVersion = savedVersion != null ? savedVersion : baseVersion(epoch);
+        WikiPage saved;
+        try {
+            saved = wikiPageService.updateWikiPageIfVersion(
+                    session.pageId, content, SNAPSHOT_DESCRIPTION, editorId, expectedVersion);
+        } catch (Exception e) {
+            synchronized (session) {
+                session.dirty = true;
+            }
+            RedisUtils.deleteObject(lockKey);
+            throw e;
+        }
+        if (saved == null) {
+            // 页面已通过编辑锁或 REST 接口保存了新版本，协同内容不覆盖它：结束本轮纪元，订阅者以最新版本重新开始
+            log.warn("Wiki CRDT 快照版本冲突，放弃保存并结束纪元: pageId={}, epoch={}, expectedVersion={}, 未保存字符数={}",
+                    session.pageId, epoch, expectedVersion, content.length());
+            reset(session, epoch);
+            return;
+        }
+        RedisUtils.setCacheObject(versionKey, saved.getCurrentVersion(), SESSION_TTL);
+        compactLog(session);
+        log.debug("Wiki CRDT 快照已保存: pageId={}, version={}, length={}",
+                session.pageId, saved.getCurrentVersion(), content.length());
+    }
+
+    /**
+     * 写入包含墓碑的完整状态快照，并裁剪操作日志开头已全部包含在快照内的批次。
+     * 快照先于裁剪写入，裁剪只移除日志开头的元素，其他节点并发追加的批次不受影响
+     */
+    private void compactLog(PageSession session) {
+        String logKey = LOG_KEY_PREFIX + session.pageId;
+        List<WikiCollaborationDTO.CrdtBatch> history = RedisUtils.getCacheList(logKey);
+        WikiCollaborationDTO.CrdtState state;
+        int covered = 0;
+        synchronized (session) {
+            if (session.closed) {
+                return;
+            }
+            for (WikiCollaborationDTO.CrdtBatch batch : history) {
+                boolean current = Objects.equals(batch.getEpoch(), session.epoch) && batch.getOps() != null;
+                if (current && !batch.getOps().stream().allMatch(session.document::contains)) {
+                    // 该批次尚未转发到本节点，它及其后的批次保留
+                    break;
+                }
+                covered++;
+            }
+            if (covered == 0) {
+                return;
+            }
+            state = WikiCollaborationDTO.CrdtState.builder()
+                    .pageId(session.pageId)
+                    .epoch(session.epoch)
+                    .maxClock(session.document.maxClock())
+                    .runs(session.document.runs())
+                    .build();
+        }
+        RedisUtils.setCacheObject(STATE_KEY_PREFIX + session.pageId, state, SESSION_TTL);
+        RedisUtils.trimCacheList(logKey, covered, -1);
+        log.debug("Wiki CRDT 操作日志已裁剪: pageId={}, 移除批次{}个, 保留{}个",
+                session.pageId, covered, history.size() - covered);
+    }
+
+    /**
+     * 结束本轮纪元：移除会话与 Redis 状态，通知本节点与其他节点的订阅者重新获取完整状态
+     */
+    private void reset(PageSession session, String epoch) {
+        synchronized (session) {
+            discard(session);
+        }
+        deleteEpoch(session.pageId, epoch);
+        WikiCollaborationDTO.CrdtBatch notice = WikiCollaborationDTO.CrdtBatch.builder()
+                .pageId(session.pageId)
+                .epoch(epoch)
+                .nodeId(nodeId)
+                .ops(List.of())
+                .resync(true)
+                .build();
+        broadcastLocal(notice);
+        RedisUtils.publish(RELAY_CHANNEL, notice);
+    }
+
+    private static int baseVersion(String epoch) {
+        return Integer.parseInt(epoch.substring(0, epoch.indexOf(':')));
+    }
+
+    // ==================== 转发 ====================
+
+    private void publish(WikiCollaborationDTO.CrdtBatch batch) {
+        broadcastLocal(batch);
+        // 先写日志再转发：其他节点若在转发到达前开始加载，也能从日志中取到这一批次
+        String logKey = LOG_KEY_PREFIX + batch.getPageId();
+        RedisUtils.addCacheList(logKey, batch);
+        RedisUtils.expire(logKey, SESSION_TTL);
+        RedisUtils.expire(EPOCH_KEY_PREFIX + batch.getPageId(), SESSION_TTL);
+        RedisUtils.publish(RELAY_CHANNEL, batch);
+    }
+
+    private void onRelay(WikiCollaborationDTO.CrdtBatch batch) {
+        if (nodeId.equals(batch.getNodeId())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(batch.getResync())) {
+            PageSession session = sessions.get(batch.getPageId());
+            if (session != null) {
+                synchronized (session) {
+                    discard(session);
+                }
+            }
+            broadcastLocal(batch);
+            return;
+        }
+        if (batch.getOps() == null) {
+            return;
+        }
+        PageSession session = sessions.get(batch.getPageId());
+        if (session == null) {
+            return;
+        }
+        synchronized (session) {
+            if (!session.loaded) {
+                // 加载尚未开始，批次已在操作日志中
+                return;
+            }
+            if (!Objects.equals(batch.getEpoch(), session.epoch)) {
+                // 其他节点已开启新纪元，本地会话作废，下次访问时重新加载
+                discard(session);
+                log.info("Wiki CRDT 纪元已变更，丢弃本地会话: pageId={}, local={}, remote={}",
+                        session.pageId, session.epoch, batch.getEpoch());
+                return;
+            }
+            batch.getOps().forEach(session.document::apply);
+            if (session.document.overflowed()) {
+                reload(session, "挂起操作超限");
+            }
+            session.touch(batch.getUserId());
+        }
+        broadcastLocal(batch);
+    }
+
+    /**
+     * 转发批次积压被丢弃时，所有会话从状态快照与操作日志重新加载（被丢弃的批次都已写入日志），
+     * 并通知本节点订阅者重新获取完整状态
+     */
+    private void resyncAll() {
+        for (PageSession session : sessions.values()) {
+            WikiCollaborationDTO.CrdtBatch notice;
+            try {
+                synchronized (session) {
+                    if (session.closed || !session.loaded) {
+                        continue;
+                    }
+                    reload(session, "转发消息积压");
+                    notice = WikiCollaborationDTO.CrdtBatch.builder()
+                            .pageId(session.pageId)
+                            .epoch(session.epoch)
+                            .nodeId(nodeId)
+                            .ops(List.of())
+                            .resync(true)
+                            .build();
+                }
+            } catch (Exception e) {
+                log.error("Wiki CRDT 会话重新同步失败: pageId={}", session.pageId, e);
+                continue;
+            }
+            broadcastLocal(notice);
+        }
+    }
+
+    private void broadcastLocal(WikiCollaborationDTO.CrdtBatch batch) {
+        simpMessagingTemplate.convertAndSend("/topic/wiki/" + batch.getPageId() + "/crdt", batch);
+    }
+
+    // ==================== 校验与合并 ====================
+
+    private void validate(WikiCollaborationDTO.CrdtOperation op, String sitePrefix) {
+        if (op == null || op.getClock() == null || op.getClock() <= 0 || op.getSite() == null) {
+            throw new ServiceException("CRDT 操作格式错误");
+        }
+        if ("insert".equals(op.getType())) {
+            if (!op.getSite().startsWith(sitePrefix) || op.getSite().length() <= sitePrefix.length()) {
+                throw new ServiceException("CRDT 站点标识与当前用户不匹配");
+            }
+            if (op.getText() == null || op.getText().isEmpty() || op.getText().length() > MAX_INSERT_LENGTH) {
+                throw new ServiceException("CRDT 插入内容长度不合法");
+            }
+            if ((op.getOriginClock() == null) != (op.getOriginSite() == null)) {
+                throw new ServiceException("CRDT 插入位置不完整");
+            }
+            // Lamport 时钟必须大于左侧字符，否则并发插入的排序规则不再成立
+            if (op.getOriginClock() != null && op.getClock() <= op.getOriginClock()) {
+                throw new ServiceException("CRDT 操作时钟不合法");
+            }
+        } else if ("delete".equals(op.getType())) {
+            if (op.getLength() != null && (op.getLength() <= 0 || op.getLength() > MAX_INSERT_LENGTH)) {
+                throw new ServiceException("CRDT 删除长度不合法");
+            }
+        } else {
+            throw new ServiceException("不支持的 CRDT 操作类型");
+        }
+    }
+
+    /**
+     * 合并窗口内的连续操作：同站点、clock 连续且接在上一段末尾的插入合并为一段，
+     * 同站点、clock 连续的删除合并为一段
+     */
+    private static List<WikiCollaborationDTO.CrdtOperation> coalesce(List<WikiCollaborationDTO.CrdtOperation> ops) {
+        List<WikiCollaborationDTO.CrdtOperation> merged = new ArrayList<>(ops.size());
+        WikiCollaborationDTO.CrdtOperation last = null;
+        for (WikiCollaborationDTO.CrdtOperation op : ops) {
+            if (last != null && last.getType().equals(op.getType()) && last.getSite().equals(op.getSite())) {
+                if ("insert".equals(op.getType())) {
+                    long lastEnd = last.getClock() + last.getText().length() - 1;
+                    if (op.getClock() == lastEnd + 1
+                            && Objects.equals(op.getOriginClock(), lastEnd)
+                            && last.getSite().equals(op.getOriginSite())
+                            && last.getText().length() + op.getText().length() <= MAX_INSERT_LENGTH) {
+                        last.setText(last.getText() + op.getText());
+                        continue;
+                    }
+                } else {
+                    int lastLength = last.getLength() == null ? 1 : last.getLength();
+                    int length = op.getLength() == null ? 1 : op.getLength();
+                    if (op.getClock() == last.getClock() + lastLength) {
+                        last.setLength(lastLength + length);
+                        continue;
+                    }
+                }
+            }
+            last = copy(op);
+            merged.add(last);
+        }
+        return merged;
+    }
+
+    private static WikiCollaborationDTO.CrdtOperation copy(WikiCollaborationDTO.CrdtOperation op) {
+        return WikiCollaborationDTO.CrdtOperation.builder()
+                .type(op.getType())
+                .clock(op.getClock())
+                .site(op.getSite())
+                .originClock(op.getOriginClock())
+                .originSite(op.getOriginSite())
+                .text(op.getText())
+                .length(op.getLength())
+                .build();
+    }
+
+    /**
+     * 单个页面的协同会话，字段由对象锁保护
+     */
+    private static final class PageSession {
+
+        private final Long pageId;
+
+        private final List<WikiCollaborationDTO.CrdtOperation> outbound = new ArrayList<>();
+
+        private boolean loaded;
+
+        private boolean closed;
+
+        private String epoch;
+
+        private RgaDocument document;
+
+        private volatile boolean dirty;
+
+        private Long lastEditorId;
+
+        private volatile long lastSnapshot;
+
+        private volatile long lastActivity;
+
+        private PageSession(Long pageId) {
+            this.pageId = pageId;
+        }
+
+        private void touch(Long userId) {
+            dirty = true;
+            if (userId != null) {
+                lastEditorId = userId;
+            }
+            lastActivity = System.currentTimeMillis();
+        }
+    }
+}
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Wiki 协同编辑数据传输对象
@@ -106,5 +107,77 @@ public class WikiCollaborationDTO {
         private Object data;
         private LocalDateTime timestamp;
     }
-}
 
+    /**
+     * CRDT 操作
+     * 插入时 clock/site 为第一个新字符的标识，其后字符的 clock 依次加一，originClock/originSite 为左侧字符（为空表示文档开头）；
+     * 删除时 clock/site 为第一个被删字符的标识，length 个同站点、clock 连续的字符一起删除。
+     */
+    @Setter
+    @Getter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CrdtOperation {
+        @Xss(message = "操作类型包含非法字符")
+        private String type;
+        private Long clock;
+        @Xss(message = "站点标识包含非法字符")
+        private String site;
+        private Long originClock;
+        @Xss(message = "站点标识包含非法字符")
+        private String originSite;
+        private String text;
+        private Integer length;
+    }
+
+    /**
+     * CRDT 操作批次，客户端提交、节点间转发和向订阅者广播共用
+     */
+    @Setter
+    @Getter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CrdtBatch {
+        private Long pageId;
+        private String epoch;
+        private String nodeId;
+        private Long userId;
+        private List<CrdtOperation> ops;
+        /**
+         * 为 true 时表示服务端协同状态已重置，订阅者需重新获取完整状态
+         */
+        private Boolean resync;
+    }
+
+    /**
+     * CRDT 文档状态中的一段：同站点、clock 连续且删除状态相同的字符
+     */
+    @Setter
+    @Getter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CrdtRun {
+        private Long clock;
+        private String site;
+        private String text;
+        private Boolean deleted;
+    }
+
+    /**
+     * CRDT 文档完整状态，客户端加入协同时同步
+     */
+    @Setter
+    @Getter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CrdtState {
+        private Long pageId;
+        private String epoch;
+        private Long maxClock;
+        private List<CrdtRun> runs;
+    }
+}
@@ -0,0 +1,55 @@
+package hbnu.project.zhiyanbackend.wiki.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Wiki导入进度DTO
+ * 通过SSE推送给发起导入的用户
+ *
+ * @author ErgouTree
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WikiImportProgressDTO {
+
+    /**
+     * 消息类型，前端据此区分SSE消息
+     */
+    @Builder.Default
+    private String type = "wiki-import";
+
+    /**
+     * 导入任务ID
+     */
+    private String importId;
+
+    /**
+     * 项目ID
+     */
+    private Long projectId;
+
+    /**
+     * 当前阶段（PARSING, UPLOADING, SAVING, DONE, FAILED）
+     */
+    private String stage;
+
+    /**
+     * 当前阶段已处理数量
+     */
+    private Integer processed;
+
+    /**
+     * 当前阶段总数量
+     */
+    private Integer total;
+
+    /**
+     * 导入结果（仅 DONE / FAILED 阶段）
+     */
+    private WikiImportResultDTO result;
+}
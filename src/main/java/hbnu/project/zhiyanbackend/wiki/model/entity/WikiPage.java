@@ -256,7 +256,7 @@ public class WikiPage extends BaseAuditEntity {
      * 保存差异补丁而非完整内容，节省存储空间
      */
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class RecentVersionInfo {
@@ -266,10 +266,15 @@ public class WikiPage extends BaseAuditEntity {
         private Integer version;
 
         /**
-         * 相对于前一版本的差异补丁（Unified Diff 格式）
+         * 相对于前一版本的差异补丁（Unified Diff 格式），旧数据使用
          */
         private String contentDiff;
 
+        /**
+         * 压缩编码后的差异补丁（JSONB 中为 Base64），由 WikiPatchCodec 读写
+         */
+        private byte[] contentPatch;
+
         /**
          * 变更描述（用户提交的说明）
          */
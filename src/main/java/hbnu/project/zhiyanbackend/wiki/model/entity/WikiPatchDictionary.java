@@ -0,0 +1,73 @@
+package hbnu.project.zhiyanbackend.wiki.model.entity;
+
+import hbnu.project.zhiyanbackend.basic.annotation.LongToString;
+import hbnu.project.zhiyanbackend.basic.utils.SnowflakeIdUtils;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Wiki 差异补丁压缩字典（PostgreSQL）
+ * 按项目从已有补丁中训练，作为 deflate 的预置字典；补丁头部记录所用字典ID，
+ * 字典一经写入不再修改，重新训练时新增一条记录
+ *
+ * @author ErgouTree
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "wiki_patch_dictionary", schema = "zhiyanwiki", indexes = {
+        @Index(name = "idx_patch_dictionary_project", columnList = "project_id, created_at")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WikiPatchDictionary {
+
+    /**
+     * 字典ID（雪花ID）
+     */
+    @Id
+    @LongToString
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    /**
+     * 所属项目ID
+     */
+    @LongToString
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    /**
+     * 字典内容
+     */
+    @Column(name = "dictionary", nullable = false, columnDefinition = "bytea")
+    private byte[] dictionary;
+
+    /**
+     * 训练使用的补丁数量
+     */
+    @Column(name = "sample_count")
+    private Integer sampleCount;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * 在持久化之前生成雪花ID和创建时间
+     */
+    @PrePersist
+    public void prePersist() {
+        if (this.id == null) {
+            this.id = SnowflakeIdUtils.nextId();
+        }
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -65,11 +65,17 @@ public class WikiVersionHistory extends BaseAuditEntity {
 
     /**
      * 相对于前一版本的差异补丁（Unified Diff 格式）
-     * 使用TEXT类型存储大文本
+     * 旧数据使用，新版本写入 contentPatch，迁移完成后为 null
      */
     @Column(name = "content_diff", columnDefinition = "TEXT")
     private String contentDiff;
 
+    /**
+     * 压缩编码后的差异补丁，由 WikiPatchCodec 读写
+     */
+    @Column(name = "content_patch", columnDefinition = "bytea")
+    private byte[] contentPatch;
+
     /**
      * 变更描述
      */
@@ -25,7 +25,12 @@ public enum ExportFormat {
     /**
      * Word格式
      */
-    WORD("word", "application/vnd.openxmlformats-officedocument.wordprocessingml.document", ".docx");
+    WORD("word", "application/vnd.openxmlformats-officedocument.wordprocessingml.document", ".docx"),
+
+    /**
+     * HTML格式
+     */
+    HTML("html", "text/html", ".html");
     
     /**
      * 格式名称
@@ -2,13 +2,16 @@ package hbnu.project.zhiyanbackend.wiki.repository;
 
 import hbnu.project.zhiyanbackend.wiki.model.entity.WikiPage;
 import hbnu.project.zhiyanbackend.wiki.model.enums.PageType;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -35,6 +38,16 @@ public interface WikiPageRepository extends JpaRepository<WikiPage, Long> {
      */
     Optional<WikiPage> findByIdAndProjectId(Long id, Long projectId);
 
+    /**
+     * 根据ID查询Wiki页面并加行锁（用于按版本号条件更新）
+     *
+     * @param id 页面ID
+     * @return Wiki页面
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WikiPage w WHERE w.id = :id")
+    Optional<WikiPage> findByIdForUpdate(@Param("id") Long id);
+
     /**
      * 根据项目ID查询所有Wiki页面
      *
@@ -159,6 +172,17 @@ public interface WikiPageRepository extends JpaRepository<WikiPage, Long> {
      */
     List<WikiPage> findByProjectIdAndTitleAndParentId(Long projectId, String title, Long parentId);
 
+    /**
+     * 查询同级页面的标题（批量导入时一次性检查重名）
+     *
+     * @param projectId 项目ID
+     * @param parentId  父页面ID（null表示根级）
+     * @return 标题列表
+     */
+    @Query("SELECT w.title FROM WikiPage w WHERE w.projectId = :projectId AND " +
+            "(w.parentId = :parentId OR (:parentId IS NULL AND w.parentId IS NULL))")
+    List<String> findChildTitles(@Param("projectId") Long projectId, @Param("parentId") Long parentId);
+
     // ==================== 全文搜索 ====================
 
     /**
@@ -366,4 +390,36 @@ public interface WikiPageRepository extends JpaRepository<WikiPage, Long> {
             "WHERE jsonb_array_length(recent_versions) > 10",
             nativeQuery = true)
     List<WikiPage> findPagesNeedingArchival();
+
+    // ==================== 补丁压缩迁移 ====================
+
+    /**
+     * 查询最近版本中仍以文本保存补丁的页面
+     *
+     * @param limit 返回数量上限
+     * @return 页面列表
+     */
+    @Query(value = "SELECT w.* FROM zhiyanwiki.wiki_page w " +
+            "WHERE jsonb_typeof(w.recent_versions) = 'array' " +
+            "AND EXISTS (SELECT 1 FROM jsonb_array_elements(w.recent_versions) e " +
+            "WHERE COALESCE(e->>'contentDiff', '') <> '') " +
+            "ORDER BY w.id LIMIT :limit",
+            nativeQuery = true)
+    List<WikiPage> findPagesWithTextPatches(@Param("limit") int limit);
+
+    /**
+     * 只更新最近版本列表，页面在读取后被修改过（乐观锁版本变化）时不更新；
+     * 批量更新不触发审计字段，不影响页面的修改时间
+     *
+     * @param id             页面ID
+     * @param version        读取时的乐观锁版本
+     * @param recentVersions 新的最近版本列表
+     * @return 影响行数
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE WikiPage w SET w.recentVersions = :recentVersions WHERE w.id = :id AND w.version = :version")
+    int updateRecentVersions(@Param("id") Long id,
+                             @Param("version") Integer version,
+                             @Param("recentVersions") List<WikiPage.RecentVersionInfo> recentVersions);
 }
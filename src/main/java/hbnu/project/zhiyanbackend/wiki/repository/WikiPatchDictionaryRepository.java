@@ -0,0 +1,24 @@
+package hbnu.project.zhiyanbackend.wiki.repository;
+
+import hbnu.project.zhiyanbackend.wiki.model.entity.WikiPatchDictionary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Wiki 差异补丁压缩字典数据访问层
+ *
+ * @author ErgouTree
+ */
+@Repository
+public interface WikiPatchDictionaryRepository extends JpaRepository<WikiPatchDictionary, Long> {
+
+    /**
+     * 查询项目最新的字典
+     *
+     * @param projectId 项目ID
+     * @return 最新字典
+     */
+    Optional<WikiPatchDictionary> findFirstByProjectIdOrderByCreatedAtDesc(Long projectId);
+}
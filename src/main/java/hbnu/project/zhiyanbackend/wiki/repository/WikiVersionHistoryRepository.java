@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -398,8 +399,8 @@ public interface WikiVersionHistoryRepository extends JpaRepository<WikiVersionH
      * @return 版本列表
      */
     @Query(value = "SELECT * FROM zhiyanwiki.wiki_version_history " +
-            "WHERE LENGTH(content_diff) > :threshold " +
-            "ORDER BY LENGTH(content_diff) DESC",
+            "WHERE COALESCE(OCTET_LENGTH(content_patch), LENGTH(content_diff)) > :threshold " +
+            "ORDER BY COALESCE(OCTET_LENGTH(content_patch), LENGTH(content_diff)) DESC",
             nativeQuery = true)
     List<WikiVersionHistory> findLargeVersions(@Param("threshold") int threshold, Pageable pageable);
 
@@ -407,10 +408,57 @@ public interface WikiVersionHistoryRepository extends JpaRepository<WikiVersionH
      * 统计项目的版本存储总大小（估算）
      *
      * @param projectId 项目ID
-     * @return 总字符数
+     * @return 总字节数（未迁移的文本补丁按字符数计）
      */
-    @Query(value = "SELECT COALESCE(SUM(LENGTH(content_diff)), 0) " +
+    @Query(value = "SELECT COALESCE(SUM(COALESCE(OCTET_LENGTH(content_patch), LENGTH(content_diff))), 0) " +
             "FROM zhiyanwiki.wiki_version_history WHERE project_id = :projectId",
             nativeQuery = true)
     Long sumStorageSizeByProjectId(@Param("projectId") Long projectId);
+
+    // ==================== 补丁压缩迁移 ====================
+
+    /**
+     * 查询仍以文本保存补丁的历史版本
+     *
+     * @param pageable 分页参数（只取第一页作为批次）
+     * @return 历史版本列表
+     */
+    @Query("SELECT v FROM WikiVersionHistory v " +
+            "WHERE v.contentPatch IS NULL AND v.contentDiff IS NOT NULL AND LENGTH(v.contentDiff) > 0 " +
+            "ORDER BY v.id")
+    List<WikiVersionHistory> findTextPatches(Pageable pageable);
+
+    /**
+     * 写入压缩补丁并清空文本补丁
+     *
+     * @param id    历史记录ID
+     * @param patch 压缩补丁
+     * @return 影响行数
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE WikiVersionHistory v SET v.contentPatch = :patch, v.contentDiff = NULL WHERE v.id = :id")
+    int updateContentPatch(@Param("id") Long id, @Param("patch") byte[] patch);
+
+    /**
+     * 查询归档版本数达到训练要求、但还没有补丁字典的项目
+     *
+     * @param minSamples 最少归档版本数
+     * @param limit      返回数量上限
+     * @return 项目ID列表
+     */
+    @Query(value = "SELECT h.project_id FROM zhiyanwiki.wiki_version_history h " +
+            "WHERE NOT EXISTS (SELECT 1 FROM zhiyanwiki.wiki_patch_dictionary d WHERE d.project_id = h.project_id) " +
+            "GROUP BY h.project_id HAVING COUNT(*) >= :minSamples LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findProjectIdsWithoutPatchDictionary(@Param("minSamples") int minSamples, @Param("limit") int limit);
+
+    /**
+     * 查询项目最近归档的版本（字典训练样本）
+     *
+     * @param projectId 项目ID
+     * @param pageable  分页参数
+     * @return 历史版本列表
+     */
+    List<WikiVersionHistory> findByProjectIdOrderByIdDesc(Long projectId, Pageable pageable);
 }
@@ -0,0 +1,142 @@
+package hbnu.project.zhiyanbackend.wiki.scheduler;
+
+import hbnu.project.zhiyanbackend.redis.lock.SchedulerLock;
+import hbnu.project.zhiyanbackend.wiki.model.entity.WikiPage;
+import hbnu.project.zhiyanbackend.wiki.model.entity.WikiVersionHistory;
+import hbnu.project.zhiyanbackend.wiki.repository.WikiPageRepository;
+import hbnu.project.zhiyanbackend.wiki.repository.WikiVersionHistoryRepository;
+import hbnu.project.zhiyanbackend.wiki.utils.WikiPatchCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wiki 补丁压缩迁移定时任务
+ * 为归档版本足够多的项目训练补丁字典，并把旧数据中的文本补丁分批转换为压缩补丁。
+ * 每条记录单独提交，页面被并发修改时跳过，下一轮再处理。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WikiPatchMigrationScheduler {
+
+    /**
+     * 训练字典所需的最少归档版本数
+     */
+    private static final int DICTIONARY_MIN_SAMPLES = 50;
+
+    /**
+     * 单个项目参与训练的样本数
+     */
+    private static final int DICTIONARY_SAMPLE_SIZE = 500;
+
+    /**
+     * 每轮最多训练的项目数
+     */
+    private static final int DICTIONARY_PROJECTS_PER_RUN = 5;
+
+    private static final int HISTORY_BATCH_SIZE = 200;
+
+    private static final int PAGE_BATCH_SIZE = 50;
+
+    private final WikiVersionHistoryRepository versionHistoryRepository;
+
+    private final WikiPageRepository wikiPageRepository;
+
+    private final WikiPatchCodec patchCodec;
+
+    /**
+     * 样本不足以生成字典的项目，本进程内不再重复尝试
+     */
+    private final Set<Long> untrainableProjects = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 每分钟执行一次，迁移完成后各查询只返回空结果
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    @SchedulerLock(name = "wikiPatchMigration", lockAtMostFor = "10m", lockAtLeastFor = "30s")
+    public void migrate() {
+        try {
+            trainDictionaries();
+            migrateHistory();
+            migrateRecentVersions();
+        } catch (Exception e) {
+            log.error("Wiki补丁压缩迁移失败", e);
+        }
+    }
+
+    /**
+     * 为缺少字典的项目训练补丁字典，先于迁移执行，使迁移的数据能用上项目字典
+     */
+    private void trainDictionaries() {
+        List<Long> projectIds = versionHistoryRepository.findProjectIdsWithoutPatchDictionary(
+                DICTIONARY_MIN_SAMPLES, DICTIONARY_PROJECTS_PER_RUN + untrainableProjects.size());
+        int trained = 0;
+        for (Long projectId : projectIds) {
+            if (trained >= DICTIONARY_PROJECTS_PER_RUN || untrainableProjects.contains(projectId)) {
+                continue;
+            }
+            List<String> samples = versionHistoryRepository
+                    .findByProjectIdOrderByIdDesc(projectId, PageRequest.of(0, DICTIONARY_SAMPLE_SIZE))
+                    .stream()
+                    .map(history -> patchCodec.read(history.getContentDiff(), history.getContentPatch()))
+                    .filter(StringUtils::hasText)
+                    .toList();
+            if (patchCodec.train(projectId, samples) == null) {
+                untrainableProjects.add(projectId);
+            }
+            trained++;
+        }
+    }
+
+    private void migrateHistory() {
+        List<WikiVersionHistory> batch = versionHistoryRepository.findTextPatches(PageRequest.of(0, HISTORY_BATCH_SIZE));
+        if (batch.isEmpty()) {
+            return;
+        }
+        long textBytes = 0;
+        long patchBytes = 0;
+        for (WikiVersionHistory history : batch) {
+            byte[] patch = patchCodec.encode(history.getProjectId(), history.getContentDiff());
+            versionHistoryRepository.updateContentPatch(history.getId(), patch);
+            textBytes += history.getContentDiff().getBytes(StandardCharsets.UTF_8).length;
+            patchBytes += patch == null ? 0 : patch.length;
+        }
+        log.info("Wiki历史版本补丁压缩迁移: {}条, 平均每版本 {} -> {} 字节",
+                batch.size(), textBytes / batch.size(), patchBytes / batch.size());
+    }
+
+    private void migrateRecentVersions() {
+        List<WikiPage> pages = wikiPageRepository.findPagesWithTextPatches(PAGE_BATCH_SIZE);
+        int migrated = 0;
+        for (WikiPage page : pages) {
+            List<WikiPage.RecentVersionInfo> versions = new ArrayList<>(page.getRecentVersions().size());
+            for (WikiPage.RecentVersionInfo version : page.getRecentVersions()) {
+                if (!StringUtils.hasLength(version.getContentDiff())) {
+                    versions.add(version);
+                    continue;
+                }
+                versions.add(version.toBuilder()
+                        .contentDiff(null)
+                        .contentPatch(patchCodec.encode(page.getProjectId(), version.getContentDiff()))
+                        .build());
+            }
+            // 版本号已变化说明页面刚被保存过，留到下一轮
+            migrated += wikiPageRepository.updateRecentVersions(page.getId(), page.getVersion(), versions);
+        }
+        if (!pages.isEmpty()) {
+            log.info("Wiki最近版本补丁压缩迁移: {}/{}个页面", migrated, pages.size());
+        }
+    }
+}
@@ -47,10 +47,11 @@ public interface WikiCollaborationService {
     /**
      * 更新用户光标位置（用于多用户光标同步）
      *
+     * @param pageId   Wiki页面ID
      * @param userId   用户ID
-     * @param position 光标位置信息（包含页面ID、行号、列号等）
+     * @param position 光标位置信息（行号、列号、选区等）
      */
-    void updateCursorPosition(Long userId, WikiCollaborationDTO.CursorPosition position);
+    void updateCursorPosition(Long pageId, Long userId, WikiCollaborationDTO.CursorPosition position);
 
     /**
      * 获取指定页面的在线编辑者列表
@@ -81,15 +82,24 @@ public interface WikiCollaborationService {
      *
      * @param userId 用户ID（申请锁定的用户）
      * @param pageId Wiki页面ID（要锁定的页面）
-     * @return boolean  true-锁定成功，false-已被其他用户锁定
+     * @return String 锁持有凭证（释放时使用），已被其他用户锁定时返回 null
      */
-    boolean tryLockContent(Long userId, Long pageId);
+    String tryLockContent(Long userId, Long pageId);
 
     /**
-     * 释放页面内容锁
+     * 续期页面内容锁（心跳时调用），只有持有凭证匹配时才续期
      *
-     * @param pageId Wiki页面ID（要释放锁定的页面）
-     * @param userId 用户ID（释放锁定的用户，需与锁定用户一致）
+     * @param pageId Wiki页面ID
+     * @param token  加锁时返回的持有凭证
+     * @return boolean  true-续期成功，false-凭证不匹配或锁已过期
+     */
+    boolean renewLock(Long pageId, String token);
+
+    /**
+     * 释放页面内容锁，只有持有凭证匹配时才释放
+     *
+     * @param pageId Wiki页面ID
+     * @param token  加锁时返回的持有凭证
      */
-    void releaseLock(Long pageId, Long userId);
+    void releaseLock(Long pageId, String token);
 }
\ No newline at end of file
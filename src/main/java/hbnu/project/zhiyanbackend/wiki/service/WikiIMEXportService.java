@@ -36,6 +36,15 @@ public interface WikiIMEXportService {
      */
     WikiImportResultDTO importMultipleMarkdown(MultipartFile[] files, WikiImportDTO importDTO);
 
+    /**
+     * 从 ZIP 压缩包导入目录树（异步执行，进度与结果通过 SSE 推送）
+     *
+     * @param file      ZIP 压缩包
+     * @param importDTO 导入配置
+     * @return 导入任务ID
+     */
+    String importFromArchive(MultipartFile file, WikiImportDTO importDTO);
+
     // ========== 导出相关 ==========
 
     /**
@@ -40,6 +40,18 @@ public interface WikiPageService {
      */
     WikiPage updateWikiPage(Long pageId, String title, String content, String changeDesc, Long editorId);
 
+    /**
+     * 仅当页面当前版本等于期望版本时更新内容，用于协同编辑快照，避免覆盖其他途径保存的内容
+     *
+     * @param pageId          页面ID
+     * @param content         新内容
+     * @param changeDesc      修改说明
+     * @param editorId        编辑者ID
+     * @param expectedVersion 期望的当前版本
+     * @return 更新后的页面，版本不一致时返回 null
+     */
+    WikiPage updateWikiPageIfVersion(Long pageId, String content, String changeDesc, Long editorId, int expectedVersion);
+
     /**
      * 将超过最近版本上限的旧版本归档到历史表
      *
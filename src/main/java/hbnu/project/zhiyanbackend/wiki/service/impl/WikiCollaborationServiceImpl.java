@@ -1,47 +1,98 @@
 package hbnu.project.zhiyanbackend.wiki.service.impl;
 
-import hbnu.project.zhiyanbackend.auth.model.dto.UserDTO;
-import hbnu.project.zhiyanbackend.auth.service.UserService;
-import hbnu.project.zhiyanbackend.basic.domain.R;
+import hbnu.project.zhiyanbackend.auth.model.dto.UserSummary;
+import hbnu.project.zhiyanbackend.auth.utils.UserDirectory;
 import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
+import hbnu.project.zhiyanbackend.redis.script.RedisScriptRegistry;
 import hbnu.project.zhiyanbackend.wiki.model.dto.WikiCollaborationDTO;
 import hbnu.project.zhiyanbackend.wiki.service.WikiCollaborationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.time.ZoneId;
+import java.util.*;
 
 /**
  * Wiki 协同编辑服务实现
  *
- * <p>使用 Redis 管理在线编辑者、光标位置和简单内容锁，保持与旧架构功能一致。</p>
+ * <p>每个页面的在线状态保存在一个 Redis hash 中：field 为用户ID，value 为紧凑的状态记录
+ * （过期时间|加入时间|光标），心跳刷新记录中的过期时间，读取时一次 HGETALL 取回全部编辑者和光标。
+ * 内容锁以 "用户ID:随机凭证" 为值，加锁、续期、释放均为预加载的 Lua 脚本（EVALSHA），续期和释放都按完整凭证匹配，
+ * 同一用户的其他会话也不能续期或释放别的会话持有的锁。</p>
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class WikiCollaborationServiceImpl implements WikiCollaborationService {
 
-    private static final String PAGE_EDITORS_KEY = "wiki:editors:page:";
-    private static final String USER_CURSOR_KEY = "wiki:cursor:user:";
+    private static final String PAGE_PRESENCE_KEY = "wiki:presence:page:";
     private static final String USER_PAGE_KEY = "wiki:user:page:";
     private static final String PAGE_CONTENT_LOCK_KEY = "wiki:lock:page:";
 
     private static final long EDITOR_TTL_SECONDS = 300L;
-    private static final long CURSOR_TTL_SECONDS = 60L;
     private static final long CONTENT_LOCK_TTL_SECONDS = 30L;
 
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final UserService userService;
+    /**
+     * 光标超过该时间未更新时不再返回
+     */
+    private static final Duration CURSOR_STALE_AFTER = Duration.ofMinutes(5);
+
+    private static final String FIELD_SEPARATOR = "|";
+
+    /**
+     * 写入在线状态：保留已有记录的加入时间，光标参数为空串时保留已有光标；
+     * ARGV[5] 为 0 时只刷新已存在的记录，不新增
+     */
+    private static final RedisScript<Long> PRESENCE_TOUCH_SCRIPT = RedisScriptRegistry.define(
+            """
+                    local current = redis.call('hget', KEYS[1], ARGV[1])
+                    local joined = ARGV[3]
+                    local cursor = ARGV[4]
+                    if current then
+                        local first = string.find(current, '|', 1, true)
+                        local second = string.find(current, '|', first + 1, true)
+                        joined = string.sub(current, first + 1, second - 1)
+                        if cursor == '' then
+                            cursor = string.sub(current, second + 1)
+                        end
+                    elseif ARGV[5] ~= '1' then
+                        return 0
+                    end
+                    redis.call('hset', KEYS[1], ARGV[1], ARGV[2] .. '|' .. joined .. '|' .. cursor)
+                    redis.call('pexpire', KEYS[1], ARGV[6])
+                    return 1""", Long.class);
+
+    private static final RedisScript<Long> LOCK_ACQUIRE_SCRIPT = RedisScriptRegistry.define(
+            """
+                    if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+                        return 1
+                    end
+                    return 0""", Long.class);
+
+    private static final RedisScript<Long> LOCK_RENEW_SCRIPT = RedisScriptRegistry.define(
+            """
+                    if redis.call('get', KEYS[1]) == ARGV[1] then
+                        return redis.call('pexpire', KEYS[1], ARGV[2])
+                    end
+                    return 0""", Long.class);
+
+    private static final RedisScript<Long> LOCK_RELEASE_SCRIPT = RedisScriptRegistry.define(
+            """
+                    if redis.call('get', KEYS[1]) == ARGV[1] then
+                        return redis.call('del', KEYS[1])
+                    end
+                    return 0""", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final UserDirectory userDirectory;
+
+    private final ZoneId zoneId = ZoneId.systemDefault();
 
     /**
      * 用户加入Wiki页面编辑
@@ -52,12 +103,8 @@ public class WikiCollaborationServiceImpl implements WikiCollaborationService {
     @Override
     public void joinEditing(Long pageId, Long userId) {
         try {
-            String pageKey = PAGE_EDITORS_KEY + pageId;
-            redisTemplate.opsForSet().add(pageKey, userId.toString());
-            redisTemplate.expire(pageKey, Duration.ofSeconds(EDITOR_TTL_SECONDS));
-
-            String userPageKey = USER_PAGE_KEY + userId;
-            redisTemplate.opsForValue().set(userPageKey, pageId.toString(), EDITOR_TTL_SECONDS, TimeUnit.SECONDS);
+            touchPresence(pageId, userId, "", true);
+            stringRedisTemplate.opsForValue().set(USER_PAGE_KEY + userId, pageId.toString(), Duration.ofSeconds(EDITOR_TTL_SECONDS));
             log.debug("用户 [{}] 加入页面 [{}] 编辑", userId, pageId);
         } catch (Exception e) {
             log.error("用户加入编辑失败: pageId={}, userId={}", pageId, userId, e);
@@ -74,21 +121,12 @@ public class WikiCollaborationServiceImpl implements WikiCollaborationService {
     public void leaveEditing(Long userId) {
         try {
             String userPageKey = USER_PAGE_KEY + userId;
-            Object pageIdObj = redisTemplate.opsForValue().get(userPageKey);
-
-            if (pageIdObj != null) {
-                Long pageId = Long.parseLong(pageIdObj.toString());
-                String pageKey = PAGE_EDITORS_KEY + pageId;
-                redisTemplate.opsForSet().remove(pageKey, userId.toString());
-                Long size = redisTemplate.opsForSet().size(pageKey);
-                if (size != null && size == 0) {
-                    redisTemplate.delete(pageKey);
-                }
+            String pageId = stringRedisTemplate.opsForValue().get(userPageKey);
+            if (pageId != null) {
+                stringRedisTemplate.opsForHash().delete(PAGE_PRESENCE_KEY + pageId, userId.toString());
                 log.debug("用户 [{}] 离开页面 [{}] 编辑", userId, pageId);
             }
-
-            redisTemplate.delete(userPageKey);
-            redisTemplate.delete(USER_CURSOR_KEY + userId);
+            stringRedisTemplate.delete(userPageKey);
         } catch (Exception e) {
             log.error("用户离开编辑失败: userId={}", userId, e);
             throw new ServiceException("退出协同编辑失败");
@@ -104,8 +142,8 @@ public class WikiCollaborationServiceImpl implements WikiCollaborationService {
     @Override
     public void refreshEditingStatus(Long pageId, Long userId) {
         try {
-            redisTemplate.expire(PAGE_EDITORS_KEY + pageId, Duration.ofSeconds(EDITOR_TTL_SECONDS));
-            redisTemplate.expire(USER_PAGE_KEY + userId, Duration.ofSeconds(EDITOR_TTL_SECONDS));
+            touchPresence(pageId, userId, "", false);
+            stringRedisTemplate.expire(USER_PAGE_KEY + userId, Duration.ofSeconds(EDITOR_TTL_SECONDS));
         } catch (Exception e) {
             log.error("刷新协同编辑状态失败: pageId={}, userId={}", pageId, userId, e);
         }
@@ -121,8 +159,9 @@ public class WikiCollaborationServiceImpl implements WikiCollaborationService {
     @Override
     public boolean isUserEditing(Long userId, Long pageId) {
         try {
-            Boolean isMember = redisTemplate.opsForSet().isMember(PAGE_EDITORS_KEY + pageId, userId.toString());
-            return Boolean.TRUE.equals(isMember);
+            Object value = stringRedisTemplate.opsForHash().get(PAGE_PRESENCE_KEY + pageId, userId.toString());
+            Presence presence = value == null ? null : Presence.decode(userId, value.toString());
+            return presence != null && presence.expireAt() > System.currentTimeMillis();
         } catch (Exception e) {
             log.error("检查用户编辑状态失败: userId={}, pageId={}", userId, pageId, e);
             return false;
@@ -132,21 +171,17 @@ public class WikiCollaborationServiceImpl implements WikiCollaborationService {
     /**
      * 更新用户光标位置（用于多用户光标同步）
      *
+     * @param pageId   Wiki页面ID
      * @param userId   用户ID
-     * @param position 光标位置信息（包含页面ID、行号、列号等）
+     * @param position 光标位置信息（行号、列号、选区等）
      */
     @Override
-    public void updateCursorPosition(Long userId, WikiCollaborationDTO.CursorPosition position) {
+    public void updateCursorPosition(Long pageId, Long userId, WikiCollaborationDTO.CursorPosition position) {
         try {
             position.setLastUpdate(LocalDateTime.now());
-            redisTemplate.opsForValue().set(
-                    USER_CURSOR_KEY + userId,
-                    position,
-                    CURSOR_TTL_SECONDS,
-                    TimeUnit.SECONDS
-            );
+            touchPresence(pageId, userId, Presence.encodeCursor(position, zoneId), false);
         } catch (Exception e) {
-            log.error("更新光标位置失败: userId={}", userId, e);
+            log.error("更新光标位置失败: pageId={}, userId={}", pageId, userId, e);
             throw new ServiceException("更新光标位置失败");
         }
     }
@@ -160,30 +195,25 @@ public class WikiCollaborationServiceImpl implements WikiCollaborationService {
     @Override
     public List<WikiCollaborationDTO.EditorInfo> getOnlineEditors(Long pageId) {
         try {
-            Set<Object> userIdsObj = redisTemplate.opsForSet().members(PAGE_EDITORS_KEY + pageId);
-            if (userIdsObj == null || userIdsObj.isEmpty()) {
+            List<Presence> presences = readPresences(pageId);
+            if (presences.isEmpty()) {
                 return Collections.emptyList();
             }
-
-            List<Long> userIds = userIdsObj.stream()
-                    .filter(Objects::nonNull)
-                    .map(obj -> Long.parseLong(obj.toString()))
-                    .collect(Collectors.toList());
-
-            R<List<UserDTO>> userResult = userService.getUsersByIds(userIds);
-            if (userResult == null || !R.isSuccess(userResult) || userResult.getData() == null) {
-                log.warn("获取用户信息失败: userIds={}", userIds);
-                return Collections.emptyList();
+            Map<Long, UserSummary> users = userDirectory.resolveAll(presences.stream().map(Presence::userId).toList());
+            List<WikiCollaborationDTO.EditorInfo> editors = new ArrayList<>(presences.size());
+            for (Presence presence : presences) {
+                UserSummary user = users.get(presence.userId());
+                if (user == null) {
+                    continue;
+                }
+                editors.add(WikiCollaborationDTO.EditorInfo.builder()
+                        .userId(user.id())
+                        .username(user.name())
+                        .avatar(user.avatarUrl())
+                        .joinTime(toLocalDateTime(presence.joinedAt()))
+                        .build());
             }
-
-            return userResult.getData().stream()
-                    .map(user -> WikiCollaborationDTO.EditorInfo.builder()
-                            .userId(user.getId())
-                            .username(user.getName())
-                            .avatar(user.getAvatarData())
-                            .joinTime(LocalDateTime.now())
-                            .build())
-                    .collect(Collectors.toList());
+            return editors;
         } catch (Exception e) {
             log.error("获取在线编辑者失败: pageId={}", pageId, e);
             return Collections.emptyList();
@@ -199,24 +229,29 @@ public class WikiCollaborationServiceImpl implements WikiCollaborationService {
     @Override
     public List<WikiCollaborationDTO.CursorPosition> getAllEditorsCursor(Long pageId) {
         try {
-            Set<Object> userIdsObj = redisTemplate.opsForSet().members(PAGE_EDITORS_KEY + pageId);
-            if (userIdsObj == null || userIdsObj.isEmpty()) {
+            long staleBefore = System.currentTimeMillis() - CURSOR_STALE_AFTER.toMillis();
+            List<Presence> presences = readPresences(pageId).stream()
+                    .filter(presence -> presence.cursor() != null && presence.cursor().lastUpdate() >= staleBefore)
+                    .toList();
+            if (presences.isEmpty()) {
                 return Collections.emptyList();
             }
-
-            List<WikiCollaborationDTO.CursorPosition> positions = new ArrayList<>();
-            for (Object userIdObj : userIdsObj) {
-                if (userIdObj == null) {
-                    continue;
-                }
-                long userId = Long.parseLong(userIdObj.toString());
-                Object value = redisTemplate.opsForValue().get(USER_CURSOR_KEY + userId);
-                if (value instanceof WikiCollaborationDTO.CursorPosition position) {
-                    if (position.getLastUpdate() == null ||
-                            position.getLastUpdate().isAfter(LocalDateTime.now().minusMinutes(5))) {
-                        positions.add(position);
-                    }
-                }
+            Map<Long, UserSummary> users = userDirectory.resolveAll(presences.stream().map(Presence::userId).toList());
+            List<WikiCollaborationDTO.CursorPosition> positions = new ArrayList<>(presences.size());
+            for (Presence presence : presences) {
+                Cursor cursor = presence.cursor();
+                UserSummary user = users.get(presence.userId());
+                positions.add(WikiCollaborationDTO.CursorPosition.builder()
+                        .userId(presence.userId())
+                        .username(user != null ? user.name() : UserDirectory.UNKNOWN_USER_NAME)
+                        .avatar(user != null ? user.avatarUrl() : null)
+                        .line(cursor.line())
+                        .column(cursor.column())
+                        .selectionStart(cursor.selectionStart())
+                        .selectionEnd(cursor.selectionEnd())
+                        .paragraphId(cursor.paragraphId())
+                        .lastUpdate(toLocalDateTime(cursor.lastUpdate()))
+                        .build());
             }
             return positions;
         } catch (Exception e) {
@@ -234,8 +269,7 @@ public class WikiCollaborationServiceImpl implements WikiCollaborationService {
     @Override
     public Long getEditorCount(Long pageId) {
         try {
-            Long size = redisTemplate.opsForSet().size(PAGE_EDITORS_KEY + pageId);
-            return size != null ? size : 0L;
+            return (long) readPresences(pageId).size();
         } catch (Exception e) {
             log.error("获取编辑者数量失败: pageId={}", pageId, e);
             return 0L;
@@ -247,41 +281,150 @@ public class WikiCollaborationServiceImpl implements WikiCollaborationService {
      *
      * @param userId 用户ID（申请锁定的用户）
      * @param pageId Wiki页面ID（要锁定的页面）
-     * @return boolean  true-锁定成功，false-已被其他用户锁定
+     * @return String 锁持有凭证（释放时使用），已被其他用户锁定时返回 null
      */
     @Override
-    public boolean tryLockContent(Long userId, Long pageId) {
+    public String tryLockContent(Long userId, Long pageId) {
         try {
-            Boolean success = redisTemplate.opsForValue().setIfAbsent(
-                    PAGE_CONTENT_LOCK_KEY + pageId,
-                    userId.toString(),
-                    CONTENT_LOCK_TTL_SECONDS,
-                    TimeUnit.SECONDS
-            );
-            return Boolean.TRUE.equals(success);
+            String token = userId + ":" + UUID.randomUUID();
+            Long acquired = stringRedisTemplate.execute(LOCK_ACQUIRE_SCRIPT,
+                    List.of(PAGE_CONTENT_LOCK_KEY + pageId),
+                    token, String.valueOf(Duration.ofSeconds(CONTENT_LOCK_TTL_SECONDS).toMillis()));
+            return acquired != null && acquired == 1L ? token : null;
         } catch (Exception e) {
             log.error("获取内容锁失败: pageId={}, userId={}", pageId, userId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 续期页面内容锁（心跳时调用，保存耗时超过锁有效期时不会被他人抢占），只有持有凭证匹配时才续期
+     *
+     * @param pageId Wiki页面ID
+     * @param token  加锁时返回的持有凭证
+     * @return boolean  true-续期成功，false-凭证不匹配或锁已过期
+     */
+    @Override
+    public boolean renewLock(Long pageId, String token) {
+        if (token == null) {
+            return false;
+        }
+        try {
+            Long renewed = stringRedisTemplate.execute(LOCK_RENEW_SCRIPT,
+                    List.of(PAGE_CONTENT_LOCK_KEY + pageId),
+                    token, String.valueOf(Duration.ofSeconds(CONTENT_LOCK_TTL_SECONDS).toMillis()));
+            return renewed != null && renewed == 1L;
+        } catch (Exception e) {
+            log.error("续期内容锁失败: pageId={}", pageId, e);
             return false;
         }
     }
 
     /**
-     * 释放页面内容锁
+     * 释放页面内容锁，只有持有凭证匹配时才释放
      *
-     * @param pageId Wiki页面ID（要释放锁定的页面）
-     * @param userId 用户ID（释放锁定的用户，需与锁定用户一致）
+     * @param pageId Wiki页面ID
+     * @param token  加锁时返回的持有凭证
      */
     @Override
-    public void releaseLock(Long pageId, Long userId) {
+    public void releaseLock(Long pageId, String token) {
+        if (token == null) {
+            return;
+        }
         try {
-            String lockKey = PAGE_CONTENT_LOCK_KEY + pageId;
-            Object owner = redisTemplate.opsForValue().get(lockKey);
-            if (owner != null && owner.toString().equals(userId.toString())) {
-                redisTemplate.delete(lockKey);
-            }
+            stringRedisTemplate.execute(LOCK_RELEASE_SCRIPT, List.of(PAGE_CONTENT_LOCK_KEY + pageId), token);
         } catch (Exception e) {
-            log.error("释放内容锁失败: pageId={}, userId={}", pageId, userId, e);
+            log.error("释放内容锁失败: pageId={}", pageId, e);
         }
     }
-}
 
+    // ==================== 在线状态记录 ====================
+
+    private void touchPresence(Long pageId, Long userId, String cursor, boolean create) {
+        long now = System.currentTimeMillis();
+        stringRedisTemplate.execute(PRESENCE_TOUCH_SCRIPT,
+                List.of(PAGE_PRESENCE_KEY + pageId),
+                userId.toString(),
+                String.valueOf(now + Duration.ofSeconds(EDITOR_TTL_SECONDS).toMillis()),
+                String.valueOf(now),
+                cursor,
+                create ? "1" : "0",
+                String.valueOf(Duration.ofSeconds(EDITOR_TTL_SECONDS).toMillis()));
+    }
+
+    /**
+     * 一次 HGETALL 读取页面全部在线状态，顺带清理已过期的记录
+     */
+    private List<Presence> readPresences(Long pageId) {
+        String key = PAGE_PRESENCE_KEY + pageId;
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(key);
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        long now = System.currentTimeMillis();
+        List<Presence> live = new ArrayList<>(entries.size());
+        List<Object> expired = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            Presence presence = Presence.decode(Long.valueOf(entry.getKey().toString()), entry.getValue().toString());
+            if (presence == null || presence.expireAt() <= now) {
+                expired.add(entry.getKey());
+            } else {
+                live.add(presence);
+            }
+        }
+        if (!expired.isEmpty()) {
+            stringRedisTemplate.opsForHash().delete(key, expired.toArray());
+        }
+        live.sort(Comparator.comparingLong(Presence::joinedAt));
+        return live;
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zoneId);
+    }
+
+    /**
+     * 在线状态记录：过期时间|加入时间|最后更新|行|列|选区起点|选区终点|段落ID，光标部分可以为空
+     */
+    private record Presence(Long userId, long expireAt, long joinedAt, Cursor cursor) {
+
+        private static Presence decode(Long userId, String value) {
+            String[] parts = value.split("\\|", 8);
+            if (parts.length < 2) {
+                return null;
+            }
+            try {
+                Cursor cursor = null;
+                if (parts.length == 8 && !parts[2].isEmpty()) {
+                    cursor = new Cursor(Long.parseLong(parts[2]), toInteger(parts[3]), toInteger(parts[4]),
+                            toInteger(parts[5]), toInteger(parts[6]), parts[7].isEmpty() ? null : parts[7]);
+                }
+                return new Presence(userId, Long.parseLong(parts[0]), Long.parseLong(parts[1]), cursor);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static String encodeCursor(WikiCollaborationDTO.CursorPosition position, ZoneId zoneId) {
+            return String.join(FIELD_SEPARATOR,
+                    String.valueOf(position.getLastUpdate().atZone(zoneId).toInstant().toEpochMilli()),
+                    toText(position.getLine()),
+                    toText(position.getColumn()),
+                    toText(position.getSelectionStart()),
+                    toText(position.getSelectionEnd()),
+                    position.getParagraphId() == null ? "" : position.getParagraphId());
+        }
+
+        private static Integer toInteger(String text) {
+            return text.isEmpty() ? null : Integer.valueOf(text);
+        }
+
+        private static String toText(Integer value) {
+            return value == null ? "" : value.toString();
+        }
+    }
+
+    private record Cursor(long lastUpdate, Integer line, Integer column,
+                          Integer selectionStart, Integer selectionEnd, String paragraphId) {
+    }
+}
@@ -8,6 +8,7 @@ import hbnu.project.zhiyanbackend.wiki.repository.WikiPageRepository;
 import hbnu.project.zhiyanbackend.wiki.repository.WikiVersionHistoryRepository;
 import hbnu.project.zhiyanbackend.wiki.service.WikiContentVersionService;
 import hbnu.project.zhiyanbackend.wiki.utils.WikiDiffUtils;
+import hbnu.project.zhiyanbackend.wiki.utils.WikiPatchCodec;
 
 import jakarta.annotation.Resource;
 import lombok.RequiredArgsConstructor;
@@ -38,6 +39,9 @@ public class WikiContentVersionServiceImpl implements WikiContentVersionService
     @Resource
     private WikiDiffUtils wikiDiffUtils;
 
+    @Resource
+    private WikiPatchCodec patchCodec;
+
     // 保留最近 10 个版本
     private static final int MAX_RECENT_VERSIONS = 10;
 
@@ -76,7 +80,7 @@ public class WikiContentVersionServiceImpl implements WikiContentVersionService
                 WikiPage.RecentVersionInfo v = recentVersions.get(i);
                 if (v.getVersion() != null && v.getVersion() <= currentVer && v.getVersion() > targetVersion) {
                     // 逆向应用差异补丁
-                    content = wikiDiffUtils.reversePatch(content, v.getContentDiff());
+                    content = wikiDiffUtils.reversePatch(content, patchCodec.read(v.getContentDiff(), v.getContentPatch()));
                     currentVer = v.getVersion() - 1;
                 }
             }
@@ -93,7 +97,7 @@ public class WikiContentVersionServiceImpl implements WikiContentVersionService
             histories.sort((a, b) -> b.getVersion().compareTo(a.getVersion()));
             for (WikiVersionHistory history : histories) {
                 if (history.getVersion() != null && history.getVersion() <= currentVer && history.getVersion() > targetVersion) {
-                    content = wikiDiffUtils.reversePatch(content, history.getContentDiff());
+                    content = wikiDiffUtils.reversePatch(content, patchCodec.read(history.getContentDiff(), history.getContentPatch()));
                     currentVer = history.getVersion() - 1;
                 }
             }
@@ -113,7 +117,18 @@ public class WikiContentVersionServiceImpl implements WikiContentVersionService
     public List<WikiPage.RecentVersionInfo> getRecentVersions(Long wikiPageId) {
         WikiPage page = wikiPageRepository.findById(wikiPageId)
                 .orElseThrow(() -> new ServiceException("Wiki页面不存在"));
-        return page.getRecentVersions() != null ? page.getRecentVersions() : new ArrayList<>();
+        if (page.getRecentVersions() == null) {
+            return new ArrayList<>();
+        }
+        // 对外始终返回文本补丁，压缩格式只用于存储
+        List<WikiPage.RecentVersionInfo> versions = new ArrayList<>(page.getRecentVersions().size());
+        for (WikiPage.RecentVersionInfo version : page.getRecentVersions()) {
+            versions.add(version.toBuilder()
+                    .contentDiff(patchCodec.read(version.getContentDiff(), version.getContentPatch()))
+                    .contentPatch(null)
+                    .build());
+        }
+        return versions;
     }
 
     /**
@@ -15,6 +15,7 @@ import hbnu.project.zhiyanbackend.wiki.model.enums.PageType;
 import hbnu.project.zhiyanbackend.wiki.repository.WikiPageRepository;
 import hbnu.project.zhiyanbackend.wiki.service.WikiIMEXportService;
 import hbnu.project.zhiyanbackend.wiki.service.WikiPageService;
+import hbnu.project.zhiyanbackend.wiki.utils.WikiRenderCache;
 
 import com.itextpdf.text.Document;
 import com.itextpdf.text.Paragraph;
@@ -24,7 +25,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.xwpf.usermodel.*;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.commonmark.node.ListItem; // 关键：导入正确的 ListItem
@@ -35,16 +35,23 @@ import com.itextpdf.text.pdf.BaseFont;
 import com.itextpdf.text.pdf.PdfWriter;
 import org.commonmark.node.*;
 import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.util.HtmlUtils;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
@@ -61,9 +68,24 @@ import java.util.zip.ZipOutputStream;
 @RequiredArgsConstructor
 public class WikiIMEXportServiceImpl implements WikiIMEXportService {
 
+    /**
+     * 渲染器版本，修改 PDF/Word/HTML 排版后递增，使旧的渲染缓存不再命中
+     */
+    private static final int RENDER_VERSION = 1;
+
+    /**
+     * CommonMark 解析器与 HTML 渲染器不可变且线程安全，全局复用
+     */
+    private static final Parser MARKDOWN_PARSER = Parser.builder().build();
+    private static final HtmlRenderer HTML_RENDERER = HtmlRenderer.builder()
+            .escapeHtml(true)
+            .sanitizeUrls(true)
+            .build();
+
     private final WikiPageRepository wikiPageRepository;
     private final WikiPageService wikiPageService;
-    private final ApplicationContext applicationContext;
+    private final WikiImportEngine importEngine;
+    private final WikiRenderCache renderCache;
 
     // ==================== 导入实现 ====================
 
@@ -151,6 +173,7 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
 
     /**
      * 批量导入多个 Markdown 文件
+     * 交给导入引擎一次性构建并批量写入，同时上传的图片会替换文档中的相对链接
      *
      * @param files     文件数组
      * @param importDTO 导入配置
@@ -162,52 +185,35 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
         ValidationUtils.requireNonNull(files, "文件数组不能为空");
         ValidationUtils.requireNonEmpty(List.of(files), "至少需要一个文件");
         ValidationUtils.requireNonNull(importDTO, "导入配置不能为空");
+        ValidationUtils.requireNonNull(importDTO.getProjectId(), "项目ID不能为空");
+        ValidationUtils.requireNonNull(importDTO.getImportBy(), "导入用户不能为空");
 
-        WikiImportResultDTO result = WikiImportResultDTO.builder()
-                .success(true)
-                .importedCount(0)
-                .failedCount(0)
-                .errors(new ArrayList<>())
-                .pageIds(new ArrayList<>())
-                .build();
-
-        if (files.length == 0) {
-            result.setSuccess(false);
-            result.setMessage("没有可导入的文件");
-            return result;
-        }
-
-        for(MultipartFile file : files){
-            try{
-                String filename = FileUtils.getSafeFilename(file.getOriginalFilename());
-
-                WikiImportResultDTO singleResult = applicationContext.getBean(WikiIMEXportServiceImpl.class)
-                        .importFromMarkdown(file, importDTO);
-
-                if (Boolean.TRUE.equals(singleResult.getSuccess())) {
-                    result.setImportedCount(result.getImportedCount() + 1);
-                    result.getPageIds().addAll(singleResult.getPageIds());
-                } else {
-                    result.setFailedCount(result.getFailedCount() + 1);
-                    result.getErrors().addAll(singleResult.getErrors());
-                }
-            }catch (Exception e) {
-                log.error("导入文件失败: {}", file.getOriginalFilename(), e);
-                result.setFailedCount(result.getFailedCount() + 1);
-                result.getErrors().add(file.getOriginalFilename() + ": " + e.getMessage());
+        List<WikiImportEngine.SourceFile> sources = new ArrayList<>(files.length);
+        List<String> rejected = new ArrayList<>();
+        for (MultipartFile file : files) {
+            String filename = FileUtils.getSafeFilename(file.getOriginalFilename());
+            String extension = FileUtils.getFileExtension(filename);
+            if (!"md".equalsIgnoreCase(extension) && !"markdown".equalsIgnoreCase(extension)
+                    && !WikiImportEngine.isImage(filename)) {
+                rejected.add(file.getOriginalFilename() + ": 只支持Markdown格式文件 (.md, .markdown)");
+                continue;
+            }
+            try {
+                sources.add(new WikiImportEngine.SourceFile(filename, file.getBytes()));
+            } catch (IOException e) {
+                log.error("读取导入文件失败: {}", file.getOriginalFilename(), e);
+                rejected.add(file.getOriginalFilename() + ": " + e.getMessage());
             }
         }
 
-        // 出现失败就标记
-        if (result.getFailedCount() > 0) {
+        WikiImportResultDTO result = importEngine.importFiles(sources, importDTO);
+        if (!rejected.isEmpty()) {
             result.setSuccess(false);
+            result.setFailedCount(result.getFailedCount() + rejected.size());
+            result.getErrors().addAll(rejected);
         }
 
-        String message = String.format("批量导入完成：成功 %d 个，失败 %d 个",
-                result.getImportedCount(), result.getFailedCount());
-        result.setMessage(message);
-
-        log.info("批量导入完成: {}", message);
+        log.info("批量导入完成: {}", result.getMessage());
 
         // 记录详细结果日志
         if (!result.getErrors().isEmpty()) {
@@ -217,6 +223,48 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
         return result;
     }
 
+    /**
+     * 从 ZIP 压缩包异步导入整个目录树
+     *
+     * @param file      ZIP 压缩包
+     * @param importDTO 导入配置
+     * @return 导入任务ID
+     */
+    @Override
+    public String importFromArchive(MultipartFile file, WikiImportDTO importDTO) {
+        ValidationUtils.requireNonNull(file, "导入文件不能为空");
+        ValidationUtils.requireNonNull(importDTO, "导入配置不能为空");
+        ValidationUtils.requireNonNull(importDTO.getProjectId(), "项目ID不能为空");
+        ValidationUtils.requireNonNull(importDTO.getImportBy(), "导入用户不能为空");
+
+        String extension = FileUtils.getFileExtension(file.getOriginalFilename());
+        if (!"zip".equalsIgnoreCase(extension)) {
+            throw new ServiceException("只支持ZIP格式的压缩包");
+        }
+
+        // 上传的临时文件在请求结束后会被清理，必须在请求线程内转存；排队期间只占用磁盘，不占用堆内存
+        Path archive = null;
+        try {
+            archive = Files.createTempFile("wiki-import-", ".zip");
+            file.transferTo(archive);
+        } catch (IOException e) {
+            log.error("保存导入压缩包失败: {}", file.getOriginalFilename(), e);
+            if (archive != null) {
+                try {
+                    Files.deleteIfExists(archive);
+                } catch (IOException ex) {
+                    log.warn("删除临时文件失败: {}", archive, ex);
+                }
+            }
+            throw new ServiceException("读取压缩包失败: " + e.getMessage());
+        }
+
+        String importId = importEngine.submitArchive(archive, importDTO);
+        log.info("Wiki压缩包导入已提交: importId={}, projectId={}, size={}",
+                importId, importDTO.getProjectId(), file.getSize());
+        return importId;
+    }
+
     // ==================== 导出实现 ====================
 
     /**
@@ -236,10 +284,12 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
 
         ExportFormat format = getExportFormat(exportDTO.getFormat());
 
+        // Markdown 导出带有导出时间且生成成本很低，不走渲染缓存
         byte[] result = switch (format) {
             case MARKDOWN -> exportToMarkdown(page, exportDTO);
-            case PDF -> exportToPdf(page, exportDTO);
-            case WORD -> exportToWord(page, exportDTO);
+            case PDF -> renderCache.getOrRender(renderKey(page, format), () -> exportToPdf(page, exportDTO));
+            case WORD -> renderCache.getOrRender(renderKey(page, format), () -> exportToWord(page, exportDTO));
+            case HTML -> renderCache.getOrRender(renderKey(page, format), () -> exportToHtml(page, exportDTO));
         };
 
         // 记录导出统计
@@ -431,15 +481,15 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
             PdfWriter.getInstance(document, baos);
             document.open();
 
-            // 设置中文字体（使用 itext-asian 库支持的中文字体）
-            BaseFont baseFont = BaseFont.createFont("STSong-Light", "UniGB-UCS2-H", BaseFont.NOT_EMBEDDED);
-            Font titleFont = new Font(baseFont, 24, Font.BOLD);
-            Font heading1Font = new Font(baseFont, 20, Font.BOLD);
-            Font heading2Font = new Font(baseFont, 18, Font.BOLD);
-            Font heading3Font = new Font(baseFont, 16, Font.BOLD);
-            Font normalFont = new Font(baseFont, 12, Font.NORMAL);
-            Font codeFont = new Font(baseFont, 10, Font.NORMAL);
-            codeFont.setColor(0, 102, 204); // 代码块使用蓝色
+            // 中文字体（使用 itext-asian 库支持的中文字体），字体对象全局复用
+            PdfFonts fonts = PdfFonts.get();
+            BaseFont baseFont = fonts.baseFont;
+            Font titleFont = fonts.derive(24, Font.BOLD);
+            Font heading1Font = fonts.derive(20, Font.BOLD);
+            Font heading2Font = fonts.derive(18, Font.BOLD);
+            Font heading3Font = fonts.derive(16, Font.BOLD);
+            Font normalFont = fonts.derive(12, Font.NORMAL);
+            Font codeFont = fonts.codeFont;
 
             // 添加标题
             Paragraph title = new Paragraph(page.getTitle(), titleFont);
@@ -448,8 +498,7 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
             document.add(title);
 
             // 添加元数据
-            Font metaFont = new Font(baseFont, 10, Font.ITALIC);
-            metaFont.setColor(128, 128, 128);
+            Font metaFont = fonts.metaFont;
             Paragraph metadata = new Paragraph();
             metadata.add(new Chunk("ID: " + page.getId() + "  ", metaFont));
             metadata.add(new Chunk("创建时间: " + formatDateTime(page.getCreatedAt()) + "  ", metaFont));
@@ -469,9 +518,8 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
                 document.add(emptyContent);
             } else {
                 // 使用 CommonMark 解析 Markdown
-                Parser parser = Parser.builder().build();
-                Node documentNode = parser.parse(content);
-                
+                Node documentNode = MARKDOWN_PARSER.parse(content);
+
                 // 遍历节点并转换为 PDF 元素
                 convertMarkdownToPdf(documentNode, document, baseFont, heading1Font, heading2Font, 
                         heading3Font, normalFont, codeFont);
@@ -559,11 +607,11 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
                     }
                 }
                 case StrongEmphasis strongEmphasis -> {
-                    Font boldFont = new Font(baseFont, currentFont.getSize(), Font.BOLD);
+                    Font boldFont = PdfFonts.get().derive(currentFont.getSize(), Font.BOLD);
                     addChunksFromNode(child, para, boldFont, baseFont, normalFont, codeFont);
                 }
                 case Emphasis emphasis -> {
-                    Font italicFont = new Font(baseFont, currentFont.getSize(), Font.ITALIC);
+                    Font italicFont = PdfFonts.get().derive(currentFont.getSize(), Font.ITALIC);
                     addChunksFromNode(child, para, italicFont, baseFont, normalFont, codeFont);
                 }
                 case Code code1 -> {
@@ -637,6 +685,35 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
         return text.toString().trim();
     }
 
+    /**
+     * 导出为HTML格式
+     */
+    private byte[] exportToHtml(WikiPage page, WikiExportDTO exportDTO) {
+        if (page.getPageType() == PageType.DIRECTORY) {
+            throw new ServiceException("目录类型不能导出为单个HTML，请使用导出目录树功能");
+        }
+
+        String title = HtmlUtils.htmlEscape(page.getTitle());
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html lang=\"zh-CN\">\n<head>\n<meta charset=\"UTF-8\">\n")
+                .append("<title>").append(title).append("</title>\n</head>\n<body>\n");
+        html.append("<h1>").append(title).append("</h1>\n");
+        html.append("<p><em>ID: ").append(page.getId())
+                .append("  创建时间: ").append(formatDateTime(page.getCreatedAt()))
+                .append("  更新时间: ").append(formatDateTime(page.getUpdatedAt()))
+                .append("  版本: ").append(page.getCurrentVersion())
+                .append("</em></p>\n<hr>\n");
+
+        String content = page.getContent();
+        if (content == null || content.trim().isEmpty()) {
+            html.append("<p>内容为空</p>\n");
+        } else {
+            html.append(HTML_RENDERER.render(MARKDOWN_PARSER.parse(content)));
+        }
+        html.append("</body>\n</html>\n");
+        return html.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
     /**
      * 导出为Word格式
      * 使用hutool-poi
@@ -705,8 +782,7 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
                 emptyRun.setFontFamily("宋体");
             }else{
                 // 使用 CommonMark 解析 Markdown
-                Parser parser = Parser.builder().build();
-                Node documentNode = parser.parse(content);
+                Node documentNode = MARKDOWN_PARSER.parse(content);
 
                 // 遍历节点并转换为 Word 元素
                 convertMarkdownToWord(documentNode, document);
@@ -906,6 +982,14 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
      * 解析Markdown内容，抽取第一个标题为文档标题，其余为正文
      */
     private MarkdownPage parseMarkdown(String content) {
+        // 如果没有标题，使用默认标题（使用日期时间生成唯一名称）
+        return parseMarkdown(content, "未命名文档_" + DateUtils.dateTimeNow());
+    }
+
+    /**
+     * 解析Markdown内容，没有标题时使用给定的默认标题
+     */
+    static MarkdownPage parseMarkdown(String content, String defaultTitle) {
         MarkdownPage page = new MarkdownPage();
 
         // 提取标题（第一个 # 标题）
@@ -923,8 +1007,6 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
             bodyContent = removeMetadata(bodyContent);
             page.setContent(bodyContent);
         } else {
-            // 如果没有标题，使用默认标题（使用日期时间生成唯一名称）
-            String defaultTitle = "未命名文档_" + DateUtils.dateTimeNow();
             page.setTitle(defaultTitle);
             page.setContent(content);
         }
@@ -935,7 +1017,7 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
     /**
      * 移除Markdown中的元数据部分（YAML front matter）
      */
-    private String removeMetadata(String content) {
+    private static String removeMetadata(String content) {
         Pattern metadataPattern = Pattern.compile("^---\\s*\\n.*?\\n---\\s*\\n",
                Pattern.DOTALL);
        Matcher matcher = metadataPattern.matcher(content);
@@ -947,6 +1029,18 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
         return content;
     }
 
+    /**
+     * 计算渲染缓存键：导出内容由正文和页头元数据决定
+     */
+    private String renderKey(WikiPage page, ExportFormat format) {
+        String content = Objects.requireNonNullElse(page.getContent(), "");
+        String contentHash = page.getContentHash() != null
+                ? page.getContentHash()
+                : DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8));
+        return WikiRenderCache.key(format.name(), RENDER_VERSION, contentHash, page.getId(), page.getTitle(),
+                page.getCreatedAt(), page.getUpdatedAt(), page.getCurrentVersion());
+    }
+
     /**
      * 获取导出格式
      */
@@ -1002,12 +1096,64 @@ public class WikiIMEXportServiceImpl implements WikiIMEXportService {
         return dateTime.format(DateTimeFormatter.ofPattern(DateUtils.YYYY_MM_DD_HH_MM_SS));
     }
 
+    /**
+     * PDF 字体
+     * BaseFont 创建需要加载 CJK 字体映射，开销较大；Font 在创建后不再修改，可在多次导出间共享
+     */
+    private static final class PdfFonts {
+
+        private static volatile PdfFonts instance;
+
+        private final BaseFont baseFont;
+
+        private final Font codeFont;
+
+        private final Font metaFont;
+
+        /**
+         * (字号, 样式) -> 字体
+         */
+        private final Map<Long, Font> derived = new ConcurrentHashMap<>();
+
+        private PdfFonts(BaseFont baseFont) {
+            this.baseFont = baseFont;
+            this.codeFont = new Font(baseFont, 10, Font.NORMAL);
+            // 代码块使用蓝色
+            this.codeFont.setColor(0, 102, 204);
+            this.metaFont = new Font(baseFont, 10, Font.ITALIC);
+            this.metaFont.setColor(128, 128, 128);
+        }
+
+        static PdfFonts get() {
+            PdfFonts fonts = instance;
+            if (fonts == null) {
+                synchronized (PdfFonts.class) {
+                    fonts = instance;
+                    if (fonts == null) {
+                        try {
+                            fonts = new PdfFonts(BaseFont.createFont("STSong-Light", "UniGB-UCS2-H", BaseFont.NOT_EMBEDDED));
+                        } catch (DocumentException | IOException e) {
+                            throw new ServiceException("PDF字体加载失败: " + e.getMessage());
+                        }
+                        instance = fonts;
+                    }
+                }
+            }
+            return fonts;
+        }
+
+        Font derive(float size, int style) {
+            long key = ((long) Float.floatToIntBits(size) << 32) | (style & 0xffffffffL);
+            return derived.computeIfAbsent(key, k -> new Font(baseFont, size, style));
+        }
+    }
+
     /**
      * Markdown 页面内部类
      */
     @Setter
     @Getter
-    private static class MarkdownPage {
+    static class MarkdownPage {
         private String title;
         private String content;
     }
@@ -0,0 +1,936 @@
+package hbnu.project.zhiyanbackend.wiki.service.impl;
+
+import hbnu.project.zhiyanbackend.activelog.model.entity.WikiOperationLog;
+import hbnu.project.zhiyanbackend.activelog.model.enums.WikiOperationType;
+import hbnu.project.zhiyanbackend.activelog.repository.WikiOperationLogRepository;
+import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
+import hbnu.project.zhiyanbackend.basic.utils.JsonUtils;
+import hbnu.project.zhiyanbackend.basic.utils.SnowflakeIdUtils;
+import hbnu.project.zhiyanbackend.message.service.MessageSendService;
+import hbnu.project.zhiyanbackend.oss.config.COSProperties;
+import hbnu.project.zhiyanbackend.oss.dto.UploadFileResponseDTO;
+import hbnu.project.zhiyanbackend.oss.service.COSService;
+import hbnu.project.zhiyanbackend.security.utils.SecurityUtils;
+import hbnu.project.zhiyanbackend.sse.dto.SseMessageDto;
+import hbnu.project.zhiyanbackend.sse.utils.SseMessageUtils;
+import hbnu.project.zhiyanbackend.wiki.model.dto.WikiImportDTO;
+import hbnu.project.zhiyanbackend.wiki.model.dto.WikiImportProgressDTO;
+import hbnu.project.zhiyanbackend.wiki.model.dto.WikiImportResultDTO;
+import hbnu.project.zhiyanbackend.wiki.model.entity.WikiAttachment;
+import hbnu.project.zhiyanbackend.wiki.model.entity.WikiPage;
+import hbnu.project.zhiyanbackend.wiki.model.enums.AttachmentType;
+import hbnu.project.zhiyanbackend.wiki.model.enums.PageType;
+import hbnu.project.zhiyanbackend.wiki.repository.WikiPageRepository;
+import hbnu.project.zhiyanbackend.wiki.utils.WikiDiffUtils;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Wiki 批量导入引擎
+ * 一次导入在内存中完成整棵页面树的构建：Markdown 在有界线程池上并行解析，
+ * 页面 ID 与路径在写库前一次性分配，图片并发上传到 COS，
+ * 最后在同一个事务中用 JDBC 批量插入页面与附件，并只记录一条汇总的操作日志。
+ * 进度通过 SSE 推送给发起导入的用户；提交后为导入位置下的每个顶层页面发送一条创建通知，
+ * 子页面不再逐个通知，避免一次导入产生成千上万条站内信。
+ * 异步导入的压缩包先转存为临时文件排队，任务开始执行时才解压到内存。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+public class WikiImportEngine {
+
+    /**
+     * 每组 JDBC 批量插入的语句数
+     */
+    private static final int PERSIST_BATCH_SIZE = 500;
+
+    private static final int MAX_ENTRIES = 5000;
+
+    /**
+     * 压缩包解压后的总大小上限（防压缩炸弹）
+     */
+    private static final long MAX_ARCHIVE_BYTES = 200L * 1024 * 1024;
+
+    private static final int MAX_MARKDOWN_BYTES = 5 * 1024 * 1024;
+
+    private static final int MAX_IMAGE_BYTES = 20 * 1024 * 1024;
+
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    /**
+     * 每处理多少项推送一次进度
+     */
+    private static final int PROGRESS_STEP = 100;
+
+    private static final Set<String> MARKDOWN_EXTENSIONS = Set.of("md", "markdown");
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "bmp", "webp", "svg");
+
+    /**
+     * Markdown 图片语法：![alt](path "title")
+     */
+    private static final Pattern IMAGE_LINK = Pattern.compile("!\\[([^\\]]*)]\\(\\s*<?([^)\\s>]+)>?((?:\\s+\"[^\"]*\")?)\\s*\\)");
+
+    private final WikiPageRepository wikiPageRepository;
+
+    private final WikiOperationLogRepository operationLogRepository;
+
+    private final WikiDiffUtils wikiDiffUtils;
+
+    private final COSService cosService;
+
+    private final COSProperties cosProperties;
+
+    private final MessageSendService messageSendService;
+
+    private final SessionFactory sessionFactory;
+
+    /**
+     * 解析与上传的工作线程池，队列满时由提交线程执行，形成背压
+     */
+    private final ThreadPoolExecutor workers;
+
+    /**
+     * 异步导入任务的调度线程池，同时进行的导入数量有限
+     */
+    private final ThreadPoolExecutor coordinator;
+
+    public WikiImportEngine(WikiPageRepository wikiPageRepository,
+                            WikiOperationLogRepository operationLogRepository,
+                            WikiDiffUtils wikiDiffUtils,
+                            COSService cosService,
+                            COSProperties cosProperties,
+                            MessageSendService messageSendService,
+                            EntityManagerFactory entityManagerFactory) {
+        this.wikiPageRepository = wikiPageRepository;
+        this.operationLogRepository = operationLogRepository;
+        this.wikiDiffUtils = wikiDiffUtils;
+        this.cosService = cosService;
+        this.cosProperties = cosProperties;
+        this.messageSendService = messageSendService;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+
+        int poolSize = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(1000), namedThreadFactory("wiki-import-worker-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.workers.allowCoreThreadTimeOut(true);
+        this.coordinator = new ThreadPoolExecutor(1, 2, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(8), namedThreadFactory("wiki-import-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.coordinator.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdown();
+        workers.shutdown();
+    }
+
+    // ==================== 入口 ====================
+
+    /**
+     * 读取 ZIP 压缩包中的文件，文件名优先按 UTF-8 解析，失败时按 GBK 解析（Windows 压缩工具）
+     *
+     * @param archive 压缩包文件
+     * @return 压缩包内的文件（已规范化路径，跳过目录与隐藏文件）
+     */
+    public List<SourceFile> readArchive(Path archive) throws IOException {
+        return readArchive(archive, MAX_ENTRIES, MAX_ARCHIVE_BYTES);
+    }
+
+    /**
+     * 按指定上限读取压缩包，测试中使用较小的上限
+     *
+     * @param maxEntries 文件数量上限
+     * @param maxBytes   解压后的总大小上限
+     */
+    static List<SourceFile> readArchive(Path archive, int maxEntries, long maxBytes) throws IOException {
+        try {
+            return readArchive(archive, StandardCharsets.UTF_8, maxEntries, maxBytes);
+        } catch (IllegalArgumentException e) {
+            return readArchive(archive, Charset.forName("GBK"), maxEntries, maxBytes);
+        }
+    }
+
+    /**
+     * 提交异步导入任务，立即返回任务ID，进度与结果通过 SSE 推送
+     * 压缩包在任务执行时才解压，执行结束后删除
+     *
+     * @param archive   已转存的压缩包临时文件，由导入引擎负责删除
+     * @param importDTO 导入配置
+     * @return 导入任务ID
+     */
+    public String submitArchive(Path archive, WikiImportDTO importDTO) {
+        String importId = UUID.randomUUID().toString();
+        String username = SecurityUtils.getUsername();
+        try {
+            coordinator.execute(() -> importArchive(archive, importDTO, importId, username));
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(archive);
+            throw new ServiceException("当前导入任务较多，请稍后再试");
+        }
+        return importId;
+    }
+
+    /**
+     * 是否为可随文档导入的图片
+     */
+    public static boolean isImage(String filename) {
+        return IMAGE_EXTENSIONS.contains(extensionOf(filename));
+    }
+
+    /**
+     * 同步执行导入，进度同样通过 SSE 推送
+     *
+     * @param files     待导入文件（Markdown 与其引用的图片）
+     * @param importDTO 导入配置
+     * @return 导入结果
+     */
+    public WikiImportResultDTO importFiles(List<SourceFile> files, WikiImportDTO importDTO) {
+        return importFiles(files, importDTO, UUID.randomUUID().toString(), SecurityUtils.getUsername());
+    }
+
+    private void importArchive(Path archive, WikiImportDTO importDTO, String importId, String username) {
+        List<SourceFile> files;
+        try {
+            files = readArchive(archive);
+        } catch (Exception e) {
+            log.error("读取导入压缩包失败: importId={}, projectId={}", importId, importDTO.getProjectId(), e);
+            WikiImportResultDTO result = WikiImportResultDTO.builder()
+                    .success(false)
+                    .message("读取压缩包失败: " + e.getMessage())
+                    .build();
+            result.getErrors().add(e.getMessage());
+            new ProgressReporter(importId, importDTO).finish("FAILED", result);
+            return;
+        } finally {
+            deleteQuietly(archive);
+        }
+        log.info("Wiki压缩包导入开始: importId={}, projectId={}, files={}",
+                importId, importDTO.getProjectId(), files.size());
+        importFiles(files, importDTO, importId, username);
+    }
+
+    private WikiImportResultDTO importFiles(List<SourceFile> files, WikiImportDTO importDTO,
+                                            String importId, String username) {
+        WikiImportResultDTO result = WikiImportResultDTO.builder()
+                .success(false)
+                .build();
+        ProgressReporter progress = new ProgressReporter(importId, importDTO);
+        List<UploadedImage> uploaded = new ArrayList<>();
+        long start = System.currentTimeMillis();
+
+        try {
+            String basePath = resolveBasePath(importDTO);
+
+            List<SourceFile> documents = new ArrayList<>();
+            Map<String, SourceFile> images = new HashMap<>();
+            for (SourceFile file : files) {
+                String extension = extensionOf(file.path());
+                if (MARKDOWN_EXTENSIONS.contains(extension)) {
+                    documents.add(file);
+                } else if (IMAGE_EXTENSIONS.contains(extension)) {
+                    images.put(file.path(), file);
+                }
+            }
+            if (documents.isEmpty()) {
+                result.setMessage("导入失败：没有可导入的Markdown文件");
+                progress.finish("FAILED", result);
+                return result;
+            }
+            documents.sort(Comparator.comparing(SourceFile::path));
+
+            // 1. 并行解析
+            List<ParsedDocument> parsed = parseAll(documents, result, progress);
+
+            // 2. 构建页面树，一次性分配ID、路径和排序号
+            List<WikiPage> pages = new ArrayList<>();
+            Map<ParsedDocument, WikiPage> documentPages = buildTree(parsed, importDTO, basePath, pages, result);
+            if (pages.isEmpty()) {
+                result.setMessage("导入失败：没有可导入的页面");
+                progress.finish("FAILED", result);
+                return result;
+            }
+
+            // 3. 并发上传图片并替换链接
+            uploaded.addAll(uploadImages(documentPages, images, importDTO, result, progress));
+            List<WikiAttachment> attachments = applyContent(documentPages, uploaded, importDTO);
+
+            // 4. 批量写入
+            persist(pages, attachments, progress);
+
+            long documentCount = pages.stream().filter(page -> page.getPageType() == PageType.DOCUMENT).count();
+            result.setSuccess(result.getFailedCount() == 0);
+            result.setImportedCount(pages.size());
+            pages.forEach(page -> result.getPageIds().add(String.valueOf(page.getId())));
+            result.setMessage(String.format("导入完成：成功 %d 个页面（目录 %d 个，文档 %d 个），失败 %d 个",
+                    pages.size(), pages.size() - documentCount, documentCount, result.getFailedCount()));
+
+            recordOperationLog(importDTO, pages, documentCount, username);
+            notifyCreated(importDTO, pages);
+            log.info("Wiki批量导入完成: importId={}, projectId={}, pages={}, images={}, cost={}ms",
+                    importId, importDTO.getProjectId(), pages.size(), uploaded.size(),
+                    System.currentTimeMillis() - start);
+            progress.finish("DONE", result);
+        } catch (Exception e) {
+            log.error("Wiki批量导入失败: importId={}, projectId={}", importId, importDTO.getProjectId(), e);
+            deleteUploaded(uploaded);
+            result.setSuccess(false);
+            result.getPageIds().clear();
+            result.setImportedCount(0);
+            result.getErrors().add(e.getMessage());
+            result.setMessage("导入失败: " + e.getMessage());
+            progress.finish("FAILED", result);
+        }
+        return result;
+    }
+
+    // ==================== 解析 ====================
+
+    private List<ParsedDocument> parseAll(List<SourceFile> documents, WikiImportResultDTO result,
+                                          ProgressReporter progress) {
+        AtomicInteger parsedCount = new AtomicInteger();
+        List<CompletableFuture<ParsedDocument>> futures = documents.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> {
+                    ParsedDocument document = parse(file);
+                    progress.step("PARSING", parsedCount.incrementAndGet(), documents.size());
+                    return document;
+                }, workers))
+                .toList();
+
+        List<ParsedDocument> parsed = new ArrayList<>(futures.size());
+        for (CompletableFuture<ParsedDocument> future : futures) {
+            ParsedDocument document = future.join();
+            if (document.error() != null) {
+                result.setFailedCount(result.getFailedCount() + 1);
+                result.getErrors().add(document.source().path() + ": " + document.error());
+            } else {
+                parsed.add(document);
+            }
+        }
+        return parsed;
+    }
+
+    private ParsedDocument parse(SourceFile file) {
+        String directory = parentOf(file.path());
+        if (file.data().length > MAX_MARKDOWN_BYTES) {
+            return ParsedDocument.failed(file, directory, "文件超过 " + MAX_MARKDOWN_BYTES / 1024 / 1024 + "MB");
+        }
+        try {
+            String text = new String(file.data(), StandardCharsets.UTF_8);
+            if (!text.isEmpty() && text.charAt(0) == '\uFEFF') {
+                text = text.substring(1);
+            }
+            text = text.replace("\r\n", "\n");
+            WikiIMEXportServiceImpl.MarkdownPage page = WikiIMEXportServiceImpl.parseMarkdown(text, baseNameOf(file.path()));
+            String content = page.getContent();
+
+            Set<String> imageRefs = new LinkedHashSet<>();
+            Matcher matcher = IMAGE_LINK.matcher(content);
+            while (matcher.find()) {
+                String resolved = resolveLink(directory, matcher.group(2));
+                if (resolved != null) {
+                    imageRefs.add(resolved);
+                }
+            }
+            return new ParsedDocument(file, directory, truncateTitle(page.getTitle()), content,
+                    wikiDiffUtils.calculateHash(content), imageRefs, null);
+        } catch (Exception e) {
+            return ParsedDocument.failed(file, directory, e.getMessage());
+        }
+    }
+
+    // ==================== 构建页面树 ====================
+
+    private Map<ParsedDocument, WikiPage> buildTree(List<ParsedDocument> parsed, WikiImportDTO importDTO, String basePath,
+                                                    List<WikiPage> pages, WikiImportResultDTO result) {
+        Long projectId = importDTO.getProjectId();
+        Long rootParentId = importDTO.getParentId();
+        Set<String> existingTitles = Boolean.TRUE.equals(importDTO.getOverwrite())
+                ? Set.of()
+                : new HashSet<>(wikiPageRepository.findChildTitles(projectId, rootParentId));
+
+        LocalDateTime now = LocalDateTime.now();
+        TreeContext context = new TreeContext(importDTO, basePath, now, pages);
+        context.nextSortOrder.put("", wikiPageRepository.findMaxSortOrder(projectId, rootParentId) + 1);
+
+        Set<String> rejectedDirectories = new HashSet<>();
+        Map<ParsedDocument, WikiPage> documentPages = new LinkedHashMap<>();
+        for (ParsedDocument document : parsed) {
+            String directory = document.directory();
+            String top = directory.isEmpty() ? null : directory.split("/", 2)[0];
+            if (top != null && rejectedDirectories.contains(top)) {
+                result.setFailedCount(result.getFailedCount() + 1);
+                continue;
+            }
+            if (top != null && !context.directories.containsKey(top) && existingTitles.contains(truncateTitle(top))) {
+                rejectedDirectories.add(top);
+                result.setFailedCount(result.getFailedCount() + 1);
+                result.getErrors().add("页面已存在: " + top);
+                continue;
+            }
+            if (top == null && existingTitles.contains(document.title())) {
+                result.setFailedCount(result.getFailedCount() + 1);
+                result.getErrors().add("页面已存在: " + document.title());
+                continue;
+            }
+            String duplicate = duplicateTitle(document, context);
+            if (duplicate != null) {
+                result.setFailedCount(result.getFailedCount() + 1);
+                result.getErrors().add(document.source().path() + ": 同一目录下页面标题重复: " + duplicate);
+                continue;
+            }
+
+            WikiPage parent = directory.isEmpty() ? null : ensureDirectory(directory, context);
+            WikiPage page = newPage(document.title(), PageType.DOCUMENT, parent, directory, context);
+            documentPages.put(document, page);
+        }
+        return documentPages;
+    }
+
+    /**
+     * 检查文档及其尚未创建的上级目录是否与压缩包内已分配的同级页面重名
+     *
+     * @return 重复的标题，无重复时返回 null
+     */
+    private static String duplicateTitle(ParsedDocument document, TreeContext context) {
+        String directory = document.directory();
+        if (!directory.isEmpty()) {
+            String[] segments = directory.split("/");
+            String current = "";
+            for (String segment : segments) {
+                String parent = current;
+                current = current.isEmpty() ? segment : current + "/" + segment;
+                if (context.directories.containsKey(current)) {
+                    continue;
+                }
+                String title = truncateTitle(segment);
+                if (context.siblingTitles.getOrDefault(parent, Set.of()).contains(title)) {
+                    return title;
+                }
+            }
+        }
+        return context.siblingTitles.getOrDefault(directory, Set.of()).contains(document.title())
+                ? document.title() : null;
+    }
+
+    /**
+     * 确保压缩包中的目录对应的目录页存在，逐级创建
+     */
+    private WikiPage ensureDirectory(String directory, TreeContext context) {
+        WikiPage existing = context.directories.get(directory);
+        if (existing != null) {
+            return existing;
+        }
+        String parentDirectory = parentOf(directory);
+        WikiPage parent = parentDirectory.isEmpty() ? null : ensureDirectory(parentDirectory, context);
+        WikiPage page = newPage(truncateTitle(baseNameOf(directory)), PageType.DIRECTORY, parent, parentDirectory, context);
+        context.directories.put(directory, page);
+        return page;
+    }
+
+    private WikiPage newPage(String title, PageType pageType, WikiPage parent, String parentDirectory, TreeContext context) {
+        WikiImportDTO importDTO = context.importDTO;
+        int sortOrder = context.nextSortOrder.merge(parentDirectory, 1, Integer::sum) - 1;
+        String parentPath = parent == null ? context.basePath : parent.getPath();
+
+        WikiPage page = WikiPage.builder()
+                .id(SnowflakeIdUtils.nextId())
+                .projectId(importDTO.getProjectId())
+                .title(title)
+                .pageType(pageType)
+                .parentId(parent == null ? importDTO.getParentId() : parent.getId())
+                .path(parentPath + "/" + title)
+                .sortOrder(sortOrder)
+                .isPublic(importDTO.getIsPublic())
+                .build();
+        // 无状态会话不触发审计监听器，审计字段在此直接填充
+        page.setCreatedBy(importDTO.getImportBy());
+        page.setUpdatedBy(importDTO.getImportBy());
+        page.setCreatedAt(context.now);
+        page.setUpdatedAt(context.now);
+        page.setVersion(0);
+        context.pages.add(page);
+        context.siblingTitles.computeIfAbsent(parentDirectory, key -> new HashSet<>()).add(title);
+        return page;
+    }
+
+    // ==================== 图片 ====================
+
+    private List<UploadedImage> uploadImages(Map<ParsedDocument, WikiPage> documentPages, Map<String, SourceFile> images,
+                                             WikiImportDTO importDTO, WikiImportResultDTO result,
+                                             ProgressReporter progress) {
+        // 同一图片只上传一次，归属第一个引用它的页面
+        Map<String, WikiPage> owners = new LinkedHashMap<>();
+        documentPages.forEach((document, page) -> document.imageRefs().forEach(ref -> {
+            if (images.containsKey(ref)) {
+                owners.putIfAbsent(ref, page);
+            }
+        }));
+        if (owners.isEmpty()) {
+            return List.of();
+        }
+
+        AtomicInteger uploadedCount = new AtomicInteger();
+        List<CompletableFuture<UploadedImage>> futures = owners.entrySet().stream()
+                .map(entry -> CompletableFuture.supplyAsync(() -> {
+                    UploadedImage image = upload(images.get(entry.getKey()), entry.getValue(), importDTO);
+                    progress.step("UPLOADING", uploadedCount.incrementAndGet(), owners.size());
+                    return image;
+                }, workers))
+                .toList();
+
+        List<UploadedImage> uploaded = new ArrayList<>(futures.size());
+        for (CompletableFuture<UploadedImage> future : futures) {
+            UploadedImage image = future.join();
+            if (image.response() == null) {
+                result.getErrors().add(image.source().path() + ": " + image.error());
+            } else {
+                uploaded.add(image);
+            }
+        }
+        return uploaded;
+    }
+
+    private UploadedImage upload(SourceFile image, WikiPage owner, WikiImportDTO importDTO) {
+        if (image.data().length > MAX_IMAGE_BYTES) {
+            return new UploadedImage(image, owner, null, "图片超过 " + MAX_IMAGE_BYTES / 1024 / 1024 + "MB");
+        }
+        Path temp = null;
+        try {
+            temp = Files.createTempFile("wiki-import-", "." + extensionOf(image.path()));
+            Files.write(temp, image.data());
+            String folder = String.format("wiki/%d/%d", importDTO.getProjectId(), owner.getId());
+            UploadFileResponseDTO response = cosService.uploadLocalFile(temp.toFile(), folder, null);
+            return new UploadedImage(image, owner, response, null);
+        } catch (Exception e) {
+            log.warn("导入图片上传失败: path={}, error={}", image.path(), e.getMessage());
+            return new UploadedImage(image, owner, null, e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.debug("删除临时文件失败: {}", temp, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 把图片链接替换为 COS 地址，填充文档内容相关字段，并生成附件记录
+     */
+    private List<WikiAttachment> applyContent(Map<ParsedDocument, WikiPage> documentPages,
+                                              List<UploadedImage> uploaded, WikiImportDTO importDTO) {
+        Map<String, String> urls = new HashMap<>();
+        for (UploadedImage image : uploaded) {
+            urls.put(image.source().path(), image.response().getUrl());
+        }
+
+        documentPages.forEach((document, page) -> {
+            String content = document.content();
+            String hash = document.contentHash();
+            if (!urls.isEmpty() && !document.imageRefs().isEmpty()) {
+                String rewritten = rewriteImageLinks(content, document.directory(), urls);
+                if (!rewritten.equals(content)) {
+                    content = rewritten;
+                    hash = wikiDiffUtils.calculateHash(content);
+                }
+            }
+            page.setContent(content);
+            page.setContentHash(hash);
+            page.setContentSize(content.length());
+            page.setCurrentVersion(1);
+            if (!content.isEmpty()) {
+                page.setContentSummary(content.length() > 200 ? content.substring(0, 200) : content);
+            }
+            page.setRecentVersions(new ArrayList<>());
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        List<WikiAttachment> attachments = new ArrayList<>(uploaded.size());
+        long[] attachmentIds = SnowflakeIdUtils.nextIds(uploaded.size());
+        for (UploadedImage image : uploaded) {
+            String extension = extensionOf(image.source().path());
+            UploadFileResponseDTO response = image.response();
+            attachments.add(WikiAttachment.builder()
+                    .id(attachmentIds[attachments.size()])
+                    .wikiPageId(image.owner().getId())
+                    .projectId(importDTO.getProjectId())
+                    .attachmentType(AttachmentType.IMAGE)
+                    .fileName(baseNameOf(image.source().path()) + "." + extension)
+                    .fileSize((long) image.source().data().length)
+                    .fileType(extension)
+                    .mimeType(StringUtils.hasText(response.getContentType())
+                            ? response.getContentType() : "application/octet-stream")
+                    .bucketName(cosProperties.getBucketName())
+                    .objectKey(response.getObjectKey())
+                    .fileUrl(response.getUrl())
+                    .description("从压缩包导入")
+                    .fileHash(DigestUtils.md5DigestAsHex(image.source().data()))
+                    .uploadBy(importDTO.getImportBy())
+                    .uploadAt(now)
+                    .build());
+        }
+        return attachments;
+    }
+
+    private String rewriteImageLinks(String content, String directory, Map<String, String> urls) {
+        Matcher matcher = IMAGE_LINK.matcher(content);
+        StringBuilder builder = new StringBuilder(content.length());
+        while (matcher.find()) {
+            String resolved = resolveLink(directory, matcher.group(2));
+            String url = resolved == null ? null : urls.get(resolved);
+            String replacement = url == null
+                    ? matcher.group()
+                    : "![" + matcher.group(1) + "](" + url + matcher.group(3) + ")";
+            matcher.appendReplacement(builder, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(builder);
+        return builder.toString();
+    }
+
+    private void deleteUploaded(List<UploadedImage> uploaded) {
+        for (UploadedImage image : uploaded) {
+            try {
+                cosService.deleteObject(cosProperties.getBucketName(), image.response().getObjectKey());
+            } catch (Exception e) {
+                log.warn("清理导入失败的图片失败: objectKey={}", image.response().getObjectKey(), e);
+            }
+        }
+    }
+
+    // ==================== 写库 ====================
+
+    /**
+     * 在一个事务中批量插入页面与附件
+     * 使用无状态会话，不经过一级缓存与脏检查，插入语句按 {@link #PERSIST_BATCH_SIZE} 分组提交
+     */
+    private void persist(List<WikiPage> pages, List<WikiAttachment> attachments, ProgressReporter progress) {
+        sessionFactory.inStatelessTransaction(session -> {
+            session.setJdbcBatchSize(PERSIST_BATCH_SIZE);
+            int saved = 0;
+            for (WikiPage page : pages) {
+                session.insert(page);
+                saved++;
+                if (saved % PERSIST_BATCH_SIZE == 0) {
+                    progress.report("SAVING", saved, pages.size());
+                }
+            }
+            for (WikiAttachment attachment : attachments) {
+                session.insert(attachment);
+            }
+        });
+        progress.report("SAVING", pages.size(), pages.size());
+    }
+
+    /**
+     * 一次导入只记录一条汇总日志
+     */
+    private void recordOperationLog(WikiImportDTO importDTO, List<WikiPage> pages, long documentCount, String username) {
+        try {
+            WikiPage first = pages.getFirst();
+            WikiOperationLog operationLog = WikiOperationLog.builder()
+                    .projectId(importDTO.getProjectId())
+                    .wikiPageId(first.getId())
+                    .wikiPageTitle(first.getTitle())
+                    .userId(importDTO.getImportBy())
+                    .username(username)
+                    .operationType(WikiOperationType.CREATE)
+                    .operationModule("知识库Wiki管理")
+                    .operationDesc(String.format("批量导入Wiki页面：目录%d个，文档%d个",
+                            pages.size() - documentCount, documentCount))
+                    .operationTime(LocalDateTime.now())
+                    .build();
+            operationLogRepository.save(operationLog);
+        } catch (Exception e) {
+            log.error("记录Wiki批量导入日志失败: projectId={}", importDTO.getProjectId(), e);
+        }
+    }
+
+    /**
+     * 事务提交后为导入位置下的顶层页面发送创建通知，子页面随顶层页面一并可见，不逐个通知
+     */
+    private void notifyCreated(WikiImportDTO importDTO, List<WikiPage> pages) {
+        for (WikiPage page : pages) {
+            if (!Objects.equals(page.getParentId(), importDTO.getParentId())) {
+                continue;
+            }
+            try {
+                messageSendService.notifyWikiPageCreated(page, importDTO.getImportBy());
+            } catch (Exception e) {
+                log.error("发送Wiki页面创建通知失败: pageId={}", page.getId(), e);
+            }
+        }
+    }
+
+    // ==================== 工具方法 ====================
+
+    private String resolveBasePath(WikiImportDTO importDTO) {
+        if (importDTO.getParentId() == null) {
+            return "";
+        }
+        WikiPage parent = wikiPageRepository.findById(importDTO.getParentId())
+                .orElseThrow(() -> new ServiceException("父页面不存在"));
+        if (parent.getPageType() == PageType.DOCUMENT) {
+            throw new ServiceException("不能在文档节点下创建子节点，请选择目录节点");
+        }
+        if (!parent.getProjectId().equals(importDTO.getProjectId())) {
+            throw new ServiceException("父页面不属于该项目");
+        }
+        return parent.getPath();
+    }
+
+    private static List<SourceFile> readArchive(Path archive, Charset charset, int maxEntries, long maxBytes)
+            throws IOException {
+        List<SourceFile> files = new ArrayList<>();
+        long totalBytes = 0;
+        try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(Files.newInputStream(archive)), charset)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                String path = normalizePath(entry.getName());
+                if (path == null) {
+                    continue;
+                }
+                if (files.size() >= maxEntries) {
+                    throw new ServiceException("压缩包文件数量超过上限 " + maxEntries);
+                }
+                byte[] data = readEntry(zip, maxBytes - totalBytes, maxBytes);
+                totalBytes += data.length;
+                files.add(new SourceFile(path, data));
+            }
+        }
+        return files;
+    }
+
+    private static byte[] readEntry(InputStream in, long remaining, long maxBytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            remaining -= read;
+            if (remaining < 0) {
+                throw new ServiceException("压缩包解压后超过 " + maxBytes / 1024 / 1024 + "MB");
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 规范化压缩包内路径，拒绝跳出根目录的路径，跳过隐藏文件与 macOS 元数据
+     *
+     * @return 规范化路径，不可导入时返回 null
+     */
+    private static String normalizePath(String name) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : name.replace('\\', '/').split("/")) {
+            if (segment.isEmpty() || ".".equals(segment)) {
+                continue;
+            }
+            if ("..".equals(segment) || segment.startsWith(".") || "__MACOSX".equals(segment)) {
+                return null;
+            }
+            segments.add(segment);
+        }
+        return segments.isEmpty() ? null : String.join("/", segments);
+    }
+
+    /**
+     * 把文档中的相对图片链接解析为压缩包内路径，外部链接返回 null
+     */
+    private static String resolveLink(String directory, String link) {
+        if (link.contains("://") || link.startsWith("/") || link.startsWith("data:") || link.startsWith("#")) {
+            return null;
+        }
+        Deque<String> segments = new ArrayDeque<>();
+        String joined = directory.isEmpty() ? link : directory + "/" + link;
+        for (String segment : joined.replace("%20", " ").split("/")) {
+            if (segment.isEmpty() || ".".equals(segment)) {
+                continue;
+            }
+            if ("..".equals(segment)) {
+                if (segments.pollLast() == null) {
+                    return null;
+                }
+                continue;
+            }
+            segments.addLast(segment);
+        }
+        return segments.isEmpty() ? null : String.join("/", segments);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除临时文件失败: {}", path, e);
+        }
+    }
+
+    private static String parentOf(String path) {
+        int index = path.lastIndexOf('/');
+        return index < 0 ? "" : path.substring(0, index);
+    }
+
+    private static String baseNameOf(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static String extensionOf(String path) {
+        String extension = StringUtils.getFilenameExtension(path);
+        return extension == null ? "" : extension.toLowerCase(Locale.ROOT);
+    }
+
+    private static String truncateTitle(String title) {
+        return title.length() > MAX_TITLE_LENGTH ? title.substring(0, MAX_TITLE_LENGTH) : title;
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // ==================== 内部结构 ====================
+
+    /**
+     * 待导入文件
+     *
+     * @param path 压缩包内的规范化路径
+     * @param data 文件内容
+     */
+    public record SourceFile(String path, byte[] data) {
+    }
+
+    private record ParsedDocument(SourceFile source, String directory, String title, String content,
+                                  String contentHash, Set<String> imageRefs, String error) {
+
+        static ParsedDocument failed(SourceFile source, String directory, String error) {
+            return new ParsedDocument(source, directory, null, null, null, Set.of(), error);
+        }
+    }
+
+    private record UploadedImage(SourceFile source, WikiPage owner, UploadFileResponseDTO response, String error) {
+    }
+
+    private static final class TreeContext {
+
+        private final WikiImportDTO importDTO;
+
+        private final String basePath;
+
+        private final LocalDateTime now;
+
+        private final List<WikiPage> pages;
+
+        /**
+         * 压缩包目录路径 -> 目录页
+         */
+        private final Map<String, WikiPage> directories = new HashMap<>();
+
+        /**
+         * 压缩包目录路径 -> 下一个排序号，根目录为空字符串
+         */
+        private final Map<String, Integer> nextSortOrder = new HashMap<>();
+
+        /**
+         * 压缩包目录路径 -> 已分配的子页面标题，根目录为空字符串
+         */
+        private final Map<String, Set<String>> siblingTitles = new HashMap<>();
+
+        private TreeContext(WikiImportDTO importDTO, String basePath, LocalDateTime now, List<WikiPage> pages) {
+            this.importDTO = importDTO;
+            this.basePath = basePath;
+            this.now = now;
+            this.pages = pages;
+        }
+    }
+
+    /**
+     * 通过 SSE 推送导入进度，按步长节流
+     */
+    private static final class ProgressReporter {
+
+        private final String importId;
+
+        private final WikiImportDTO importDTO;
+
+        private ProgressReporter(String importId, WikiImportDTO importDTO) {
+            this.importId = importId;
+            this.importDTO = importDTO;
+        }
+
+        void step(String stage, int processed, int total) {
+            if (processed % PROGRESS_STEP == 0 || processed == total) {
+                report(stage, processed, total);
+            }
+        }
+
+        void report(String stage, int processed, int total) {
+            publish(WikiImportProgressDTO.builder()
+                    .importId(importId)
+                    .projectId(importDTO.getProjectId())
+                    .stage(stage)
+                    .processed(processed)
+                    .total(total)
+                    .build());
+        }
+
+        void finish(String stage, WikiImportResultDTO result) {
+            publish(WikiImportProgressDTO.builder()
+                    .importId(importId)
+                    .projectId(importDTO.getProjectId())
+                    .stage(stage)
+                    .result(result)
+                    .build());
+        }
+
+        private void publish(WikiImportProgressDTO progress) {
+            if (importId == null || importDTO.getImportBy() == null) {
+                return;
+            }
+            try {
+                SseMessageDto message = new SseMessageDto();
+                message.setUserIds(List.of(importDTO.getImportBy()));
+                message.setMessage(JsonUtils.toJsonString(progress));
+                SseMessageUtils.publishMessage(message);
+            } catch (Exception e) {
+                log.debug("推送Wiki导入进度失败: importId={}", importId, e);
+            }
+        }
+    }
+}
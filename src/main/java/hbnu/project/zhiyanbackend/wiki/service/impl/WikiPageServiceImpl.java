@@ -10,6 +10,7 @@ import hbnu.project.zhiyanbackend.wiki.repository.WikiPageRepository;
 import hbnu.project.zhiyanbackend.wiki.repository.WikiVersionHistoryRepository;
 import hbnu.project.zhiyanbackend.wiki.service.WikiPageService;
 import hbnu.project.zhiyanbackend.wiki.utils.WikiDiffUtils;
+import hbnu.project.zhiyanbackend.wiki.utils.WikiPatchCodec;
 import hbnu.project.zhiyanbackend.message.service.MessageSendService;
 
 import jakarta.annotation.Resource;
@@ -51,6 +52,9 @@ public class WikiPageServiceImpl implements WikiPageService {
     @Resource
     private WikiDiffUtils wikiDiffUtils;
 
+    @Resource
+    private WikiPatchCodec patchCodec;
+
     @Resource
     private ApplicationContext applicationContext;
 
@@ -170,20 +174,22 @@ public class WikiPageServiceImpl implements WikiPageService {
             String oldContent = wikiPage.getContent() != null ? wikiPage.getContent() : "";
             String newContent = content;
 
-            // 新内容的哈希值
-            String newHash = wikiDiffUtils.calculateHash(newContent);
+            // 一次计算新内容哈希、差异和统计
+            WikiDiffUtils.DiffResult change = wikiDiffUtils.computeChange(oldContent, newContent);
+            String newHash = change.contentHash();
 
             // 如果内容有变化，创建新版本
             if (!newHash.equals(wikiPage.getContentHash())) {
-                // 计算差异和统计
-                String diff = wikiDiffUtils.calculateDiff(oldContent, newContent);
-                ChangeStats stats = wikiDiffUtils.calculateStats(oldContent, newContent);
+                String diff = change.diff();
+                ChangeStats stats = change.stats();
 
                 // 创建新版本记录
                 int newVersion = wikiPage.getCurrentVersion() + 1;
                 WikiPage.RecentVersionInfo recentVersion = WikiPage.RecentVersionInfo.builder()
                         .version(newVersion)
-                        .contentDiff(diff)
+                        // 补丁压缩为二进制保存，空补丁保留空串
+                        .contentDiff(diff.isEmpty() ? diff : null)
+                        .contentPatch(patchCodec.encode(wikiPage.getProjectId(), diff))
                         .changeDescription(StringUtils.hasText(changeDesc) ? changeDesc : "Update content")
                         .editorId(editorId)
                         .createdAt(LocalDateTime.now())
@@ -238,6 +244,29 @@ public class WikiPageServiceImpl implements WikiPageService {
         return saved;
     }
 
+    /**
+     * 按版本号条件更新Wiki页面内容
+     * 在同一事务内锁定页面行并校验版本，校验通过后按普通更新流程保存
+     *
+     * @param pageId          页面ID
+     * @param content         新内容
+     * @param changeDesc      修改说明
+     * @param editorId        编辑者ID
+     * @param expectedVersion 期望的当前版本
+     * @return 更新后的页面，版本不一致时返回 null
+     */
+    @Override
+    @Transactional
+    public WikiPage updateWikiPageIfVersion(Long pageId, String content, String changeDesc, Long editorId, int expectedVersion) {
+        WikiPage wikiPage = wikiPageRepository.findByIdForUpdate(pageId).orElseThrow(() -> new ServiceException("Wiki页面不存在"));
+        if (!Objects.equals(wikiPage.getCurrentVersion(), expectedVersion)) {
+            log.warn("Wiki页面版本已变化，放弃条件更新: id={}, expected={}, current={}",
+                    pageId, expectedVersion, wikiPage.getCurrentVersion());
+            return null;
+        }
+        return updateWikiPage(pageId, null, content, changeDesc, editorId);
+    }
+
     /**
      * 将超过最近版本上限的旧版本归档到历史表
      *
@@ -253,6 +282,7 @@ public class WikiPageServiceImpl implements WikiPageService {
                     .projectId(projectId)
                     .version(recentVersion.getVersion())
                     .contentDiff(recentVersion.getContentDiff())
+                    .contentPatch(recentVersion.getContentPatch())
                     .changeDescription(recentVersion.getChangeDescription())
                     .build();
 
@@ -0,0 +1,192 @@
+package hbnu.project.zhiyanbackend.wiki.utils;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.ChangeDelta;
+import com.github.difflib.patch.Chunk;
+import com.github.difflib.patch.DeleteDelta;
+import com.github.difflib.patch.InsertDelta;
+import com.github.difflib.patch.Patch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 行级差异计算
+ * 先裁掉首尾相同的行（追加、删除尾部等常见保存只剩一侧有内容，无需进入 Myers），
+ * 中间部分的行按内容驻留为 int 编号后在 int 数组上运行 Myers 算法，行内容只做一次哈希。
+ * 编辑距离过大时回退到 java-diff-utils，避免回溯轨迹占用过多内存。
+ * 生成的 {@link Patch} 与 java-diff-utils 结构一致，可直接生成 Unified Diff。
+ *
+ * @author ErgouTree
+ */
+final class LineDiff {
+
+    /**
+     * Myers 回溯轨迹按 D² 增长，超过该编辑距离时回退
+     */
+    private static final int MAX_EDIT_DISTANCE = 1024;
+
+    private LineDiff() {
+    }
+
+    /**
+     * 计算两组行的差异
+     *
+     * @param oldLines 旧内容的行
+     * @param newLines 新内容的行
+     * @return 补丁，无差异时不含任何 delta
+     */
+    static Patch<String> diff(List<String> oldLines, List<String> newLines) {
+        int oldSize = oldLines.size();
+        int newSize = newLines.size();
+
+        int prefix = 0;
+        int maxPrefix = Math.min(oldSize, newSize);
+        while (prefix < maxPrefix && oldLines.get(prefix).equals(newLines.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        int maxSuffix = maxPrefix - prefix;
+        while (suffix < maxSuffix && oldLines.get(oldSize - 1 - suffix).equals(newLines.get(newSize - 1 - suffix))) {
+            suffix++;
+        }
+
+        int oldEnd = oldSize - suffix;
+        int newEnd = newSize - suffix;
+        Patch<String> patch = new Patch<>();
+        if (prefix == oldEnd && prefix == newEnd) {
+            return patch;
+        }
+        if (prefix == oldEnd || prefix == newEnd) {
+            // 快速路径：只有一侧剩余，整体为一次插入或删除
+            addDelta(patch, oldLines, prefix, oldEnd, newLines, prefix, newEnd);
+            return patch;
+        }
+
+        int[][] interned = intern(oldLines.subList(prefix, oldEnd), newLines.subList(prefix, newEnd));
+        boolean[][] edits = myers(interned[0], interned[1]);
+        if (edits == null) {
+            return DiffUtils.diff(oldLines, newLines);
+        }
+
+        boolean[] deleted = edits[0];
+        boolean[] inserted = edits[1];
+        int i = 0;
+        int j = 0;
+        int n = deleted.length;
+        int m = inserted.length;
+        while (i < n || j < m) {
+            if (i < n && j < m && !deleted[i] && !inserted[j]) {
+                i++;
+                j++;
+                continue;
+            }
+            int deleteStart = i;
+            int insertStart = j;
+            while (i < n && deleted[i]) {
+                i++;
+            }
+            while (j < m && inserted[j]) {
+                j++;
+            }
+            addDelta(patch, oldLines, prefix + deleteStart, prefix + i, newLines, prefix + insertStart, prefix + j);
+        }
+        return patch;
+    }
+
+    /**
+     * 把两组行驻留为 int 编号，相同内容的行得到相同编号
+     */
+    private static int[][] intern(List<String> oldLines, List<String> newLines) {
+        Map<String, Integer> ids = new HashMap<>((oldLines.size() + newLines.size()) * 2);
+        int[] a = new int[oldLines.size()];
+        int[] b = new int[newLines.size()];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = ids.computeIfAbsent(oldLines.get(i), line -> ids.size());
+        }
+        for (int i = 0; i < b.length; i++) {
+            b[i] = ids.computeIfAbsent(newLines.get(i), line -> ids.size());
+        }
+        return new int[][]{a, b};
+    }
+
+    /**
+     * Myers O(ND) 差异算法
+     *
+     * @return [被删除的旧行标记, 被插入的新行标记]，编辑距离超过上限时返回 null
+     */
+    private static boolean[][] myers(int[] a, int[] b) {
+        int n = a.length;
+        int m = b.length;
+        int max = n + m;
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+
+        for (int d = 0; d <= max; d++) {
+            if (d > MAX_EDIT_DISTANCE) {
+                return null;
+            }
+            // 记录本轮开始前的 v[-d..d]，回溯时据此判断上一步的方向
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[x] == b[y]) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    return backtrack(trace, n, m);
+                }
+            }
+        }
+        return backtrack(trace, n, m);
+    }
+
+    private static boolean[][] backtrack(List<int[]> trace, int n, int m) {
+        boolean[] deleted = new boolean[n];
+        boolean[] inserted = new boolean[m];
+        int x = n;
+        int y = m;
+        for (int d = trace.size() - 1; d > 0; d--) {
+            int[] v = trace.get(d);
+            int k = x - y;
+            int prevK = (k == -d || (k != d && v[k - 1 + d] < v[k + 1 + d])) ? k + 1 : k - 1;
+            int prevX = v[prevK + d];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                x--;
+                y--;
+            }
+            if (prevK == k + 1) {
+                inserted[prevY] = true;
+            } else {
+                deleted[prevX] = true;
+            }
+            x = prevX;
+            y = prevY;
+        }
+        return new boolean[][]{deleted, inserted};
+    }
+
+    private static void addDelta(Patch<String> patch,
+                                 List<String> oldLines, int oldFrom, int oldTo,
+                                 List<String> newLines, int newFrom, int newTo) {
+        Chunk<String> source = new Chunk<>(oldFrom, new ArrayList<>(oldLines.subList(oldFrom, oldTo)));
+        Chunk<String> target = new Chunk<>(newFrom, new ArrayList<>(newLines.subList(newFrom, newTo)));
+        if (oldFrom == oldTo) {
+            patch.addDelta(new InsertDelta<>(source, target));
+        } else if (newFrom == newTo) {
+            patch.addDelta(new DeleteDelta<>(source, target));
+        } else {
+            patch.addDelta(new ChangeDelta<>(source, target));
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package hbnu.project.zhiyanbackend.wiki.utils;
 
-import com.github.difflib.DiffUtils;
 import com.github.difflib.UnifiedDiffUtils;
 import com.github.difflib.patch.Patch;
 import com.github.difflib.patch.PatchFailedException;
@@ -58,23 +57,39 @@ public class WikiDiffUtils {
         List<String> newLines = splitLines(safeNewContent);
 
         try{
-            Patch<String> patch = DiffUtils.diff(oldLines, newLines);
+            return toUnifiedDiff(oldLines, LineDiff.diff(oldLines, newLines));
+        }catch (Exception e){
+            log.error("计算 Diff 失败 - oldContent length: {}, newContent length: {}",
+                    safeOldContent.length(), safeNewContent.length(), e);
+            throw new UtilException("Diff 计算失败", e);
+        }
+    }
 
-            // 无差异时返回空字符串
-            if (patch.getDeltas().isEmpty()) {
-                return EMPTY_CONTENT;
-            }
+    /**
+     * 一次性计算保存所需的差异、变更统计和新内容哈希
+     * 两个版本各切分一次行，差异只计算一次，统计直接从同一份补丁得出
+     *
+     * @param oldContent 旧内容（可为 null）
+     * @param newContent 新内容（可为 null）
+     * @return 计算结果，内容相同时差异为空串、统计为零
+     */
+    public DiffResult computeChange(String oldContent, String newContent) {
+        String safeOldContent = normalizeContent(oldContent);
+        String safeNewContent = normalizeContent(newContent);
+        String hash = calculateHash(safeNewContent);
 
-            List<String> unifiedDiff = UnifiedDiffUtils.generateUnifiedDiff(
-                    DIFF_OLD_LABEL,
-                    DIFF_NEW_LABEL,
-                    oldLines,
-                    patch,
-                    CONTEXT_LINES
-            );
+        // 快速路径：未修改的保存不切分、不比对
+        if (safeOldContent.equals(safeNewContent)) {
+            return new DiffResult(hash, EMPTY_CONTENT, ChangeStats.zero());
+        }
 
-            return String.join("\n", unifiedDiff);
-        }catch (Exception e){
+        List<String> oldLines = splitLines(safeOldContent);
+        List<String> newLines = splitLines(safeNewContent);
+        try {
+            Patch<String> patch = LineDiff.diff(oldLines, newLines);
+            ChangeStats stats = toStats(patch, Math.abs(safeNewContent.length() - safeOldContent.length()));
+            return new DiffResult(hash, toUnifiedDiff(oldLines, patch), stats);
+        } catch (Exception e) {
             log.error("计算 Diff 失败 - oldContent length: {}, newContent length: {}",
                     safeOldContent.length(), safeNewContent.length(), e);
             throw new UtilException("Diff 计算失败", e);
@@ -213,39 +228,62 @@ public class WikiDiffUtils {
         List<String> newLines = splitLines(safeNewContent);
 
         try {
-            Patch<String> patch = DiffUtils.diff(oldLines, newLines);
-
-            int addedLines = 0;
-            int deletedLines = 0;
-
-            for(var delta : patch.getDeltas()) {
-                switch (delta.getType()) {
-                    case INSERT:
-                        addedLines += delta.getTarget().size();
-                        break;
-                    case DELETE:
-                        deletedLines += delta.getSource().size();
-                        break;
-                    case CHANGE:
-                        addedLines += delta.getTarget().size();
-                        deletedLines += delta.getSource().size();
-                        break;
-                }
-            }
-
-            int changedChars = Math.abs(safeNewContent.length() - safeOldContent.length());
-
-            return ChangeStats.builder()
-                    .addedLines(addedLines)
-                    .deletedLines(deletedLines)
-                    .changedChars(changedChars)
-                    .build();
+            Patch<String> patch = LineDiff.diff(oldLines, newLines);
+            return toStats(patch, Math.abs(safeNewContent.length() - safeOldContent.length()));
         }catch (UtilException e) {
             log.error("计算变更统计失败", e);
             return ChangeStats.zero();
         }
     }
 
+    /**
+     * 补丁转为 Unified Diff 字符串，无差异时返回空字符串
+     */
+    private String toUnifiedDiff(List<String> oldLines, Patch<String> patch) {
+        if (patch.getDeltas().isEmpty()) {
+            return EMPTY_CONTENT;
+        }
+        List<String> unifiedDiff = UnifiedDiffUtils.generateUnifiedDiff(
+                DIFF_OLD_LABEL,
+                DIFF_NEW_LABEL,
+                oldLines,
+                patch,
+                CONTEXT_LINES
+        );
+        return String.join("\n", unifiedDiff);
+    }
+
+    /**
+     * 从补丁统计新增、删除行数
+     */
+    private ChangeStats toStats(Patch<String> patch, int changedChars) {
+        int addedLines = 0;
+        int deletedLines = 0;
+
+        for(var delta : patch.getDeltas()) {
+            switch (delta.getType()) {
+                case INSERT:
+                    addedLines += delta.getTarget().size();
+                    break;
+                case DELETE:
+                    deletedLines += delta.getSource().size();
+                    break;
+                case CHANGE:
+                    addedLines += delta.getTarget().size();
+                    deletedLines += delta.getSource().size();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return ChangeStats.builder()
+                .addedLines(addedLines)
+                .deletedLines(deletedLines)
+                .changedChars(changedChars)
+                .build();
+    }
+
     /**
      * 规范化内容（处理 null）
      */
@@ -278,4 +316,14 @@ public class WikiDiffUtils {
         }
         return hexString.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * 保存时的差异计算结果
+     *
+     * @param contentHash 新内容的 SHA-256 哈希
+     * @param diff        旧→新的 Unified Diff，内容相同时为空串
+     * @param stats       变更统计
+     */
+    public record DiffResult(String contentHash, String diff, ChangeStats stats) {
+    }
+}
@@ -0,0 +1,362 @@
+package hbnu.project.zhiyanbackend.wiki.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hbnu.project.zhiyanbackend.basic.exception.UtilException;
+import hbnu.project.zhiyanbackend.wiki.model.entity.WikiPatchDictionary;
+import hbnu.project.zhiyanbackend.wiki.repository.WikiPatchDictionaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Wiki 差异补丁存储编解码
+ * <p>
+ * 编码格式：魔数(1) + 格式(1) + 字典ID(varint) + deflate 压缩体。
+ * 结构化格式把 Unified Diff 的文件头、hunk 头拆成 varint，每行只保留标记字节和内容；
+ * 无法按结构还原的补丁（手工编辑、旧版本工具生成等）以原文压缩保存，保证解码结果与原文逐字节一致。
+ * 压缩使用项目训练出的预置字典，没有字典时使用内置的 Markdown 常用片段。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WikiPatchCodec {
+
+    private static final byte MAGIC = 'W';
+    private static final byte FORMAT_STRUCTURED = 1;
+    private static final byte FORMAT_RAW = 2;
+
+    /**
+     * 内置字典ID
+     */
+    private static final long BUILTIN_DICTIONARY_ID = 0L;
+
+    private static final byte[] BUILTIN_DICTIONARY = String.join("\n",
+            "| --- | --- |", "- [ ] ", "- [x] ", "```java", "```json", "```bash", "```",
+            "](https://", "![image](", "<br>", "**", "> ", "1. ", "- ", "### ", "## ", "# ",
+            "public ", "private ", "return ", "import ", "function ", "const ", "null", "true", "false",
+            "接口", "说明", "参数", "返回", "实验", "数据", "结果", "项目", "版本", "修改", "任务", "文档")
+            .getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 训练字典的大小上限（不超过 deflate 窗口）与最少有效字节数
+     */
+    private static final int DICTIONARY_SIZE = 16 * 1024;
+    private static final int MIN_DICTIONARY_SIZE = 256;
+
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+),(\\d+) \\+(\\d+),(\\d+) @@$");
+
+    private final WikiPatchDictionaryRepository dictionaryRepository;
+
+    /**
+     * 字典内容不可变，按ID长期缓存
+     */
+    private final Cache<Long, byte[]> dictionaries = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .build();
+
+    /**
+     * 项目当前使用的字典ID，重新训练后最迟在过期时间后生效
+     */
+    private final Cache<Long, Long> projectDictionaries = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    /**
+     * 读取补丁文本：优先解码压缩补丁，否则返回旧的文本补丁
+     *
+     * @param contentDiff  文本补丁（旧数据）
+     * @param contentPatch 压缩补丁
+     * @return Unified Diff 文本，都为空时返回空字符串
+     */
+    public String read(String contentDiff, byte[] contentPatch) {
+        if (contentPatch != null && contentPatch.length > 0) {
+            return decode(contentPatch);
+        }
+        return contentDiff != null ? contentDiff : "";
+    }
+
+    /**
+     * 编码补丁
+     *
+     * @param projectId 项目ID，用于选择字典
+     * @param diff      Unified Diff 文本
+     * @return 编码结果，空补丁返回 null
+     */
+    public byte[] encode(Long projectId, String diff) {
+        if (diff == null || diff.isEmpty()) {
+            return null;
+        }
+        long dictionaryId = projectId == null ? BUILTIN_DICTIONARY_ID : currentDictionaryId(projectId);
+        byte[] structured = toStructured(diff);
+        byte format = structured != null ? FORMAT_STRUCTURED : FORMAT_RAW;
+        byte[] body = structured != null ? structured : diff.getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 3 + 16);
+        out.write(MAGIC);
+        out.write(format);
+        writeVarLong(out, dictionaryId);
+        deflate(body, dictionary(dictionaryId), out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 解码补丁
+     *
+     * @param patch 编码结果
+     * @return Unified Diff 文本
+     */
+    public String decode(byte[] patch) {
+        if (patch.length < 3 || patch[0] != MAGIC) {
+            throw new UtilException("补丁格式错误");
+        }
+        int[] position = {2};
+        long dictionaryId = readVarLong(patch, position);
+        byte[] body = inflate(patch, position[0], dictionary(dictionaryId));
+        return switch (patch[1]) {
+            case FORMAT_STRUCTURED -> fromStructured(body);
+            case FORMAT_RAW -> new String(body, StandardCharsets.UTF_8);
+            default -> throw new UtilException("不支持的补丁格式: " + patch[1]);
+        };
+    }
+
+    /**
+     * 用项目已有的补丁训练字典：统计出现多次的行，按 出现次数×长度 排序取到字典上限，
+     * 收益最高的放在末尾（deflate 回溯距离越近编码越短）
+     *
+     * @param projectId 项目ID
+     * @param samples   补丁样本（Unified Diff 文本）
+     * @return 保存后的字典，样本不足以生成有效字典时返回 null
+     */
+    public WikiPatchDictionary train(Long projectId, List<String> samples) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String sample : samples) {
+            for (String line : sample.split("\n")) {
+                if (line.length() > 4 && line.length() <= 256 && !line.startsWith("@@")) {
+                    counts.merge(line.substring(1), 1, Integer::sum);
+                }
+            }
+        }
+        List<Map.Entry<String, Integer>> ranked = counts.entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .sorted(Comparator.comparingLong((Map.Entry<String, Integer> entry) ->
+                        (long) entry.getValue() * entry.getKey().length()).reversed())
+                .toList();
+
+        Deque<byte[]> selected = new ArrayDeque<>();
+        int size = 0;
+        for (Map.Entry<String, Integer> entry : ranked) {
+            byte[] line = (entry.getKey() + "\n").getBytes(StandardCharsets.UTF_8);
+            if (size + line.length > DICTIONARY_SIZE) {
+                continue;
+            }
+            selected.addFirst(line);
+            size += line.length;
+        }
+        if (size < MIN_DICTIONARY_SIZE) {
+            return null;
+        }
+
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream(size);
+        selected.forEach(dictionary::writeBytes);
+        WikiPatchDictionary saved = dictionaryRepository.save(WikiPatchDictionary.builder()
+                .projectId(projectId)
+                .dictionary(dictionary.toByteArray())
+                .sampleCount(samples.size())
+                .build());
+        dictionaries.put(saved.getId(), saved.getDictionary());
+        projectDictionaries.put(projectId, saved.getId());
+        log.info("训练Wiki补丁字典完成: projectId={}, samples={}, size={}", projectId, samples.size(), size);
+        return saved;
+    }
+
+    // ==================== 字典 ====================
+
+    private long currentDictionaryId(Long projectId) {
+        return projectDictionaries.get(projectId, id -> dictionaryRepository.findFirstByProjectIdOrderByCreatedAtDesc(id)
+                .map(dictionary -> {
+                    dictionaries.put(dictionary.getId(), dictionary.getDictionary());
+                    return dictionary.getId();
+                })
+                .orElse(BUILTIN_DICTIONARY_ID));
+    }
+
+    private byte[] dictionary(long dictionaryId) {
+        if (dictionaryId == BUILTIN_DICTIONARY_ID) {
+            return BUILTIN_DICTIONARY;
+        }
+        byte[] dictionary = dictionaries.get(dictionaryId, id -> dictionaryRepository.findById(id)
+                .map(WikiPatchDictionary::getDictionary)
+                .orElse(null));
+        if (dictionary == null) {
+            throw new UtilException("补丁字典不存在: " + dictionaryId);
+        }
+        return dictionary;
+    }
+
+    // ==================== 结构化编码 ====================
+
+    /**
+     * 按 Unified Diff 结构编码，结构不符或无法逐字节还原时返回 null
+     */
+    private byte[] toStructured(String diff) {
+        String[] lines = diff.split("\n", -1);
+        if (lines.length < 2 || !lines[0].startsWith("--- ") || !lines[1].startsWith("+++ ")) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(diff.length());
+        writeString(out, lines[0].substring(4));
+        writeString(out, lines[1].substring(4));
+
+        List<int[]> hunks = new ArrayList<>();
+        int index = 2;
+        while (index < lines.length) {
+            Matcher matcher = HUNK_HEADER.matcher(lines[index]);
+            if (!matcher.matches()) {
+                return null;
+            }
+            int start = ++index;
+            while (index < lines.length && !lines[index].startsWith("@@")) {
+                if (lines[index].isEmpty()) {
+                    return null;
+                }
+                char tag = lines[index].charAt(0);
+                if (tag != ' ' && tag != '+' && tag != '-') {
+                    return null;
+                }
+                index++;
+            }
+            hunks.add(new int[]{
+                    Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                    Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4)),
+                    start, index});
+        }
+
+        writeVarLong(out, hunks.size());
+        for (int[] hunk : hunks) {
+            for (int i = 0; i < 4; i++) {
+                writeVarLong(out, hunk[i]);
+            }
+            writeVarLong(out, hunk[5] - hunk[4]);
+            for (int i = hunk[4]; i < hunk[5]; i++) {
+                out.write(lines[i].charAt(0));
+                writeString(out, lines[i].substring(1));
+            }
+        }
+        byte[] encoded = out.toByteArray();
+        return fromStructured(encoded).equals(diff) ? encoded : null;
+    }
+
+    private String fromStructured(byte[] body) {
+        int[] position = {0};
+        StringBuilder diff = new StringBuilder(body.length + body.length / 2);
+        diff.append("--- ").append(readString(body, position));
+        diff.append("\n+++ ").append(readString(body, position));
+        long hunkCount = readVarLong(body, position);
+        for (long h = 0; h < hunkCount; h++) {
+            diff.append("\n@@ -").append(readVarLong(body, position))
+                    .append(',').append(readVarLong(body, position))
+                    .append(" +").append(readVarLong(body, position))
+                    .append(',').append(readVarLong(body, position))
+                    .append(" @@");
+            long lineCount = readVarLong(body, position);
+            for (long l = 0; l < lineCount; l++) {
+                diff.append('\n').append((char) body[position[0]++]).append(readString(body, position));
+            }
+        }
+        return diff.toString();
+    }
+
+    // ==================== 压缩与 varint ====================
+
+    private static void deflate(byte[] input, byte[] dictionary, ByteArrayOutputStream out) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setDictionary(dictionary);
+            deflater.setInput(input);
+            deflater.finish();
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int offset, byte[] dictionary) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input, offset, input.length - offset);
+            ByteArrayOutputStream out = new ByteArrayOutputStream((input.length - offset) * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0) {
+                    if (inflater.needsDictionary()) {
+                        inflater.setDictionary(dictionary);
+                    } else if (inflater.needsInput()) {
+                        throw new UtilException("补丁数据不完整");
+                    }
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException | IllegalArgumentException e) {
+            throw new UtilException("补丁解压失败", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(byte[] data, int[] position) {
+        int length = (int) readVarLong(data, position);
+        String value = new String(data, position[0], length, StandardCharsets.UTF_8);
+        position[0] += length;
+        return value;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] data, int[] position) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            if (position[0] >= data.length || shift > 63) {
+                throw new UtilException("补丁数据不完整");
+            }
+            byte b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package hbnu.project.zhiyanbackend.wiki.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.qcloud.cos.COSClient;
+import com.qcloud.cos.exception.CosServiceException;
+import com.qcloud.cos.model.COSObject;
+import com.qcloud.cos.model.ObjectMetadata;
+import hbnu.project.zhiyanbackend.oss.config.COSProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Wiki 导出渲染结果缓存
+ * 键由内容哈希、页面元数据、导出格式和渲染器版本计算，内容或排版变化后自然生成新键，无需主动失效。
+ * 本地磁盘为一级缓存（按总大小淘汰），COS 为可选的二级缓存（多节点共享、重启不丢失）。
+ * 同一键的并发渲染只执行一次，其余请求等待并复用结果。
+ *
+ * @author ErgouTree
+ */
+@Slf4j
+@Component
+public class WikiRenderCache {
+
+    private static final String COS_PREFIX = "wiki-render/";
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("^[a-z]+-v\\d+-[0-9a-f]{64}$");
+
+    private final COSClient cosClient;
+
+    private final COSProperties cosProperties;
+
+    private final Path directory;
+
+    private final boolean cosEnabled;
+
+    /**
+     * 磁盘缓存索引：键 -> 文件大小（KB），淘汰时删除对应文件
+     */
+    private final Cache<String, Integer> diskIndex;
+
+    /**
+     * 正在渲染的键
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    public WikiRenderCache(COSClient cosClient,
+                           COSProperties cosProperties,
+                           @Value("${zhiyan.wiki.render-cache.dir:${java.io.tmpdir}/zhiyan-wiki-render}") String directory,
+                           @Value("${zhiyan.wiki.render-cache.max-size-mb:512}") long maxSizeMb,
+                           @Value("${zhiyan.wiki.render-cache.cos-enabled:false}") boolean cosEnabled) {
+        this.cosClient = cosClient;
+        this.cosProperties = cosProperties;
+        this.directory = Paths.get(directory);
+        this.cosEnabled = cosEnabled;
+        this.diskIndex = Caffeine.newBuilder()
+                .maximumWeight(maxSizeMb * 1024)
+                .<String, Integer>weigher((key, sizeKb) -> sizeKb)
+                // 淘汰时在写入线程上直接删除文件，磁盘占用与索引保持一致
+                .executor(Runnable::run)
+                .removalListener((String key, Integer sizeKb, RemovalCause cause) -> {
+                    if (key != null && cause.wasEvicted()) {
+                        deleteQuietly(this.directory.resolve(key));
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 启动时把已有的缓存文件登记到索引中
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(Files::isRegularFile).forEach(file -> {
+                    String name = file.getFileName().toString();
+                    if (KEY_PATTERN.matcher(name).matches()) {
+                        diskIndex.put(name, sizeKb(file));
+                    } else {
+                        // 未完成写入的临时文件
+                        deleteQuietly(file);
+                    }
+                });
+            }
+            log.info("Wiki渲染缓存初始化完成: dir={}, entries={}, cos={}",
+                    directory, diskIndex.estimatedSize(), cosEnabled);
+        } catch (IOException e) {
+            log.warn("Wiki渲染缓存目录初始化失败: dir={}", directory, e);
+        }
+    }
+
+    /**
+     * 计算缓存键
+     *
+     * @param format          导出格式
+     * @param rendererVersion 渲染器版本，排版逻辑变化时递增
+     * @param parts           影响渲染结果的其他因素（内容哈希、标题、时间等）
+     * @return 缓存键
+     */
+    public static String key(String format, int rendererVersion, Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return format.toLowerCase(Locale.ROOT) + "-v" + rendererVersion + "-"
+                    + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 读取缓存，未命中时渲染并写入缓存
+     *
+     * @param key      缓存键
+     * @param renderer 渲染函数
+     * @return 渲染结果
+     */
+    public byte[] getOrRender(String key, Supplier<byte[]> renderer) {
+        byte[] cached = readDisk(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<byte[]> flight = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            // 抢到渲染权之前，其他请求可能刚好完成并写入磁盘
+            byte[] bytes = readDisk(key);
+            if (bytes == null) {
+                bytes = readCos(key);
+                if (bytes == null) {
+                    bytes = renderer.get();
+                    writeCos(key, bytes);
+                }
+                writeDisk(key, bytes);
+            }
+            flight.complete(bytes);
+            return bytes;
+        } catch (Throwable e) {
+            // 渲染抛出 Error（如内存不足）时也要结束等待中的请求
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // ==================== 磁盘 ====================
+
+    private byte[] readDisk(String key) {
+        if (diskIndex.getIfPresent(key) == null) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(directory.resolve(key));
+        } catch (IOException e) {
+            // 文件被并发淘汰或手动清理
+            diskIndex.invalidate(key);
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, byte[] bytes) {
+        Path target = directory.resolve(key);
+        Path temp = directory.resolve(key + ".tmp-" + Thread.currentThread().threadId());
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            diskIndex.put(key, Math.max(1, bytes.length / 1024));
+        } catch (IOException e) {
+            log.warn("写入Wiki渲染缓存失败: key={}", key, e);
+            deleteQuietly(temp);
+        }
+    }
+
+    private static int sizeKb(Path file) {
+        try {
+            return (int) Math.max(1, Files.size(file) / 1024);
+        } catch (IOException e) {
+            return 1;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("删除Wiki渲染缓存文件失败: {}", file, e);
+        }
+    }
+
+    // ==================== COS ====================
+
+    private byte[] readCos(String key) {
+        if (!cosEnabled) {
+            return null;
+        }
+        try (COSObject object = cosClient.getObject(cosProperties.getBucketName(), COS_PREFIX + key);
+             InputStream in = object.getObjectContent()) {
+            return in.readAllBytes();
+        } catch (CosServiceException e) {
+            if (e.getStatusCode() != 404) {
+                log.warn("读取COS渲染缓存失败: key={}, status={}", key, e.getStatusCode());
+            }
+            return null;
+        } catch (Exception e) {
+            log.warn("读取COS渲染缓存失败: key={}, error={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeCos(String key, byte[] bytes) {
+        if (!cosEnabled) {
+            return;
+        }
+        try {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(bytes.length);
+            cosClient.putObject(cosProperties.getBucketName(), COS_PREFIX + key,
+                    new ByteArrayInputStream(bytes), metadata);
+        } catch (Exception e) {
+            log.warn("写入COS渲染缓存失败: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
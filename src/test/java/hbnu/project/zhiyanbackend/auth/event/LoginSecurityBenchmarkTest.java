@@ -0,0 +1,62 @@
+package hbnu.project.zhiyanbackend.auth.event;
+
+import hbnu.project.zhiyanbackend.message.service.MessageSendService;
+import hbnu.project.zhiyanbackend.support.Benchmarks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 登录安全检查基准：登录线程上安全检查部分的耗时
+ * 改动前检查在登录线程上同步执行，改动后只做IP比较和入队。
+ * 每 10 次登录中有 1 次IP变化，安全通知（写站内信 + 推送）用 1ms 的停顿模拟
+ *
+ * @author ErgouTree
+ */
+@Tag(Benchmarks.TAG)
+class LoginSecurityBenchmarkTest {
+
+    private static final long NOTIFY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final int ITERATIONS = 2_000;
+
+    @Test
+    void loginThreadLatencyBeforeAndAfter() throws InterruptedException {
+        MessageSendService messageSendService = mock(MessageSendService.class);
+        doAnswer(invocation -> {
+            LockSupport.parkNanos(NOTIFY_NANOS);
+            return null;
+        }).when(messageSendService).notifyAccountSecurityAlert(anyLong(), any(), any(), any(), any());
+        LoginSecurityListener listener = new LoginSecurityListener(messageSendService, new SimpleMeterRegistry());
+
+        Benchmarks.Result before = Benchmarks.measure("登录安全检查（登录线程同步执行）", ITERATIONS / 10, ITERATIONS,
+                i -> {
+                    // 改动前的 check 先比较IP，再解析归属地和发送通知
+                    LoginSucceededEvent event = event(i);
+                    if (Boolean.TRUE.equals(ReflectionTestUtils.invokeMethod(LoginSecurityListener.class, "ipChanged", event))) {
+                        ReflectionTestUtils.invokeMethod(listener, "check", event);
+                    }
+                });
+        Benchmarks.Result after = Benchmarks.measure("登录安全检查（过滤 + 入队）", ITERATIONS / 10, ITERATIONS,
+                i -> listener.onLoginSucceeded(event(i)));
+        listener.destroy();
+
+        assertThat(after.p99()).isLessThan(before.p99());
+        assertThat(after.p99()).isLessThan(NOTIFY_NANOS);
+    }
+
+    private static LoginSucceededEvent event(int i) {
+        String lastIp = "10.0." + (i % 250) + ".1";
+        return new LoginSucceededEvent((long) i, i % 10 == 0 ? "10.1.0.1" : lastIp, lastIp);
+    }
+}
@@ -0,0 +1,82 @@
+package hbnu.project.zhiyanbackend.auth.event;
+
+import hbnu.project.zhiyanbackend.basic.utils.ip.AddressUtils;
+import hbnu.project.zhiyanbackend.message.service.MessageSendService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * LoginSecurityListener 测试
+ * 覆盖IP未变化的登录不入队、异地登录发送安全通知，以及队列满时IP变化的检查改在登录线程上执行而不丢弃。
+ * 测试使用内网IP，归属地为"内网IP"，不查询地址库
+ *
+ * @author ErgouTree
+ */
+class LoginSecurityListenerTest {
+
+    private final MessageSendService messageSendService = mock(MessageSendService.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void unchangedIpIsNotChecked() throws InterruptedException {
+        LoginSecurityListener listener = new LoginSecurityListener(messageSendService, meterRegistry);
+
+        listener.onLoginSucceeded(new LoginSucceededEvent(1L, "10.0.0.1", "10.0.0.1"));
+        listener.onLoginSucceeded(new LoginSucceededEvent(2L, "10.0.0.1", null));
+        listener.onLoginSucceeded(new LoginSucceededEvent(3L, "10.0.0.1", " "));
+        listener.onLoginSucceeded(new LoginSucceededEvent(4L, "127.0.0.1", "10.0.0.1"));
+        listener.destroy();
+
+        verifyNoInteractions(messageSendService);
+    }
+
+    @Test
+    void changedIpSendsAlert() throws InterruptedException {
+        LoginSecurityListener listener = new LoginSecurityListener(messageSendService, meterRegistry);
+
+        listener.onLoginSucceeded(new LoginSucceededEvent(1L, "10.0.0.2", "10.0.0.1"));
+        listener.destroy();
+
+        // 内网地址无法区分归属地，按IP变化处理
+        verify(messageSendService).notifyAccountSecurityAlert(1L, "10.0.0.2", AddressUtils.LOCAL_ADDRESS,
+                "10.0.0.1", AddressUtils.LOCAL_ADDRESS);
+    }
+
+    @Test
+    void overflowRunsOnCallerThreadInsteadOfDropping() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Map<Long, String> alertedOn = new ConcurrentHashMap<>();
+        doAnswer(invocation -> {
+            String thread = Thread.currentThread().getName();
+            alertedOn.put(invocation.getArgument(0), thread);
+            if (thread.startsWith("login-security-")) {
+                release.await();
+            }
+            return null;
+        }).when(messageSendService).notifyAccountSecurityAlert(anyLong(), any(), any(), any(), any());
+        LoginSecurityListener listener = new LoginSecurityListener(messageSendService, meterRegistry, 1);
+
+        // 两个工作线程被占住，第三个入队，第四个队列已满
+        for (long userId = 1; userId <= 4; userId++) {
+            listener.onLoginSucceeded(new LoginSucceededEvent(userId, "10.0.0.2", "10.0.0.1"));
+        }
+
+        assertThat(alertedOn).containsEntry(4L, Thread.currentThread().getName());
+        assertThat(meterRegistry.counter("zhiyan.login.security.caller.runs").count()).isEqualTo(1);
+
+        release.countDown();
+        listener.destroy();
+        assertThat(alertedOn).containsOnlyKeys(1L, 2L, 3L, 4L);
+        assertThat(alertedOn.get(3L)).startsWith("login-security-");
+    }
+}
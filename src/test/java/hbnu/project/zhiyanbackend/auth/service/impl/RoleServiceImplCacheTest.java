@@ -0,0 +1,111 @@
+package hbnu.project.zhiyanbackend.auth.service.impl;
+
+import hbnu.project.zhiyanbackend.auth.model.converter.RoleConverter;
+import hbnu.project.zhiyanbackend.auth.model.dto.RoleDTO;
+import hbnu.project.zhiyanbackend.auth.model.entity.Role;
+import hbnu.project.zhiyanbackend.auth.repository.*;
+import hbnu.project.zhiyanbackend.auth.utils.PermissionResolver;
+import hbnu.project.zhiyanbackend.basic.domain.R;
+import hbnu.project.zhiyanbackend.redis.service.RedisService;
+import hbnu.project.zhiyanbackend.support.InMemoryRedis;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * RoleServiceImpl 用户角色缓存测试
+ * 缓存写入前先登记到角色索引；角色修改时只清理持有该角色的用户缓存
+ *
+ * @author ErgouTree
+ */
+class RoleServiceImplCacheTest {
+
+    private final InMemoryRedis redis = new InMemoryRedis().installIntoRedisUtils();
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+
+    private RoleServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        RedisService redisService = new RedisService();
+        redisService.redisTemplate = redis.template();
+        service = new RoleServiceImpl(roleRepository, mock(UserRepository.class), mock(UserRoleRepository.class),
+                mock(RolePermissionRepository.class), mock(PermissionRepository.class), mock(RoleConverter.class),
+                redisService, mock(PermissionResolver.class));
+
+        when(roleRepository.findAllByUserId(7L)).thenReturn(List.of(role(1L, "admin"), role(2L, "editor")));
+        when(roleRepository.findAllByUserId(8L)).thenReturn(List.of(role(2L, "editor")));
+        when(roleRepository.findAllByUserId(9L)).thenReturn(List.of(role(3L, "viewer")));
+    }
+
+    @Test
+    void indexIsRegisteredBeforeCacheWrite() {
+        List<String> commands = new ArrayList<>();
+        redis.onCommand((command, args) -> commands.add(command + " " + args[0]));
+
+        assertThat(service.getUserRoles(7L).getData()).containsExactlyInAnyOrder("admin", "editor");
+        redis.onCommand(null);
+
+        int cacheWrite = commands.indexOf("SET user:roles:7");
+        assertThat(cacheWrite).isPositive();
+        assertThat(commands.subList(0, cacheWrite)).contains("SADD role:users:1", "SADD role:users:2");
+    }
+
+    @Test
+    void cacheIsNotWrittenWhenIndexRegistrationFails() {
+        redis.onCommand((command, args) -> {
+            if (command.equals("SADD")) {
+                throw new IllegalStateException("connection reset");
+            }
+        });
+
+        assertThat(service.getUserRoles(7L).getData()).containsExactlyInAnyOrder("admin", "editor");
+        redis.onCommand(null);
+
+        // 没有登记到索引的缓存在角色修改时清不掉，宁可不缓存
+        assertThat(redis.call("EXISTS", "user:roles:7")).isEqualTo(0L);
+    }
+
+    @Test
+    void cachedRolesAreServedUntilRoleChanges() {
+        service.getUserRoles(7L);
+        service.getUserRoles(7L);
+
+        verify(roleRepository, times(1)).findAllByUserId(7L);
+    }
+
+    @Test
+    void updatingRoleClearsOnlyItsHolders() {
+        service.getUserRoles(7L);
+        service.getUserRoles(8L);
+        service.getUserRoles(9L);
+
+        Role editor = role(2L, "editor");
+        when(roleRepository.findById(2L)).thenReturn(Optional.of(editor));
+        when(roleRepository.save(any(Role.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        RoleDTO update = new RoleDTO();
+        update.setName("editor");
+        update.setDescription("可编辑");
+        assertThat(R.isSuccess(service.updateRole(2L, update))).isTrue();
+
+        assertThat(redis.call("EXISTS", "user:roles:7", "user:roles:8")).isEqualTo(0L);
+        assertThat(service.getUserRoles(9L).getData()).isEqualTo(Set.of("viewer"));
+        verify(roleRepository, times(1)).findAllByUserId(9L);
+        assertThat(redis.call("EXISTS", "role:users:2")).isEqualTo(0L);
+        // 其他角色的索引不受影响
+        assertThat(redis.call("SMEMBERS", "role:users:1")).isEqualTo(List.of("user:roles:7"));
+    }
+
+    private static Role role(Long id, String name) {
+        return Role.builder().id(id).name(name).roleType("CUSTOM").build();
+    }
+}
@@ -0,0 +1,75 @@
+package hbnu.project.zhiyanbackend.auth.utils;
+
+import hbnu.project.zhiyanbackend.auth.service.AuthService;
+import hbnu.project.zhiyanbackend.auth.utils.JwtTokenVerifier.VerifiedClaims;
+import hbnu.project.zhiyanbackend.basic.utils.JwtUtils;
+import hbnu.project.zhiyanbackend.support.Benchmarks;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 令牌校验基准：每次请求的验签与吊销检查耗时
+ * 冷启动为首次见到的令牌（解析 + HMAC-SHA512 验签），热路径为已缓存的令牌，吊销为已确认吊销的令牌。
+ * 黑名单查询用 100µs 的停顿模拟 Redis 往返，未吊销的令牌每次请求都要查询一次
+ *
+ * @author ErgouTree
+ */
+@Tag(Benchmarks.TAG)
+class JwtTokenVerifierBenchmarkTest {
+
+    private static final long REDIS_ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final int TOKENS = 1_000;
+
+    private static final int ITERATIONS = 20_000;
+
+    @Test
+    void coldWarmAndRevokedTokens() {
+        JwtUtils jwtUtils = JwtTokenVerifierTest.jwtUtils();
+        String[] tokens = new String[ITERATIONS + ITERATIONS / 10];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = jwtUtils.createToken(String.valueOf(i), 60);
+        }
+        String revokedToken = tokens[0];
+        AtomicLong blacklistLookups = new AtomicLong();
+        AuthService authService = mock(AuthService.class);
+        when(authService.isTokenBlacklisted(anyString())).thenAnswer(invocation -> {
+            blacklistLookups.incrementAndGet();
+            LockSupport.parkNanos(REDIS_ROUND_TRIP_NANOS);
+            return Set.of(revokedToken).contains(invocation.<String>getArgument(0));
+        });
+        JwtTokenVerifier verifier = new JwtTokenVerifier(jwtUtils, authService);
+
+        AtomicInteger next = new AtomicInteger();
+        Benchmarks.Result cold = Benchmarks.measure("令牌验签（冷启动）", ITERATIONS / 10, ITERATIONS,
+                i -> assertThat(verifier.verify(tokens[next.getAndIncrement()])).isNotNull());
+        Benchmarks.Result warm = Benchmarks.measure("令牌验签（缓存命中）", ITERATIONS / 10, ITERATIONS,
+                i -> assertThat(verifier.verify(tokens[i % TOKENS + 1])).isNotNull());
+        Benchmarks.measure("验签 + 黑名单查询（未吊销）", ITERATIONS / 100, ITERATIONS / 10, i -> {
+            String token = tokens[i % TOKENS + 1];
+            assertThat(verifier.isRevoked(token, verifier.verify(token))).isFalse();
+        });
+
+        VerifiedClaims claims = verifier.verify(revokedToken);
+        assertThat(verifier.isRevoked(revokedToken, claims)).isTrue();
+        long lookups = blacklistLookups.get();
+        Benchmarks.Result revoked = Benchmarks.measure("验签 + 黑名单查询（已吊销）", ITERATIONS / 10, ITERATIONS,
+                i -> assertThat(verifier.isRevoked(revokedToken, verifier.verify(revokedToken))).isTrue());
+
+        System.out.printf("[benchmark] 已吊销令牌的黑名单查询次数: %d%n", blacklistLookups.get() - lookups);
+        assertThat(blacklistLookups.get()).isEqualTo(lookups);
+        assertThat(warm.mean()).isLessThan(cold.mean());
+        assertThat(revoked.p99()).isLessThan(REDIS_ROUND_TRIP_NANOS);
+    }
+}
@@ -0,0 +1,156 @@
+package hbnu.project.zhiyanbackend.auth.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import hbnu.project.zhiyanbackend.auth.service.AuthService;
+import hbnu.project.zhiyanbackend.auth.utils.JwtTokenVerifier.VerifiedClaims;
+import hbnu.project.zhiyanbackend.basic.constants.TokenConstants;
+import hbnu.project.zhiyanbackend.basic.utils.JwtUtils;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * JwtTokenVerifier 测试
+ * 使用真实的 JwtUtils 签发和验签，覆盖验签结果缓存、缓存在令牌过期时失效以及吊销状态的本地记录
+ *
+ * @author ErgouTree
+ */
+class JwtTokenVerifierTest {
+
+    static final String SECRET = "zhiyan-platform-test-secret-key-with-enough-length-for-hs512-signing-0123456789";
+
+    private JwtUtils jwtUtils;
+
+    private AuthService authService;
+
+    private JwtTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = spy(jwtUtils());
+        authService = mock(AuthService.class);
+        verifier = new JwtTokenVerifier(jwtUtils, authService);
+    }
+
+    @Test
+    void tokenIsVerifiedOncePerCacheLifetime() {
+        String token = jwtUtils.createToken("9", 60, Map.of(TokenConstants.JWT_CLAIM_USER_ID, 9L,
+                TokenConstants.JWT_CLAIM_ROLES, "USER"));
+
+        VerifiedClaims first = verifier.verify(token);
+        VerifiedClaims second = verifier.verify(token);
+
+        assertThat(first).isSameAs(second);
+        assertThat(first.userId()).isEqualTo("9");
+        assertThat(first.subject()).isEqualTo("9");
+        assertThat(first.roles()).isEqualTo("USER");
+        verify(jwtUtils, times(1)).getClaims(token);
+    }
+
+    @Test
+    void invalidTokensAreRejectedAndNotCached() {
+        String token = jwtUtils.createToken("9", 60);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        String foreign = Jwts.builder().subject("9").expiration(Date.from(Instant.now().plusSeconds(60)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.replace('0', '1').getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThat(verifier.verify(tampered)).isNull();
+        assertThat(verifier.verify(foreign)).isNull();
+        assertThat(verifier.verify(" ")).isNull();
+        assertThat(verified(verifier).estimatedSize()).isZero();
+    }
+
+    @Test
+    void cacheEntryExpiresWithToken() {
+        String token = jwtUtils.createToken("9", 60);
+        VerifiedClaims claims = verifier.verify(token);
+
+        // 缓存条目的剩余寿命与令牌剩余有效期一致
+        Duration expiresAfter = verified(verifier).policy().expireVariably().orElseThrow()
+                .getExpiresAfter(claims.tokenDigest()).orElseThrow();
+        Duration remaining = Duration.between(Instant.now(), claims.expiration());
+        assertThat(expiresAfter).isBetween(remaining.minusSeconds(1), remaining.plusSeconds(1));
+    }
+
+    @Test
+    void expiredTokenIsRejectedAfterCacheHit() throws InterruptedException {
+        // JWT 的过期时间精确到秒，取下一整秒之后过期
+        Instant expiration = Instant.ofEpochSecond(Instant.now().getEpochSecond() + 2);
+        String token = sign(expiration);
+        assertThat(verifier.verify(token)).isNotNull();
+
+        Thread.sleep(Duration.between(Instant.now(), expiration).toMillis() + 50);
+
+        assertThat(verifier.verify(token)).isNull();
+        assertThat(verified(verifier).asMap()).isEmpty();
+    }
+
+    @Test
+    void revokedTokenStaysRejected() {
+        String token = jwtUtils.createToken("9", 60);
+        String other = jwtUtils.createToken("10", 60);
+        // 黑名单查询只在第一次命中（之后如 Redis 故障、键被清理时返回 false）
+        when(authService.isTokenBlacklisted(token)).thenReturn(true, false);
+
+        VerifiedClaims claims = verifier.verify(token);
+        assertThat(verifier.isRevoked(token, claims)).isTrue();
+
+        // 吊销后验签缓存被清除，重新验签得到的新声明仍被判定为已吊销，且不再查询黑名单
+        VerifiedClaims again = verifier.verify(token);
+        assertThat(again).isNotSameAs(claims);
+        assertThat(verifier.isRevoked(token, again)).isTrue();
+        verify(authService, times(1)).isTokenBlacklisted(token);
+
+        assertThat(verifier.isRevoked(other, verifier.verify(other))).isFalse();
+    }
+
+    @Test
+    void unrevokedTokenChecksBlacklistEveryTime() {
+        String token = jwtUtils.createToken("9", 60);
+        VerifiedClaims claims = verifier.verify(token);
+
+        verifier.isRevoked(token, claims);
+        verifier.isRevoked(token, claims);
+        // 其他节点登出后立即生效
+        when(authService.isTokenBlacklisted(anyString())).thenReturn(true);
+
+        assertThat(verifier.isRevoked(token, claims)).isTrue();
+        verify(authService, times(3)).isTokenBlacklisted(token);
+    }
+
+    static JwtUtils jwtUtils() {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "issuer", "zhiyan-platform");
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    private String sign(Instant expiration) {
+        return Jwts.builder()
+                .subject("9")
+                .issuedAt(new Date())
+                .expiration(Date.from(expiration))
+                .signWith((SecretKey) ReflectionTestUtils.getField(jwtUtils, "signingKey"), Jwts.SIG.HS512)
+                .compact();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<String, VerifiedClaims> verified(JwtTokenVerifier verifier) {
+        return (Cache<String, VerifiedClaims>) ReflectionTestUtils.getField(verifier, "verified");
+    }
+}
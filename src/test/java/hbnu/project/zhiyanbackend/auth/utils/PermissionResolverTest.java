@@ -0,0 +1,128 @@
+package hbnu.project.zhiyanbackend.auth.utils;
+
+import hbnu.project.zhiyanbackend.auth.repository.PermissionRepository;
+import hbnu.project.zhiyanbackend.auth.repository.UserRoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PermissionResolver 版本号与数据读取顺序测试
+ *
+ * @author ErgouTree
+ */
+class PermissionResolverTest {
+
+    private static final Long USER_ID = 1L;
+    private static final Long ROLE_ID = 10L;
+    private static final String PERMISSION = "project:create";
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    private PermissionRepository permissionRepository;
+    private UserRoleRepository userRoleRepository;
+    private PermissionResolver resolver;
+
+    /**
+     * 数据库中用户当前的角色
+     */
+    private volatile List<Long> userRoles = List.of(ROLE_ID);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        permissionRepository = mock(PermissionRepository.class);
+        userRoleRepository = mock(UserRoleRepository.class);
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(template.opsForValue()).thenReturn(ops);
+        when(ops.get(anyString())).thenAnswer(inv -> redis.get(inv.<String>getArgument(0)));
+        when(ops.multiGet(anyCollection())).thenAnswer(inv -> {
+            Collection<String> keys = inv.getArgument(0);
+            List<String> values = new ArrayList<>(keys.size());
+            keys.forEach(key -> values.add(redis.get(key)));
+            return values;
+        });
+        when(ops.increment(anyString())).thenAnswer(inv -> {
+            String key = inv.getArgument(0);
+            return Long.parseLong(redis.merge(key, "1", (a, b) -> String.valueOf(Long.parseLong(a) + 1)));
+        });
+        when(permissionRepository.findAll()).thenReturn(List.of());
+        when(permissionRepository.findNamesByRoleIds(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> roleIds = inv.getArgument(0);
+            return roleIds.contains(ROLE_ID) ? List.of(PERMISSION) : List.of();
+        });
+        when(userRoleRepository.findRoleIdsByUserId(USER_ID)).thenAnswer(inv -> userRoles);
+
+        resolver = new PermissionResolver(permissionRepository, userRoleRepository, template);
+        resolver.rebuildIndex();
+    }
+
+    @Test
+    void grantedPermissionIsCachedUntilVersionChanges() {
+        assertThat(resolver.resolve(USER_ID).has(PERMISSION)).isTrue();
+        assertThat(resolver.resolve(USER_ID).has(PERMISSION)).isTrue();
+        verify(userRoleRepository, times(1)).findRoleIdsByUserId(USER_ID);
+
+        userRoles = List.of();
+        resolver.bumpUserVersion(USER_ID);
+
+        assertThat(resolver.resolve(USER_ID).has(PERMISSION)).isFalse();
+    }
+
+    @Test
+    void revocationBetweenRoleLoadAndVersionReadIsNotCachedAsCurrent() {
+        // 读取角色列表返回旧数据之后、读取版本号之前，另一个事务撤销角色并提交、递增版本号
+        when(userRoleRepository.findRoleIdsByUserId(USER_ID)).thenAnswer(inv -> {
+            List<Long> snapshot = userRoles;
+            if (!snapshot.isEmpty()) {
+                userRoles = List.of();
+                resolver.bumpUserVersion(USER_ID);
+            }
+            return snapshot;
+        });
+
+        resolver.resolve(USER_ID);
+
+        // 撤销已提交：之后的解析不能再返回旧权限
+        assertThat(resolver.resolve(USER_ID).has(PERMISSION)).isFalse();
+        assertThat(resolver.resolve(USER_ID).has(PERMISSION)).isFalse();
+    }
+
+    @Test
+    void rolePermissionChangeBetweenRoleLoadAndPermissionLoadIsNotCachedAsCurrent() {
+        // 加载角色权限时另一个事务已移除该权限并递增角色版本号，但本次读取到的仍是旧数据
+        Set<String> rolePermissions = ConcurrentHashMap.newKeySet();
+        rolePermissions.add(PERMISSION);
+        when(permissionRepository.findNamesByRoleIds(anyCollection())).thenAnswer(inv -> {
+            List<String> snapshot = List.copyOf(rolePermissions);
+            if (rolePermissions.remove(PERMISSION)) {
+                resolver.bumpRoleVersion(ROLE_ID);
+            }
+            return snapshot;
+        });
+
+        assertThat(resolver.resolve(USER_ID).has(PERMISSION)).isTrue();
+        assertThat(resolver.resolve(USER_ID).has(PERMISSION)).isFalse();
+    }
+
+    @Test
+    void redisUnavailableCompilesWithoutCaching() {
+        redis.clear();
+        StringRedisTemplate broken = mock(StringRedisTemplate.class);
+        when(broken.opsForValue()).thenThrow(new IllegalStateException("redis down"));
+        PermissionResolver offline = new PermissionResolver(permissionRepository, userRoleRepository, broken);
+
+        assertThat(offline.resolve(USER_ID).has(PERMISSION)).isTrue();
+        assertThat(offline.resolve(USER_ID).has(PERMISSION)).isTrue();
+        verify(userRoleRepository, times(2)).findRoleIdsByUserId(USER_ID);
+    }
+}
@@ -0,0 +1,218 @@
+package hbnu.project.zhiyanbackend.basic.cache;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import hbnu.project.zhiyanbackend.basic.config.properties.CacheProperties;
+import hbnu.project.zhiyanbackend.basic.constants.CacheConstants;
+import hbnu.project.zhiyanbackend.redis.pubsub.RedisPubSubHub;
+import hbnu.project.zhiyanbackend.redis.utils.RedisUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * CacheRegistry 测试
+ * 用两个注册表模拟两个节点，经由模拟的 Redis 频道互相广播失效事件
+ *
+ * @author ErgouTree
+ */
+class CacheRegistryTest {
+
+    private static final String NAME = CacheConstants.ACHIEVEMENT_TASKS_CACHE;
+
+    private final List<Consumer<String>> subscribers = new ArrayList<>();
+
+    private final List<Runnable> resyncs = new ArrayList<>();
+
+    private final List<String> published = new ArrayList<>();
+
+    private CacheRegistry nodeA;
+
+    private CacheRegistry nodeB;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        doAnswer(invocation -> {
+            String message = invocation.getArgument(1);
+            published.add(message);
+            List.copyOf(subscribers).forEach(subscriber -> subscriber.accept(message));
+            return (long) subscribers.size();
+        }).when(template).convertAndSend(eq(CacheConstants.LOCAL_CACHE_INVALIDATE_CHANNEL), any());
+        RedisPubSubHub hub = mock(RedisPubSubHub.class);
+        doAnswer(invocation -> {
+            subscribers.add(invocation.getArgument(3));
+            resyncs.add(invocation.getArgument(4));
+            return null;
+        }).when(hub).subscribe(anyString(), eq(CacheConstants.LOCAL_CACHE_INVALIDATE_CHANNEL), eq(String.class),
+                any(Consumer.class), any(Runnable.class));
+        ReflectionTestUtils.setField(RedisUtils.class, "redisTemplate", template);
+        ReflectionTestUtils.setField(RedisUtils.class, "pubSubHub", hub);
+
+        nodeA = new CacheRegistry(new CacheProperties());
+        nodeB = new CacheRegistry(new CacheProperties());
+        nodeA.run(null);
+        nodeB.run(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ReflectionTestUtils.setField(RedisUtils.class, "redisTemplate", null);
+        ReflectionTestUtils.setField(RedisUtils.class, "pubSubHub", null);
+    }
+
+    @Test
+    void createsConfiguredCaches() {
+        assertThat(nodeA.getCacheNames()).contains(CacheConstants.ACHIEVEMENT_TASKS_CACHE,
+                CacheConstants.ACHIEVEMENT_LIST_CACHE, CacheConstants.TASK_USER_MAP_CACHE);
+        assertThat(nodeA.getCache(NAME)).isInstanceOf(BroadcastingCache.class);
+        assertThat(nodeA.getCache("unknown")).isNull();
+        assertThat(nodeA.getSpec(NAME).getMaximumSize()).isEqualTo(1_000L);
+    }
+
+    @Test
+    void evictReachesOtherNodesAndKeepsOtherKeys() {
+        put(1L, "a1", 2L, "a2");
+
+        nodeA.evict(NAME, 1L);
+
+        assertThat(published).containsExactly(NAME + "|1");
+        for (CacheRegistry node : List.of(nodeA, nodeB)) {
+            assertThat(node.getCache(NAME).get(1L)).isNull();
+            assertThat(node.getCache(NAME).get(2L).get()).isEqualTo("a2");
+        }
+    }
+
+    @Test
+    void evictInTransactionIsRepeatedAndBroadcastAfterCommit() {
+        put(1L, "old");
+        TransactionSynchronizationManager.initSynchronization();
+
+        nodeA.evict(NAME, 1L);
+        assertThat(nodeA.getCache(NAME).get(1L)).isNull();
+        // 提交前其他请求读到旧值并回填
+        nodeA.getCache(NAME).put(1L, "old");
+
+        assertThat(published).isEmpty();
+        assertThat(nodeB.getCache(NAME).get(1L).get()).isEqualTo("old");
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(published).containsExactly(NAME + "|1");
+        assertThat(nodeA.getCache(NAME).get(1L)).isNull();
+        assertThat(nodeB.getCache(NAME).get(1L)).isNull();
+    }
+
+    @Test
+    void rolledBackTransactionDoesNotBroadcast() {
+        put(1L, "old");
+        TransactionSynchronizationManager.initSynchronization();
+
+        nodeA.evict(NAME, 1L);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(published).isEmpty();
+        assertThat(nodeB.getCache(NAME).get(1L).get()).isEqualTo("old");
+    }
+
+    @Test
+    void clearEmptiesCacheOnAllNodes() {
+        put(1L, "a1", 2L, "a2");
+        nodeB.getCache(CacheConstants.ACHIEVEMENT_LIST_CACHE).put("list", "kept");
+
+        assertThat(nodeA.clear(NAME)).isTrue();
+        assertThat(nodeA.clear("unknown")).isFalse();
+
+        assertThat(published).containsExactly(NAME);
+        assertThat(nodeB.getCaches().get(NAME).getNativeCache().estimatedSize()).isZero();
+        assertThat(nodeB.getCache(CacheConstants.ACHIEVEMENT_LIST_CACHE).get("list").get()).isEqualTo("kept");
+    }
+
+    @Test
+    void remoteNodesMatchKeysByStringForm() {
+        Cache cacheB = nodeB.getCache(NAME);
+        cacheB.put(new SimpleKey(7L, "page"), "page7");
+        cacheB.put(new SimpleKey(8L, "page"), "page8");
+        cacheB.put(9L, "long");
+
+        nodeA.evict(NAME, new SimpleKey(7L, "page"));
+        // 广播的是字符串，节点B中以 Long 为键的条目按 "9" 匹配
+        nodeA.evict(NAME, "9");
+
+        assertThat(cacheB.get(new SimpleKey(7L, "page"))).isNull();
+        assertThat(cacheB.get(new SimpleKey(8L, "page")).get()).isEqualTo("page8");
+        assertThat(cacheB.get(9L)).isNull();
+    }
+
+    @Test
+    void unknownCacheMessageIsIgnored() {
+        put(1L, "a1");
+
+        RedisUtils.publish(CacheConstants.LOCAL_CACHE_INVALIDATE_CHANNEL, "other|1");
+
+        assertThat(nodeB.getCache(NAME).get(1L).get()).isEqualTo("a1");
+    }
+
+    @Test
+    void resyncClearsEveryLocalCache() {
+        put(1L, "a1");
+        nodeB.getCache(CacheConstants.TASK_USER_MAP_CACHE).put(3L, "users");
+
+        // 节点B的订阅积压被丢弃
+        resyncs.get(1).run();
+
+        assertThat(nodeB.getCache(NAME).get(1L)).isNull();
+        assertThat(nodeB.getCache(CacheConstants.TASK_USER_MAP_CACHE).get(3L)).isNull();
+        assertThat(nodeA.getCache(NAME).get(1L).get()).isEqualTo("a1");
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void loadingCacheIsRegisteredAndInvalidatedRemotely() {
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCache<Long, String> cacheA = nodeA.loadingCache(CacheConstants.ACHIEVEMENT_STATISTICS_CACHE,
+                key -> "stats-" + key + "-" + loads.incrementAndGet(), Runnable::run);
+        LoadingCache<Long, String> cacheB = nodeB.loadingCache(CacheConstants.ACHIEVEMENT_STATISTICS_CACHE,
+                key -> "stats-" + key + "-" + loads.incrementAndGet(), Runnable::run);
+        assertThat(cacheA.get(1L)).isEqualTo("stats-1-1");
+        assertThat(cacheB.get(1L)).isEqualTo("stats-1-2");
+
+        nodeA.evict(CacheConstants.ACHIEVEMENT_STATISTICS_CACHE, 1L);
+
+        assertThat(cacheB.getIfPresent(1L)).isNull();
+        assertThat(cacheB.get(1L)).isEqualTo("stats-1-3");
+        assertThat(nodeB.getCache(CacheConstants.ACHIEVEMENT_STATISTICS_CACHE)).isInstanceOf(BroadcastingCache.class);
+    }
+
+    private void put(Object... keyValues) {
+        for (CacheRegistry node : List.of(nodeA, nodeB)) {
+            for (int i = 0; i < keyValues.length; i += 2) {
+                node.getCache(NAME).put(keyValues[i], keyValues[i + 1]);
+            }
+        }
+    }
+}
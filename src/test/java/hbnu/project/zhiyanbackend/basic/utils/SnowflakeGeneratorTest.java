@@ -0,0 +1,170 @@
+package hbnu.project.zhiyanbackend.basic.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SnowflakeGenerator 并发与时钟回拨测试
+ * 使用可注入的时钟，覆盖多线程发号、时钟回拨、序列号耗尽和租约失效
+ *
+ * @author ErgouTree
+ */
+class SnowflakeGeneratorTest {
+
+    private static final long START = SnowflakeGenerator.EPOCH + 1_000_000_000L;
+
+    private static final long NODE_ID = 517;
+
+    private static final int THREADS = 8;
+
+    private static final int IDS_PER_THREAD = 20_000;
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        SnowflakeGenerator generator = new SnowflakeGenerator(NODE_ID, 0L, 5L, slowClock(START, 300));
+
+        List<long[]> results = runConcurrently(() -> {
+            long[] ids = new long[IDS_PER_THREAD];
+            for (int i = 0; i < IDS_PER_THREAD; i += 100) {
+                if (i % 200 == 0) {
+                    System.arraycopy(generator.nextIds(100), 0, ids, i, 100);
+                } else {
+                    for (int j = 0; j < 100; j++) {
+                        ids[i + j] = generator.nextId();
+                    }
+                }
+            }
+            return ids;
+        });
+
+        Set<Long> all = new HashSet<>();
+        for (long[] ids : results) {
+            for (int i = 0; i < ids.length; i++) {
+                assertThat(all.add(ids[i])).isTrue();
+                assertThat(nodeOf(ids[i])).isEqualTo(NODE_ID);
+                if (i > 0) {
+                    assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+                }
+            }
+        }
+        assertThat(all).hasSize(THREADS * IDS_PER_THREAD);
+    }
+
+    @Test
+    void concurrentIdsStayUniqueWhileClockJumpsBackwards() throws Exception {
+        AtomicLong calls = new AtomicLong();
+        // 每 5000 次读取时钟回拨 2 秒，远超等待上限，只能借用上次时间戳
+        LongSupplier clock = () -> {
+            long n = calls.incrementAndGet();
+            return START + n / 50 - (n / 5000) * 2000;
+        };
+        SnowflakeGenerator generator = new SnowflakeGenerator(NODE_ID, 0L, 1L, clock);
+
+        List<long[]> results = runConcurrently(() -> {
+            long[] ids = new long[IDS_PER_THREAD];
+            for (int i = 0; i < IDS_PER_THREAD; i++) {
+                ids[i] = generator.nextId();
+            }
+            return ids;
+        });
+
+        Set<Long> all = new HashSet<>();
+        for (long[] ids : results) {
+            for (int i = 0; i < ids.length; i++) {
+                assertThat(all.add(ids[i])).isTrue();
+                if (i > 0) {
+                    assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void sequenceExhaustionWhileBorrowingAdvancesLogicalTime() {
+        // 时钟停在上次时间戳之前，整段都在借用时间戳
+        SnowflakeGenerator generator = new SnowflakeGenerator(NODE_ID, START + 10_000, 0L, () -> START);
+
+        long[] ids = generator.nextIds(3 * (1 << SnowflakeGenerator.SEQUENCE_BITS));
+
+        for (int i = 1; i < ids.length; i++) {
+            assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+        }
+        assertThat(generator.getLastTimestamp()).isEqualTo(START + 10_000 + 3);
+    }
+
+    @Test
+    void newHolderContinuesAfterRecordedTimestamp() {
+        SnowflakeGenerator previous = new SnowflakeGenerator(NODE_ID, 0L, 5L, slowClock(START + 5_000, 1));
+        long last = 0;
+        for (int i = 0; i < 1000; i++) {
+            last = previous.nextId();
+        }
+        // 下一个持有者的时钟慢了 5 秒，从记录的时间戳之后继续发号
+        SnowflakeGenerator next = new SnowflakeGenerator(NODE_ID, previous.getLastTimestamp(), 5L, () -> START);
+
+        assertThat(next.nextId()).isGreaterThan(last);
+    }
+
+    @Test
+    void revokedGeneratorStopsIssuingIds() {
+        SnowflakeGenerator generator = new SnowflakeGenerator(NODE_ID, 0L, 5L, slowClock(START, 1));
+        generator.nextId();
+
+        generator.revoke();
+
+        assertThat(generator.isRevoked()).isTrue();
+        assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> generator.nextIds(10)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThatThrownBy(() -> new SnowflakeGenerator(SnowflakeGenerator.MAX_NODES, 0L, 5L))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SnowflakeGenerator(-1, 0L, 5L))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SnowflakeGenerator(NODE_ID, 0L, 5L).nextIds(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 每读取 readsPerMilli 次前进 1 毫秒的时钟
+     */
+    private static LongSupplier slowClock(long start, int readsPerMilli) {
+        AtomicLong calls = new AtomicLong();
+        return () -> start + calls.incrementAndGet() / readsPerMilli;
+    }
+
+    private static long nodeOf(long id) {
+        return (id >> SnowflakeGenerator.SEQUENCE_BITS) & (SnowflakeGenerator.MAX_NODES - 1);
+    }
+
+    private static List<long[]> runConcurrently(Callable<long[]> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch ready = new CountDownLatch(THREADS);
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return task.call();
+                }));
+            }
+            List<long[]> results = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package hbnu.project.zhiyanbackend.basic.utils.ip;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IpLocationCache 测试
+ * 覆盖 IPv4 按 /24 网段共用缓存、IPv6 按完整地址缓存、不同数据来源分开缓存，以及解析失败的结果不缓存
+ *
+ * @author ErgouTree
+ */
+class IpLocationCacheTest {
+
+    /**
+     * 缓存是静态的，每个测试使用独立的数据来源，互不影响
+     */
+    private final String source = "test-" + UUID.randomUUID();
+
+    private final List<String> resolved = new ArrayList<>();
+
+    @Test
+    void ipv4IsCachedPerSlash24() {
+        UnaryOperator<String> resolver = resolver("湖北省 武汉市");
+
+        assertThat(IpLocationCache.get(source, "58.19.24.1", resolver)).isEqualTo("湖北省 武汉市");
+        assertThat(IpLocationCache.get(source, "58.19.24.254", resolver)).isEqualTo("湖北省 武汉市");
+        IpLocationCache.get(source, "58.19.25.1", resolver);
+        IpLocationCache.get(source, "58.19.25.1", resolver);
+
+        assertThat(resolved).containsExactly("58.19.24.1", "58.19.25.1");
+    }
+
+    @Test
+    void ipv6IsCachedPerAddress() {
+        UnaryOperator<String> resolver = resolver("北京市");
+
+        IpLocationCache.get(source, "2001:db8::1", resolver);
+        IpLocationCache.get(source, "2001:db8::1", resolver);
+        IpLocationCache.get(source, "2001:db8::2", resolver);
+        // 含点号的 IPv4 映射地址同样按完整地址缓存
+        IpLocationCache.get(source, "::ffff:58.19.24.1", resolver);
+        IpLocationCache.get(source, "::ffff:58.19.24.2", resolver);
+
+        assertThat(resolved).containsExactly("2001:db8::1", "2001:db8::2", "::ffff:58.19.24.1", "::ffff:58.19.24.2");
+    }
+
+    @Test
+    void sourcesAreCachedSeparately() {
+        IpLocationCache.get(source, "58.19.24.1", resolver("湖北省 武汉市"));
+
+        assertThat(IpLocationCache.get(source + "-online", "58.19.24.2", resolver("湖北省武汉市 电信")))
+                .isEqualTo("湖北省武汉市 电信");
+        assertThat(resolved).hasSize(2);
+    }
+
+    @Test
+    void failedLookupsAreNotCached() {
+        IpLocationCache.get(source, "58.19.24.1", resolver(AddressUtils.UNKNOWN_ADDRESS));
+        IpLocationCache.get(source, "58.19.24.1", UnaryOperator.identity());
+        IpLocationCache.get(source, "58.19.24.1", resolver(""));
+
+        assertThat(IpLocationCache.get(source, "58.19.24.1", resolver("湖北省 武汉市"))).isEqualTo("湖北省 武汉市");
+        assertThat(resolved).hasSize(3);
+    }
+
+    @Test
+    void prefixOfKeepsFirstThreeOctets() {
+        assertThat(IpLocationCache.prefixOf("58.19.24.1")).isEqualTo("58.19.24");
+        assertThat(IpLocationCache.prefixOf("2001:db8::1")).isEqualTo("2001:db8::1");
+        assertThat(IpLocationCache.prefixOf("::ffff:58.19.24.1")).isEqualTo("::ffff:58.19.24.1");
+    }
+
+    private UnaryOperator<String> resolver(String location) {
+        return ip -> {
+            resolved.add(ip);
+            return location;
+        };
+    }
+}
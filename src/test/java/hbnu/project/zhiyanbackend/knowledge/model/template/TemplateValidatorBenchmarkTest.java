@@ -0,0 +1,61 @@
+package hbnu.project.zhiyanbackend.knowledge.model.template;
+
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementTemplateDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.CustomAchievementFieldDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementType;
+import hbnu.project.zhiyanbackend.support.Benchmarks;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+/**
+ * 模板校验基准：编译后的校验器与重构前每次调用都重建模板再遍历字段的做法对比
+ *
+ * @author ErgouTree
+ */
+@Tag(Benchmarks.TAG)
+class TemplateValidatorBenchmarkTest {
+
+    private static final int ROUNDS = 200_000;
+
+    @Test
+    void compiledAgainstRebuildPerCall() {
+        Random random = new Random(7);
+        AchievementType type = AchievementType.PAPER;
+        TemplateValidator validator = TemplateValidator.compile(type.getCode(), AchievementTemplate.of(type));
+        List<Map<String, Object>> inputs = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            Map<String, Object> data = new HashMap<>();
+            for (CustomAchievementFieldDTO field : AchievementTemplate.of(type).getFields()) {
+                if (random.nextInt(5) != 0) {
+                    data.put(field.getFieldKey(), random.nextBoolean() ? "v" : "");
+                }
+            }
+            inputs.add(data);
+        }
+
+        int[] sink = new int[1];
+        Benchmarks.nanosPerOp("模板校验 compiled", ROUNDS / 10, ROUNDS,
+                i -> sink[0] += validator.missingRequired(inputs.get(i & 1023)).size());
+        Benchmarks.nanosPerOp("模板校验 rebuild", ROUNDS / 10, ROUNDS,
+                i -> sink[0] += rebuildAndCheck(type, inputs.get(i & 1023)) ? 1 : 0);
+        System.out.println("[benchmark] sink=" + sink[0]);
+    }
+
+    /**
+     * 重构前的调用方式：每次校验都重新构建模板对象
+     */
+    private static boolean rebuildAndCheck(AchievementType type, Map<String, Object> data) {
+        AchievementTemplateDTO template = AchievementTemplate.of(type);
+        for (CustomAchievementFieldDTO field : template.getFields()) {
+            if (Boolean.TRUE.equals(field.getRequired())) {
+                Object value = data.get(field.getFieldKey());
+                if (value == null || (value instanceof String text && text.isEmpty())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
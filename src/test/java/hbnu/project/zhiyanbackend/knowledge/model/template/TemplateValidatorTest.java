@@ -0,0 +1,146 @@
+package hbnu.project.zhiyanbackend.knowledge.model.template;
+
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementTemplateDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.CustomAchievementFieldDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementType;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.RepetitionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TemplateValidator 测试
+ * 与重构前 validateDetailData 的行为对照见 AchievementDetailsValidationTest，这里只测校验器自身
+ *
+ * @author ErgouTree
+ */
+class TemplateValidatorTest {
+
+    private static final String[] FIELD_TYPES = {"text", "textarea", "number", "date", "select", "multiselect"};
+
+    private static final Object[] SAMPLE_VALUES = {null, "", " ", "abc", "2024-05-01", "12.5", 3, 0L,
+            List.of(), List.of("a"), Map.of(), Boolean.FALSE};
+
+    private static final int SAMPLES_PER_TEMPLATE = 200;
+
+    @RepeatedTest(50)
+    void missingRequiredAgreesWithFullValidation(RepetitionInfo repetition) {
+        Random random = new Random(repetition.getCurrentRepetition() * 104729L);
+        AchievementTemplateDTO template = randomTemplate(random);
+        TemplateValidator validator = TemplateValidator.compile(template.getTemplateId(), template);
+
+        for (int i = 0; i < SAMPLES_PER_TEMPLATE; i++) {
+            Map<String, Object> data = randomData(random, template);
+            List<String> missing = validator.missingRequired(data);
+
+            // 完整校验报告的缺失项与必填校验一致，其余失败项不影响必填判断
+            assertThat(validator.validate(data).stream()
+                    .filter(v -> v.reason() == TemplateValidator.Violation.Reason.MISSING)
+                    .map(TemplateValidator.Violation::key)
+                    .toList()).isEqualTo(missing);
+        }
+    }
+
+    @Test
+    void newDetailDataKeepsNonEmptyDefaultsOnly() {
+        TemplateValidator validator = TemplateValidator.compile(AchievementType.DATASET.getCode(),
+                AchievementTemplate.of(AchievementType.DATASET));
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("datasetVersion", "v1.0");
+        expected.put("datasetName", null);
+        expected.put("dataFormat", null);
+        expected.put("dataSize", null);
+        expected.put("dataSource", null);
+
+        assertThat(validator.newDetailData()).isEqualTo(expected);
+
+        TemplateValidator custom = TemplateValidator.compile("t", templateOf(
+                field("a", "text", false, "", null), field("b", "text", false, "x", null)));
+        Map<String, Object> customExpected = new HashMap<>();
+        customExpected.put("a", null);
+        customExpected.put("b", "x");
+        assertThat(custom.newDetailData()).isEqualTo(customExpected);
+        // 每次返回新的可变 Map
+        assertThat(custom.newDetailData()).isNotSameAs(custom.newDetailData());
+    }
+
+    @Test
+    void legacyRecordsWithLooseValuesPassRequiredCheck() {
+        AchievementTemplateDTO template = templateOf(
+                field("year", "number", true, null, null),
+                field("level", "select", false, null, new String[]{"A", "B"}));
+        TemplateValidator validator = TemplateValidator.compile("legacy", template);
+        Map<String, Object> data = new HashMap<>();
+        data.put("year", "二〇二四年");
+        data.put("level", "C");
+
+        assertThat(validator.missingRequired(data)).isEmpty();
+        assertThat(validator.validate(data)).hasSize(2);
+    }
+
+    @Test
+    void fingerprintIsSha256OfFieldDefinitions() {
+        AchievementTemplateDTO first = templateOf(field("a", "text", true, "x", null),
+                field("b", "select", false, null, new String[]{"1", "2"}));
+        AchievementTemplateDTO same = templateOf(field("a", "text", true, "x", null),
+                field("b", "select", false, null, new String[]{"1", "2"}));
+        String fingerprint = TemplateValidator.fingerprint(first);
+
+        assertThat(fingerprint).hasSize(64);
+        assertThat(fingerprint.matches("[0-9a-f]{64}")).isTrue();
+        assertThat(TemplateValidator.fingerprint(same)).isEqualTo(fingerprint);
+        assertThat(TemplateValidator.fingerprint(templateOf(field("a", "text", false, "x", null),
+                field("b", "select", false, null, new String[]{"1", "2"})))).isNotEqualTo(fingerprint);
+        assertThat(TemplateValidator.fingerprint(templateOf(field("a", "text", true, "x", null),
+                field("b", "select", false, null, new String[]{"1", "3"})))).isNotEqualTo(fingerprint);
+        assertThat(TemplateValidator.fingerprint(templateOf(field("b", "select", false, null, new String[]{"1", "2"}),
+                field("a", "text", true, "x", null)))).isNotEqualTo(fingerprint);
+    }
+
+    private static AchievementTemplateDTO randomTemplate(Random random) {
+        int count = 1 + random.nextInt(10);
+        List<CustomAchievementFieldDTO> fields = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String type = FIELD_TYPES[random.nextInt(FIELD_TYPES.length)];
+            String[] options = type.endsWith("select") ? new String[]{"a", "b", "c"} : null;
+            fields.add(field("f" + i, type, random.nextBoolean(),
+                    random.nextInt(4) == 0 ? "d" + i : null, options));
+        }
+        return templateOf(fields.toArray(new CustomAchievementFieldDTO[0]));
+    }
+
+    private static Map<String, Object> randomData(Random random, AchievementTemplateDTO template) {
+        Map<String, Object> data = new HashMap<>();
+        for (CustomAchievementFieldDTO field : template.getFields()) {
+            if (random.nextInt(5) != 0) {
+                data.put(field.getFieldKey(), SAMPLE_VALUES[random.nextInt(SAMPLE_VALUES.length)]);
+            }
+        }
+        if (random.nextBoolean()) {
+            data.put("extra", "ignored");
+        }
+        return data;
+    }
+
+    private static AchievementTemplateDTO templateOf(CustomAchievementFieldDTO... fields) {
+        return AchievementTemplateDTO.builder()
+                .templateId("t")
+                .fields(List.of(fields))
+                .build();
+    }
+
+    private static CustomAchievementFieldDTO field(String key, String type, boolean required,
+                                                   String defaultValue, String[] options) {
+        return CustomAchievementFieldDTO.builder()
+                .fieldKey(key)
+                .fieldLabel(key)
+                .fieldType(type)
+                .required(required)
+                .defaultValue(defaultValue)
+                .options(options)
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package hbnu.project.zhiyanbackend.knowledge.service.impl;
+
+import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
+import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementType;
+import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * validateDetailData 行为固定用例
+ * 期望值按重构前的实现写死：模板中 required=true 的字段，值为 null 或空串时不通过，
+ * 空白串、数字 0、空集合、false 等其他值都视为已填写；模板之外的字段不参与校验
+ *
+ * @author ErgouTree
+ */
+class AchievementDetailsValidationTest {
+
+    /**
+     * 重构前各系统模板的必填字段
+     */
+    private static final Map<AchievementType, List<String>> REQUIRED = Map.of(
+            AchievementType.PAPER, List.of("authors", "title", "journal", "publishYear"),
+            AchievementType.PATENT, List.of("patentNo", "patentType", "patentName", "inventors", "applicant"),
+            AchievementType.DATASET, List.of("datasetVersion", "datasetName", "dataFormat"),
+            AchievementType.MODEL, List.of("modelFramework", "modelName", "modelVersion"),
+            AchievementType.REPORT, List.of("reportType", "modelName", "reportDate"),
+            AchievementType.CUSTOM, List.of(),
+            AchievementType.TASK_RESULT, List.of("taskName", "completionDate"));
+
+    private AchievementRepository achievementRepository;
+
+    private AchievementDetailsServiceImpl service;
+
+    private AchievementType currentType;
+
+    @BeforeEach
+    void setUp() {
+        achievementRepository = mock(AchievementRepository.class);
+        when(achievementRepository.findTypeById(anyLong())).thenAnswer(inv -> Optional.ofNullable(currentType));
+        service = new AchievementDetailsServiceImpl();
+        ReflectionTestUtils.setField(service, "achievementRepository", achievementRepository);
+        ReflectionTestUtils.setField(service, "achievementTemplateCompiler", new AchievementTemplateCompiler());
+    }
+
+    @Test
+    void completeDataPasses() {
+        for (AchievementType type : AchievementType.values()) {
+            assertThat(validate(type, filled(type))).as(type.name()).isTrue();
+        }
+    }
+
+    @Test
+    void eachMissingOrEmptyRequiredFieldFails() {
+        for (AchievementType type : AchievementType.values()) {
+            for (String key : REQUIRED.get(type)) {
+                Map<String, Object> absent = filled(type);
+                absent.remove(key);
+                assertThat(validate(type, absent)).as(type + "." + key + " absent").isFalse();
+
+                Map<String, Object> nullValue = filled(type);
+                nullValue.put(key, null);
+                assertThat(validate(type, nullValue)).as(type + "." + key + " null").isFalse();
+
+                Map<String, Object> empty = filled(type);
+                empty.put(key, "");
+                assertThat(validate(type, empty)).as(type + "." + key + " empty").isFalse();
+            }
+        }
+    }
+
+    @Test
+    void nonEmptyValuesOfAnyShapeCountAsFilled() {
+        Object[] filledValues = {" ", "0", 0, 0L, 1.5, Boolean.FALSE, List.of(), Map.of(), "非法年份"};
+        for (Object value : filledValues) {
+            Map<String, Object> data = filled(AchievementType.PAPER);
+            data.put("publishYear", value);
+            assertThat(validate(AchievementType.PAPER, data)).as(String.valueOf(value)).isTrue();
+        }
+    }
+
+    @Test
+    void optionalAndUnknownFieldsAreIgnored() {
+        Map<String, Object> data = filled(AchievementType.PAPER);
+        data.put("volume", null);
+        data.put("issue", "");
+        data.put("unknown", null);
+        assertThat(validate(AchievementType.PAPER, data)).isTrue();
+
+        assertThat(validate(AchievementType.CUSTOM, new HashMap<>())).isTrue();
+        assertThat(validate(AchievementType.DATASET, Map.of("datasetName", "n", "dataFormat", "csv"))).isFalse();
+    }
+
+    @Test
+    void unknownAchievementIsRejected() {
+        currentType = null;
+        assertThatThrownBy(() -> service.validateDetailData(1L, Map.of()))
+                .isInstanceOfSatisfying(ServiceException.class,
+                        e -> assertThat(e.getDefaultMessage()).isEqualTo("成果不存在"));
+    }
+
+    private boolean validate(AchievementType type, Map<String, Object> data) {
+        currentType = type;
+        return service.validateDetailData(1L, data);
+    }
+
+    private static Map<String, Object> filled(AchievementType type) {
+        Map<String, Object> data = new HashMap<>();
+        for (String key : REQUIRED.get(type)) {
+            data.put(key, "v");
+        }
+        return data;
+    }
+}
@@ -0,0 +1,127 @@
+package hbnu.project.zhiyanbackend.knowledge.service.impl;
+
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementFieldFilterDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementFieldFilterDTO.Operator;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementSearchDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementSearchResultDTO;
+import hbnu.project.zhiyanbackend.support.Benchmarks;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 成果搜索基准：在配置的 PostgreSQL 中插入 10 万条合成成果（测试事务结束后回滚），
+ * 对比 GIN / 三元组索引生效与禁用位图扫描（GIN 索引只能经位图扫描使用）时各类查询的耗时，
+ * 以及深翻页时游标分页与 OFFSET 分页的耗时。
+ * 需要先执行 sql/新PostgreSQL设计/zhiyanknowledge.sql 建立 search_vector 列和索引
+ *
+ * @author ErgouTree
+ */
+@Tag(Benchmarks.TAG)
+@SpringBootTest
+@Transactional
+class AchievementSearchBenchmarkTest {
+
+    private static final int ACHIEVEMENTS = 100_000;
+
+    /**
+     * 合成数据的ID区间，避开雪花ID
+     */
+    private static final long ID_BASE = 8_000_000_000_000_000_000L;
+
+    private static final int WARMUP = 5;
+
+    private static final int ITERATIONS = 50;
+
+    private static final int DEEP_PAGE = 50;
+
+    @Autowired
+    private AchievementSearchEngine searchEngine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        assertThat((Boolean) ReflectionTestUtils.getField(searchEngine, "vectorReady"))
+                .as("search_vector 列不存在，请先执行 zhiyanknowledge.sql").isTrue();
+
+        jdbcTemplate.update("INSERT INTO zhiyanknowledge.achievement"
+                + " (id, project_id, type, title, is_public, creator_id, status, created_at, updated_at, version)"
+                + " SELECT ? + g, 1, (ARRAY['paper', 'patent', 'dataset'])[g % 3 + 1], 'bench achievement ' || g,"
+                + " true, 1, 'published', now() - g * interval '1 second', now(), 0"
+                + " FROM generate_series(1, ?) g", ID_BASE, ACHIEVEMENTS);
+        jdbcTemplate.update("INSERT INTO zhiyanknowledge.achievement_detail"
+                + " (id, achievement_id, detail_data, abstract, created_at, updated_at, version)"
+                + " SELECT ? + g, ? + g, jsonb_build_object("
+                + "'doi', '10.1000/bench.' || g,"
+                + " 'journal', 'Journal of Synthetic Studies ' || g % 500,"
+                + " 'authors', 'Author' || g % 5000 || ', Author' || (g + 7) % 5000,"
+                + " 'year', 2000 + g % 25,"
+                + " 'keywords', jsonb_build_array('kw' || g % 1000, 'kw' || g % 777)),"
+                + " 'abstract of synthetic achievement about topic' || g % 200, now(), now(), 0"
+                + " FROM generate_series(1, ?) g", ID_BASE, ID_BASE, ACHIEVEMENTS);
+        jdbcTemplate.update((String) ReflectionTestUtils.getField(AchievementSearchEngine.class, "BACKFILL_SQL"),
+                ACHIEVEMENTS * 2);
+        jdbcTemplate.execute("ANALYZE zhiyanknowledge.achievement");
+        jdbcTemplate.execute("ANALYZE zhiyanknowledge.achievement_detail");
+    }
+
+    @Test
+    void filtersWithAndWithoutIndexes() {
+        compare("DOI 等值", () -> search(null, filter("doi", Operator.EQ, "10.1000/bench.4242", null)), 1);
+        compare("关键词数组元素", () -> search(null, filter("keywords", Operator.EQ, "kw42", null)), 20);
+        compare("作者子串", () -> search(null, filter("authors", Operator.CONTAINS, "author4242,", null)), 20);
+        compare("年份区间 + 期刊", () -> search(null, filter("year", Operator.BETWEEN, "2010", "2011"),
+                filter("journal", Operator.EQ, "Journal of Synthetic Studies 35", null)), 20);
+        compare("全文关键字", () -> search("topic42"), 20);
+    }
+
+    @Test
+    void keysetVersusOffsetPagination() {
+        AchievementSearchDTO criteria = AchievementSearchDTO.builder().size(20).build();
+        for (int page = 1; page < DEEP_PAGE; page++) {
+            criteria.setCursor(searchEngine.search(criteria).getNextCursor());
+        }
+        String deepCursor = criteria.getCursor();
+
+        Benchmarks.Result keyset = Benchmarks.measure("成果搜索 第 " + DEEP_PAGE + " 页（游标）", WARMUP, ITERATIONS,
+                i -> assertThat(searchEngine.search(AchievementSearchDTO.builder().size(20).cursor(deepCursor).build())
+                        .getItems()).hasSize(20));
+        Benchmarks.Result offset = Benchmarks.measure("成果搜索 第 " + DEEP_PAGE + " 页（OFFSET）", WARMUP, ITERATIONS,
+                i -> assertThat(searchEngine.search(null, PageRequest.of(DEEP_PAGE - 1, 20)).getContent()).hasSize(20));
+
+        assertThat(keyset.mean()).isLessThan(offset.mean());
+    }
+
+    private void compare(String label, Supplier<AchievementSearchResultDTO> query, int expected) {
+        assertThat(query.get().getItems()).hasSize(expected);
+        Benchmarks.Result indexed = Benchmarks.measure("成果搜索 " + label + "（索引）", WARMUP, ITERATIONS,
+                i -> query.get());
+        jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+        Benchmarks.Result scan = Benchmarks.measure("成果搜索 " + label + "（禁用位图扫描）", WARMUP, ITERATIONS / 5,
+                i -> query.get());
+        jdbcTemplate.execute("SET LOCAL enable_bitmapscan = on");
+        assertThat(indexed.p50()).isLessThanOrEqualTo(scan.p50());
+    }
+
+    private AchievementSearchResultDTO search(String keyword, AchievementFieldFilterDTO... filters) {
+        return searchEngine.search(AchievementSearchDTO.builder()
+                .keyword(keyword).filters(List.of(filters)).size(20).build());
+    }
+
+    private static AchievementFieldFilterDTO filter(String field, Operator op, String value, String value2) {
+        return AchievementFieldFilterDTO.builder().field(field).op(op).value(value).value2(value2).build();
+    }
+}
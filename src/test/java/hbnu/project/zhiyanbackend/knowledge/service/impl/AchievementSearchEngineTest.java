@@ -0,0 +1,262 @@
+package hbnu.project.zhiyanbackend.knowledge.service.impl;
+
+import cn.hutool.extra.spring.SpringUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
+import hbnu.project.zhiyanbackend.knowledge.model.converter.AchievementConverter;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementFieldFilterDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementFieldFilterDTO.Operator;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementSearchDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementSearchResultDTO;
+import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
+import hbnu.project.zhiyanbackend.projects.repository.ProjectMemberRepository;
+import hbnu.project.zhiyanbackend.security.context.SecurityContextHolder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AchievementSearchEngine 查询编译测试
+ * 用记录 SQL 与参数的 EntityManager 替身检查过滤条件的编译结果：字段名校验后才拼入 SQL 和 jsonpath，
+ * 用户输入的值一律走命名参数，LIKE 通配符被转义，游标在两次请求之间往返
+ *
+ * @author ErgouTree
+ */
+class AchievementSearchEngineTest {
+
+    private final List<String> statements = new ArrayList<>();
+
+    private final Map<String, Object> params = new HashMap<>();
+
+    private final List<Object[]> rows = new ArrayList<>();
+
+    private ProjectMemberRepository projectMemberRepository;
+
+    private AchievementSearchEngine engine;
+
+    @BeforeAll
+    static void initJsonUtils() {
+        // JsonUtils 初始化时从容器获取 ObjectMapper
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(SpringUtil.class, "beanFactory", beanFactory);
+    }
+
+    @BeforeEach
+    void setUp() {
+        projectMemberRepository = mock(ProjectMemberRepository.class);
+        AchievementRepository achievementRepository = mock(AchievementRepository.class);
+        when(achievementRepository.findAllById(any())).thenReturn(List.of());
+        engine = new AchievementSearchEngine(mock(JdbcTemplate.class), achievementRepository,
+                projectMemberRepository, mock(AchievementConverter.class));
+
+        Query query = mock(Query.class);
+        when(query.setParameter(anyString(), any())).thenAnswer(invocation -> {
+            params.put(invocation.getArgument(0), invocation.getArgument(1));
+            return query;
+        });
+        when(query.getResultList()).thenAnswer(invocation -> List.copyOf(rows));
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.createNativeQuery(anyString())).thenAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            return query;
+        });
+        ReflectionTestUtils.setField(engine, "entityManager", entityManager);
+        ReflectionTestUtils.setField(engine, "vectorReady", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clear();
+    }
+
+    @Test
+    void visibilityDependsOnMembership() {
+        engine.search(criteria(null));
+        assertThat(sql()).contains("WHERE a.is_public = true ORDER BY").doesNotContain("memberProjectIds");
+
+        SecurityContextHolder.setUserId(9L);
+        when(projectMemberRepository.findProjectIdsByUserId(9L)).thenReturn(List.of(1L, 2L));
+        engine.search(criteria(null));
+        assertThat(sql()).contains("(a.is_public = true OR a.project_id IN (:memberProjectIds))");
+        assertThat(params).containsEntry("memberProjectIds", List.of(1L, 2L));
+    }
+
+    @Test
+    void equalityMatchesStringArrayAndNumberForms() {
+        engine.search(criteria(null, filter("year", Operator.EQ, "2024", null)));
+
+        assertThat(sql()).contains("(d.detail_data @> CAST(:f0_0 AS jsonb) OR d.detail_data @> CAST(:f0_1 AS jsonb)"
+                + " OR d.detail_data @> CAST(:f0_2 AS jsonb) OR d.detail_data @> CAST(:f0_3 AS jsonb))");
+        assertThat(params).containsEntry("f0_0", "{\"year\":\"2024\"}")
+                .containsEntry("f0_1", "{\"year\":[\"2024\"]}")
+                .containsEntry("f0_2", "{\"year\":2024}")
+                .containsEntry("f0_3", "{\"year\":[2024]}");
+
+        // 非数字值只有字符串和数组两种形式，引号等字符由 JSON 编码处理
+        engine.search(criteria(null, filter("doi", Operator.EQ, "10.1/x\"y'", null)));
+        assertThat(params).containsEntry("f0_0", "{\"doi\":\"10.1/x\\\"y'\"}").doesNotContainKey("f0_2");
+        assertThat(sql()).doesNotContain("x\"y'");
+    }
+
+    @Test
+    void containsEscapesLikeWildcards() {
+        engine.search(criteria(null, filter("authors", Operator.CONTAINS, " Zhang_San 100%\\ ", null)));
+
+        assertThat(sql()).contains("lower(d.detail_data ->> 'authors') LIKE :f0");
+        assertThat(params).containsEntry("f0", "%zhang\\_san 100\\%\\\\%");
+    }
+
+    @Test
+    void rangeFiltersCompileToJsonPath() {
+        engine.search(criteria(null,
+                filter("year", Operator.BETWEEN, "2020", "2024"),
+                filter("publishDate", Operator.GTE, "2023-01-01", null),
+                filter("citations", Operator.LTE, "10", null)));
+
+        // 数字两端按数值比较，日期按字符串比较，边界值只通过 jsonpath 变量传入
+        assertThat(sql())
+                .contains("jsonb_path_exists(d.detail_data, '$.\"year\" ? (@.double() >= $lo && @.double() <= $hi)',"
+                        + " CAST(:f0 AS jsonb), true)")
+                .contains("jsonb_path_exists(d.detail_data, '$.\"publishDate\" ? (@ >= $lo)', CAST(:f1 AS jsonb), true)")
+                .contains("jsonb_path_exists(d.detail_data, '$.\"citations\" ? (@.double() <= $hi)', CAST(:f2 AS jsonb), true)");
+        assertThat(json("f0")).isEqualTo(Map.of("lo", 2020, "hi", 2024));
+        assertThat(json("f1")).isEqualTo(Map.of("lo", "2023-01-01"));
+        assertThat(json("f2")).isEqualTo(Map.of("hi", 10));
+
+        // 一端不是数字时整体按字符串比较
+        engine.search(criteria(null, filter("year", Operator.BETWEEN, "2020", "latest")));
+        assertThat(sql()).contains("'$.\"year\" ? (@ >= $lo && @ <= $hi)'");
+        assertThat(json("f0")).isEqualTo(Map.of("lo", "2020", "hi", "latest"));
+    }
+
+    @Test
+    void fieldNamesAreValidatedBeforeInlining() {
+        for (String field : List.of("doi') OR 1=1 --", "a\"b", "1year", "", "x".repeat(65), "作者")) {
+            assertThatThrownBy(() -> engine.search(criteria(null, filter(field, Operator.CONTAINS, "x", null))))
+                    .isInstanceOf(ServiceException.class);
+        }
+        assertThatThrownBy(() -> engine.search(criteria(null, filter("doi", null, "x", null))))
+                .isInstanceOf(ServiceException.class);
+        assertThatThrownBy(() -> engine.search(criteria(null, filter("doi", Operator.EQ, " ", null))))
+                .isInstanceOf(ServiceException.class);
+        assertThatThrownBy(() -> engine.search(criteria(null, filter("year", Operator.BETWEEN, "2020", null))))
+                .isInstanceOf(ServiceException.class);
+        assertThat(statements).isEmpty();
+    }
+
+    @Test
+    void keywordUsesFullTextWithSubstringFallback() {
+        engine.search(criteria(" 深度_学习 "));
+
+        assertThat(sql()).contains("d.search_vector @@ websearch_to_tsquery('simple', :keyword)")
+                .contains("OR lower(a.title) LIKE :keywordLike OR lower(d.abstract) LIKE :keywordLike)")
+                .contains("ORDER BY CAST(coalesce(ts_rank(d.search_vector, websearch_to_tsquery('simple', :keyword)), 0)");
+        assertThat(params).containsEntry("keyword", "深度_学习").containsEntry("keywordLike", "%深度\\_学习%");
+
+        // 全文向量列不可用时只做子串匹配，按创建时间排序
+        ReflectionTestUtils.setField(engine, "vectorReady", false);
+        engine.search(criteria("深度"));
+        assertThat(sql()).doesNotContain("search_vector").endsWith("ORDER BY a.created_at DESC, a.id DESC LIMIT 21");
+    }
+
+    @Test
+    void timeCursorRoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 8, 30, 15, 123_000_000);
+        for (long id = 30; id > 0; id--) {
+            rows.add(new Object[]{id, Timestamp.valueOf(createdAt), null});
+        }
+        AchievementSearchDTO first = criteria(null);
+        first.setSize(20);
+
+        AchievementSearchResultDTO page = engine.search(first);
+
+        assertThat(page.getHasMore()).isTrue();
+        assertThat(sql()).endsWith("ORDER BY a.created_at DESC, a.id DESC LIMIT 21");
+        AchievementSearchDTO next = criteria(null);
+        next.setCursor(page.getNextCursor());
+        engine.search(next);
+        assertThat(sql()).contains(" AND (a.created_at, a.id) < (:cursorTime, :cursorId) ORDER BY");
+        assertThat(params).containsEntry("cursorTime", createdAt).containsEntry("cursorId", 11L);
+    }
+
+    @Test
+    void rankCursorRoundTrip() {
+        for (long id = 3; id > 0; id--) {
+            rows.add(new Object[]{id, Timestamp.valueOf(LocalDateTime.now()), 1.25f});
+        }
+        AchievementSearchDTO first = criteria("paper");
+        first.setSize(2);
+
+        AchievementSearchResultDTO page = engine.search(first);
+
+        AchievementSearchDTO next = criteria("paper");
+        next.setCursor(page.getNextCursor());
+        engine.search(next);
+        assertThat(sql()).contains(", a.id) < (CAST(:cursorRank AS real), :cursorId) ORDER BY");
+        assertThat(params).containsEntry("cursorRank", 1.25f).containsEntry("cursorId", 2L);
+    }
+
+    @Test
+    void invalidOrMismatchedCursorIsRejected() {
+        String timeCursor = encode("t|2026-03-01T08:30|5");
+        List<String> invalid = List.of("not base64!", encode("t|yesterday|5"), encode("t|2026-03-01T08:30"),
+                encode("x|1|2"), encode("t|2026-03-01T08:30|abc"));
+
+        for (String cursor : invalid) {
+            AchievementSearchDTO criteria = criteria(null);
+            criteria.setCursor(cursor);
+            assertThatThrownBy(() -> engine.search(criteria)).isInstanceOf(ServiceException.class);
+        }
+        // 按时间排序的游标不能用于关键字搜索
+        AchievementSearchDTO ranked = criteria("paper");
+        ranked.setCursor(timeCursor);
+        assertThatThrownBy(() -> engine.search(ranked)).isInstanceOf(ServiceException.class);
+        assertThat(statements).isEmpty();
+    }
+
+    private Map<?, ?> json(String param) {
+        try {
+            return new ObjectMapper().readValue((String) params.get(param), Map.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String sql() {
+        return statements.getLast();
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private AchievementSearchDTO criteria(String keyword, AchievementFieldFilterDTO... filters) {
+        params.clear();
+        return AchievementSearchDTO.builder().keyword(keyword).filters(List.of(filters)).build();
+    }
+
+    private static AchievementFieldFilterDTO filter(String field, Operator op, String value, String value2) {
+        return AchievementFieldFilterDTO.builder().field(field).op(op).value(value).value2(value2).build();
+    }
+}
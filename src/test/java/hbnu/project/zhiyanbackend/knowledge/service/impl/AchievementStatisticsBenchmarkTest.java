@@ -0,0 +1,99 @@
+package hbnu.project.zhiyanbackend.knowledge.service.impl;
+
+import hbnu.project.zhiyanbackend.basic.cache.CacheRegistry;
+import hbnu.project.zhiyanbackend.basic.config.properties.CacheProperties;
+import hbnu.project.zhiyanbackend.basic.constants.CacheConstants;
+import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
+import hbnu.project.zhiyanbackend.support.Benchmarks;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 项目成果统计读取基准：1000 个项目缓存预热后读取统计接口的延迟。
+ * 第二组把 refresh-after-write 缩短到 1ms、统计查询模拟为 20ms，验证后台刷新期间读请求仍然命中旧值、不被查询阻塞
+ *
+ * @author ErgouTree
+ */
+@Tag(Benchmarks.TAG)
+class AchievementStatisticsBenchmarkTest {
+
+    private static final int PROJECTS = 1_000;
+
+    private static final int ITERATIONS = 200_000;
+
+    private static final long QUERY_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    void warmCacheLatency() {
+        AtomicLong queries = new AtomicLong();
+        AchievementServiceImpl achievementService = achievementService(new CacheProperties(), queries);
+
+        Benchmarks.Result warm = Benchmarks.measure("成果统计接口（缓存命中）", PROJECTS, ITERATIONS,
+                i -> achievementService.getProjectAchievementStats((long) (i % PROJECTS)));
+
+        System.out.printf("[benchmark] 成果统计查询次数: %d（%d 个项目）%n", queries.get(), PROJECTS);
+        assertThat(queries.get()).isEqualTo(PROJECTS);
+        assertThat(warm.p99()).isLessThan(TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    void readsDuringBackgroundRefresh() {
+        CacheProperties properties = new CacheProperties();
+        CacheProperties.Spec spec = properties.resolve(CacheConstants.ACHIEVEMENT_STATISTICS_CACHE);
+        spec.setRefreshAfterWrite(Duration.ofMillis(1));
+        properties.getSpecs().put(CacheConstants.ACHIEVEMENT_STATISTICS_CACHE, spec);
+        AtomicLong queries = new AtomicLong();
+        AchievementServiceImpl achievementService = achievementService(properties, queries);
+        for (long projectId = 0; projectId < PROJECTS; projectId++) {
+            achievementService.getProjectAchievementStats(projectId);
+        }
+        long loaded = queries.get();
+
+        Benchmarks.Result refreshing = Benchmarks.measure("成果统计接口（后台刷新中）", 0, ITERATIONS / 10,
+                i -> achievementService.getProjectAchievementStats((long) (i % PROJECTS)));
+
+        System.out.printf("[benchmark] 读取期间后台刷新查询次数: %d%n", queries.get() - loaded);
+        assertThat(refreshing.p99()).isLessThan(QUERY_NANOS);
+    }
+
+    private static AchievementServiceImpl achievementService(CacheProperties properties, AtomicLong queries) {
+        AchievementRepository repository = mock(AchievementRepository.class);
+        when(repository.aggregateStatistics(anyLong())).thenAnswer(invocation -> {
+            if (queries.incrementAndGet() > PROJECTS) {
+                LockSupport.parkNanos(QUERY_NANOS);
+            }
+            return rows();
+        });
+        AchievementStatisticsServiceImpl statisticsService =
+                new AchievementStatisticsServiceImpl(repository, new CacheRegistry(properties));
+        AchievementServiceImpl achievementService = new AchievementServiceImpl();
+        ReflectionTestUtils.setField(achievementService, "achievementStatisticsService", statisticsService);
+        return achievementService;
+    }
+
+    private static List<Object[]> rows() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{3, "paper", null, null, 12L, 30L});
+        rows.add(new Object[]{3, "patent", null, null, 3L, 30L});
+        rows.add(new Object[]{5, null, "draft", null, 5L, 30L});
+        rows.add(new Object[]{5, null, "published", null, 10L, 30L});
+        for (int month = 1; month <= 12; month++) {
+            rows.add(new Object[]{6, null, null, String.format("2026-%02d", month), 1L, 30L});
+        }
+        rows.add(new Object[]{7, null, null, null, 15L, 30L});
+        return rows;
+    }
+}
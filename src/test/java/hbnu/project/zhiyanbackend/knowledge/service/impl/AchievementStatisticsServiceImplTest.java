@@ -0,0 +1,364 @@
+package hbnu.project.zhiyanbackend.knowledge.service.impl;
+
+import cn.hutool.extra.spring.SpringUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hbnu.project.zhiyanbackend.activelog.core.OperationLogHelper;
+import hbnu.project.zhiyanbackend.basic.cache.CacheRegistry;
+import hbnu.project.zhiyanbackend.basic.config.properties.CacheProperties;
+import hbnu.project.zhiyanbackend.basic.utils.JsonUtils;
+import hbnu.project.zhiyanbackend.knowledge.controller.AchievementManageController;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.AchievementStatisticsDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.dto.CreateAchievementDTO;
+import hbnu.project.zhiyanbackend.knowledge.model.entity.Achievement;
+import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementStatus;
+import hbnu.project.zhiyanbackend.knowledge.model.enums.AchievementType;
+import hbnu.project.zhiyanbackend.knowledge.repository.AchievementDetailRepository;
+import hbnu.project.zhiyanbackend.knowledge.repository.AchievementRepository;
+import hbnu.project.zhiyanbackend.knowledge.service.AchievementDetailsService;
+import hbnu.project.zhiyanbackend.knowledge.service.AchievementFileService;
+import hbnu.project.zhiyanbackend.knowledge.service.AchievementService;
+import hbnu.project.zhiyanbackend.knowledge.service.AchievementTaskService;
+import hbnu.project.zhiyanbackend.message.service.MessageSendService;
+import hbnu.project.zhiyanbackend.projects.utils.ProjectSecurityUtils;
+import hbnu.project.zhiyanbackend.security.context.SecurityContextHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * AchievementStatisticsServiceImpl 测试
+ * 分组位图按 aggregateStatistics 的 SQL 原文推导（PostgreSQL 的 GROUPING：参数不在当前分组集中时对应位为 1，首个参数为最高位），
+ * 模拟仓库按该位图返回各分组集的行，覆盖行到 DTO 的映射，以及成果创建、状态更新、删除后统计缓存的失效
+ *
+ * @author ErgouTree
+ */
+class AchievementStatisticsServiceImplTest {
+
+    private static final Long PROJECT_ID = 1L;
+
+    private static final String TYPE = "a.type";
+
+    private static final String STATUS = "a.status";
+
+    private static final String MONTH = "date_trunc('month', a.created_at)";
+
+    private final Map<Long, Achievement> achievements = new LinkedHashMap<>();
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private long fileCount;
+
+    private AchievementRepository achievementRepository;
+
+    private AchievementStatisticsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        achievementRepository = mock(AchievementRepository.class);
+        when(achievementRepository.aggregateStatistics(anyLong())).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            return aggregate(invocation.getArgument(0));
+        });
+        when(achievementRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(achievements.get(invocation.<Long>getArgument(0))));
+        when(achievementRepository.save(any(Achievement.class))).thenAnswer(invocation -> {
+            Achievement achievement = invocation.getArgument(0);
+            if (achievement.getCreatedAt() == null) {
+                achievement.setCreatedAt(LocalDateTime.of(2026, 3, 15, 10, 0));
+            }
+            achievements.put(achievement.getId(), achievement);
+            return achievement;
+        });
+        doAnswer(invocation -> achievements.remove(invocation.<Long>getArgument(0)))
+                .when(achievementRepository).deleteById(anyLong());
+        service = new AchievementStatisticsServiceImpl(achievementRepository, new CacheRegistry(new CacheProperties()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        SecurityContextHolder.clear();
+    }
+
+    @Test
+    void groupingBitmasksMatchRepositoryQuery() {
+        List<String> arguments = groupingArguments();
+        assertThat(arguments).containsExactly(TYPE, STATUS, MONTH);
+        assertThat(groupingSets()).containsExactly(List.of(TYPE), List.of(STATUS), List.of(MONTH), List.of());
+
+        assertThat(groupingId(TYPE)).isEqualTo(constant("GROUP_BY_TYPE")).isEqualTo(3);
+        assertThat(groupingId(STATUS)).isEqualTo(constant("GROUP_BY_STATUS")).isEqualTo(5);
+        assertThat(groupingId(MONTH)).isEqualTo(constant("GROUP_BY_MONTH")).isEqualTo(6);
+        assertThat(groupingId()).isEqualTo(constant("GROUP_TOTAL")).isEqualTo(7);
+
+        // 映射按列下标读取：grouping_id、type、status、month、count、file_count
+        String query = query();
+        List<String> columns = List.of("AS grouping_id, a.type, a.status, ", "AS month", "AS cnt", "AS file_count");
+        assertThat(query).contains(columns.getFirst());
+        for (int i = 1; i < columns.size(); i++) {
+            assertThat(query.indexOf(columns.get(i))).as(columns.get(i)).isGreaterThan(query.indexOf(columns.get(i - 1)));
+        }
+    }
+
+    @Test
+    void rowsMapToStatistics() {
+        add(1L, AchievementType.PAPER, AchievementStatus.published, LocalDateTime.of(2026, 1, 5, 9, 0));
+        add(2L, AchievementType.PAPER, AchievementStatus.draft, LocalDateTime.of(2026, 2, 1, 0, 0));
+        add(3L, AchievementType.TASK_RESULT, AchievementStatus.published, LocalDateTime.of(2025, 12, 31, 23, 59));
+        fileCount = 4;
+
+        AchievementStatisticsDTO statistics = service.getStatistics(PROJECT_ID);
+
+        assertThat(statistics.getProjectId()).isEqualTo("1");
+        assertThat(statistics.getTotalCount()).isEqualTo(3L);
+        assertThat(statistics.getFileCount()).isEqualTo(4L);
+        // 没有成果的类型和状态也返回 0
+        assertThat(statistics.getByType()).containsOnlyKeys(names(AchievementType.values()))
+                .containsEntry("PAPER", 2L).containsEntry("TASK_RESULT", 1L).containsEntry("PATENT", 0L);
+        assertThat(statistics.getByStatus()).containsOnlyKeys(values(AchievementStatus.values()))
+                .containsEntry("published", 2L).containsEntry("draft", 1L).containsEntry("obsolete", 0L);
+        assertThat(statistics.getByMonth()).containsExactly(
+                Map.entry("2025-12", 1L), Map.entry("2026-01", 1L), Map.entry("2026-02", 1L));
+    }
+
+    @Test
+    void emptyProjectHasTotalRowOnly() {
+        AchievementStatisticsDTO statistics = service.getStatistics(PROJECT_ID);
+
+        assertThat(statistics.getTotalCount()).isZero();
+        assertThat(statistics.getFileCount()).isZero();
+        assertThat(statistics.getByType().values()).containsOnly(0L);
+        assertThat(statistics.getByMonth()).isEmpty();
+    }
+
+    @Test
+    void unexpectedRowsAreIgnored() {
+        when(achievementRepository.aggregateStatistics(anyLong())).thenReturn(List.of(
+                new Object[]{3, "unknown_type", null, null, 5L, 0L},
+                new Object[]{6, null, null, null, 2L, 0L},
+                new Object[]{1, "paper", "draft", "2026-01", 9L, 0L},
+                new Object[]{7, null, null, null, 1L, 0L}));
+
+        AchievementStatisticsDTO statistics = service.getStatistics(PROJECT_ID);
+
+        assertThat(statistics.getTotalCount()).isEqualTo(1L);
+        assertThat(statistics.getByType().values()).containsOnly(0L);
+        assertThat(statistics.getByMonth()).isEmpty();
+    }
+
+    @Test
+    void statisticsAreCachedUntilEvicted() {
+        add(1L, AchievementType.PAPER, AchievementStatus.draft, LocalDateTime.of(2026, 1, 5, 9, 0));
+
+        service.getStatistics(PROJECT_ID);
+        service.getStatistics(PROJECT_ID);
+        assertThat(queries).hasValue(1);
+
+        service.evict(null);
+        service.evict(2L);
+        service.getStatistics(PROJECT_ID);
+        assertThat(queries).hasValue(1);
+
+        service.evict(PROJECT_ID);
+        service.getStatistics(PROJECT_ID);
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void createEvictsStatistics() {
+        assertThat(service.getStatistics(PROJECT_ID).getTotalCount()).isZero();
+        AchievementDetailsServiceImpl detailsService = new AchievementDetailsServiceImpl();
+        ReflectionTestUtils.setField(detailsService, "achievementRepository", achievementRepository);
+        ReflectionTestUtils.setField(detailsService, "achievementDetailRepository", mock(AchievementDetailRepository.class));
+        // JsonUtils 初始化时从容器获取 ObjectMapper
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(SpringUtil.class, "beanFactory", beanFactory);
+        ReflectionTestUtils.setField(detailsService, "jsonUtils", BeanUtils.instantiateClass(JsonUtils.class));
+        ReflectionTestUtils.setField(detailsService, "achievementSearchEngine", mock(AchievementSearchEngine.class));
+        ReflectionTestUtils.setField(detailsService, "messageSendService", mock(MessageSendService.class));
+        ReflectionTestUtils.setField(detailsService, "achievementStatisticsService", service);
+
+        CreateAchievementDTO createDTO = CreateAchievementDTO.builder()
+                .projectId(PROJECT_ID).title("新成果").type(AchievementType.DATASET).creatorId(9L)
+                .build();
+        detailsService.createAchievementWithDetails(createDTO);
+
+        AchievementStatisticsDTO statistics = service.getStatistics(PROJECT_ID);
+        assertThat(statistics.getTotalCount()).isEqualTo(1L);
+        assertThat(statistics.getByType()).containsEntry("DATASET", 1L);
+        assertThat(statistics.getByStatus()).containsEntry("draft", 1L);
+    }
+
+    @Test
+    void statusUpdateEvictsStatistics() {
+        add(1L, AchievementType.PAPER, AchievementStatus.draft, LocalDateTime.of(2026, 1, 5, 9, 0));
+        assertThat(service.getStatistics(PROJECT_ID).getByStatus()).containsEntry("draft", 1L);
+        AchievementServiceImpl achievementService = new AchievementServiceImpl();
+        ReflectionTestUtils.setField(achievementService, "achievementRepository", achievementRepository);
+        ReflectionTestUtils.setField(achievementService, "knowledgeMessageService", mock(MessageSendService.class));
+        ReflectionTestUtils.setField(achievementService, "achievementStatisticsService", service);
+
+        achievementService.updateAchievementStatus(1L, AchievementStatus.published, 9L);
+
+        assertThat(service.getStatistics(PROJECT_ID).getByStatus())
+                .containsEntry("draft", 0L).containsEntry("published", 1L);
+    }
+
+    @Test
+    void deleteEvictsStatistics() {
+        add(1L, AchievementType.PAPER, AchievementStatus.draft, LocalDateTime.of(2026, 1, 5, 9, 0));
+        add(2L, AchievementType.PATENT, AchievementStatus.draft, LocalDateTime.of(2026, 1, 6, 9, 0));
+        assertThat(service.getStatistics(PROJECT_ID).getTotalCount()).isEqualTo(2L);
+        AchievementFileService fileService = mock(AchievementFileService.class);
+        when(fileService.getFilesByAchievementId(anyLong())).thenReturn(List.of());
+        AchievementManageController controller = new AchievementManageController(mock(AchievementService.class),
+                mock(AchievementDetailsService.class), fileService, achievementRepository,
+                mock(AchievementTaskService.class), mock(ProjectSecurityUtils.class), mock(OperationLogHelper.class),
+                mock(MessageSendService.class), service);
+        SecurityContextHolder.setUserId(9L);
+
+        controller.deleteAchievement(2L);
+
+        AchievementStatisticsDTO statistics = service.getStatistics(PROJECT_ID);
+        assertThat(statistics.getTotalCount()).isEqualTo(1L);
+        assertThat(statistics.getByType()).containsEntry("PATENT", 0L).containsEntry("PAPER", 1L);
+    }
+
+    private void add(Long id, AchievementType type, AchievementStatus status, LocalDateTime createdAt) {
+        Achievement achievement = Achievement.builder().id(id).projectId(PROJECT_ID).title("成果" + id)
+                .type(type).status(status).build();
+        achievement.setCreatedAt(createdAt);
+        achievements.put(id, achievement);
+    }
+
+    /**
+     * 按 SQL 的 GROUPING SETS 生成查询结果行
+     */
+    private List<Object[]> aggregate(Long projectId) {
+        List<Achievement> rows = achievements.values().stream()
+                .filter(achievement -> projectId.equals(achievement.getProjectId()))
+                .toList();
+        List<Object[]> result = new ArrayList<>();
+        rows.stream().collect(Collectors.groupingBy(achievement -> achievement.getType().getCode(),
+                        LinkedHashMap::new, Collectors.counting()))
+                .forEach((type, count) -> result.add(row(groupingId(TYPE), type, null, null, count)));
+        rows.stream().collect(Collectors.groupingBy(achievement -> achievement.getStatus().getValue(),
+                        LinkedHashMap::new, Collectors.counting()))
+                .forEach((status, count) -> result.add(row(groupingId(STATUS), null, status, null, count)));
+        rows.stream().collect(Collectors.groupingBy(achievement -> achievement.getCreatedAt().toString().substring(0, 7),
+                        LinkedHashMap::new, Collectors.counting()))
+                .forEach((month, count) -> result.add(row(groupingId(MONTH), null, null, month, count)));
+        result.add(row(groupingId(), null, null, null, (long) rows.size()));
+        return result;
+    }
+
+    private Object[] row(int groupingId, String type, String status, String month, long count) {
+        return new Object[]{groupingId, type, status, month, count, fileCount};
+    }
+
+    /**
+     * PostgreSQL 的 GROUPING(args)：参数不在当前分组集中时对应位为 1，首个参数为最高位
+     */
+    private static int groupingId(String... groupedBy) {
+        List<String> arguments = groupingArguments();
+        Set<String> grouped = Set.of(groupedBy);
+        int id = 0;
+        for (String argument : arguments) {
+            id = (id << 1) | (grouped.contains(argument) ? 0 : 1);
+        }
+        return id;
+    }
+
+    private static int constant(String name) {
+        return (int) ReflectionTestUtils.getField(AchievementStatisticsServiceImpl.class, name);
+    }
+
+    private static List<String> groupingArguments() {
+        String query = query();
+        int start = query.indexOf("GROUPING(") + "GROUPING(".length();
+        return splitTopLevel(query.substring(start, closingParen(query, start)));
+    }
+
+    private static List<List<String>> groupingSets() {
+        String query = query();
+        int start = query.indexOf("GROUPING SETS (") + "GROUPING SETS (".length();
+        List<List<String>> sets = new ArrayList<>();
+        for (String set : splitTopLevel(query.substring(start, closingParen(query, start)))) {
+            String inner = set.substring(1, set.length() - 1).trim();
+            sets.add(inner.isEmpty() ? List.of() : splitTopLevel(inner));
+        }
+        return sets;
+    }
+
+    private static String query() {
+        try {
+            return AchievementRepository.class.getMethod("aggregateStatistics", Long.class)
+                    .getAnnotation(Query.class).value();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int closingParen(String text, int from) {
+        int depth = 1;
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("括号不匹配: " + text);
+    }
+
+    private static List<String> splitTopLevel(String text) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(text.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        parts.add(text.substring(start).trim());
+        return parts;
+    }
+
+    private static String[] names(AchievementType[] types) {
+        return Arrays.stream(types).map(Enum::name).toArray(String[]::new);
+    }
+
+    private static String[] values(AchievementStatus[] statuses) {
+        return Arrays.stream(statuses).map(AchievementStatus::getValue).toArray(String[]::new);
+    }
+}
@@ -0,0 +1,72 @@
+package hbnu.project.zhiyanbackend.knowledge.utils;
+
+import hbnu.project.zhiyanbackend.basic.cache.CacheRegistry;
+import hbnu.project.zhiyanbackend.basic.constants.CacheConstants;
+import hbnu.project.zhiyanbackend.knowledge.model.entity.AchievementTaskRef;
+import hbnu.project.zhiyanbackend.knowledge.repository.AchievementTaskRefRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * AchievementTaskCacheEvictor 测试
+ * 只失效关联了变更任务的成果，不再清空整个成果任务缓存
+ *
+ * @author ErgouTree
+ */
+class AchievementTaskCacheEvictorTest {
+
+    private AchievementTaskRefRepository achievementTaskRefRepository;
+
+    private CacheRegistry cacheRegistry;
+
+    private AchievementTaskCacheEvictor evictor;
+
+    @BeforeEach
+    void setUp() {
+        achievementTaskRefRepository = mock(AchievementTaskRefRepository.class);
+        cacheRegistry = mock(CacheRegistry.class);
+        evictor = new AchievementTaskCacheEvictor(achievementTaskRefRepository, cacheRegistry);
+    }
+
+    @Test
+    void evictsOnlyLinkedAchievements() {
+        when(achievementTaskRefRepository.findByTaskIdIn(List.of(10L, 11L)))
+                .thenReturn(List.of(ref(1L, 10L), ref(2L, 10L), ref(1L, 11L)));
+
+        evictor.evictByTaskIds(Arrays.asList(10L, null, 11L, 10L));
+
+        verify(cacheRegistry).evict(CacheConstants.ACHIEVEMENT_TASKS_CACHE, 1L);
+        verify(cacheRegistry).evict(CacheConstants.ACHIEVEMENT_TASKS_CACHE, 2L);
+        verifyNoMoreInteractions(cacheRegistry);
+    }
+
+    @Test
+    void unlinkedTaskEvictsNothing() {
+        when(achievementTaskRefRepository.findByTaskIdIn(List.of(20L))).thenReturn(List.of());
+
+        evictor.evictByTaskId(20L);
+
+        verify(cacheRegistry, never()).evict(any(), any());
+        verify(cacheRegistry, never()).clear(any());
+    }
+
+    @Test
+    void missingTaskIdSkipsQuery() {
+        evictor.evictByTaskId(null);
+        evictor.evictByTaskIds(List.of());
+
+        verify(achievementTaskRefRepository, never()).findByTaskIdIn(anyList());
+        verifyNoInteractions(cacheRegistry);
+    }
+
+    private static AchievementTaskRef ref(Long achievementId, Long taskId) {
+        return AchievementTaskRef.builder().achievementId(achievementId).taskId(taskId).build();
+    }
+}
@@ -0,0 +1,93 @@
+package hbnu.project.zhiyanbackend.projects.cache;
+
+import hbnu.project.zhiyanbackend.projects.model.enums.ProjectMemberRole;
+import hbnu.project.zhiyanbackend.projects.model.enums.ProjectPermission;
+import hbnu.project.zhiyanbackend.projects.repository.ProjectMemberRepository;
+import hbnu.project.zhiyanbackend.projects.utils.ProjectSecurityUtils;
+import hbnu.project.zhiyanbackend.support.Benchmarks;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 项目成员鉴权开销基准：一次典型的任务更新请求对同一 (projectId, userId) 做 4 次检查
+ * （成员、管理员、权限、角色），对比每次查库与经两级缓存的耗时和查库次数。
+ * 数据库点查用 200µs 的停顿模拟，耗时差异主要来自查库次数
+ *
+ * @author ErgouTree
+ */
+@Tag(Benchmarks.TAG)
+class ProjectMembershipBenchmarkTest {
+
+    private static final Long PROJECT_ID = 1L;
+
+    private static final long DB_ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private static final int ITERATIONS = 5_000;
+
+    private static final int CHECKS_PER_REQUEST = 4;
+
+    private final AtomicLong queries = new AtomicLong();
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void taskUpdateAuthorizationOverhead() {
+        ProjectMemberRepository repository = mock(ProjectMemberRepository.class);
+        when(repository.findUserRoleInProject(anyLong(), anyLong())).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            LockSupport.parkNanos(DB_ROUND_TRIP_NANOS);
+            return Optional.of(ProjectMemberRole.MEMBER);
+        });
+        ProjectSecurityUtils cached = new ProjectSecurityUtils(new ProjectMembershipCache(repository), null, null, null);
+
+        Benchmarks.Result direct = measure("每次查库", i -> {
+            // 改造前 ProjectSecurityUtils 与 ProjectMemberServiceImpl 的每次检查都单独查询成员角色
+            Long userId = (long) (i % 100);
+            for (int check = 0; check < CHECKS_PER_REQUEST; check++) {
+                assertThat(repository.findUserRoleInProject(userId, PROJECT_ID)).isPresent();
+            }
+        });
+        Benchmarks.Result cold = measure("两级缓存（近端缓存未命中）", i -> check(cached, 1_000L + i));
+        Benchmarks.Result warm = measure("两级缓存（近端缓存命中）", i -> check(cached, (long) (i % 100)));
+
+        assertThat(cold.mean()).isLessThan(direct.mean());
+        assertThat(warm.mean()).isLessThan(cold.mean());
+    }
+
+    private Benchmarks.Result measure(String label, IntConsumer request) {
+        queries.set(0);
+        Benchmarks.Result result = Benchmarks.measure("任务更新鉴权 " + label, ITERATIONS / 10, ITERATIONS, i -> {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            request.accept(i);
+            RequestContextHolder.resetRequestAttributes();
+        });
+        System.out.printf("[benchmark] 任务更新鉴权 %s: 每次请求查库 %.2f 次%n",
+                label, (double) queries.get() / (ITERATIONS + ITERATIONS / 10));
+        return result;
+    }
+
+    private static void check(ProjectSecurityUtils utils, Long userId) {
+        assertThat(utils.isMember(PROJECT_ID, userId)).isTrue();
+        assertThat(utils.isAdmin(PROJECT_ID, userId)).isFalse();
+        assertThat(utils.hasPermission(PROJECT_ID, userId, ProjectPermission.TASK_MANAGE)).isTrue();
+        assertThat(utils.getRole(PROJECT_ID, userId)).isEqualTo(ProjectMemberRole.MEMBER);
+    }
+}
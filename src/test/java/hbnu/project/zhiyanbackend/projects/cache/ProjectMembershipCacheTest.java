@@ -0,0 +1,228 @@
+package hbnu.project.zhiyanbackend.projects.cache;
+
+import hbnu.project.zhiyanbackend.projects.cache.ProjectMembershipCache.Membership;
+import hbnu.project.zhiyanbackend.projects.model.enums.ProjectMemberRole;
+import hbnu.project.zhiyanbackend.projects.model.enums.ProjectPermission;
+import hbnu.project.zhiyanbackend.projects.repository.ProjectMemberRepository;
+import hbnu.project.zhiyanbackend.redis.pubsub.RedisPubSubHub;
+import hbnu.project.zhiyanbackend.redis.utils.RedisUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * ProjectMembershipCache 测试
+ * 用两个缓存实例模拟两个节点，经由模拟的 Redis 频道互相广播失效事件，覆盖请求内缓存、近端缓存和提交后失效
+ *
+ * @author ErgouTree
+ */
+class ProjectMembershipCacheTest {
+
+    private static final Long PROJECT_ID = 1L;
+
+    private static final Long USER_ID = 2L;
+
+    private final Map<Long, ProjectMemberRole> roles = new HashMap<>();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final List<Consumer<String>> subscribers = new ArrayList<>();
+
+    private final List<Runnable> resyncs = new ArrayList<>();
+
+    private final List<String> published = new ArrayList<>();
+
+    private ProjectMembershipCache nodeA;
+
+    private ProjectMembershipCache nodeB;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        doAnswer(invocation -> {
+            String message = invocation.getArgument(1);
+            published.add(message);
+            List.copyOf(subscribers).forEach(subscriber -> subscriber.accept(message));
+            return (long) subscribers.size();
+        }).when(template).convertAndSend(eq(ProjectMembershipCache.INVALIDATE_CHANNEL), any());
+        RedisPubSubHub hub = mock(RedisPubSubHub.class);
+        doAnswer(invocation -> {
+            subscribers.add(invocation.getArgument(3));
+            resyncs.add(invocation.getArgument(4));
+            return null;
+        }).when(hub).subscribe(anyString(), eq(ProjectMembershipCache.INVALIDATE_CHANNEL), eq(String.class),
+                any(Consumer.class), any(Runnable.class));
+        ReflectionTestUtils.setField(RedisUtils.class, "redisTemplate", template);
+        ReflectionTestUtils.setField(RedisUtils.class, "pubSubHub", hub);
+
+        ProjectMemberRepository repository = mock(ProjectMemberRepository.class);
+        when(repository.findUserRoleInProject(anyLong(), anyLong())).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(roles.get(invocation.<Long>getArgument(0)));
+        });
+        nodeA = new ProjectMembershipCache(repository);
+        nodeB = new ProjectMembershipCache(repository);
+        nodeA.run(null);
+        nodeB.run(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ReflectionTestUtils.setField(RedisUtils.class, "redisTemplate", null);
+        ReflectionTestUtils.setField(RedisUtils.class, "pubSubHub", null);
+    }
+
+    @Test
+    void membershipCarriesRolePermissions() {
+        roles.put(USER_ID, ProjectMemberRole.ADMIN);
+
+        Membership membership = nodeA.get(PROJECT_ID, USER_ID);
+
+        assertThat(membership.isMember()).isTrue();
+        assertThat(membership.isAdmin()).isTrue();
+        assertThat(membership.permissions()).containsExactlyInAnyOrderElementsOf(ProjectMemberRole.ADMIN.getPermissions());
+        assertThat(membership.hasPermission(ProjectPermission.MEMBER_MANAGE)).isTrue();
+        assertThat(nodeA.get(PROJECT_ID, 3L)).isSameAs(Membership.NONE);
+        assertThat(nodeA.get(null, USER_ID)).isSameAs(Membership.NONE);
+    }
+
+    @Test
+    void nearCacheServesRepeatedChecksIncludingNonMembers() {
+        roles.put(USER_ID, ProjectMemberRole.MEMBER);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(nodeA.get(PROJECT_ID, USER_ID).role()).isEqualTo(ProjectMemberRole.MEMBER);
+            assertThat(nodeA.get(PROJECT_ID, 3L).isMember()).isFalse();
+        }
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void requestMemoKeepsAnswerStableWithinRequest() {
+        roles.put(USER_ID, ProjectMemberRole.MEMBER);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        nodeA.get(PROJECT_ID, USER_ID);
+
+        // 其他节点修改了角色，本节点近端缓存被清除，但同一请求内的检查结果保持一致且不再查库
+        roles.put(USER_ID, ProjectMemberRole.ADMIN);
+        RedisUtils.publish(ProjectMembershipCache.INVALIDATE_CHANNEL, PROJECT_ID + ":" + USER_ID);
+        assertThat(nodeA.get(PROJECT_ID, USER_ID).role()).isEqualTo(ProjectMemberRole.MEMBER);
+        assertThat(loads).hasValue(1);
+
+        // 下一个请求看到新角色
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(nodeA.get(PROJECT_ID, USER_ID).role()).isEqualTo(ProjectMemberRole.ADMIN);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evictInsideRequestDropsItsOwnMemo() {
+        roles.put(USER_ID, ProjectMemberRole.MEMBER);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        nodeA.get(PROJECT_ID, USER_ID);
+
+        // 本请求修改角色后再检查，应读到新角色
+        roles.put(USER_ID, ProjectMemberRole.ADMIN);
+        nodeA.evict(PROJECT_ID, USER_ID);
+
+        assertThat(nodeA.get(PROJECT_ID, USER_ID).role()).isEqualTo(ProjectMemberRole.ADMIN);
+    }
+
+    @Test
+    void evictInTransactionIsRepeatedAndBroadcastAfterCommit() {
+        roles.put(USER_ID, ProjectMemberRole.ADMIN);
+        nodeA.get(PROJECT_ID, USER_ID);
+        nodeB.get(PROJECT_ID, USER_ID);
+        TransactionSynchronizationManager.initSynchronization();
+
+        nodeA.evict(PROJECT_ID, USER_ID);
+        // 提交前其他请求读到旧角色并回填近端缓存，其他节点也仍是旧值
+        assertThat(nodeA.get(PROJECT_ID, USER_ID).role()).isEqualTo(ProjectMemberRole.ADMIN);
+        assertThat(published).isEmpty();
+
+        roles.put(USER_ID, ProjectMemberRole.MEMBER);
+        commit();
+
+        assertThat(published).containsExactly(PROJECT_ID + ":" + USER_ID);
+        assertThat(nodeA.get(PROJECT_ID, USER_ID).role()).isEqualTo(ProjectMemberRole.MEMBER);
+        assertThat(nodeB.get(PROJECT_ID, USER_ID).role()).isEqualTo(ProjectMemberRole.MEMBER);
+    }
+
+    @Test
+    void rolledBackTransactionDoesNotBroadcast() {
+        roles.put(USER_ID, ProjectMemberRole.ADMIN);
+        nodeB.get(PROJECT_ID, USER_ID);
+        TransactionSynchronizationManager.initSynchronization();
+
+        nodeA.evict(PROJECT_ID, USER_ID);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(published).isEmpty();
+        int before = loads.get();
+        nodeB.get(PROJECT_ID, USER_ID);
+        assertThat(loads).hasValue(before);
+    }
+
+    @Test
+    void evictOutsideTransactionBroadcastsImmediately() {
+        roles.put(USER_ID, ProjectMemberRole.MEMBER);
+        nodeB.get(PROJECT_ID, USER_ID);
+        roles.remove(USER_ID);
+
+        nodeA.evict(PROJECT_ID, USER_ID);
+
+        assertThat(published).containsExactly(PROJECT_ID + ":" + USER_ID);
+        assertThat(nodeB.get(PROJECT_ID, USER_ID).isMember()).isFalse();
+    }
+
+    @Test
+    void resyncClearsNearCacheAndMalformedMessagesAreIgnored() {
+        roles.put(USER_ID, ProjectMemberRole.MEMBER);
+        nodeA.get(PROJECT_ID, USER_ID);
+
+        RedisUtils.publish(ProjectMembershipCache.INVALIDATE_CHANNEL, "garbage");
+        RedisUtils.publish(ProjectMembershipCache.INVALIDATE_CHANNEL, "x:y");
+        nodeA.get(PROJECT_ID, USER_ID);
+        assertThat(loads).hasValue(1);
+
+        resyncs.forEach(Runnable::run);
+        nodeA.get(PROJECT_ID, USER_ID);
+        assertThat(loads).hasValue(2);
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+}
@@ -0,0 +1,116 @@
+package hbnu.project.zhiyanbackend.redis.config;
+
+import hbnu.project.zhiyanbackend.sse.dto.SseMessageDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SmileRedisSerializer 往返测试
+ * 覆盖 Smile 与 LZ4 两种编码、原 JSON 数据的读取，以及数字保持十进制文本
+ *
+ * @author ErgouTree
+ */
+class SmileRedisSerializerTest {
+
+    private static final int COMPRESS_THRESHOLD = 256;
+
+    private final Jackson2JsonRedisSerializer<Object> jsonSerializer =
+            new Jackson2JsonRedisSerializer<>(Object.class, RedisConfig.createObjectMapper());
+
+    private final SmileRedisSerializer serializer =
+            new SmileRedisSerializer(RedisTypeRegistry.defaults(), jsonSerializer, COMPRESS_THRESHOLD);
+
+    @Test
+    void smallValuesRoundTripAsSmile() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("name", "智研");
+        value.put("tags", new ArrayList<>(List.of("a", "b")));
+        value.put("amount", new BigDecimal("12.50"));
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertThat(bytes[0]).isEqualTo((byte) 0x01);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(value);
+    }
+
+    @Test
+    void registeredTypesRoundTrip() {
+        SseMessageDto message = new SseMessageDto();
+        message.setUserIds(new ArrayList<>(List.of(1L, 2L)));
+        message.setMessage("hello");
+
+        Object restored = serializer.deserialize(serializer.serialize(message));
+
+        assertThat(restored).isEqualTo(message);
+    }
+
+    @Test
+    void largeValuesAreCompressedWithLz4() {
+        List<String> value = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            value.add("wiki-page-content-" + (i % 10));
+        }
+
+        byte[] bytes = serializer.serialize(value);
+        byte[] json = jsonSerializer.serialize(value);
+
+        assertThat(bytes[0]).isEqualTo((byte) 0x02);
+        assertThat(bytes.length).isLessThan(json.length);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(value);
+    }
+
+    @Test
+    void randomValuesRoundTripOnBothPaths() {
+        Random random = new Random(2024);
+        for (int round = 0; round < 500; round++) {
+            Map<String, Object> value = new HashMap<>();
+            int entries = random.nextInt(60);
+            for (int i = 0; i < entries; i++) {
+                value.put("k" + i, random.nextBoolean() ? "v" + random.nextInt(1000) : random.nextInt());
+            }
+            assertThat(serializer.deserialize(serializer.serialize(value))).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void legacyJsonValuesStayReadable() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("id", 42);
+        value.put("items", new ArrayList<>(List.of("x", "y")));
+        SseMessageDto message = new SseMessageDto();
+        message.setUserIds(new ArrayList<>(List.of(7L)));
+        message.setMessage("legacy");
+
+        assertThat(serializer.deserialize(jsonSerializer.serialize(value))).isEqualTo(value);
+        assertThat(serializer.deserialize(jsonSerializer.serialize(message))).isEqualTo(message);
+        assertThat(serializer.deserialize(jsonSerializer.serialize("plain"))).isEqualTo("plain");
+    }
+
+    @Test
+    void numbersStayDecimalTextForIncrAndLua() {
+        assertThat(new String(serializer.serialize(42L), StandardCharsets.UTF_8)).isEqualTo("42");
+        assertThat(new String(serializer.serialize(-7), StandardCharsets.UTF_8)).isEqualTo("-7");
+        assertThat(new String(serializer.serialize(1.5d), StandardCharsets.UTF_8)).isEqualTo("1.5");
+        assertThat(serializer.serialize(42L)).isEqualTo(jsonSerializer.serialize(42L));
+        // Redis INCR 之后的值同样是十进制文本
+        assertThat(serializer.deserialize("43".getBytes(StandardCharsets.UTF_8))).isEqualTo(43);
+    }
+
+    @Test
+    void emptyAndCorruptedValues() {
+        assertThat(serializer.serialize(null)).isEmpty();
+        assertThat(serializer.deserialize(new byte[0])).isNull();
+        assertThat(serializer.deserialize(null)).isNull();
+        assertThatThrownBy(() -> serializer.deserialize(new byte[]{0x02, 0x00}))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> serializer.deserialize(new byte[]{0x02, (byte) 0xFF, 0, 0, 0, 1}))
+                .isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,172 @@
+package hbnu.project.zhiyanbackend.redis.lock;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * InMemoryLockProvider 测试
+ * 验证 fencing token 单调递增、同一时刻只有一个持有者，以及过期后旧持有者不能误释放
+ *
+ * @author ErgouTree
+ */
+class InMemoryLockProviderTest {
+
+    private static final Duration LEASE = Duration.ofSeconds(10);
+
+    private final MutableClock clock = new MutableClock();
+
+    private final InMemoryLockProvider provider = new InMemoryLockProvider(clock);
+
+    @Test
+    void secondOwnerIsRejectedWhileLockIsHeld() {
+        long token = provider.tryAcquire("job", "node-a", LEASE);
+
+        assertThat(token).isPositive();
+        assertThat(provider.tryAcquire("job", "node-b", LEASE)).isEqualTo(LockProvider.NOT_ACQUIRED);
+        assertThat(provider.tryAcquire("job", "node-a", LEASE)).isEqualTo(LockProvider.NOT_ACQUIRED);
+
+        assertThat(provider.release("job", "node-a", token, Duration.ZERO)).isTrue();
+        assertThat(provider.tryAcquire("job", "node-b", LEASE)).isGreaterThan(token);
+    }
+
+    @Test
+    void tokensIncreaseAcrossReleaseAndExpiry() {
+        long previous = 0;
+        for (int i = 0; i < 50; i++) {
+            String owner = "node-" + (i % 3);
+            long token = provider.tryAcquire("job", owner, LEASE);
+            assertThat(token).isGreaterThan(previous);
+            previous = token;
+            if (i % 2 == 0) {
+                provider.release("job", owner, token, Duration.ZERO);
+            } else {
+                // 不释放，等租约过期后由下一个节点接管
+                clock.advance(LEASE);
+            }
+        }
+    }
+
+    @Test
+    void expiredHolderCannotReleaseTheNewLease() {
+        long stale = provider.tryAcquire("job", "node-a", LEASE);
+        clock.advance(LEASE.plusMillis(1));
+        long current = provider.tryAcquire("job", "node-b", LEASE);
+
+        assertThat(current).isGreaterThan(stale);
+        assertThat(provider.release("job", "node-a", stale, Duration.ZERO)).isFalse();
+        // 同一节点重启后拿旧 token 也不能释放
+        assertThat(provider.release("job", "node-b", stale, Duration.ZERO)).isFalse();
+        assertThat(provider.tryAcquire("job", "node-c", LEASE)).isEqualTo(LockProvider.NOT_ACQUIRED);
+        assertThat(provider.release("job", "node-b", current, Duration.ZERO)).isTrue();
+    }
+
+    @Test
+    void keepForHoldsTheLockAfterRelease() {
+        long token = provider.tryAcquire("job", "node-a", LEASE);
+        assertThat(provider.release("job", "node-a", token, Duration.ofSeconds(5))).isTrue();
+
+        clock.advance(Duration.ofSeconds(4));
+        assertThat(provider.tryAcquire("job", "node-b", LEASE)).isEqualTo(LockProvider.NOT_ACQUIRED);
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(provider.tryAcquire("job", "node-b", LEASE)).isGreaterThan(token);
+    }
+
+    @Test
+    void locksWithDifferentNamesAreIndependent() {
+        long first = provider.tryAcquire("job-1", "node-a", LEASE);
+        long second = provider.tryAcquire("job-2", "node-b", LEASE);
+
+        assertThat(first).isPositive();
+        assertThat(second).isPositive();
+    }
+
+    @Test
+    void concurrentNodesNeverHoldTheLockTogether() throws Exception {
+        InMemoryLockProvider shared = new InMemoryLockProvider();
+        int nodes = 8;
+        int rounds = 2_000;
+        AtomicInteger holders = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        ConcurrentLinkedQueue<Long> granted = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(nodes);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int n = 0; n < nodes; n++) {
+                String owner = "node-" + n;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < rounds; i++) {
+                        long token = shared.tryAcquire("job", owner, Duration.ofMinutes(1));
+                        if (token == LockProvider.NOT_ACQUIRED) {
+                            continue;
+                        }
+                        if (holders.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        granted.add(token);
+                        holders.decrementAndGet();
+                        assertThat(shared.release("job", owner, token, Duration.ZERO)).isTrue();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(overlaps.get()).isZero();
+        assertThat(granted).isNotEmpty();
+        // 每次授予的 token 都不同，且正好是 1..n 的连续序列
+        assertThat(granted.stream().distinct().count()).isEqualTo(granted.size());
+        assertThat(granted.stream().mapToLong(Long::longValue).max().orElse(0)).isEqualTo(granted.size());
+    }
+
+    /**
+     * 可手动推进的时钟
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
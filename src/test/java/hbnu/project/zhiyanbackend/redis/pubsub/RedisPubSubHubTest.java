@@ -0,0 +1,247 @@
+package hbnu.project.zhiyanbackend.redis.pubsub;
+
+import hbnu.project.zhiyanbackend.basic.config.properties.PubSubProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * RedisPubSubHub 测试
+ * 用模拟的监听容器接住订阅，直接向订阅投递消息，覆盖订阅内顺序、队列满时的丢弃与重新同步以及慢订阅隔离
+ *
+ * @author ErgouTree
+ */
+class RedisPubSubHubTest {
+
+    private final PubSubProperties properties = new PubSubProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Map<String, MessageListener> listeners = new HashMap<>();
+
+    private RedisPubSubHub hub;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (hub != null) {
+            hub.destroy();
+        }
+    }
+
+    @Test
+    void messagesAreHandledInArrivalOrderPerSubscription() {
+        properties.setDrainBatch(8);
+        RedisPubSubHub hub = hub();
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+        hub.subscribe("a", "orders", String.class, first::add);
+        hub.subscribe("b", "orders", String.class, second::add);
+
+        for (int i = 0; i < 1_000; i++) {
+            publish("a", String.valueOf(i));
+            publish("b", String.valueOf(i));
+        }
+
+        // 多个分发线程并行，但同一订阅内严格按到达顺序
+        List<String> expected = IntStream.range(0, 1_000).mapToObj(String::valueOf).toList();
+        until(() -> first.size() == 1_000 && second.size() == 1_000);
+        assertThat(first).containsExactlyElementsOf(expected);
+        assertThat(second).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void overflowWithoutResyncDropsNewMessages() throws InterruptedException {
+        properties.setQueueCapacity(4);
+        RedisPubSubHub hub = hub();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = new CopyOnWriteArrayList<>();
+        hub.subscribe("sse", "sse", String.class, message -> {
+            started.countDown();
+            awaitQuietly(release);
+            received.add(message);
+        });
+
+        publish("sse", "0");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < 10; i++) {
+            publish("sse", String.valueOf(i));
+        }
+        release.countDown();
+
+        // 处理中的第一条和队列中的 4 条送达，其余 5 条丢弃
+        until(() -> received.size() == 5);
+        assertThat(received).containsExactly("0", "1", "2", "3", "4");
+        assertThat(dropped("sse")).isEqualTo(5);
+    }
+
+    @Test
+    void overflowWithResyncDiscardsBacklogAndResyncsOnce() throws InterruptedException {
+        properties.setQueueCapacity(4);
+        RedisPubSubHub hub = hub();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> events = new CopyOnWriteArrayList<>();
+        hub.subscribe("cache", "invalidate", String.class, message -> {
+            started.countDown();
+            awaitQuietly(release);
+            events.add(message);
+        }, () -> events.add("resync"));
+
+        publish("cache", "0");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < 10; i++) {
+            publish("cache", String.valueOf(i));
+        }
+        release.countDown();
+        until(() -> events.contains("resync"));
+        publish("cache", "10");
+
+        // 积压的 4 条和溢出的 5 条都由一次重新同步替代，之后到达的消息照常处理
+        until(() -> events.contains("10"));
+        assertThat(events).containsExactly("0", "resync", "10");
+        assertThat(dropped("invalidate")).isEqualTo(9);
+    }
+
+    @Test
+    void slowSubscriptionYieldsToOthers() {
+        properties.setDispatchThreads(1);
+        properties.setDrainBatch(2);
+        RedisPubSubHub hub = hub();
+        AtomicInteger slowHandled = new AtomicInteger();
+        AtomicInteger slowHandledWhenFastArrived = new AtomicInteger(-1);
+        hub.subscribe("slow", "slow", String.class, message -> {
+            sleepQuietly(5);
+            slowHandled.incrementAndGet();
+        });
+        hub.subscribe("fast", "fast", String.class, message -> slowHandledWhenFastArrived.set(slowHandled.get()));
+
+        for (int i = 0; i < 50; i++) {
+            publish("slow", String.valueOf(i));
+        }
+        publish("fast", "ping");
+
+        // 只有一个分发线程，慢订阅每处理 2 条就让出线程，快订阅不必等 50 条积压处理完
+        until(() -> slowHandledWhenFastArrived.get() >= 0);
+        assertThat(slowHandledWhenFastArrived.get()).isLessThan(10);
+        until(() -> slowHandled.get() == 50);
+    }
+
+    @Test
+    void failingConsumerDoesNotStopTheSubscription() {
+        RedisPubSubHub hub = hub();
+        List<String> received = new CopyOnWriteArrayList<>();
+        hub.subscribe("flaky", "flaky", String.class, message -> {
+            if (message.equals("bad")) {
+                throw new IllegalStateException("处理失败");
+            }
+            received.add(message);
+        });
+
+        publish("flaky", "bad");
+        publish("flaky", "good");
+
+        until(() -> received.contains("good"));
+    }
+
+    @Test
+    void resubscribeReplacesPreviousListener() {
+        RedisPubSubHub hub = hub();
+        RedisMessageListenerContainer container =
+                (RedisMessageListenerContainer) ReflectionTestUtils.getField(hub, "container");
+        hub.subscribe("id", "channel", String.class, message -> {
+        });
+        MessageListener previous = listeners.get("id");
+
+        hub.subscribe("id", "channel", String.class, message -> {
+        });
+
+        verify(container).removeMessageListener(previous);
+        hub.unsubscribe("id");
+        verify(container).removeMessageListener(listeners.get("id"));
+    }
+
+    /**
+     * 创建订阅中心并换上模拟的监听容器，按订阅ID记录注册的监听器
+     */
+    @SuppressWarnings("unchecked")
+    private RedisPubSubHub hub() {
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        doReturn(RedisSerializer.string()).when(template).getValueSerializer();
+        when(template.getConnectionFactory()).thenReturn(mock(RedisConnectionFactory.class));
+        hub = new RedisPubSubHub(template, meterRegistry, properties);
+
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        Map<String, ?> lanes = (Map<String, ?>) ReflectionTestUtils.getField(hub, "lanes");
+        doAnswer(invocation -> {
+            MessageListener lane = invocation.getArgument(0);
+            lanes.forEach((id, registered) -> {
+                if (registered == lane) {
+                    listeners.put(id, lane);
+                }
+            });
+            return null;
+        }).when(container).addMessageListener(any(MessageListener.class), any(Topic.class));
+        ReflectionTestUtils.setField(hub, "container", container);
+        return hub;
+    }
+
+    private void publish(String subscriptionId, String message) {
+        listeners.get(subscriptionId).onMessage(new DefaultMessage(subscriptionId.getBytes(StandardCharsets.UTF_8),
+                message.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    private long dropped(String channel) {
+        return (long) meterRegistry.get("zhiyan.pubsub.messages.dropped").tag("channel", channel).counter().count();
+    }
+
+    /**
+     * 等待分发线程处理到满足条件，最多 5 秒
+     */
+    private static void until(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("等待分发超时").isLessThan(deadline);
+            sleepQuietly(1);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
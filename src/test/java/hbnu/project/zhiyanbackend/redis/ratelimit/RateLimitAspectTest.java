@@ -0,0 +1,124 @@
+package hbnu.project.zhiyanbackend.redis.ratelimit;
+
+import hbnu.project.zhiyanbackend.basic.config.properties.RateLimitProperties;
+import hbnu.project.zhiyanbackend.basic.exception.RateLimitException;
+import hbnu.project.zhiyanbackend.security.context.SecurityContextHolder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * RateLimitAspect 测试
+ * 覆盖开关、限流名称与维度键的拼装、窗口解析以及拒绝时不进入方法体
+ *
+ * @author ErgouTree
+ */
+class RateLimitAspectTest {
+
+    private final RateLimiterEngine engine = mock(RateLimiterEngine.class);
+
+    private final RateLimitProperties properties = new RateLimitProperties();
+
+    private final RateLimitAspect aspect = new RateLimitAspect(engine, properties);
+
+    private final ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+
+    @BeforeEach
+    void setUp() throws Throwable {
+        Signature signature = mock(Signature.class);
+        when(signature.getDeclaringType()).thenReturn(Endpoints.class);
+        when(signature.getName()).thenReturn("login");
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenReturn("ok");
+        when(engine.tryAcquire(anyString(), anyString(), anyInt(), any())).thenReturn(true);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.1.2.3");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clear();
+    }
+
+    @Test
+    void disabledProceedsWithoutEngine() throws Throwable {
+        properties.setEnabled(false);
+
+        assertThat(aspect.around(joinPoint, annotation("ip"))).isEqualTo("ok");
+
+        verifyNoInteractions(engine);
+    }
+
+    @Test
+    void defaultNameIsClassAndMethod() throws Throwable {
+        aspect.around(joinPoint, annotation("ip"));
+
+        verify(engine).tryAcquire("Endpoints.login", "Endpoints.login:ip:10.1.2.3", 5, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void globalDimensionSharesOneKey() throws Throwable {
+        aspect.around(joinPoint, annotation("global"));
+
+        verify(engine).tryAcquire("export", "export:global", 100, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void userDimensionFallsBackToIpWithoutLogin() throws Throwable {
+        aspect.around(joinPoint, annotation("user"));
+        verify(engine).tryAcquire("upload", "upload:ip:10.1.2.3", 10, Duration.ofHours(1));
+
+        SecurityContextHolder.setUserId(9L);
+        aspect.around(joinPoint, annotation("user"));
+        verify(engine).tryAcquire("upload", "upload:user:9", 10, Duration.ofHours(1));
+    }
+
+    @Test
+    void rejectedRequestDoesNotProceed() throws Throwable {
+        when(engine.tryAcquire(anyString(), anyString(), anyInt(), any())).thenReturn(false);
+
+        assertThatThrownBy(() -> aspect.around(joinPoint, annotation("global")))
+                .isInstanceOfSatisfying(RateLimitException.class,
+                        e -> assertThat(e.getDefaultMessage()).isEqualTo("导出过于频繁"));
+
+        verify(joinPoint, never()).proceed();
+    }
+
+    private static RateLimit annotation(String method) throws NoSuchMethodException {
+        return Endpoints.class.getDeclaredMethod(method).getAnnotation(RateLimit.class);
+    }
+
+    /**
+     * 只用于读取注解的方法
+     */
+    static class Endpoints {
+
+        @RateLimit(permits = 5)
+        void ip() {
+        }
+
+        @RateLimit(name = "export", permits = 100, window = "30s", dimension = RateLimit.Dimension.GLOBAL,
+                message = "导出过于频繁")
+        void global() {
+        }
+
+        @RateLimit(name = "upload", permits = 10, window = "PT1H", dimension = RateLimit.Dimension.USER)
+        void user() {
+        }
+    }
+}
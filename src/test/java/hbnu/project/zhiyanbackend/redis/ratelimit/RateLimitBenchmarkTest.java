@@ -0,0 +1,82 @@
+package hbnu.project.zhiyanbackend.redis.ratelimit;
+
+import hbnu.project.zhiyanbackend.basic.config.properties.RateLimitProperties;
+import hbnu.project.zhiyanbackend.redis.utils.RedisUtils;
+import hbnu.project.zhiyanbackend.support.Benchmarks;
+import hbnu.project.zhiyanbackend.support.InMemoryRedis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 限流开销基准：100 个客户端 IP 轮流请求，对比每次请求执行一次 Redis 脚本的 RedisUtils.rateLimiter
+ * 与按块租借配额的 RateLimiterEngine。每次访问 Redis 用 100µs 的停顿模拟网络往返，耗时差异主要来自往返次数
+ *
+ * @author ErgouTree
+ */
+@Tag(Benchmarks.TAG)
+class RateLimitBenchmarkTest {
+
+    private static final long REDIS_ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final int CLIENTS = 100;
+
+    private static final int PERMITS = 1_000;
+
+    private static final int ITERATIONS = 20_000;
+
+    private final InMemoryRedis redis = new InMemoryRedis();
+
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(RedisUtils.class, "stringRedisTemplate", null);
+    }
+
+    @Test
+    void perRequestScriptVersusLeasedQuota() {
+        StringRedisTemplate template = withRoundTrip(redis.stringTemplate());
+        ReflectionTestUtils.setField(RedisUtils.class, "stringRedisTemplate", template);
+        RateLimiterEngine engine = new RateLimiterEngine(template, new RateLimitProperties(), new SimpleMeterRegistry());
+
+        Benchmarks.Result perRequest = measure("每次请求执行脚本", i ->
+                assertThat(RedisUtils.rateLimiter("legacy:ip:" + i % CLIENTS, PERMITS, 60)).isPositive());
+        Benchmarks.Result leased = measure("按块租借配额", i ->
+                assertThat(engine.tryAcquire("login", "login:ip:" + i % CLIENTS, PERMITS, Duration.ofMinutes(1))).isTrue());
+
+        assertThat(leased.mean()).isLessThan(perRequest.mean());
+    }
+
+    private Benchmarks.Result measure(String label, IntConsumer request) {
+        roundTrips.set(0);
+        Benchmarks.Result result = Benchmarks.measure("限流判断 " + label, ITERATIONS / 10, ITERATIONS, request);
+        System.out.printf("[benchmark] 限流判断 %s: 每次请求 Redis 往返 %.3f 次%n",
+                label, (double) roundTrips.get() / (ITERATIONS + ITERATIONS / 10));
+        return result;
+    }
+
+    /**
+     * 包装模板：每次调用计为一次往返并停顿，再转交给进程内 Redis
+     */
+    private StringRedisTemplate withRoundTrip(StringRedisTemplate target) {
+        return mock(StringRedisTemplate.class, withSettings().stubOnly().defaultAnswer(invocation -> {
+            roundTrips.incrementAndGet();
+            LockSupport.parkNanos(REDIS_ROUND_TRIP_NANOS);
+            return invocation.getMethod().invoke(target, invocation.getRawArguments());
+        }));
+    }
+}
@@ -0,0 +1,181 @@
+package hbnu.project.zhiyanbackend.redis.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import hbnu.project.zhiyanbackend.basic.config.properties.RateLimitProperties;
+import hbnu.project.zhiyanbackend.support.InMemoryRedis;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * RateLimiterEngine 测试
+ * 在进程内 Redis 上执行生产代码中的租借与退还脚本，覆盖本地令牌桶、多节点共享配额、过期租约和淘汰时的配额退还
+ *
+ * @author ErgouTree
+ */
+class RateLimiterEngineTest {
+
+    private static final String KEY = "login:ip:1.2.3.4";
+
+    private static final Duration WINDOW = Duration.ofHours(1);
+
+    private final InMemoryRedis redis = new InMemoryRedis();
+
+    private final RateLimitProperties properties = new RateLimitProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void leasedQuotaIsConsumedLocally() {
+        RateLimiterEngine engine = engine(redis.stringTemplate());
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(engine.tryAcquire("login", KEY, 100, WINDOW)).isTrue();
+        }
+        assertThat(engine.tryAcquire("login", KEY, 100, WINDOW)).isFalse();
+
+        // 每次租借窗口配额的 10%
+        assertThat(count("redis_allowed")).isEqualTo(10);
+        assertThat(count("local_allowed")).isEqualTo(90);
+        assertThat(count("local_rejected")).isEqualTo(1);
+        assertThat(windowCount(KEY)).isEqualTo(100);
+    }
+
+    @Test
+    void nodesShareWindowQuota() {
+        RateLimiterEngine nodeA = engine(redis.stringTemplate());
+        RateLimiterEngine nodeB = engine(redis.stringTemplate());
+
+        int allowed = 0;
+        for (int i = 0; i < 100; i++) {
+            allowed += nodeA.tryAcquire("login", KEY, 100, WINDOW) ? 1 : 0;
+            allowed += nodeB.tryAcquire("login", KEY, 100, WINDOW) ? 1 : 0;
+        }
+
+        // 每个节点的本地令牌桶都允许 100 个，合计仍受 Redis 窗口限制
+        assertThat(allowed).isEqualTo(100);
+        assertThat(count("redis_rejected")).isPositive();
+    }
+
+    @Test
+    void slidingWindowCountsPreviousWindow() {
+        RateLimiterEngine engine = engine(redis.stringTemplate());
+        long windowIndex = System.currentTimeMillis() / WINDOW.toMillis();
+        // 上一窗口计数极大，按剩余时间占比折算后仍超出配额
+        redis.call("SET", windowKey(KEY, windowIndex - 1), "1000000000");
+
+        assertThat(engine.tryAcquire("login", KEY, 100, WINDOW)).isFalse();
+        assertThat(count("redis_rejected")).isEqualTo(1);
+    }
+
+    @Test
+    void expiredLeaseIsRefundedWithNextLease() throws InterruptedException {
+        properties.setLeaseRatio(0.5);
+        Duration window = Duration.ofMillis(100);
+        RateLimiterEngine engine = engine(redis.stringTemplate());
+
+        assertThat(engine.tryAcquire("login", KEY, 10, window)).isTrue();
+        // 租约有效期为窗口的 50%，过期后再请求时先退还未消费的 4 个
+        Thread.sleep(60);
+        assertThat(engine.tryAcquire("login", KEY, 10, window)).isTrue();
+
+        // 两次共消费 2 个，第二次租约中还有 4 个未消费
+        assertThat(totalCount(KEY)).isEqualTo(6);
+    }
+
+    @Test
+    void evictedBucketRefundsLeasedQuota() {
+        properties.setMaxLocalKeys(1);
+        RateLimiterEngine engine = engine(redis.stringTemplate());
+        String other = "login:ip:5.6.7.8";
+
+        assertThat(engine.tryAcquire("login", KEY, 100, WINDOW)).isTrue();
+        assertThat(engine.tryAcquire("login", other, 100, WINDOW)).isTrue();
+        buckets(engine).cleanUp();
+
+        // 超出本地键数量上限，被淘汰的一个退还未消费的 9 个，保留的一个仍持有租约
+        assertThat(buckets(engine).estimatedSize()).isEqualTo(1);
+        assertThat(List.of(windowCount(KEY), windowCount(other))).containsExactlyInAnyOrder(1L, 10L);
+        // 被淘汰的键再次访问时重新租借
+        String evicted = windowCount(KEY) == 1 ? KEY : other;
+        assertThat(engine.tryAcquire("login", evicted, 100, WINDOW)).isTrue();
+        assertThat(windowCount(evicted)).isEqualTo(11);
+    }
+
+    @Test
+    void invalidatedBucketRefundsAndNeverGoesBelowZero() {
+        RateLimiterEngine engine = engine(redis.stringTemplate());
+        engine.tryAcquire("login", KEY, 100, WINDOW);
+        engine.tryAcquire("login", "login:ip:5.6.7.8", 100, WINDOW);
+        // 计数键已被删除（如 Redis 重启），退还时不能写出负数
+        redis.call("DEL", windowKey(KEY, System.currentTimeMillis() / WINDOW.toMillis()));
+
+        buckets(engine).invalidateAll();
+
+        assertThat(windowCount(KEY)).isZero();
+        assertThat(redis.call("GET", windowKey(KEY, System.currentTimeMillis() / WINDOW.toMillis()))).isNull();
+        assertThat(windowCount("login:ip:5.6.7.8")).isEqualTo(1);
+    }
+
+    @Test
+    void redisFailureFollowsFailOpenSetting() {
+        StringRedisTemplate broken = mock(StringRedisTemplate.class, invocation -> {
+            throw new RedisConnectionFailureException("Redis 不可用");
+        });
+
+        RateLimiterEngine open = engine(broken);
+        for (int i = 0; i < 5; i++) {
+            assertThat(open.tryAcquire("login", KEY, 5, WINDOW)).isTrue();
+        }
+        // 放行时仍受本地令牌桶约束
+        assertThat(open.tryAcquire("login", KEY, 5, WINDOW)).isFalse();
+
+        properties.setFailOpen(false);
+        RateLimiterEngine closed = engine(broken);
+        assertThat(closed.tryAcquire("login", KEY, 5, WINDOW)).isFalse();
+        assertThat(count("redis_error_rejected")).isEqualTo(1);
+    }
+
+    private RateLimiterEngine engine(StringRedisTemplate template) {
+        return new RateLimiterEngine(template, properties, meterRegistry, Runnable::run);
+    }
+
+    private long count(String result) {
+        return (long) meterRegistry.find("zhiyan.ratelimit.requests").tag("result", result).counters().stream()
+                .mapToDouble(Counter::count).sum();
+    }
+
+    private long windowCount(String key) {
+        Object value = redis.call("GET", windowKey(key, System.currentTimeMillis() / WINDOW.toMillis()));
+        return value == null ? 0 : Long.parseLong(value.toString());
+    }
+
+    /**
+     * 该限流键所有窗口计数之和，不受测试期间跨窗口的影响
+     */
+    private long totalCount(String key) {
+        long total = 0;
+        for (String windowKey : redis.stringTemplate().keys(properties.getKeyPrefix() + "{" + key + "}:*")) {
+            total += Long.parseLong(redis.call("GET", windowKey).toString());
+        }
+        return total;
+    }
+
+    private String windowKey(String key, long windowIndex) {
+        return properties.getKeyPrefix() + "{" + key + "}:" + windowIndex;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<String, ?> buckets(RateLimiterEngine engine) {
+        return (Cache<String, ?>) ReflectionTestUtils.getField(engine, "buckets");
+    }
+}
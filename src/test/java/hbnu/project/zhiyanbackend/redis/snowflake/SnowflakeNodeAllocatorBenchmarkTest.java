@@ -0,0 +1,132 @@
+package hbnu.project.zhiyanbackend.redis.snowflake;
+
+import hbnu.project.zhiyanbackend.basic.config.properties.SnowflakeProperties;
+import hbnu.project.zhiyanbackend.basic.utils.SnowflakeGenerator;
+import hbnu.project.zhiyanbackend.support.Benchmarks;
+import hbnu.project.zhiyanbackend.support.InMemoryRedis;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 雪花ID多节点发号基准：16 个模拟节点共 5000 万个ID，每轮之间一半节点下线、由新进程沿用其租约文件接替，
+ * 校验没有重复ID。
+ * 不同节点ID的ID在节点位上不同；同一节点ID在一轮内只有一个持有者且严格递增，跨轮时新持有者的最小ID大于前任的最大ID，
+ * 因此逐节点校验即可证明整体无重复，不需要把 5000 万个ID放进集合
+ *
+ * @author ErgouTree
+ */
+@Tag(Benchmarks.TAG)
+class SnowflakeNodeAllocatorBenchmarkTest {
+
+    private static final int NODES = 16;
+
+    private static final int ROUNDS = 5;
+
+    private static final int IDS_PER_NODE_PER_ROUND = 50_000_000 / NODES / ROUNDS;
+
+    private static final int BATCH = 1_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void fiftyMillionIdsAcrossNodesWithoutCollision() throws Exception {
+        InMemoryRedis redis = new InMemoryRedis();
+        List<AtomicReference<SnowflakeGenerator>> generators = new ArrayList<>();
+        List<SnowflakeNodeAllocator> allocators = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            start(redis, i, generators, allocators);
+        }
+        Map<Long, Long> maxIdByNode = new HashMap<>();
+        long total = 0;
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(NODES);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                List<Future<long[]>> futures = new ArrayList<>();
+                for (AtomicReference<SnowflakeGenerator> generator : generators) {
+                    futures.add(executor.submit(() -> issue(generator.get())));
+                }
+                Set<Long> activeNodeIds = new HashSet<>();
+                for (int i = 0; i < NODES; i++) {
+                    // {节点ID, 最小ID, 最大ID}
+                    long[] range = futures.get(i).get();
+                    assertThat(activeNodeIds.add(range[0])).as("同一轮内节点ID重复: %d", range[0]).isTrue();
+                    Long previousMax = maxIdByNode.get(range[0]);
+                    if (previousMax != null) {
+                        assertThat(range[1]).as("节点ID %d 的新持有者", range[0]).isGreaterThan(previousMax);
+                    }
+                    maxIdByNode.put(range[0], range[2]);
+                    total += IDS_PER_NODE_PER_ROUND;
+                }
+                // 一半节点续约，另一半下线后由新进程沿用同一个租约文件接替
+                for (int i = 0; i < NODES; i++) {
+                    if (i % 2 == round % 2) {
+                        allocators.get(i).heartbeat();
+                    } else {
+                        allocators.get(i).destroy();
+                        generators.remove(i);
+                        allocators.remove(i);
+                        start(redis, i, generators, allocators);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("[benchmark] 雪花ID %d 个节点 %d 轮共 %d 个ID无重复，共用到 %d 个节点ID，%.2f s，%.1f 万个/秒%n",
+                NODES, ROUNDS, total, maxIdByNode.size(), seconds, total / seconds / 10_000);
+        assertThat(total).isEqualTo(50_000_000L);
+    }
+
+    private void start(InMemoryRedis redis, int index, List<AtomicReference<SnowflakeGenerator>> generators,
+                       List<SnowflakeNodeAllocator> allocators) {
+        AtomicReference<SnowflakeGenerator> generator = new AtomicReference<>(new SnowflakeGenerator(0, 0L, 5L));
+        SnowflakeProperties properties = new SnowflakeProperties();
+        properties.setLeaseFile(directory.resolve("node-" + index + ".lease").toString());
+        SnowflakeNodeAllocator allocator = new SnowflakeNodeAllocator(redis.stringTemplate(), properties,
+                generator::get, generator::set);
+        allocator.afterPropertiesSet();
+        generators.add(index, generator);
+        allocators.add(index, allocator);
+    }
+
+    /**
+     * 发号并校验严格递增
+     *
+     * @return {节点ID, 最小ID, 最大ID}
+     */
+    private static long[] issue(SnowflakeGenerator generator) {
+        long min = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int issued = 0; issued < IDS_PER_NODE_PER_ROUND; issued += BATCH) {
+            long[] ids = generator.nextIds(BATCH);
+            for (long id : ids) {
+                if (id <= last) {
+                    throw new AssertionError("节点ID " + generator.getNodeId() + " 的ID未严格递增: " + id + " <= " + last);
+                }
+                last = id;
+            }
+            min = Math.min(min, ids[0]);
+        }
+        return new long[]{generator.getNodeId(), min, last};
+    }
+}
@@ -0,0 +1,253 @@
+package hbnu.project.zhiyanbackend.redis.snowflake;
+
+import hbnu.project.zhiyanbackend.basic.config.properties.SnowflakeProperties;
+import hbnu.project.zhiyanbackend.basic.utils.SnowflakeGenerator;
+import hbnu.project.zhiyanbackend.support.InMemoryRedis;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * SnowflakeNodeAllocator 测试
+ * 多个模拟节点共用一个进程内 Redis，覆盖租借竞争、续约、租约丢失后作废生成器、归还和本地租约文件兜底
+ *
+ * @author ErgouTree
+ */
+class SnowflakeNodeAllocatorTest {
+
+    private static final Duration TTL = Duration.ofSeconds(60);
+
+    private final InMemoryRedis redis = new InMemoryRedis();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void concurrentNodesLeaseDistinctIds() throws Exception {
+        int nodes = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(nodes);
+        try {
+            CountDownLatch ready = new CountDownLatch(nodes);
+            List<Future<Node>> futures = new ArrayList<>();
+            for (int i = 0; i < nodes; i++) {
+                String leaseFile = "node-" + i + ".lease";
+                futures.add(executor.submit(() -> {
+                    Node node = new Node(redis.stringTemplate(), leaseFile);
+                    ready.countDown();
+                    ready.await();
+                    node.start();
+                    return node;
+                }));
+            }
+            Set<Long> nodeIds = new HashSet<>();
+            for (Future<Node> future : futures) {
+                assertThat(nodeIds.add(future.get(30, TimeUnit.SECONDS).nodeId())).isTrue();
+            }
+            assertThat(nodeIds).hasSize(nodes);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void preferredIdAlreadyHeldFallsBackToAnotherId() throws Exception {
+        Node first = new Node(redis.stringTemplate(), "first.lease");
+        first.start();
+        // 第二个节点拿到了第一个节点的租约文件副本（例如镜像中带上了该文件）
+        Files.copy(directory.resolve("first.lease"), directory.resolve("second.lease"));
+        Node second = new Node(redis.stringTemplate(), "second.lease");
+
+        second.start();
+
+        assertThat(second.nodeId()).isNotEqualTo(first.nodeId());
+        assertThat(owner(first.nodeId())).isNotEqualTo(owner(second.nodeId())).isNotNull();
+    }
+
+    @Test
+    void heartbeatRenewsLeaseAndRecordsTimestamp() {
+        Node node = new Node(redis.stringTemplate(), "node.lease");
+        node.start();
+        long last = node.issue(1000);
+
+        for (int i = 0; i < 5; i++) {
+            redis.advance(TTL.dividedBy(2));
+            node.allocator.heartbeat();
+        }
+
+        assertThat(redis.call("PTTL", leaseKey(node.nodeId()))).isEqualTo(TTL.toMillis());
+        assertThat(Long.parseLong((String) redis.call("GET", leaseKey(node.nodeId()) + ":last")))
+                .isEqualTo(timestampOf(last));
+        node.generator.get().nextId();
+    }
+
+    @Test
+    void leaseLostToAnotherNodeRevokesGenerator() throws Exception {
+        Node paused = new Node(redis.stringTemplate(), "paused.lease");
+        paused.start();
+        long nodeId = paused.nodeId();
+        long pausedLast = paused.issue(5000);
+        paused.allocator.heartbeat();
+        SnowflakeGenerator pausedGenerator = paused.generator.get();
+
+        // 节点长时间停顿（例如 Full GC），租约过期后被优先选择该节点ID的新节点租走
+        redis.advance(TTL.plusSeconds(1));
+        Files.copy(directory.resolve("paused.lease"), directory.resolve("taker.lease"));
+        Node taker = new Node(redis.stringTemplate(), "taker.lease");
+        taker.start();
+        assertThat(taker.nodeId()).isEqualTo(nodeId);
+        assertThat(taker.generator.get().nextId()).isGreaterThan(pausedLast);
+
+        paused.allocator.heartbeat();
+
+        assertThat(pausedGenerator.isRevoked()).isTrue();
+        assertThatThrownBy(pausedGenerator::nextId).isInstanceOf(IllegalStateException.class);
+        assertThat(paused.nodeId()).isNotEqualTo(nodeId);
+        assertThat(owner(paused.nodeId())).isNotNull().isNotEqualTo(owner(nodeId));
+        paused.generator.get().nextId();
+    }
+
+    @Test
+    void releasedIdContinuesAfterPreviousHolder() throws Exception {
+        Node previous = new Node(redis.stringTemplate(), "previous.lease");
+        previous.start();
+        long nodeId = previous.nodeId();
+        long last = previous.issue(20_000);
+
+        previous.allocator.destroy();
+
+        assertThat(owner(nodeId)).isNull();
+        assertThat(Long.parseLong((String) redis.call("GET", leaseKey(nodeId) + ":last"))).isEqualTo(timestampOf(last));
+        Files.copy(directory.resolve("previous.lease"), directory.resolve("next.lease"));
+        Node next = new Node(redis.stringTemplate(), "next.lease");
+        next.start();
+        assertThat(next.nodeId()).isEqualTo(nodeId);
+        assertThat(next.generator.get().nextId()).isGreaterThan(last);
+    }
+
+    @Test
+    void redisDownUsesLeaseFileUntilRedisRecovers() throws Exception {
+        Node previous = new Node(redis.stringTemplate(), "node.lease");
+        previous.start();
+        long nodeId = previous.nodeId();
+        long last = previous.issue(20_000);
+        previous.allocator.destroy();
+
+        AtomicBoolean down = new AtomicBoolean(true);
+        Node restarted = new Node(flaky(down), "node.lease");
+        restarted.start();
+
+        // Redis 不可用，沿用租约文件中的节点ID并从记录的时间戳之后发号
+        assertThat(restarted.nodeId()).isEqualTo(nodeId);
+        assertThat(restarted.generator.get().nextId()).isGreaterThan(last);
+        assertThat(owner(nodeId)).isNull();
+        restarted.allocator.heartbeat();
+        assertThat(owner(nodeId)).isNull();
+
+        // Redis 恢复后补租同一个节点ID，生成器不变
+        down.set(false);
+        SnowflakeGenerator generator = restarted.generator.get();
+        restarted.allocator.heartbeat();
+
+        assertThat(owner(nodeId)).isNotNull();
+        assertThat(restarted.generator.get()).isSameAs(generator);
+        assertThat(generator.isRevoked()).isFalse();
+    }
+
+    @Test
+    void redisDownWithoutLeaseFileKeepsDefaultGenerator() {
+        Node node = new Node(flaky(new AtomicBoolean(true)), "missing.lease");
+        SnowflakeGenerator fallback = node.generator.get();
+
+        node.start();
+
+        assertThat(node.generator.get()).isSameAs(fallback);
+        assertThat(Files.exists(directory.resolve("missing.lease"))).isFalse();
+    }
+
+    private String owner(long nodeId) {
+        return (String) redis.call("GET", leaseKey(nodeId));
+    }
+
+    private static String leaseKey(long nodeId) {
+        return new SnowflakeProperties().getKeyPrefix() + "{" + nodeId + "}";
+    }
+
+    private static long timestampOf(long id) {
+        return (id >>> (SnowflakeGenerator.NODE_ID_BITS + SnowflakeGenerator.SEQUENCE_BITS)) + SnowflakeGenerator.EPOCH;
+    }
+
+    /**
+     * down 为 true 时所有调用抛出连接异常，否则转发给进程内 Redis
+     */
+    private StringRedisTemplate flaky(AtomicBoolean down) {
+        StringRedisTemplate target = redis.stringTemplate();
+        return mock(StringRedisTemplate.class, invocation -> {
+            if (down.get()) {
+                throw new RedisConnectionFailureException("Redis 不可用");
+            }
+            try {
+                return invocation.getMethod().invoke(target, invocation.getRawArguments());
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    /**
+     * 模拟节点：持有自己的生成器和租约文件
+     */
+    final class Node {
+
+        /**
+         * 未租到节点ID前使用的生成器，对应生产中按本机IP推算的节点ID
+         */
+        final AtomicReference<SnowflakeGenerator> generator =
+                new AtomicReference<>(new SnowflakeGenerator(0, 0L, 5L));
+
+        final SnowflakeNodeAllocator allocator;
+
+        Node(StringRedisTemplate template, String leaseFile) {
+            SnowflakeProperties properties = new SnowflakeProperties();
+            properties.setLeaseTtl(TTL);
+            properties.setLeaseFile(directory.resolve(leaseFile).toString());
+            allocator = new SnowflakeNodeAllocator(template, properties, generator::get, generator::set);
+        }
+
+        void start() {
+            allocator.afterPropertiesSet();
+        }
+
+        long nodeId() {
+            return generator.get().getNodeId();
+        }
+
+        /**
+         * 发号并返回最后一个ID
+         */
+        long issue(int count) {
+            long[] ids = generator.get().nextIds(count);
+            return ids[ids.length - 1];
+        }
+    }
+}
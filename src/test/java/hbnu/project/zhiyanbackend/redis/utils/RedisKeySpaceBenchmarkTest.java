@@ -0,0 +1,87 @@
+package hbnu.project.zhiyanbackend.redis.utils;
+
+import hbnu.project.zhiyanbackend.support.Benchmarks;
+import hbnu.project.zhiyanbackend.support.InMemoryRedis;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 键空间清理基准：100 万个键时，KEYS + 单条 DEL 与 SCAN + 流水线 UNLINK 分批删除对比，
+ * 统计清理期间另一个客户端单条命令的最大等待时间。替身与 Redis 一样串行执行命令，
+ * 单条命令处理的键越多，其他客户端被阻塞的时间越长
+ *
+ * @author ErgouTree
+ */
+@Tag(Benchmarks.TAG)
+class RedisKeySpaceBenchmarkTest {
+
+    private static final int KEYS = 1_000_000;
+
+    @Test
+    void probeLatencyWhileDeletingOneMillionKeys() throws Exception {
+        InMemoryRedis redis = new InMemoryRedis().installIntoRedisUtils();
+
+        fill(redis);
+        report("KEYS + DEL", probe(redis, () -> {
+            List<String> keys = new ArrayList<>(redis.stringTemplate().keys("user:roles:*"));
+            redis.call("DEL", keys.toArray());
+        }));
+
+        fill(redis);
+        report("SCAN + UNLINK", probe(redis, () -> RedisKeySpace.unlink("user:roles:*")));
+
+        fill(redis);
+        for (int i = 0; i < KEYS; i++) {
+            redis.call("SADD", "role:users:1", "user:roles:" + i);
+        }
+        report("索引 + UNLINK", probe(redis, () -> RedisKeySpace.unlinkIndexed("role:users:1")));
+    }
+
+    private static void fill(InMemoryRedis redis) {
+        for (int i = 0; i < KEYS; i++) {
+            redis.call("SET", "user:roles:" + i, "roles", "PX", String.valueOf(Duration.ofMinutes(30).toMillis()));
+        }
+    }
+
+    /**
+     * 清理期间另一个线程持续执行 GET，记录每次的耗时
+     */
+    private static long[] probe(InMemoryRedis redis, Runnable cleanup) throws InterruptedException {
+        System.gc();
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[] samples = new long[20_000_000];
+        int[] count = new int[1];
+        Thread client = new Thread(() -> {
+            while (running.get() && count[0] < samples.length) {
+                long start = System.nanoTime();
+                redis.call("GET", "token:blacklist:probe");
+                samples[count[0]++] = System.nanoTime() - start;
+            }
+        });
+        client.start();
+        long start = System.nanoTime();
+        cleanup.run();
+        long elapsed = System.nanoTime() - start;
+        running.set(false);
+        client.join();
+        long[] result = Arrays.copyOf(samples, count[0]);
+        Arrays.sort(result);
+        System.out.printf("[benchmark] 清理耗时 %.1f ms，探测命令 %d 次%n", elapsed / 1e6, result.length);
+        return result;
+    }
+
+    private static void report(String label, long[] sorted) {
+        System.out.printf("[benchmark] %s: 探测命令 p99=%.1f µs, p99.9=%.1f µs, max=%.1f ms（max 含 GC 停顿）%n",
+                label, percentile(sorted, 0.99) / 1_000.0, percentile(sorted, 0.999) / 1_000.0, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[Math.max(0, (int) Math.ceil(sorted.length * quantile) - 1)];
+    }
+}
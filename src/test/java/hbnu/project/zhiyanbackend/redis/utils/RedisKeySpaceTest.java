@@ -0,0 +1,141 @@
+package hbnu.project.zhiyanbackend.redis.utils;
+
+import hbnu.project.zhiyanbackend.support.InMemoryRedis;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * RedisKeySpace 测试
+ * 在进程内 Redis 替身上验证按模式分批删除、索引登记与按索引清理，
+ * 重点是清理过程中新登记的成员不会丢出索引
+ *
+ * @author ErgouTree
+ */
+class RedisKeySpaceTest {
+
+    private static final String INDEX = "role:users:1";
+
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    private final InMemoryRedis redis = new InMemoryRedis().installIntoRedisUtils();
+
+    @Test
+    void unlinkIndexedRemovesMembersAndIndex() {
+        cacheAndIndex(3_000);
+        redis.call("SET", "user:roles:unrelated", "v");
+
+        long unlinked = RedisKeySpace.unlinkIndexed(INDEX);
+
+        assertThat(unlinked).isEqualTo(3_000);
+        assertThat(RedisKeySpace.keys("user:roles:*")).containsExactly("user:roles:unrelated");
+        assertThat(redis.call("EXISTS", INDEX)).isEqualTo(0L);
+        assertThat(RedisKeySpace.keys("*:draining:*")).isEmpty();
+    }
+
+    @Test
+    void memberIndexedDuringDrainStaysIndexed() {
+        cacheAndIndex(5_000);
+        AtomicBoolean injected = new AtomicBoolean();
+        // 第一条删除命令执行前，另一个客户端读库后先登记索引再写缓存
+        redis.onCommand((command, args) -> {
+            if (command.equals("DEL") && injected.compareAndSet(false, true)) {
+                RedisKeySpace.index(List.of(INDEX), "user:roles:late", TTL);
+                redis.call("SET", "user:roles:late", "fresh");
+            }
+        });
+
+        long unlinked = RedisKeySpace.unlinkIndexed(INDEX);
+        redis.onCommand(null);
+
+        assertThat(injected).isTrue();
+        assertThat(unlinked).isEqualTo(5_000);
+        // 新登记的成员进入新的索引，下一次失效时能被清理
+        assertThat(redis.call("SMEMBERS", INDEX)).isEqualTo(List.of("user:roles:late"));
+        assertThat(redis.call("GET", "user:roles:late")).isEqualTo("fresh");
+        assertThat(RedisKeySpace.unlinkIndexed(INDEX)).isEqualTo(1);
+        assertThat(redis.call("EXISTS", "user:roles:late")).isEqualTo(0L);
+    }
+
+    @Test
+    void drainingKeyKeepsIndexTtl() {
+        cacheAndIndex(10);
+        AtomicLong drainingTtl = new AtomicLong(-3);
+        redis.onCommand((command, args) -> {
+            if (command.equals("DEL") && drainingTtl.get() == -3) {
+                drainingTtl.set(-2);
+                for (String key : RedisKeySpace.keys(INDEX + ":draining:*")) {
+                    drainingTtl.set((Long) redis.call("PTTL", key));
+                }
+            }
+        });
+
+        RedisKeySpace.unlinkIndexed(INDEX);
+        redis.onCommand(null);
+
+        // 清理中途进程退出时，临时键随原索引的过期时间自行消失
+        assertThat(drainingTtl.get()).isPositive().isLessThanOrEqualTo(TTL.toMillis());
+    }
+
+    @Test
+    void missingIndexIsNoop() {
+        long before = redis.size();
+
+        assertThat(RedisKeySpace.unlinkIndexed("role:users:404")).isZero();
+        assertThat(redis.size()).isEqualTo(before);
+    }
+
+    @Test
+    void indexRenewsTtlOnEveryRegistration() {
+        RedisKeySpace.index(List.of("role:users:1", "role:users:2"), "user:roles:7", TTL);
+        redis.advance(Duration.ofMinutes(20));
+        RedisKeySpace.index(List.of("role:users:1"), "user:roles:8", TTL);
+        redis.advance(Duration.ofMinutes(20));
+
+        assertThat(redis.call("SMEMBERS", "role:users:1")).isEqualTo(List.of("user:roles:7", "user:roles:8"));
+        assertThat(redis.call("EXISTS", "role:users:2")).isEqualTo(0L);
+    }
+
+    @Test
+    void unlinkByPatternDeletesInBoundedBatchesAndReportsProgress() {
+        for (int i = 0; i < 20_000; i++) {
+            redis.call("SET", "user:permissions:" + i, "p");
+        }
+        redis.call("SET", "user:roles:1", "r");
+        AtomicInteger largestCommand = new AtomicInteger();
+        redis.onCommand((command, args) -> {
+            if (command.equals("DEL")) {
+                largestCommand.accumulateAndGet(args.length, Math::max);
+            }
+        });
+        List<RedisKeySpace.Progress> progress = new ArrayList<>();
+
+        RedisKeySpace.Progress result = RedisKeySpace.unlink("user:permissions:*", 1_000, 200, progress::add);
+        redis.onCommand(null);
+
+        assertThat(result.finished()).isTrue();
+        assertThat(result.scanned()).isEqualTo(20_000);
+        assertThat(result.unlinked()).isEqualTo(20_000);
+        assertThat(largestCommand.get()).isLessThanOrEqualTo(200);
+        assertThat(progress).hasSizeGreaterThan(1);
+        assertThat(progress).extracting(RedisKeySpace.Progress::unlinked).isSorted();
+        assertThat(progress.getLast()).isEqualTo(result);
+        assertThat(RedisKeySpace.keys("*")).isEqualTo(Set.of("user:roles:1"));
+    }
+
+    private void cacheAndIndex(int users) {
+        for (int i = 0; i < users; i++) {
+            String cacheKey = "user:roles:" + i;
+            RedisKeySpace.index(List.of(INDEX), cacheKey, TTL);
+            redis.call("SET", cacheKey, "roles");
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package hbnu.project.zhiyanbackend.security.encrypt.core;
+
+import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
+import hbnu.project.zhiyanbackend.redis.utils.RedisUtils;
+import hbnu.project.zhiyanbackend.security.encrypt.config.properties.ApiDecryptProperties;
+import hbnu.project.zhiyanbackend.security.encrypt.model.CryptoHandshakeResponse;
+import hbnu.project.zhiyanbackend.security.encrypt.utils.RSAUtils;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.KeyAgreement;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * CryptoSessionManager 测试
+ * 按客户端流程验签、自行派生会话密钥，并验证会话只能被协商时的登录凭证使用
+ *
+ * @author ErgouTree
+ */
+class CryptoSessionManagerTest {
+
+    private final Map<String, Object> redis = new ConcurrentHashMap<>();
+
+    private Map<String, String> rsaKeys;
+
+    private CryptoSessionManager manager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        ValueOperations<String, Object> operations = mock(ValueOperations.class);
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(operations).set(anyString(), any(), any(Duration.class));
+        when(operations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        when(template.opsForValue()).thenReturn(operations);
+        ReflectionTestUtils.setField(RedisUtils.class, "redisTemplate", template);
+
+        rsaKeys = RSAUtils.generateKeyPair();
+        ApiDecryptProperties properties = new ApiDecryptProperties();
+        properties.setPrivateKey(rsaKeys.get("privateKey"));
+        properties.setPublicKey(rsaKeys.get("publicKey"));
+        manager = new CryptoSessionManager(properties);
+    }
+
+    @Test
+    void clientVerifiesSignatureAndDerivesSameKey() throws Exception {
+        KeyPair client = clientKeyPair();
+        String clientPublicKey = encode(client);
+
+        CryptoHandshakeResponse response = manager.handshake(clientPublicKey, bearer("token-a"));
+
+        String content = CryptoSessionManager.signedContent(response.getSessionId(), clientPublicKey,
+                response.getServerPublicKey(), response.getExpiresIn());
+        assertThat(RSAUtils.verify(content, response.getSignature(), rsaKeys.get("publicKey"))).isTrue();
+
+        SecretKey serverKey = manager.getKey(response.getSessionId(), bearer("token-a"));
+        assertThat(serverKey).isNotNull();
+        assertThat(serverKey.getEncoded()).isEqualTo(clientDerive(client, response));
+    }
+
+    @Test
+    void substitutedServerKeyFailsVerification() throws Exception {
+        KeyPair client = clientKeyPair();
+        String clientPublicKey = encode(client);
+        CryptoHandshakeResponse response = manager.handshake(clientPublicKey, bearer("token-a"));
+
+        // 中间人换成自己的 EC 公钥后签名不再匹配
+        String attackerKey = encode(clientKeyPair());
+        String forged = CryptoSessionManager.signedContent(response.getSessionId(), clientPublicKey,
+                attackerKey, response.getExpiresIn());
+        assertThat(RSAUtils.verify(forged, response.getSignature(), rsaKeys.get("publicKey"))).isFalse();
+
+        // 中间人替换了客户端公钥时，客户端按自己的公钥拼接也验签失败
+        String swappedClient = CryptoSessionManager.signedContent(response.getSessionId(), attackerKey,
+                response.getServerPublicKey(), response.getExpiresIn());
+        assertThat(RSAUtils.verify(swappedClient, response.getSignature(), rsaKeys.get("publicKey"))).isFalse();
+    }
+
+    @Test
+    void sessionIsBoundToHandshakeCredential() throws Exception {
+        CryptoHandshakeResponse response = manager.handshake(encode(clientKeyPair()), bearer("token-a"));
+        String sessionId = response.getSessionId();
+
+        assertThat(manager.getKey(sessionId, bearer("token-b"))).isNull();
+        assertThat(manager.getKey(sessionId, new MockHttpServletRequest())).isNull();
+
+        // 同一凭证通过 token 参数携带时仍可使用
+        MockHttpServletRequest byParameter = new MockHttpServletRequest();
+        byParameter.setParameter("token", "token-a");
+        assertThat(manager.getKey(sessionId, byParameter)).isNotNull();
+
+        // Redis 中不保存凭证原文
+        assertThat(redis.values()).allSatisfy(value -> assertThat(value.toString()).doesNotContain("token-a"));
+    }
+
+    @Test
+    void rememberMeCookieIsAcceptedAsCredential() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("remember_me_token", "remember-1"));
+
+        CryptoHandshakeResponse response = manager.handshake(encode(clientKeyPair()), request);
+
+        assertThat(manager.getKey(response.getSessionId(), request)).isNotNull();
+        assertThat(manager.getKey(response.getSessionId(), bearer("remember-1"))).isNotNull();
+    }
+
+    @Test
+    void handshakeWithoutCredentialIsRejected() throws Exception {
+        assertThatThrownBy(() -> manager.handshake(encode(clientKeyPair()), new MockHttpServletRequest()))
+                .isInstanceOf(ServiceException.class);
+        assertThat(redis).isEmpty();
+    }
+
+    @Test
+    void handshakeWithoutSigningKeyIsRejected() throws Exception {
+        ApiDecryptProperties properties = new ApiDecryptProperties();
+        CryptoSessionManager unsigned = new CryptoSessionManager(properties);
+
+        assertThatThrownBy(() -> unsigned.handshake(encode(clientKeyPair()), bearer("token-a")))
+                .isInstanceOf(ServiceException.class);
+        assertThat(redis).isEmpty();
+    }
+
+    @Test
+    void unknownSessionOrInvalidClientKey() throws Exception {
+        assertThat(manager.getKey("missing", bearer("token-a"))).isNull();
+        assertThat(manager.getKey(" ", bearer("token-a"))).isNull();
+
+        assertThatThrownBy(() -> manager.handshake("not-a-key", bearer("token-a")))
+                .isInstanceOf(ServiceException.class);
+        KeyPairGenerator p384 = KeyPairGenerator.getInstance("EC");
+        p384.initialize(new ECGenParameterSpec("secp384r1"));
+        String wrongCurve = Base64.getEncoder().encodeToString(p384.generateKeyPair().getPublic().getEncoded());
+        assertThatThrownBy(() -> manager.handshake(wrongCurve, bearer("token-a")))
+                .isInstanceOf(ServiceException.class);
+    }
+
+    static MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    static KeyPair clientKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    static String encode(KeyPair keyPair) {
+        return Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+    }
+
+    /**
+     * 客户端侧：ECDH 后按同样的 HKDF 参数派生
+     */
+    static byte[] clientDerive(KeyPair client, CryptoHandshakeResponse response) throws Exception {
+        KeyAgreement agreement = KeyAgreement.getInstance("ECDH");
+        agreement.init(client.getPrivate());
+        agreement.doPhase(KeyFactory.getInstance("EC").generatePublic(
+                new X509EncodedKeySpec(Base64.getDecoder().decode(response.getServerPublicKey()))), true);
+        return CryptoSessionManager.hkdf(agreement.generateSecret(),
+                response.getSessionId().getBytes(StandardCharsets.UTF_8));
+    }
+}
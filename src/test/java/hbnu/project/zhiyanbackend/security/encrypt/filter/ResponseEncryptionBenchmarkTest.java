@@ -0,0 +1,108 @@
+package hbnu.project.zhiyanbackend.security.encrypt.filter;
+
+import hbnu.project.zhiyanbackend.security.encrypt.annotation.ApiEncrypt;
+import hbnu.project.zhiyanbackend.security.encrypt.utils.RSAUtils;
+import hbnu.project.zhiyanbackend.support.Benchmarks;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * 响应加密基准：每次响应 RSA 加密随机 AES 密钥（旧模式）与协商会话密钥后 AES-GCM 流式加密对比，
+ * 输出单线程延迟分位数和多线程吞吐
+ *
+ * @author ErgouTree
+ */
+@Tag(Benchmarks.TAG)
+class ResponseEncryptionBenchmarkTest {
+
+    private static final int ITERATIONS = 5_000;
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    @Test
+    void perResponseRsaAgainstSessionKey() throws Exception {
+        String publicKey = RSAUtils.generateKeyPair().get("publicKey");
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        SecretKey sessionKey = new SecretKeySpec(secret, "AES");
+
+        for (int size : new int[]{1_024, 16_384, 262_144}) {
+            String body = body(size);
+            IntConsumer perResponse = i -> perResponse(body, publicKey);
+            IntConsumer session = i -> session(body, sessionKey);
+
+            Benchmarks.measure("旧模式 " + size + "B", ITERATIONS / 10, ITERATIONS, perResponse);
+            Benchmarks.measure("会话模式 " + size + "B", ITERATIONS / 10, ITERATIONS, session);
+            throughput("旧模式 " + size + "B", perResponse);
+            throughput("会话模式 " + size + "B", session);
+        }
+    }
+
+    private static void perResponse(String body, String publicKey) {
+        try {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            EncryptResponseBodyWrapper wrapper = new EncryptResponseBodyWrapper(response, ApiEncrypt.EncryptMode.FULL, null, null);
+            wrapper.getWriter().write(body);
+            response.getWriter().write(wrapper.getEncryptContent(response, publicKey, "encrypt-key"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void session(String body, SecretKey key) {
+        try {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            SessionEncryptResponseWrapper wrapper = new SessionEncryptResponseWrapper(response, key, "benchmark-session", "encrypt-iv");
+            wrapper.getWriter().write(body);
+            wrapper.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void throughput(String label, IntConsumer operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        operation.accept(i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("[benchmark] %s 吞吐: %.0f ops/s（%d 线程）%n", label, THREADS * ITERATIONS / seconds, THREADS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String body(int size) {
+        StringBuilder builder = new StringBuilder("{\"code\":200,\"data\":[");
+        int i = 0;
+        while (builder.length() < size) {
+            builder.append("{\"id\":").append(i).append(",\"name\":\"成果").append(i).append("\"},");
+            i++;
+        }
+        builder.setLength(builder.length() - 1);
+        return builder.append("]}").toString();
+    }
+}
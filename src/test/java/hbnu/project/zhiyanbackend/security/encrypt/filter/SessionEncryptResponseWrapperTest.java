@@ -0,0 +1,153 @@
+package hbnu.project.zhiyanbackend.security.encrypt.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SessionEncryptResponseWrapper 测试
+ * 按客户端的解密方式还原响应：IV 取自响应头，会话ID为附加认证数据，finish() 写出的 16 字节认证标签参与校验
+ *
+ * @author ErgouTree
+ */
+class SessionEncryptResponseWrapperTest {
+
+    private static final String IV_HEADER = "encrypt-iv";
+
+    private static final String SESSION_ID = "0f3c1e2d4b5a69788796a5b4c3d2e1f0";
+
+    private final SecretKey key = randomKey();
+
+    @Test
+    void writerOutputDecryptsWithSessionIdAsAad() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SessionEncryptResponseWrapper wrapper = new SessionEncryptResponseWrapper(response, key, SESSION_ID, IV_HEADER);
+
+        PrintWriter writer = wrapper.getWriter();
+        writer.write("{\"code\":200,\"msg\":\"操作成功\",");
+        writer.write("\"data\":[1,2,3]}");
+        wrapper.finish();
+
+        byte[] plain = decrypt(response, SESSION_ID);
+        assertThat(new String(plain, StandardCharsets.UTF_8)).isEqualTo("{\"code\":200,\"msg\":\"操作成功\",\"data\":[1,2,3]}");
+        // 密文 = 明文长度 + GCM 认证标签
+        assertThat(response.getContentAsByteArray()).hasSize(plain.length + 16);
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    }
+
+    @Test
+    void largeStreamedBodyRoundTrips() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SessionEncryptResponseWrapper wrapper = new SessionEncryptResponseWrapper(response, key, SESSION_ID, IV_HEADER);
+        byte[] body = new byte[1 << 20];
+        new SecureRandom().nextBytes(body);
+
+        // 分块写入，覆盖单字节与跨块写出
+        wrapper.getOutputStream().write(body[0]);
+        for (int offset = 1; offset < body.length; offset += 8191) {
+            wrapper.getOutputStream().write(body, offset, Math.min(8191, body.length - offset));
+        }
+        wrapper.finish();
+
+        assertThat(decrypt(response, SESSION_ID)).isEqualTo(body);
+    }
+
+    @Test
+    void emptyBodyStillCarriesTag() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SessionEncryptResponseWrapper wrapper = new SessionEncryptResponseWrapper(response, key, SESSION_ID, IV_HEADER);
+
+        wrapper.finish();
+
+        assertThat(response.getContentAsByteArray()).hasSize(16);
+        assertThat(decrypt(response, SESSION_ID)).isEmpty();
+    }
+
+    @Test
+    void wrongSessionIdOrTamperedBodyFailsAuthentication() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SessionEncryptResponseWrapper wrapper = new SessionEncryptResponseWrapper(response, key, SESSION_ID, IV_HEADER);
+        wrapper.getWriter().write("{\"secret\":\"value\"}");
+        wrapper.finish();
+
+        assertThatThrownBy(() -> decrypt(response, "another-session")).isInstanceOf(AEADBadTagException.class);
+
+        byte[] tampered = response.getContentAsByteArray().clone();
+        tampered[3] ^= 1;
+        assertThatThrownBy(() -> decrypt(tampered, response.getHeader(IV_HEADER), SESSION_ID))
+                .isInstanceOf(AEADBadTagException.class);
+
+        // 缺少 finish() 写出的标签时无法通过校验
+        byte[] truncated = Arrays.copyOf(response.getContentAsByteArray(), response.getContentAsByteArray().length - 16);
+        assertThatThrownBy(() -> decrypt(truncated, response.getHeader(IV_HEADER), SESSION_ID))
+                .isInstanceOf(AEADBadTagException.class);
+    }
+
+    @Test
+    void eachResponseUsesFreshIv() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        new SessionEncryptResponseWrapper(first, key, SESSION_ID, IV_HEADER).finish();
+        new SessionEncryptResponseWrapper(second, key, SESSION_ID, IV_HEADER).finish();
+
+        assertThat(Base64.getDecoder().decode(first.getHeader(IV_HEADER))).hasSize(12);
+        assertThat(first.getHeader(IV_HEADER)).isNotEqualTo(second.getHeader(IV_HEADER));
+    }
+
+    @Test
+    void contentLengthAndTypeAreAdjustedForCiphertext() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SessionEncryptResponseWrapper wrapper = new SessionEncryptResponseWrapper(response, key, SESSION_ID, IV_HEADER);
+
+        wrapper.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        wrapper.setContentLength(100);
+
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        assertThat(response.getContentLengthLong()).isEqualTo(116);
+    }
+
+    @Test
+    void resetIsAllowedOnlyBeforeOutputStarts() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SessionEncryptResponseWrapper wrapper = new SessionEncryptResponseWrapper(response, key, SESSION_ID, IV_HEADER);
+        String iv = response.getHeader(IV_HEADER);
+
+        wrapper.reset();
+        assertThat(response.getHeader(IV_HEADER)).isEqualTo(iv);
+
+        wrapper.getWriter().write("x");
+        assertThatThrownBy(wrapper::reset).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(wrapper::resetBuffer).isInstanceOf(IllegalStateException.class);
+    }
+
+    private byte[] decrypt(MockHttpServletResponse response, String sessionId) throws Exception {
+        return decrypt(response.getContentAsByteArray(), response.getHeader(IV_HEADER), sessionId);
+    }
+
+    private byte[] decrypt(byte[] body, String encodedIv, String sessionId) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, Base64.getDecoder().decode(encodedIv)));
+        cipher.updateAAD(sessionId.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(body);
+    }
+
+    private static SecretKey randomKey() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return new SecretKeySpec(bytes, "AES");
+    }
+}
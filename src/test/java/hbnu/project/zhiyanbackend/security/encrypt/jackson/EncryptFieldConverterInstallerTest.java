@@ -0,0 +1,74 @@
+package hbnu.project.zhiyanbackend.security.encrypt.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EncryptFieldConverterInstaller 测试
+ * 只有字段加密转换器真正会被 MVC 选中时才能跳过 JSON 二次解析
+ *
+ * @author ErgouTree
+ */
+class EncryptFieldConverterInstallerTest {
+
+    @Test
+    void replacesJackson2Converter() {
+        MappingJackson2HttpMessageConverter jackson2 = new MappingJackson2HttpMessageConverter(new ObjectMapper());
+        List<HttpMessageConverter<?>> converters = converters(new ByteArrayHttpMessageConverter(), new StringHttpMessageConverter(), jackson2);
+        EncryptFieldConverterInstaller installer = new EncryptFieldConverterInstaller(() -> true);
+
+        installer.extendMessageConverters(converters);
+
+        assertThat(installer.isInstalled()).isTrue();
+        assertThat(converters.get(2)).isInstanceOf(EncryptFieldHttpMessageConverter.class);
+        assertThat(((EncryptFieldHttpMessageConverter) converters.get(2)).getObjectMapper()).isSameAs(jackson2.getObjectMapper());
+    }
+
+    @Test
+    void jackson3ConverterKeepsReparsePath() {
+        List<HttpMessageConverter<?>> converters = converters(new StringHttpMessageConverter(), new JacksonJsonHttpMessageConverter());
+        EncryptFieldConverterInstaller installer = new EncryptFieldConverterInstaller(() -> true);
+
+        installer.extendMessageConverters(converters);
+
+        assertThat(installer.isInstalled()).isFalse();
+        assertThat(converters.get(1)).isInstanceOf(JacksonJsonHttpMessageConverter.class);
+    }
+
+    @Test
+    void jackson2BehindJackson3IsNotSelected() {
+        List<HttpMessageConverter<?>> converters = converters(
+                new JacksonJsonHttpMessageConverter(), new MappingJackson2HttpMessageConverter(new ObjectMapper()));
+        EncryptFieldConverterInstaller installer = new EncryptFieldConverterInstaller(() -> true);
+
+        installer.extendMessageConverters(converters);
+
+        assertThat(installer.isInstalled()).isFalse();
+    }
+
+    @Test
+    void nothingChangesWithoutModule() {
+        MappingJackson2HttpMessageConverter jackson2 = new MappingJackson2HttpMessageConverter(new ObjectMapper());
+        List<HttpMessageConverter<?>> converters = converters(jackson2);
+        EncryptFieldConverterInstaller installer = new EncryptFieldConverterInstaller(() -> false);
+
+        installer.extendMessageConverters(converters);
+
+        assertThat(installer.isInstalled()).isFalse();
+        assertThat(converters.get(0)).isSameAs(jackson2);
+    }
+
+    private static List<HttpMessageConverter<?>> converters(HttpMessageConverter<?>... converters) {
+        return new ArrayList<>(List.of(converters));
+    }
+}
@@ -0,0 +1,131 @@
+package hbnu.project.zhiyanbackend.security.encrypt.jackson;
+
+import cn.hutool.extra.spring.SpringUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hbnu.project.zhiyanbackend.security.encrypt.annotation.EncryptField;
+import hbnu.project.zhiyanbackend.security.encrypt.config.properties.EncryptorProperties;
+import hbnu.project.zhiyanbackend.security.encrypt.core.EncryptContext;
+import hbnu.project.zhiyanbackend.security.encrypt.core.EncryptorManager;
+import hbnu.project.zhiyanbackend.security.encrypt.core.FieldEncryptScope;
+import hbnu.project.zhiyanbackend.security.encrypt.utils.FieldEncryptUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EncryptFieldHttpMessageConverter 测试
+ * 验证请求体/响应体经转换器往返后字段还原、作用域之外保持明文，且与解析 JSON 的旧路径输出一致
+ *
+ * @author ErgouTree
+ */
+class EncryptFieldHttpMessageConverterTest {
+
+    private final EncryptorProperties properties = new EncryptorProperties();
+
+    private final EncryptorManager encryptorManager = new EncryptorManager();
+
+    private ObjectMapper objectMapper;
+
+    private EncryptFieldHttpMessageConverter converter;
+
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new EncryptFieldModule(encryptorManager, properties));
+        converter = new EncryptFieldHttpMessageConverter(objectMapper);
+        request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void responseFieldsAreEncryptedAndRequestFieldsRestored() throws Exception {
+        FieldEncryptScope.open(request, true, true);
+
+        String body = write(new Member("张三", "420102199001011234", ""));
+        JsonNode json = objectMapper.readTree(body);
+
+        assertThat(json.get("name").asText()).isEqualTo("张三");
+        assertThat(json.get("idCard").asText()).isNotEqualTo("420102199001011234")
+                .isEqualTo(encrypt("420102199001011234"));
+        // 空值不加密
+        assertThat(json.get("phone").asText()).isEmpty();
+
+        Member read = (Member) converter.read(Member.class, new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8)));
+        assertThat(read).isEqualTo(new Member("张三", "420102199001011234", ""));
+    }
+
+    @Test
+    void fieldsStayPlainOutsideScope() throws Exception {
+        Member member = new Member("李四", "420102199001015678", "13800000000");
+
+        // 没有开启作用域的请求
+        assertThat(objectMapper.readTree(write(member)).get("idCard").asText()).isEqualTo("420102199001015678");
+
+        // 处理器内部直接使用 ObjectMapper 不受作用域影响
+        FieldEncryptScope.open(request, true, true);
+        assertThat(objectMapper.readTree(objectMapper.writeValueAsString(member)).get("idCard").asText())
+                .isEqualTo("420102199001015678");
+
+        // 只开启请求解密时响应保持明文
+        FieldEncryptScope.open(request, true, false);
+        assertThat(objectMapper.readTree(write(member)).get("idCard").asText()).isEqualTo("420102199001015678");
+    }
+
+    @Test
+    void outputMatchesReparsePath() throws Exception {
+        installSpringObjectMapper(new ObjectMapper());
+        FieldEncryptUtils fieldEncryptUtils = new FieldEncryptUtils(properties, encryptorManager);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            members.add(new Member("成员" + i, "42010219900101" + (1000 + i), i % 3 == 0 ? null : "1380000" + (1000 + i)));
+        }
+        String plain = new ObjectMapper().writeValueAsString(members);
+
+        FieldEncryptScope.open(request, false, true);
+        assertThat(objectMapper.readTree(write(members)))
+                .isEqualTo(objectMapper.readTree(fieldEncryptUtils.encryptResponseFields(plain, Member.class)));
+    }
+
+    private String write(Object value) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(value, MediaType.APPLICATION_JSON, output);
+        return output.getBodyAsString(StandardCharsets.UTF_8);
+    }
+
+    private String encrypt(String value) throws Exception {
+        EncryptField encryptField = Member.class.getDeclaredField("idCard").getAnnotation(EncryptField.class);
+        EncryptContext context = EncryptContext.of(encryptField, properties);
+        return encryptorManager.encrypt(value, context);
+    }
+
+    /**
+     * FieldEncryptUtils 通过 JsonUtils 从容器获取 ObjectMapper
+     */
+    static void installSpringObjectMapper(ObjectMapper objectMapper) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("objectMapper", objectMapper);
+        ReflectionTestUtils.setField(SpringUtil.class, "beanFactory", beanFactory);
+    }
+}
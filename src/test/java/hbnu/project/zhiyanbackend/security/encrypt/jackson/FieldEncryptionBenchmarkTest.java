@@ -0,0 +1,106 @@
+package hbnu.project.zhiyanbackend.security.encrypt.jackson;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hbnu.project.zhiyanbackend.security.encrypt.config.properties.EncryptorProperties;
+import hbnu.project.zhiyanbackend.security.encrypt.core.EncryptorManager;
+import hbnu.project.zhiyanbackend.security.encrypt.core.FieldEncryptScope;
+import hbnu.project.zhiyanbackend.security.encrypt.utils.FieldEncryptUtils;
+import hbnu.project.zhiyanbackend.support.Benchmarks;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 字段加密基准：1000 条记录的列表响应/请求，序列化时加解密与先序列化再 readTree 加解密字段对比
+ *
+ * @author ErgouTree
+ */
+@Tag(Benchmarks.TAG)
+class FieldEncryptionBenchmarkTest {
+
+    private static final int ITEMS = 1_000;
+
+    private static final int ITERATIONS = 500;
+
+    private static final Type MEMBER_LIST = new TypeReference<List<Member>>() {
+    }.getType();
+
+    @Test
+    void inlineAgainstReparse() throws Exception {
+        EncryptorProperties properties = new EncryptorProperties();
+        EncryptorManager encryptorManager = new EncryptorManager();
+        ObjectMapper plainMapper = new ObjectMapper();
+        EncryptFieldHttpMessageConverterTest.installSpringObjectMapper(plainMapper);
+        FieldEncryptUtils fieldEncryptUtils = new FieldEncryptUtils(properties, encryptorManager);
+
+        ObjectMapper inlineMapper = new ObjectMapper();
+        inlineMapper.registerModule(new EncryptFieldModule(encryptorManager, properties));
+        EncryptFieldHttpMessageConverter converter = new EncryptFieldHttpMessageConverter(inlineMapper);
+
+        List<Member> members = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            members.add(new Member("成员" + i, "42010219900101" + (1000 + i), "1380000" + (1000 + i)));
+        }
+        String plain = plainMapper.writeValueAsString(members);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            FieldEncryptScope.open(request, true, true);
+            byte[] encrypted = write(converter, members).getBytes(StandardCharsets.UTF_8);
+
+            Benchmarks.measure("响应 序列化时加密", ITERATIONS / 5, ITERATIONS, i -> write(converter, members));
+            Benchmarks.measure("响应 序列化后解析加密", ITERATIONS / 5, ITERATIONS, i -> {
+                try {
+                    fieldEncryptUtils.encryptResponseFields(plainMapper.writeValueAsString(members), Member.class);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            Benchmarks.measure("请求 反序列化时解密", ITERATIONS / 5, ITERATIONS, i -> read(converter, encrypted));
+            Benchmarks.measure("请求 解析解密后反序列化", ITERATIONS / 5, ITERATIONS, i -> {
+                try {
+                    String decrypted = fieldEncryptUtils.decryptRequestFields(new String(encrypted, StandardCharsets.UTF_8), Member.class);
+                    plainMapper.readValue(decrypted, new TypeReference<List<Member>>() {
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            System.out.printf("[benchmark] 明文 %d 字节，密文 %d 字节%n", plain.length(), encrypted.length);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private static String write(EncryptFieldHttpMessageConverter converter, List<Member> members) {
+        try {
+            MockHttpOutputMessage output = new MockHttpOutputMessage();
+            converter.write(members, MEMBER_LIST, MediaType.APPLICATION_JSON, output);
+            return output.getBodyAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Object read(EncryptFieldHttpMessageConverter converter, byte[] body) {
+        try {
+            return converter.read(MEMBER_LIST, null, new MockHttpInputMessage(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package hbnu.project.zhiyanbackend.security.encrypt.jackson;
+
+import hbnu.project.zhiyanbackend.security.encrypt.annotation.EncryptField;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 字段加密测试用的成员信息（加密字段扫描会跳过内部类，这里单独成类）
+ *
+ * @author ErgouTree
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+class Member {
+
+    private String name;
+
+    @EncryptField
+    private String idCard;
+
+    @EncryptField
+    private String phone;
+}
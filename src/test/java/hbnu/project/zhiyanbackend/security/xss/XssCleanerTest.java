@@ -0,0 +1,240 @@
+package hbnu.project.zhiyanbackend.security.xss;
+
+import cn.hutool.http.HtmlUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.RepetitionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * XssCleaner 语料测试
+ * 以 Hutool {@link HtmlUtil#cleanHtmlTag(String)} 为基准：单个字符串的清理结果必须与其一致，
+ * JSON 流式清理的结果必须等于对原 JSON 每个字段名和字符串值分别调用基准清理后的结果
+ *
+ * @author ErgouTree
+ */
+class XssCleanerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final List<String> CORPUS = List.of(
+            "",
+            "plain text",
+            "中文内容，没有标签",
+            "a < b && c > d",
+            "1<2",
+            "<",
+            ">",
+            "<>",
+            "<script>alert(1)</script>",
+            "<SCRIPT SRC=//x.js></SCRIPT>",
+            "<img src=x onerror=alert(1)>",
+            "<a href=\"javascript:alert('x')\">link</a>",
+            "<<script>script>alert(1)<</script>/script>",
+            "</ b>",
+            "< / b>",
+            "<br/>",
+            "<br />",
+            "<div\nclass=\"x\">多行\n</div>",
+            "List<String> and Map<K, V>",
+            "&lt;script&gt;alert(1)&lt;/script&gt;",
+            "<svg><g/onload=alert(2)//<p>",
+            "<iframe src=\"data:text/html;base64,PHNjcmlwdD4=\"></iframe>",
+            "text <b>bold</b> <i>italic</i> tail",
+            "unterminated <b",
+            "emoji 😀 <span>😀</span>",
+            "<!-- comment -->visible",
+            "<![CDATA[x]]>",
+            "a<b<c<d>",
+            "=\"><script>x</script>"
+    );
+
+    private static final char[] ALPHABET = "<>/ =\"'&abcXYZ中文\n\t;:(){}[]!-".toCharArray();
+
+    @Test
+    void cleanMatchesHutoolOnCorpus() {
+        for (String value : CORPUS) {
+            assertThat(XssCleaner.clean(value)).isEqualTo(HtmlUtil.cleanHtmlTag(value));
+        }
+        assertThat(XssCleaner.clean(null)).isNull();
+    }
+
+    @RepeatedTest(20)
+    void cleanMatchesHutoolOnRandomStrings(RepetitionInfo repetition) {
+        Random random = new Random(repetition.getCurrentRepetition() * 31L);
+        for (int i = 0; i < 500; i++) {
+            String value = randomString(random, random.nextInt(40));
+            assertThat(XssCleaner.clean(value)).isEqualTo(HtmlUtil.cleanHtmlTag(value));
+        }
+    }
+
+    @Test
+    void cleanJsonCleansEveryStringOnCorpus() throws IOException {
+        ObjectNode root = JsonNodeFactory.instance.objectNode();
+        ArrayNode items = root.putArray("items");
+        for (String value : CORPUS) {
+            items.add(value);
+            root.put("<b>" + value.length() + "</b>", value);
+        }
+        root.putObject("nested").put("title", "<h1>标题</h1>").putArray("tags").add("<i>x</i>").add(1);
+
+        assertCleanedLikeOracle(MAPPER.writeValueAsString(root), Set.of());
+    }
+
+    @RepeatedTest(20)
+    void cleanJsonMatchesOracleOnRandomDocuments(RepetitionInfo repetition) throws IOException {
+        Random random = new Random(repetition.getCurrentRepetition() * 7919L);
+        Set<String> excluded = Set.of("content", "raw");
+        JsonNode document = randomNode(random, 0);
+
+        assertCleanedLikeOracle(MAPPER.writeValueAsString(document), excluded);
+    }
+
+    @Test
+    void excludedFieldsKeepValuesIncludingArrayElements() throws IOException {
+        String json = "{\"content\":\"List<String> <b>md</b>\",\"raw\":[\"<i>a</i>\",\"<p>\"],"
+                + "\"title\":\"<b>t</b>\",\"content2\":\"<b>c</b>\",\"wrap\":{\"content\":\"<u>u</u>\"}}";
+
+        JsonNode cleaned = readCleaned(json, Set.of("content", "raw"));
+
+        assertThat(cleaned.get("content").asText()).isEqualTo("List<String> <b>md</b>");
+        assertThat(cleaned.get("raw").get(0).asText()).isEqualTo("<i>a</i>");
+        assertThat(cleaned.get("raw").get(1).asText()).isEqualTo("<p>");
+        assertThat(cleaned.get("title").asText()).isEqualTo("t");
+        assertThat(cleaned.get("content2").asText()).isEqualTo("c");
+        assertThat(cleaned.get("wrap").get("content").asText()).isEqualTo("<u>u</u>");
+    }
+
+    @Test
+    void numbersAreCopiedVerbatim() throws IOException {
+        String json = "{\"id\":123456789012345678901234567890,\"ratio\":1.10,\"exp\":1E+3,\"neg\":-0.0}";
+
+        String cleaned = readCleanedText(json, Set.of());
+
+        assertThat(cleaned).isEqualTo(json);
+    }
+
+    @Test
+    void largeBodiesStreamAcrossChunks() throws IOException {
+        ArrayNode array = JsonNodeFactory.instance.arrayNode();
+        for (int i = 0; i < 20_000; i++) {
+            array.addObject().put("name", "<b>item" + i + "</b>").put("value", i);
+        }
+
+        JsonNode cleaned = readCleaned(MAPPER.writeValueAsString(array), Set.of());
+
+        assertThat(cleaned.size()).isEqualTo(20_000);
+        assertThat(cleaned.get(19_999).get("name").asText()).isEqualTo("item19999");
+        assertThat(cleaned.get(0).get("value").asInt()).isEqualTo(0);
+    }
+
+    @Test
+    void malformedJsonFailsWhileReading() {
+        assertThatThrownBy(() -> readCleanedText("{\"a\": \"<b>x</b>\",", Set.of()))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> readCleanedText("{\"a\" <b>}", Set.of()))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void emptyBodyStaysEmpty() throws IOException {
+        assertThat(readCleanedText("", Set.of())).isEmpty();
+        assertThat(readCleanedText("   ", Set.of())).isEmpty();
+    }
+
+    private static void assertCleanedLikeOracle(String json, Set<String> excluded) throws IOException {
+        JsonNode expected = oracle(MAPPER.readTree(json), excluded, false);
+        assertThat(readCleaned(json, excluded)).isEqualTo(expected);
+    }
+
+    /**
+     * 基准：字段名全部清理；字符串值按所在对象字段（数组取外层字段）是否在白名单中决定是否清理
+     */
+    private static JsonNode oracle(JsonNode node, Set<String> excluded, boolean inExcludedField) {
+        if (node.isObject()) {
+            ObjectNode result = JsonNodeFactory.instance.objectNode();
+            for (Map.Entry<String, JsonNode> entry : node.properties()) {
+                result.set(HtmlUtil.cleanHtmlTag(entry.getKey()),
+                        oracle(entry.getValue(), excluded, excluded.contains(entry.getKey())));
+            }
+            return result;
+        }
+        if (node.isArray()) {
+            ArrayNode result = JsonNodeFactory.instance.arrayNode();
+            node.forEach(element -> result.add(oracle(element, excluded, inExcludedField)));
+            return result;
+        }
+        if (node.isTextual() && !inExcludedField) {
+            return JsonNodeFactory.instance.textNode(HtmlUtil.cleanHtmlTag(node.asText()));
+        }
+        return node;
+    }
+
+    private static JsonNode readCleaned(String json, Set<String> excluded) throws IOException {
+        return MAPPER.readTree(readCleanedText(json, excluded));
+    }
+
+    private static String readCleanedText(String json, Set<String> excluded) throws IOException {
+        try (InputStream in = XssCleaner.cleanJson(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), excluded)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static JsonNode randomNode(Random random, int depth) {
+        int kind = depth >= 4 ? 2 + random.nextInt(3) : random.nextInt(5);
+        return switch (kind) {
+            case 0 -> {
+                ObjectNode object = JsonNodeFactory.instance.objectNode();
+                int size = random.nextInt(6);
+                for (int i = 0; i < size; i++) {
+                    String key = switch (random.nextInt(4)) {
+                        case 0 -> "content";
+                        case 1 -> "raw";
+                        default -> "k" + i + randomString(random, random.nextInt(4));
+                    };
+                    object.set(key, randomNode(random, depth + 1));
+                }
+                yield object;
+            }
+            case 1 -> {
+                ArrayNode array = JsonNodeFactory.instance.arrayNode();
+                int size = random.nextInt(6);
+                for (int i = 0; i < size; i++) {
+                    array.add(randomNode(random, depth + 1));
+                }
+                yield array;
+            }
+            case 2 -> JsonNodeFactory.instance.textNode(random.nextInt(4) == 0
+                    ? CORPUS.get(random.nextInt(CORPUS.size()))
+                    : randomString(random, random.nextInt(30)));
+            case 3 -> random.nextBoolean()
+                    ? JsonNodeFactory.instance.numberNode(random.nextLong())
+                    : JsonNodeFactory.instance.numberNode(random.nextDouble());
+            default -> random.nextBoolean()
+                    ? JsonNodeFactory.instance.booleanNode(random.nextBoolean())
+                    : JsonNodeFactory.instance.nullNode();
+        };
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package hbnu.project.zhiyanbackend.support;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 基准测试辅助
+ * 逐次计时并输出平均值与分位数。基准测试类统一标注 {@code @Tag("benchmark")}，
+ * 默认构建不运行，通过 {@code mvn test -Pbenchmark} 单独执行
+ *
+ * @author ErgouTree
+ */
+public final class Benchmarks {
+
+    public static final String TAG = "benchmark";
+
+    private Benchmarks() {
+    }
+
+    /**
+     * 预热后逐次计时
+     *
+     * @param label      输出标签
+     * @param warmup     预热次数
+     * @param iterations 计时次数
+     * @param operation  被测操作，参数为当前序号
+     * @return 统计结果
+     */
+    public static Result measure(String label, int warmup, int iterations, IntConsumer operation) {
+        for (int i = 0; i < warmup; i++) {
+            operation.accept(i);
+        }
+        long[] samples = new long[iterations];
+        long total = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            operation.accept(i);
+            samples[i] = System.nanoTime() - start;
+            total += samples[i];
+        }
+        Arrays.sort(samples);
+        Result result = new Result(label, (double) total / iterations,
+                percentile(samples, 0.50), percentile(samples, 0.99), samples[iterations - 1]);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * 整批计时，适合单次操作远小于计时精度的场景
+     *
+     * @return 平均每次耗时（纳秒）
+     */
+    public static double nanosPerOp(String label, int warmup, int iterations, IntConsumer operation) {
+        for (int i = 0; i < warmup; i++) {
+            operation.accept(i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.accept(i);
+        }
+        double nanos = (double) (System.nanoTime() - start) / iterations;
+        System.out.printf("[benchmark] %s: %.1f ns/op%n", label, nanos);
+        return nanos;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * 统计结果（纳秒）
+     */
+    public record Result(String label, double mean, long p50, long p99, long max) {
+
+        @Override
+        public String toString() {
+            return String.format("[benchmark] %s: mean=%.1f µs, p50=%.1f µs, p99=%.1f µs, max=%.1f µs",
+                    label, mean / 1_000, p50 / 1_000.0, p99 / 1_000.0, max / 1_000.0);
+        }
+    }
+}
@@ -0,0 +1,858 @@
+package hbnu.project.zhiyanbackend.support;
+
+import hbnu.project.zhiyanbackend.redis.utils.RedisUtils;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaInteger;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.VarArgFunction;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * 进程内 Redis 替身
+ * 所有命令在同一把锁内串行执行（与 Redis 单线程执行命令的语义一致），支持字符串、哈希、集合、列表和过期时间，时钟可手动推进。
+ * Lua 脚本由 LuaJ 执行，脚本中的 redis.call 落到同一份数据上，测试覆盖的是生产代码中的脚本原文。
+ * {@link #stringTemplate()} / {@link #template()} 返回按本替身应答的模板，未实现的方法抛出 UnsupportedOperationException，
+ * 用到新命令时在这里补充。
+ *
+ * @author ErgouTree
+ */
+public final class InMemoryRedis {
+
+    private static final Object OK = new Object();
+
+    private final NavigableMap<String, Object> data = new TreeMap<>();
+
+    private final Map<String, Long> expireAt = new HashMap<>();
+
+    private final Globals globals = JsePlatform.standardGlobals();
+
+    private final Map<String, LuaValue> compiledScripts = new HashMap<>();
+
+    private final ThreadLocal<List<Object>> pipeline = new ThreadLocal<>();
+
+    private final StringRedisTemplate stringTemplate;
+
+    private final RedisTemplate<String, Object> template;
+
+    private final ValueOperations<?, ?> valueOperations;
+
+    private final SetOperations<?, ?> setOperations;
+
+    private final HashOperations<?, ?, ?> hashOperations;
+
+    private final ListOperations<?, ?> listOperations;
+
+    private long now = System.currentTimeMillis();
+
+    private long commandCount;
+
+    private BiConsumer<String, Object[]> commandListener;
+
+    @SuppressWarnings("unchecked")
+    public InMemoryRedis() {
+        this.stringTemplate = mock(StringRedisTemplate.class, this::answerTemplate);
+        this.template = mock(RedisTemplate.class, this::answerTemplate);
+        this.valueOperations = mock(ValueOperations.class, this::answerValue);
+        this.setOperations = mock(SetOperations.class, this::answerSet);
+        this.hashOperations = mock(HashOperations.class, this::answerHash);
+        this.listOperations = mock(ListOperations.class, this::answerList);
+        installLuaApi();
+    }
+
+    public StringRedisTemplate stringTemplate() {
+        return stringTemplate;
+    }
+
+    public RedisTemplate<String, Object> template() {
+        return template;
+    }
+
+    /**
+     * 替换 RedisUtils 持有的静态模板，供通过 RedisUtils / RedisKeySpace 访问 Redis 的代码使用
+     */
+    public InMemoryRedis installIntoRedisUtils() {
+        ReflectionTestUtils.setField(RedisUtils.class, "redisTemplate", template);
+        ReflectionTestUtils.setField(RedisUtils.class, "stringRedisTemplate", stringTemplate);
+        return this;
+    }
+
+    /**
+     * 推进时钟，过期的键在下次访问时删除
+     */
+    public synchronized void advance(Duration duration) {
+        now += duration.toMillis();
+    }
+
+    public synchronized long currentTimeMillis() {
+        return now;
+    }
+
+    /**
+     * 已执行的命令数（脚本内的 redis.call 也计入）
+     */
+    public synchronized long commandCount() {
+        return commandCount;
+    }
+
+    /**
+     * 每条命令执行前回调，用于在命令之间插入并发操作；回调中可以再执行命令，传 null 取消
+     */
+    public synchronized void onCommand(BiConsumer<String, Object[]> listener) {
+        this.commandListener = listener;
+    }
+
+    public synchronized int size() {
+        purgeExpired();
+        return data.size();
+    }
+
+    /**
+     * 执行一条命令，参数和返回值与 Redis 协议一致：整数为 Long，字符串为 String，nil 为 null
+     */
+    public synchronized Object call(String command, Object... args) {
+        commandCount++;
+        String name = command.toUpperCase(Locale.ROOT);
+        if (commandListener != null) {
+            commandListener.accept(name, args);
+        }
+        return switch (name) {
+            case "GET" -> string(key(args, 0));
+            case "SET" -> set(args);
+            case "DEL", "UNLINK" -> {
+                long removed = 0;
+                for (Object key : args) {
+                    removed += remove(key.toString()) ? 1 : 0;
+                }
+                yield removed;
+            }
+            case "EXISTS" -> {
+                long count = 0;
+                for (Object key : args) {
+                    count += lookup(key.toString()) != null ? 1 : 0;
+                }
+                yield count;
+            }
+            case "EXPIRE" -> expire(key(args, 0), Long.parseLong(args[1].toString()) * 1000);
+            case "PEXPIRE" -> expire(key(args, 0), Long.parseLong(args[1].toString()));
+            case "PTTL" -> pttl(key(args, 0));
+            case "TTL" -> {
+                long pttl = pttl(key(args, 0));
+                yield pttl < 0 ? pttl : (pttl + 999) / 1000;
+            }
+            case "INCR" -> incrBy(key(args, 0), 1);
+            case "DECR" -> incrBy(key(args, 0), -1);
+            case "INCRBY" -> incrBy(key(args, 0), Long.parseLong(args[1].toString()));
+            case "DECRBY" -> incrBy(key(args, 0), -Long.parseLong(args[1].toString()));
+            case "RENAME" -> {
+                String from = key(args, 0);
+                Object value = lookup(from);
+                if (value == null) {
+                    throw new IllegalStateException("ERR no such key");
+                }
+                Long ttl = expireAt.remove(from);
+                data.remove(from);
+                String to = key(args, 1);
+                data.put(to, value);
+                if (ttl != null) {
+                    expireAt.put(to, ttl);
+                } else {
+                    expireAt.remove(to);
+                }
+                yield OK;
+            }
+            case "HGET" -> hash(key(args, 0), false).map(hash -> hash.get(args[1].toString())).orElse(null);
+            case "HSET" -> {
+                Map<String, String> hash = hash(key(args, 0), true).orElseThrow();
+                long added = 0;
+                for (int i = 1; i + 1 < args.length; i += 2) {
+                    added += hash.put(args[i].toString(), args[i + 1].toString()) == null ? 1 : 0;
+                }
+                yield added;
+            }
+            case "HDEL" -> {
+                Optional<Map<String, String>> hash = hash(key(args, 0), false);
+                long removed = 0;
+                for (int i = 1; i < args.length && hash.isPresent(); i++) {
+                    removed += hash.get().remove(args[i].toString()) != null ? 1 : 0;
+                }
+                dropIfEmpty(key(args, 0));
+                yield removed;
+            }
+            case "HGETALL" -> {
+                List<Object> flat = new ArrayList<>();
+                hash(key(args, 0), false).ifPresent(hash -> hash.forEach((field, value) -> {
+                    flat.add(field);
+                    flat.add(value);
+                }));
+                yield flat;
+            }
+            case "SADD" -> {
+                Set<String> set = set(key(args, 0), true).orElseThrow();
+                long added = 0;
+                for (int i = 1; i < args.length; i++) {
+                    added += set.add(args[i].toString()) ? 1 : 0;
+                }
+                yield added;
+            }
+            case "SREM" -> {
+                Optional<Set<String>> set = set(key(args, 0), false);
+                long removed = 0;
+                for (int i = 1; i < args.length && set.isPresent(); i++) {
+                    removed += set.get().remove(args[i].toString()) ? 1 : 0;
+                }
+                dropIfEmpty(key(args, 0));
+                yield removed;
+            }
+            case "SMEMBERS" -> new ArrayList<Object>(set(key(args, 0), false).orElse(Set.of()));
+            case "SCARD" -> (long) set(key(args, 0), false).map(Set::size).orElse(0);
+            case "SISMEMBER" -> set(key(args, 0), false).map(set -> set.contains(args[1].toString())).orElse(false) ? 1L : 0L;
+            case "SCAN" -> scan(data.navigableKeySet(), args, true);
+            case "SSCAN" -> scan(set(key(args, 0), false).map(set -> (NavigableSet<String>) set).orElse(Collections.emptyNavigableSet()),
+                    Arrays.copyOfRange(args, 1, args.length), false);
+            case "RPUSH" -> {
+                List<Object> list = list(key(args, 0), true).orElseThrow();
+                list.addAll(Arrays.asList(args).subList(1, args.length));
+                yield (long) list.size();
+            }
+            case "LLEN" -> (long) list(key(args, 0), false).map(List::size).orElse(0);
+            case "LRANGE" -> {
+                List<Object> list = list(key(args, 0), false).orElse(List.of());
+                int size = list.size();
+                long start = Long.parseLong(args[1].toString());
+                long stop = Long.parseLong(args[2].toString());
+                int from = (int) Math.max(0, start < 0 ? size + start : start);
+                int to = (int) Math.min(size - 1, stop < 0 ? size + stop : stop);
+                yield from > to ? new ArrayList<>() : new ArrayList<>(list.subList(from, to + 1));
+            }
+            // 没有订阅者，只计入命令数
+            case "PUBLISH" -> 0L;
+            case "TIME" -> List.of(String.valueOf(now / 1000), String.valueOf(now % 1000 * 1000));
+            default -> throw new UnsupportedOperationException("InMemoryRedis 未实现命令: " + name);
+        };
+    }
+
+    // ==================== 模板应答 ====================
+
+    private Object answerTemplate(InvocationOnMock invocation) {
+        Object[] args = invocation.getArguments();
+        Class<?> returnType = invocation.getMethod().getReturnType();
+        return switch (invocation.getMethod().getName()) {
+            case "opsForValue" -> valueOperations;
+            case "opsForSet" -> setOperations;
+            case "opsForHash" -> hashOperations;
+            case "opsForList" -> listOperations;
+            case "convertAndSend" -> record(call("PUBLISH", args[0], wrap(args[1])));
+            case "execute" -> {
+                if (args.length >= 2 && args[0] instanceof RedisScript<?> script && args[1] instanceof List<?> keys) {
+                    yield record(execute(script, keys, Arrays.copyOfRange(args, 2, args.length)));
+                }
+                throw unsupported(invocation);
+            }
+            case "executePipelined" -> {
+                if (args.length == 1 && args[0] instanceof SessionCallback<?> callback) {
+                    yield pipelined(callback, invocation.getMock());
+                }
+                throw unsupported(invocation);
+            }
+            case "hasKey" -> record((Long) call("EXISTS", args[0]) > 0);
+            case "delete", "unlink" -> {
+                Object[] keys = args[0] instanceof Collection<?> collection ? collection.toArray() : args;
+                Long removed = (Long) call("DEL", keys);
+                yield record(returnType == Boolean.class ? (Object) (removed > 0) : removed);
+            }
+            case "expire" -> record((Long) call("PEXPIRE", args[0], toMillis(args, 1)) == 1);
+            case "getExpire" -> {
+                long pttl = (Long) call("PTTL", args[0]);
+                if (pttl < 0) {
+                    yield pttl;
+                }
+                TimeUnit unit = args.length > 1 ? (TimeUnit) args[1] : TimeUnit.SECONDS;
+                yield unit.convert(pttl, TimeUnit.MILLISECONDS);
+            }
+            case "rename" -> {
+                call("RENAME", args[0], args[1]);
+                yield null;
+            }
+            case "keys" -> new LinkedHashSet<>(matchingKeys(args[0].toString()));
+            case "scan" -> {
+                ScanOptions options = (ScanOptions) args[0];
+                yield scanCursor(after -> (List<?>) call("SCAN", after, scanCount(options), options.getPattern()));
+            }
+            case "toString" -> "InMemoryRedis template";
+            default -> throw unsupported(invocation);
+        };
+    }
+
+    private Object answerValue(InvocationOnMock invocation) {
+        Object[] args = invocation.getArguments();
+        return switch (invocation.getMethod().getName()) {
+            case "get" -> record(unwrap(call("GET", args[0])));
+            case "set" -> {
+                if (args.length == 2) {
+                    call("SET", args[0], wrap(args[1]));
+                } else {
+                    call("SET", args[0], wrap(args[1]), "PX", toMillis(args, 2));
+                }
+                yield record(null);
+            }
+            case "setIfAbsent", "setIfPresent" -> {
+                String condition = invocation.getMethod().getName().equals("setIfAbsent") ? "NX" : "XX";
+                Object result = args.length == 2
+                        ? call("SET", args[0], wrap(args[1]), condition)
+                        : call("SET", args[0], wrap(args[1]), condition, "PX", toMillis(args, 2));
+                yield record(result != null);
+            }
+            case "increment" -> record(call("INCRBY", args[0], args.length > 1 ? args[1] : 1L));
+            case "decrement" -> record(call("DECRBY", args[0], args.length > 1 ? args[1] : 1L));
+            case "getAndDelete" -> {
+                Object value = unwrap(call("GET", args[0]));
+                call("DEL", args[0]);
+                yield record(value);
+            }
+            case "multiGet" -> {
+                List<Object> values = new ArrayList<>();
+                for (Object key : (Collection<?>) args[0]) {
+                    values.add(unwrap(call("GET", key)));
+                }
+                yield record(values);
+            }
+            case "toString" -> "InMemoryRedis value operations";
+            default -> throw unsupported(invocation);
+        };
+    }
+
+    private Object answerList(InvocationOnMock invocation) {
+        Object[] args = invocation.getArguments();
+        return switch (invocation.getMethod().getName()) {
+            case "rightPush" -> record(call("RPUSH", args[0], wrap(args[1])));
+            case "size" -> record(call("LLEN", args[0]));
+            case "range" -> {
+                List<Object> values = new ArrayList<>();
+                for (Object value : (List<?>) call("LRANGE", args[0], args[1], args[2])) {
+                    values.add(unwrap(value));
+                }
+                yield record(values);
+            }
+            case "toString" -> "InMemoryRedis list operations";
+            default -> throw unsupported(invocation);
+        };
+    }
+
+    private Object answerSet(InvocationOnMock invocation) {
+        Object[] args = invocation.getArguments();
+        return switch (invocation.getMethod().getName()) {
+            case "add" -> record(call("SADD", args));
+            case "remove" -> record(call("SREM", args));
+            case "isMember" -> record((Long) call("SISMEMBER", args[0], args[1]) == 1);
+            case "size" -> record(call("SCARD", args[0]));
+            case "members" -> {
+                @SuppressWarnings("unchecked")
+                List<Object> members = (List<Object>) call("SMEMBERS", args[0]);
+                yield record(new LinkedHashSet<>(members));
+            }
+            case "scan" -> {
+                ScanOptions options = (ScanOptions) args[1];
+                yield scanCursor(after -> (List<?>) call("SSCAN", args[0], after, scanCount(options), options.getPattern()));
+            }
+            case "toString" -> "InMemoryRedis set operations";
+            default -> throw unsupported(invocation);
+        };
+    }
+
+    private Object answerHash(InvocationOnMock invocation) {
+        Object[] args = invocation.getArguments();
+        return switch (invocation.getMethod().getName()) {
+            case "get" -> record(call("HGET", args[0], args[1]));
+            case "put" -> {
+                call("HSET", args[0], args[1], args[2]);
+                yield record(null);
+            }
+            case "putAll" -> {
+                List<Object> flat = new ArrayList<>();
+                flat.add(args[0]);
+                ((Map<?, ?>) args[1]).forEach((field, value) -> {
+                    flat.add(field);
+                    flat.add(value);
+                });
+                call("HSET", flat.toArray());
+                yield record(null);
+            }
+            case "delete" -> record(call("HDEL", args));
+            case "hasKey" -> record(call("HGET", args[0], args[1]) != null);
+            case "entries" -> {
+                List<?> flat = (List<?>) call("HGETALL", args[0]);
+                Map<Object, Object> entries = new LinkedHashMap<>();
+                for (int i = 0; i + 1 < flat.size(); i += 2) {
+                    entries.put(flat.get(i), flat.get(i + 1));
+                }
+                yield record(entries);
+            }
+            case "size" -> record((long) ((List<?>) call("HGETALL", args[0])).size() / 2);
+            case "toString" -> "InMemoryRedis hash operations";
+            default -> throw unsupported(invocation);
+        };
+    }
+
+    /**
+     * RedisTemplate 写入的非字符串对象原样保存，与 Redis 的集合、哈希类型区分开
+     */
+    private static Object wrap(Object value) {
+        return value instanceof String ? value : new StoredObject(value);
+    }
+
+    private static Object unwrap(Object value) {
+        return value instanceof StoredObject stored ? stored.value() : value;
+    }
+
+    private Object record(Object result) {
+        List<Object> results = pipeline.get();
+        if (results != null) {
+            results.add(result);
+        }
+        return result;
+    }
+
+    private List<Object> pipelined(SessionCallback<?> callback, Object operations) {
+        List<Object> outer = pipeline.get();
+        List<Object> results = new ArrayList<>();
+        pipeline.set(results);
+        try {
+            callback.execute((RedisOperations<?, ?>) operations);
+        } finally {
+            pipeline.set(outer);
+        }
+        return results;
+    }
+
+    private static UnsupportedOperationException unsupported(InvocationOnMock invocation) {
+        return new UnsupportedOperationException("InMemoryRedis 未实现: " + invocation.getMethod());
+    }
+
+    private static long toMillis(Object[] args, int index) {
+        if (args[index] instanceof Duration duration) {
+            return duration.toMillis();
+        }
+        return ((TimeUnit) args[index + 1]).toMillis(((Number) args[index]).longValue());
+    }
+
+    // ==================== Lua ====================
+
+    private synchronized Object execute(RedisScript<?> script, List<?> keys, Object[] argv) {
+        LuaValue chunk = compiledScripts.computeIfAbsent(script.getScriptAsString(),
+                source -> globals.load(source, "=script"));
+        globals.set("KEYS", luaArray(keys.toArray()));
+        globals.set("ARGV", luaArray(argv));
+        Object result;
+        try {
+            result = fromLua(chunk.call());
+        } catch (LuaError e) {
+            throw new RedisSystemException("脚本执行失败: " + e.getMessage(), e);
+        }
+        Class<?> resultType = script.getResultType();
+        if (resultType == Boolean.class) {
+            return result != null && !Long.valueOf(0).equals(result);
+        }
+        return result == OK ? "OK" : result;
+    }
+
+    private void installLuaApi() {
+        LuaTable redis = new LuaTable();
+        redis.set("call", new VarArgFunction() {
+            @Override
+            public Varargs invoke(Varargs args) {
+                return callFromLua(args);
+            }
+        });
+        redis.set("pcall", new VarArgFunction() {
+            @Override
+            public Varargs invoke(Varargs args) {
+                try {
+                    return callFromLua(args);
+                } catch (LuaError e) {
+                    return errorTable(e.getMessage());
+                }
+            }
+        });
+        redis.set("error_reply", new VarArgFunction() {
+            @Override
+            public Varargs invoke(Varargs args) {
+                return errorTable(args.checkjstring(1));
+            }
+        });
+        redis.set("status_reply", new VarArgFunction() {
+            @Override
+            public Varargs invoke(Varargs args) {
+                LuaTable status = new LuaTable();
+                status.set("ok", args.checkjstring(1));
+                return status;
+            }
+        });
+        globals.set("redis", redis);
+    }
+
+    private Varargs callFromLua(Varargs args) {
+        Object[] commandArgs = new Object[args.narg() - 1];
+        for (int i = 2; i <= args.narg(); i++) {
+            LuaValue value = args.arg(i);
+            if (value.type() != LuaValue.TSTRING && value.type() != LuaValue.TNUMBER) {
+                throw new LuaError("Lua redis() command arguments must be strings or integers");
+            }
+            commandArgs[i - 2] = value.tojstring();
+        }
+        try {
+            return toLua(call(args.checkjstring(1), commandArgs));
+        } catch (RuntimeException e) {
+            throw new LuaError(e.getMessage());
+        }
+    }
+
+    private static LuaTable errorTable(String message) {
+        LuaTable error = new LuaTable();
+        error.set("err", message);
+        return error;
+    }
+
+    private static LuaTable luaArray(Object[] values) {
+        LuaTable table = new LuaTable();
+        for (int i = 0; i < values.length; i++) {
+            table.set(i + 1, LuaValue.valueOf(String.valueOf(values[i])));
+        }
+        return table;
+    }
+
+    private static LuaValue toLua(Object value) {
+        if (value == null) {
+            return LuaValue.FALSE;
+        }
+        if (value == OK) {
+            LuaTable status = new LuaTable();
+            status.set("ok", "OK");
+            return status;
+        }
+        if (value instanceof Number number) {
+            return LuaInteger.valueOf(number.longValue());
+        }
+        if (value instanceof List<?> list) {
+            LuaTable table = new LuaTable();
+            for (int i = 0; i < list.size(); i++) {
+                table.set(i + 1, toLua(list.get(i)));
+            }
+            return table;
+        }
+        return LuaValue.valueOf(value.toString());
+    }
+
+    private static Object fromLua(LuaValue value) {
+        return switch (value.type()) {
+            case LuaValue.TNUMBER -> (long) value.todouble();
+            case LuaValue.TSTRING -> value.tojstring();
+            case LuaValue.TBOOLEAN -> value.toboolean() ? 1L : null;
+            case LuaValue.TTABLE -> {
+                if (value.get("err").isstring()) {
+                    throw new LuaError(value.get("err").tojstring());
+                }
+                if (value.get("ok").isstring()) {
+                    yield value.get("ok").tojstring();
+                }
+                List<Object> list = new ArrayList<>();
+                for (int i = 1; !value.get(i).isnil(); i++) {
+                    list.add(fromLua(value.get(i)));
+                }
+                yield list;
+            }
+            default -> null;
+        };
+    }
+
+    // ==================== 数据 ====================
+
+    private Object set(Object[] args) {
+        String key = key(args, 0);
+        boolean nx = false;
+        boolean xx = false;
+        boolean keepTtl = false;
+        long ttl = -1;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i].toString().toUpperCase(Locale.ROOT)) {
+                case "NX" -> nx = true;
+                case "XX" -> xx = true;
+                case "KEEPTTL" -> keepTtl = true;
+                case "PX" -> ttl = Long.parseLong(args[++i].toString());
+                case "EX" -> ttl = Long.parseLong(args[++i].toString()) * 1000;
+                default -> throw new IllegalStateException("ERR syntax error");
+            }
+        }
+        boolean exists = lookup(key) != null;
+        if ((nx && exists) || (xx && !exists)) {
+            return null;
+        }
+        data.put(key, args[1]);
+        if (ttl > 0) {
+            expireAt.put(key, now + ttl);
+        } else if (!keepTtl) {
+            expireAt.remove(key);
+        }
+        return OK;
+    }
+
+    private Object string(String key) {
+        Object value = lookup(key);
+        if (value instanceof Map || value instanceof Set || value instanceof List) {
+            throw new IllegalStateException("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+        return value;
+    }
+
+    private long incrBy(String key, long delta) {
+        Object current = string(key);
+        long value;
+        try {
+            value = current == null ? 0 : Long.parseLong(current.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("ERR value is not an integer or out of range");
+        }
+        value += delta;
+        Long ttl = expireAt.get(key);
+        data.put(key, String.valueOf(value));
+        if (ttl == null) {
+            expireAt.remove(key);
+        }
+        return value;
+    }
+
+    private long expire(String key, long millis) {
+        if (lookup(key) == null) {
+            return 0;
+        }
+        if (millis <= 0) {
+            remove(key);
+        } else {
+            expireAt.put(key, now + millis);
+        }
+        return 1;
+    }
+
+    private long pttl(String key) {
+        if (lookup(key) == null) {
+            return -2;
+        }
+        Long at = expireAt.get(key);
+        return at == null ? -1 : at - now;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<Map<String, String>> hash(String key, boolean create) {
+        Object value = lookup(key);
+        if (value == null && create) {
+            value = new LinkedHashMap<String, String>();
+            data.put(key, value);
+        }
+        if (value != null && !(value instanceof Map)) {
+            throw new IllegalStateException("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+        return Optional.ofNullable((Map<String, String>) value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<Set<String>> set(String key, boolean create) {
+        Object value = lookup(key);
+        if (value == null && create) {
+            value = new TreeSet<String>();
+            data.put(key, value);
+        }
+        if (value != null && !(value instanceof Set)) {
+            throw new IllegalStateException("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+        return Optional.ofNullable((Set<String>) value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<List<Object>> list(String key, boolean create) {
+        Object value = lookup(key);
+        if (value == null && create) {
+            value = new ArrayList<>();
+            data.put(key, value);
+        }
+        if (value != null && !(value instanceof List)) {
+            throw new IllegalStateException("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+        return Optional.ofNullable((List<Object>) value);
+    }
+
+    private void dropIfEmpty(String key) {
+        Object value = data.get(key);
+        if ((value instanceof Map<?, ?> map && map.isEmpty()) || (value instanceof Set<?> set && set.isEmpty())) {
+            remove(key);
+        }
+    }
+
+    private Object lookup(String key) {
+        Long at = expireAt.get(key);
+        if (at != null && at <= now) {
+            remove(key);
+            return null;
+        }
+        return data.get(key);
+    }
+
+    private boolean remove(String key) {
+        Long at = expireAt.remove(key);
+        return data.remove(key) != null && (at == null || at > now);
+    }
+
+    private void purgeExpired() {
+        new ArrayList<>(expireAt.keySet()).forEach(this::lookup);
+    }
+
+    private synchronized List<String> matchingKeys(String pattern) {
+        purgeExpired();
+        if (pattern == null) {
+            return new ArrayList<>(data.keySet());
+        }
+        return data.keySet().stream().filter(globPattern(pattern).asMatchPredicate()).toList();
+    }
+
+    private static String key(Object[] args, int index) {
+        return args[index].toString();
+    }
+
+    /**
+     * Redis glob 模式（* ? 与转义）转正则
+     */
+    private static Pattern globPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                case '\\' -> regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * SCAN / SSCAN：从游标（上一批最后一个键）之后检查 count 个元素，返回 [下一游标, 匹配的元素...]，遍历完时下一游标为 null。
+     * 按键有序遍历，批次之间的增删不影响游标，与 Redis 的保证一致：全程存在的元素一定会返回
+     */
+    private List<Object> scan(NavigableSet<String> source, Object[] args, boolean checkExpiry) {
+        String after = (String) args[0];
+        int count = ((Number) args[1]).intValue();
+        Pattern pattern = args.length > 2 && args[2] != null ? globPattern(args[2].toString()) : null;
+        Iterator<String> iterator = (after == null ? source : source.tailSet(after, false)).iterator();
+        List<Object> reply = new ArrayList<>();
+        reply.add(null);
+        List<String> expired = new ArrayList<>();
+        String last = null;
+        for (int examined = 0; examined < count && iterator.hasNext(); examined++) {
+            last = iterator.next();
+            Long at = checkExpiry ? expireAt.get(last) : null;
+            if (at != null && at <= now) {
+                expired.add(last);
+            } else if (pattern == null || pattern.matcher(last).matches()) {
+                reply.add(last);
+            }
+        }
+        if (iterator.hasNext()) {
+            reply.set(0, last);
+        }
+        expired.forEach(this::remove);
+        return reply;
+    }
+
+    private static int scanCount(ScanOptions options) {
+        return options.getCount() != null ? options.getCount().intValue() : 10;
+    }
+
+    /**
+     * 按批次拉取的游标，每批是一条 SCAN 命令
+     */
+    private static Cursor<String> scanCursor(Function<String, List<?>> fetch) {
+        return new Cursor<>() {
+            private final Deque<String> buffer = new ArrayDeque<>();
+            private String after;
+            private boolean done;
+            private boolean closed;
+            private long position;
+
+            @Override
+            public CursorId getId() {
+                return CursorId.of(position);
+            }
+
+            @Override
+            @Deprecated
+            public long getCursorId() {
+                return position;
+            }
+
+            @Override
+            public boolean isClosed() {
+                return closed;
+            }
+
+            @Override
+            public long getPosition() {
+                return position;
+            }
+
+            @Override
+            public boolean hasNext() {
+                while (buffer.isEmpty() && !done) {
+                    List<?> reply = fetch.apply(after);
+                    after = (String) reply.get(0);
+                    done = after == null;
+                    for (int i = 1; i < reply.size(); i++) {
+                        buffer.add((String) reply.get(i));
+                    }
+                }
+                return !buffer.isEmpty();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                position++;
+                return buffer.poll();
+            }
+
+            @Override
+            public void close() {
+                closed = true;
+            }
+        };
+    }
+
+    private record StoredObject(Object value) {
+    }
+}
@@ -0,0 +1,187 @@
+package hbnu.project.zhiyanbackend.tasks.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * HierarchicalTimingWheel 测试
+ * 使用 10ms 一格、每层 4 格的小时间轮，让条目在较短时间内跨越多层，覆盖逐层降级、取消与重新调度、边界格触发
+ *
+ * @author ErgouTree
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 10L;
+
+    private static final int SIZE = 4;
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    void entryFiresExactlyOnBoundaryTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, START);
+        wheel.schedule("a", START + 30);
+
+        assertThat(wheel.advanceTo(START + 29)).isEmpty();
+        assertThat(wheel.advanceTo(START + 30)).containsExactly("a");
+        assertThat(wheel.advanceTo(START + 40)).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void expireBetweenTicksIsRoundedUpNotDown() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, START);
+        wheel.schedule("a", START + 31);
+
+        assertThat(wheel.advanceTo(START + 39)).isEmpty();
+        assertThat(wheel.advanceTo(START + 40)).containsExactly("a");
+    }
+
+    @Test
+    void entriesCascadeThroughLevels() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, START);
+        // 第 0 层覆盖 40ms，第 1 层 160ms，第 2 层 640ms，第 3 层 2560ms
+        Map<String, Long> expireAt = Map.of(
+                "level0", START + 20,
+                "level1", START + 150,
+                "level2", START + 630,
+                "level3", START + 2_550,
+                "level4", START + 9_990);
+        expireAt.forEach(wheel::schedule);
+
+        Map<String, Long> firedAt = new HashMap<>();
+        for (long now = START; now <= START + 10_000; now += TICK) {
+            for (String key : wheel.advanceTo(now)) {
+                assertThat(firedAt.put(key, now)).as("%s 重复触发", key).isNull();
+            }
+        }
+
+        assertThat(firedAt).isEqualTo(expireAt);
+    }
+
+    @Test
+    void randomScheduleMatchesReferenceWithIrregularAdvances() {
+        Random random = new Random(42);
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, START + 7);
+        Map<Integer, Long> expected = new HashMap<>();
+        long now = START + 7;
+        int nextKey = 0;
+        Map<Integer, Long> firedAt = new HashMap<>();
+        for (int step = 0; step < 3_000; step++) {
+            // 在推进过程中随机调度、重新调度、取消
+            int action = random.nextInt(10);
+            if (action < 5) {
+                long expireAt = now + random.nextInt(5_000) - 20;
+                wheel.schedule(nextKey, expireAt);
+                expected.put(nextKey++, expireAt);
+            } else if (action < 7 && nextKey > 0) {
+                int key = random.nextInt(nextKey);
+                if (expected.containsKey(key)) {
+                    long expireAt = now + random.nextInt(3_000);
+                    wheel.schedule(key, expireAt);
+                    expected.put(key, expireAt);
+                }
+            } else if (action < 8 && nextKey > 0) {
+                int key = random.nextInt(nextKey);
+                assertThat(wheel.cancel(key)).isEqualTo(expected.remove(key) != null);
+            }
+            now += random.nextInt(25);
+            for (Integer key : wheel.advanceTo(now)) {
+                Long expireAt = expected.remove(key);
+                assertThat(expireAt).as("键 %d 不应触发", key).isNotNull();
+                // 不提前，且最多晚一格
+                assertThat(now).isGreaterThanOrEqualTo(expireAt);
+                assertThat(firedAt.put(key, now)).isNull();
+            }
+            for (Map.Entry<Integer, Long> entry : expected.entrySet()) {
+                assertThat(ceilToTick(entry.getValue())).as("键 %d 应已触发", entry.getKey()).isGreaterThan(now);
+            }
+            assertThat(wheel.size()).isEqualTo(expected.size());
+        }
+    }
+
+    @Test
+    void rescheduleMovesEntryBetweenLevels() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, START);
+        wheel.schedule("task", START + 2_000);
+        wheel.schedule("task", START + 30);
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(advanceCollecting(wheel, START, START + 30)).containsExactly("task");
+
+        // 降到低层之后再推迟
+        wheel.schedule("later", START + 700);
+        advanceCollecting(wheel, START + 30, START + 650);
+        wheel.schedule("later", START + 1_300);
+        assertThat(advanceCollecting(wheel, START + 650, START + 1_290)).isEmpty();
+        assertThat(advanceCollecting(wheel, START + 1_290, START + 1_300)).containsExactly("later");
+    }
+
+    @Test
+    void cancelRemovesEntryFromAnyLevel() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, START);
+        wheel.schedule("low", START + 20);
+        wheel.schedule("high", START + 3_000);
+        wheel.schedule("past", START - 100);
+
+        assertThat(wheel.cancel("low")).isTrue();
+        assertThat(wheel.cancel("high")).isTrue();
+        assertThat(wheel.cancel("past")).isTrue();
+        assertThat(wheel.cancel("low")).isFalse();
+        assertThat(wheel.cancel("unknown")).isFalse();
+
+        assertThat(advanceCollecting(wheel, START, START + 4_000)).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastEntriesAreReturnedOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, START);
+        wheel.advanceTo(START + 500);
+        wheel.schedule("missed", START + 100);
+        wheel.schedule("now", START + 500);
+
+        assertThat(wheel.advanceTo(START + 500)).containsExactlyInAnyOrder("missed", "now");
+        assertThat(wheel.advanceTo(START + 510)).isEmpty();
+    }
+
+    @Test
+    void clearDropsEverything() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, START);
+        wheel.schedule("a", START + 20);
+        wheel.schedule("b", START + 5_000);
+        wheel.schedule("c", START - 1);
+
+        wheel.clear();
+
+        assertThat(wheel.size()).isZero();
+        assertThat(advanceCollecting(wheel, START, START + 6_000)).isEmpty();
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThatThrownBy(() -> new HierarchicalTimingWheel<>(0, SIZE, START)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HierarchicalTimingWheel<>(TICK, 1, START)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<String> advanceCollecting(HierarchicalTimingWheel<String> wheel, long from, long to) {
+        List<String> fired = new ArrayList<>();
+        for (long now = from; now <= to; now += TICK) {
+            fired.addAll(wheel.advanceTo(now));
+        }
+        return fired;
+    }
+
+    private static long ceilToTick(long time) {
+        long remainder = Math.floorMod(time, TICK);
+        return remainder == 0 ? time : time - remainder + TICK;
+    }
+}
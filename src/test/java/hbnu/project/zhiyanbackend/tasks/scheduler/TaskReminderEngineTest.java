@@ -0,0 +1,253 @@
+package hbnu.project.zhiyanbackend.tasks.scheduler;
+
+import hbnu.project.zhiyanbackend.message.service.MessageSendService;
+import hbnu.project.zhiyanbackend.redis.utils.RedisUtils;
+import hbnu.project.zhiyanbackend.support.InMemoryRedis;
+import hbnu.project.zhiyanbackend.tasks.model.entity.Task;
+import hbnu.project.zhiyanbackend.tasks.model.entity.TaskUser;
+import hbnu.project.zhiyanbackend.tasks.model.enums.TaskStatus;
+import hbnu.project.zhiyanbackend.tasks.repository.TaskRepository;
+import hbnu.project.zhiyanbackend.tasks.repository.TaskUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * TaskReminderEngine 测试
+ * 用可推进的时钟驱动时间轮，覆盖按接收人合并、多节点去重、任务变更后的取消与重新调度
+ *
+ * @author ErgouTree
+ */
+class TaskReminderEngineTest {
+
+    private final ZoneId zoneId = ZoneId.systemDefault();
+
+    /**
+     * 从下一个中午开始计时，避免运行时间靠近零点时前一天的提醒落入补发宽限期
+     */
+    private final AtomicLong now = new AtomicLong(LocalDate.now(zoneId).plusDays(1).atTime(12, 0)
+            .atZone(zoneId).toInstant().toEpochMilli());
+
+    private final Map<Long, Task> tasks = new HashMap<>();
+
+    private final List<TaskUser> executors = new ArrayList<>();
+
+    private InMemoryRedis redis;
+
+    private TaskRepository taskRepository;
+
+    private TaskUserRepository taskUserRepository;
+
+    private MessageSendService messageSendService;
+
+    @BeforeEach
+    void setUp() {
+        redis = new InMemoryRedis().installIntoRedisUtils();
+        taskRepository = mock(TaskRepository.class);
+        taskUserRepository = mock(TaskUserRepository.class);
+        messageSendService = mock(MessageSendService.class);
+        when(taskRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Task> found = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                if (tasks.containsKey(id)) {
+                    found.add(tasks.get(id));
+                }
+            }
+            return found;
+        });
+        when(taskRepository.findActiveTasksDueBetween(any(), any())).thenAnswer(invocation -> List.copyOf(tasks.values()));
+        when(taskUserRepository.findActiveExecutorsByTaskIds(any())).thenAnswer(invocation -> {
+            Collection<Long> taskIds = invocation.getArgument(0);
+            return executors.stream().filter(executor -> taskIds.contains(executor.getTaskId())).toList();
+        });
+    }
+
+    @Test
+    void remindersDueTogetherAreMergedPerReceiver() {
+        LocalDate dueDate = today().plusDays(2);
+        Task first = task(1L, dueDate);
+        Task second = task(2L, dueDate);
+        assign(1L, 100L);
+        assign(2L, 100L);
+        assign(2L, 200L);
+        TaskReminderEngine engine = engine();
+        engine.run(null);
+
+        advanceTo(remindAt(dueDate, 48));
+        engine.tick();
+
+        verify(taskRepository, times(1)).findAllById(any());
+        verify(taskUserRepository, times(1)).findActiveExecutorsByTaskIds(any());
+        assertThat(sentTo(100L)).containsExactlyInAnyOrder(first, second);
+        assertThat(sentTo(200L)).containsExactly(second);
+        verifyNoMoreInteractions(messageSendService);
+    }
+
+    @Test
+    void eachReminderIsSentOnceAcrossNodes() {
+        LocalDate dueDate = today().plusDays(2);
+        task(1L, dueDate);
+        assign(1L, 100L);
+        TaskReminderEngine nodeA = engine();
+        TaskReminderEngine nodeB = engine();
+        nodeA.run(null);
+        nodeB.run(null);
+
+        advanceTo(remindAt(dueDate, 48));
+        nodeA.tick();
+        nodeB.tick();
+        // 重启后重新加载窗口，宽限期内的提醒再次挂上时间轮
+        nodeA.run(null);
+        nodeA.tick();
+
+        verify(messageSendService, times(1)).notifyTaskDeadlineReminders(eq(100L), anyList(), anyMap());
+        assertThat(redis.call("EXISTS", "task:reminder:sent:1:48:" + dueDate)).isEqualTo(1L);
+    }
+
+    @Test
+    void eachThresholdFiresAtItsOwnTime() {
+        LocalDate dueDate = today().plusDays(3);
+        task(1L, dueDate);
+        assign(1L, 100L);
+        TaskReminderEngine engine = engine();
+        engine.run(null);
+
+        List<Long> hoursSent = new ArrayList<>();
+        doAnswer(invocation -> {
+            Map<Long, Long> hours = invocation.getArgument(2);
+            hoursSent.add(hours.get(1L));
+            return null;
+        }).when(messageSendService).notifyTaskDeadlineReminders(any(), anyList(), anyMap());
+        for (long hours : new long[]{72, 48, 24}) {
+            long remindAt = remindAt(dueDate, hours);
+            if (remindAt < now.get()) {
+                continue;
+            }
+            advanceTo(remindAt - 1_000);
+            engine.tick();
+            assertThat(hoursSent).doesNotContain(hours);
+            advanceTo(remindAt);
+            engine.tick();
+            assertThat(hoursSent).endsWith(hours);
+        }
+    }
+
+    @Test
+    void movedDueDateReschedulesReminder() {
+        LocalDate dueDate = today().plusDays(2);
+        Task task = task(1L, dueDate);
+        assign(1L, 100L);
+        TaskReminderEngine engine = engine();
+        engine.run(null);
+
+        LocalDate moved = dueDate.plusDays(2);
+        task.setDueDate(moved);
+        engine.onTaskSaved(task);
+        advanceTo(remindAt(dueDate, 48));
+        engine.tick();
+        verifyNoInteractions(messageSendService);
+
+        advanceTo(remindAt(moved, 72));
+        engine.tick();
+        verify(messageSendService).notifyTaskDeadlineReminders(eq(100L), eq(List.of(task)), eq(Map.of(1L, 72L)));
+    }
+
+    @Test
+    void completedOrDeletedTasksAreNotReminded() {
+        LocalDate dueDate = today().plusDays(2);
+        Task done = task(1L, dueDate);
+        Task deleted = task(2L, dueDate);
+        Task changedElsewhere = task(3L, dueDate);
+        assign(1L, 100L);
+        assign(2L, 100L);
+        assign(3L, 100L);
+        TaskReminderEngine engine = engine();
+        engine.run(null);
+
+        done.setStatus(TaskStatus.DONE);
+        engine.onTaskSaved(done);
+        engine.onTaskRemoved(deleted.getId());
+        // 其他节点修改，本节点时间轮上仍有条目，发送前重新读取任务时过滤
+        changedElsewhere.setIsDeleted(true);
+        advanceTo(remindAt(dueDate, 48));
+        engine.tick();
+
+        verifyNoInteractions(messageSendService);
+    }
+
+    @Test
+    void redisFailureStillSendsReminder() {
+        RedisTemplate<String, Object> broken = mock(RedisTemplate.class, invocation -> {
+            throw new RedisConnectionFailureException("Redis 不可用");
+        });
+        ReflectionTestUtils.setField(RedisUtils.class, "redisTemplate", broken);
+        LocalDate dueDate = today().plusDays(2);
+        task(1L, dueDate);
+        assign(1L, 100L);
+        TaskReminderEngine engine = engine();
+        engine.run(null);
+
+        advanceTo(remindAt(dueDate, 48));
+        engine.tick();
+
+        verify(messageSendService).notifyTaskDeadlineReminders(eq(100L), anyList(), anyMap());
+    }
+
+    private TaskReminderEngine engine() {
+        TaskReminderEngine engine = new TaskReminderEngine(taskRepository, taskUserRepository, messageSendService);
+        ReflectionTestUtils.setField(engine, "clock", (LongSupplier) now::get);
+        return engine;
+    }
+
+    private Task task(Long id, LocalDate dueDate) {
+        Task task = Task.builder().id(id).title("任务" + id).status(TaskStatus.TODO).isDeleted(false).dueDate(dueDate).build();
+        tasks.put(id, task);
+        return task;
+    }
+
+    private void assign(Long taskId, Long userId) {
+        executors.add(TaskUser.builder().taskId(taskId).userId(userId).isActive(true).build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Task> sentTo(Long userId) {
+        ArgumentCaptor<List<Task>> captor = ArgumentCaptor.forClass(List.class);
+        verify(messageSendService).notifyTaskDeadlineReminders(eq(userId), captor.capture(), anyMap());
+        return captor.getValue();
+    }
+
+    private LocalDate today() {
+        return Instant.ofEpochMilli(now.get()).atZone(zoneId).toLocalDate();
+    }
+
+    private long remindAt(LocalDate dueDate, long hours) {
+        return dueDate.plusDays(1).atStartOfDay().minusHours(hours).atZone(zoneId).toInstant().toEpochMilli();
+    }
+
+    private void advanceTo(long time) {
+        now.set(Math.max(now.get(), time));
+        redis.advance(Duration.ZERO);
+    }
+}
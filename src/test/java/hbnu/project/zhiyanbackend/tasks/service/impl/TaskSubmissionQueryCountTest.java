@@ -0,0 +1,221 @@
+package hbnu.project.zhiyanbackend.tasks.service.impl;
+
+import hbnu.project.zhiyanbackend.auth.model.dto.UserDTO;
+import hbnu.project.zhiyanbackend.auth.model.entity.User;
+import hbnu.project.zhiyanbackend.auth.model.enums.UserStatus;
+import hbnu.project.zhiyanbackend.auth.repository.UserRepository;
+import hbnu.project.zhiyanbackend.projects.model.entity.Project;
+import hbnu.project.zhiyanbackend.projects.repository.ProjectRepository;
+import hbnu.project.zhiyanbackend.tasks.model.dto.TaskSubmissionDTO;
+import hbnu.project.zhiyanbackend.tasks.model.entity.Task;
+import hbnu.project.zhiyanbackend.tasks.model.entity.TaskSubmission;
+import hbnu.project.zhiyanbackend.tasks.repository.TaskRepository;
+import hbnu.project.zhiyanbackend.tasks.repository.TaskSubmissionRepository;
+import hbnu.project.zhiyanbackend.tasks.service.TaskSubmissionService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 提交记录转换的查询次数测试
+ * 通过 Hibernate 统计确认列表、分页转换的 SQL 数量与记录数无关，且提交人、审核人信息完整
+ *
+ * @author ErgouTree
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class TaskSubmissionQueryCountTest {
+
+    /**
+     * 分页查询、任务、项目、用户各一条
+     */
+    private static final long EXPECTED_PAGE_QUERIES = 4;
+
+    @Autowired
+    private TaskSubmissionService submissionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskSubmissionRepository submissionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private User reviewer;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        reviewer = userRepository.save(user("reviewer"));
+    }
+
+    @Test
+    void pageConversionQueryCountDoesNotGrowWithRows() {
+        Project small = seedProject(2, 2);
+        Project large = seedProject(12, 4);
+        entityManager.flush();
+        entityManager.clear();
+
+        long smallQueries = countQueries(() -> submissionService.getProjectPendingSubmissions(small.getId(), PageRequest.of(0, 20)));
+        long largeQueries = countQueries(() -> submissionService.getProjectPendingSubmissions(large.getId(), PageRequest.of(0, 20)));
+
+        assertThat(smallQueries).isEqualTo(EXPECTED_PAGE_QUERIES);
+        assertThat(largeQueries).isEqualTo(smallQueries);
+    }
+
+    @Test
+    void listConversionQueryCountDoesNotGrowWithRows() {
+        Task small = firstTask(seedProject(3, 1));
+        Task large = firstTask(seedProject(30, 5));
+        entityManager.flush();
+        entityManager.clear();
+
+        long smallQueries = countQueries(() -> submissionService.getTaskSubmissions(small.getId()));
+        long largeQueries = countQueries(() -> submissionService.getTaskSubmissions(large.getId()));
+
+        // 任务本身、提交记录、项目、用户各一条
+        assertThat(smallQueries).isEqualTo(EXPECTED_PAGE_QUERIES);
+        assertThat(largeQueries).isEqualTo(smallQueries);
+    }
+
+    @Test
+    void deletedSubmitterIsStillShown() {
+        Task task = firstTask(seedProject(1, 1));
+        TaskSubmission submission = submissionRepository.findAll().stream()
+                .filter(s -> s.getTaskId().equals(task.getId()))
+                .findFirst()
+                .orElseThrow();
+        User submitter = userRepository.findById(submission.getSubmitterId()).orElseThrow();
+        submitter.setIsDeleted(true);
+        userRepository.save(submitter);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(submissionService.getTaskSubmissions(task.getId()))
+                .singleElement()
+                .satisfies(dto -> {
+                    assertThat(dto.getSubmitter()).isNotNull();
+                    assertThat(dto.getSubmitter().getId()).isEqualTo(submitter.getId());
+                    assertThat(dto.getSubmitter().getName()).isEqualTo(submitter.getName());
+                });
+    }
+
+    @Test
+    void submitterAndReviewerCarryFullProfile() {
+        Project project = seedProject(1, 1);
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<TaskSubmissionDTO> page = submissionService.getProjectPendingSubmissions(project.getId(), PageRequest.of(0, 20));
+        TaskSubmissionDTO dto = page.getContent().getFirst();
+
+        UserDTO submitter = dto.getSubmitter();
+        assertThat(submitter).isNotNull();
+        assertThat(submitter.getInstitution()).isEqualTo("湖北师范大学");
+        assertThat(submitter.getDescription()).isEqualTo("简介");
+        assertThat(submitter.getAvatarContentType()).isEqualTo("image/png");
+        assertThat(submitter.getAvatarSize()).isEqualTo(3L);
+        assertThat(submitter.getStatus()).isEqualTo(UserStatus.ACTIVE);
+        assertThat(submitter.getIsLocked()).isFalse();
+        assertThat(submitter.getOrcidBound()).isFalse();
+        assertThat(submitter.getProfileLinks()).hasSize(1);
+        // 与原 UserConverter#toDTO 一致，不返回头像二进制数据
+        assertThat(submitter.getAvatarData()).isNull();
+
+        UserDTO reviewerDto = dto.getReviewer();
+        assertThat(reviewerDto).isNotNull();
+        assertThat(reviewerDto.getId()).isEqualTo(reviewer.getId());
+        assertThat(reviewerDto.getInstitution()).isEqualTo("湖北师范大学");
+    }
+
+    // ==================== 数据准备 ====================
+
+    private long countQueries(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Task firstTask(Project project) {
+        return taskRepository.findAll().stream()
+                .filter(t -> t.getProjectId().equals(project.getId()))
+                .min(Comparator.comparing(Task::getId))
+                .orElseThrow();
+    }
+
+    private Project seedProject(int submissions, int submitters) {
+        Project project = projectRepository.save(Project.builder()
+                .name("查询计数-" + UUID.randomUUID())
+                .creatorId(reviewer.getId())
+                .build());
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < submitters; i++) {
+            users.add(userRepository.save(user("submitter" + i)));
+        }
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            tasks.add(taskRepository.save(Task.builder()
+                    .projectId(project.getId())
+                    .creatorId(reviewer.getId())
+                    .title("任务" + i)
+                    .build()));
+        }
+        for (int i = 0; i < submissions; i++) {
+            submissionRepository.save(TaskSubmission.builder()
+                    .taskId(tasks.get(i % tasks.size()).getId())
+                    .projectId(project.getId())
+                    .submitterId(users.get(i % users.size()).getId())
+                    .reviewerId(reviewer.getId())
+                    .submissionContent("提交内容" + i)
+                    .submissionTime(Instant.now().minusSeconds(i))
+                    .version(1)
+                    .build());
+        }
+        return project;
+    }
+
+    private static User user(String prefix) {
+        return User.builder()
+                .email(prefix + "-" + UUID.randomUUID() + "@test.zhiyan")
+                .passwordHash("x")
+                .name(prefix)
+                .title("讲师")
+                .institution("湖北师范大学")
+                .description("简介")
+                .avatarData(new byte[]{1, 2, 3})
+                .avatarContentType("image/png")
+                .avatarSize(3L)
+                .profileLinks("[{\"label\":\"主页\",\"url\":\"https://example.com\"}]")
+                .build();
+    }
+}
@@ -0,0 +1,231 @@
+package hbnu.project.zhiyanbackend.wiki.crdt;
+
+import hbnu.project.zhiyanbackend.wiki.model.dto.WikiCollaborationDTO;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.RepetitionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * RgaDocument 收敛性测试
+ * 多个副本随机并发编辑，操作以乱序、重复、延迟的方式送达，最终各副本文本与完整序列必须一致
+ *
+ * @author ErgouTree
+ */
+class RgaDocumentTest {
+
+    private static final String BASE_TEXT = "协同编辑\nbase line\n";
+
+    private static final int REPLICAS = 4;
+
+    private static final int OPERATIONS = 400;
+
+    @RepeatedTest(50)
+    void concurrentReplicasConverge(RepetitionInfo repetition) {
+        Random random = new Random(repetition.getCurrentRepetition() * 7919L);
+        List<Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < REPLICAS; i++) {
+            replicas.add(new Replica((i + 1) + ":site", RgaDocument.fromText(BASE_TEXT)));
+        }
+        List<WikiCollaborationDTO.CrdtOperation> all = new ArrayList<>();
+
+        for (int step = 0; step < OPERATIONS; step++) {
+            Replica author = replicas.get(random.nextInt(REPLICAS));
+            WikiCollaborationDTO.CrdtOperation op = author.generate(random);
+            if (op != null) {
+                assertThat(author.document.apply(op)).isTrue();
+                all.add(op);
+                for (Replica other : replicas) {
+                    if (other != author) {
+                        other.inbox.add(op);
+                    }
+                }
+            }
+            // 随机把部分收件箱乱序送达，偶尔重复投递
+            Replica receiver = replicas.get(random.nextInt(REPLICAS));
+            receiver.deliver(random, random.nextInt(receiver.inbox.size() + 1));
+        }
+        for (Replica replica : replicas) {
+            replica.deliver(random, replica.inbox.size());
+        }
+
+        RgaDocument fresh = RgaDocument.fromText(BASE_TEXT);
+        List<WikiCollaborationDTO.CrdtOperation> shuffled = new ArrayList<>(all);
+        Collections.shuffle(shuffled, random);
+        shuffled.forEach(fresh::apply);
+
+        String expected = fresh.text();
+        for (Replica replica : replicas) {
+            assertThat(replica.document.text()).isEqualTo(expected);
+            assertThat(replica.document.pendingSize()).isZero();
+            assertThat(replica.document.visibleLength()).isEqualTo(expected.length());
+            assertThat(fingerprint(replica.document)).isEqualTo(fingerprint(fresh));
+        }
+        for (WikiCollaborationDTO.CrdtOperation op : all) {
+            assertThat(fresh.contains(op)).isTrue();
+        }
+    }
+
+    @Test
+    void runsRoundTripPreservesIdentitiesAndTombstones() {
+        RgaDocument document = RgaDocument.fromText("abc");
+        document.apply(insert("1:a", 4, 2L, RgaDocument.BASE_SITE, "XY"));
+        document.apply(delete(RgaDocument.BASE_SITE, 1, 1));
+
+        RgaDocument restored = RgaDocument.fromRuns(document.runs());
+
+        assertThat(restored.text()).isEqualTo("bXYc");
+        assertThat(restored.size()).isEqualTo(document.size());
+        assertThat(restored.maxClock()).isEqualTo(document.maxClock());
+        assertThat(fingerprint(restored)).isEqualTo(fingerprint(document));
+
+        // 重建后的文档继续接收基于原标识的操作
+        restored.apply(insert("2:b", 6, 5L, "1:a", "Z"));
+        document.apply(insert("2:b", 6, 5L, "1:a", "Z"));
+        assertThat(restored.text()).isEqualTo(document.text()).isEqualTo("bXYZc");
+    }
+
+    @Test
+    void operationWithMissingDependencyIsAppliedWhenDependencyArrives() {
+        RgaDocument document = RgaDocument.fromText("");
+        WikiCollaborationDTO.CrdtOperation first = insert("1:a", 1, null, null, "ab");
+        WikiCollaborationDTO.CrdtOperation second = insert("1:a", 3, 2L, "1:a", "c");
+
+        assertThat(document.apply(second)).isFalse();
+        assertThat(document.pendingSize()).isEqualTo(1);
+        assertThat(document.contains(second)).isFalse();
+
+        assertThat(document.apply(first)).isTrue();
+        assertThat(document.text()).isEqualTo("abc");
+        assertThat(document.pendingSize()).isZero();
+    }
+
+    @Test
+    void pendingOverflowMarksDocumentOutOfSyncInsteadOfDroppingSilently() {
+        RgaDocument document = RgaDocument.fromText("abc");
+        document.apply(insert("1:a", 100, 99L, "9:missing", "x".repeat(6_000)));
+        assertThat(document.overflowed()).isFalse();
+
+        document.apply(insert("1:a", 7_000, 99L, "9:missing", "y".repeat(6_000)));
+
+        assertThat(document.overflowed()).isTrue();
+        assertThat(document.pendingSize()).isZero();
+        assertThat(document.text()).isEqualTo("abc");
+
+        document.discardPending();
+        assertThat(document.overflowed()).isFalse();
+    }
+
+    @Test
+    void emptyDocumentAndDuplicateOperations() {
+        RgaDocument document = RgaDocument.fromText(null);
+        assertThat(document.text()).isEmpty();
+        assertThat(document.runs()).isEmpty();
+
+        WikiCollaborationDTO.CrdtOperation op = insert("1:a", 1, null, null, "hi");
+        document.apply(op);
+        document.apply(op);
+        document.apply(delete("1:a", 1, 2));
+        document.apply(delete("1:a", 1, 2));
+
+        assertThat(document.text()).isEmpty();
+        assertThat(document.size()).isEqualTo(2);
+        assertThat(document.visibleLength()).isZero();
+    }
+
+    // ==================== 辅助 ====================
+
+    /**
+     * 包含墓碑在内的完整序列，逐字符展开，不受分段方式影响
+     */
+    private static List<String> fingerprint(RgaDocument document) {
+        List<String> elements = new ArrayList<>();
+        for (WikiCollaborationDTO.CrdtRun run : document.runs()) {
+            for (int i = 0; i < run.getText().length(); i++) {
+                elements.add((run.getClock() + i) + "@" + run.getSite() + "=" + run.getText().charAt(i)
+                        + (Boolean.TRUE.equals(run.getDeleted()) ? "-" : "+"));
+            }
+        }
+        return elements;
+    }
+
+    private static WikiCollaborationDTO.CrdtOperation insert(String site, long clock, Long originClock,
+                                                             String originSite, String text) {
+        return WikiCollaborationDTO.CrdtOperation.builder()
+                .type("insert")
+                .site(site)
+                .clock(clock)
+                .originClock(originClock)
+                .originSite(originSite)
+                .text(text)
+                .build();
+    }
+
+    private static WikiCollaborationDTO.CrdtOperation delete(String site, long clock, int length) {
+        return WikiCollaborationDTO.CrdtOperation.builder()
+                .type("delete")
+                .site(site)
+                .clock(clock)
+                .length(length)
+                .build();
+    }
+
+    /**
+     * 一个编辑副本：本地文档与尚未送达的远端操作
+     */
+    private static final class Replica {
+
+        private final String site;
+
+        private final RgaDocument document;
+
+        private final List<WikiCollaborationDTO.CrdtOperation> inbox = new ArrayList<>();
+
+        private Replica(String site, RgaDocument document) {
+            this.site = site;
+            this.document = document;
+        }
+
+        /**
+         * 在随机可见位置插入一段文本，或删除一个可见字符
+         */
+        private WikiCollaborationDTO.CrdtOperation generate(Random random) {
+            List<long[]> visible = new ArrayList<>();
+            List<String> visibleSites = new ArrayList<>();
+            for (WikiCollaborationDTO.CrdtRun run : document.runs()) {
+                if (!Boolean.TRUE.equals(run.getDeleted())) {
+                    for (int i = 0; i < run.getText().length(); i++) {
+                        visible.add(new long[]{run.getClock() + i});
+                        visibleSites.add(run.getSite());
+                    }
+                }
+            }
+            if (!visible.isEmpty() && random.nextInt(3) == 0) {
+                int position = random.nextInt(visible.size());
+                return delete(visibleSites.get(position), visible.get(position)[0], 1);
+            }
+            int position = random.nextInt(visible.size() + 1);
+            long clock = document.maxClock() + 1;
+            String text = random.nextInt(4) == 0 ? "\n" : String.valueOf((char) ('a' + random.nextInt(26))).repeat(1 + random.nextInt(3));
+            if (position == 0) {
+                return insert(site, clock, null, null, text);
+            }
+            return insert(site, clock, visible.get(position - 1)[0], visibleSites.get(position - 1), text);
+        }
+
+        private void deliver(Random random, int count) {
+            Collections.shuffle(inbox, random);
+            for (int i = 0; i < count && !inbox.isEmpty(); i++) {
+                WikiCollaborationDTO.CrdtOperation op = inbox.remove(inbox.size() - 1);
+                document.apply(op);
+                if (random.nextInt(10) == 0) {
+                    // 重复投递保持幂等
+                    document.apply(op);
+                }
+            }
+        }
+    }
+}
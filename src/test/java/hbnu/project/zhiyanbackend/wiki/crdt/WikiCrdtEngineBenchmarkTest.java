@@ -0,0 +1,214 @@
+package hbnu.project.zhiyanbackend.wiki.crdt;
+
+import hbnu.project.zhiyanbackend.support.Benchmarks;
+import hbnu.project.zhiyanbackend.support.InMemoryRedis;
+import hbnu.project.zhiyanbackend.wiki.model.dto.WikiCollaborationDTO;
+import hbnu.project.zhiyanbackend.wiki.model.entity.WikiPage;
+import hbnu.project.zhiyanbackend.wiki.model.enums.PageType;
+import hbnu.project.zhiyanbackend.wiki.repository.WikiPageRepository;
+import hbnu.project.zhiyanbackend.wiki.service.WikiCollaborationService;
+import hbnu.project.zhiyanbackend.wiki.service.WikiContentVersionService;
+import hbnu.project.zhiyanbackend.wiki.service.WikiPageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 协同编辑吞吐基准：单个页面每秒可合并的按键操作数
+ * 每名编辑者在自己的位置连续输入，每 10 次按键有 1 次退格，每次按键单独提交（与客户端逐键发送一致）。
+ * 单线程为服务端合并与批次刷出的纯开销；多线程为多名编辑者并发提交、刷出线程每 50ms 运行时同一页面的吞吐，
+ * 提交在页面会话锁上串行。Redis 为进程内替身，不含网络往返
+ *
+ * @author ErgouTree
+ */
+@Tag(Benchmarks.TAG)
+class WikiCrdtEngineBenchmarkTest {
+
+    private static final Long PAGE_ID = 1L;
+
+    private static final String BASE_TEXT = "协同编辑基准文档\n".repeat(200);
+
+    private static final int EDITORS = 8;
+
+    private static final int OPS_PER_EDITOR = 25_000;
+
+    /**
+     * 单线程时每多少次按键刷出一次，约等于 50ms 窗口内的按键数
+     */
+    private static final int FLUSH_EVERY = 200;
+
+    private final AtomicLong broadcastBatches = new AtomicLong();
+
+    private final AtomicLong broadcastOps = new AtomicLong();
+
+    private WikiCrdtEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        new InMemoryRedis().installIntoRedisUtils();
+        WikiPage page = WikiPage.builder().id(PAGE_ID).pageType(PageType.DOCUMENT).content(BASE_TEXT).build();
+        page.setCurrentVersion(1);
+        WikiPageRepository wikiPageRepository = mock(WikiPageRepository.class);
+        when(wikiPageRepository.findById(PAGE_ID)).thenReturn(Optional.of(page));
+        SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        doAnswer(invocation -> {
+            broadcastBatches.incrementAndGet();
+            broadcastOps.addAndGet(invocation.<WikiCollaborationDTO.CrdtBatch>getArgument(1).getOps().size());
+            return null;
+        }).when(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+        engine = new WikiCrdtEngine(messagingTemplate, wikiPageRepository, mock(WikiPageService.class),
+                mock(WikiContentVersionService.class), mock(WikiCollaborationService.class));
+        engine.state(PAGE_ID);
+    }
+
+    @Test
+    void singlePageSingleThread() {
+        List<Editor> editors = editors();
+        int total = EDITORS * OPS_PER_EDITOR;
+        int warmup = total / 10;
+
+        double nanos = Benchmarks.nanosPerOp("单页面按键提交（单线程）", warmup, total - warmup, i -> {
+            editors.get(i % EDITORS).type();
+            if (i % FLUSH_EVERY == FLUSH_EVERY - 1) {
+                engine.flush();
+            }
+        });
+        engine.flush();
+
+        report(nanos == 0 ? 0 : 1e9 / nanos);
+        assertConverged(editors);
+    }
+
+    @Test
+    void singlePageConcurrentEditors() throws Exception {
+        List<Editor> editors = editors();
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService pool = Executors.newFixedThreadPool(EDITORS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        AtomicLong flushes = new AtomicLong();
+        AtomicLong maxFlushNanos = new AtomicLong();
+        try {
+            // 刷出需要获取页面会话锁，记录并发提交时刷出的等待时间
+            flusher.scheduleWithFixedDelay(() -> {
+                long begin = System.nanoTime();
+                engine.flush();
+                flushes.incrementAndGet();
+                maxFlushNanos.accumulateAndGet(System.nanoTime() - begin, Math::max);
+            }, 50, 50, TimeUnit.MILLISECONDS);
+            for (Editor editor : editors) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < OPS_PER_EDITOR; i++) {
+                        editor.type();
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - begin;
+            System.out.printf("[benchmark] 单页面按键提交（%d 名编辑者并发）: %.1f ns/op%n",
+                    EDITORS, (double) elapsed / (EDITORS * OPS_PER_EDITOR));
+            report(EDITORS * OPS_PER_EDITOR * 1e9 / elapsed);
+            System.out.printf("[benchmark] 并发提交期间刷出 %d 次，最长耗时 %.1f ms%n",
+                    flushes.get(), maxFlushNanos.get() / 1e6);
+        } finally {
+            flusher.shutdown();
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+            pool.shutdownNow();
+        }
+        engine.flush();
+        assertConverged(editors);
+    }
+
+    private void report(double opsPerSecond) {
+        System.out.printf("[benchmark] 单页面吞吐: %.0f ops/s，广播批次 %d 个，平均每批 %.1f 个操作（合并后）%n",
+                opsPerSecond, broadcastBatches.get(), (double) broadcastOps.get() / Math.max(1, broadcastBatches.get()));
+    }
+
+    /**
+     * 所有按键都已合并进文档，且都已刷出
+     */
+    private void assertConverged(List<Editor> editors) {
+        long visible = engine.state(PAGE_ID).getRuns().stream()
+                .filter(run -> !Boolean.TRUE.equals(run.getDeleted()))
+                .mapToLong(run -> run.getText().length())
+                .sum();
+        long expected = BASE_TEXT.length() + editors.stream().mapToLong(editor -> editor.inserted - editor.deleted).sum();
+        assertThat(visible).isEqualTo(expected);
+        assertThat(broadcastOps.get()).isPositive();
+    }
+
+    private List<Editor> editors() {
+        List<Editor> editors = new ArrayList<>();
+        for (long userId = 1; userId <= EDITORS; userId++) {
+            editors.add(new Editor(userId, userId * BASE_TEXT.length() / (EDITORS + 1)));
+        }
+        return editors;
+    }
+
+    /**
+     * 一名编辑者：在基线文本的固定位置之后连续输入，偶尔删除自己刚输入的字符
+     */
+    private final class Editor {
+
+        private final Long userId;
+
+        private final String site;
+
+        private long originClock;
+
+        private String originSite = RgaDocument.BASE_SITE;
+
+        private long clock = BASE_TEXT.length();
+
+        private long keystrokes;
+
+        private long inserted;
+
+        private long deleted;
+
+        private Editor(Long userId, long anchor) {
+            this.userId = userId;
+            this.site = userId + ":bench";
+            this.originClock = anchor;
+        }
+
+        private void type() {
+            WikiCollaborationDTO.CrdtOperation op;
+            if (++keystrokes % 10 == 0 && originSite.equals(site)) {
+                // 退格：删除上一个字符，下一个字符仍接在它之后（墓碑）
+                op = WikiCollaborationDTO.CrdtOperation.builder()
+                        .type("delete").site(site).clock(originClock).length(1).build();
+                deleted++;
+            } else {
+                clock++;
+                op = WikiCollaborationDTO.CrdtOperation.builder()
+                        .type("insert").site(site).clock(clock)
+                        .originClock(originClock).originSite(originSite)
+                        .text(String.valueOf((char) ('a' + clock % 26)))
+                        .build();
+                originClock = clock;
+                originSite = site;
+                inserted++;
+            }
+            engine.submit(PAGE_ID, userId, List.of(op));
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package hbnu.project.zhiyanbackend.wiki.service.impl;
+
+import hbnu.project.zhiyanbackend.auth.model.dto.UserSummary;
+import hbnu.project.zhiyanbackend.auth.utils.UserDirectory;
+import hbnu.project.zhiyanbackend.support.InMemoryRedis;
+import hbnu.project.zhiyanbackend.wiki.model.dto.WikiCollaborationDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * WikiCollaborationServiceImpl 测试
+ * 在进程内 Redis 上执行生产代码中的 Lua 脚本原文，覆盖内容锁凭证匹配和在线状态记录的编码/解码
+ *
+ * @author ErgouTree
+ */
+class WikiCollaborationServiceImplTest {
+
+    private static final Long PAGE_ID = 7L;
+
+    private static final String LOCK_KEY = "wiki:lock:page:" + PAGE_ID;
+
+    private static final String PRESENCE_KEY = "wiki:presence:page:" + PAGE_ID;
+
+    private final InMemoryRedis redis = new InMemoryRedis();
+
+    private WikiCollaborationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        UserDirectory userDirectory = mock(UserDirectory.class);
+        when(userDirectory.resolveAll(any())).thenAnswer(invocation -> users(invocation.getArgument(0)));
+        service = new WikiCollaborationServiceImpl(redis.stringTemplate(), userDirectory);
+    }
+
+    // ==================== 内容锁 ====================
+
+    @Test
+    void lockIsExclusiveAndCarriesOwner() {
+        String token = service.tryLockContent(1L, PAGE_ID);
+
+        assertThat(token).startsWith("1:");
+        assertThat(redis.call("PTTL", LOCK_KEY)).isEqualTo(30_000L);
+        assertThat(service.tryLockContent(2L, PAGE_ID)).isNull();
+        // 同一用户的另一个会话也拿不到
+        assertThat(service.tryLockContent(1L, PAGE_ID)).isNull();
+    }
+
+    @Test
+    void renewRequiresExactToken() {
+        String token = service.tryLockContent(1L, PAGE_ID);
+        redis.advance(Duration.ofSeconds(20));
+
+        // 同一用户其他会话的凭证前缀相同，但不能续期
+        assertThat(service.renewLock(PAGE_ID, "1:" + "other-session")).isFalse();
+        assertThat(service.renewLock(PAGE_ID, "1:")).isFalse();
+        assertThat(service.renewLock(PAGE_ID, null)).isFalse();
+        assertThat(redis.call("PTTL", LOCK_KEY)).isEqualTo(10_000L);
+
+        assertThat(service.renewLock(PAGE_ID, token)).isTrue();
+        assertThat(redis.call("PTTL", LOCK_KEY)).isEqualTo(30_000L);
+    }
+
+    @Test
+    void releaseRequiresExactToken() {
+        String token = service.tryLockContent(1L, PAGE_ID);
+
+        service.releaseLock(PAGE_ID, "1:other-session");
+        service.releaseLock(PAGE_ID, (String) null);
+        assertThat(redis.call("GET", LOCK_KEY)).isEqualTo(token);
+
+        service.releaseLock(PAGE_ID, token);
+        assertThat(redis.call("GET", LOCK_KEY)).isNull();
+        assertThat(service.tryLockContent(2L, PAGE_ID)).isNotNull();
+    }
+
+    @Test
+    void expiredTokenCannotTouchNextHoldersLock() {
+        String stale = service.tryLockContent(1L, PAGE_ID);
+        redis.advance(Duration.ofSeconds(31));
+        String current = service.tryLockContent(1L, PAGE_ID);
+
+        assertThat(current).isNotNull().isNotEqualTo(stale);
+        assertThat(service.renewLock(PAGE_ID, stale)).isFalse();
+        service.releaseLock(PAGE_ID, stale);
+
+        assertThat(redis.call("GET", LOCK_KEY)).isEqualTo(current);
+    }
+
+    // ==================== 在线状态 ====================
+
+    @Test
+    void cursorRoundTripsThroughPresenceRecord() {
+        service.joinEditing(PAGE_ID, 1L);
+        service.updateCursorPosition(PAGE_ID, 1L, WikiCollaborationDTO.CursorPosition.builder()
+                .line(12).column(3).selectionStart(40).selectionEnd(52)
+                .paragraphId("p-1|带分隔符")
+                .build());
+        service.joinEditing(PAGE_ID, 2L);
+        service.updateCursorPosition(PAGE_ID, 2L, WikiCollaborationDTO.CursorPosition.builder()
+                .line(1)
+                .build());
+
+        List<WikiCollaborationDTO.CursorPosition> cursors = service.getAllEditorsCursor(PAGE_ID);
+
+        assertThat(cursors).hasSize(2);
+        WikiCollaborationDTO.CursorPosition first = cursors.get(0);
+        assertThat(first.getUserId()).isEqualTo(1L);
+        assertThat(first.getUsername()).isEqualTo("用户1");
+        assertThat(first.getLine()).isEqualTo(12);
+        assertThat(first.getColumn()).isEqualTo(3);
+        assertThat(first.getSelectionStart()).isEqualTo(40);
+        assertThat(first.getSelectionEnd()).isEqualTo(52);
+        assertThat(first.getParagraphId()).isEqualTo("p-1|带分隔符");
+        assertThat(first.getLastUpdate()).isBetween(LocalDateTime.now().minusSeconds(5), LocalDateTime.now());
+        WikiCollaborationDTO.CursorPosition second = cursors.get(1);
+        assertThat(second.getLine()).isEqualTo(1);
+        assertThat(second.getColumn()).isNull();
+        assertThat(second.getSelectionStart()).isNull();
+        assertThat(second.getSelectionEnd()).isNull();
+        assertThat(second.getParagraphId()).isNull();
+    }
+
+    @Test
+    void refreshKeepsJoinTimeAndCursor() throws InterruptedException {
+        service.joinEditing(PAGE_ID, 1L);
+        service.updateCursorPosition(PAGE_ID, 1L, WikiCollaborationDTO.CursorPosition.builder().line(5).build());
+        String before = (String) redis.call("HGET", PRESENCE_KEY, "1");
+        Thread.sleep(5);
+
+        service.refreshEditingStatus(PAGE_ID, 1L);
+        service.joinEditing(PAGE_ID, 1L);
+
+        String after = (String) redis.call("HGET", PRESENCE_KEY, "1");
+        String[] beforeParts = before.split("\\|", 3);
+        String[] afterParts = after.split("\\|", 3);
+        assertThat(Long.parseLong(afterParts[0])).isGreaterThan(Long.parseLong(beforeParts[0]));
+        assertThat(afterParts[1]).isEqualTo(beforeParts[1]);
+        assertThat(afterParts[2]).isEqualTo(beforeParts[2]);
+        assertThat(service.getAllEditorsCursor(PAGE_ID)).extracting(WikiCollaborationDTO.CursorPosition::getLine)
+                .containsExactly(5);
+    }
+
+    @Test
+    void refreshAfterLeaveDoesNotRecreatePresence() {
+        service.joinEditing(PAGE_ID, 1L);
+        service.leaveEditing(1L);
+
+        service.refreshEditingStatus(PAGE_ID, 1L);
+        service.updateCursorPosition(PAGE_ID, 1L, WikiCollaborationDTO.CursorPosition.builder().line(1).build());
+
+        assertThat(service.isUserEditing(1L, PAGE_ID)).isFalse();
+        assertThat(service.getEditorCount(PAGE_ID)).isZero();
+    }
+
+    @Test
+    void expiredAndMalformedRecordsAreDroppedOnRead() {
+        service.joinEditing(PAGE_ID, 1L);
+        service.joinEditing(PAGE_ID, 2L);
+        long past = System.currentTimeMillis() - 1;
+        redis.call("HSET", PRESENCE_KEY, "2", past + "|" + past + "|");
+        redis.call("HSET", PRESENCE_KEY, "3", "garbage");
+
+        List<WikiCollaborationDTO.EditorInfo> editors = service.getOnlineEditors(PAGE_ID);
+
+        assertThat(editors).extracting(WikiCollaborationDTO.EditorInfo::getUserId).containsExactly(1L);
+        assertThat(service.isUserEditing(2L, PAGE_ID)).isFalse();
+        assertThat(redis.call("HGETALL", PRESENCE_KEY)).asList().hasSize(2);
+    }
+
+    @Test
+    void editorsAreOrderedByJoinTime() throws InterruptedException {
+        for (long userId : new long[]{3L, 1L, 2L}) {
+            service.joinEditing(PAGE_ID, userId);
+            Thread.sleep(2);
+        }
+
+        assertThat(service.getOnlineEditors(PAGE_ID)).extracting(WikiCollaborationDTO.EditorInfo::getUserId)
+                .containsExactly(3L, 1L, 2L);
+        assertThat(service.getEditorCount(PAGE_ID)).isEqualTo(3L);
+    }
+
+    static Map<Long, UserSummary> users(Collection<Long> userIds) {
+        Map<Long, UserSummary> users = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            users.put(userId, new UserSummary(userId, "用户" + userId, null, null, null, null, null, null, null,
+                    null, false, false, null, null, null, false, null, false));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,332 @@
+package hbnu.project.zhiyanbackend.wiki.service.impl;
+
+import hbnu.project.zhiyanbackend.activelog.repository.WikiOperationLogRepository;
+import hbnu.project.zhiyanbackend.basic.exception.ServiceException;
+import hbnu.project.zhiyanbackend.message.service.MessageSendService;
+import hbnu.project.zhiyanbackend.oss.config.COSProperties;
+import hbnu.project.zhiyanbackend.oss.dto.UploadFileResponseDTO;
+import hbnu.project.zhiyanbackend.oss.service.COSService;
+import hbnu.project.zhiyanbackend.wiki.model.dto.WikiImportDTO;
+import hbnu.project.zhiyanbackend.wiki.model.dto.WikiImportResultDTO;
+import hbnu.project.zhiyanbackend.wiki.model.entity.WikiAttachment;
+import hbnu.project.zhiyanbackend.wiki.model.entity.WikiPage;
+import hbnu.project.zhiyanbackend.wiki.model.enums.PageType;
+import hbnu.project.zhiyanbackend.wiki.repository.WikiPageRepository;
+import hbnu.project.zhiyanbackend.wiki.service.impl.WikiImportEngine.SourceFile;
+import hbnu.project.zhiyanbackend.wiki.utils.WikiDiffUtils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * WikiImportEngine 测试
+ * 覆盖压缩包路径规范化（防 Zip Slip）、文件数量与解压大小上限、GBK 文件名回退，
+ * 以及导入时的同级标题冲突、与已有页面重名、图片链接替换和写库失败后的 COS 清理
+ *
+ * @author ErgouTree
+ */
+class WikiImportEngineTest {
+
+    private static final Long PROJECT_ID = 3L;
+
+    private static final String BUCKET = "zhiyan-test";
+
+    @TempDir
+    Path tempDir;
+
+    private WikiPageRepository wikiPageRepository;
+
+    private COSService cosService;
+
+    private StatelessSession session;
+
+    /**
+     * 写库时插入的实体，按插入顺序
+     */
+    private final List<Object> inserted = new ArrayList<>();
+
+    private WikiImportEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        wikiPageRepository = mock(WikiPageRepository.class);
+        when(wikiPageRepository.findChildTitles(PROJECT_ID, null)).thenReturn(List.of());
+        when(wikiPageRepository.findMaxSortOrder(PROJECT_ID, null)).thenReturn(-1);
+
+        cosService = mock(COSService.class);
+        when(cosService.uploadLocalFile(any(), anyString(), isNull())).thenAnswer(invocation -> {
+            String folder = invocation.getArgument(1);
+            String name = invocation.<File>getArgument(0).getName();
+            return UploadFileResponseDTO.builder()
+                    .objectKey(folder + "/" + name)
+                    .url("https://cos.example.com/" + folder + "/" + name)
+                    .contentType("image/png")
+                    .build();
+        });
+        COSProperties cosProperties = new COSProperties();
+        cosProperties.setBucketName(BUCKET);
+
+        session = mock(StatelessSession.class);
+        doAnswer(invocation -> inserted.add(invocation.getArgument(0))).when(session).insert(any());
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<StatelessSession>>getArgument(0).accept(session);
+            return null;
+        }).when(sessionFactory).inStatelessTransaction(any());
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+
+        engine = new WikiImportEngine(wikiPageRepository, mock(WikiOperationLogRepository.class), new WikiDiffUtils(),
+                cosService, cosProperties, mock(MessageSendService.class), entityManagerFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    // ==================== 读取压缩包 ====================
+
+    @Test
+    void archivePathsAreNormalized() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("../evil.md", "# evil");
+        entries.put("a/../../x.md", "# x");
+        entries.put("/abs/a.md", "# abs");
+        entries.put("a\\b.md", "# b");
+        entries.put("./docs/./c.md", "# c");
+        entries.put(".hidden", "secret");
+        entries.put("docs/.git/config", "secret");
+        entries.put("__MACOSX/docs/._c.md", "meta");
+        entries.put("docs/", "");
+
+        List<SourceFile> files = engine.readArchive(zip(entries, StandardCharsets.UTF_8));
+
+        assertThat(files).extracting(SourceFile::path).containsExactly("abs/a.md", "a/b.md", "docs/c.md");
+        assertThat(new String(files.getFirst().data(), StandardCharsets.UTF_8)).isEqualTo("# abs");
+    }
+
+    @Test
+    void archiveEntryLimitIsEnforced() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 4; i++) {
+            entries.put("doc" + i + ".md", "# " + i);
+        }
+        // 跳过的条目不计入数量
+        entries.put("__MACOSX/doc0.md", "meta");
+        Path archive = zip(entries, StandardCharsets.UTF_8);
+
+        assertThat(WikiImportEngine.readArchive(archive, 4, 1024)).hasSize(4);
+        assertThatThrownBy(() -> WikiImportEngine.readArchive(archive, 3, 1024))
+                .isInstanceOfSatisfying(ServiceException.class,
+                        e -> assertThat(e.getDefaultMessage()).isEqualTo("压缩包文件数量超过上限 3"));
+    }
+
+    @Test
+    void archiveSizeLimitCountsDecompressedBytes() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        // 高压缩比的内容，压缩包本身很小
+        entries.put("a.md", "a".repeat(600 * 1024));
+        entries.put("b.md", "b".repeat(600 * 1024));
+        Path archive = zip(entries, StandardCharsets.UTF_8);
+        assertThat(Files.size(archive)).isLessThan(64 * 1024);
+
+        assertThat(WikiImportEngine.readArchive(archive, 10, 1200 * 1024)).hasSize(2);
+        // 单个条目未超限，累计超限
+        assertThatThrownBy(() -> WikiImportEngine.readArchive(archive, 10, 1024 * 1024))
+                .isInstanceOfSatisfying(ServiceException.class,
+                        e -> assertThat(e.getDefaultMessage()).isEqualTo("压缩包解压后超过 1MB"));
+    }
+
+    @Test
+    void gbkFileNamesFallBack() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("使用指南/快速开始.md", "# 快速开始");
+
+        List<SourceFile> files = engine.readArchive(zip(entries, Charset.forName("GBK")));
+
+        assertThat(files).extracting(SourceFile::path).containsExactly("使用指南/快速开始.md");
+    }
+
+    // ==================== 导入 ====================
+
+    @Test
+    void importBuildsTreeAndRewritesImageLinks() {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G'};
+        WikiImportResultDTO result = engine.importFiles(List.of(
+                file("guide/intro.md", "# 介绍\n\n![架构图](images/arch.png \"架构\")\n![外链](https://a.com/x.png)"),
+                new SourceFile("guide/images/arch.png", png),
+                file("readme.md", "# 说明\n正文")), importDTO());
+
+        assertThat(result.getSuccess()).isTrue();
+        assertThat(result.getImportedCount()).isEqualTo(3);
+        assertThat(result.getPageIds()).hasSize(3);
+
+        List<WikiPage> pages = inserted(WikiPage.class);
+        assertThat(pages).extracting(WikiPage::getPath).containsExactly("/guide", "/guide/介绍", "/说明");
+        assertThat(pages).extracting(WikiPage::getPageType)
+                .containsExactly(PageType.DIRECTORY, PageType.DOCUMENT, PageType.DOCUMENT);
+        assertThat(pages).extracting(WikiPage::getSortOrder).containsExactly(0, 0, 1);
+        WikiPage intro = pages.get(1);
+        assertThat(intro.getParentId()).isEqualTo(pages.getFirst().getId());
+        String url = "https://cos.example.com/wiki/" + PROJECT_ID + "/" + intro.getId() + "/";
+        assertThat(intro.getContent()).contains("](" + url).contains(" \"架构\")")
+                .contains("![外链](https://a.com/x.png)").doesNotContain("images/arch.png");
+        assertThat(intro.getContentHash()).isEqualTo(new WikiDiffUtils().calculateHash(intro.getContent()));
+
+        List<WikiAttachment> attachments = inserted(WikiAttachment.class);
+        assertThat(attachments).singleElement().satisfies(attachment -> {
+            assertThat(attachment.getWikiPageId()).isEqualTo(intro.getId());
+            assertThat(attachment.getBucketName()).isEqualTo(BUCKET);
+            assertThat(attachment.getFileName()).isEqualTo("arch.png");
+            assertThat(attachment.getFileSize()).isEqualTo((long) png.length);
+        });
+    }
+
+    @Test
+    void duplicateTitlesInSameDirectoryAreRejected() {
+        WikiImportResultDTO result = engine.importFiles(List.of(
+                file("a.md", "# 指南\n第一篇"),
+                file("b.md", "# 指南\n第二篇"),
+                file("docs/c.md", "# 指南\n不同目录")), importDTO());
+
+        assertThat(result.getSuccess()).isFalse();
+        assertThat(result.getFailedCount()).isEqualTo(1);
+        assertThat(result.getErrors()).containsExactly("b.md: 同一目录下页面标题重复: 指南");
+        assertThat(inserted(WikiPage.class)).extracting(WikiPage::getPath)
+                .containsExactly("/指南", "/docs", "/docs/指南");
+    }
+
+    @Test
+    void documentAndDirectoryWithSameTitleAreRejected() {
+        // 按路径排序后 guide.md 先于 guide/x.md，目录 guide 与文档 guide 重名
+        WikiImportResultDTO result = engine.importFiles(List.of(
+                file("guide/x.md", "# x"),
+                file("guide.md", "正文")), importDTO());
+
+        assertThat(result.getFailedCount()).isEqualTo(1);
+        assertThat(result.getErrors()).containsExactly("guide/x.md: 同一目录下页面标题重复: guide");
+        assertThat(inserted(WikiPage.class)).extracting(WikiPage::getPath).containsExactly("/guide");
+    }
+
+    @Test
+    void existingTitlesAreRejected() {
+        when(wikiPageRepository.findChildTitles(PROJECT_ID, null)).thenReturn(List.of("说明", "guide"));
+        when(wikiPageRepository.findMaxSortOrder(PROJECT_ID, null)).thenReturn(4);
+
+        WikiImportResultDTO result = engine.importFiles(List.of(
+                file("guide/a.md", "# a"),
+                file("guide/sub/b.md", "# b"),
+                file("readme.md", "# 说明"),
+                file("new.md", "# 新页面")), importDTO());
+
+        assertThat(result.getFailedCount()).isEqualTo(3);
+        assertThat(result.getErrors()).containsExactlyInAnyOrder("页面已存在: guide", "页面已存在: 说明");
+        assertThat(inserted(WikiPage.class)).singleElement().satisfies(page -> {
+            assertThat(page.getTitle()).isEqualTo("新页面");
+            assertThat(page.getSortOrder()).isEqualTo(5);
+        });
+    }
+
+    @Test
+    void overwriteSkipsExistingTitleCheck() {
+        WikiImportDTO importDTO = importDTO();
+        importDTO.setOverwrite(true);
+
+        WikiImportResultDTO result = engine.importFiles(List.of(file("readme.md", "# 说明")), importDTO);
+
+        assertThat(result.getSuccess()).isTrue();
+        verify(wikiPageRepository, never()).findChildTitles(any(), any());
+    }
+
+    @Test
+    void uploadedImagesAreDeletedWhenPersistFails() {
+        doThrow(new IllegalStateException("数据库不可用")).when(session).insert(any(WikiAttachment.class));
+
+        WikiImportResultDTO result = engine.importFiles(List.of(
+                file("a.md", "![图](a.png)\n![图](b.png)"),
+                new SourceFile("a.png", new byte[]{1}),
+                new SourceFile("b.png", new byte[]{2})), importDTO());
+
+        assertThat(result.getSuccess()).isFalse();
+        assertThat(result.getImportedCount()).isZero();
+        assertThat(result.getPageIds()).isEmpty();
+        assertThat(result.getMessage()).isEqualTo("导入失败: 数据库不可用");
+        verify(cosService, times(2)).uploadLocalFile(any(), anyString(), isNull());
+        verify(cosService, times(2)).deleteObject(eq(BUCKET), startsWith("wiki/" + PROJECT_ID + "/"));
+    }
+
+    @Test
+    void oversizedMarkdownIsCountedAsFailed() {
+        WikiImportResultDTO result = engine.importFiles(List.of(
+                new SourceFile("huge.md", new byte[5 * 1024 * 1024 + 1]),
+                file("ok.md", "# ok")), importDTO());
+
+        assertThat(result.getSuccess()).isFalse();
+        assertThat(result.getImportedCount()).isEqualTo(1);
+        assertThat(result.getFailedCount()).isEqualTo(1);
+        assertThat(result.getErrors()).containsExactly("huge.md: 文件超过 5MB");
+    }
+
+    @Test
+    void importWithoutMarkdownFails() {
+        WikiImportResultDTO result = engine.importFiles(List.of(new SourceFile("a.png", new byte[]{1})), importDTO());
+
+        assertThat(result.getSuccess()).isFalse();
+        assertThat(result.getMessage()).isEqualTo("导入失败：没有可导入的Markdown文件");
+        verifyNoInteractions(cosService, session);
+    }
+
+    private static WikiImportDTO importDTO() {
+        // 不设置导入人，跳过 SSE 进度推送
+        return WikiImportDTO.builder().projectId(PROJECT_ID).build();
+    }
+
+    private static SourceFile file(String path, String content) {
+        return new SourceFile(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private <T> List<T> inserted(Class<T> type) {
+        return inserted.stream().filter(type::isInstance).map(type::cast).toList();
+    }
+
+    private Path zip(Map<String, String> entries, Charset charset) throws IOException {
+        Path archive = Files.createTempFile(tempDir, "import-", ".zip");
+        try (OutputStream out = Files.newOutputStream(archive);
+             ZipOutputStream zip = new ZipOutputStream(out, charset)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return archive;
+    }
+}
@@ -0,0 +1,57 @@
+package hbnu.project.zhiyanbackend.wiki.service.impl;
+
+import hbnu.project.zhiyanbackend.auth.utils.UserDirectory;
+import hbnu.project.zhiyanbackend.support.Benchmarks;
+import hbnu.project.zhiyanbackend.support.InMemoryRedis;
+import hbnu.project.zhiyanbackend.wiki.model.dto.WikiCollaborationDTO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 在线状态读取基准：50 名编辑者同时在线，读取编辑者列表和全部光标的耗时与 Redis 命令数
+ * 进程内 Redis 没有网络往返，耗时只反映解码和组装的开销，命令数对应线上的网络往返次数
+ *
+ * @author ErgouTree
+ */
+@Tag(Benchmarks.TAG)
+class WikiPresenceBenchmarkTest {
+
+    private static final Long PAGE_ID = 1L;
+
+    private static final int EDITORS = 50;
+
+    private static final int ITERATIONS = 20_000;
+
+    @Test
+    void fiftyEditorsPresenceRead() {
+        InMemoryRedis redis = new InMemoryRedis();
+        UserDirectory userDirectory = mock(UserDirectory.class);
+        when(userDirectory.resolveAll(any()))
+                .thenAnswer(invocation -> WikiCollaborationServiceImplTest.users(invocation.getArgument(0)));
+        WikiCollaborationServiceImpl service = new WikiCollaborationServiceImpl(redis.stringTemplate(), userDirectory);
+        for (long userId = 1; userId <= EDITORS; userId++) {
+            service.joinEditing(PAGE_ID, userId);
+            service.updateCursorPosition(PAGE_ID, userId, WikiCollaborationDTO.CursorPosition.builder()
+                    .line((int) userId).column(4).selectionStart(10).selectionEnd(20).paragraphId("p-" + userId)
+                    .build());
+        }
+        assertThat(service.getAllEditorsCursor(PAGE_ID)).hasSize(EDITORS);
+
+        long commands = redis.commandCount();
+        service.getOnlineEditors(PAGE_ID);
+        service.getAllEditorsCursor(PAGE_ID);
+        long perRead = (redis.commandCount() - commands) / 2;
+        assertThat(perRead).isEqualTo(1L);
+
+        Benchmarks.measure("50 名编辑者 getOnlineEditors", ITERATIONS / 10, ITERATIONS,
+                i -> service.getOnlineEditors(PAGE_ID));
+        Benchmarks.measure("50 名编辑者 getAllEditorsCursor", ITERATIONS / 10, ITERATIONS,
+                i -> service.getAllEditorsCursor(PAGE_ID));
+        System.out.printf("[benchmark] 每次读取 Redis 命令数: %d（HGETALL）%n", perRead);
+    }
+}
@@ -0,0 +1,171 @@
+package hbnu.project.zhiyanbackend.wiki.utils;
+
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.DeltaType;
+import com.github.difflib.patch.Patch;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.RepetitionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LineDiff 性质测试
+ * 随机生成新旧两组行，补丁应用到旧内容必须得到新内容、反向还原必须得到旧内容，
+ * 且增删行数等于由最长公共子序列得出的最小编辑量
+ *
+ * @author ErgouTree
+ */
+class LineDiffTest {
+
+    private static final String[] VOCABULARY = {"", "a", "b", "c", "# 标题", "- 列表项", "  缩进", "}"};
+
+    @RepeatedTest(200)
+    void patchReproducesTargetWithMinimalEdits(RepetitionInfo repetition) throws Exception {
+        Random random = new Random(repetition.getCurrentRepetition() * 7919L);
+        List<String> oldLines = randomLines(random, random.nextInt(40));
+        List<String> newLines = mutate(random, oldLines);
+
+        Patch<String> patch = LineDiff.diff(oldLines, newLines);
+
+        assertThat(patch.applyTo(oldLines)).isEqualTo(newLines);
+        assertThat(patch.restore(newLines)).isEqualTo(oldLines);
+        assertThat(editedLines(patch)).isEqualTo(oldLines.size() + newLines.size() - 2 * lcs(oldLines, newLines));
+        assertDeltasOrdered(patch);
+    }
+
+    @RepeatedTest(20)
+    void unrelatedContentFallsBackAndStillApplies(RepetitionInfo repetition) throws Exception {
+        Random random = new Random(repetition.getCurrentRepetition() * 31L);
+        List<String> oldLines = new ArrayList<>();
+        List<String> newLines = new ArrayList<>();
+        // 编辑距离超过上限，走 java-diff-utils 回退
+        for (int i = 0; i < 1500; i++) {
+            oldLines.add("old-" + random.nextInt(100));
+            newLines.add("new-" + random.nextInt(100));
+        }
+
+        Patch<String> patch = LineDiff.diff(oldLines, newLines);
+
+        assertThat(patch.applyTo(oldLines)).isEqualTo(newLines);
+        assertThat(patch.restore(newLines)).isEqualTo(oldLines);
+    }
+
+    @Test
+    void identicalAndEmptyInputsProduceNoDeltas() {
+        assertThat(LineDiff.diff(List.of(), List.of()).getDeltas()).isEmpty();
+        assertThat(LineDiff.diff(List.of("a", "b"), List.of("a", "b")).getDeltas()).isEmpty();
+    }
+
+    @Test
+    void emptySideIsSingleInsertOrDelete() throws Exception {
+        List<String> lines = List.of("a", "", "b");
+
+        Patch<String> insert = LineDiff.diff(List.of(), lines);
+        assertThat(insert.getDeltas()).hasSize(1);
+        assertThat(insert.getDeltas().get(0).getType()).isEqualTo(DeltaType.INSERT);
+        assertThat(insert.applyTo(List.of())).isEqualTo(lines);
+
+        Patch<String> delete = LineDiff.diff(lines, List.of());
+        assertThat(delete.getDeltas()).hasSize(1);
+        assertThat(delete.getDeltas().get(0).getType()).isEqualTo(DeltaType.DELETE);
+        assertThat(delete.applyTo(lines)).isEmpty();
+    }
+
+    @Test
+    void trailingNewlineIsASingleEmptyLineChange() throws Exception {
+        // WikiDiffUtils 以 split("\n", -1) 切分，末尾换行对应一个空行
+        List<String> without = List.of("a", "b");
+        List<String> with = List.of("a", "b", "");
+
+        Patch<String> added = LineDiff.diff(without, with);
+        assertThat(added.getDeltas()).hasSize(1);
+        assertThat(added.getDeltas().get(0).getType()).isEqualTo(DeltaType.INSERT);
+        assertThat(added.getDeltas().get(0).getTarget().getLines()).containsExactly("");
+        assertThat(added.applyTo(without)).isEqualTo(with);
+
+        Patch<String> removed = LineDiff.diff(with, without);
+        assertThat(removed.getDeltas()).hasSize(1);
+        assertThat(removed.getDeltas().get(0).getType()).isEqualTo(DeltaType.DELETE);
+        assertThat(removed.applyTo(with)).isEqualTo(without);
+    }
+
+    @Test
+    void unifiedDiffRoundTripKeepsTrailingNewline() {
+        WikiDiffUtils diffUtils = new WikiDiffUtils();
+        String[][] cases = {
+                {"", "a\nb\n"},
+                {"a\nb\n", ""},
+                {"a\nb", "a\nb\n"},
+                {"a\nb\n", "a\nb"},
+                {"\n\n", "\n"},
+                {"第一行\n第二行\n", "第一行\n插入\n第二行\n"},
+        };
+        for (String[] pair : cases) {
+            String diff = diffUtils.calculateDiff(pair[0], pair[1]);
+            assertThat(diffUtils.applyPatch(pair[0], diff)).isEqualTo(pair[1]);
+            assertThat(diffUtils.reversePatch(pair[1], diff)).isEqualTo(pair[0]);
+        }
+    }
+
+    private static void assertDeltasOrdered(Patch<String> patch) {
+        int oldEnd = 0;
+        int newEnd = 0;
+        for (AbstractDelta<String> delta : patch.getDeltas()) {
+            assertThat(delta.getSource().getPosition()).isGreaterThanOrEqualTo(oldEnd);
+            assertThat(delta.getTarget().getPosition()).isGreaterThanOrEqualTo(newEnd);
+            oldEnd = delta.getSource().getPosition() + delta.getSource().size();
+            newEnd = delta.getTarget().getPosition() + delta.getTarget().size();
+        }
+    }
+
+    private static int editedLines(Patch<String> patch) {
+        int count = 0;
+        for (AbstractDelta<String> delta : patch.getDeltas()) {
+            count += delta.getSource().size() + delta.getTarget().size();
+        }
+        return count;
+    }
+
+    private static int lcs(List<String> a, List<String> b) {
+        int[][] table = new int[a.size() + 1][b.size() + 1];
+        for (int i = a.size() - 1; i >= 0; i--) {
+            for (int j = b.size() - 1; j >= 0; j--) {
+                table[i][j] = a.get(i).equals(b.get(j))
+                        ? table[i + 1][j + 1] + 1
+                        : Math.max(table[i + 1][j], table[i][j + 1]);
+            }
+        }
+        return table[0][0];
+    }
+
+    private static List<String> mutate(Random random, List<String> source) {
+        List<String> result = new ArrayList<>(source);
+        int edits = random.nextInt(10);
+        for (int i = 0; i < edits; i++) {
+            int kind = random.nextInt(3);
+            if (kind == 0 || result.isEmpty()) {
+                result.add(random.nextInt(result.size() + 1), randomLine(random));
+            } else if (kind == 1) {
+                result.remove(random.nextInt(result.size()));
+            } else {
+                result.set(random.nextInt(result.size()), randomLine(random));
+            }
+        }
+        return result;
+    }
+
+    private static List<String> randomLines(Random random, int size) {
+        List<String> lines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            lines.add(randomLine(random));
+        }
+        return lines;
+    }
+
+    private static String randomLine(Random random) {
+        return VOCABULARY[random.nextInt(VOCABULARY.length)];
+    }
+}
@@ -0,0 +1,195 @@
+package hbnu.project.zhiyanbackend.wiki.utils;
+
+import hbnu.project.zhiyanbackend.basic.exception.UtilException;
+import hbnu.project.zhiyanbackend.wiki.model.entity.WikiPatchDictionary;
+import hbnu.project.zhiyanbackend.wiki.repository.WikiPatchDictionaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.RepetitionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * WikiPatchCodec 编解码往返测试
+ * 内置字典与项目训练字典编码后都必须逐字节还原原补丁，解码时按补丁头部的字典ID从数据库加载字典
+ *
+ * @author ErgouTree
+ */
+class WikiPatchCodecTest {
+
+    private static final Long PROJECT_ID = 100L;
+    private static final Long DICTIONARY_ID = 42L;
+
+    private static final String[] TEMPLATE_LINES = {
+            "## 接口说明",
+            "| 参数名 | 类型 | 必填 | 说明 |",
+            "| --- | --- | --- | --- |",
+            "```java",
+            "    public Result<Void> update(@PathVariable Long id, @RequestBody UpdateRequest request) {",
+            "        return Result.success(service.update(id, request));",
+            "```",
+            "- [ ] 补充实验数据与结果分析",
+    };
+
+    /**
+     * 数据库中已保存的字典
+     */
+    private final Map<Long, WikiPatchDictionary> saved = new HashMap<>();
+
+    private WikiPatchDictionaryRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(WikiPatchDictionaryRepository.class);
+        when(repository.save(any(WikiPatchDictionary.class))).thenAnswer(inv -> {
+            WikiPatchDictionary dictionary = inv.getArgument(0);
+            dictionary.setId(DICTIONARY_ID);
+            saved.put(dictionary.getId(), dictionary);
+            return dictionary;
+        });
+        when(repository.findById(anyLong())).thenAnswer(inv -> Optional.ofNullable(saved.get(inv.<Long>getArgument(0))));
+        when(repository.findFirstByProjectIdOrderByCreatedAtDesc(any()))
+                .thenAnswer(inv -> saved.values().stream()
+                        .filter(dictionary -> dictionary.getProjectId().equals(inv.getArgument(0)))
+                        .findFirst());
+    }
+
+    @RepeatedTest(20)
+    void builtinDictionaryRoundTrip(RepetitionInfo repetition) {
+        Random random = new Random(repetition.getCurrentRepetition() * 7919L);
+        WikiPatchCodec codec = new WikiPatchCodec(repository);
+
+        for (int i = 0; i < 20; i++) {
+            String diff = randomDiff(random);
+            assertThat(codec.decode(codec.encode(PROJECT_ID, diff))).isEqualTo(diff);
+            assertThat(codec.decode(codec.encode(null, diff))).isEqualTo(diff);
+        }
+    }
+
+    @RepeatedTest(10)
+    void trainedDictionaryRoundTrip(RepetitionInfo repetition) {
+        Random random = new Random(repetition.getCurrentRepetition() * 31L);
+        WikiPatchCodec codec = new WikiPatchCodec(repository);
+        List<String> samples = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            samples.add(randomDiff(random));
+        }
+        byte[] builtin = codec.encode(PROJECT_ID, samples.get(0));
+
+        WikiPatchDictionary dictionary = codec.train(PROJECT_ID, samples);
+
+        assertThat(dictionary).isNotNull();
+        assertThat(dictionary.getDictionary().length).isLessThanOrEqualTo(16 * 1024);
+        byte[] trained = codec.encode(PROJECT_ID, samples.get(0));
+        assertThat(trained.length).isLessThan(builtin.length);
+        for (String sample : samples) {
+            assertThat(codec.decode(codec.encode(PROJECT_ID, sample))).isEqualTo(sample);
+        }
+
+        // 新实例没有缓存，解码时按补丁头部的字典ID从数据库加载
+        WikiPatchCodec restarted = new WikiPatchCodec(repository);
+        assertThat(restarted.decode(trained)).isEqualTo(samples.get(0));
+        assertThat(restarted.decode(builtin)).isEqualTo(samples.get(0));
+        verify(repository).findById(DICTIONARY_ID);
+    }
+
+    @Test
+    void missingDictionaryFailsToDecode() {
+        WikiPatchCodec codec = new WikiPatchCodec(repository);
+        Random random = new Random(1L);
+        List<String> samples = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            samples.add(randomDiff(random));
+        }
+        codec.train(PROJECT_ID, samples);
+        byte[] patch = codec.encode(PROJECT_ID, samples.get(0));
+        saved.clear();
+
+        assertThatThrownBy(() -> new WikiPatchCodec(repository).decode(patch))
+                .isInstanceOf(UtilException.class);
+    }
+
+    @Test
+    void rawFallbackKeepsTextThatIsNotAStructuredDiff() {
+        WikiPatchCodec codec = new WikiPatchCodec(repository);
+        String[] texts = {
+                "手工编辑的补丁，没有文件头",
+                "--- original\n+++ modified\n@@ -1 +1 @@\n-a\n+b",
+                "--- original\n+++ modified\n@@ -1,2 +1,2 @@\n a\n\n-b\n+c",
+                "--- original\n+++ modified\n@@ -1,1 +1,1 @@\n-a\n+b\n",
+                "--- original\n+++ modified\n@@ -1,1 +1,1 @@\n-a\r\n+b\r",
+        };
+        for (String text : texts) {
+            assertThat(codec.decode(codec.encode(PROJECT_ID, text))).isEqualTo(text);
+        }
+    }
+
+    @Test
+    void readPrefersEncodedPatchAndFallsBackToText() {
+        WikiPatchCodec codec = new WikiPatchCodec(repository);
+        String diff = "--- original\n+++ modified\n@@ -1,1 +1,1 @@\n-旧\n+新";
+
+        assertThat(codec.read("legacy", codec.encode(PROJECT_ID, diff))).isEqualTo(diff);
+        assertThat(codec.read("legacy", null)).isEqualTo("legacy");
+        assertThat(codec.read("legacy", new byte[0])).isEqualTo("legacy");
+        assertThat(codec.read(null, null)).isEmpty();
+        assertThat(codec.encode(PROJECT_ID, "")).isNull();
+        assertThat(codec.encode(PROJECT_ID, null)).isNull();
+    }
+
+    @Test
+    void trainingRejectsTooFewRepeatedLines() {
+        WikiPatchCodec codec = new WikiPatchCodec(repository);
+
+        assertThat(codec.train(PROJECT_ID, List.of("--- original\n+++ modified\n@@ -1,1 +1,1 @@\n-a\n+b"))).isNull();
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void malformedPatchIsRejected() {
+        WikiPatchCodec codec = new WikiPatchCodec(repository);
+        byte[] patch = codec.encode(PROJECT_ID, "--- original\n+++ modified\n@@ -1,1 +1,1 @@\n-a\n+b");
+
+        assertThatThrownBy(() -> codec.decode(new byte[]{'X', 1, 0, 0})).isInstanceOf(UtilException.class);
+        assertThatThrownBy(() -> codec.decode(Arrays.copyOf(patch, patch.length - 2))).isInstanceOf(UtilException.class);
+        byte[] unknownFormat = patch.clone();
+        unknownFormat[1] = 9;
+        assertThatThrownBy(() -> codec.decode(unknownFormat)).isInstanceOf(UtilException.class);
+    }
+
+    /**
+     * 生成 Unified Diff：模板行作为上下文和改动，夹杂随机内容与中文
+     */
+    private static String randomDiff(Random random) {
+        StringBuilder diff = new StringBuilder("--- original\n+++ modified");
+        int hunks = 1 + random.nextInt(3);
+        int line = 1;
+        for (int h = 0; h < hunks; h++) {
+            List<String> body = new ArrayList<>();
+            int oldCount = 0;
+            int newCount = 0;
+            int size = 3 + random.nextInt(8);
+            for (int i = 0; i < size; i++) {
+                String content = random.nextInt(3) == 0
+                        ? "实验记录 " + random.nextInt(1000) + " 结果 " + random.nextDouble()
+                        : TEMPLATE_LINES[random.nextInt(TEMPLATE_LINES.length)];
+                char tag = " +-".charAt(random.nextInt(3));
+                body.add(tag + content);
+                oldCount += tag == '+' ? 0 : 1;
+                newCount += tag == '-' ? 0 : 1;
+            }
+            diff.append("\n@@ -").append(line).append(',').append(oldCount)
+                    .append(" +").append(line).append(',').append(newCount).append(" @@");
+            body.forEach(content -> diff.append('\n').append(content));
+            line += oldCount + 5;
+        }
+        return diff.toString();
+    }
+}
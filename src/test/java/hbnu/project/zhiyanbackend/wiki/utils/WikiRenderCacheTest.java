@@ -0,0 +1,206 @@
+package hbnu.project.zhiyanbackend.wiki.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * WikiRenderCache 测试
+ * 覆盖并发渲染只执行一次（含渲染失败）、磁盘按总大小淘汰、缓存键稳定
+ *
+ * @author ErgouTree
+ */
+class WikiRenderCacheTest {
+
+    private static final int THREADS = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @Timeout(10)
+    void concurrentRequestsRenderOnce() throws Exception {
+        WikiRenderCache cache = cache(16);
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        String key = WikiRenderCache.key("PDF", 1, "hash");
+
+        List<Future<byte[]>> results = runConcurrently(() -> cache.getOrRender(key, () -> {
+            renders.incrementAndGet();
+            await(release);
+            return "rendered".getBytes(StandardCharsets.UTF_8);
+        }), release);
+
+        for (Future<byte[]> result : results) {
+            assertThat(result.get()).asString(StandardCharsets.UTF_8).isEqualTo("rendered");
+        }
+        assertThat(renders).hasValue(1);
+        assertThat(cache.getOrRender(key, () -> {
+            throw new AssertionError("命中缓存时不应渲染");
+        })).asString(StandardCharsets.UTF_8).isEqualTo("rendered");
+    }
+
+    @Test
+    @Timeout(10)
+    void renderErrorReleasesWaitersAndIsNotCached() throws Exception {
+        WikiRenderCache cache = cache(16);
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        String key = WikiRenderCache.key("WORD", 1, "hash");
+
+        List<Future<byte[]>> results = runConcurrently(() -> cache.getOrRender(key, () -> {
+            renders.incrementAndGet();
+            await(release);
+            throw new OutOfMemoryError("渲染失败");
+        }), release);
+
+        for (Future<byte[]> result : results) {
+            assertThatThrownBy(result::get).hasCauseInstanceOf(OutOfMemoryError.class);
+        }
+        assertThat(renders).hasValue(1);
+        assertThat(cache.getOrRender(key, () -> new byte[]{1})).containsExactly(1);
+    }
+
+    @Test
+    void diskTierEvictsBeyondMaxSize() throws IOException {
+        WikiRenderCache cache = cache(1);
+        byte[] body = new byte[400 * 1024];
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String key = WikiRenderCache.key("PDF", 1, "page-" + i);
+            keys.add(key);
+            cache.getOrRender(key, () -> body);
+        }
+
+        List<Path> files = files();
+        assertThat(files).hasSize(2);
+        assertThat(files.stream().mapToLong(WikiRenderCacheTest::size).sum()).isLessThanOrEqualTo(1024 * 1024);
+
+        // 磁盘上还在的条目直接命中，被淘汰的条目重新渲染
+        AtomicInteger renders = new AtomicInteger();
+        for (String key : keys) {
+            boolean onDisk = Files.exists(directory.resolve(key));
+            cache.getOrRender(key, () -> {
+                renders.incrementAndGet();
+                return body;
+            });
+            if (onDisk) {
+                assertThat(renders).as("命中 %s", key).hasValue(0);
+            }
+            renders.set(0);
+        }
+    }
+
+    @Test
+    void restartRegistersExistingFilesAndDropsTemporaryOnes() throws IOException {
+        WikiRenderCache cache = cache(16);
+        String key = WikiRenderCache.key("HTML", 1, "hash");
+        cache.getOrRender(key, () -> "<p>内容</p>".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve(key + ".tmp-1"), new byte[]{1});
+
+        WikiRenderCache restarted = cache(16);
+
+        assertThat(restarted.getOrRender(key, () -> {
+            throw new AssertionError("重启后应命中磁盘缓存");
+        })).asString(StandardCharsets.UTF_8).isEqualTo("<p>内容</p>");
+        assertThat(files()).extracting(path -> path.getFileName().toString()).containsExactly(key);
+    }
+
+    @Test
+    void keyIsStableAndSeparatesParts() {
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 1, 2, 3, 4, 5);
+        String key = WikiRenderCache.key("PDF", 2, "c0ffee", 42L, "标题", updatedAt, 3);
+
+        // 固定值：键算法变化会让已有缓存全部失效，需要同时提升渲染器版本
+        assertThat(key).isEqualTo(WikiRenderCache.key("pdf", 2, "c0ffee", 42L, "标题", updatedAt, 3))
+                .matches("^pdf-v2-[0-9a-f]{64}$")
+                .isEqualTo("pdf-v2-" + sha256("c0ffee\u000042\u0000标题\u00002025-01-02T03:04:05\u00003\u0000"));
+        assertThat(WikiRenderCache.key("PDF", 3, "c0ffee", 42L, "标题", updatedAt, 3)).isNotEqualTo(key);
+        assertThat(WikiRenderCache.key("WORD", 2, "c0ffee", 42L, "标题", updatedAt, 3)).isNotEqualTo(key);
+        assertThat(WikiRenderCache.key("PDF", 2, "ab", "c")).isNotEqualTo(WikiRenderCache.key("PDF", 2, "a", "bc"));
+        assertThat(WikiRenderCache.key("PDF", 2, "a", null)).isNotEqualTo(WikiRenderCache.key("PDF", 2, "a"));
+    }
+
+    private WikiRenderCache cache(long maxSizeMb) {
+        WikiRenderCache cache = new WikiRenderCache(null, null, directory.toString(), maxSizeMb, false);
+        cache.init();
+        return cache;
+    }
+
+    private List<Future<byte[]>> runConcurrently(Callable<byte[]> task, CountDownLatch release)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch started = new CountDownLatch(THREADS);
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    started.countDown();
+                    return task.call();
+                }));
+            }
+            started.await();
+            // 让其余线程进入等待后再放行渲染
+            Thread.sleep(100);
+            release.countDown();
+            return results;
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}